@@ -0,0 +1,318 @@
+package com.roshka.sifen;
+
+import com.roshka.sifen.core.beans.DocumentoElectronico;
+import com.roshka.sifen.core.beans.DocumentoEnLote;
+import com.roshka.sifen.core.beans.response.RespuestaRecepcionLoteDE;
+import com.roshka.sifen.internal.util.SifenExceptionUtil;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * Agrupa Documentos Electrónicos recibidos individualmente en lotes, que se envían a Sifen mediante la recepción de
+ * lotes. Cada RUC emisor tiene su propio lote pendiente, que se envía en cuanto se cumple alguna de las condiciones:
+ * <ul>
+ *      <li>Alcanza la cantidad máxima de documentos (hasta {@value #MAX_DOCUMENTOS_POR_LOTE}).</li>
+ *      <li>Agregar el siguiente documento superaría el tamaño máximo estimado del archivo zip del lote.</li>
+ *      <li>Transcurre el tiempo máximo de espera desde que se agregó su primer documento.</li>
+ * </ul>
+ * Cada documento agregado obtiene un Future que se completa con el resultado del envío de su lote, incluyendo el
+ * número de protocolo (dProtConsLote) a utilizar para consultar su estado. Es seguro utilizarlo desde varios hilos.
+ * <p>
+ * Los documentos agregados no deben modificarse hasta que su Future se complete. Al dejar de utilizarse, debe cerrarse
+ * con {@link #close()}, que envía los lotes pendientes.
+ */
+public class LoteBatcher implements AutoCloseable {
+    /**
+     * Cantidad máxima de Documentos Electrónicos que admite Sifen en un lote.
+     */
+    public final static int MAX_DOCUMENTOS_POR_LOTE = 50;
+
+    private final static Logger logger = Logger.getLogger(LoteBatcher.class.toString());
+    private final static AtomicInteger threadCount = new AtomicInteger();
+
+    // Estimación inicial del tamaño comprimido de un DE, ajustada luego con el tamaño real de los lotes enviados
+    private final static long ESTIMATED_BYTES_PER_DE = 2500;
+    private final static long ESTIMATED_BYTES_PER_ITEM = 150;
+    // Bytes del mensaje SOAP que no forman parte del contenido de xDE (declaración, sobre, rEnvioLote y dId)
+    private final static int SOAP_ENVELOPE_BYTES = 256;
+
+    private final Function<String, SifenClient> clientePorRuc;
+    private final int maxDocumentos;
+    private final long maxBytesEstimados;
+    private final long maxEsperaMillis;
+    private final ScheduledExecutorService scheduler;
+
+    private final Map<String, Batch> batches = new HashMap<>();
+    private final Set<CompletableFuture<?>> inFlight = ConcurrentHashMap.newKeySet();
+    private final AtomicLong lotesEnviados = new AtomicLong();
+    private final AtomicLong documentosEnviados = new AtomicLong();
+    private volatile double sizeFactor = 1.0;
+    private boolean closed = false;
+
+    /**
+     * Crea un agrupador que envía los lotes de todos los RUC emisores con el mismo cliente, con hasta 50 documentos,
+     * 700 KB estimados (el mensaje codificado en Base64 ocupa aproximadamente un tercio más) y 2 segundos de espera.
+     *
+     * @param cliente Cliente de Sifen a utilizar. No es cerrado por el agrupador.
+     */
+    public LoteBatcher(SifenClient cliente) {
+        this(ruc -> cliente, MAX_DOCUMENTOS_POR_LOTE, 700 * 1024, 2000);
+    }
+
+    /**
+     * @param clientePorRuc     Función que retorna el cliente de Sifen a utilizar para el RUC emisor (sin DV) recibido,
+     *                          permitiendo utilizar un certificado distinto por emisor. Los clientes no son cerrados por
+     *                          el agrupador.
+     * @param maxDocumentos     Cantidad máxima de documentos por lote, entre 1 y {@value #MAX_DOCUMENTOS_POR_LOTE}.
+     * @param maxBytesEstimados Tamaño máximo estimado, en bytes, del archivo zip del lote.
+     * @param maxEsperaMillis   Tiempo máximo, en milisegundos, que un documento espera en un lote pendiente.
+     */
+    public LoteBatcher(Function<String, SifenClient> clientePorRuc, int maxDocumentos, long maxBytesEstimados,
+                       long maxEsperaMillis) {
+        if (maxDocumentos < 1 || maxDocumentos > MAX_DOCUMENTOS_POR_LOTE) {
+            throw new IllegalArgumentException("La cantidad máxima de documentos por lote debe estar entre 1 y " + MAX_DOCUMENTOS_POR_LOTE + ".");
+        }
+        if (maxBytesEstimados < 1 || maxEsperaMillis < 0) {
+            throw new IllegalArgumentException("El tamaño máximo y el tiempo máximo de espera no deben ser negativos.");
+        }
+
+        this.clientePorRuc = clientePorRuc;
+        this.maxDocumentos = maxDocumentos;
+        this.maxBytesEstimados = maxBytesEstimados;
+        this.maxEsperaMillis = maxEsperaMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sifen-lote-batcher-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Agrega un Documento Electrónico al lote pendiente de su RUC emisor.
+     *
+     * @param de Documento Electrónico a enviar.
+     * @return Future que se completa con el resultado del envío del lote o, en caso de error, con la
+     * <i>SifenException</i> lanzada al generar o enviar el lote.
+     */
+    public CompletableFuture<DocumentoEnLote> agregar(DocumentoElectronico de) {
+        CompletableFuture<DocumentoEnLote> future = new CompletableFuture<>();
+
+        String ruc = null;
+        if (de != null && de.getgDatGralOpe() != null && de.getgDatGralOpe().getgEmis() != null) {
+            ruc = de.getgDatGralOpe().getgEmis().getdRucEm();
+        }
+        if (ruc == null) {
+            future.completeExceptionally(SifenExceptionUtil.fieldNotFound("No se encontró el RUC del emisor del Documento Electrónico."));
+            return future;
+        }
+
+        long size = estimateSize(de);
+        List<Batch> ready = new ArrayList<>(2);
+        synchronized (this) {
+            if (closed) {
+                future.completeExceptionally(new IllegalStateException("El agrupador de lotes ya fue cerrado."));
+                return future;
+            }
+
+            Batch batch = batches.get(ruc);
+            if (batch != null && batch.estimatedBytes + size > maxBytesEstimados) {
+                ready.add(detach(batch));
+                batch = null;
+            }
+            if (batch == null) {
+                batch = new Batch(ruc);
+                batches.put(ruc, batch);
+                Batch scheduled = batch;
+                batch.timer = scheduler.schedule(() -> flushOnTimeout(scheduled), maxEsperaMillis, TimeUnit.MILLISECONDS);
+            }
+
+            batch.documents.add(de);
+            batch.futures.add(future);
+            batch.estimatedBytes += size;
+            if (batch.documents.size() >= maxDocumentos) {
+                ready.add(detach(batch));
+            }
+        }
+
+        for (Batch batch : ready) {
+            send(batch);
+        }
+        return future;
+    }
+
+    /**
+     * Envía inmediatamente todos los lotes pendientes.
+     *
+     * @return Future que se completa cuando finaliza el envío de todos los lotes enviados hasta el momento.
+     */
+    public CompletableFuture<Void> vaciar() {
+        List<Batch> ready;
+        synchronized (this) {
+            ready = new ArrayList<>(batches.size());
+            for (Batch batch : new ArrayList<>(batches.values())) {
+                ready.add(detach(batch));
+            }
+        }
+
+        for (Batch batch : ready) {
+            send(batch);
+        }
+        return CompletableFuture.allOf(inFlight.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * @return Cantidad de lotes enviados (o en curso de envío).
+     */
+    public long getLotesEnviados() {
+        return lotesEnviados.get();
+    }
+
+    /**
+     * @return Cantidad de Documentos Electrónicos enviados (o en curso de envío) en algún lote.
+     */
+    public long getDocumentosEnviados() {
+        return documentosEnviados.get();
+    }
+
+    /**
+     * @return Cantidad de Documentos Electrónicos que esperan en algún lote pendiente.
+     */
+    public synchronized int getDocumentosPendientes() {
+        int pending = 0;
+        for (Batch batch : batches.values()) {
+            pending += batch.documents.size();
+        }
+        return pending;
+    }
+
+    /**
+     * Envía los lotes pendientes y espera a que finalicen todos los envíos. Luego de cerrado, no se admiten nuevos
+     * documentos.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+
+        CompletableFuture<Void> pending = vaciar();
+        scheduler.shutdownNow();
+        try {
+            pending.join();
+        } catch (RuntimeException ignored) {
+            // Los errores se informan en el Future de cada documento
+        }
+    }
+
+    private void flushOnTimeout(Batch batch) {
+        synchronized (this) {
+            if (batches.get(batch.ruc) != batch) {
+                return; // Ya fue enviado por otra condición
+            }
+            detach(batch);
+        }
+        send(batch);
+    }
+
+    /*
+     * Quita el lote de los pendientes. Debe invocarse con el monitor del agrupador.
+     */
+    private Batch detach(Batch batch) {
+        batches.remove(batch.ruc);
+        if (batch.timer != null) {
+            batch.timer.cancel(false);
+        }
+        return batch;
+    }
+
+    private void send(Batch batch) {
+        lotesEnviados.incrementAndGet();
+        documentosEnviados.addAndGet(batch.documents.size());
+        logger.fine("Enviando lote de " + batch.documents.size() + " DE del RUC " + batch.ruc);
+
+        CompletableFuture<RespuestaRecepcionLoteDE> response;
+        try {
+            response = clientePorRuc.apply(batch.ruc).recepcionLoteDEAsync(batch.documents);
+        } catch (RuntimeException e) {
+            response = new CompletableFuture<>();
+            response.completeExceptionally(e);
+        }
+
+        CompletableFuture<Void> completion = response.handle((respuesta, error) -> {
+            complete(batch, respuesta, error);
+            return null;
+        });
+        inFlight.add(completion);
+        completion.whenComplete((ignored, error) -> inFlight.remove(completion));
+    }
+
+    private void complete(Batch batch, RespuestaRecepcionLoteDE respuesta, Throwable error) {
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause()
+                    : error;
+            for (CompletableFuture<DocumentoEnLote> future : batch.futures) {
+                future.completeExceptionally(cause);
+            }
+            return;
+        }
+
+        updateSizeFactor(batch, respuesta);
+        int size = batch.documents.size();
+        for (int i = 0; i < size; i++) {
+            batch.futures.get(i).complete(new DocumentoEnLote(batch.documents.get(i).getId(), i, size, respuesta));
+        }
+    }
+
+    private long estimateSize(DocumentoElectronico de) {
+        int items = 0;
+        if (de.getgDtipDE() != null && de.getgDtipDE().getgCamItemList() != null) {
+            items = de.getgDtipDE().getgCamItemList().size();
+        }
+        return (long) ((ESTIMATED_BYTES_PER_DE + ESTIMATED_BYTES_PER_ITEM * items) * sizeFactor);
+    }
+
+    /*
+     * Ajusta la estimación de tamaño con el tamaño real del zip enviado (el contenido de xDE, en Base64).
+     */
+    private void updateSizeFactor(Batch batch, RespuestaRecepcionLoteDE respuesta) {
+        int base64Bytes = respuesta.getTamanoPeticion() - SOAP_ENVELOPE_BYTES;
+        if (base64Bytes <= 0 || batch.estimatedBytes <= 0) {
+            return;
+        }
+
+        double actualBytes = base64Bytes * 3.0 / 4;
+        double observed = sizeFactor * actualBytes / batch.estimatedBytes;
+        sizeFactor = Math.max(0.05, Math.min(20, 0.7 * sizeFactor + 0.3 * observed));
+    }
+
+    /**
+     * Lote pendiente de un RUC emisor.
+     */
+    private static class Batch {
+        private final String ruc;
+        private final List<DocumentoElectronico> documents = new ArrayList<>();
+        private final List<CompletableFuture<DocumentoEnLote>> futures = new ArrayList<>();
+        private long estimatedBytes = 0;
+        private ScheduledFuture<?> timer;
+
+        private Batch(String ruc) {
+            this.ruc = ruc;
+        }
+    }
+}
@@ -0,0 +1,458 @@
+package com.roshka.sifen;
+
+import com.roshka.sifen.core.beans.DocumentoEnLote;
+import com.roshka.sifen.core.beans.response.RespuestaConsultaLoteDE;
+import com.roshka.sifen.core.exceptions.SifenException;
+import com.roshka.sifen.core.fields.response.batch.TgResProcLote;
+import com.roshka.sifen.internal.util.SifenExceptionUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Realiza el seguimiento de lotes enviados a Sifen, consultándolos periódicamente con la consulta de lotes hasta que
+ * finaliza su procesamiento. Es seguro utilizarlo desde varios hilos, y admite miles de lotes en seguimiento.
+ * <ul>
+ *      <li>Cada lote se consulta con una espera adaptativa: comienza con la espera inicial y se duplica (con una
+ *      variación aleatoria de hasta un 20%) cada vez que el lote sigue en procesamiento o la consulta falla, hasta la
+ *      espera máxima.</li>
+ *      <li>La cantidad de consultas por segundo, sumando todos los lotes, no supera el límite configurado.</li>
+ *      <li>El seguimiento de un lote se abandona luego de {@value #HORAS_MAXIMAS_SEGUIMIENTO} horas, tiempo a partir del
+ *      cual Sifen ya no admite su consulta.</li>
+ * </ul>
+ * El resultado de cada Documento Electrónico puede obtenerse con un Future, con un callback, o consultarse por su CDC
+ * una vez finalizado el procesamiento de su lote. Al dejar de utilizarse, debe cerrarse con {@link #close()}.
+ */
+public class LotePoller implements AutoCloseable {
+    /**
+     * Código de respuesta de la consulta de un lote que aún está en procesamiento.
+     */
+    public final static String LOTE_EN_PROCESAMIENTO = "0361";
+
+    /**
+     * Código de respuesta de la consulta de un lote cuyo procesamiento concluyó.
+     */
+    public final static String LOTE_PROCESADO = "0362";
+
+    /**
+     * Cantidad de horas, desde su envío, durante las que Sifen admite la consulta de un lote.
+     */
+    public final static int HORAS_MAXIMAS_SEGUIMIENTO = 48;
+
+    private final static Logger logger = Logger.getLogger(LotePoller.class.toString());
+    private final static AtomicInteger threadCount = new AtomicInteger();
+
+    private final static double BACKOFF_FACTOR = 2.0;
+    private final static double JITTER = 0.2;
+    private final static int MAX_RESULTS = 100_000;
+
+    private final SifenClient cliente;
+    private final long esperaInicialNanos;
+    private final long esperaMaximaNanos;
+    private final long intervalNanos;
+    private final long maxTrackingNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final PriorityQueue<Tracked> queue = new PriorityQueue<>((a, b) -> Long.compare(a.nextPollNanos, b.nextPollNanos));
+    private final Map<String, Tracked> tracked = new HashMap<>();
+    private final Map<String, TgResProcLote> results;
+    private final Thread dispatcher;
+    private final AtomicLong consultasRealizadas = new AtomicLong();
+    private long nextPermitNanos;
+    private boolean closed = false;
+
+    /**
+     * Crea un seguidor de lotes con una espera inicial de 10 segundos, una espera máxima de 5 minutos y hasta 5
+     * consultas por segundo.
+     *
+     * @param cliente Cliente de Sifen a utilizar. No es cerrado por el seguidor.
+     */
+    public LotePoller(SifenClient cliente) {
+        this(cliente, 10 * 1000, 5 * 60 * 1000, 5);
+    }
+
+    /**
+     * @param cliente             Cliente de Sifen a utilizar. No es cerrado por el seguidor.
+     * @param esperaInicialMillis Tiempo, en milisegundos, desde el inicio del seguimiento de un lote hasta su primera
+     *                            consulta.
+     * @param esperaMaximaMillis  Tiempo máximo, en milisegundos, entre dos consultas del mismo lote.
+     * @param consultasPorSegundo Cantidad máxima de consultas por segundo, sumando todos los lotes en seguimiento.
+     */
+    public LotePoller(SifenClient cliente, long esperaInicialMillis, long esperaMaximaMillis, double consultasPorSegundo) {
+        if (esperaInicialMillis < 0 || esperaMaximaMillis < esperaInicialMillis) {
+            throw new IllegalArgumentException("La espera inicial no debe ser negativa ni superior a la espera máxima.");
+        }
+        if (!(consultasPorSegundo > 0)) {
+            throw new IllegalArgumentException("La cantidad máxima de consultas por segundo debe ser mayor a 0.");
+        }
+
+        this.cliente = cliente;
+        this.esperaInicialNanos = TimeUnit.MILLISECONDS.toNanos(esperaInicialMillis);
+        this.esperaMaximaNanos = TimeUnit.MILLISECONDS.toNanos(esperaMaximaMillis);
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / consultasPorSegundo);
+        this.maxTrackingNanos = TimeUnit.HOURS.toNanos(HORAS_MAXIMAS_SEGUIMIENTO);
+        this.nextPermitNanos = System.nanoTime();
+
+        // Índice de resultados por CDC, acotado para no crecer indefinidamente: se descartan los más antiguos
+        this.results = Collections.synchronizedMap(new LinkedHashMap<String, TgResProcLote>(1024, 0.75f) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TgResProcLote> eldest) {
+                return size() > MAX_RESULTS;
+            }
+        });
+
+        this.dispatcher = new Thread(this::dispatch, "sifen-lote-poller-" + threadCount.incrementAndGet());
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    /**
+     * Inicia el seguimiento de un lote, si aún no estaba en seguimiento.
+     *
+     * @param dProtConsLote Número de protocolo del lote, obtenido en su recepción.
+     * @return Future que se completa con la última respuesta de la consulta del lote, una vez que éste deja de estar en
+     * procesamiento, o con una <i>SifenException</i> si no pudo obtenerse dentro del tiempo de seguimiento.
+     */
+    public CompletableFuture<RespuestaConsultaLoteDE> seguirLote(String dProtConsLote) {
+        return seguirLote(dProtConsLote, null);
+    }
+
+    /**
+     * Inicia el seguimiento de un lote, si aún no estaba en seguimiento, e invoca el callback recibido con el resultado
+     * de cada Documento Electrónico del lote, una vez concluido su procesamiento.
+     *
+     * @param dProtConsLote Número de protocolo del lote, obtenido en su recepción.
+     * @param alProcesarDE  Callback a invocar con el resultado de cada DE, o <strong>null</strong>. Se invoca desde el
+     *                      hilo que recibe la respuesta de la consulta, por lo que no debe bloquearse.
+     * @return Future que se completa con la última respuesta de la consulta del lote.
+     */
+    public CompletableFuture<RespuestaConsultaLoteDE> seguirLote(String dProtConsLote, Consumer<TgResProcLote> alProcesarDE) {
+        lock.lock();
+        try {
+            Tracked lote = track(dProtConsLote);
+            if (alProcesarDE != null) {
+                if (lote.response.isDone()) {
+                    lote.response.thenAccept(respuesta -> notifyCallback(respuesta, alProcesarDE));
+                } else {
+                    lote.callbacks.add(alProcesarDE);
+                }
+            }
+            return lote.response;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Inicia el seguimiento del lote de un Documento Electrónico, si aún no estaba en seguimiento. Si ya se conoce el
+     * resultado del DE, porque su lote concluyó, se responde con el mismo sin volver a consultar el lote.
+     *
+     * @param dProtConsLote Número de protocolo del lote, obtenido en su recepción.
+     * @param CDC           CDC del Documento Electrónico.
+     * @return Future que se completa con el resultado del procesamiento del DE, o con una <i>SifenException</i> si el
+     * lote finalizó sin resultado para el DE o no pudo consultarse dentro del tiempo de seguimiento.
+     */
+    public CompletableFuture<TgResProcLote> seguirDE(String dProtConsLote, String CDC) {
+        TgResProcLote resultado = results.get(CDC);
+        if (resultado != null) {
+            return CompletableFuture.completedFuture(resultado);
+        }
+
+        lock.lock();
+        try {
+            Tracked lote = track(dProtConsLote);
+            CompletableFuture<TgResProcLote> future = new CompletableFuture<>();
+            if (lote.response.isDone()) {
+                lote.response.whenComplete((respuesta, error) -> completeDocument(lote, CDC, future, respuesta, error));
+            } else {
+                lote.documents.computeIfAbsent(CDC, k -> new ArrayList<>(1)).add(future);
+            }
+            return future;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Inicia el seguimiento del lote de un Documento Electrónico enviado por {@link LoteBatcher}.
+     *
+     * @param documento Resultado del envío del Documento Electrónico en su lote.
+     * @return Future que se completa con el resultado del procesamiento del DE.
+     * @see #seguirDE(String, String)
+     */
+    public CompletableFuture<TgResProcLote> seguirDE(DocumentoEnLote documento) {
+        if (documento.getdProtConsLote() == null) {
+            CompletableFuture<TgResProcLote> future = new CompletableFuture<>();
+            future.completeExceptionally(SifenExceptionUtil.fieldNotFound("El lote del DE " + documento.getCDC()
+                    + " no fue recibido por Sifen: " + documento.getRespuesta().getdCodRes() + " - " + documento.getRespuesta().getdMsgRes()));
+            return future;
+        }
+        return seguirDE(documento.getdProtConsLote(), documento.getCDC());
+    }
+
+    /**
+     * Obtiene el resultado del procesamiento de un Documento Electrónico cuyo lote ya concluyó. Se conservan los
+     * resultados de los últimos {@value #MAX_RESULTS} documentos.
+     *
+     * @param CDC CDC del Documento Electrónico.
+     * @return El resultado del procesamiento del DE, o <strong>null</strong> si aún no se conoce.
+     */
+    public TgResProcLote obtenerResultado(String CDC) {
+        return results.get(CDC);
+    }
+
+    /**
+     * @return Cantidad de lotes cuyo seguimiento aún no finalizó.
+     */
+    public int getLotesPendientes() {
+        lock.lock();
+        try {
+            return tracked.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Cantidad de consultas de lote realizadas.
+     */
+    public long getConsultasRealizadas() {
+        return consultasRealizadas.get();
+    }
+
+    /**
+     * Detiene el seguimiento de todos los lotes. Los Futures pendientes se completan con una
+     * <i>IllegalStateException</i>.
+     */
+    @Override
+    public void close() {
+        List<Tracked> pending;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pending = new ArrayList<>(tracked.values());
+            tracked.clear();
+            queue.clear();
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        for (Tracked lote : pending) {
+            fail(lote, new IllegalStateException("El seguidor de lotes fue cerrado."));
+        }
+    }
+
+    /*
+     * Debe invocarse con el lock tomado.
+     */
+    private Tracked track(String dProtConsLote) {
+        if (closed) {
+            throw new IllegalStateException("El seguidor de lotes ya fue cerrado.");
+        }
+
+        Tracked lote = tracked.get(dProtConsLote);
+        if (lote == null) {
+            lote = new Tracked(dProtConsLote, System.nanoTime());
+            lote.delayNanos = esperaInicialNanos;
+            lote.nextPollNanos = lote.startNanos + esperaInicialNanos;
+            tracked.put(dProtConsLote, lote);
+            queue.add(lote);
+            changed.signal();
+        }
+        return lote;
+    }
+
+    /*
+     * Hilo despachador: toma el próximo lote a consultar respetando el límite global de consultas por segundo.
+     */
+    private void dispatch() {
+        while (true) {
+            Tracked next;
+            lock.lock();
+            try {
+                while (true) {
+                    if (closed) {
+                        return;
+                    }
+                    Tracked head = queue.peek();
+                    if (head == null) {
+                        changed.awaitUninterruptibly();
+                        continue;
+                    }
+
+                    long now = System.nanoTime();
+                    long waitNanos = Math.max(head.nextPollNanos - now, nextPermitNanos - now);
+                    if (waitNanos > 0) {
+                        changed.awaitNanos(waitNanos);
+                        continue;
+                    }
+
+                    next = queue.poll();
+                    nextPermitNanos = Math.max(nextPermitNanos, now - intervalNanos) + intervalNanos;
+                    break;
+                }
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            poll(next);
+        }
+    }
+
+    private void poll(Tracked lote) {
+        consultasRealizadas.incrementAndGet();
+        CompletableFuture<RespuestaConsultaLoteDE> response;
+        try {
+            response = cliente.consultaLoteDEAsync(lote.dProtConsLote);
+        } catch (RuntimeException e) {
+            response = new CompletableFuture<>();
+            response.completeExceptionally(e);
+        }
+        response.whenComplete((respuesta, error) -> handle(lote, respuesta, error));
+    }
+
+    private void handle(Tracked lote, RespuestaConsultaLoteDE respuesta, Throwable error) {
+        if (error == null && respuesta.getdCodResLot() != null && !LOTE_EN_PROCESAMIENTO.equals(respuesta.getdCodResLot())) {
+            finish(lote, respuesta);
+            return;
+        }
+
+        if (error != null) {
+            logger.log(Level.WARNING, "Error al consultar el lote " + lote.dProtConsLote + ", se reintentará", unwrap(error));
+        }
+
+        long now = System.nanoTime();
+        if (now - lote.startNanos >= maxTrackingNanos) {
+            untrack(lote);
+            fail(lote, SifenExceptionUtil.unexpectedError("No se obtuvo el resultado del lote " + lote.dProtConsLote
+                    + " dentro de las " + HORAS_MAXIMAS_SEGUIMIENTO + " horas de seguimiento.", error == null ? null : unwrap(error)));
+            return;
+        }
+
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            lote.delayNanos = Math.min(esperaMaximaNanos, (long) (lote.delayNanos * BACKOFF_FACTOR));
+            double jitter = 1 + ThreadLocalRandom.current().nextDouble(-JITTER, JITTER);
+            lote.nextPollNanos = now + Math.max(1, (long) (lote.delayNanos * jitter));
+            queue.add(lote);
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void finish(Tracked lote, RespuestaConsultaLoteDE respuesta) {
+        logger.fine("Lote " + lote.dProtConsLote + " finalizado: " + respuesta.getdCodResLot());
+        for (TgResProcLote resultado : respuesta.getgResProcLoteList()) {
+            if (resultado.getId() != null) {
+                results.put(resultado.getId(), resultado);
+            }
+        }
+        untrack(lote);
+
+        for (Consumer<TgResProcLote> callback : lote.callbacks) {
+            notifyCallback(respuesta, callback);
+        }
+        for (Map.Entry<String, List<CompletableFuture<TgResProcLote>>> entry : lote.documents.entrySet()) {
+            for (CompletableFuture<TgResProcLote> future : entry.getValue()) {
+                completeDocument(lote, entry.getKey(), future, respuesta, null);
+            }
+        }
+        lote.response.complete(respuesta);
+    }
+
+    private void fail(Tracked lote, Throwable error) {
+        for (List<CompletableFuture<TgResProcLote>> futures : lote.documents.values()) {
+            for (CompletableFuture<TgResProcLote> future : futures) {
+                future.completeExceptionally(error);
+            }
+        }
+        lote.response.completeExceptionally(error);
+    }
+
+    private void untrack(Tracked lote) {
+        lock.lock();
+        try {
+            tracked.remove(lote.dProtConsLote, lote);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void notifyCallback(RespuestaConsultaLoteDE respuesta, Consumer<TgResProcLote> callback) {
+        for (TgResProcLote resultado : respuesta.getgResProcLoteList()) {
+            try {
+                callback.accept(resultado);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Error en el callback del DE " + resultado.getId(), e);
+            }
+        }
+    }
+
+    private static void completeDocument(Tracked lote, String CDC, CompletableFuture<TgResProcLote> future,
+                                         RespuestaConsultaLoteDE respuesta, Throwable error) {
+        if (error != null) {
+            future.completeExceptionally(unwrap(error));
+            return;
+        }
+
+        TgResProcLote resultado = respuesta.getgResProcLote(CDC);
+        if (resultado != null) {
+            future.complete(resultado);
+        } else {
+            SifenException e = SifenExceptionUtil.fieldNotFound("El lote " + lote.dProtConsLote + " finalizó sin resultado para el DE "
+                    + CDC + ": " + respuesta.getdCodResLot() + " - " + respuesta.getdMsgResLot());
+            future.completeExceptionally(e);
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * Lote en seguimiento.
+     */
+    private static class Tracked {
+        private final String dProtConsLote;
+        private final long startNanos;
+        private final CompletableFuture<RespuestaConsultaLoteDE> response = new CompletableFuture<>();
+        private final Map<String, List<CompletableFuture<TgResProcLote>>> documents = new HashMap<>();
+        private final List<Consumer<TgResProcLote>> callbacks = new ArrayList<>(1);
+        private long delayNanos;
+        private long nextPollNanos;
+
+        private Tracked(String dProtConsLote, long startNanos) {
+            this.dProtConsLote = dProtConsLote;
+            this.startNanos = startNanos;
+        }
+    }
+}
@@ -0,0 +1,420 @@
+package com.roshka.sifen;
+
+import com.roshka.sifen.core.SifenConfig;
+import com.roshka.sifen.core.beans.DocumentoElectronico;
+import com.roshka.sifen.core.beans.EnvioRegistrado;
+import com.roshka.sifen.core.beans.EnvioRegistrado.Estado;
+import com.roshka.sifen.core.beans.response.RespuestaConsultaDE;
+import com.roshka.sifen.core.beans.response.RespuestaConsultaLoteDE;
+import com.roshka.sifen.core.beans.response.RespuestaRecepcionDE;
+import com.roshka.sifen.core.exceptions.SifenException;
+import com.roshka.sifen.core.fields.response.TgResProc;
+import com.roshka.sifen.core.fields.response.TxProtDe;
+import com.roshka.sifen.core.fields.response.batch.TgResProcLote;
+import com.roshka.sifen.core.fields.response.de.TxContenDE;
+import com.roshka.sifen.internal.ctx.GenerationCtx;
+import com.roshka.sifen.internal.journal.JournalRecord;
+import com.roshka.sifen.internal.journal.MappedJournal;
+import com.roshka.sifen.internal.util.SifenExceptionUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Journal persistente de los envíos de Documentos Electrónicos, que permite retomar los envíos interrumpidos (ej.: si
+ * la aplicación se detiene entre la firma de un DE y la respuesta de Sifen). Registra, para cada CDC, el XML firmado y
+ * cada cambio de estado (ver {@link EnvioRegistrado.Estado}) en archivos de solo agregado, mapeados en memoria, dentro
+ * del directorio indicado.
+ * <ul>
+ *      <li>La sincronización con el disco se agrupa: se realiza en segundo plano, como máximo cada intervalo de
+ *      sincronización, y cubre todos los registros escritos hasta ese momento.</li>
+ *      <li>Al llenarse un segmento se crea el siguiente. Cuando se acumulan varios segmentos, se compactan: se reescriben
+ *      solamente los envíos pendientes y se eliminan los anteriores.</li>
+ *      <li>Al abrirse, se recupera el estado de todos los envíos; {@link #recuperar(SifenConfig)} retoma los pendientes
+ *      a través de {@link Sifen}.</li>
+ * </ul>
+ * Es seguro utilizarlo desde varios hilos, pero cada directorio debe ser utilizado por un único journal a la vez. Al
+ * dejar de utilizarse, debe cerrarse con {@link #close()}.
+ */
+public class OutboxJournal implements AutoCloseable {
+    private final static Logger logger = Logger.getLogger(OutboxJournal.class.toString());
+
+    // Códigos de respuesta de la consulta de DE
+    private final static String CDC_ENCONTRADO = "0422";
+
+    // Cantidad de segmentos nuevos a partir de la cual se compacta automáticamente
+    private final static int SEGMENTOS_COMPACTACION = 8;
+
+    private final MappedJournal journal;
+    private final boolean esperarSincronizacion;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private int segmentsAfterCompaction;
+
+    /**
+     * Abre el journal del directorio indicado, con segmentos de 64 MB, sincronizado con el disco cada 100
+     * milisegundos, sin esperar la sincronización de cada registro.
+     *
+     * @param directorio Directorio del journal. Se crea si no existe.
+     * @throws SifenException Si el directorio o sus archivos no pueden abrirse.
+     */
+    public OutboxJournal(File directorio) throws SifenException {
+        this(directorio, 64 * 1024 * 1024, 100, false);
+    }
+
+    /**
+     * @param directorio                    Directorio del journal. Se crea si no existe.
+     * @param tamanoSegmento                Tamaño, en bytes, de cada archivo del journal (mínimo 64 KB).
+     * @param intervaloSincronizacionMillis Tiempo máximo, en milisegundos, hasta la sincronización con el disco de
+     *                                      cada registro. Con 0, cada registro se sincroniza al escribirse.
+     * @param esperarSincronizacion         Si cada registro espera a ser sincronizado con el disco antes de retornar,
+     *                                      garantizando su durabilidad (los registros concurrentes comparten la
+     *                                      sincronización).
+     * @throws SifenException Si el directorio o sus archivos no pueden abrirse.
+     */
+    public OutboxJournal(File directorio, int tamanoSegmento, long intervaloSincronizacionMillis, boolean esperarSincronizacion) throws SifenException {
+        if (tamanoSegmento < 64 * 1024) {
+            throw new IllegalArgumentException("El tamaño de los segmentos del journal debe ser de al menos 64 KB.");
+        }
+        if (intervaloSincronizacionMillis < 0) {
+            throw new IllegalArgumentException("El intervalo de sincronización del journal no debe ser negativo.");
+        }
+
+        try {
+            this.journal = new MappedJournal(directorio, tamanoSegmento, intervaloSincronizacionMillis);
+        } catch (IOException e) {
+            throw SifenExceptionUtil.unexpectedError("No se pudo abrir el journal de envíos en " + directorio, e);
+        }
+        this.esperarSincronizacion = esperarSincronizacion;
+        this.journal.replay(record -> apply(record, Estado.getByVal(record.getState())));
+        this.segmentsAfterCompaction = journal.getSegmentCount();
+        logger.info("Journal de envíos abierto: " + entries.size() + " DE registrados");
+    }
+
+    /**
+     * Registra el XML firmado de un Documento Electrónico, antes de su envío.
+     *
+     * @param CDC        CDC del Documento Electrónico.
+     * @param xmlFirmado XML firmado del elemento rDE, tal como será enviado.
+     * @throws SifenException Si no se puede escribir en el journal.
+     */
+    public void registrarFirmado(String CDC, String xmlFirmado) throws SifenException {
+        append(CDC, Estado.FIRMADO, null, xmlFirmado.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Registra un cambio de estado del envío de un Documento Electrónico.
+     *
+     * @param CDC     CDC del Documento Electrónico.
+     * @param estado  Nuevo estado del envío.
+     * @param detalle Detalle del estado, o <strong>null</strong> (ver {@link EnvioRegistrado#getDetalle()}).
+     * @throws SifenException Si no se puede escribir en el journal.
+     */
+    public void registrarEstado(String CDC, Estado estado, String detalle) throws SifenException {
+        append(CDC, estado, detalle, null);
+    }
+
+    /**
+     * Registra el envío de los Documentos Electrónicos de un lote, pendiente de procesamiento.
+     *
+     * @param CDCs          CDC de los Documentos Electrónicos del lote.
+     * @param dProtConsLote Número de protocolo del lote, obtenido en su recepción.
+     * @throws SifenException Si no se puede escribir en el journal.
+     */
+    public void registrarLote(List<String> CDCs, String dProtConsLote) throws SifenException {
+        for (String CDC : CDCs) {
+            append(CDC, Estado.LOTE_PENDIENTE, dProtConsLote, null);
+        }
+    }
+
+    /**
+     * Genera y firma el Documento Electrónico, lo registra y lo envía a Sifen, registrando el resultado. Si la
+     * aplicación se detiene antes de obtener el resultado, el envío queda pendiente para su recuperación.
+     *
+     * @param de          Objeto que hace referencia a un Documento Electrónico, con todos sus datos.
+     * @param sifenConfig Configuración de Sifen a ser utilizada en esta petición.
+     * @return La respuesta de Sifen a la recepción del DE.
+     * @throws SifenException Si la generación o la firma del DE fallan o, si no se puede escribir en el journal o, si
+     *                        la consulta no pudo ser realizada.
+     */
+    public RespuestaRecepcionDE recepcionDE(DocumentoElectronico de, SifenConfig sifenConfig) throws SifenException {
+        String xmlFirmado = extractRDE(de.generarXml(GenerationCtx.getDefaultFromConfig(sifenConfig), sifenConfig));
+        String CDC = de.getId();
+        registrarFirmado(CDC, xmlFirmado);
+        registrarEstado(CDC, Estado.ENVIADO, null);
+
+        RespuestaRecepcionDE respuesta = Sifen.recepcionDEFirmado(xmlFirmado, sifenConfig);
+        registrarResultado(CDC, respuesta);
+        return respuesta;
+    }
+
+    /**
+     * @param CDC CDC del Documento Electrónico.
+     * @return El último estado registrado del envío, incluyendo su XML firmado, o <strong>null</strong> si el CDC no
+     * está registrado (o ya fue descartado por la compactación, luego de alcanzar un estado final).
+     */
+    public synchronized EnvioRegistrado obtener(String CDC) {
+        Entry entry = entries.get(CDC);
+        return entry == null ? null : toEnvio(entry);
+    }
+
+    /**
+     * @return Los envíos que aún no alcanzaron un estado final, en el orden en que fueron registrados por primera vez.
+     */
+    public synchronized List<EnvioRegistrado> getPendientes() {
+        List<EnvioRegistrado> pendientes = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            if (!entry.isFinal()) {
+                pendientes.add(toEnvio(entry));
+            }
+        }
+        return pendientes;
+    }
+
+    /**
+     * Retoma los envíos pendientes con la configuración establecida en {@link Sifen#setSifenConfig(SifenConfig)}.
+     *
+     * @return Cantidad de envíos que alcanzaron un estado final.
+     * @throws SifenException Si no se puede escribir en el journal.
+     * @see #recuperar(SifenConfig)
+     */
+    public int recuperar() throws SifenException {
+        return recuperar(Sifen.getSifenConfig());
+    }
+
+    /**
+     * Retoma los envíos pendientes a través de {@link Sifen}:
+     * <ul>
+     *      <li>Los DE de lotes pendientes se actualizan con la consulta del lote, si su procesamiento concluyó.</li>
+     *      <li>Los DE firmados o enviados (y los de lotes que ya no pueden consultarse) se consultan por CDC. Los que Sifen
+     *      devuelve con su protocolo de autorización se registran como aprobados; los encontrados sin el mismo quedan
+     *      pendientes; y si Sifen no los tiene, se reenvía el XML firmado registrado, sin volver a generarlo.</li>
+     * </ul>
+     * Los errores de comunicación con Sifen se registran en el log, y el envío afectado queda pendiente.
+     *
+     * @param sifenConfig Configuración de Sifen a ser utilizada en las peticiones.
+     * @return Cantidad de envíos que alcanzaron un estado final.
+     * @throws SifenException Si no se puede escribir en el journal.
+     */
+    public int recuperar(SifenConfig sifenConfig) throws SifenException {
+        Map<String, List<EnvioRegistrado>> lotes = new LinkedHashMap<>();
+        List<EnvioRegistrado> individuales = new ArrayList<>();
+        for (EnvioRegistrado envio : getPendientes()) {
+            if (envio.getEstado() == Estado.LOTE_PENDIENTE && envio.getDetalle() != null) {
+                lotes.computeIfAbsent(envio.getDetalle(), k -> new ArrayList<>()).add(envio);
+            } else {
+                individuales.add(envio);
+            }
+        }
+
+        int finalizados = 0;
+        for (Map.Entry<String, List<EnvioRegistrado>> lote : lotes.entrySet()) {
+            RespuestaConsultaLoteDE respuesta;
+            try {
+                respuesta = Sifen.consultaLoteDE(lote.getKey(), sifenConfig);
+            } catch (SifenException e) {
+                logger.warning("No se pudo consultar el lote " + lote.getKey() + ": " + e.getMessage());
+                continue;
+            }
+            if (respuesta.getdCodResLot() == null || LotePoller.LOTE_EN_PROCESAMIENTO.equals(respuesta.getdCodResLot())) {
+                continue;
+            }
+
+            for (EnvioRegistrado envio : lote.getValue()) {
+                TgResProcLote resultado = respuesta.getgResProcLote(envio.getCDC());
+                if (resultado != null && resultado.getdEstRes() != null) {
+                    registrarEstado(envio.getCDC(), toEstado(resultado.getdEstRes()), detail(resultado.getgResProc()));
+                    finalizados++;
+                } else {
+                    // El lote no puede consultarse o no contiene el DE
+                    individuales.add(envio);
+                }
+            }
+        }
+
+        for (EnvioRegistrado envio : individuales) {
+            try {
+                if (recover(envio, sifenConfig)) {
+                    finalizados++;
+                }
+            } catch (SifenException e) {
+                logger.warning("No se pudo recuperar el envío del DE " + envio.getCDC() + ": " + e.getMessage());
+            }
+        }
+        return finalizados;
+    }
+
+    /**
+     * Sincroniza inmediatamente con el disco todos los registros escritos.
+     */
+    public void sincronizar() {
+        journal.sync();
+    }
+
+    /**
+     * Reescribe el journal conservando solamente los envíos pendientes, y elimina los archivos anteriores. Se realiza
+     * automáticamente cada vez que se acumulan varios segmentos nuevos.
+     *
+     * @throws SifenException Si no se puede escribir en el journal.
+     */
+    public synchronized void compactar() throws SifenException {
+        List<JournalRecord> live = new ArrayList<>();
+        List<Entry> finished = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            if (entry.isFinal()) {
+                finished.add(entry);
+                continue;
+            }
+            if (entry.signed != null) {
+                live.add(entry.signed);
+            }
+            if (entry.last != entry.signed) {
+                live.add(entry.last);
+            }
+        }
+
+        try {
+            journal.compact(live);
+        } catch (IOException e) {
+            throw SifenExceptionUtil.unexpectedError("No se pudo compactar el journal de envíos", e);
+        }
+        for (Entry entry : finished) {
+            entries.remove(entry.last.getCdc());
+        }
+        segmentsAfterCompaction = journal.getSegmentCount();
+        logger.fine("Journal de envíos compactado: " + live.size() + " registros conservados");
+    }
+
+    /**
+     * Sincroniza los registros pendientes con el disco y cierra el journal.
+     */
+    @Override
+    public void close() {
+        journal.close();
+    }
+
+    private void append(String CDC, Estado estado, String detalle, byte[] xml) throws SifenException {
+        if (CDC == null) {
+            throw new IllegalArgumentException("El CDC del envío no debe ser nulo.");
+        }
+
+        long seq;
+        synchronized (this) {
+            JournalRecord record = new JournalRecord(estado.getVal(), System.currentTimeMillis(), CDC, detalle);
+            try {
+                seq = journal.append(record, xml);
+            } catch (IOException e) {
+                throw SifenExceptionUtil.unexpectedError("No se pudo escribir en el journal de envíos", e);
+            }
+            apply(record, estado);
+
+            if (journal.getSegmentCount() > segmentsAfterCompaction + SEGMENTOS_COMPACTACION) {
+                compactar();
+            }
+        }
+
+        if (esperarSincronizacion) {
+            try {
+                journal.awaitSync(seq);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw SifenExceptionUtil.unexpectedError("Interrupción al esperar la sincronización del journal de envíos", e);
+            }
+        }
+    }
+
+    /*
+     * Debe invocarse con el monitor del journal, o durante la apertura.
+     */
+    private void apply(JournalRecord record, Estado estado) {
+        Entry entry = entries.computeIfAbsent(record.getCdc(), k -> new Entry());
+        if (record.hasXml()) {
+            entry.signed = record;
+        }
+        entry.last = record;
+        entry.estado = estado;
+    }
+
+    private boolean recover(EnvioRegistrado envio, SifenConfig sifenConfig) throws SifenException {
+        RespuestaConsultaDE consulta = Sifen.consultaDE(envio.getCDC(), sifenConfig);
+        if (CDC_ENCONTRADO.equals(consulta.getdCodRes())) {
+            // Solo se considera aprobado el DE devuelto con su protocolo de autorización
+            TxContenDE contenido = consulta.getxContenDE();
+            if (contenido == null || contenido.getdProtAut() == null || contenido.getdProtAut().isEmpty()
+                    || (contenido.getDE() != null && !envio.getCDC().equals(contenido.getDE().getId()))) {
+                logger.warning("El DE " + envio.getCDC() + " fue encontrado en Sifen, pero la respuesta no incluye su protocolo de autorización. Queda pendiente");
+                return false;
+            }
+            registrarEstado(envio.getCDC(), Estado.APROBADO, consulta.getdCodRes() + " - " + consulta.getdMsgRes());
+            return true;
+        }
+
+        if (envio.getXmlFirmado() == null) {
+            logger.warning("El DE " + envio.getCDC() + " no fue encontrado en Sifen y no tiene un XML firmado registrado para reenviarlo");
+            return false;
+        }
+
+        logger.info("Reenviando el DE " + envio.getCDC());
+        registrarEstado(envio.getCDC(), Estado.ENVIADO, null);
+        return registrarResultado(envio.getCDC(), Sifen.recepcionDEFirmado(envio.getXmlFirmado(), sifenConfig));
+    }
+
+    private boolean registrarResultado(String CDC, RespuestaRecepcionDE respuesta) throws SifenException {
+        TxProtDe xProtDE = respuesta.getxProtDE();
+        if (xProtDE == null || xProtDE.getdEstRes() == null) {
+            logger.warning("No se obtuvo el resultado del DE " + CDC + " (código de estado " + respuesta.getCodigoEstado() + "). Queda pendiente");
+            return false;
+        }
+
+        registrarEstado(CDC, toEstado(xProtDE.getdEstRes()), detail(xProtDE.getgResProc()));
+        return true;
+    }
+
+    private EnvioRegistrado toEnvio(Entry entry) {
+        JournalRecord last = entry.last;
+        String xml = entry.signed == null ? null : journal.readXml(entry.signed);
+        return new EnvioRegistrado(last.getCdc(), entry.estado, last.getDetail(), last.getTimestamp(), xml);
+    }
+
+    private static Estado toEstado(String dEstRes) {
+        // "Aprobado", "Aprobado con observación" o "Rechazado"
+        return dEstRes.startsWith("Aprobado") ? Estado.APROBADO : Estado.RECHAZADO;
+    }
+
+    private static String detail(List<TgResProc> gResProc) {
+        if (gResProc == null || gResProc.isEmpty()) {
+            return null;
+        }
+        return gResProc.get(0).getdCodRes() + " - " + gResProc.get(0).getdMsgRes();
+    }
+
+    /*
+     * Extrae el elemento rDE del mensaje generado para la recepción del DE.
+     */
+    private static String extractRDE(String xml) throws SifenException {
+        int start = xml == null ? -1 : xml.indexOf("<rDE");
+        int end = start == -1 ? -1 : xml.lastIndexOf("</rDE>");
+        if (end == -1) {
+            throw SifenExceptionUtil.fieldNotFound("No se encontró el elemento rDE en el XML generado.");
+        }
+        return xml.substring(start, end + "</rDE>".length());
+    }
+
+    /**
+     * Estado en memoria del envío de un DE: el registro con su XML firmado y el último registro.
+     */
+    private static class Entry {
+        private JournalRecord signed;
+        private JournalRecord last;
+        private Estado estado;
+
+        private boolean isFinal() {
+            return estado != null && estado.isFinal();
+        }
+    }
+}
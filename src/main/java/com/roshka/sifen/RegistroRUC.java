@@ -0,0 +1,128 @@
+package com.roshka.sifen;
+
+import com.roshka.sifen.core.SifenConfig;
+import com.roshka.sifen.core.beans.ContribuyenteRUC;
+import com.roshka.sifen.core.exceptions.SifenException;
+import com.roshka.sifen.internal.ruc.RucRegistry;
+import com.roshka.sifen.internal.util.SifenExceptionUtil;
+import com.roshka.sifen.internal.util.SifenUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Registro local de contribuyentes, construido a partir del listado de RUCs publicado por la SET, que permite verificar
+ * la existencia, la razón social y el DV de un RUC sin realizar peticiones a Sifen.
+ * <ul>
+ *      <li>{@link #importar(List, File)} convierte los listados (archivos de texto o los ZIP publicados) en un índice
+ *      compacto y ordenado, en un único archivo.</li>
+ *      <li>Al abrirse, el índice se mapea en memoria: los contribuyentes no se cargan en el heap, y cada búsqueda es
+ *      binaria sobre el archivo.</li>
+ *      <li>Si se configura el índice en {@link SifenConfig#setConsultaRucRegistro(String)},
+ *      {@link SifenClient#resolverRUC(String)} responde desde el registro los RUCs que contiene, y consulta a Sifen
+ *      solamente los demás.</li>
+ * </ul>
+ * Es seguro utilizarlo desde varios hilos.
+ */
+public class RegistroRUC implements AutoCloseable {
+    private final static Logger logger = Logger.getLogger(RegistroRUC.class.toString());
+
+    private final RucRegistry registry;
+
+    /**
+     * Abre un índice creado con {@link #importar(List, File)}.
+     *
+     * @param indice Archivo del índice.
+     * @throws SifenException Si el archivo no puede abrirse o, si no es un índice válido.
+     */
+    public RegistroRUC(File indice) throws SifenException {
+        try {
+            this.registry = new RucRegistry(indice);
+        } catch (IOException e) {
+            throw SifenExceptionUtil.invalidConfiguration("No se pudo abrir el registro de RUCs " + indice + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Crea un índice a partir de los listados de RUCs publicados por la SET: archivos de texto en UTF-8, o los archivos
+     * ZIP que los contienen, con una línea por contribuyente en el formato <i>RUC|RAZÓN SOCIAL|DV|RUC ANTERIOR|ESTADO|</i>.
+     * Si un RUC aparece más de una vez, se conserva el último. Las líneas que no respetan el formato se descartan.
+     *
+     * @param listados Listados a importar.
+     * @param indice   Archivo del índice a crear. Se reemplaza si existe, una vez finalizada la importación.
+     * @return La cantidad de contribuyentes del índice.
+     * @throws SifenException Si algún listado no puede leerse o, si el índice no puede escribirse.
+     */
+    public static int importar(List<File> listados, File indice) throws SifenException {
+        RucRegistry.BuildResult result;
+        try {
+            result = RucRegistry.build(listados, indice);
+        } catch (IOException e) {
+            throw SifenExceptionUtil.unexpectedError("No se pudo crear el registro de RUCs " + indice, e);
+        }
+
+        if (result.getDiscarded() > 0) {
+            logger.warning("Se descartaron " + result.getDiscarded() + " líneas del listado de RUCs por no respetar el formato");
+        }
+        if (result.getInconsistentDv() > 0) {
+            logger.warning(result.getInconsistentDv() + " RUCs del listado tienen un DV que no coincide con el calculado");
+        }
+        return result.getWritten();
+    }
+
+    /**
+     * Busca un contribuyente en el registro.
+     *
+     * @param ruc RUC del contribuyente, sin el DV.
+     * @return Los datos del contribuyente, o <strong>null</strong> si no se encuentra en el registro.
+     */
+    public ContribuyenteRUC buscar(String ruc) {
+        return registry.find(ruc);
+    }
+
+    /**
+     * @param ruc RUC del contribuyente, sin el DV.
+     * @return Si el contribuyente se encuentra en el registro.
+     */
+    public boolean existe(String ruc) {
+        return registry.contains(ruc);
+    }
+
+    /**
+     * Verifica que un RUC se encuentre en el registro, y que su DV coincida tanto con el publicado por la SET como con el
+     * calculado (ver {@link SifenUtil#generateDv(String)}).
+     *
+     * @param ruc RUC del contribuyente, sin el DV.
+     * @param dv  DV a verificar.
+     * @return Si el RUC existe y el DV es correcto.
+     */
+    public boolean validarDV(String ruc, String dv) {
+        ContribuyenteRUC contribuyente = registry.find(ruc);
+        if (contribuyente == null || dv == null || !contribuyente.getDv().equals(dv.trim())) {
+            return false;
+        }
+
+        try {
+            return SifenUtil.generateDv(contribuyente.getRuc()).equals(contribuyente.getDv());
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return Cantidad de contribuyentes del registro.
+     */
+    public int getCantidad() {
+        return registry.size();
+    }
+
+    /**
+     * Cierra el registro. El mapeo del archivo se libera cuando el registro deja de ser referenciado.
+     */
+    @Override
+    public void close() {
+        registry.close();
+    }
+}
@@ -2,18 +2,37 @@ package com.roshka.sifen;
 
 import com.roshka.sifen.core.SifenConfig;
 import com.roshka.sifen.core.beans.DocumentoElectronico;
+import com.roshka.sifen.core.beans.ErrorEsquema;
+import com.roshka.sifen.core.beans.EstadisticasCacheRUC;
+import com.roshka.sifen.core.beans.EstadisticasClavesFirma;
+import com.roshka.sifen.core.beans.EstadisticasConexiones;
+import com.roshka.sifen.core.beans.EstadisticasResiliencia;
 import com.roshka.sifen.core.beans.EventosDE;
 import com.roshka.sifen.core.beans.ValidezFirmaDigital;
 import com.roshka.sifen.core.beans.response.*;
 import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.internal.ctx.GenerationCtx;
+import com.roshka.sifen.internal.helpers.BulkSignatureValidator;
 import com.roshka.sifen.internal.helpers.SignatureHelper;
-import com.roshka.sifen.internal.request.*;
+import com.roshka.sifen.internal.helpers.SigningKeyCache;
 import com.roshka.sifen.internal.util.SifenExceptionUtil;
-import com.roshka.sifen.internal.util.SifenUtil;
+import com.roshka.sifen.internal.xml.SchemaValidator;
+import org.xml.sax.InputSource;
 
 import java.io.File;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
 /**
@@ -22,7 +41,12 @@ import java.util.logging.Logger;
 public class Sifen {
     private final static Logger logger = Logger.getLogger(Sifen.class.toString());
     private static SifenConfig sifenConfig = null;
-    private static long dId = 1;
+
+    // Clientes creados a partir de cada configuración utilizada, identificada por instancia. La búsqueda no toma
+    // ningún lock; solo se sincroniza la creación de un cliente.
+    private final static Map<ConfigKey, ClientEntry> clients = new ConcurrentHashMap<>();
+    private final static ReferenceQueue<SifenConfig> collectedConfigs = new ReferenceQueue<>();
+    private final static Object creationLock = new Object();
 
     /**
      * Establece la configuración necesaria para el funcionamiento correcto de todas las funcionalidades. Solo
@@ -37,7 +61,7 @@ public class Sifen {
             throw SifenExceptionUtil.invalidConfiguration("La configuración de Sifen no debe ser nula.");
         }
 
-        validateConfiguration(newSifenConfig);
+        withClient(newSifenConfig, client -> null);
         sifenConfig = newSifenConfig;
         logger.info("Configuración de Sifen guardada correctamente");
     }
@@ -70,7 +94,7 @@ public class Sifen {
      * consulta no pudo ser encontrado o, si la consulta no pudo ser realizada.
      */
     public static RespuestaConsultaRUC consultaRUC(String ruc, SifenConfig sifenConfig) throws SifenException {
-        return consultaRUC(ruc, sifenConfig, GenerationCtx.getDefaultFromConfig(sifenConfig));
+        return withClient(sifenConfig, client -> client.consultaRUC(ruc));
     }
 
     /**
@@ -84,16 +108,34 @@ public class Sifen {
      *                        consulta no pudo ser encontrado o, si la consulta no pudo ser realizada.
      */
     public static RespuestaConsultaRUC consultaRUC(String ruc, SifenConfig sifenConfig, GenerationCtx generationCtx) throws SifenException {
-        if (sifenConfig == null) {
-            throw SifenExceptionUtil.invalidConfiguration("Falta establecer la configuración de Sifen.");
-        }
+        return withClient(sifenConfig, client -> client.consultaRUC(ruc, generationCtx));
+    }
 
-        validateConfiguration(sifenConfig);
-        logger.info("Preparando petición 'Consulta de RUC'");
-        ReqConsRuc reqConsRuc = new ReqConsRuc(dId++, sifenConfig);
-        reqConsRuc.setdRUCCons(ruc);
+    /**
+     * Obtiene los datos y el estado del RUC de un contribuyente, a partir del registro local de RUCs cuando es posible
+     * (ver {@link SifenClient#resolverRUC(String)}).
+     *
+     * @param ruc RUC de un contribuyente, sin el DV.
+     * @return La respuesta del registro local o de Sifen.
+     * @throws SifenException Si la configuración de Sifen no fue establecida o, si algún dato necesario para la
+     *                        consulta no pudo ser encontrado o, si la consulta a Sifen no pudo ser realizada.
+     */
+    public static RespuestaConsultaRUC resolverRUC(String ruc) throws SifenException {
+        return withClient(sifenConfig, client -> client.resolverRUC(ruc));
+    }
 
-        return (RespuestaConsultaRUC) reqConsRuc.makeRequest(generationCtx, sifenConfig.getPathConsultaRUC());
+    /**
+     * Consulta en Sifen, en paralelo, los RUCs que aún no se encuentran en la caché de consultas de RUC, para que las
+     * consultas posteriores sean respondidas sin realizar peticiones. Los RUCs que no pudieron ser consultados se
+     * omiten.
+     *
+     * @param rucs RUCs de los contribuyentes a ser consultados, sin el DV.
+     * @return La cantidad de RUCs de la lista que se encuentran en la caché al finalizar.
+     * @throws SifenException Si la configuración de Sifen no fue establecida o, si la caché de consultas de RUC no
+     *                        está habilitada o, si la precarga fue interrumpida.
+     */
+    public static int precargarRUC(Collection<String> rucs) throws SifenException {
+        return withClient(sifenConfig, client -> client.precargarRUC(rucs));
     }
 
     /**
@@ -118,7 +160,7 @@ public class Sifen {
      *                        consulta no pudo ser encontrado o, si la consulta no pudo ser realizada.
      */
     public static RespuestaConsultaDE consultaDE(String cdc, SifenConfig sifenConfig) throws SifenException {
-        return consultaDE(cdc, sifenConfig, GenerationCtx.getDefaultFromConfig(sifenConfig));
+        return withClient(sifenConfig, client -> client.consultaDE(cdc));
     }
 
     /**
@@ -132,16 +174,7 @@ public class Sifen {
      *                        consulta no pudo ser encontrado o, si la consulta no pudo ser realizada.
      */
     public static RespuestaConsultaDE consultaDE(String cdc, SifenConfig sifenConfig, GenerationCtx generationCtx) throws SifenException {
-        if (sifenConfig == null) {
-            throw SifenExceptionUtil.invalidConfiguration("Falta establecer la configuración de Sifen.");
-        }
-
-        validateConfiguration(sifenConfig);
-        logger.info("Preparando petición 'Consulta de DE'");
-        ReqConsDe reqConsDe = new ReqConsDe(dId++, sifenConfig);
-        reqConsDe.setdCDC(cdc);
-
-        return (RespuestaConsultaDE) reqConsDe.makeRequest(generationCtx, sifenConfig.getPathConsulta());
+        return withClient(sifenConfig, client -> client.consultaDE(cdc, generationCtx));
     }
 
     /**
@@ -166,7 +199,7 @@ public class Sifen {
      *                        consulta no pudo ser encontrado o, si la consulta no pudo ser realizada.
      */
     public static RespuestaConsultaLoteDE consultaLoteDE(String nroLote, SifenConfig sifenConfig) throws SifenException {
-        return consultaLoteDE(nroLote, sifenConfig, GenerationCtx.getDefaultFromConfig(sifenConfig));
+        return withClient(sifenConfig, client -> client.consultaLoteDE(nroLote));
     }
 
     /**
@@ -180,16 +213,7 @@ public class Sifen {
      *                        consulta no pudo ser encontrado o, si la consulta no pudo ser realizada.
      */
     public static RespuestaConsultaLoteDE consultaLoteDE(String nroLote, SifenConfig sifenConfig, GenerationCtx generationCtx) throws SifenException {
-        if (sifenConfig == null) {
-            throw SifenExceptionUtil.invalidConfiguration("Falta establecer la configuración de Sifen.");
-        }
-
-        validateConfiguration(sifenConfig);
-        logger.info("Preparando petición 'Consulta de Resultado de Lote de DE'");
-        ReqConsLoteDe reqConsLoteDe = new ReqConsLoteDe(dId++, sifenConfig);
-        reqConsLoteDe.setdProtConsLote(nroLote);
-
-        return (RespuestaConsultaLoteDE) reqConsLoteDe.makeRequest(generationCtx, sifenConfig.getPathConsultaLote());
+        return withClient(sifenConfig, client -> client.consultaLoteDE(nroLote, generationCtx));
     }
 
     /**
@@ -205,7 +229,7 @@ public class Sifen {
     }
 
     public static RespuestaRecepcionDE recepcionDE(DocumentoElectronico de, SifenConfig sifenConfig) throws SifenException {
-        return recepcionDE(de, sifenConfig, GenerationCtx.getDefaultFromConfig(sifenConfig));
+        return withClient(sifenConfig, client -> client.recepcionDE(de));
     }
 
     /**
@@ -218,16 +242,31 @@ public class Sifen {
      *                        consulta no pudo ser encontrado o, si la firma digital del DE falla o, si la consulta no pudo ser realizada.
      */
     public static RespuestaRecepcionDE recepcionDE(DocumentoElectronico de, SifenConfig sifenConfig, GenerationCtx generationCtx) throws SifenException {
-        if (sifenConfig == null) {
-            throw SifenExceptionUtil.invalidConfiguration("Falta establecer la configuración de Sifen.");
-        }
+        return withClient(sifenConfig, client -> client.recepcionDE(de, generationCtx));
+    }
 
-        validateConfiguration(sifenConfig);
-        logger.info("Preparando petición 'Recepción de DE'");
-        ReqRecDe reqRecDe = new ReqRecDe(dId++, sifenConfig);
-        reqRecDe.setDE(de);
+    /**
+     * Realiza un envío a Sifen de un Documento Electrónico ya generado y firmado, sin volver a generarlo (ej.: para
+     * reenviar un DE cuyo resultado se desconoce).
+     *
+     * @param xmlFirmado XML del elemento rDE del Documento Electrónico, tal como fue firmado.
+     * @return La respuesta a la consulta proveída por Sifen, en forma de clase.
+     * @throws SifenException Si la configuración de Sifen no fue establecida o, si la consulta no pudo ser realizada.
+     */
+    public static RespuestaRecepcionDE recepcionDEFirmado(String xmlFirmado) throws SifenException {
+        return recepcionDEFirmado(xmlFirmado, sifenConfig);
+    }
 
-        return (RespuestaRecepcionDE) reqRecDe.makeRequest(generationCtx, sifenConfig.getPathRecibe());
+    /**
+     * Realiza un envío a Sifen de un Documento Electrónico ya generado y firmado, sin volver a generarlo.
+     *
+     * @param xmlFirmado  XML del elemento rDE del Documento Electrónico, tal como fue firmado.
+     * @param sifenConfig Configuración de Sifen a ser utilizada en esta petición.
+     * @return La respuesta a la consulta proveída por Sifen, en forma de clase.
+     * @throws SifenException Si la configuración de Sifen no fue establecida o, si la consulta no pudo ser realizada.
+     */
+    public static RespuestaRecepcionDE recepcionDEFirmado(String xmlFirmado, SifenConfig sifenConfig) throws SifenException {
+        return withClient(sifenConfig, client -> client.recepcionDEFirmado(xmlFirmado));
     }
 
     /**
@@ -254,7 +293,7 @@ public class Sifen {
      *                        no pudo ser encontrado o, si la forma digital de algún DE falla o, si la consulta no pudo ser realizada.
      */
     public static RespuestaRecepcionLoteDE recepcionLoteDE(List<DocumentoElectronico> deList, SifenConfig sifenConfig) throws SifenException {
-        return recepcionLoteDE(deList, sifenConfig, GenerationCtx.getDefaultFromConfig(sifenConfig));
+        return withClient(sifenConfig, client -> client.recepcionLoteDE(deList));
     }
 
     /**
@@ -269,16 +308,7 @@ public class Sifen {
      *                        no pudo ser encontrado o, si la forma digital de algún DE falla o, si la consulta no pudo ser realizada.
      */
     public static RespuestaRecepcionLoteDE recepcionLoteDE(List<DocumentoElectronico> deList, SifenConfig sifenConfig, GenerationCtx generationCtx) throws SifenException {
-        if (sifenConfig == null) {
-            throw SifenExceptionUtil.invalidConfiguration("Falta establecer la configuración de Sifen.");
-        }
-
-        validateConfiguration(sifenConfig);
-        logger.info("Preparando petición 'Recepción de Lote de DE'");
-        ReqRecLoteDe reqRecLoteDe = new ReqRecLoteDe(dId++, sifenConfig);
-        reqRecLoteDe.setDEList(deList);
-
-        return (RespuestaRecepcionLoteDE) reqRecLoteDe.makeRequest(generationCtx, sifenConfig.getPathRecibeLote());
+        return withClient(sifenConfig, client -> client.recepcionLoteDE(deList, generationCtx));
     }
 
     /**
@@ -295,7 +325,7 @@ public class Sifen {
     }
 
     public static RespuestaRecepcionEvento recepcionEvento(EventosDE eventosDE, SifenConfig sifenConfig) throws SifenException {
-        return recepcionEvento(eventosDE, sifenConfig, GenerationCtx.getDefaultFromConfig(sifenConfig));
+        return withClient(sifenConfig, client -> client.recepcionEvento(eventosDE));
     }
 
     /**
@@ -309,16 +339,153 @@ public class Sifen {
      *                        realizada.
      */
     public static RespuestaRecepcionEvento recepcionEvento(EventosDE eventosDE, SifenConfig sifenConfig, GenerationCtx generationCtx) throws SifenException {
-        if (sifenConfig == null) {
-            throw SifenExceptionUtil.invalidConfiguration("Falta establecer la configuración de Sifen.");
-        }
+        return withClient(sifenConfig, client -> client.recepcionEvento(eventosDE, generationCtx));
+    }
 
-        validateConfiguration(sifenConfig);
-        logger.info("Preparando petición 'Recepción de Eventos'");
-        ReqRecEventoDe reqRecEventoDe = new ReqRecEventoDe(dId++, sifenConfig);
-        reqRecEventoDe.setEventoDE(eventosDE);
+    // Variantes asíncronas
 
-        return (RespuestaRecepcionEvento) reqRecEventoDe.makeRequest(generationCtx, sifenConfig.getPathEvento());
+    /**
+     * Variante asíncrona de {@link #consultaRUC(String)}, utilizando el executor por defecto.
+     *
+     * @param ruc RUC de un contribuyente a ser consultado en Sifen, sin el DV.
+     * @return Future que se completa con la respuesta de Sifen o, en caso de error, con la <i>SifenException</i> lanzada.
+     */
+    public static CompletableFuture<RespuestaConsultaRUC> consultaRUCAsync(String ruc) {
+        return consultaRUCAsync(ruc, sifenConfig, null);
+    }
+
+    /**
+     * Variante asíncrona de {@link #consultaRUC(String, SifenConfig)}.
+     *
+     * @param ruc         RUC de un contribuyente a ser consultado en Sifen, sin el DV.
+     * @param sifenConfig Configuración de Sifen a ser utilizada en esta petición.
+     * @param executor    Executor en el que se realizará la petición, o <strong>null</strong> para utilizar el executor
+     *                    por defecto (hilos virtuales, si la JVM los soporta).
+     * @return Future que se completa con la respuesta de Sifen o, en caso de error, con la <i>SifenException</i> lanzada.
+     */
+    public static CompletableFuture<RespuestaConsultaRUC> consultaRUCAsync(String ruc, SifenConfig sifenConfig, Executor executor) {
+        return withClientAsync(sifenConfig, client -> client.consultaRUCAsync(ruc, executor));
+    }
+
+    /**
+     * Variante asíncrona de {@link #consultaDE(String)}, utilizando el executor por defecto.
+     *
+     * @param cdc Código de Control, que es el identificador único de un Documento Electrónico.
+     * @return Future que se completa con la respuesta de Sifen o, en caso de error, con la <i>SifenException</i> lanzada.
+     */
+    public static CompletableFuture<RespuestaConsultaDE> consultaDEAsync(String cdc) {
+        return consultaDEAsync(cdc, sifenConfig, null);
+    }
+
+    /**
+     * Variante asíncrona de {@link #consultaDE(String, SifenConfig)}.
+     *
+     * @param cdc         Código de Control, que es el identificador único de un Documento Electrónico.
+     * @param sifenConfig Configuración de Sifen a ser utilizada en esta petición.
+     * @param executor    Executor en el que se realizará la petición, o <strong>null</strong> para utilizar el executor
+     *                    por defecto (hilos virtuales, si la JVM los soporta).
+     * @return Future que se completa con la respuesta de Sifen o, en caso de error, con la <i>SifenException</i> lanzada.
+     */
+    public static CompletableFuture<RespuestaConsultaDE> consultaDEAsync(String cdc, SifenConfig sifenConfig, Executor executor) {
+        return withClientAsync(sifenConfig, client -> client.consultaDEAsync(cdc, executor));
+    }
+
+    /**
+     * Variante asíncrona de {@link #consultaLoteDE(String)}, utilizando el executor por defecto.
+     *
+     * @param nroLote Número de lote, obtenido como respuesta en la recepción de lotes.
+     * @return Future que se completa con la respuesta de Sifen o, en caso de error, con la <i>SifenException</i> lanzada.
+     */
+    public static CompletableFuture<RespuestaConsultaLoteDE> consultaLoteDEAsync(String nroLote) {
+        return consultaLoteDEAsync(nroLote, sifenConfig, null);
+    }
+
+    /**
+     * Variante asíncrona de {@link #consultaLoteDE(String, SifenConfig)}.
+     *
+     * @param nroLote     Número de lote, obtenido como respuesta en la recepción de lotes.
+     * @param sifenConfig Configuración de Sifen a ser utilizada en esta petición.
+     * @param executor    Executor en el que se realizará la petición, o <strong>null</strong> para utilizar el executor
+     *                    por defecto (hilos virtuales, si la JVM los soporta).
+     * @return Future que se completa con la respuesta de Sifen o, en caso de error, con la <i>SifenException</i> lanzada.
+     */
+    public static CompletableFuture<RespuestaConsultaLoteDE> consultaLoteDEAsync(String nroLote, SifenConfig sifenConfig, Executor executor) {
+        return withClientAsync(sifenConfig, client -> client.consultaLoteDEAsync(nroLote, executor));
+    }
+
+    /**
+     * Variante asíncrona de {@link #recepcionDE(DocumentoElectronico)}, utilizando el executor por defecto.
+     *
+     * @param de Objeto que hace referencia a un Documento Electrónico, con todos sus datos.
+     * @return Future que se completa con la respuesta de Sifen o, en caso de error, con la <i>SifenException</i> lanzada.
+     */
+    public static CompletableFuture<RespuestaRecepcionDE> recepcionDEAsync(DocumentoElectronico de) {
+        return recepcionDEAsync(de, sifenConfig, null);
+    }
+
+    /**
+     * Variante asíncrona de {@link #recepcionDE(DocumentoElectronico, SifenConfig)}.
+     *
+     * @param de          Objeto que hace referencia a un Documento Electrónico, con todos sus datos.
+     * @param sifenConfig Configuración de Sifen a ser utilizada en esta petición.
+     * @param executor    Executor en el que se realizará la petición, o <strong>null</strong> para utilizar el executor
+     *                    por defecto (hilos virtuales, si la JVM los soporta).
+     * @return Future que se completa con la respuesta de Sifen o, en caso de error, con la <i>SifenException</i> lanzada.
+     */
+    public static CompletableFuture<RespuestaRecepcionDE> recepcionDEAsync(DocumentoElectronico de, SifenConfig sifenConfig, Executor executor) {
+        return withClientAsync(sifenConfig, client -> client.recepcionDEAsync(de, executor));
+    }
+
+    /**
+     * Variante asíncrona de {@link #recepcionLoteDE(List)}, utilizando el executor por defecto.
+     *
+     * @param deList Listado de los objetos que hacen referencia a los Documentos Electrónicos, con todos los datos.
+     * @return Future que se completa con la respuesta de Sifen o, en caso de error, con la <i>SifenException</i> lanzada.
+     */
+    public static CompletableFuture<RespuestaRecepcionLoteDE> recepcionLoteDEAsync(List<DocumentoElectronico> deList) {
+        return recepcionLoteDEAsync(deList, sifenConfig, null);
+    }
+
+    /**
+     * Variante asíncrona de {@link #recepcionLoteDE(List, SifenConfig)}.
+     *
+     * @param deList      Listado de los objetos que hacen referencia a los Documentos Electrónicos, con todos los datos.
+     * @param sifenConfig Configuración de Sifen a ser utilizada en esta petición.
+     * @param executor    Executor en el que se realizará la petición, o <strong>null</strong> para utilizar el executor
+     *                    por defecto (hilos virtuales, si la JVM los soporta).
+     * @return Future que se completa con la respuesta de Sifen o, en caso de error, con la <i>SifenException</i> lanzada.
+     */
+    public static CompletableFuture<RespuestaRecepcionLoteDE> recepcionLoteDEAsync(List<DocumentoElectronico> deList, SifenConfig sifenConfig, Executor executor) {
+        return withClientAsync(sifenConfig, client -> client.recepcionLoteDEAsync(deList, executor));
+    }
+
+    /**
+     * Variante asíncrona de {@link #recepcionEvento(EventosDE)}, utilizando el executor por defecto.
+     *
+     * @param eventosDE Objeto que contiene el listado de eventos a ser enviados a Sifen.
+     * @return Future que se completa con la respuesta de Sifen o, en caso de error, con la <i>SifenException</i> lanzada.
+     */
+    public static CompletableFuture<RespuestaRecepcionEvento> recepcionEventoAsync(EventosDE eventosDE) {
+        return recepcionEventoAsync(eventosDE, sifenConfig, null);
+    }
+
+    /**
+     * Variante asíncrona de {@link #recepcionEvento(EventosDE, SifenConfig)}.
+     *
+     * @param eventosDE   Objeto que contiene el listado de eventos a ser enviados a Sifen.
+     * @param sifenConfig Configuración de Sifen a ser utilizada en esta petición.
+     * @param executor    Executor en el que se realizará la petición, o <strong>null</strong> para utilizar el executor
+     *                    por defecto (hilos virtuales, si la JVM los soporta).
+     * @return Future que se completa con la respuesta de Sifen o, en caso de error, con la <i>SifenException</i> lanzada.
+     */
+    public static CompletableFuture<RespuestaRecepcionEvento> recepcionEventoAsync(EventosDE eventosDE, SifenConfig sifenConfig, Executor executor) {
+        return withClientAsync(sifenConfig, client -> client.recepcionEventoAsync(eventosDE, executor));
+    }
+
+    private static <T> CompletableFuture<T> failedFuture(Throwable e) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(e);
+        return future;
     }
 
     /**
@@ -354,73 +521,305 @@ public class Sifen {
         return SignatureHelper.validateSignature(archivoXml);
     }
 
-    private static void validateConfiguration(SifenConfig sifenConfig) throws SifenException {
-        if (sifenConfig.getAmbiente() == null) {
-            throw SifenExceptionUtil.invalidConfiguration("Error en la configuración de Sifen: Tipo de ambiente no establecido.");
+    /**
+     * Verifica las firmas digitales de todos los Documentos Electrónicos de un directorio (archivos con extensión
+     * <i>.xml</i>) o de un archivo ZIP (entradas con extensión <i>.xml</i>). Los documentos se validan en memoria y en
+     * paralelo, en un pool interno con un hilo por procesador.
+     *
+     * @param directorioOZip Directorio o archivo ZIP con los Documentos Electrónicos a validar, en formato XML.
+     * @return El resultado de la validación de cada documento, por nombre de archivo, en el orden de lectura.
+     * @throws SifenException Si el directorio o el archivo ZIP no pudieron ser leídos.
+     */
+    public static Map<String, ValidezFirmaDigital> validarFirmasDE(File directorioOZip) throws SifenException {
+        return BulkSignatureValidator.validate(directorioOZip, null);
+    }
+
+    /**
+     * Verifica las firmas digitales de todos los Documentos Electrónicos de un directorio (archivos con extensión
+     * <i>.xml</i>) o de un archivo ZIP (entradas con extensión <i>.xml</i>), en el pool de hilos indicado.
+     *
+     * @param directorioOZip Directorio o archivo ZIP con los Documentos Electrónicos a validar, en formato XML.
+     * @param executor       Pool de hilos en el que se realizan las validaciones.
+     * @return El resultado de la validación de cada documento, por nombre de archivo, en el orden de lectura.
+     * @throws SifenException Si el directorio o el archivo ZIP no pudieron ser leídos.
+     */
+    public static Map<String, ValidezFirmaDigital> validarFirmasDE(File directorioOZip, ExecutorService executor) throws SifenException {
+        return BulkSignatureValidator.validate(directorioOZip, executor);
+    }
+
+    /**
+     * Verifica las firmas digitales de los Documentos Electrónicos de un archivo ZIP leído desde un stream, por
+     * ejemplo recibido por la red. Las entradas se validan en paralelo mientras se leen las siguientes.
+     *
+     * @param zip      Stream del archivo ZIP, que no es cerrado.
+     * @param executor Pool de hilos en el que se realizan las validaciones, o <strong>null</strong> para utilizar el
+     *                 pool interno.
+     * @return El resultado de la validación de cada documento, por nombre de entrada, en el orden de lectura.
+     * @throws SifenException Si el archivo ZIP no pudo ser leído.
+     */
+    public static Map<String, ValidezFirmaDigital> validarFirmasDEDesdeZip(InputStream zip, ExecutorService executor) throws SifenException {
+        return BulkSignatureValidator.validateZip(zip, executor);
+    }
+
+    /**
+     * Verifica en paralelo las firmas digitales de un conjunto de Documentos Electrónicos.
+     *
+     * @param xmls     Cadenas de texto correspondientes a los Documentos Electrónicos a validar, en formato XML.
+     * @param executor Pool de hilos en el que se realizan las validaciones, o <strong>null</strong> para utilizar el
+     *                 pool interno.
+     * @return El resultado de la validación de cada documento, en el mismo orden.
+     * @throws SifenException Si la validación fue interrumpida.
+     */
+    public static List<ValidezFirmaDigital> validarFirmasDEDesdeXml(List<String> xmls, ExecutorService executor) throws SifenException {
+        return BulkSignatureValidator.validateXmls(xmls, executor);
+    }
+
+    /**
+     * Valida contra los esquemas (XSD) v150 de Sifen todos los Documentos Electrónicos (elementos <i>rDE</i>) y
+     * eventos (elementos <i>gGroupGesEve</i> o <i>rGesEve</i>) del XML, sin realizar ninguna petición. El XML puede ser
+     * un DE, un lote o un mensaje SOAP completo. Los esquemas se compilan en la primera validación.
+     *
+     * @param xml Cadena de texto correspondiente al XML a validar.
+     * @return Lista de los errores encontrados, con el campo y la posición de cada uno; vacía si el XML es válido.
+     */
+    public static List<ErrorEsquema> validarEsquema(String xml) {
+        return SchemaValidator.validate(new InputSource(new StringReader(xml)));
+    }
+
+    /**
+     * Valida contra los esquemas (XSD) v150 de Sifen todos los Documentos Electrónicos y eventos del XML leído desde
+     * un stream, sin cargarlo completo en memoria.
+     *
+     * @param xml Stream con el XML a validar.
+     * @return Lista de los errores encontrados, con el campo y la posición de cada uno; vacía si el XML es válido.
+     * @see #validarEsquema(String)
+     */
+    public static List<ErrorEsquema> validarEsquema(InputStream xml) {
+        return SchemaValidator.validate(new InputSource(xml));
+    }
+
+    /**
+     * Obtiene el estado del pool de conexiones persistentes utilizado para comunicarse con Sifen.
+     *
+     * @return Instancia del objeto <i>EstadisticasConexiones</i>, o <strong>null</strong> si aún no se realizó
+     * ninguna petición a Sifen.
+     */
+    public static EstadisticasConexiones getEstadisticasConexiones() {
+        SifenClient client = currentClient();
+        return client != null ? client.getEstadisticasConexiones() : null;
+    }
+
+    /**
+     * Obtiene el estado de la caché de consultas de RUC.
+     *
+     * @return Instancia del objeto <i>EstadisticasCacheRUC</i>, o <strong>null</strong> si aún no se realizó ninguna
+     * petición a Sifen.
+     */
+    public static EstadisticasCacheRUC getEstadisticasCacheRUC() {
+        SifenClient client = currentClient();
+        return client != null ? client.getEstadisticasCacheRUC() : null;
+    }
+
+    /**
+     * Obtiene el estado de los reintentos y del circuito que rechaza las peticiones mientras Sifen no responde.
+     *
+     * @return Instancia del objeto <i>EstadisticasResiliencia</i>, o <strong>null</strong> si aún no se realizó ninguna
+     * petición a Sifen.
+     */
+    public static EstadisticasResiliencia getEstadisticasResiliencia() {
+        SifenClient client = currentClient();
+        return client != null ? client.getEstadisticasResiliencia() : null;
+    }
+
+    /**
+     * Obtiene el estado de la caché de claves utilizadas para la firma digital, compartida por todos los clientes.
+     *
+     * @return Instancia del objeto <i>EstadisticasClavesFirma</i>, con las cantidades de cargas y aciertos.
+     */
+    public static EstadisticasClavesFirma getEstadisticasClavesFirma() {
+        return SigningKeyCache.getStats();
+    }
+
+    /**
+     * Ejecuta la operación recibida con el cliente correspondiente a la configuración, sin que el mismo sea cerrado
+     * mientras la operación está en curso.
+     */
+    private static <T> T withClient(SifenConfig sifenConfig, ClientCall<T> call) throws SifenException {
+        ClientEntry entry = acquireClient(sifenConfig);
+        try {
+            return call.call(entry.client);
+        } finally {
+            entry.release();
         }
+    }
 
-        if (SifenUtil.isBlank(sifenConfig.getUrlBaseLocal())) {
-            throw SifenExceptionUtil.invalidConfiguration("Error en la configuración de Sifen: URL Base no establecida.");
+    /**
+     * Variante de {@link #withClient(SifenConfig, ClientCall)} para operaciones asíncronas: el cliente se libera recién
+     * cuando se completa el future.
+     */
+    private static <T> CompletableFuture<T> withClientAsync(SifenConfig sifenConfig, ClientCall<CompletableFuture<T>> call) {
+        ClientEntry entry;
+        try {
+            entry = acquireClient(sifenConfig);
+        } catch (SifenException e) {
+            return failedFuture(e);
         }
 
-        if (SifenUtil.isBlank(sifenConfig.getUrlConsultaQr())) {
-            throw SifenExceptionUtil.invalidConfiguration("Error en la configuración de Sifen: URL de consulta QR no establecida.");
+        CompletableFuture<T> future;
+        try {
+            future = call.call(entry.client);
+        } catch (SifenException | RuntimeException e) {
+            entry.release();
+            return failedFuture(e);
         }
+        future.whenComplete((result, e) -> entry.release());
+        return future;
+    }
 
-        if (SifenUtil.isBlank(sifenConfig.getPathRecibe())) {
-            throw SifenExceptionUtil.invalidConfiguration("Error en la configuración de Sifen: URL 'Recepción de DE' no establecida.");
+    /**
+     * @return El cliente correspondiente a la configuración establecida, o <strong>null</strong> si aún no fue creado.
+     */
+    private static SifenClient currentClient() {
+        SifenConfig config = sifenConfig;
+        ClientEntry entry = config != null ? clients.get(new ConfigKey(config, null)) : null;
+        return entry != null ? entry.client : null;
+    }
+
+    /**
+     * Obtiene el cliente correspondiente a la configuración recibida como argumento, creándolo si no existe o si la
+     * configuración fue modificada desde la creación del mismo, y lo marca como en uso.
+     */
+    private static ClientEntry acquireClient(SifenConfig sifenConfig) throws SifenException {
+        if (sifenConfig == null) {
+            throw SifenExceptionUtil.invalidConfiguration("Falta establecer la configuración de Sifen.");
         }
 
-        if (SifenUtil.isBlank(sifenConfig.getPathRecibeLote())) {
-            throw SifenExceptionUtil.invalidConfiguration("Error en la configuración de Sifen: URL 'Recepción de Lote de DE' no establecida.");
+        while (true) {
+            ClientEntry entry = clients.get(new ConfigKey(sifenConfig, null));
+            if (entry == null || entry.version != sifenConfig.getVersion()) {
+                entry = replaceClient(sifenConfig);
+            }
+            if (entry.acquire()) {
+                return entry;
+            }
         }
+    }
 
-        if (SifenUtil.isBlank(sifenConfig.getPathEvento())) {
-            throw SifenExceptionUtil.invalidConfiguration("Error en la configuración de Sifen: URL 'Recepción de Eventos' no establecida.");
+    /**
+     * Crea el cliente de la configuración, si aún no fue creado para la versión actual de la misma. El cliente
+     * reemplazado se cierra recién cuando finalizan las operaciones que lo están utilizando.
+     */
+    private static ClientEntry replaceClient(SifenConfig sifenConfig) throws SifenException {
+        synchronized (creationLock) {
+            expungeCollectedConfigs();
+
+            ConfigKey key = new ConfigKey(sifenConfig, collectedConfigs);
+            ClientEntry current = clients.get(key);
+            // La versión se lee antes de crear el cliente, para que una modificación concurrente obligue a recrearlo
+            long version = sifenConfig.getVersion();
+            if (current != null && current.version == version) {
+                return current;
+            }
+
+            ClientEntry entry = new ClientEntry(new SifenClient(sifenConfig), version);
+            clients.put(key, entry);
+            if (current != null) {
+                current.retire();
+            }
+            return entry;
         }
+    }
 
-        if (SifenUtil.isBlank(sifenConfig.getPathConsultaLote())) {
-            throw SifenExceptionUtil.invalidConfiguration("Error en la configuración de Sifen: URL 'Consulta de Lote' no establecida.");
+    /**
+     * Descarta los clientes de las configuraciones que ya no son utilizadas.
+     */
+    private static void expungeCollectedConfigs() {
+        Object key;
+        while ((key = collectedConfigs.poll()) != null) {
+            ClientEntry entry = clients.remove(key);
+            if (entry != null) {
+                entry.retire();
+            }
         }
+    }
+
+    @FunctionalInterface
+    private interface ClientCall<T> {
+        T call(SifenClient client) throws SifenException;
+    }
+
+    /**
+     * Referencia débil a una configuración, comparada por identidad, para no impedir que la misma sea descartada.
+     */
+    private static class ConfigKey extends WeakReference<SifenConfig> {
+        private final int hash;
 
-        if (SifenUtil.isBlank(sifenConfig.getPathConsultaRUC())) {
-            throw SifenExceptionUtil.invalidConfiguration("Error en la configuración de Sifen: URL 'Consulta de RUC' no establecida.");
+        ConfigKey(SifenConfig sifenConfig, ReferenceQueue<SifenConfig> queue) {
+            super(sifenConfig, queue);
+            this.hash = System.identityHashCode(sifenConfig);
         }
 
-        if (SifenUtil.isBlank(sifenConfig.getPathConsulta())) {
-            throw SifenExceptionUtil.invalidConfiguration("Error en la configuración de Sifen: URL 'Consulta de DE' no establecida.");
+        @Override
+        public int hashCode() {
+            return hash;
         }
 
-        if (sifenConfig.isUsarCertificadoCliente()) {
-            if (SifenUtil.isBlank(sifenConfig.getCertificadoCliente())) {
-                throw SifenExceptionUtil.invalidConfiguration("Error en la configuración de Sifen: Certificado digital no establecido.");
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
             }
-
-            if (sifenConfig.getTipoCertificadoCliente() == null) {
-                throw SifenExceptionUtil.invalidConfiguration("Error en la configuración de Sifen: Tipo de certificado digital no establecido.");
+            if (!(o instanceof ConfigKey)) {
+                return false;
             }
+            SifenConfig config = get();
+            return config != null && config == ((ConfigKey) o).get();
+        }
+    }
 
-            if (sifenConfig.getTipoCertificadoCliente().equals(SifenConfig.TipoCertificadoCliente.PFX)) {
-                if (SifenUtil.isBlank(sifenConfig.getContrasenaCertificadoCliente())) {
-                    throw SifenExceptionUtil.invalidConfiguration("Error en la configuración de Sifen: Contraseña del certificado digital no establecida.");
-                }
+    /**
+     * Cliente creado para una versión de una configuración, junto con la cantidad de operaciones que lo utilizan.
+     */
+    private static class ClientEntry {
+        private final SifenClient client;
+        private final long version;
+        private final AtomicInteger inUse = new AtomicInteger();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile boolean retired;
+
+        ClientEntry(SifenClient client, long version) {
+            this.client = client;
+            this.version = version;
+        }
+
+        /**
+         * @return Si el cliente puede ser utilizado; <strong>false</strong> si ya fue reemplazado.
+         */
+        boolean acquire() {
+            inUse.incrementAndGet();
+            if (retired) {
+                release();
+                return false;
             }
+            return true;
         }
 
-        if (SifenUtil.isBlank(sifenConfig.getIdCSC())) {
-            throw SifenExceptionUtil.invalidConfiguration("Error en la configuración de Sifen: ID del CSC no establecido.");
+        void release() {
+            if (inUse.decrementAndGet() == 0 && retired) {
+                closeOnce();
+            }
         }
 
-        if (SifenUtil.isBlank(sifenConfig.getCSC())) {
-            throw SifenExceptionUtil.invalidConfiguration("Error en la configuración de Sifen: CSC no establecido.");
+        void retire() {
+            retired = true;
+            if (inUse.get() == 0) {
+                closeOnce();
+            }
         }
 
-        if (sifenConfig.getAmbiente().equals(SifenConfig.TipoAmbiente.PROD)) {
-            if (sifenConfig.getIdCSC().equals("0001") && sifenConfig.getCSC().equals("ABCD0000000000000000000000000000") ||
-                    sifenConfig.getIdCSC().equals("0002") && sifenConfig.getCSC().equals("EFGH0000000000000000000000000000")) {
-                throw SifenExceptionUtil.invalidConfiguration("Error en la configuración de Sifen: El CSC establecido solo " +
-                        "es utilizable en el ambiente de desarrollo. Solicitar a la SET el correspondiente a producción, " +
-                        "en caso de no poseerlo.");
+        private void closeOnce() {
+            if (closed.compareAndSet(false, true)) {
+                client.close();
             }
         }
     }
@@ -0,0 +1,634 @@
+package com.roshka.sifen;
+
+import com.roshka.sifen.core.SifenConfig;
+import com.roshka.sifen.core.beans.DocumentoElectronico;
+import com.roshka.sifen.core.beans.ContribuyenteRUC;
+import com.roshka.sifen.core.beans.EstadisticasCacheRUC;
+import com.roshka.sifen.core.beans.EstadisticasConexiones;
+import com.roshka.sifen.core.beans.EstadisticasResiliencia;
+import com.roshka.sifen.core.beans.EventosDE;
+import com.roshka.sifen.core.beans.response.*;
+import com.roshka.sifen.core.exceptions.SifenException;
+import com.roshka.sifen.core.fields.response.ruc.TxContRuc;
+import com.roshka.sifen.internal.ctx.ClientCtx;
+import com.roshka.sifen.internal.ctx.GenerationCtx;
+import com.roshka.sifen.internal.request.*;
+import com.roshka.sifen.internal.ruc.RucCache;
+import com.roshka.sifen.internal.ruc.RucRegistry;
+import com.roshka.sifen.internal.util.SifenExceptionUtil;
+import com.roshka.sifen.internal.util.SifenUtil;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.logging.Logger;
+
+/**
+ * Cliente de Sifen, construido a partir de una configuración. Es inmutable: la configuración se copia al crear el
+ * cliente, por lo que los cambios posteriores sobre el objeto de configuración original no lo afectan.<br>
+ * Cada cliente posee su propio generador de identificadores de petición, su contexto SSL y su pool de conexiones, y
+ * puede ser utilizado simultáneamente desde cualquier cantidad de hilos. Varios clientes, con configuraciones
+ * distintas, pueden coexistir en una misma JVM.<br>
+ * Al dejar de utilizarse, debe cerrarse con {@link #close()} para liberar las conexiones abiertas.
+ */
+public final class SifenClient implements AutoCloseable {
+    private final static Logger logger = Logger.getLogger(SifenClient.class.toString());
+
+    // Códigos de estado de la consulta de RUC, según la descripción publicada en el listado de la SET
+    private final static Map<String, String> ESTADOS_RUC = new HashMap<>();
+
+    static {
+        ESTADOS_RUC.put("ACTIVO", "ACT");
+        ESTADOS_RUC.put("SUSPENSION TEMPORAL", "SUS");
+        ESTADOS_RUC.put("SUSPENSION ADMINISTRATIVA", "SAD");
+        ESTADOS_RUC.put("BLOQUEADO", "BLQ");
+        ESTADOS_RUC.put("CANCELADO", "CAN");
+        ESTADOS_RUC.put("CANCELADO DEFINITIVO", "CDE");
+    }
+
+    private final SifenConfig sifenConfig;
+    private final ClientCtx clientCtx;
+
+    /**
+     * Crea un cliente de Sifen a partir de la configuración recibida como argumento.
+     *
+     * @param sifenConfig Configuración de Sifen a ser utilizada por el cliente. Se utiliza una copia de la misma.
+     * @throws SifenException Si la configuración es nula o, si existe algún error en los valores de la configuración
+     *                        o, si no se pudo cargar el certificado de cliente.
+     */
+    public SifenClient(SifenConfig sifenConfig) throws SifenException {
+        if (sifenConfig == null) {
+            throw SifenExceptionUtil.invalidConfiguration("La configuración de Sifen no debe ser nula.");
+        }
+
+        this.sifenConfig = new SifenConfig(sifenConfig);
+        validateConfiguration(this.sifenConfig);
+        this.clientCtx = new ClientCtx(this.sifenConfig);
+    }
+
+    /**
+     * @return Una copia de la configuración utilizada por el cliente.
+     */
+    public SifenConfig getSifenConfig() {
+        return new SifenConfig(sifenConfig);
+    }
+
+    /**
+     * Realiza una consulta a Sifen y devuelve como resultado los datos y el estado del RUC de un contribuyente.
+     *
+     * @param ruc RUC de un contribuyente a ser consultado en Sifen, sin el DV.
+     * @return La respuesta a la consulta proveída por Sifen, en forma de clase.
+     * @throws SifenException Si algún dato necesario para la consulta no pudo ser encontrado o, si la consulta no pudo
+     *                        ser realizada.
+     */
+    public RespuestaConsultaRUC consultaRUC(String ruc) throws SifenException {
+        return consultaRUC(ruc, GenerationCtx.getDefaultFromConfig(sifenConfig));
+    }
+
+    /**
+     * Realiza una consulta a Sifen y devuelve como resultado los datos y el estado del RUC de un contribuyente.<br>
+     * Si la caché de consultas de RUC está habilitada (ver {@link SifenConfig#getConsultaRucCacheTamano()}), se
+     * retorna la consulta anterior del mismo RUC mientras no haya expirado. La respuesta obtenida de la caché es
+     * compartida, y no debe ser modificada.
+     *
+     * @param ruc RUC de un contribuyente a ser consultado en Sifen, sin el DV.
+     * @param generationCtx Contexto de generación de la petición.
+     * @return La respuesta a la consulta proveída por Sifen, en forma de clase.
+     * @throws SifenException Si algún dato necesario para la consulta no pudo ser encontrado o, si la consulta no pudo
+     *                        ser realizada.
+     */
+    public RespuestaConsultaRUC consultaRUC(String ruc, GenerationCtx generationCtx) throws SifenException {
+        RucCache rucCache = clientCtx.getRucCache();
+        if (rucCache != null) {
+            return rucCache.get(ruc, () -> requestConsultaRUC(ruc, generationCtx));
+        }
+        return requestConsultaRUC(ruc, generationCtx);
+    }
+
+    /**
+     * Obtiene los datos y el estado del RUC de un contribuyente, a partir del registro local de RUCs cuando es posible,
+     * sin realizar la petición a Sifen.<br>
+     * Si el registro está configurado (ver {@link SifenConfig#getConsultaRucRegistro()}), no supera la antigüedad
+     * máxima (ver {@link SifenConfig#getConsultaRucRegistroVigencia()}) y contiene el RUC, la respuesta se construye a
+     * partir del registro, con el origen <i>REGISTRO_LOCAL</i>: código 0502, razón social y estado del contribuyente,
+     * sin el indicador de facturador electrónico (<i>dRUCFactElec</i>) ni la respuesta bruta. Si se necesita ese
+     * indicador, se debe utilizar {@link #consultaRUC(String)}.<br>
+     * En los demás casos, y si la consulta del RUC ya se encuentra en la caché, se utiliza {@link #consultaRUC(String)}.
+     *
+     * @param ruc RUC de un contribuyente, sin el DV.
+     * @return La respuesta del registro local o de Sifen (ver {@link RespuestaConsultaRUC#getOrigen()}).
+     * @throws SifenException Si algún dato necesario para la consulta no pudo ser encontrado o, si la consulta a Sifen
+     *                        no pudo ser realizada.
+     */
+    public RespuestaConsultaRUC resolverRUC(String ruc) throws SifenException {
+        RucRegistry rucRegistry = clientCtx.getRucRegistry();
+        RucCache rucCache = clientCtx.getRucCache();
+        // Una consulta vigente en la caché es más completa que el registro
+        if (rucRegistry != null && (rucCache == null || !rucCache.contains(ruc))
+                && !rucRegistry.isStale(sifenConfig.getConsultaRucRegistroVigencia())) {
+            ContribuyenteRUC contribuyente = rucRegistry.find(ruc);
+            if (contribuyente != null) {
+                return fromRegistry(contribuyente);
+            }
+        }
+        return consultaRUC(ruc);
+    }
+
+    /**
+     * Consulta en Sifen, en paralelo, los RUCs que aún no se encuentran en la caché de consultas de RUC, para que las
+     * consultas posteriores sean respondidas sin realizar peticiones. Los RUCs que no pudieron ser consultados se
+     * omiten.
+     *
+     * @param rucs RUCs de los contribuyentes a ser consultados, sin el DV.
+     * @return La cantidad de RUCs de la lista que se encuentran en la caché al finalizar.
+     * @throws SifenException Si la caché de consultas de RUC no está habilitada o, si la precarga fue interrumpida.
+     */
+    public int precargarRUC(Collection<String> rucs) throws SifenException {
+        RucCache rucCache = clientCtx.getRucCache();
+        if (rucCache == null) {
+            throw SifenExceptionUtil.invalidConfiguration("Error en la configuración de Sifen: La caché de consultas de RUC no está habilitada.");
+        }
+
+        Set<String> distinct = new LinkedHashSet<>(rucs);
+        List<CompletableFuture<RespuestaConsultaRUC>> consultas = new ArrayList<>();
+        for (String ruc : distinct) {
+            if (!rucCache.contains(ruc)) {
+                consultas.add(consultaRUCAsync(ruc));
+            }
+        }
+
+        for (CompletableFuture<RespuestaConsultaRUC> consulta : consultas) {
+            try {
+                consulta.get();
+            } catch (ExecutionException e) {
+                logger.warning("No se pudo precargar la consulta de un RUC: " + e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw SifenExceptionUtil.unexpectedError("La precarga de consultas de RUC fue interrumpida", e);
+            }
+        }
+
+        int cached = 0;
+        for (String ruc : distinct) {
+            if (rucCache.contains(ruc)) {
+                cached++;
+            }
+        }
+        return cached;
+    }
+
+    /**
+     * Descarta la consulta de un RUC de la caché, para que la próxima consulta sea realizada a Sifen.
+     *
+     * @param ruc RUC del contribuyente, sin el DV.
+     */
+    public void invalidarConsultaRUC(String ruc) {
+        RucCache rucCache = clientCtx.getRucCache();
+        if (rucCache != null) {
+            rucCache.invalidate(ruc);
+        }
+    }
+
+    /**
+     * Obtiene el estado de la caché de consultas de RUC del cliente.
+     *
+     * @return Instancia del objeto <i>EstadisticasCacheRUC</i>, con todos sus valores en cero si la caché no está
+     * habilitada.
+     */
+    public EstadisticasCacheRUC getEstadisticasCacheRUC() {
+        RucCache rucCache = clientCtx.getRucCache();
+        return rucCache != null ? rucCache.getStats() : new EstadisticasCacheRUC(0, 0, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Obtiene el estado de los reintentos y del circuito del cliente, que rechaza las peticiones mientras Sifen no
+     * responde.
+     *
+     * @return Instancia del objeto <i>EstadisticasResiliencia</i>.
+     */
+    public EstadisticasResiliencia getEstadisticasResiliencia() {
+        return clientCtx.getCircuitBreaker().getStats();
+    }
+
+    private static RespuestaConsultaRUC fromRegistry(ContribuyenteRUC contribuyente) {
+        TxContRuc xContRUC = new TxContRuc();
+        xContRUC.setdRUCCons(contribuyente.getRuc());
+        xContRUC.setdRazCons(contribuyente.getRazonSocial());
+        xContRUC.setdCodEstCons(ESTADOS_RUC.get(contribuyente.getEstado()));
+        xContRUC.setdDesEstCons(contribuyente.getEstado());
+
+        RespuestaConsultaRUC respuesta = new RespuestaConsultaRUC();
+        respuesta.setCodigoEstado(200);
+        respuesta.setdCodRes("0502");
+        respuesta.setdMsgRes("RUC encontrado");
+        respuesta.setxContRUC(xContRUC);
+        respuesta.setOrigen(RespuestaConsultaRUC.Origen.REGISTRO_LOCAL);
+        return respuesta;
+    }
+
+    private RespuestaConsultaRUC requestConsultaRUC(String ruc, GenerationCtx generationCtx) throws SifenException {
+        logger.info("Preparando petición 'Consulta de RUC'");
+        ReqConsRuc reqConsRuc = new ReqConsRuc(clientCtx);
+        reqConsRuc.setdRUCCons(ruc);
+
+        return (RespuestaConsultaRUC) reqConsRuc.makeRequest(generationCtx, sifenConfig.getPathConsultaRUC());
+    }
+
+    /**
+     * Realiza una consulta a Sifen y devuelve como resultado el Documento Electrónico encontrado y todos sus eventos asociados.
+     *
+     * @param cdc Código de Control, que es el identificador único de un Documento Electrónico.
+     * @return La respuesta a la consulta proveída por Sifen, en forma de clase.
+     * @throws SifenException Si algún dato necesario para la consulta no pudo ser encontrado o, si la consulta no pudo
+     *                        ser realizada.
+     */
+    public RespuestaConsultaDE consultaDE(String cdc) throws SifenException {
+        return consultaDE(cdc, GenerationCtx.getDefaultFromConfig(sifenConfig));
+    }
+
+    /**
+     * Realiza una consulta a Sifen y devuelve como resultado el Documento Electrónico encontrado y todos sus eventos asociados.
+     *
+     * @param cdc Código de Control, que es el identificador único de un Documento Electrónico.
+     * @param generationCtx Contexto de generación de la petición.
+     * @return La respuesta a la consulta proveída por Sifen, en forma de clase.
+     * @throws SifenException Si algún dato necesario para la consulta no pudo ser encontrado o, si la consulta no pudo
+     *                        ser realizada.
+     */
+    public RespuestaConsultaDE consultaDE(String cdc, GenerationCtx generationCtx) throws SifenException {
+        logger.info("Preparando petición 'Consulta de DE'");
+        ReqConsDe reqConsDe = new ReqConsDe(clientCtx);
+        reqConsDe.setdCDC(cdc);
+
+        return (RespuestaConsultaDE) reqConsDe.makeRequest(generationCtx, sifenConfig.getPathConsulta());
+    }
+
+    /**
+     * Realiza una consulta a Sifen y devuelve como resultado el estado del lote consultado.
+     *
+     * @param nroLote Número de Lote recibido como respuesta en el envío del mismo.
+     * @return La respuesta a la consulta proveída por Sifen, en forma de clase.
+     * @throws SifenException Si algún dato necesario para la consulta no pudo ser encontrado o, si la consulta no pudo
+     *                        ser realizada.
+     */
+    public RespuestaConsultaLoteDE consultaLoteDE(String nroLote) throws SifenException {
+        return consultaLoteDE(nroLote, GenerationCtx.getDefaultFromConfig(sifenConfig));
+    }
+
+    /**
+     * Realiza una consulta a Sifen y devuelve como resultado el estado del lote consultado.
+     *
+     * @param nroLote Número de Lote recibido como respuesta en el envío del mismo.
+     * @param generationCtx Contexto de generación de la petición.
+     * @return La respuesta a la consulta proveída por Sifen, en forma de clase.
+     * @throws SifenException Si algún dato necesario para la consulta no pudo ser encontrado o, si la consulta no pudo
+     *                        ser realizada.
+     */
+    public RespuestaConsultaLoteDE consultaLoteDE(String nroLote, GenerationCtx generationCtx) throws SifenException {
+        logger.info("Preparando petición 'Consulta de Resultado de Lote de DE'");
+        ReqConsLoteDe reqConsLoteDe = new ReqConsLoteDe(clientCtx);
+        reqConsLoteDe.setdProtConsLote(nroLote);
+
+        return (RespuestaConsultaLoteDE) reqConsLoteDe.makeRequest(generationCtx, sifenConfig.getPathConsultaLote());
+    }
+
+    /**
+     * Realiza un envío del Documento Electrónico a Sifen para su correspondiente aprobación.
+     *
+     * @param de Objeto que hace referencia a un Documento Electrónico, con todos sus datos.
+     * @return La respuesta a la consulta proveída por Sifen, en forma de clase.
+     * @throws SifenException Si algún dato necesario para la consulta no pudo ser encontrado o, si la firma digital
+     *                        del DE falla o, si la consulta no pudo ser realizada.
+     */
+    public RespuestaRecepcionDE recepcionDE(DocumentoElectronico de) throws SifenException {
+        return recepcionDE(de, GenerationCtx.getDefaultFromConfig(sifenConfig));
+    }
+
+    /**
+     * Realiza un envío del Documento Electrónico a Sifen para su correspondiente aprobación.
+     *
+     * @param de Objeto que hace referencia a un Documento Electrónico, con todos sus datos.
+     * @param generationCtx Contexto de generación de la petición.
+     * @return La respuesta a la consulta proveída por Sifen, en forma de clase.
+     * @throws SifenException Si algún dato necesario para la consulta no pudo ser encontrado o, si la firma digital
+     *                        del DE falla o, si la consulta no pudo ser realizada.
+     */
+    public RespuestaRecepcionDE recepcionDE(DocumentoElectronico de, GenerationCtx generationCtx) throws SifenException {
+        logger.info("Preparando petición 'Recepción de DE'");
+        ReqRecDe reqRecDe = new ReqRecDe(clientCtx);
+        reqRecDe.setDE(de);
+
+        return (RespuestaRecepcionDE) reqRecDe.makeRequest(generationCtx, sifenConfig.getPathRecibe());
+    }
+
+    /**
+     * Realiza un envío a Sifen de un Documento Electrónico ya generado y firmado, sin volver a generarlo (ej.: para
+     * reenviar un DE cuyo resultado se desconoce).
+     *
+     * @param xmlFirmado XML del elemento rDE del Documento Electrónico, tal como fue firmado.
+     * @return La respuesta a la consulta proveída por Sifen, en forma de clase.
+     * @throws SifenException Si la consulta no pudo ser realizada.
+     */
+    public RespuestaRecepcionDE recepcionDEFirmado(String xmlFirmado) throws SifenException {
+        logger.info("Preparando petición 'Recepción de DE'");
+        ReqRecDe reqRecDe = new ReqRecDe(clientCtx);
+        reqRecDe.setXmlFirmado(xmlFirmado);
+
+        return (RespuestaRecepcionDE) reqRecDe.makeRequest(GenerationCtx.getDefaultFromConfig(sifenConfig), sifenConfig.getPathRecibe());
+    }
+
+    /**
+     * Realiza un envío de un lote de Documentos Electrónicos a Sifen para su correspondiente aprobación. La respuesta
+     * de la aprobación o rechazo de cada DE es asíncrono, es decir, no se encuentra en la respuesta de esta petición.
+     *
+     * @param deList Listado de los objetos que hacen referencia a los Documentos Electrónicos, con todos los datos.
+     * @return La respuesta a la consulta proveída por Sifen, en forma de clase.
+     * @throws SifenException Si algún dato necesario de algún DE no pudo ser encontrado o, si la firma digital de
+     *                        algún DE falla o, si la consulta no pudo ser realizada.
+     */
+    public RespuestaRecepcionLoteDE recepcionLoteDE(List<DocumentoElectronico> deList) throws SifenException {
+        return recepcionLoteDE(deList, GenerationCtx.getDefaultFromConfig(sifenConfig));
+    }
+
+    /**
+     * Realiza un envío de un lote de Documentos Electrónicos a Sifen para su correspondiente aprobación. La respuesta
+     * de la aprobación o rechazo de cada DE es asíncrono, es decir, no se encuentra en la respuesta de esta petición.
+     *
+     * @param deList Listado de los objetos que hacen referencia a los Documentos Electrónicos, con todos los datos.
+     * @param generationCtx Contexto de generación de la petición.
+     * @return La respuesta a la consulta proveída por Sifen, en forma de clase.
+     * @throws SifenException Si algún dato necesario de algún DE no pudo ser encontrado o, si la firma digital de
+     *                        algún DE falla o, si la consulta no pudo ser realizada.
+     */
+    public RespuestaRecepcionLoteDE recepcionLoteDE(List<DocumentoElectronico> deList, GenerationCtx generationCtx) throws SifenException {
+        logger.info("Preparando petición 'Recepción de Lote de DE'");
+        ReqRecLoteDe reqRecLoteDe = new ReqRecLoteDe(clientCtx);
+        reqRecLoteDe.setDEList(deList);
+
+        return (RespuestaRecepcionLoteDE) reqRecLoteDe.makeRequest(generationCtx, sifenConfig.getPathRecibeLote());
+    }
+
+    /**
+     * Realiza un envío a Sifen de los eventos agregados en el objeto recibido como argumento.
+     *
+     * @param eventosDE Objeto que contiene el listado de eventos a ser enviados a Sifen.
+     * @return La respuesta a la consulta proveída por Sifen, en forma de clase.
+     * @throws SifenException Si algún dato necesario para la consulta no pudo ser encontrado o, si la firma digital de
+     *                        algún evento falla o, si la consulta no pudo ser realizada.
+     */
+    public RespuestaRecepcionEvento recepcionEvento(EventosDE eventosDE) throws SifenException {
+        return recepcionEvento(eventosDE, GenerationCtx.getDefaultFromConfig(sifenConfig));
+    }
+
+    /**
+     * Realiza un envío a Sifen de los eventos agregados en el objeto recibido como argumento.
+     *
+     * @param eventosDE Objeto que contiene el listado de eventos a ser enviados a Sifen.
+     * @param generationCtx Contexto de generación de la petición.
+     * @return La respuesta a la consulta proveída por Sifen, en forma de clase.
+     * @throws SifenException Si algún dato necesario para la consulta no pudo ser encontrado o, si la firma digital de
+     *                        algún evento falla o, si la consulta no pudo ser realizada.
+     */
+    public RespuestaRecepcionEvento recepcionEvento(EventosDE eventosDE, GenerationCtx generationCtx) throws SifenException {
+        logger.info("Preparando petición 'Recepción de Eventos'");
+        ReqRecEventoDe reqRecEventoDe = new ReqRecEventoDe(clientCtx);
+        reqRecEventoDe.setEventoDE(eventosDE);
+
+        return (RespuestaRecepcionEvento) reqRecEventoDe.makeRequest(generationCtx, sifenConfig.getPathEvento());
+    }
+
+    /**
+     * Variante asíncrona de {@link #consultaRUC(String)}, utilizando el executor por defecto.
+     *
+     * @param ruc RUC de un contribuyente a ser consultado en Sifen, sin el DV.
+     * @return Future que se completa con la respuesta de Sifen o, en caso de error, con la <i>SifenException</i> lanzada.
+     */
+    public CompletableFuture<RespuestaConsultaRUC> consultaRUCAsync(String ruc) {
+        return consultaRUCAsync(ruc, null);
+    }
+
+    /**
+     * Variante asíncrona de {@link #consultaRUC(String)}.
+     *
+     * @param ruc RUC de un contribuyente a ser consultado en Sifen, sin el DV.
+     * @param executor Executor en el que se realizará la petición, o <strong>null</strong> para utilizar el executor
+     *                 por defecto (hilos virtuales, si la JVM los soporta).
+     * @return Future que se completa con la respuesta de Sifen o, en caso de error, con la <i>SifenException</i> lanzada.
+     */
+    public CompletableFuture<RespuestaConsultaRUC> consultaRUCAsync(String ruc, Executor executor) {
+        return clientCtx.getAsyncRequestExecutor().submit(() -> consultaRUC(ruc), executor);
+    }
+
+    /**
+     * Variante asíncrona de {@link #consultaDE(String)}, utilizando el executor por defecto.
+     *
+     * @param cdc Código de Control, que es el identificador único de un Documento Electrónico.
+     * @return Future que se completa con la respuesta de Sifen o, en caso de error, con la <i>SifenException</i> lanzada.
+     */
+    public CompletableFuture<RespuestaConsultaDE> consultaDEAsync(String cdc) {
+        return consultaDEAsync(cdc, null);
+    }
+
+    /**
+     * Variante asíncrona de {@link #consultaDE(String)}.
+     *
+     * @param cdc Código de Control, que es el identificador único de un Documento Electrónico.
+     * @param executor Executor en el que se realizará la petición, o <strong>null</strong> para utilizar el executor
+     *                 por defecto (hilos virtuales, si la JVM los soporta).
+     * @return Future que se completa con la respuesta de Sifen o, en caso de error, con la <i>SifenException</i> lanzada.
+     */
+    public CompletableFuture<RespuestaConsultaDE> consultaDEAsync(String cdc, Executor executor) {
+        return clientCtx.getAsyncRequestExecutor().submit(() -> consultaDE(cdc), executor);
+    }
+
+    /**
+     * Variante asíncrona de {@link #consultaLoteDE(String)}, utilizando el executor por defecto.
+     *
+     * @param nroLote Número de Lote recibido como respuesta en el envío del mismo.
+     * @return Future que se completa con la respuesta de Sifen o, en caso de error, con la <i>SifenException</i> lanzada.
+     */
+    public CompletableFuture<RespuestaConsultaLoteDE> consultaLoteDEAsync(String nroLote) {
+        return consultaLoteDEAsync(nroLote, null);
+    }
+
+    /**
+     * Variante asíncrona de {@link #consultaLoteDE(String)}.
+     *
+     * @param nroLote Número de Lote recibido como respuesta en el envío del mismo.
+     * @param executor Executor en el que se realizará la petición, o <strong>null</strong> para utilizar el executor
+     *                 por defecto (hilos virtuales, si la JVM los soporta).
+     * @return Future que se completa con la respuesta de Sifen o, en caso de error, con la <i>SifenException</i> lanzada.
+     */
+    public CompletableFuture<RespuestaConsultaLoteDE> consultaLoteDEAsync(String nroLote, Executor executor) {
+        return clientCtx.getAsyncRequestExecutor().submit(() -> consultaLoteDE(nroLote), executor);
+    }
+
+    /**
+     * Variante asíncrona de {@link #recepcionDE(DocumentoElectronico)}, utilizando el executor por defecto.
+     *
+     * @param de Objeto que hace referencia a un Documento Electrónico, con todos sus datos.
+     * @return Future que se completa con la respuesta de Sifen o, en caso de error, con la <i>SifenException</i> lanzada.
+     */
+    public CompletableFuture<RespuestaRecepcionDE> recepcionDEAsync(DocumentoElectronico de) {
+        return recepcionDEAsync(de, null);
+    }
+
+    /**
+     * Variante asíncrona de {@link #recepcionDE(DocumentoElectronico)}.
+     *
+     * @param de Objeto que hace referencia a un Documento Electrónico, con todos sus datos.
+     * @param executor Executor en el que se realizará la petición, o <strong>null</strong> para utilizar el executor
+     *                 por defecto (hilos virtuales, si la JVM los soporta).
+     * @return Future que se completa con la respuesta de Sifen o, en caso de error, con la <i>SifenException</i> lanzada.
+     */
+    public CompletableFuture<RespuestaRecepcionDE> recepcionDEAsync(DocumentoElectronico de, Executor executor) {
+        return clientCtx.getAsyncRequestExecutor().submit(() -> recepcionDE(de), executor);
+    }
+
+    /**
+     * Variante asíncrona de {@link #recepcionLoteDE(List)}, utilizando el executor por defecto.
+     *
+     * @param deList Listado de los objetos que hacen referencia a los Documentos Electrónicos, con todos los datos.
+     * @return Future que se completa con la respuesta de Sifen o, en caso de error, con la <i>SifenException</i> lanzada.
+     */
+    public CompletableFuture<RespuestaRecepcionLoteDE> recepcionLoteDEAsync(List<DocumentoElectronico> deList) {
+        return recepcionLoteDEAsync(deList, null);
+    }
+
+    /**
+     * Variante asíncrona de {@link #recepcionLoteDE(List)}.
+     *
+     * @param deList Listado de los objetos que hacen referencia a los Documentos Electrónicos, con todos los datos.
+     * @param executor Executor en el que se realizará la petición, o <strong>null</strong> para utilizar el executor
+     *                 por defecto (hilos virtuales, si la JVM los soporta).
+     * @return Future que se completa con la respuesta de Sifen o, en caso de error, con la <i>SifenException</i> lanzada.
+     */
+    public CompletableFuture<RespuestaRecepcionLoteDE> recepcionLoteDEAsync(List<DocumentoElectronico> deList, Executor executor) {
+        return clientCtx.getAsyncRequestExecutor().submit(() -> recepcionLoteDE(deList), executor);
+    }
+
+    /**
+     * Variante asíncrona de {@link #recepcionEvento(EventosDE)}, utilizando el executor por defecto.
+     *
+     * @param eventosDE Objeto que contiene el listado de eventos a ser enviados a Sifen.
+     * @return Future que se completa con la respuesta de Sifen o, en caso de error, con la <i>SifenException</i> lanzada.
+     */
+    public CompletableFuture<RespuestaRecepcionEvento> recepcionEventoAsync(EventosDE eventosDE) {
+        return recepcionEventoAsync(eventosDE, null);
+    }
+
+    /**
+     * Variante asíncrona de {@link #recepcionEvento(EventosDE)}.
+     *
+     * @param eventosDE Objeto que contiene el listado de eventos a ser enviados a Sifen.
+     * @param executor Executor en el que se realizará la petición, o <strong>null</strong> para utilizar el executor
+     *                 por defecto (hilos virtuales, si la JVM los soporta).
+     * @return Future que se completa con la respuesta de Sifen o, en caso de error, con la <i>SifenException</i> lanzada.
+     */
+    public CompletableFuture<RespuestaRecepcionEvento> recepcionEventoAsync(EventosDE eventosDE, Executor executor) {
+        return clientCtx.getAsyncRequestExecutor().submit(() -> recepcionEvento(eventosDE), executor);
+    }
+
+    /**
+     * Obtiene el estado del pool de conexiones persistentes utilizado por el cliente.
+     *
+     * @return Instancia del objeto <i>EstadisticasConexiones</i>.
+     */
+    public EstadisticasConexiones getEstadisticasConexiones() {
+        return clientCtx.getHttpTransport().getPool().getStats();
+    }
+
+    /**
+     * Cierra el cliente, liberando las conexiones abiertas. Las peticiones en curso finalizan normalmente.
+     */
+    @Override
+    public void close() {
+        clientCtx.close();
+    }
+
+    static void validateConfiguration(SifenConfig sifenConfig) throws SifenException {
+        if (sifenConfig.getAmbiente() == null) {
+            throw SifenExceptionUtil.invalidConfiguration("Error en la configuración de Sifen: Tipo de ambiente no establecido.");
+        }
+
+        if (SifenUtil.isBlank(sifenConfig.getUrlBaseLocal())) {
+            throw SifenExceptionUtil.invalidConfiguration("Error en la configuración de Sifen: URL Base no establecida.");
+        }
+
+        if (SifenUtil.isBlank(sifenConfig.getUrlConsultaQr())) {
+            throw SifenExceptionUtil.invalidConfiguration("Error en la configuración de Sifen: URL de consulta QR no establecida.");
+        }
+
+        if (SifenUtil.isBlank(sifenConfig.getPathRecibe())) {
+            throw SifenExceptionUtil.invalidConfiguration("Error en la configuración de Sifen: URL 'Recepción de DE' no establecida.");
+        }
+
+        if (SifenUtil.isBlank(sifenConfig.getPathRecibeLote())) {
+            throw SifenExceptionUtil.invalidConfiguration("Error en la configuración de Sifen: URL 'Recepción de Lote de DE' no establecida.");
+        }
+
+        if (SifenUtil.isBlank(sifenConfig.getPathEvento())) {
+            throw SifenExceptionUtil.invalidConfiguration("Error en la configuración de Sifen: URL 'Recepción de Eventos' no establecida.");
+        }
+
+        if (SifenUtil.isBlank(sifenConfig.getPathConsultaLote())) {
+            throw SifenExceptionUtil.invalidConfiguration("Error en la configuración de Sifen: URL 'Consulta de Lote' no establecida.");
+        }
+
+        if (SifenUtil.isBlank(sifenConfig.getPathConsultaRUC())) {
+            throw SifenExceptionUtil.invalidConfiguration("Error en la configuración de Sifen: URL 'Consulta de RUC' no establecida.");
+        }
+
+        if (SifenUtil.isBlank(sifenConfig.getPathConsulta())) {
+            throw SifenExceptionUtil.invalidConfiguration("Error en la configuración de Sifen: URL 'Consulta de DE' no establecida.");
+        }
+
+        if (sifenConfig.isUsarCertificadoCliente()) {
+            if (SifenUtil.isBlank(sifenConfig.getCertificadoCliente())) {
+                throw SifenExceptionUtil.invalidConfiguration("Error en la configuración de Sifen: Certificado digital no establecido.");
+            }
+
+            if (sifenConfig.getTipoCertificadoCliente() == null) {
+                throw SifenExceptionUtil.invalidConfiguration("Error en la configuración de Sifen: Tipo de certificado digital no establecido.");
+            }
+
+            if (sifenConfig.getTipoCertificadoCliente().equals(SifenConfig.TipoCertificadoCliente.PFX)) {
+                if (SifenUtil.isBlank(sifenConfig.getContrasenaCertificadoCliente())) {
+                    throw SifenExceptionUtil.invalidConfiguration("Error en la configuración de Sifen: Contraseña del certificado digital no establecida.");
+                }
+            }
+        }
+
+        if (sifenConfig.getAsyncMaxPeticionesEnCurso() < 1) {
+            throw SifenExceptionUtil.invalidConfiguration("Error en la configuración de Sifen: La cantidad máxima de peticiones asíncronas en curso debe ser mayor a cero.");
+        }
+
+        if (sifenConfig.getHttpMaxConexionesPorRuta() < 1) {
+            throw SifenExceptionUtil.invalidConfiguration("Error en la configuración de Sifen: La cantidad máxima de conexiones por ruta debe ser mayor a cero.");
+        }
+
+        if (SifenUtil.isBlank(sifenConfig.getIdCSC())) {
+            throw SifenExceptionUtil.invalidConfiguration("Error en la configuración de Sifen: ID del CSC no establecido.");
+        }
+
+        if (SifenUtil.isBlank(sifenConfig.getCSC())) {
+            throw SifenExceptionUtil.invalidConfiguration("Error en la configuración de Sifen: CSC no establecido.");
+        }
+
+        if (sifenConfig.getAmbiente().equals(SifenConfig.TipoAmbiente.PROD)) {
+            if (sifenConfig.getIdCSC().equals("0001") && sifenConfig.getCSC().equals("ABCD0000000000000000000000000000") ||
+                    sifenConfig.getIdCSC().equals("0002") && sifenConfig.getCSC().equals("EFGH0000000000000000000000000000")) {
+                throw SifenExceptionUtil.invalidConfiguration("Error en la configuración de Sifen: El CSC establecido solo " +
+                        "es utilizable en el ambiente de desarrollo. Solicitar a la SET el correspondiente a producción, " +
+                        "en caso de no poseerlo.");
+            }
+        }
+    }
+}
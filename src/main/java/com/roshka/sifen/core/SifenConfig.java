@@ -1,5 +1,6 @@
 package com.roshka.sifen.core;
 
+import com.roshka.sifen.core.beans.PoliticaReintentos;
 import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.internal.util.SifenExceptionUtil;
 import com.roshka.sifen.internal.util.SifenUtil;
@@ -9,7 +10,11 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
 
 import static com.roshka.sifen.internal.Constants.SDK_CURRENT_VERSION;
 
@@ -34,6 +39,71 @@ import static com.roshka.sifen.internal.Constants.SDK_CURRENT_VERSION;
  *
  *      <li>tipoCertificadoCliente (TipoCertificadoCliente): Tipo de archivo del certificado. Solo PFX es soportado
  *      actualmente.</li>
+ *
+ *      <li>httpMaxConexionesPorRuta (int): Cantidad máxima de conexiones simultáneas (y persistentes) hacia un mismo
+ *      servidor de Sifen.</li>
+ *
+ *      <li>httpTiempoMaximoInactividad (long): Tiempo máximo, en milisegundos, que una conexión persistente puede
+ *      permanecer inactiva antes de ser cerrada.</li>
+ *
+ *      <li>asyncMaxPeticionesEnCurso (int): Cantidad máxima de peticiones asíncronas en curso simultáneamente. Las
+ *      peticiones que superan el límite quedan en espera, sin bloquear al hilo que las realiza. El límite es del
+ *      cliente, y lo comparten las peticiones de todos los executors.</li>
+ *
+ *      <li>xmlGeneracionStreaming (boolean): Define si los Documentos Electrónicos se generan escribiendo el XML
+ *      directamente en un flujo de salida, en lugar de construir el árbol DOM. El XML resultante es idéntico.</li>
+ *
+ *      <li>xmlValidacionEsquema (boolean): Define si los Documentos Electrónicos y eventos se validan contra los
+ *      esquemas (XSD) v150 de Sifen antes de ser enviados. Un XML inválido se informa con una excepción que indica los
+ *      campos con errores, sin realizar la petición. Por defecto, no se validan.</li>
+ *
+ *      <li>loteNivelCompresion (int): Nivel de compresión del archivo zip enviado en la recepción de lotes, de 0 (sin
+ *      compresión) a 9 (máxima compresión), o -1 para el nivel por defecto.</li>
+ *
+ *      <li>loteHilosGeneracion (int): Cantidad de hilos utilizados para generar y firmar en paralelo los Documentos
+ *      Electrónicos de un lote. Por defecto, la cantidad de procesadores disponibles. Con 1 hilo, los DE se generan
+ *      secuencialmente en el hilo de la petición.</li>
+ *
+ *      <li>capturaPeticion (boolean): Define si el XML de cada petición se conserva en la respuesta (ver
+ *      <i>getRequestSent()</i>). Por defecto, no se conserva.</li>
+ *
+ *      <li>capturaRespuesta (boolean): Define si el XML recibido de Sifen se conserva en la respuesta (ver
+ *      <i>getRespuestaBruta()</i>). Por defecto, se conserva.</li>
+ *
+ *      <li>capturaMuestreo (double): Proporción, entre 0 y 1, de las peticiones cuyo XML (enviado y recibido) se
+ *      conserva, si la captura está habilitada. Por defecto, 1 (todas).</li>
+ *
+ *      <li>capturaTamanoMaximo (int): Tamaño máximo, en bytes, del XML conservado de cada petición o respuesta; el
+ *      contenido que lo supera se descarta. Con 0 (por defecto), no hay límite.</li>
+ *
+ *      <li>consultaRucCacheTamano (int): Cantidad máxima de RUCs cuyas consultas se conservan en la caché del cliente;
+ *      al superarla, se descartan las menos utilizadas recientemente. Con 0 (por defecto), no se utiliza la caché.</li>
+ *
+ *      <li>consultaRucCacheTtl (long): Tiempo, en milisegundos, durante el cual se reutiliza la consulta de un RUC
+ *      encontrado. Por defecto, 1 hora.</li>
+ *
+ *      <li>consultaRucCacheTtlNegativo (long): Tiempo, en milisegundos, durante el cual se reutiliza la consulta de un
+ *      RUC inexistente. Por defecto, 5 minutos.</li>
+ *
+ *      <li>consultaRucRegistro (String): Ruta del índice del registro local de RUCs (ver
+ *      {@link com.roshka.sifen.RegistroRUC}). Los RUCs que contiene se responden desde el registro en
+ *      {@link com.roshka.sifen.SifenClient#resolverRUC(String)}, sin realizar la petición a Sifen. Por defecto, no se
+ *      utiliza.</li>
+ *
+ *      <li>consultaRucRegistroVigencia (long): Antigüedad máxima, en milisegundos, del índice del registro local de
+ *      RUCs. Si el índice es más antiguo, los RUCs se consultan a Sifen; 0 para no limitarla. Por defecto, 7 días.</li>
+ *
+ *      <li>politicasReintentos (Map&lt;TipoOperacion, PoliticaReintentos&gt;): Política de reintentos de cada tipo de
+ *      operación, ante fallas de conexión o respuestas de Sifen no disponible. Por defecto, hasta 3 intentos, con
+ *      esperas de entre 200 ms y 5 segundos. Las consultas se reintentan aun si Sifen pudo haber recibido la
+ *      petición; la recepción de DE, de lotes y de eventos, solo si la petición no llegó a Sifen. Desde un archivo de propiedades se configuran los intentos y las esperas de todas
+ *      las operaciones a la vez.</li>
+ *
+ *      <li>circuitoUmbralFallas (int): Cantidad de fallas consecutivas de Sifen tras la cual el circuito del cliente se
+ *      abre, rechazando de inmediato las peticiones. Por defecto, 5. Con 0, el circuito no se abre nunca.</li>
+ *
+ *      <li>circuitoTiempoApertura (long): Tiempo, en milisegundos, durante el cual el circuito permanece abierto antes
+ *      de dejar pasar una petición de prueba. Por defecto, 30 segundos.</li>
  * </ul>
  */
 public class SifenConfig {
@@ -49,6 +119,11 @@ public class SifenConfig {
      */
     public enum TipoAmbiente {DEV, PROD}
 
+    /**
+     * Enum con los tipos de operaciones de Sifen, cada una con su propia política de reintentos.
+     */
+    public enum TipoOperacion {CONSULTA_RUC, CONSULTA_DE, CONSULTA_LOTE, RECEPCION_DE, RECEPCION_LOTE, RECEPCION_EVENTO}
+
     // Atributos
     private static final String SIFEN_AMBIENTE_KEY = "sifen.ambiente";
     private TipoAmbiente ambiente;
@@ -85,6 +160,56 @@ public class SifenConfig {
     private static final String SIFEN_CSC_KEY = "sifen.csc";
     private String CSC;
 
+    private static final String SIFEN_HTTP_MAX_CONEXIONES_POR_RUTA_KEY = "sifen.http.max_conexiones_por_ruta";
+    private int httpMaxConexionesPorRuta;
+    private static final String SIFEN_HTTP_TIEMPO_MAXIMO_INACTIVIDAD_KEY = "sifen.http.tiempo_maximo_inactividad";
+    private long httpTiempoMaximoInactividad;
+
+    private static final String SIFEN_ASYNC_MAX_PETICIONES_EN_CURSO_KEY = "sifen.async.max_peticiones_en_curso";
+    private int asyncMaxPeticionesEnCurso;
+
+    private static final String SIFEN_XML_GENERACION_STREAMING_KEY = "sifen.xml.generacion_streaming";
+    private boolean xmlGeneracionStreaming;
+    private static final String SIFEN_XML_VALIDACION_ESQUEMA_KEY = "sifen.xml.validacion_esquema";
+    private boolean xmlValidacionEsquema;
+
+    private static final String SIFEN_LOTE_NIVEL_COMPRESION_KEY = "sifen.lote.nivel_compresion";
+    private int loteNivelCompresion;
+    private static final String SIFEN_LOTE_HILOS_GENERACION_KEY = "sifen.lote.hilos_generacion";
+    private int loteHilosGeneracion;
+
+    private static final String SIFEN_CAPTURA_PETICION_KEY = "sifen.captura.peticion";
+    private boolean capturaPeticion;
+    private static final String SIFEN_CAPTURA_RESPUESTA_KEY = "sifen.captura.respuesta";
+    private boolean capturaRespuesta;
+    private static final String SIFEN_CAPTURA_MUESTREO_KEY = "sifen.captura.muestreo";
+    private double capturaMuestreo;
+    private static final String SIFEN_CAPTURA_TAMANO_MAXIMO_KEY = "sifen.captura.tamano_maximo";
+    private int capturaTamanoMaximo;
+
+    private static final String SIFEN_CONSULTA_RUC_CACHE_TAMANO_KEY = "sifen.consulta_ruc.cache.tamano";
+    private int consultaRucCacheTamano;
+    private static final String SIFEN_CONSULTA_RUC_CACHE_TTL_KEY = "sifen.consulta_ruc.cache.ttl";
+    private long consultaRucCacheTtl;
+    private static final String SIFEN_CONSULTA_RUC_CACHE_TTL_NEGATIVO_KEY = "sifen.consulta_ruc.cache.ttl_negativo";
+    private long consultaRucCacheTtlNegativo;
+    private static final String SIFEN_CONSULTA_RUC_REGISTRO_KEY = "sifen.consulta_ruc.registro";
+    private String consultaRucRegistro;
+    private static final String SIFEN_CONSULTA_RUC_REGISTRO_VIGENCIA_KEY = "sifen.consulta_ruc.registro.vigencia";
+    private long consultaRucRegistroVigencia;
+
+    private static final String SIFEN_REINTENTOS_INTENTOS_MAXIMOS_KEY = "sifen.reintentos.intentos_maximos";
+    private static final String SIFEN_REINTENTOS_ESPERA_INICIAL_KEY = "sifen.reintentos.espera_inicial";
+    private static final String SIFEN_REINTENTOS_ESPERA_MAXIMA_KEY = "sifen.reintentos.espera_maxima";
+    private final Map<TipoOperacion, PoliticaReintentos> politicasReintentos = new EnumMap<>(TipoOperacion.class);
+    private static final String SIFEN_CIRCUITO_UMBRAL_FALLAS_KEY = "sifen.circuito.umbral_fallas";
+    private int circuitoUmbralFallas;
+    private static final String SIFEN_CIRCUITO_TIEMPO_APERTURA_KEY = "sifen.circuito.tiempo_apertura";
+    private long circuitoTiempoApertura;
+
+    // Contador de modificaciones, para detectar cambios en la configuración sin compararla campo por campo
+    private final AtomicLong version = new AtomicLong();
+
     private final int httpConnectTimeout;
     private final int httpReadTimeout;
     private final String userAgent;
@@ -116,6 +241,30 @@ public class SifenConfig {
         this.httpConnectTimeout = 15 * 1000; // 15 Segundos
         this.httpReadTimeout = 45 * 1000; // 45 Segundos
         this.userAgent = "rshk-jsifenlib" + "/" + SDK_CURRENT_VERSION + " (LVEA)";
+        this.httpMaxConexionesPorRuta = 10;
+        this.httpTiempoMaximoInactividad = 60 * 1000; // 60 Segundos
+        this.asyncMaxPeticionesEnCurso = 64;
+        this.xmlGeneracionStreaming = false;
+        this.xmlValidacionEsquema = false;
+        this.loteNivelCompresion = Deflater.DEFAULT_COMPRESSION;
+        this.loteHilosGeneracion = Runtime.getRuntime().availableProcessors();
+        this.capturaPeticion = false;
+        this.capturaRespuesta = true;
+        this.capturaMuestreo = 1.0;
+        this.capturaTamanoMaximo = 0;
+        this.consultaRucCacheTamano = 0;
+        this.consultaRucCacheTtl = 60 * 60 * 1000; // 1 Hora
+        this.consultaRucCacheTtlNegativo = 5 * 60 * 1000; // 5 Minutos
+        this.consultaRucRegistroVigencia = 7 * 24 * 60 * 60 * 1000L; // 7 Días
+        for (TipoOperacion operacion : TipoOperacion.values()) {
+            // Reenviar un DE, un lote o un evento que Sifen pudo haber recibido generaría un duplicado. Los DEs y los
+            // lotes se reenvían igualmente si, al consultarlos por CDC, Sifen no los tiene registrados
+            boolean reintentarTrasEnvio = operacion != TipoOperacion.RECEPCION_DE
+                    && operacion != TipoOperacion.RECEPCION_LOTE && operacion != TipoOperacion.RECEPCION_EVENTO;
+            this.politicasReintentos.put(operacion, new PoliticaReintentos(3, 200, 5 * 1000, reintentarTrasEnvio));
+        }
+        this.circuitoUmbralFallas = 5;
+        this.circuitoTiempoApertura = 30 * 1000; // 30 Segundos
 
         this.habilitarNotaTecnica13 = false;
     }
@@ -139,6 +288,55 @@ public class SifenConfig {
         this.CSC = CSC;
     }
 
+    /**
+     * Crea una copia de la configuración recibida como argumento.
+     *
+     * @param otra Configuración a ser copiada.
+     */
+    public SifenConfig(SifenConfig otra) {
+        this();
+        this.ambiente = otra.ambiente;
+        this.urlBase = otra.urlBase;
+        this.urlBaseLocal = otra.urlBaseLocal;
+        this.urlConsultaQr = otra.urlConsultaQr;
+
+        this.pathRecibe = otra.pathRecibe;
+        this.pathRecibeLote = otra.pathRecibeLote;
+        this.pathEvento = otra.pathEvento;
+        this.pathConsultaLote = otra.pathConsultaLote;
+        this.pathConsultaRUC = otra.pathConsultaRUC;
+        this.pathConsulta = otra.pathConsulta;
+        this.habilitarNotaTecnica13 = otra.habilitarNotaTecnica13;
+
+        this.usarCertificadoCliente = otra.usarCertificadoCliente;
+        this.tipoCertificadoCliente = otra.tipoCertificadoCliente;
+        this.certificadoCliente = otra.certificadoCliente;
+        this.contrasenaCertificadoCliente = otra.contrasenaCertificadoCliente;
+
+        this.idCSC = otra.idCSC;
+        this.CSC = otra.CSC;
+
+        this.httpMaxConexionesPorRuta = otra.httpMaxConexionesPorRuta;
+        this.httpTiempoMaximoInactividad = otra.httpTiempoMaximoInactividad;
+        this.asyncMaxPeticionesEnCurso = otra.asyncMaxPeticionesEnCurso;
+        this.xmlGeneracionStreaming = otra.xmlGeneracionStreaming;
+        this.xmlValidacionEsquema = otra.xmlValidacionEsquema;
+        this.loteNivelCompresion = otra.loteNivelCompresion;
+        this.loteHilosGeneracion = otra.loteHilosGeneracion;
+        this.capturaPeticion = otra.capturaPeticion;
+        this.capturaRespuesta = otra.capturaRespuesta;
+        this.capturaMuestreo = otra.capturaMuestreo;
+        this.capturaTamanoMaximo = otra.capturaTamanoMaximo;
+        this.consultaRucCacheTamano = otra.consultaRucCacheTamano;
+        this.consultaRucCacheTtl = otra.consultaRucCacheTtl;
+        this.consultaRucCacheTtlNegativo = otra.consultaRucCacheTtlNegativo;
+        this.consultaRucRegistro = otra.consultaRucRegistro;
+        this.consultaRucRegistroVigencia = otra.consultaRucRegistroVigencia;
+        this.politicasReintentos.putAll(otra.politicasReintentos);
+        this.circuitoUmbralFallas = otra.circuitoUmbralFallas;
+        this.circuitoTiempoApertura = otra.circuitoTiempoApertura;
+    }
+
     /**
      * Carga la configuración de Sifen a ser utilizada desde un conjunto de propiedades.
      *
@@ -180,6 +378,153 @@ public class SifenConfig {
             sifenConfig.setIdCSC(propiedades.getProperty(SIFEN_ID_CSC_KEY));
         }
 
+        try {
+            if (propiedades.containsKey(SIFEN_HTTP_MAX_CONEXIONES_POR_RUTA_KEY)) {
+                sifenConfig.setHttpMaxConexionesPorRuta(Integer.parseInt(propiedades.getProperty(SIFEN_HTTP_MAX_CONEXIONES_POR_RUTA_KEY).trim()));
+            }
+        } catch (IllegalArgumentException e) {
+            throw SifenExceptionUtil.invalidConfiguration("El valor de la propiedad " + SIFEN_HTTP_MAX_CONEXIONES_POR_RUTA_KEY + " no es válido.", e);
+        }
+
+        try {
+            if (propiedades.containsKey(SIFEN_HTTP_TIEMPO_MAXIMO_INACTIVIDAD_KEY)) {
+                sifenConfig.setHttpTiempoMaximoInactividad(Long.parseLong(propiedades.getProperty(SIFEN_HTTP_TIEMPO_MAXIMO_INACTIVIDAD_KEY).trim()));
+            }
+        } catch (IllegalArgumentException e) {
+            throw SifenExceptionUtil.invalidConfiguration("El valor de la propiedad " + SIFEN_HTTP_TIEMPO_MAXIMO_INACTIVIDAD_KEY + " no es válido.", e);
+        }
+
+        try {
+            if (propiedades.containsKey(SIFEN_ASYNC_MAX_PETICIONES_EN_CURSO_KEY)) {
+                sifenConfig.setAsyncMaxPeticionesEnCurso(Integer.parseInt(propiedades.getProperty(SIFEN_ASYNC_MAX_PETICIONES_EN_CURSO_KEY).trim()));
+            }
+        } catch (IllegalArgumentException e) {
+            throw SifenExceptionUtil.invalidConfiguration("El valor de la propiedad " + SIFEN_ASYNC_MAX_PETICIONES_EN_CURSO_KEY + " no es válido.", e);
+        }
+
+        if (propiedades.containsKey(SIFEN_XML_GENERACION_STREAMING_KEY)) {
+            sifenConfig.xmlGeneracionStreaming = Boolean.parseBoolean(propiedades.getProperty(SIFEN_XML_GENERACION_STREAMING_KEY).trim());
+        }
+
+        if (propiedades.containsKey(SIFEN_XML_VALIDACION_ESQUEMA_KEY)) {
+            sifenConfig.xmlValidacionEsquema = Boolean.parseBoolean(propiedades.getProperty(SIFEN_XML_VALIDACION_ESQUEMA_KEY).trim());
+        }
+
+        try {
+            if (propiedades.containsKey(SIFEN_LOTE_NIVEL_COMPRESION_KEY)) {
+                sifenConfig.setLoteNivelCompresion(Integer.parseInt(propiedades.getProperty(SIFEN_LOTE_NIVEL_COMPRESION_KEY).trim()));
+            }
+        } catch (IllegalArgumentException e) {
+            throw SifenExceptionUtil.invalidConfiguration("El valor de la propiedad " + SIFEN_LOTE_NIVEL_COMPRESION_KEY + " no es válido.", e);
+        }
+
+        try {
+            if (propiedades.containsKey(SIFEN_LOTE_HILOS_GENERACION_KEY)) {
+                sifenConfig.setLoteHilosGeneracion(Integer.parseInt(propiedades.getProperty(SIFEN_LOTE_HILOS_GENERACION_KEY).trim()));
+            }
+        } catch (IllegalArgumentException e) {
+            throw SifenExceptionUtil.invalidConfiguration("El valor de la propiedad " + SIFEN_LOTE_HILOS_GENERACION_KEY + " no es válido.", e);
+        }
+
+        if (propiedades.containsKey(SIFEN_CAPTURA_PETICION_KEY)) {
+            sifenConfig.capturaPeticion = Boolean.parseBoolean(propiedades.getProperty(SIFEN_CAPTURA_PETICION_KEY).trim());
+        }
+
+        if (propiedades.containsKey(SIFEN_CAPTURA_RESPUESTA_KEY)) {
+            sifenConfig.capturaRespuesta = Boolean.parseBoolean(propiedades.getProperty(SIFEN_CAPTURA_RESPUESTA_KEY).trim());
+        }
+
+        try {
+            if (propiedades.containsKey(SIFEN_CAPTURA_MUESTREO_KEY)) {
+                sifenConfig.setCapturaMuestreo(Double.parseDouble(propiedades.getProperty(SIFEN_CAPTURA_MUESTREO_KEY).trim()));
+            }
+        } catch (IllegalArgumentException e) {
+            throw SifenExceptionUtil.invalidConfiguration("El valor de la propiedad " + SIFEN_CAPTURA_MUESTREO_KEY + " no es válido.", e);
+        }
+
+        try {
+            if (propiedades.containsKey(SIFEN_CAPTURA_TAMANO_MAXIMO_KEY)) {
+                sifenConfig.setCapturaTamanoMaximo(Integer.parseInt(propiedades.getProperty(SIFEN_CAPTURA_TAMANO_MAXIMO_KEY).trim()));
+            }
+        } catch (IllegalArgumentException e) {
+            throw SifenExceptionUtil.invalidConfiguration("El valor de la propiedad " + SIFEN_CAPTURA_TAMANO_MAXIMO_KEY + " no es válido.", e);
+        }
+
+        try {
+            if (propiedades.containsKey(SIFEN_CONSULTA_RUC_CACHE_TAMANO_KEY)) {
+                sifenConfig.setConsultaRucCacheTamano(Integer.parseInt(propiedades.getProperty(SIFEN_CONSULTA_RUC_CACHE_TAMANO_KEY).trim()));
+            }
+        } catch (IllegalArgumentException e) {
+            throw SifenExceptionUtil.invalidConfiguration("El valor de la propiedad " + SIFEN_CONSULTA_RUC_CACHE_TAMANO_KEY + " no es válido.", e);
+        }
+
+        try {
+            if (propiedades.containsKey(SIFEN_CONSULTA_RUC_CACHE_TTL_KEY)) {
+                sifenConfig.setConsultaRucCacheTtl(Long.parseLong(propiedades.getProperty(SIFEN_CONSULTA_RUC_CACHE_TTL_KEY).trim()));
+            }
+        } catch (IllegalArgumentException e) {
+            throw SifenExceptionUtil.invalidConfiguration("El valor de la propiedad " + SIFEN_CONSULTA_RUC_CACHE_TTL_KEY + " no es válido.", e);
+        }
+
+        try {
+            if (propiedades.containsKey(SIFEN_CONSULTA_RUC_CACHE_TTL_NEGATIVO_KEY)) {
+                sifenConfig.setConsultaRucCacheTtlNegativo(Long.parseLong(propiedades.getProperty(SIFEN_CONSULTA_RUC_CACHE_TTL_NEGATIVO_KEY).trim()));
+            }
+        } catch (IllegalArgumentException e) {
+            throw SifenExceptionUtil.invalidConfiguration("El valor de la propiedad " + SIFEN_CONSULTA_RUC_CACHE_TTL_NEGATIVO_KEY + " no es válido.", e);
+        }
+
+        if (propiedades.containsKey(SIFEN_CONSULTA_RUC_REGISTRO_KEY)) {
+            sifenConfig.setConsultaRucRegistro(propiedades.getProperty(SIFEN_CONSULTA_RUC_REGISTRO_KEY).trim());
+        }
+
+        try {
+            if (propiedades.containsKey(SIFEN_CONSULTA_RUC_REGISTRO_VIGENCIA_KEY)) {
+                sifenConfig.setConsultaRucRegistroVigencia(Long.parseLong(propiedades.getProperty(SIFEN_CONSULTA_RUC_REGISTRO_VIGENCIA_KEY).trim()));
+            }
+        } catch (IllegalArgumentException e) {
+            throw SifenExceptionUtil.invalidConfiguration("El valor de la propiedad " + SIFEN_CONSULTA_RUC_REGISTRO_VIGENCIA_KEY + " no es válido.", e);
+        }
+
+        try {
+            for (TipoOperacion operacion : TipoOperacion.values()) {
+                PoliticaReintentos politica = sifenConfig.getPoliticaReintentos(operacion);
+                int intentosMaximos = politica.getIntentosMaximos();
+                long esperaInicial = politica.getEsperaInicial();
+                long esperaMaxima = politica.getEsperaMaxima();
+                if (propiedades.containsKey(SIFEN_REINTENTOS_INTENTOS_MAXIMOS_KEY)) {
+                    intentosMaximos = Integer.parseInt(propiedades.getProperty(SIFEN_REINTENTOS_INTENTOS_MAXIMOS_KEY).trim());
+                }
+                if (propiedades.containsKey(SIFEN_REINTENTOS_ESPERA_INICIAL_KEY)) {
+                    esperaInicial = Long.parseLong(propiedades.getProperty(SIFEN_REINTENTOS_ESPERA_INICIAL_KEY).trim());
+                }
+                if (propiedades.containsKey(SIFEN_REINTENTOS_ESPERA_MAXIMA_KEY)) {
+                    esperaMaxima = Long.parseLong(propiedades.getProperty(SIFEN_REINTENTOS_ESPERA_MAXIMA_KEY).trim());
+                }
+                sifenConfig.setPoliticaReintentos(operacion, new PoliticaReintentos(intentosMaximos, esperaInicial,
+                        esperaMaxima, politica.isReintentarTrasEnvio()));
+            }
+        } catch (IllegalArgumentException e) {
+            throw SifenExceptionUtil.invalidConfiguration("Los valores de las propiedades " + SIFEN_REINTENTOS_INTENTOS_MAXIMOS_KEY
+                    + ", " + SIFEN_REINTENTOS_ESPERA_INICIAL_KEY + " y " + SIFEN_REINTENTOS_ESPERA_MAXIMA_KEY + " no son válidos.", e);
+        }
+
+        try {
+            if (propiedades.containsKey(SIFEN_CIRCUITO_UMBRAL_FALLAS_KEY)) {
+                sifenConfig.setCircuitoUmbralFallas(Integer.parseInt(propiedades.getProperty(SIFEN_CIRCUITO_UMBRAL_FALLAS_KEY).trim()));
+            }
+        } catch (IllegalArgumentException e) {
+            throw SifenExceptionUtil.invalidConfiguration("El valor de la propiedad " + SIFEN_CIRCUITO_UMBRAL_FALLAS_KEY + " no es válido.", e);
+        }
+
+        try {
+            if (propiedades.containsKey(SIFEN_CIRCUITO_TIEMPO_APERTURA_KEY)) {
+                sifenConfig.setCircuitoTiempoApertura(Long.parseLong(propiedades.getProperty(SIFEN_CIRCUITO_TIEMPO_APERTURA_KEY).trim()));
+            }
+        } catch (IllegalArgumentException e) {
+            throw SifenExceptionUtil.invalidConfiguration("El valor de la propiedad " + SIFEN_CIRCUITO_TIEMPO_APERTURA_KEY + " no es válido.", e);
+        }
+
         try {
             sifenConfig.habilitarNotaTecnica13 = Boolean.parseBoolean(propiedades.getProperty(SIFEN_HABILITAR_NOTA_TECNICA_13_KEY));
         } catch (IllegalArgumentException e) {
@@ -265,6 +610,25 @@ public class SifenConfig {
                 ", httpConnectTimeout=" + httpConnectTimeout +
                 ", httpReadTimeout=" + httpReadTimeout +
                 ", userAgent='" + userAgent + '\'' +
+                ", httpMaxConexionesPorRuta=" + httpMaxConexionesPorRuta +
+                ", httpTiempoMaximoInactividad=" + httpTiempoMaximoInactividad +
+                ", asyncMaxPeticionesEnCurso=" + asyncMaxPeticionesEnCurso +
+                ", xmlGeneracionStreaming=" + xmlGeneracionStreaming +
+                ", xmlValidacionEsquema=" + xmlValidacionEsquema +
+                ", loteNivelCompresion=" + loteNivelCompresion +
+                ", loteHilosGeneracion=" + loteHilosGeneracion +
+                ", capturaPeticion=" + capturaPeticion +
+                ", capturaRespuesta=" + capturaRespuesta +
+                ", capturaMuestreo=" + capturaMuestreo +
+                ", capturaTamanoMaximo=" + capturaTamanoMaximo +
+                ", consultaRucCacheTamano=" + consultaRucCacheTamano +
+                ", consultaRucCacheTtl=" + consultaRucCacheTtl +
+                ", consultaRucCacheTtlNegativo=" + consultaRucCacheTtlNegativo +
+                ", consultaRucRegistro='" + consultaRucRegistro + '\'' +
+                ", consultaRucRegistroVigencia=" + consultaRucRegistroVigencia +
+                ", politicasReintentos=" + politicasReintentos +
+                ", circuitoUmbralFallas=" + circuitoUmbralFallas +
+                ", circuitoTiempoApertura=" + circuitoTiempoApertura +
                 ", habilitarNotaTecnica13=" + habilitarNotaTecnica13 +
                 ", URL_BASE_DEV='" + URL_BASE_DEV + '\'' +
                 ", URL_BASE_PROD='" + URL_BASE_PROD + '\'' +
@@ -273,6 +637,17 @@ public class SifenConfig {
                 '}';
     }
 
+    /**
+     * @return Contador de modificaciones de la configuración, incrementado por cada setter. Método interno, no usar.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    private void touch() {
+        this.version.incrementAndGet();
+    }
+
     // Getters y Setters
     public void setAmbiente(TipoAmbiente ambiente) {
         this.ambiente = ambiente;
@@ -284,6 +659,7 @@ public class SifenConfig {
             this.urlBaseLocal = URL_BASE_PROD;
             this.urlConsultaQr = URL_CONSULTA_QR_PROD;
         }
+        this.touch();
     }
 
     public TipoAmbiente getAmbiente() {
@@ -296,6 +672,7 @@ public class SifenConfig {
 
     public void setUrlBase(String urlBase) {
         this.urlBase = urlBase;
+        this.touch();
     }
 
     public String getUrlBaseLocal() {
@@ -312,6 +689,7 @@ public class SifenConfig {
 
     public void setPathRecibe(String pathRecibe) {
         this.pathRecibe = pathRecibe;
+        this.touch();
     }
 
     public String getPathRecibeLote() {
@@ -320,6 +698,7 @@ public class SifenConfig {
 
     public void setPathRecibeLote(String pathRecibeLote) {
         this.pathRecibeLote = pathRecibeLote;
+        this.touch();
     }
 
     public String getPathEvento() {
@@ -328,6 +707,7 @@ public class SifenConfig {
 
     public void setPathEvento(String pathEvento) {
         this.pathEvento = pathEvento;
+        this.touch();
     }
 
     public String getPathConsultaLote() {
@@ -336,6 +716,7 @@ public class SifenConfig {
 
     public void setPathConsultaLote(String pathConsultaLote) {
         this.pathConsultaLote = pathConsultaLote;
+        this.touch();
     }
 
     public String getPathConsultaRUC() {
@@ -344,6 +725,7 @@ public class SifenConfig {
 
     public void setPathConsultaRUC(String pathConsultaRUC) {
         this.pathConsultaRUC = pathConsultaRUC;
+        this.touch();
     }
 
     public String getPathConsulta() {
@@ -352,6 +734,7 @@ public class SifenConfig {
 
     public void setPathConsulta(String pathConsulta) {
         this.pathConsulta = pathConsulta;
+        this.touch();
     }
 
     public boolean isUsarCertificadoCliente() {
@@ -360,6 +743,7 @@ public class SifenConfig {
 
     public void setUsarCertificadoCliente(boolean usarCertificadoCliente) {
         this.usarCertificadoCliente = usarCertificadoCliente;
+        this.touch();
     }
 
     public String getCertificadoCliente() {
@@ -368,6 +752,7 @@ public class SifenConfig {
 
     public void setCertificadoCliente(String certificadoCliente) {
         this.certificadoCliente = certificadoCliente;
+        this.touch();
     }
 
     public String getContrasenaCertificadoCliente() {
@@ -376,6 +761,7 @@ public class SifenConfig {
 
     public void setContrasenaCertificadoCliente(String contrasenaCertificadoCliente) {
         this.contrasenaCertificadoCliente = contrasenaCertificadoCliente;
+        this.touch();
     }
 
     public TipoCertificadoCliente getTipoCertificadoCliente() {
@@ -384,6 +770,7 @@ public class SifenConfig {
 
     public void setTipoCertificadoCliente(TipoCertificadoCliente tipoCertificadoCliente) {
         this.tipoCertificadoCliente = tipoCertificadoCliente;
+        this.touch();
     }
 
     public int getHttpConnectTimeout() {
@@ -398,12 +785,223 @@ public class SifenConfig {
         return userAgent;
     }
 
+    public int getHttpMaxConexionesPorRuta() {
+        return httpMaxConexionesPorRuta;
+    }
+
+    public void setHttpMaxConexionesPorRuta(int httpMaxConexionesPorRuta) {
+        if (httpMaxConexionesPorRuta < 1) {
+            throw new IllegalArgumentException("La cantidad máxima de conexiones por ruta debe ser mayor a cero.");
+        }
+        this.httpMaxConexionesPorRuta = httpMaxConexionesPorRuta;
+        this.touch();
+    }
+
+    public long getHttpTiempoMaximoInactividad() {
+        return httpTiempoMaximoInactividad;
+    }
+
+    public void setHttpTiempoMaximoInactividad(long httpTiempoMaximoInactividad) {
+        this.httpTiempoMaximoInactividad = httpTiempoMaximoInactividad;
+        this.touch();
+    }
+
+    public int getAsyncMaxPeticionesEnCurso() {
+        return asyncMaxPeticionesEnCurso;
+    }
+
+    public void setAsyncMaxPeticionesEnCurso(int asyncMaxPeticionesEnCurso) {
+        if (asyncMaxPeticionesEnCurso < 1) {
+            throw new IllegalArgumentException("La cantidad máxima de peticiones en curso debe ser mayor a cero.");
+        }
+        this.asyncMaxPeticionesEnCurso = asyncMaxPeticionesEnCurso;
+        this.touch();
+    }
+
+    public boolean isXmlGeneracionStreaming() {
+        return xmlGeneracionStreaming;
+    }
+
+    public void setXmlGeneracionStreaming(boolean xmlGeneracionStreaming) {
+        this.xmlGeneracionStreaming = xmlGeneracionStreaming;
+        this.touch();
+    }
+
+    public boolean isXmlValidacionEsquema() {
+        return xmlValidacionEsquema;
+    }
+
+    public void setXmlValidacionEsquema(boolean xmlValidacionEsquema) {
+        this.xmlValidacionEsquema = xmlValidacionEsquema;
+        this.touch();
+    }
+
+    public int getLoteNivelCompresion() {
+        return loteNivelCompresion;
+    }
+
+    public void setLoteNivelCompresion(int loteNivelCompresion) {
+        if (loteNivelCompresion < Deflater.DEFAULT_COMPRESSION || loteNivelCompresion > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("El nivel de compresión del lote debe estar entre -1 y 9.");
+        }
+        this.loteNivelCompresion = loteNivelCompresion;
+        this.touch();
+    }
+
+    public int getLoteHilosGeneracion() {
+        return loteHilosGeneracion;
+    }
+
+    public void setLoteHilosGeneracion(int loteHilosGeneracion) {
+        if (loteHilosGeneracion < 1) {
+            throw new IllegalArgumentException("La cantidad de hilos de generación del lote debe ser mayor a cero.");
+        }
+        this.loteHilosGeneracion = loteHilosGeneracion;
+        this.touch();
+    }
+
+    public boolean isCapturaPeticion() {
+        return capturaPeticion;
+    }
+
+    public void setCapturaPeticion(boolean capturaPeticion) {
+        this.capturaPeticion = capturaPeticion;
+        this.touch();
+    }
+
+    public boolean isCapturaRespuesta() {
+        return capturaRespuesta;
+    }
+
+    public void setCapturaRespuesta(boolean capturaRespuesta) {
+        this.capturaRespuesta = capturaRespuesta;
+        this.touch();
+    }
+
+    public double getCapturaMuestreo() {
+        return capturaMuestreo;
+    }
+
+    public void setCapturaMuestreo(double capturaMuestreo) {
+        if (!(capturaMuestreo >= 0 && capturaMuestreo <= 1)) {
+            throw new IllegalArgumentException("La proporción de muestreo de la captura debe estar entre 0 y 1.");
+        }
+        this.capturaMuestreo = capturaMuestreo;
+        this.touch();
+    }
+
+    public int getCapturaTamanoMaximo() {
+        return capturaTamanoMaximo;
+    }
+
+    public void setCapturaTamanoMaximo(int capturaTamanoMaximo) {
+        if (capturaTamanoMaximo < 0) {
+            throw new IllegalArgumentException("El tamaño máximo de la captura no debe ser negativo.");
+        }
+        this.capturaTamanoMaximo = capturaTamanoMaximo;
+        this.touch();
+    }
+
+    public int getConsultaRucCacheTamano() {
+        return consultaRucCacheTamano;
+    }
+
+    public void setConsultaRucCacheTamano(int consultaRucCacheTamano) {
+        if (consultaRucCacheTamano < 0) {
+            throw new IllegalArgumentException("El tamaño de la caché de consultas de RUC no debe ser negativo.");
+        }
+        this.consultaRucCacheTamano = consultaRucCacheTamano;
+        this.touch();
+    }
+
+    public long getConsultaRucCacheTtl() {
+        return consultaRucCacheTtl;
+    }
+
+    public void setConsultaRucCacheTtl(long consultaRucCacheTtl) {
+        if (consultaRucCacheTtl < 0) {
+            throw new IllegalArgumentException("El tiempo de vida de las consultas de RUC en la caché no debe ser negativo.");
+        }
+        this.consultaRucCacheTtl = consultaRucCacheTtl;
+        this.touch();
+    }
+
+    public long getConsultaRucCacheTtlNegativo() {
+        return consultaRucCacheTtlNegativo;
+    }
+
+    public void setConsultaRucCacheTtlNegativo(long consultaRucCacheTtlNegativo) {
+        if (consultaRucCacheTtlNegativo < 0) {
+            throw new IllegalArgumentException("El tiempo de vida de las consultas de RUC inexistentes en la caché no debe ser negativo.");
+        }
+        this.consultaRucCacheTtlNegativo = consultaRucCacheTtlNegativo;
+        this.touch();
+    }
+
+    public String getConsultaRucRegistro() {
+        return consultaRucRegistro;
+    }
+
+    public void setConsultaRucRegistro(String consultaRucRegistro) {
+        this.consultaRucRegistro = consultaRucRegistro;
+        this.touch();
+    }
+
+    public long getConsultaRucRegistroVigencia() {
+        return consultaRucRegistroVigencia;
+    }
+
+    public void setConsultaRucRegistroVigencia(long consultaRucRegistroVigencia) {
+        if (consultaRucRegistroVigencia < 0) {
+            throw new IllegalArgumentException("La antigüedad máxima del registro de RUCs no debe ser negativa.");
+        }
+        this.consultaRucRegistroVigencia = consultaRucRegistroVigencia;
+        this.touch();
+    }
+
+    public PoliticaReintentos getPoliticaReintentos(TipoOperacion operacion) {
+        return politicasReintentos.get(operacion);
+    }
+
+    public void setPoliticaReintentos(TipoOperacion operacion, PoliticaReintentos politicaReintentos) {
+        if (operacion == null || politicaReintentos == null) {
+            throw new IllegalArgumentException("La operación y su política de reintentos no deben ser nulas.");
+        }
+        this.politicasReintentos.put(operacion, politicaReintentos);
+        this.touch();
+    }
+
+    public int getCircuitoUmbralFallas() {
+        return circuitoUmbralFallas;
+    }
+
+    public void setCircuitoUmbralFallas(int circuitoUmbralFallas) {
+        if (circuitoUmbralFallas < 0) {
+            throw new IllegalArgumentException("El umbral de fallas del circuito no debe ser negativo.");
+        }
+        this.circuitoUmbralFallas = circuitoUmbralFallas;
+        this.touch();
+    }
+
+    public long getCircuitoTiempoApertura() {
+        return circuitoTiempoApertura;
+    }
+
+    public void setCircuitoTiempoApertura(long circuitoTiempoApertura) {
+        if (circuitoTiempoApertura < 0) {
+            throw new IllegalArgumentException("El tiempo de apertura del circuito no debe ser negativo.");
+        }
+        this.circuitoTiempoApertura = circuitoTiempoApertura;
+        this.touch();
+    }
+
     public String getIdCSC() {
         return idCSC;
     }
 
     public void setIdCSC(String idCSC) {
         this.idCSC = SifenUtil.leftPad(idCSC, '0', 4);
+        this.touch();
     }
 
     public String getCSC() {
@@ -412,6 +1010,7 @@ public class SifenConfig {
 
     public void setCSC(String CSC) {
         this.CSC = CSC;
+        this.touch();
     }
 
     public boolean isHabilitarNotaTecnica13() {
@@ -420,5 +1019,6 @@ public class SifenConfig {
 
     public void setHabilitarNotaTecnica13(boolean habilitarNotaTecnica13) {
         this.habilitarNotaTecnica13 = habilitarNotaTecnica13;
+        this.touch();
     }
 }
@@ -0,0 +1,239 @@
+package com.roshka.sifen.core.beans;
+
+import com.roshka.sifen.core.types.TTiDE;
+import com.roshka.sifen.core.types.TTipEmi;
+import com.roshka.sifen.core.types.TiTipCont;
+import com.roshka.sifen.internal.util.SifenUtil;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Código de Control (CDC) de un Documento Electrónico. Está compuesto por 44 dígitos: tipo de documento (2), RUC del
+ * emisor (8) y su dígito verificador (1), establecimiento (3), punto de expedición (3), número del documento (7), tipo de
+ * contribuyente (1), fecha de emisión en formato AAAAMMDD (8), tipo de emisión (1), código de seguridad (9) y dígito
+ * verificador del CDC (1).
+ * <p>
+ * La generación, la validación y la lectura de los campos se realizan directamente sobre los dígitos, sin crear objetos
+ * intermedios, para poder procesar grandes cantidades de CDCs.
+ */
+public final class CDC {
+    /**
+     * Cantidad de dígitos de un CDC.
+     */
+    public final static int LONGITUD = 44;
+
+    private final String valor;
+
+    private CDC(String valor) {
+        this.valor = valor;
+    }
+
+    /**
+     * Genera el CDC a partir de los campos del documento, incluyendo su dígito verificador.
+     *
+     * @param iTiDE    Tipo de Documento Electrónico.
+     * @param dRucEm   RUC del emisor.
+     * @param dDVEmi   Dígito verificador del RUC del emisor.
+     * @param dEst     Establecimiento.
+     * @param dPunExp  Punto de expedición.
+     * @param dNumDoc  Número del documento.
+     * @param iTipCont Tipo de contribuyente.
+     * @param dFeEmiDE Fecha de emisión.
+     * @param iTipEmi  Tipo de emisión.
+     * @param dCodSeg  Código de seguridad.
+     * @return El CDC generado.
+     * @throws NullPointerException     Si alguno de los campos es nulo.
+     * @throws IllegalArgumentException Si el año de la fecha de emisión no tiene 4 dígitos.
+     * @throws NumberFormatException    Si alguno de los campos contiene caracteres que no son dígitos.
+     */
+    public static String generar(TTiDE iTiDE, String dRucEm, String dDVEmi, String dEst, String dPunExp, String dNumDoc,
+                                 TiTipCont iTipCont, LocalDate dFeEmiDE, TTipEmi iTipEmi, String dCodSeg) {
+        int year = dFeEmiDE.getYear();
+        if (year < 0 || year > 9999) {
+            throw new IllegalArgumentException("El año de la fecha de emisión debe tener 4 dígitos.");
+        }
+
+        // Los campos se copian tal cual, por lo que la longitud depende de que tengan la cantidad de dígitos esperada
+        int tipoCont = iTipCont.getVal(), tipoEmi = iTipEmi.getVal();
+        int length = 2 + dRucEm.length() + dDVEmi.length() + dEst.length() + dPunExp.length() + dNumDoc.length()
+                + stringSize(tipoCont) + 8 + stringSize(tipoEmi) + dCodSeg.length();
+        char[] chars = new char[length + 1];
+
+        SifenUtil.writeDigits(iTiDE.getVal(), chars, 0, 2);
+        int pos = copy(dRucEm, chars, 2);
+        pos = copy(dDVEmi, chars, pos);
+        pos = copy(dEst, chars, pos);
+        pos = copy(dPunExp, chars, pos);
+        pos = copy(dNumDoc, chars, pos);
+        SifenUtil.writeDigits(tipoCont, chars, pos, stringSize(tipoCont));
+        pos += stringSize(tipoCont);
+        SifenUtil.writeDigits(year, chars, pos, 4);
+        SifenUtil.writeDigits(dFeEmiDE.getMonthValue(), chars, pos + 4, 2);
+        SifenUtil.writeDigits(dFeEmiDE.getDayOfMonth(), chars, pos + 6, 2);
+        pos += 8;
+        SifenUtil.writeDigits(tipoEmi, chars, pos, stringSize(tipoEmi));
+        pos += stringSize(tipoEmi);
+        copy(dCodSeg, chars, pos);
+
+        chars[length] = (char) ('0' + SifenUtil.computeDv(chars, 0, length));
+        return new String(chars);
+    }
+
+    /**
+     * Verifica que el texto sea un CDC válido: 44 dígitos, con una fecha de emisión existente y un dígito verificador
+     * correcto. No se verifica que el documento exista en el SIFEN.
+     *
+     * @param cdc Texto a verificar.
+     * @return <strong>true</strong> si el texto es un CDC válido.
+     */
+    public static boolean esValido(CharSequence cdc) {
+        if (cdc == null || cdc.length() != LONGITUD) {
+            return false;
+        }
+
+        for (int i = 0; i < LONGITUD; i++) {
+            char c = cdc.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+
+        int year = number(cdc, 25, 29), month = number(cdc, 29, 31), day = number(cdc, 31, 33);
+        if (month < 1 || month > 12 || day < 1 || day > Month.of(month).length(Year.isLeap(year))) {
+            return false;
+        }
+
+        return SifenUtil.computeDv(cdc, 0, LONGITUD - 1) == cdc.charAt(LONGITUD - 1) - '0';
+    }
+
+    /**
+     * Verifica un conjunto de CDCs.
+     *
+     * @param cdcs CDCs a verificar.
+     * @return Un arreglo con el resultado de {@link #esValido(CharSequence)} para cada CDC, en el mismo orden.
+     */
+    public static boolean[] validar(List<? extends CharSequence> cdcs) {
+        boolean[] validos = new boolean[cdcs.size()];
+        int i = 0;
+        for (CharSequence cdc : cdcs) {
+            validos[i++] = esValido(cdc);
+        }
+        return validos;
+    }
+
+    /**
+     * @param cdc Texto del CDC.
+     * @return El CDC, cuyos campos se obtienen a partir de los dígitos.
+     * @throws IllegalArgumentException Si el texto no es un CDC válido.
+     */
+    public static CDC leer(String cdc) {
+        if (!esValido(cdc)) {
+            throw new IllegalArgumentException("El CDC " + cdc + " no es válido.");
+        }
+        return new CDC(cdc);
+    }
+
+    /**
+     * @param cdcs Textos de los CDCs.
+     * @return Los CDCs, en el mismo orden.
+     * @throws IllegalArgumentException Si alguno de los textos no es un CDC válido, indicando su posición.
+     */
+    public static List<CDC> leer(List<String> cdcs) {
+        List<CDC> resultado = new ArrayList<>(cdcs.size());
+        for (String cdc : cdcs) {
+            if (!esValido(cdc)) {
+                throw new IllegalArgumentException("El CDC " + cdc + " en la posición " + resultado.size() + " no es válido.");
+            }
+            resultado.add(new CDC(cdc));
+        }
+        return resultado;
+    }
+
+    public TTiDE getTipoDocumento() {
+        return TTiDE.getByVal((short) number(valor, 0, 2));
+    }
+
+    public String getRucEmisor() {
+        return valor.substring(2, 10);
+    }
+
+    public String getDvEmisor() {
+        return valor.substring(10, 11);
+    }
+
+    public String getEstablecimiento() {
+        return valor.substring(11, 14);
+    }
+
+    public String getPuntoExpedicion() {
+        return valor.substring(14, 17);
+    }
+
+    public String getNumeroDocumento() {
+        return valor.substring(17, 24);
+    }
+
+    public TiTipCont getTipoContribuyente() {
+        return TiTipCont.getByVal((short) number(valor, 24, 25));
+    }
+
+    public LocalDate getFechaEmision() {
+        return LocalDate.of(number(valor, 25, 29), number(valor, 29, 31), number(valor, 31, 33));
+    }
+
+    public TTipEmi getTipoEmision() {
+        return TTipEmi.getByVal((short) number(valor, 33, 34));
+    }
+
+    public String getCodigoSeguridad() {
+        return valor.substring(34, 43);
+    }
+
+    public String getDv() {
+        return valor.substring(43);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof CDC && valor.equals(((CDC) o).valor));
+    }
+
+    @Override
+    public int hashCode() {
+        return valor.hashCode();
+    }
+
+    /**
+     * @return Los 44 dígitos del CDC.
+     */
+    @Override
+    public String toString() {
+        return valor;
+    }
+
+    private static int number(CharSequence digits, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            value = value * 10 + (digits.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    private static int copy(String value, char[] chars, int offset) {
+        value.getChars(0, value.length(), chars, offset);
+        return offset + value.length();
+    }
+
+    private static int stringSize(int value) {
+        int size = 1;
+        while (value >= 10) {
+            value /= 10;
+            size++;
+        }
+        return size;
+    }
+}
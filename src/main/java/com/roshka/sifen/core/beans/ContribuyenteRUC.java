@@ -0,0 +1,60 @@
+package com.roshka.sifen.core.beans;
+
+/**
+ * Clase que representa los datos de un contribuyente obtenidos del registro local de RUCs (ver
+ * {@link com.roshka.sifen.RegistroRUC}).
+ */
+public class ContribuyenteRUC {
+    private final String ruc;
+    private final String razonSocial;
+    private final String dv;
+    private final String estado;
+
+    /**
+     * Método interno, no usar.
+     */
+    public ContribuyenteRUC(String ruc, String razonSocial, String dv, String estado) {
+        this.ruc = ruc;
+        this.razonSocial = razonSocial;
+        this.dv = dv;
+        this.estado = estado;
+    }
+
+    /**
+     * @return RUC del contribuyente, sin el DV.
+     */
+    public String getRuc() {
+        return ruc;
+    }
+
+    /**
+     * @return Nombre o razón social del contribuyente.
+     */
+    public String getRazonSocial() {
+        return razonSocial;
+    }
+
+    /**
+     * @return Dígito verificador del RUC, tal como fue publicado por la SET.
+     */
+    public String getDv() {
+        return dv;
+    }
+
+    /**
+     * @return Estado del contribuyente, tal como fue publicado por la SET (ej.: <i>ACTIVO</i>, <i>CANCELADO</i>).
+     */
+    public String getEstado() {
+        return estado;
+    }
+
+    @Override
+    public String toString() {
+        return "ContribuyenteRUC{" +
+                "ruc='" + ruc + '\'' +
+                ", razonSocial='" + razonSocial + '\'' +
+                ", dv='" + dv + '\'' +
+                ", estado='" + estado + '\'' +
+                '}';
+    }
+}
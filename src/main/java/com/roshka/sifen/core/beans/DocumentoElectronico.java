@@ -4,32 +4,35 @@ import com.roshka.sifen.Sifen;
 import com.roshka.sifen.core.SifenConfig;
 import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.core.fields.request.de.*;
+import com.roshka.sifen.core.types.CMondT;
+import com.roshka.sifen.core.types.TTImp;
 import com.roshka.sifen.core.types.TTiDE;
+import com.roshka.sifen.core.types.TdCondTiCam;
 import com.roshka.sifen.internal.Constants;
 import com.roshka.sifen.internal.ctx.GenerationCtx;
-import com.roshka.sifen.internal.helpers.SignatureHelper;
 import com.roshka.sifen.internal.helpers.SoapHelper;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.response.SifenObjectFactory;
 import com.roshka.sifen.internal.util.ResponseUtil;
 import com.roshka.sifen.internal.util.SifenExceptionUtil;
 import com.roshka.sifen.internal.util.SifenUtil;
-import org.w3c.dom.Attr;
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
+import com.roshka.sifen.internal.xml.DomXmlElement;
+import com.roshka.sifen.internal.xml.StreamingXmlWriter;
+import com.roshka.sifen.internal.xml.XmlElement;
 
 import javax.xml.crypto.dsig.Reference;
 import javax.xml.crypto.dsig.SignedInfo;
 import javax.xml.namespace.QName;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.soap.*;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.StringReader;
+import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -57,6 +60,7 @@ public class DocumentoElectronico extends SifenObjectBase {
     private TgTotSub gTotSub;
     private TgCamGen gCamGen;
     private List<TgCamDEAsoc> gCamDEAsocList;
+    private AcumuladorTotales acumuladorTotales; // totales de los ítems agregados con agregarItem
 
     private String enlaceQR;
     private final static Logger logger = Logger.getLogger(DocumentoElectronico.class.toString());
@@ -75,45 +79,75 @@ public class DocumentoElectronico extends SifenObjectBase {
      *                        no pudo ser encontrado.
      */
     public DocumentoElectronico(String xml) throws SifenException {
-        xml = xml.replaceAll(">[\\s\r\n]*<", "><");
+        this.leerXml(ResponseUtil.createXMLStreamReader(new StringReader(xml)));
+        this.obtenerCDC();
+    }
 
-        // Parseamos el xml
-        Document xmlDocument;
-        try {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            factory.setNamespaceAware(true);
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            xmlDocument = builder.parse(new InputSource(new StringReader(xml)));
-        } catch (ParserConfigurationException | IOException | SAXException e) {
-            throw SifenExceptionUtil.xmlParsingError("Se produjo un error al parsear el archivo XML. Formato incorrecto.");
-        }
+    /**
+     * Construye un Documento Electrónico en base a un XML, leído a medida que se procesa. Permite procesar documentos
+     * con miles de ítems sin cargar antes el XML completo en memoria.
+     *
+     * @param xml XML a ser utilizado para la generación del Documento Electrónico, en UTF-8 o con la codificación
+     *            indicada en su declaración. No es cerrado.
+     * @throws SifenException Si el XML tiene un formato inválido o, si algún dato necesario para la generación del DE
+     *                        no pudo ser encontrado.
+     */
+    public DocumentoElectronico(InputStream xml) throws SifenException {
+        this.leerXml(ResponseUtil.createXMLStreamReader(xml));
+        this.obtenerCDC();
+    }
 
-        // Obtenemos el nodo principal
-        Node mainNode = xmlDocument.getElementsByTagName("DE").item(0);
+    /**
+     * Construye un Documento Electrónico con solo los campos o grupos de la proyección, leídos de un XML firmado. El
+     * resto del XML se descarta sin ser procesado, y la lectura finaliza en cuanto se encuentran todos los campos.
+     * <p>
+     * El CDC se obtiene del atributo Id del XML, sin calcularlo, por lo que está disponible con cualquier proyección
+     * (ver {@link #getId()}).
+     *
+     * @param xml        XML del Documento Electrónico.
+     * @param proyeccion Campos o grupos a leer.
+     * @throws SifenException Si el XML tiene un formato inválido, o si algún campo leído tiene un valor inválido.
+     */
+    public DocumentoElectronico(String xml, ProyeccionDE proyeccion) throws SifenException {
+        this.leerXml(ResponseUtil.createXMLStreamReader(new StringReader(xml)), proyeccion);
+    }
 
-        SifenObjectFactory.getFromNode(mainNode, this);
-        this.obtenerCDC();
+    /**
+     * Construye un Documento Electrónico con solo los campos o grupos de la proyección, leídos a medida que se procesa
+     * el XML.
+     *
+     * @param xml        XML del Documento Electrónico, en UTF-8 o con la codificación indicada en su declaración. No es
+     *                   cerrado, y puede no ser leído por completo.
+     * @param proyeccion Campos o grupos a leer.
+     * @throws SifenException Si el XML tiene un formato inválido, o si algún campo leído tiene un valor inválido.
+     * @see #DocumentoElectronico(String, ProyeccionDE)
+     */
+    public DocumentoElectronico(InputStream xml, ProyeccionDE proyeccion) throws SifenException {
+        this.leerXml(ResponseUtil.createXMLStreamReader(xml), proyeccion);
     }
 
     public DocumentoElectronico(String xml, String CDCrecibido) throws SifenException {
-        xml = xml.replaceAll(">[\\s\r\n]*<", "><");
+        this.leerXml(ResponseUtil.createXMLStreamReader(new StringReader(xml)));
+        this.obtenerCDC(CDCrecibido);
+    }
 
-        // Parseamos el xml
-        Document xmlDocument;
-        try {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            factory.setNamespaceAware(true);
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            xmlDocument = builder.parse(new InputSource(new StringReader(xml)));
-        } catch (ParserConfigurationException | IOException | SAXException e) {
-            throw SifenExceptionUtil.xmlParsingError("Se produjo un error al parsear el archivo XML. Formato incorrecto.");
+    /*
+     * Lee el elemento DE directamente del XML, sin construir el árbol DOM. Los elementos que no forman parte del DE
+     * (como la firma) se descartan sin ser procesados.
+     */
+    private void leerXml(XMLStreamReader reader) throws SifenException {
+        if (!ResponseUtil.nextElement(reader, "DE")) {
+            throw SifenExceptionUtil.xmlParsingError("Se produjo un error al parsear el archivo XML. No se encontró el elemento DE.");
         }
+        SifenObjectFactory.getFromStream(reader, this);
+    }
 
-        // Obtenemos el nodo principal
-        Node mainNode = xmlDocument.getElementsByTagName("DE").item(0);
-
-        SifenObjectFactory.getFromNode(mainNode, this);
-        this.obtenerCDC(CDCrecibido);
+    private void leerXml(XMLStreamReader reader, ProyeccionDE proyeccion) throws SifenException {
+        if (!ResponseUtil.nextElement(reader, "DE")) {
+            throw SifenExceptionUtil.xmlParsingError("Se produjo un error al parsear el archivo XML. No se encontró el elemento DE.");
+        }
+        this.Id = reader.getAttributeValue(null, "Id");
+        SifenObjectFactory.getFromStream(reader, this, proyeccion.getElementProjection());
     }
 
     /**
@@ -125,26 +159,26 @@ public class DocumentoElectronico extends SifenObjectBase {
      */
     public String obtenerCDC() throws SifenException {
         // Se intenta la generación del CDC
-        String CDC;
+        String cdc;
         try {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMdd");
-            CDC = SifenUtil.leftPad(String.valueOf(this.getgTimb().getiTiDE().getVal()), '0', 2) +
-                    this.getgDatGralOpe().getgEmis().getdRucEm() +
-                    this.getgDatGralOpe().getgEmis().getdDVEmi() +
-                    this.getgTimb().getdEst() +
-                    this.getgTimb().getdPunExp() +
-                    this.getgTimb().getdNumDoc() +
-                    this.getgDatGralOpe().getgEmis().getiTipCont().getVal() +
-                    this.getgDatGralOpe().getdFeEmiDE().format(formatter) +
-                    this.getgOpeDE().getiTipEmi().getVal() +
-                    this.getgOpeDE().getdCodSeg();
+            cdc = CDC.generar(
+                    this.getgTimb().getiTiDE(),
+                    this.getgDatGralOpe().getgEmis().getdRucEm(),
+                    this.getgDatGralOpe().getgEmis().getdDVEmi(),
+                    this.getgTimb().getdEst(),
+                    this.getgTimb().getdPunExp(),
+                    this.getgTimb().getdNumDoc(),
+                    this.getgDatGralOpe().getgEmis().getiTipCont(),
+                    this.getgDatGralOpe().getdFeEmiDE().toLocalDate(),
+                    this.getgOpeDE().getiTipEmi(),
+                    this.getgOpeDE().getdCodSeg());
         } catch (Exception e) {
             throw SifenExceptionUtil.fieldNotFound("Se produjo un error al generar el CDC. Verificar si todos los campos necesarios están presentes.");
         }
 
         // Se setean los valores generados en sus lugares correspondientes dentro de la clase
-        this.dDVId = SifenUtil.generateDv(CDC);
-        this.Id = CDC + this.dDVId;
+        this.dDVId = cdc.substring(cdc.length() - 1);
+        this.Id = cdc;
 
         return this.Id;
     }
@@ -157,6 +191,244 @@ public class DocumentoElectronico extends SifenObjectBase {
     }
 //            FIN CAMBIO
 
+    /**
+     * Calcula los montos de cada ítem y los totales del Documento Electrónico, sin generar ni firmar el XML. Los valores
+     * calculados quedan establecidos en los ítems y en {@link #getgTotSub()}, y son exactamente los que se emiten al
+     * generar el XML; si el DE no tiene un grupo de totales, se crea uno nuevo.
+     * <p>
+     * Siempre se vuelven a calcular todos los ítems, incluso si fueron agregados con {@link #agregarItem(TgCamItem)}.
+     *
+     * @return Totales calculados del Documento Electrónico, o <strong>null</strong> si es una Nota de Remisión, que no
+     * lleva totales.
+     * @throws SifenException Si alguno de los campos necesarios para el cálculo no se encuentra.
+     */
+    public TgTotSub calcularTotales() throws SifenException {
+        TTiDE iTiDE = this.validarDocumentoCalculo();
+        this.validarCamposCalculo(iTiDE);
+        this.calcularMontos(iTiDE, true);
+        return iTiDE.getVal() != 7 ? this.gTotSub : null;
+    }
+
+    /**
+     * Agrega un ítem al Documento Electrónico, calculando solo sus montos y sumándolos a los totales, sin volver a
+     * recorrer los demás ítems. Está pensado para documentos con muchos ítems que se arman de a uno, como en un punto
+     * de venta.
+     * <p>
+     * Una vez agregado un ítem con este método, los totales del DE se mantienen a medida que se agregan, quitan o
+     * modifican ítems con {@link #agregarItem(TgCamItem)}, {@link #quitarItem(TgCamItem)} y
+     * {@link #actualizarItem(TgCamItem)}, y la generación del XML los utiliza sin volver a calcular todos los ítems. Por
+     * eso, un ítem modificado se debe informar con {@link #actualizarItem(TgCamItem)}. Si la lista de ítems, el tipo de
+     * documento o los datos de la operación comercial cambian por otro medio, los totales se vuelven a calcular por
+     * completo.
+     *
+     * @param gCamItem Ítem a agregar.
+     * @throws SifenException           Si alguno de los campos necesarios para el cálculo no se encuentra.
+     * @throws IllegalArgumentException Si el ítem ya forma parte del DE.
+     */
+    public void agregarItem(TgCamItem gCamItem) throws SifenException {
+        TTiDE iTiDE = this.validarDocumentoCalculo();
+        if (this.gDtipDE.getgCamItemList() == null)
+            this.gDtipDE.setgCamItemList(new ArrayList<>());
+        List<TgCamItem> items = this.gDtipDE.getgCamItemList();
+        if (indiceItem(items, gCamItem) >= 0) {
+            throw new IllegalArgumentException("El ítem ya forma parte del Documento Electrónico.");
+        }
+
+        AcumuladorTotales acumulador = this.acumuladorTotales(iTiDE);
+        this.validarItemCalculo(iTiDE, gCamItem, items.size() + 1);
+        items.add(gCamItem);
+        if (acumulador != null)
+            acumulador.agregarItem(gCamItem);
+    }
+
+    /**
+     * Quita un ítem del Documento Electrónico, restando sus montos de los totales (ver {@link #agregarItem(TgCamItem)}).
+     *
+     * @param gCamItem Ítem a quitar.
+     * @return <strong>true</strong> si el ítem formaba parte del DE.
+     * @throws SifenException Si alguno de los campos necesarios para el cálculo no se encuentra.
+     */
+    public boolean quitarItem(TgCamItem gCamItem) throws SifenException {
+        TTiDE iTiDE = this.validarDocumentoCalculo();
+        List<TgCamItem> items = this.gDtipDE.getgCamItemList();
+        int indice = indiceItem(items, gCamItem);
+        if (indice < 0) {
+            return false;
+        }
+
+        AcumuladorTotales acumulador = this.acumuladorTotales(iTiDE);
+        items.remove(indice);
+        if (acumulador != null)
+            acumulador.quitarItem(gCamItem);
+        return true;
+    }
+
+    /**
+     * Vuelve a calcular los montos de un ítem modificado, y reemplaza en los totales los montos anteriores por los
+     * nuevos (ver {@link #agregarItem(TgCamItem)}).
+     *
+     * @param gCamItem Ítem modificado.
+     * @throws SifenException           Si alguno de los campos necesarios para el cálculo no se encuentra.
+     * @throws IllegalArgumentException Si el ítem no forma parte del DE.
+     */
+    public void actualizarItem(TgCamItem gCamItem) throws SifenException {
+        TTiDE iTiDE = this.validarDocumentoCalculo();
+        List<TgCamItem> items = this.gDtipDE.getgCamItemList();
+        int indice = indiceItem(items, gCamItem);
+        if (indice < 0) {
+            throw new IllegalArgumentException("El ítem no forma parte del Documento Electrónico.");
+        }
+
+        this.validarItemCalculo(iTiDE, gCamItem, indice + 1);
+        AcumuladorTotales acumulador = this.acumuladorTotales(iTiDE);
+        if (acumulador != null)
+            acumulador.actualizarItem(gCamItem);
+    }
+
+    /*
+     * Devuelve el acumulador de los totales, que se vuelve a armar si ya no corresponde al documento. Las Notas de
+     * Remisión no llevan totales, por lo que no tienen acumulador.
+     */
+    private AcumuladorTotales acumuladorTotales(TTiDE iTiDE) throws SifenException {
+        if (iTiDE.getVal() == 7)
+            return null;
+
+        TgOpeCom gOpeCom = this.gDatGralOpe.getgOpeCom();
+        List<TgCamItem> items = this.gDtipDE.getgCamItemList();
+        if (this.acumuladorTotales == null || !this.acumuladorTotales.correspondeA(iTiDE, gOpeCom, items)) {
+            this.validarCamposCalculo(iTiDE);
+            AcumuladorTotales acumulador = new AcumuladorTotales(iTiDE, gOpeCom);
+            for (TgCamItem gCamItem : items) {
+                acumulador.agregarItem(gCamItem);
+            }
+            this.acumuladorTotales = acumulador;
+        }
+        return this.acumuladorTotales;
+    }
+
+    private static int indiceItem(List<TgCamItem> items, TgCamItem gCamItem) {
+        if (items != null) {
+            for (int i = 0; i < items.size(); i++) {
+                if (items.get(i) == gCamItem)
+                    return i;
+            }
+        }
+        return -1;
+    }
+
+    /*
+     * Verifica que estén presentes los grupos del documento que utiliza el cálculo, y devuelve el tipo de documento.
+     */
+    private TTiDE validarDocumentoCalculo() throws SifenException {
+        if (this.gTimb == null || this.gTimb.getiTiDE() == null || this.gDatGralOpe == null || this.gDtipDE == null) {
+            throw SifenExceptionUtil.fieldNotFound("Se produjo un error al calcular los totales. Verificar si el timbrado, los datos generales de la operación y los ítems están presentes.");
+        }
+        return this.gTimb.getiTiDE();
+    }
+
+    /*
+     * Verifica que estén presentes todos los campos que utiliza el cálculo de los montos de los ítems y de los totales.
+     */
+    private void validarCamposCalculo(TTiDE iTiDE) throws SifenException {
+        List<TgCamItem> items = this.gDtipDE.getgCamItemList();
+        if (items == null) {
+            throw SifenExceptionUtil.fieldNotFound("Se produjo un error al calcular los totales. Verificar si el timbrado, los datos generales de la operación y los ítems están presentes.");
+        }
+
+        this.validarOperacionCalculo(iTiDE);
+        for (int i = 0; i < items.size(); i++) {
+            this.validarItemCalculo(iTiDE, items.get(i), i + 1);
+        }
+    }
+
+    private void validarOperacionCalculo(TTiDE iTiDE) throws SifenException {
+        if (iTiDE.getVal() == 7)
+            return;
+
+        TgOpeCom gOpeCom = this.gDatGralOpe.getgOpeCom();
+        if (gOpeCom == null || gOpeCom.getcMoneOpe() == null)
+            throw faltaCampoCalculo("los campos de la operación comercial (gOpeCom) y la moneda (cMoneOpe)");
+
+        if (iTiDE.getVal() != 4 && gOpeCom.getiTImp() == null)
+            throw faltaCampoCalculo("el tipo de impuesto afectado (iTImp)");
+
+        TdCondTiCam dCondTiCam = gOpeCom.getdCondTiCam();
+        if (gOpeCom.getcMoneOpe() != CMondT.PYG) {
+            if (dCondTiCam == null)
+                throw faltaCampoCalculo("la condición del tipo de cambio (dCondTiCam)");
+            if (dCondTiCam.getVal() == 1 && gOpeCom.getdTiCam() == null)
+                throw faltaCampoCalculo("el tipo de cambio de la operación (dTiCam)");
+        }
+    }
+
+    private void validarItemCalculo(TTiDE iTiDE, TgCamItem gCamItem, int numero) throws SifenException {
+        if (iTiDE.getVal() == 7)
+            return;
+
+        this.validarOperacionCalculo(iTiDE);
+        TgOpeCom gOpeCom = this.gDatGralOpe.getgOpeCom();
+        TTImp iTImp = gOpeCom.getiTImp();
+        TdCondTiCam dCondTiCam = gOpeCom.getdCondTiCam();
+
+        // Con estos impuestos (y en la Autofactura) el total de la operación de cada ítem se calcula
+        boolean calculaTotOpeItem = iTiDE.getVal() == 4 || iTImp.getVal() == 1 || iTImp.getVal() == 3
+                || iTImp.getVal() == 4 || iTImp.getVal() == 5;
+        boolean tieneIVA = calculaTotOpeItem && iTiDE.getVal() != 4;
+
+        String item = " del ítem " + numero;
+        if (gCamItem == null || gCamItem.getdCantProSer() == null)
+            throw faltaCampoCalculo("la cantidad (dCantProSer)" + item);
+
+        TgValorItem gValorItem = gCamItem.getgValorItem();
+        if (gValorItem == null || gValorItem.getdPUniProSer() == null)
+            throw faltaCampoCalculo("el precio unitario (dPUniProSer)" + item);
+        if (dCondTiCam != null && dCondTiCam.getVal() == 2 && gValorItem.getdTiCamIt() == null)
+            throw faltaCampoCalculo("el tipo de cambio (dTiCamIt)" + item);
+
+        TgValorRestaItem gValorRestaItem = gValorItem.getgValorRestaItem();
+        if (gValorRestaItem == null || gValorRestaItem.getdDescItem() == null)
+            throw faltaCampoCalculo("el descuento (dDescItem)" + item);
+        if (!calculaTotOpeItem && gValorRestaItem.getdTotOpeItem() == null)
+            throw faltaCampoCalculo("el valor total de la operación (dTotOpeItem)" + item);
+
+        if (tieneIVA) {
+            TgCamIVA gCamIVA = gCamItem.getgCamIVA();
+            if (gCamIVA == null || gCamIVA.getiAfecIVA() == null || gCamIVA.getdPropIVA() == null
+                    || gCamIVA.getdTasaIVA() == null)
+                throw faltaCampoCalculo("los campos del IVA (iAfecIVA, dPropIVA y dTasaIVA)" + item);
+            int iAfecIVA = gCamIVA.getiAfecIVA().getVal();
+            if ((iAfecIVA == 1 || iAfecIVA == 4) && !gCamIVA.getdTasaIVA().equals(BigDecimal.TEN)
+                    && !gCamIVA.getdTasaIVA().equals(BigDecimal.valueOf(5)))
+                throw SifenExceptionUtil.fieldNotFound("Se produjo un error al calcular los totales. La tasa del IVA (dTasaIVA)"
+                        + item + " debe ser 5 o 10.");
+        }
+    }
+
+    private static SifenException faltaCampoCalculo(String campo) {
+        return SifenExceptionUtil.fieldNotFound("Se produjo un error al calcular los totales. Falta " + campo + ".");
+    }
+
+    /*
+     * Calcula los montos de los ítems y los totales; si el DE no tiene un grupo de totales, se crea uno nuevo. Si los
+     * ítems se agregaron con agregarItem, los totales se toman del acumulador, que solo se vuelve a armar si se pide
+     * recalcular los ítems o si ya no corresponde al documento.
+     */
+    private void calcularMontos(TTiDE iTiDE, boolean recalcularItems) throws SifenException {
+        if (iTiDE.getVal() != 7 && this.gTotSub == null)
+            this.gTotSub = new TgTotSub();
+
+        if (this.acumuladorTotales == null || iTiDE.getVal() == 7) {
+            this.gDtipDE.calcularMontos(iTiDE, this.gDatGralOpe);
+            if (iTiDE.getVal() != 7)
+                this.gTotSub.calcularMontos(iTiDE, this.gDtipDE, this.gDatGralOpe.getgOpeCom());
+            return;
+        }
+
+        if (recalcularItems)
+            this.acumuladorTotales = null;
+        this.gTotSub.calcularMontos(this.acumuladorTotales(iTiDE));
+    }
+
     /**
      * Genera un XML completo en base al Documento Electrónico actual.
      *
@@ -181,6 +453,12 @@ public class DocumentoElectronico extends SifenObjectBase {
             throw SifenExceptionUtil.invalidConfiguration("Falta establecer la configuración del Sifen.");
         }
 
+        if (sifenConfig.isXmlGeneracionStreaming()) {
+            ByteArrayOutputStream xml = new ByteArrayOutputStream(16 * 1024);
+            this.generarXml(generationCtx, xml, sifenConfig);
+            return ResponseUtil.removeSpacesBetweenTags(new String(xml.toByteArray(), StandardCharsets.UTF_8));
+        }
+
         String xml = null;
         try {
             SOAPMessage message = this.setupSOAPElements(generationCtx, 1, sifenConfig);
@@ -193,6 +471,29 @@ public class DocumentoElectronico extends SifenObjectBase {
         return xml;
     }
 
+    /**
+     * Genera un XML completo en base al Documento Electrónico actual, escribiéndolo directamente en el flujo de salida
+     * especificado, sin construir el árbol DOM del documento. El XML generado es idéntico al que se envía a Sifen en la
+     * recepción del DE.
+     *
+     * @param salida      Flujo de salida en el que se escribe el XML, codificado en UTF-8. No es cerrado.
+     * @param sifenConfig Configuración de Sifen a ser utilizada para la generación del XML.
+     * @throws SifenException Si la configuración de Sifen no fue establecida o, si algún dato necesario para la
+     *                        generación del XML no pudo ser encontrado o, si la firma digital del DE o la escritura
+     *                        en el flujo de salida fallan.
+     */
+    public void generarXml(GenerationCtx generationCtx, OutputStream salida, SifenConfig sifenConfig) throws SifenException {
+        if (sifenConfig == null) {
+            throw SifenExceptionUtil.invalidConfiguration("Falta establecer la configuración del Sifen.");
+        }
+
+        try {
+            this.writeSOAPMessage(generationCtx, 1, sifenConfig, salida);
+        } catch (SOAPException | IOException e) {
+            throw SifenExceptionUtil.requestPreparationError("Se produjo un error al generar el XML.", e);
+        }
+    }
+
     /**
      * Genera un XML completo en base al Documento Electrónico actual, y lo guarda como archivo en la ruta definida.
      *
@@ -246,16 +547,33 @@ public class DocumentoElectronico extends SifenObjectBase {
      */
     public SOAPMessage setupSOAPElements(GenerationCtx generationCtx, long dId, SifenConfig sifenConfig) throws SOAPException, SifenException {
         SOAPMessage message = SoapHelper.createSoapMessage();
-        SOAPBody soapBody = message.getSOAPBody();
+        this.setupREnviDe(generationCtx, DomXmlElement.of(message.getSOAPBody()), dId, sifenConfig);
+        return message;
+    }
+
+    /**
+     * Método interno, no usar.
+     *
+     * @param dId          -
+     * @param sifenConfig  -
+     * @param outputStream -
+     * @throws SOAPException  -
+     * @throws SifenException -
+     * @throws IOException    -
+     */
+    public void writeSOAPMessage(GenerationCtx generationCtx, long dId, SifenConfig sifenConfig, OutputStream outputStream) throws SOAPException, SifenException, IOException {
+        StreamingXmlWriter writer = new StreamingXmlWriter(outputStream);
+        this.setupREnviDe(generationCtx, SoapHelper.startSoapMessage(writer), dId, sifenConfig);
+        writer.finish();
+    }
 
+    private void setupREnviDe(GenerationCtx generationCtx, XmlElement soapBody, long dId, SifenConfig sifenConfig) throws SOAPException, SifenException {
         // Main Element
-        SOAPBodyElement rResEnviDe = soapBody.addBodyElement(new QName(Constants.SIFEN_NS_URI, "rEnviDe"));
+        XmlElement rResEnviDe = soapBody.addChildElement(new QName(Constants.SIFEN_NS_URI, "rEnviDe"));
         rResEnviDe.addChildElement("dId").setTextContent(String.valueOf(dId));
 
-        SOAPElement xDE = rResEnviDe.addChildElement("xDE");
+        XmlElement xDE = rResEnviDe.addChildElement("xDE");
         this.setupDE(generationCtx, xDE, sifenConfig);
-
-        return message;
     }
 
     /**
@@ -269,9 +587,22 @@ public class DocumentoElectronico extends SifenObjectBase {
 //    INICIO CAMBIO AM
 //    se realizo un overload del metodo  setupDE para que reciba receivedCDC
     public void setupDE(GenerationCtx generationCtx, SOAPElement parentNode, SifenConfig sifenConfig, String receivedCDC) throws SOAPException, SifenException {
+        this.setupDE(generationCtx, DomXmlElement.of(parentNode), sifenConfig, receivedCDC);
+    }
+
+    /**
+     * Método interno, no usar.
+     *
+     * @param parentNode  -
+     * @param sifenConfig -
+     * @param receivedCDC -
+     * @throws SOAPException  -
+     * @throws SifenException -
+     */
+    public void setupDE(GenerationCtx generationCtx, XmlElement parentNode, SifenConfig sifenConfig, String receivedCDC) throws SOAPException, SifenException {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
 
-        SOAPElement rDE = parentNode.addChildElement(new QName(Constants.SIFEN_NS_URI, "rDE"));
+        XmlElement rDE = parentNode.addChildElement(new QName(Constants.SIFEN_NS_URI, "rDE"));
 
         rDE.addNamespaceDeclaration("xsi", "http://www.w3.org/2001/XMLSchema-instance");
         rDE.setAttributeNS("http://www.w3.org/2001/XMLSchema-instance", "xsi:schemaLocation", Constants.SIFEN_NS_URI_RECEP_DE);
@@ -279,10 +610,9 @@ public class DocumentoElectronico extends SifenObjectBase {
 
         this.obtenerCDC(receivedCDC);
 
-        SOAPElement DE = rDE.addChildElement("DE");
+        XmlElement DE = rDE.addChildElement("DE");
         DE.setAttribute("Id", this.getId());
-        Attr idAttribute = DE.getAttributeNode("Id");
-        DE.setIdAttributeNode(idAttribute, true);
+        DE.setIdAttribute("Id");
 
         DE.addChildElement("dDVId").setTextContent(this.getdDVId());
         DE.addChildElement("dFecFirma").setTextContent(this.getdFecFirma().format(formatter));
@@ -294,10 +624,13 @@ public class DocumentoElectronico extends SifenObjectBase {
         this.gOpeDE.setupSOAPElements(DE, iTiDE);
         this.gTimb.setupSOAPElements(DE);
         this.gDatGralOpe.setupSOAPElements(DE, iTiDE);
+
+        // Los montos se calculan una sola vez, antes de emitir los ítems y los totales
+        this.calcularMontos(iTiDE, false);
         this.gDtipDE.setupSOAPElements(generationCtx, DE, iTiDE, this.gDatGralOpe);
 
         if (iTiDE.getVal() != 7)
-            this.gTotSub.setupSOAPElements(DE, iTiDE, this.getgDtipDE(), this.gDatGralOpe.getgOpeCom());
+            this.gTotSub.setupSOAPElements(DE, iTiDE, this.gDatGralOpe.getgOpeCom());
 
         if (this.gCamGen != null)
             this.gCamGen.setupSOAPElements(DE, iTiDE);
@@ -319,11 +652,11 @@ public class DocumentoElectronico extends SifenObjectBase {
         }
 
         // Firma Digital del XML
-        SignedInfo signedInfo = SignatureHelper.signDocument(sifenConfig, rDE, this.getId());
+        SignedInfo signedInfo = rDE.signEnveloped(sifenConfig, this.getId());
 
         // Preparación de la URL del QR
         this.enlaceQR = this.generateQRLink(signedInfo, sifenConfig);
-        SOAPElement gCamFuFD = rDE.addChildElement("gCamFuFD");
+        XmlElement gCamFuFD = rDE.addChildElement("gCamFuFD");
         gCamFuFD.addChildElement("dCarQR").setTextContent(this.enlaceQR);
     }
 
@@ -332,6 +665,10 @@ public class DocumentoElectronico extends SifenObjectBase {
         this.setupDE(generationCtx, parentNode, sifenConfig, this.obtenerCDC());
     }
 
+    public void setupDE(GenerationCtx generationCtx, XmlElement parentNode, SifenConfig sifenConfig) throws SOAPException, SifenException {
+        this.setupDE(generationCtx, parentNode, sifenConfig, this.obtenerCDC());
+    }
+
     /**
      * Método interno, no usar.
      *
@@ -339,7 +676,7 @@ public class DocumentoElectronico extends SifenObjectBase {
      * @throws SifenException -
      */
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         switch (value.getLocalName()) {
             case "dDVId":
                 this.dDVId = ResponseUtil.getTextValue(value);
@@ -0,0 +1,60 @@
+package com.roshka.sifen.core.beans;
+
+import com.roshka.sifen.core.beans.response.RespuestaRecepcionLoteDE;
+
+/**
+ * Clase que representa el resultado del envío de un Documento Electrónico como parte de un lote, agrupado
+ * automáticamente por {@link com.roshka.sifen.LoteBatcher}.
+ */
+public class DocumentoEnLote {
+    private final String CDC;
+    private final int posicion;
+    private final int cantidadDocumentos;
+    private final RespuestaRecepcionLoteDE respuesta;
+
+    /**
+     * Método interno, no usar.
+     */
+    public DocumentoEnLote(String CDC, int posicion, int cantidadDocumentos, RespuestaRecepcionLoteDE respuesta) {
+        this.CDC = CDC;
+        this.posicion = posicion;
+        this.cantidadDocumentos = cantidadDocumentos;
+        this.respuesta = respuesta;
+    }
+
+    /**
+     * @return CDC del Documento Electrónico enviado.
+     */
+    public String getCDC() {
+        return CDC;
+    }
+
+    /**
+     * @return Posición del Documento Electrónico dentro del lote, comenzando desde 0.
+     */
+    public int getPosicion() {
+        return posicion;
+    }
+
+    /**
+     * @return Cantidad de Documentos Electrónicos enviados en el lote.
+     */
+    public int getCantidadDocumentos() {
+        return cantidadDocumentos;
+    }
+
+    /**
+     * @return Número de protocolo del lote, a utilizar en la consulta del mismo, o <strong>null</strong> si el lote no
+     * fue recibido por Sifen (ver {@link RespuestaRecepcionLoteDE#getdCodRes()}).
+     */
+    public String getdProtConsLote() {
+        return respuesta.getdProtConsLote();
+    }
+
+    /**
+     * @return La respuesta de Sifen a la recepción del lote, compartida por todos sus documentos.
+     */
+    public RespuestaRecepcionLoteDE getRespuesta() {
+        return respuesta;
+    }
+}
@@ -0,0 +1,125 @@
+package com.roshka.sifen.core.beans;
+
+import com.roshka.sifen.internal.util.CodeTable;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Clase que representa el último estado registrado del envío de un Documento Electrónico en el journal de envíos
+ * ({@link com.roshka.sifen.OutboxJournal}).
+ */
+public class EnvioRegistrado {
+    private final String CDC;
+    private final Estado estado;
+    private final String detalle;
+    private final long marcaTiempo;
+    private final String xmlFirmado;
+
+    /**
+     * Estados del envío de un Documento Electrónico.
+     */
+    public enum Estado {
+        /**
+         * El DE fue generado y firmado, pero aún no fue enviado.
+         */
+        FIRMADO((byte) 1),
+        /**
+         * El DE fue enviado, pero aún no se conoce su resultado.
+         */
+        ENVIADO((byte) 2),
+        /**
+         * El DE fue enviado en un lote, aún no procesado. El detalle contiene el número de protocolo del lote.
+         */
+        LOTE_PENDIENTE((byte) 3),
+        /**
+         * El DE fue aprobado por Sifen.
+         */
+        APROBADO((byte) 4),
+        /**
+         * El DE fue rechazado por Sifen.
+         */
+        RECHAZADO((byte) 5);
+
+        private final byte val;
+
+        Estado(byte val) {
+            this.val = val;
+        }
+
+        /**
+         * @return Si el estado es definitivo, es decir, si el envío ya no requiere seguimiento.
+         */
+        public boolean isFinal() {
+            return this == APROBADO || this == RECHAZADO;
+        }
+
+        private final static CodeTable<Estado> byVal = new CodeTable<>(values(), e -> e.val);
+
+        public static Estado getByVal(byte val) {
+            return byVal.get(val);
+        }
+
+        public byte getVal() {
+            return val;
+        }
+    }
+
+    /**
+     * Método interno, no usar.
+     */
+    public EnvioRegistrado(String CDC, Estado estado, String detalle, long marcaTiempo, String xmlFirmado) {
+        this.CDC = CDC;
+        this.estado = estado;
+        this.detalle = detalle;
+        this.marcaTiempo = marcaTiempo;
+        this.xmlFirmado = xmlFirmado;
+    }
+
+    /**
+     * @return CDC del Documento Electrónico.
+     */
+    public String getCDC() {
+        return CDC;
+    }
+
+    /**
+     * @return Último estado registrado del envío.
+     */
+    public Estado getEstado() {
+        return estado;
+    }
+
+    /**
+     * @return Detalle del último estado: el número de protocolo del lote, o el código y el mensaje de la respuesta de
+     * Sifen, según el estado. Puede ser <strong>null</strong>.
+     */
+    public String getDetalle() {
+        return detalle;
+    }
+
+    /**
+     * @return Fecha y hora en que se registró el último estado.
+     */
+    public LocalDateTime getFechaRegistro() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(marcaTiempo), ZoneId.systemDefault());
+    }
+
+    /**
+     * @return XML firmado (elemento rDE) del Documento Electrónico, o <strong>null</strong> si no fue registrado.
+     */
+    public String getXmlFirmado() {
+        return xmlFirmado;
+    }
+
+    @Override
+    public String toString() {
+        return "EnvioRegistrado{" +
+                "CDC='" + CDC + '\'' +
+                ", estado=" + estado +
+                ", detalle='" + detalle + '\'' +
+                ", fechaRegistro=" + getFechaRegistro() +
+                '}';
+    }
+}
@@ -0,0 +1,64 @@
+package com.roshka.sifen.core.beans;
+
+/**
+ * Clase que representa un error encontrado al validar un XML contra los esquemas (XSD) de Sifen.
+ */
+public class ErrorEsquema {
+    private final String campo;
+    private final String ruta;
+    private final int linea;
+    private final int columna;
+    private final String mensaje;
+
+    /**
+     * Método interno, no usar.
+     */
+    public ErrorEsquema(String campo, String ruta, int linea, int columna, String mensaje) {
+        this.campo = campo;
+        this.ruta = ruta;
+        this.linea = linea;
+        this.columna = columna;
+        this.mensaje = mensaje;
+    }
+
+    /**
+     * @return Nombre del elemento en el que se encontró el error (por ejemplo, <i>dRucEm</i>), o <strong>null</strong>
+     * si el error no corresponde a un elemento.
+     */
+    public String getCampo() {
+        return campo;
+    }
+
+    /**
+     * @return Ruta del elemento desde la raíz del documento validado (por ejemplo, <i>rDE/DE/gDatGralOpe/gEmis/dRucEm</i>).
+     */
+    public String getRuta() {
+        return ruta;
+    }
+
+    /**
+     * @return Línea del XML en la que se encontró el error, o -1 si no se conoce.
+     */
+    public int getLinea() {
+        return linea;
+    }
+
+    /**
+     * @return Columna del XML en la que se encontró el error, o -1 si no se conoce.
+     */
+    public int getColumna() {
+        return columna;
+    }
+
+    /**
+     * @return Descripción del error, tal como la informa el validador de esquemas.
+     */
+    public String getMensaje() {
+        return mensaje;
+    }
+
+    @Override
+    public String toString() {
+        return (ruta != null ? ruta : "") + " (" + linea + ":" + columna + "): " + mensaje;
+    }
+}
@@ -0,0 +1,99 @@
+package com.roshka.sifen.core.beans;
+
+/**
+ * Clase que representa una fotografía del estado de la caché de consultas de RUC de un cliente de Sifen.
+ */
+public class EstadisticasCacheRUC {
+    private final int entradas;
+    private final long aciertos;
+    private final long aciertosNegativos;
+    private final long fallos;
+    private final long consultasCompartidas;
+    private final long expiraciones;
+    private final long desalojos;
+
+    /**
+     * Método interno, no usar.
+     */
+    public EstadisticasCacheRUC(int entradas, long aciertos, long aciertosNegativos, long fallos,
+                                long consultasCompartidas, long expiraciones, long desalojos) {
+        this.entradas = entradas;
+        this.aciertos = aciertos;
+        this.aciertosNegativos = aciertosNegativos;
+        this.fallos = fallos;
+        this.consultasCompartidas = consultasCompartidas;
+        this.expiraciones = expiraciones;
+        this.desalojos = desalojos;
+    }
+
+    /**
+     * @return Cantidad de RUCs cuya consulta se encuentra en la caché.
+     */
+    public int getEntradas() {
+        return entradas;
+    }
+
+    /**
+     * @return Cantidad total de consultas respondidas desde la caché, incluyendo las de RUCs inexistentes.
+     */
+    public long getAciertos() {
+        return aciertos;
+    }
+
+    /**
+     * @return Cantidad total de consultas de RUCs inexistentes respondidas desde la caché.
+     */
+    public long getAciertosNegativos() {
+        return aciertosNegativos;
+    }
+
+    /**
+     * @return Cantidad total de consultas que no se encontraron en la caché.
+     */
+    public long getFallos() {
+        return fallos;
+    }
+
+    /**
+     * @return Cantidad total de consultas que no se encontraron en la caché, pero que esperaron el resultado de otra
+     * consulta en curso del mismo RUC, en lugar de realizar su propia petición a Sifen.
+     */
+    public long getConsultasCompartidas() {
+        return consultasCompartidas;
+    }
+
+    /**
+     * @return Cantidad total de consultas descartadas por haber superado su tiempo de vida.
+     */
+    public long getExpiraciones() {
+        return expiraciones;
+    }
+
+    /**
+     * @return Cantidad total de consultas descartadas por haberse alcanzado el tamaño máximo de la caché.
+     */
+    public long getDesalojos() {
+        return desalojos;
+    }
+
+    /**
+     * @return Proporción, entre 0 y 1, de las consultas respondidas desde la caché.
+     */
+    public double getTasaAciertos() {
+        long total = aciertos + fallos;
+        return total > 0 ? (double) aciertos / total : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "EstadisticasCacheRUC{" +
+                "entradas=" + entradas +
+                ", aciertos=" + aciertos +
+                ", aciertosNegativos=" + aciertosNegativos +
+                ", fallos=" + fallos +
+                ", consultasCompartidas=" + consultasCompartidas +
+                ", expiraciones=" + expiraciones +
+                ", desalojos=" + desalojos +
+                '}';
+    }
+}
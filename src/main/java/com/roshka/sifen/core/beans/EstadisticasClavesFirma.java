@@ -0,0 +1,49 @@
+package com.roshka.sifen.core.beans;
+
+/**
+ * Clase que representa una fotografía del estado de la caché de claves utilizadas para la firma digital.
+ */
+public class EstadisticasClavesFirma {
+    private final int certificados;
+    private final long cargas;
+    private final long aciertos;
+
+    /**
+     * Método interno, no usar.
+     */
+    public EstadisticasClavesFirma(int certificados, long cargas, long aciertos) {
+        this.certificados = certificados;
+        this.cargas = cargas;
+        this.aciertos = aciertos;
+    }
+
+    /**
+     * @return Cantidad de certificados cuyas claves se encuentran en la caché.
+     */
+    public int getCertificados() {
+        return certificados;
+    }
+
+    /**
+     * @return Cantidad total de veces que se cargó (y descifró) un certificado desde su archivo o desde Base64.
+     */
+    public long getCargas() {
+        return cargas;
+    }
+
+    /**
+     * @return Cantidad total de firmas que reutilizaron las claves de la caché.
+     */
+    public long getAciertos() {
+        return aciertos;
+    }
+
+    @Override
+    public String toString() {
+        return "EstadisticasClavesFirma{" +
+                "certificados=" + certificados +
+                ", cargas=" + cargas +
+                ", aciertos=" + aciertos +
+                '}';
+    }
+}
@@ -0,0 +1,90 @@
+package com.roshka.sifen.core.beans;
+
+/**
+ * Clase que representa una fotografía del estado del pool de conexiones HTTP utilizado para comunicarse con Sifen.
+ */
+public class EstadisticasConexiones {
+    private final int rutas;
+    private final int conexionesEnUso;
+    private final int conexionesInactivas;
+    private final long conexionesCreadas;
+    private final long conexionesReutilizadas;
+    private final long conexionesDescartadas;
+    private final long sesionesTLSReanudadas;
+
+    /**
+     * Método interno, no usar.
+     */
+    public EstadisticasConexiones(int rutas, int conexionesEnUso, int conexionesInactivas, long conexionesCreadas,
+                                  long conexionesReutilizadas, long conexionesDescartadas, long sesionesTLSReanudadas) {
+        this.rutas = rutas;
+        this.conexionesEnUso = conexionesEnUso;
+        this.conexionesInactivas = conexionesInactivas;
+        this.conexionesCreadas = conexionesCreadas;
+        this.conexionesReutilizadas = conexionesReutilizadas;
+        this.conexionesDescartadas = conexionesDescartadas;
+        this.sesionesTLSReanudadas = sesionesTLSReanudadas;
+    }
+
+    /**
+     * @return Cantidad de destinos (esquema, host y puerto) para los que el pool mantiene conexiones.
+     */
+    public int getRutas() {
+        return rutas;
+    }
+
+    /**
+     * @return Cantidad de conexiones prestadas actualmente a alguna petición.
+     */
+    public int getConexionesEnUso() {
+        return conexionesEnUso;
+    }
+
+    /**
+     * @return Cantidad de conexiones abiertas que esperan ser reutilizadas.
+     */
+    public int getConexionesInactivas() {
+        return conexionesInactivas;
+    }
+
+    /**
+     * @return Cantidad total de conexiones TCP (y handshakes TLS) realizados desde la creación del pool.
+     */
+    public long getConexionesCreadas() {
+        return conexionesCreadas;
+    }
+
+    /**
+     * @return Cantidad total de peticiones que reutilizaron una conexión ya abierta.
+     */
+    public long getConexionesReutilizadas() {
+        return conexionesReutilizadas;
+    }
+
+    /**
+     * @return Cantidad total de conexiones cerradas por inactividad, por error o por indicación del servidor.
+     */
+    public long getConexionesDescartadas() {
+        return conexionesDescartadas;
+    }
+
+    /**
+     * @return Cantidad total de conexiones nuevas cuyo handshake TLS reanudó una sesión previa.
+     */
+    public long getSesionesTLSReanudadas() {
+        return sesionesTLSReanudadas;
+    }
+
+    @Override
+    public String toString() {
+        return "EstadisticasConexiones{" +
+                "rutas=" + rutas +
+                ", conexionesEnUso=" + conexionesEnUso +
+                ", conexionesInactivas=" + conexionesInactivas +
+                ", conexionesCreadas=" + conexionesCreadas +
+                ", conexionesReutilizadas=" + conexionesReutilizadas +
+                ", conexionesDescartadas=" + conexionesDescartadas +
+                ", sesionesTLSReanudadas=" + sesionesTLSReanudadas +
+                '}';
+    }
+}
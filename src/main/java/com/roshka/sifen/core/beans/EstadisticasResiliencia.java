@@ -0,0 +1,101 @@
+package com.roshka.sifen.core.beans;
+
+/**
+ * Clase que representa una fotografía del estado de los reintentos y del circuito de un cliente de Sifen.
+ * <p>
+ * El circuito se abre tras una cantidad de fallas consecutivas de Sifen, y mientras está abierto las peticiones se
+ * rechazan de inmediato, sin esperar a que se agote el tiempo de conexión o de lectura. Finalizado el tiempo de
+ * apertura, el circuito queda semiabierto: se deja pasar una única petición de prueba, que lo cierra si tiene éxito, o
+ * lo vuelve a abrir si falla.
+ */
+public class EstadisticasResiliencia {
+    /**
+     * Enum con los estados del circuito.
+     */
+    public enum EstadoCircuito {CERRADO, ABIERTO, SEMIABIERTO}
+
+    private final EstadoCircuito estadoCircuito;
+    private final long reintentos;
+    private final long fallas;
+    private final long peticionesRechazadas;
+    private final long aperturas;
+    private final long semiaperturas;
+    private final long cierres;
+
+    /**
+     * Método interno, no usar.
+     */
+    public EstadisticasResiliencia(EstadoCircuito estadoCircuito, long reintentos, long fallas,
+                                   long peticionesRechazadas, long aperturas, long semiaperturas, long cierres) {
+        this.estadoCircuito = estadoCircuito;
+        this.reintentos = reintentos;
+        this.fallas = fallas;
+        this.peticionesRechazadas = peticionesRechazadas;
+        this.aperturas = aperturas;
+        this.semiaperturas = semiaperturas;
+        this.cierres = cierres;
+    }
+
+    /**
+     * @return Estado actual del circuito.
+     */
+    public EstadoCircuito getEstadoCircuito() {
+        return estadoCircuito;
+    }
+
+    /**
+     * @return Cantidad total de reintentos realizados, sin contar el primer intento de cada petición.
+     */
+    public long getReintentos() {
+        return reintentos;
+    }
+
+    /**
+     * @return Cantidad total de intentos fallidos: conexiones fallidas, respuestas no recibidas y respuestas de Sifen no
+     * disponible (estados HTTP 502, 503 y 504).
+     */
+    public long getFallas() {
+        return fallas;
+    }
+
+    /**
+     * @return Cantidad total de peticiones rechazadas sin ser enviadas, por encontrarse abierto el circuito.
+     */
+    public long getPeticionesRechazadas() {
+        return peticionesRechazadas;
+    }
+
+    /**
+     * @return Cantidad de veces que el circuito pasó a estar abierto.
+     */
+    public long getAperturas() {
+        return aperturas;
+    }
+
+    /**
+     * @return Cantidad de veces que el circuito pasó de abierto a semiabierto, para enviar una petición de prueba.
+     */
+    public long getSemiaperturas() {
+        return semiaperturas;
+    }
+
+    /**
+     * @return Cantidad de veces que el circuito volvió a cerrarse, tras una petición de prueba exitosa.
+     */
+    public long getCierres() {
+        return cierres;
+    }
+
+    @Override
+    public String toString() {
+        return "EstadisticasResiliencia{" +
+                "estadoCircuito=" + estadoCircuito +
+                ", reintentos=" + reintentos +
+                ", fallas=" + fallas +
+                ", peticionesRechazadas=" + peticionesRechazadas +
+                ", aperturas=" + aperturas +
+                ", semiaperturas=" + semiaperturas +
+                ", cierres=" + cierres +
+                '}';
+    }
+}
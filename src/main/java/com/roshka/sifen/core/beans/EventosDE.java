@@ -3,9 +3,9 @@ package com.roshka.sifen.core.beans;
 import com.roshka.sifen.core.SifenConfig;
 import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.core.fields.request.event.TrGesEve;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.response.SifenObjectFactory;
-import org.w3c.dom.Node;
 
 import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
@@ -37,7 +37,7 @@ public class EventosDE extends SifenObjectBase {
      * @throws SifenException -
      */
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         if (value.getLocalName().equals("rGesEve")) {
             if (this.rGesEveList == null) {
                 this.rGesEveList = new ArrayList<>();
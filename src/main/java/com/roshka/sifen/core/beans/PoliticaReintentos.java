@@ -0,0 +1,90 @@
+package com.roshka.sifen.core.beans;
+
+/**
+ * Clase que representa la política de reintentos de un tipo de operación (ver
+ * {@link com.roshka.sifen.core.SifenConfig#setPoliticaReintentos(com.roshka.sifen.core.SifenConfig.TipoOperacion, PoliticaReintentos)}).
+ * <p>
+ * Una petición se reintenta si falla la conexión con Sifen, o si Sifen responde que no se encuentra disponible (estados
+ * HTTP 502, 503 y 504). Entre un intento y el siguiente se espera un tiempo aleatorio, entre 0 y una cota que se
+ * duplica en cada reintento (desde la espera inicial, hasta la espera máxima), para que los clientes no reintenten
+ * todos a la vez.
+ * <p>
+ * Cada reintento envía exactamente el mismo mensaje que el primer intento, por lo que en la recepción de un DE el CDC
+ * y la firma no cambian. En la recepción de un DE o de un lote, si Sifen pudo haber recibido el envío, antes de
+ * reenviarlo se consulta el DE (o los DEs del lote) por su CDC, y solo se reenvía si Sifen no lo tiene registrado.
+ */
+public class PoliticaReintentos {
+    /**
+     * Política que realiza un único intento.
+     */
+    public static final PoliticaReintentos SIN_REINTENTOS = new PoliticaReintentos(1, 0, 0, false);
+
+    private final int intentosMaximos;
+    private final long esperaInicial;
+    private final long esperaMaxima;
+    private final boolean reintentarTrasEnvio;
+
+    /**
+     * @param intentosMaximos     Cantidad máxima de intentos, incluyendo el primero.
+     * @param esperaInicial       Cota de la espera antes del primer reintento, en milisegundos.
+     * @param esperaMaxima        Cota máxima de la espera entre intentos, en milisegundos.
+     * @param reintentarTrasEnvio Si se reintenta también cuando la petición ya fue enviada y la falla se produjo
+     *                            esperando la respuesta, es decir, cuando Sifen pudo haberla procesado. Si es
+     *                            <strong>false</strong>, solo se reintentan las peticiones que no llegaron a Sifen,
+     *                            salvo en la recepción de un DE o de un lote, que se verifica antes por CDC.
+     * @throws IllegalArgumentException Si algún valor es inválido.
+     */
+    public PoliticaReintentos(int intentosMaximos, long esperaInicial, long esperaMaxima, boolean reintentarTrasEnvio) {
+        if (intentosMaximos < 1) {
+            throw new IllegalArgumentException("La cantidad máxima de intentos debe ser mayor a cero.");
+        }
+        if (esperaInicial < 0 || esperaMaxima < 0) {
+            throw new IllegalArgumentException("El tiempo de espera entre intentos no debe ser negativo.");
+        }
+        if (esperaMaxima < esperaInicial) {
+            throw new IllegalArgumentException("La espera máxima entre intentos no debe ser menor a la espera inicial.");
+        }
+        this.intentosMaximos = intentosMaximos;
+        this.esperaInicial = esperaInicial;
+        this.esperaMaxima = esperaMaxima;
+        this.reintentarTrasEnvio = reintentarTrasEnvio;
+    }
+
+    /**
+     * @return Cantidad máxima de intentos, incluyendo el primero.
+     */
+    public int getIntentosMaximos() {
+        return intentosMaximos;
+    }
+
+    /**
+     * @return Cota de la espera antes del primer reintento, en milisegundos.
+     */
+    public long getEsperaInicial() {
+        return esperaInicial;
+    }
+
+    /**
+     * @return Cota máxima de la espera entre intentos, en milisegundos.
+     */
+    public long getEsperaMaxima() {
+        return esperaMaxima;
+    }
+
+    /**
+     * @return Si se reintentan también las peticiones que Sifen pudo haber procesado.
+     */
+    public boolean isReintentarTrasEnvio() {
+        return reintentarTrasEnvio;
+    }
+
+    @Override
+    public String toString() {
+        return "PoliticaReintentos{" +
+                "intentosMaximos=" + intentosMaximos +
+                ", esperaInicial=" + esperaInicial +
+                ", esperaMaxima=" + esperaMaxima +
+                ", reintentarTrasEnvio=" + reintentarTrasEnvio +
+                '}';
+    }
+}
@@ -0,0 +1,64 @@
+package com.roshka.sifen.core.beans;
+
+import com.roshka.sifen.internal.response.ElementProjection;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Clase que define los campos o grupos a leer de un Documento Electrónico en formato XML (ver
+ * {@link DocumentoElectronico#DocumentoElectronico(String, ProyeccionDE)}), para obtener solo una parte del DE sin
+ * procesar el resto, por ejemplo, los ítems.
+ * <p>
+ * Cada campo o grupo se indica con su ruta dentro del elemento DE, formada por los nombres de los elementos separados
+ * por "/"; por ejemplo, "gDatGralOpe/gEmis" o "gTotSub/dTotGralOpe". Los grupos indicados se leen por completo.
+ */
+public class ProyeccionDE {
+    /**
+     * Fecha de emisión, emisor, receptor y totales: los datos necesarios para conciliar un DE.
+     */
+    public final static ProyeccionDE CONCILIACION = new ProyeccionDE("gDatGralOpe/dFeEmiDE", "gDatGralOpe/gEmis",
+            "gDatGralOpe/gDatRec", "gTotSub");
+
+    /**
+     * Grupos anteriores a los ítems (gOpeDE, gTimb y gDatGralOpe), con los que además se puede volver a calcular el
+     * CDC.
+     */
+    public final static ProyeccionDE CABECERA = new ProyeccionDE("gOpeDE", "gTimb", "gDatGralOpe");
+
+    private final List<String> rutas;
+    private final ElementProjection elementProjection;
+
+    /**
+     * @param rutas Rutas de los campos o grupos a leer, relativas al elemento DE.
+     * @throws IllegalArgumentException Si no se indica ninguna ruta, o si alguna ruta no es válida.
+     */
+    public ProyeccionDE(String... rutas) {
+        this.elementProjection = ElementProjection.of(rutas);
+        this.rutas = Collections.unmodifiableList(Arrays.asList(rutas.clone()));
+    }
+
+    /**
+     * @return Rutas de los campos o grupos a leer.
+     */
+    public List<String> getRutas() {
+        return rutas;
+    }
+
+    /**
+     * Método interno, no usar.
+     *
+     * @return -
+     */
+    public ElementProjection getElementProjection() {
+        return elementProjection;
+    }
+
+    @Override
+    public String toString() {
+        return "ProyeccionDE{" +
+                "rutas=" + rutas +
+                '}';
+    }
+}
@@ -3,13 +3,15 @@ package com.roshka.sifen.core.beans.response;
 import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.core.fields.response.batch.TgResProcLote;
 import com.roshka.sifen.internal.response.BaseResponse;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectFactory;
 import com.roshka.sifen.internal.util.ResponseUtil;
-import org.w3c.dom.Node;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Clase principal que contiene la respuesta de Sifen a la consulta de estado de un lote de Documentos Electrónicos.
@@ -19,12 +21,13 @@ public class RespuestaConsultaLoteDE extends BaseResponse {
     private String dCodResLot;
     private String dMsgResLot;
     private final List<TgResProcLote> gResProcLoteList = new ArrayList<>();
+    private final Map<String, TgResProcLote> gResProcLotePorCDC = new HashMap<>();
 
     /**
      * Método interno, no usar.
      */
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         switch (value.getLocalName()) {
             case "dFecProc":
                 dFecProc = ResponseUtil.getDateTimeValue(value);
@@ -36,7 +39,11 @@ public class RespuestaConsultaLoteDE extends BaseResponse {
                 dMsgResLot = ResponseUtil.getTextValue(value);
                 break;
             case "gResProcLote":
-                gResProcLoteList.add(SifenObjectFactory.getFromNode(value, TgResProcLote.class));
+                TgResProcLote gResProcLote = SifenObjectFactory.getFromNode(value, TgResProcLote.class);
+                gResProcLoteList.add(gResProcLote);
+                if (gResProcLote.getId() != null) {
+                    gResProcLotePorCDC.put(gResProcLote.getId(), gResProcLote);
+                }
                 break;
         }
     }
@@ -56,4 +63,14 @@ public class RespuestaConsultaLoteDE extends BaseResponse {
     public List<TgResProcLote> getgResProcLoteList() {
         return gResProcLoteList;
     }
+
+    /**
+     * Obtiene el resultado del procesamiento de un Documento Electrónico del lote, sin recorrer el listado.
+     *
+     * @param CDC CDC del Documento Electrónico.
+     * @return El resultado del procesamiento del DE, o <strong>null</strong> si el lote no lo contiene.
+     */
+    public TgResProcLote getgResProcLote(String CDC) {
+        return gResProcLotePorCDC.get(CDC);
+    }
 }
\ No newline at end of file
@@ -3,20 +3,26 @@ package com.roshka.sifen.core.beans.response;
 import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.core.fields.response.ruc.TxContRuc;
 import com.roshka.sifen.internal.response.BaseResponse;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectFactory;
-import org.w3c.dom.Node;
 
 /**
  * Clase principal que contiene la respuesta de Sifen a la consulta de un RUC de un contribuyente.
  */
 public class RespuestaConsultaRUC extends BaseResponse {
+    /**
+     * Enum con los orígenes de la respuesta.
+     */
+    public enum Origen {SIFEN, REGISTRO_LOCAL}
+
     private TxContRuc xContRUC;
+    private Origen origen = Origen.SIFEN;
 
     /**
      * Método interno, no usar.
      */
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         if (value.getLocalName().equals("xContRUC")) {
             xContRUC = SifenObjectFactory.getFromNode(value, TxContRuc.class);
         } else {
@@ -27,4 +33,24 @@ public class RespuestaConsultaRUC extends BaseResponse {
     public TxContRuc getxContRUC() {
         return xContRUC;
     }
+
+    public void setxContRUC(TxContRuc xContRUC) {
+        this.xContRUC = xContRUC;
+    }
+
+    /**
+     * @return Origen de la respuesta: <i>SIFEN</i>, o <i>REGISTRO_LOCAL</i> si fue construida a partir del registro
+     * local de RUCs (ver {@link com.roshka.sifen.SifenClient#resolverRUC(String)}), en cuyo caso no incluye el indicador
+     * de facturador electrónico (<i>dRUCFactElec</i>) ni la respuesta bruta.
+     */
+    public Origen getOrigen() {
+        return origen;
+    }
+
+    /**
+     * Método interno, no usar.
+     */
+    public void setOrigen(Origen origen) {
+        this.origen = origen;
+    }
 }
\ No newline at end of file
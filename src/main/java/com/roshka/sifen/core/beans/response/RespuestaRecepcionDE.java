@@ -3,20 +3,21 @@ package com.roshka.sifen.core.beans.response;
 import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.core.fields.response.TxProtDe;
 import com.roshka.sifen.internal.response.BaseResponse;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectFactory;
-import org.w3c.dom.Node;
 
 /**
  * Clase principal que contiene la respuesta de Sifen al envío para aprobación de un Documento Electrónico.
  */
 public class RespuestaRecepcionDE extends BaseResponse {
     private TxProtDe xProtDE;
+    private RespuestaConsultaDE consultaDE;
 
     /**
      * Método interno, no usar.
      */
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         if (value.getLocalName().equals("rProtDe")) {
             xProtDE = SifenObjectFactory.getFromNode(value, TxProtDe.class);
         }
@@ -25,4 +26,20 @@ public class RespuestaRecepcionDE extends BaseResponse {
     public TxProtDe getxProtDE() {
         return xProtDE;
     }
+
+    /**
+     * @return Si la respuesta a un envío se perdió y, al consultar el DE por su CDC antes de reenviarlo, Sifen ya lo
+     * tenía registrado, la respuesta a esa consulta, y el DE no se reenvió; en ese caso, {@link #getxProtDE()} es
+     * <strong>null</strong>. De lo contrario, <strong>null</strong>.
+     */
+    public RespuestaConsultaDE getConsultaDE() {
+        return consultaDE;
+    }
+
+    /**
+     * Método interno, no usar.
+     */
+    public void setConsultaDE(RespuestaConsultaDE consultaDE) {
+        this.consultaDE = consultaDE;
+    }
 }
\ No newline at end of file
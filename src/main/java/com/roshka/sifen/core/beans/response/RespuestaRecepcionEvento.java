@@ -3,9 +3,9 @@ package com.roshka.sifen.core.beans.response;
 import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.core.fields.response.event.TgResProcEVe;
 import com.roshka.sifen.internal.response.BaseResponse;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectFactory;
 import com.roshka.sifen.internal.util.ResponseUtil;
-import org.w3c.dom.Node;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -22,7 +22,7 @@ public class RespuestaRecepcionEvento extends BaseResponse {
      * Método interno, no usar.
      */
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         if (value.getLocalName().equals("dFecProc")) {
             dFecProc = ResponseUtil.getDateTimeValue(value);
         } else if (value.getLocalName().equals("gResProcEVe")) {
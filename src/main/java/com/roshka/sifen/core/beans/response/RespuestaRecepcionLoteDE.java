@@ -2,8 +2,8 @@ package com.roshka.sifen.core.beans.response;
 
 import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.internal.response.BaseResponse;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.util.ResponseUtil;
-import org.w3c.dom.Node;
 
 import java.time.LocalDateTime;
 
@@ -14,12 +14,13 @@ public class RespuestaRecepcionLoteDE extends BaseResponse {
     private LocalDateTime dFecProc;
     private String dProtConsLote;
     private int dTpoProces;
+    private RespuestaConsultaDE consultaDE;
 
     /**
      * Método interno, no usar.
      */
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         switch (value.getLocalName()) {
             case "dFecProc":
                 dFecProc = ResponseUtil.getDateTimeValue(value);
@@ -46,4 +47,24 @@ public class RespuestaRecepcionLoteDE extends BaseResponse {
     public int getdTpoProces() {
         return dTpoProces;
     }
+
+    /**
+     * @return Si la respuesta a un envío se perdió y, al consultar los DEs del lote por su CDC antes de reenviarlo,
+     * Sifen ya tenía registrado alguno, la respuesta a esa consulta, y el lote no se reenvió; en ese caso, no se
+     * cuenta con el número de lote ({@link #getdProtConsLote()}), y el resultado de cada DE se obtiene con su consulta
+     * por CDC. De lo contrario, <strong>null</strong>.
+     * <p>
+     * Los DEs de un lote recibido que Sifen aún no procesó no se encuentran en la consulta, por lo que el lote puede
+     * reenviarse; en ese caso, Sifen rechaza por CDC duplicado los DEs del lote que procese en segundo lugar.
+     */
+    public RespuestaConsultaDE getConsultaDE() {
+        return consultaDE;
+    }
+
+    /**
+     * Método interno, no usar.
+     */
+    public void setConsultaDE(RespuestaConsultaDE consultaDE) {
+        this.consultaDE = consultaDE;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,256 @@
+package com.roshka.sifen.core.fields.request.de;
+
+import com.roshka.sifen.core.types.CMondT;
+import com.roshka.sifen.core.types.TTImp;
+import com.roshka.sifen.core.types.TTiDE;
+import com.roshka.sifen.core.types.TdCondTiCam;
+import com.roshka.sifen.internal.util.ScaledDecimal;
+import com.roshka.sifen.internal.util.SifenUtil;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Acumulador de los subtotales de un documento, que se actualiza a medida que se agregan, quitan o modifican sus ítems,
+ * sin volver a recorrer la lista completa. Mantiene por separado las sumas de cada tasa de IVA (10% y 5%), de los montos
+ * exentos y exonerados, de los descuentos y de los anticipos.
+ * <p>
+ * Los totales se establecen en un {@link TgTotSub} mediante {@link TgTotSub#calcularMontos(AcumuladorTotales)}, y son
+ * idénticos a los que se obtienen recorriendo todos los ítems con
+ * {@link TgTotSub#calcularMontos(TTiDE, TgDtipDE, TgOpeCom)}. Si cambian los datos de la operación comercial, como la
+ * moneda o el tipo de cambio, se debe crear un nuevo acumulador (ver {@link #correspondeA(TTiDE, TgOpeCom, List)}).
+ * <p>
+ * Esta clase no es thread-safe.
+ */
+public class AcumuladorTotales {
+    final static int SUB_EXE = 0;
+    final static int SUB_EXO = 1;
+    final static int SUB_5 = 2;
+    final static int SUB_10 = 3;
+    final static int TOT_OPE_ITEM = 4;
+    final static int TOT_DESC = 5;
+    final static int TOT_DESC_GLOTEM = 6;
+    final static int TOT_ANT_ITEM = 7;
+    final static int TOT_ANT = 8;
+    final static int IVA_5 = 9;
+    final static int IVA_10 = 10;
+    final static int BASE_GRAV_5 = 11;
+    final static int BASE_GRAV_10 = 12;
+    final static int TOTAL_GS = 13;
+    private final static int SUMAS = 14;
+    private final static BigDecimal FIVE = BigDecimal.valueOf(5);
+
+    private final TTiDE iTiDE;
+    private final TgOpeCom gOpeCom;
+    // Datos de la operación comercial con los que se calcularon los montos
+    private final CMondT cMoneOpe;
+    private final TTImp iTImp;
+    private final TdCondTiCam dCondTiCam;
+    private final BigDecimal dTiCam;
+    private final Suma[] sumas = new Suma[SUMAS];
+    private final Map<TgCamItem, ScaledDecimal[]> aportes = new IdentityHashMap<>();
+
+    /**
+     * @param iTiDE   Tipo de Documento Electrónico.
+     * @param gOpeCom Campos de la operación comercial del documento.
+     * @throws IllegalArgumentException Si alguno de los parámetros es nulo.
+     */
+    public AcumuladorTotales(TTiDE iTiDE, TgOpeCom gOpeCom) {
+        if (iTiDE == null || gOpeCom == null) {
+            throw new IllegalArgumentException("Se deben indicar el tipo de documento y los campos de la operación comercial.");
+        }
+
+        this.iTiDE = iTiDE;
+        this.gOpeCom = gOpeCom;
+        this.cMoneOpe = gOpeCom.getcMoneOpe();
+        this.iTImp = gOpeCom.getiTImp();
+        this.dCondTiCam = gOpeCom.getdCondTiCam();
+        this.dTiCam = gOpeCom.getdTiCam();
+        for (int i = 0; i < SUMAS; i++) {
+            this.sumas[i] = new Suma();
+        }
+    }
+
+    /**
+     * Calcula los montos del ítem y los suma a los totales.
+     *
+     * @param gCamItem Ítem a agregar.
+     * @throws IllegalArgumentException Si el ítem ya fue agregado.
+     */
+    public void agregarItem(TgCamItem gCamItem) {
+        if (this.aportes.containsKey(gCamItem)) {
+            throw new IllegalArgumentException("El ítem ya fue agregado al acumulador.");
+        }
+
+        gCamItem.calcularMontos(this.iTiDE, this.gOpeCom);
+        this.sumar(gCamItem);
+    }
+
+    /**
+     * Resta de los totales los montos con los que se agregó el ítem.
+     *
+     * @param gCamItem Ítem a quitar.
+     * @return <strong>true</strong> si el ítem había sido agregado al acumulador.
+     */
+    public boolean quitarItem(TgCamItem gCamItem) {
+        ScaledDecimal[] aporte = this.aportes.remove(gCamItem);
+        if (aporte == null) {
+            return false;
+        }
+
+        for (int i = 0; i < SUMAS; i++) {
+            if (aporte[i] != null)
+                this.sumas[i].restar(aporte[i]);
+        }
+        return true;
+    }
+
+    /**
+     * Vuelve a calcular los montos de un ítem modificado, y reemplaza en los totales los montos anteriores por los
+     * nuevos.
+     *
+     * @param gCamItem Ítem modificado.
+     * @throws IllegalArgumentException Si el ítem no fue agregado al acumulador.
+     */
+    public void actualizarItem(TgCamItem gCamItem) {
+        if (!this.quitarItem(gCamItem)) {
+            throw new IllegalArgumentException("El ítem no fue agregado al acumulador.");
+        }
+        this.agregarItem(gCamItem);
+    }
+
+    /**
+     * @return Cantidad de ítems incluidos en los totales.
+     */
+    public int getCantidadItems() {
+        return this.aportes.size();
+    }
+
+    /**
+     * Indica si los totales corresponden a un documento: mismo tipo de documento, mismos datos de la operación comercial
+     * con los que se creó el acumulador, y exactamente los mismos ítems. No detecta los ítems modificados que no fueron
+     * informados con {@link #actualizarItem(TgCamItem)}.
+     *
+     * @param iTiDE   Tipo de Documento Electrónico.
+     * @param gOpeCom Campos de la operación comercial del documento.
+     * @param items   Ítems del documento.
+     * @return <strong>true</strong> si los totales se pueden utilizar para el documento.
+     */
+    public boolean correspondeA(TTiDE iTiDE, TgOpeCom gOpeCom, List<TgCamItem> items) {
+        if (this.iTiDE != iTiDE || this.gOpeCom != gOpeCom || this.cMoneOpe != gOpeCom.getcMoneOpe()
+                || this.iTImp != gOpeCom.getiTImp() || this.dCondTiCam != gOpeCom.getdCondTiCam()
+                || !Objects.equals(this.dTiCam, gOpeCom.getdTiCam())) {
+            return false;
+        }
+
+        if (items == null || items.size() != this.aportes.size()) {
+            return false;
+        }
+        for (TgCamItem gCamItem : items) {
+            if (!this.aportes.containsKey(gCamItem))
+                return false;
+        }
+        return true;
+    }
+
+    public TTiDE getiTiDE() {
+        return iTiDE;
+    }
+
+    public TgOpeCom getgOpeCom() {
+        return gOpeCom;
+    }
+
+    /*
+     * Suma a los totales los montos ya calculados del ítem.
+     */
+    void sumar(TgCamItem gCamItem) {
+        CMondT cMoneOpe = this.gOpeCom.getcMoneOpe();
+        TdCondTiCam dCondTiCam = this.gOpeCom.getdCondTiCam();
+        int scale = cMoneOpe == CMondT.PYG ? 0 : 2;
+
+        TgCamIVA gCamIVA = gCamItem.getgCamIVA();
+        TgValorRestaItem gValorRestaItem = gCamItem.getgValorItem().getgValorRestaItem();
+        ScaledDecimal dTotOpeItem = ScaledDecimal.valueOf(gValorRestaItem.getdTotOpeItem()).setScale(scale);
+
+        ScaledDecimal[] aporte = new ScaledDecimal[SUMAS];
+        if (gCamIVA != null) {
+            if (gCamIVA.getiAfecIVA().getVal() == 1 || gCamIVA.getiAfecIVA().getVal() == 4) {
+                if (gCamIVA.getdTasaIVA().equals(BigDecimal.TEN)) {
+                    aporte[SUB_10] = dTotOpeItem;
+                    aporte[IVA_10] = Objects.requireNonNull(ScaledDecimal.valueOf(gCamIVA.getdLiqIVAItem()));
+                    aporte[BASE_GRAV_10] = Objects.requireNonNull(ScaledDecimal.valueOf(gCamIVA.getdBasGravIVA()));
+                } else if (gCamIVA.getdTasaIVA().equals(FIVE)) {
+                    aporte[SUB_5] = dTotOpeItem;
+                    aporte[IVA_5] = Objects.requireNonNull(ScaledDecimal.valueOf(gCamIVA.getdLiqIVAItem()));
+                    aporte[BASE_GRAV_5] = Objects.requireNonNull(ScaledDecimal.valueOf(gCamIVA.getdBasGravIVA()));
+                }
+            } else if (gCamIVA.getiAfecIVA().getVal() == 2) {
+                aporte[SUB_EXO] = dTotOpeItem;
+            } else if (gCamIVA.getiAfecIVA().getVal() == 3) {
+                aporte[SUB_EXE] = dTotOpeItem;
+            }
+        }
+
+        aporte[TOT_OPE_ITEM] = dTotOpeItem;
+        aporte[TOT_DESC] = ScaledDecimal.valueOf(gValorRestaItem.getdDescItem()).multiply(ScaledDecimal.valueOf(gCamItem.getdCantProSer()));
+        aporte[TOT_DESC_GLOTEM] = SifenUtil.coalesce(ScaledDecimal.valueOf(gValorRestaItem.getdDescGloItem()), ScaledDecimal.ZERO);
+        aporte[TOT_ANT_ITEM] = SifenUtil.coalesce(ScaledDecimal.valueOf(gValorRestaItem.getdAntPreUniIt()), ScaledDecimal.ZERO);
+        aporte[TOT_ANT] = SifenUtil.coalesce(ScaledDecimal.valueOf(gValorRestaItem.getdAntGloPreUniIt()), ScaledDecimal.ZERO);
+
+        if (cMoneOpe != CMondT.PYG && dCondTiCam.getVal() == 2)
+            aporte[TOTAL_GS] = Objects.requireNonNull(ScaledDecimal.valueOf(gValorRestaItem.getdTotOpeGs()));
+
+        // Los montos se suman una vez calculado todo el aporte, para no dejar los totales a medio actualizar
+        for (int i = 0; i < SUMAS; i++) {
+            if (aporte[i] != null)
+                this.sumas[i].sumar(aporte[i]);
+        }
+        this.aportes.put(gCamItem, aporte);
+    }
+
+    ScaledDecimal total(int suma) {
+        return this.sumas[suma].get();
+    }
+
+    /*
+     * Suma exacta que, además del valor, lleva la cuenta de las escalas de los montos sumados. Así, al restar un monto,
+     * la escala del resultado vuelve a ser la mayor de las escalas restantes, igual que al sumar de nuevo todos los montos
+     * a partir de cero.
+     */
+    private final static class Suma {
+        private ScaledDecimal valor = ScaledDecimal.ZERO;
+        private int[] escalas = new int[3];
+
+        void sumar(ScaledDecimal monto) {
+            this.valor = this.valor.add(monto);
+            this.contar(monto.scale(), 1);
+        }
+
+        void restar(ScaledDecimal monto) {
+            this.valor = this.valor.subtract(monto);
+            this.contar(monto.scale(), -1);
+        }
+
+        ScaledDecimal get() {
+            int scale = this.escalas.length - 1;
+            while (scale > 0 && this.escalas[scale] == 0) {
+                scale--;
+            }
+            return this.valor.scale() == scale ? this.valor : this.valor.setScale(scale);
+        }
+
+        private void contar(int scale, int delta) {
+            // Las escalas negativas no modifican la escala de la suma, que parte de cero
+            if (scale <= 0)
+                return;
+            if (scale >= this.escalas.length)
+                this.escalas = Arrays.copyOf(this.escalas, scale + 1);
+            this.escalas[scale] += delta;
+        }
+    }
+}
@@ -2,12 +2,12 @@ package com.roshka.sifen.core.fields.request.de;
 
 import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.core.types.TTiDE;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.response.SifenObjectFactory;
 import com.roshka.sifen.internal.util.ResponseUtil;
-import org.w3c.dom.Node;
+import com.roshka.sifen.internal.xml.XmlElement;
 
-import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -18,10 +18,10 @@ public class TdDatGralOpe extends SifenObjectBase {
     private TgEmis gEmis;
     private TgDatRec gDatRec;
 
-    public void setupSOAPElements(SOAPElement DE, TTiDE iTiDE) throws SOAPException {
+    public void setupSOAPElements(XmlElement DE, TTiDE iTiDE) throws SOAPException {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
 
-        SOAPElement gDatGralOpe = DE.addChildElement("gDatGralOpe");
+        XmlElement gDatGralOpe = DE.addChildElement("gDatGralOpe");
         gDatGralOpe.addChildElement("dFeEmiDE").setTextContent(this.dFeEmiDE.format(formatter));
         if (iTiDE.getVal() != 7)
             this.gOpeCom.setupSOAPElements(gDatGralOpe, iTiDE);
@@ -30,7 +30,7 @@ public class TdDatGralOpe extends SifenObjectBase {
     }
 
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         switch (value.getLocalName()) {
             case "dFeEmiDE":
                 this.dFeEmiDE = ResponseUtil.getDateTimeValue(value);
@@ -4,11 +4,11 @@ import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.core.types.TDepartamento;
 import com.roshka.sifen.core.types.TiNatVen;
 import com.roshka.sifen.core.types.TiTipDoc;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.util.ResponseUtil;
-import org.w3c.dom.Node;
+import com.roshka.sifen.internal.xml.XmlElement;
 
-import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
 
 /**
@@ -33,8 +33,8 @@ public class TgCamAE extends SifenObjectBase {
     private int cCiuProv;
     private String dDesCiuProv;
 
-    public void setupSOAPElements(SOAPElement gDtipDE) throws SOAPException {
-        SOAPElement gCamAE = gDtipDE.addChildElement("gCamAE");
+    public void setupSOAPElements(XmlElement gDtipDE) throws SOAPException {
+        XmlElement gCamAE = gDtipDE.addChildElement("gCamAE");
         gCamAE.addChildElement("iNatVen").setTextContent(String.valueOf(this.iNatVen.getVal()));
         gCamAE.addChildElement("dDesNatVen").setTextContent(this.iNatVen.getDescripcion());
         gCamAE.addChildElement("iTipIDVen").setTextContent(String.valueOf(this.iTipIDVen.getVal()));
@@ -67,7 +67,7 @@ public class TgCamAE extends SifenObjectBase {
     }
 
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         switch (value.getLocalName()) {
             case "iNatVen":
                 this.iNatVen = TiNatVen.getByVal(Short.parseShort(ResponseUtil.getTextValue(value)));
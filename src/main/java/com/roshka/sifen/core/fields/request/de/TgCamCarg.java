@@ -3,12 +3,12 @@ package com.roshka.sifen.core.fields.request.de;
 import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.core.types.TcUniMed;
 import com.roshka.sifen.core.types.TiCarCarga;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.util.ResponseUtil;
 import com.roshka.sifen.internal.util.SifenUtil;
-import org.w3c.dom.Node;
+import com.roshka.sifen.internal.xml.XmlElement;
 
-import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
 import java.math.BigInteger;
 
@@ -20,8 +20,8 @@ public class TgCamCarg extends SifenObjectBase {
     private TiCarCarga iCarCarga;
     private String dDesCarCarga;
 
-    public void setupSOAPElements(SOAPElement gCamGen) throws SOAPException {
-        SOAPElement gCamCarg = gCamGen.addChildElement("gCamCarg");
+    public void setupSOAPElements(XmlElement gCamGen) throws SOAPException {
+        XmlElement gCamCarg = gCamGen.addChildElement("gCamCarg");
         if (this.cUniMedTotVol != null) {
             gCamCarg.addChildElement("cUniMedTotVol").setTextContent(String.valueOf(this.cUniMedTotVol.getVal()));
             gCamCarg.addChildElement("dDesUniMedTotVol").setTextContent(this.cUniMedTotVol.getAbreviatura());
@@ -43,7 +43,7 @@ public class TgCamCarg extends SifenObjectBase {
     }
 
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         switch (value.getLocalName()) {
             case "cUniMedTotVol":
                 this.cUniMedTotVol = TcUniMed.getByVal(Short.parseShort(ResponseUtil.getTextValue(value)));
@@ -2,12 +2,12 @@ package com.roshka.sifen.core.fields.request.de;
 
 import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.core.types.TiCondOpe;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.response.SifenObjectFactory;
 import com.roshka.sifen.internal.util.ResponseUtil;
-import org.w3c.dom.Node;
+import com.roshka.sifen.internal.xml.XmlElement;
 
-import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
 import java.util.ArrayList;
 import java.util.List;
@@ -18,8 +18,8 @@ public class TgCamCond extends SifenObjectBase {
     private List<TgPaConEIni> gPaConEIniList;
     private TgPagCred gPagCred;
 
-    public void setupSOAPElements(SOAPElement gDtipDE) throws SOAPException {
-        SOAPElement gCamCond = gDtipDE.addChildElement("gCamCond");
+    public void setupSOAPElements(XmlElement gDtipDE) throws SOAPException {
+        XmlElement gCamCond = gDtipDE.addChildElement("gCamCond");
         gCamCond.addChildElement("iCondOpe").setTextContent(String.valueOf(this.iCondOpe.getVal()));
         gCamCond.addChildElement("dDCondOpe").setTextContent(this.iCondOpe.getDescripcion());
 
@@ -34,7 +34,7 @@ public class TgCamCond extends SifenObjectBase {
     }
 
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         switch (value.getLocalName()) {
             case "iCondOpe":
                 this.iCondOpe = TiCondOpe.getByVal(Short.parseShort(ResponseUtil.getTextValue(value)));
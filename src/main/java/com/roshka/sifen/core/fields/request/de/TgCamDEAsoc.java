@@ -5,12 +5,12 @@ import com.roshka.sifen.core.types.TTipTra;
 import com.roshka.sifen.core.types.TdTipCons;
 import com.roshka.sifen.core.types.TiTIpoDoc;
 import com.roshka.sifen.core.types.TiTipDocAso;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.util.ResponseUtil;
 import com.roshka.sifen.internal.util.SifenUtil;
-import org.w3c.dom.Node;
+import com.roshka.sifen.internal.xml.XmlElement;
 
-import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
 import java.math.BigInteger;
 import java.time.LocalDate;
@@ -30,8 +30,8 @@ public class TgCamDEAsoc extends SifenObjectBase {
     private BigInteger dNumCons;
     private String dNumControl;
 
-    public void setupSOAPElements(SOAPElement DE, TTipTra iTipTra, boolean withholdingExists) throws SOAPException {
-        SOAPElement gCamDEAsoc = DE.addChildElement("gCamDEAsoc");
+    public void setupSOAPElements(XmlElement DE, TTipTra iTipTra, boolean withholdingExists) throws SOAPException {
+        XmlElement gCamDEAsoc = DE.addChildElement("gCamDEAsoc");
         gCamDEAsoc.addChildElement("iTipDocAso").setTextContent(String.valueOf(this.iTipDocAso.getVal()));
         gCamDEAsoc.addChildElement("dDesTipDocAso").setTextContent(this.iTipDocAso.getDescripcion());
 
@@ -63,7 +63,7 @@ public class TgCamDEAsoc extends SifenObjectBase {
     }
 
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         switch (value.getLocalName()) {
             case "iTipDocAso":
                 this.iTipDocAso = TiTipDocAso.getByVal(Short.parseShort(ResponseUtil.getTextValue(value)));
@@ -2,11 +2,11 @@ package com.roshka.sifen.core.fields.request.de;
 
 import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.core.types.TDepartamento;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.util.ResponseUtil;
-import org.w3c.dom.Node;
+import com.roshka.sifen.internal.xml.XmlElement;
 
-import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
 
 public class TgCamEnt extends SifenObjectBase {
@@ -21,8 +21,8 @@ public class TgCamEnt extends SifenObjectBase {
     private String dDesCiuEnt;
     private String dTelEnt;
 
-    public void setupSOAPElements(SOAPElement gTransp) throws SOAPException {
-        SOAPElement gCamEnt = gTransp.addChildElement("gCamEnt");
+    public void setupSOAPElements(XmlElement gTransp) throws SOAPException {
+        XmlElement gCamEnt = gTransp.addChildElement("gCamEnt");
         gCamEnt.addChildElement("dDirLocEnt").setTextContent(this.dDirLocEnt);
         gCamEnt.addChildElement("dNumCasEnt").setTextContent(String.valueOf(this.dNumCasEnt));
 
@@ -48,7 +48,7 @@ public class TgCamEnt extends SifenObjectBase {
     }
 
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         switch (value.getLocalName()) {
             case "dDirLocEnt":
                 this.dDirLocEnt = ResponseUtil.getTextValue(value);
@@ -1,11 +1,11 @@
 package com.roshka.sifen.core.fields.request.de;
 
 import com.roshka.sifen.core.exceptions.SifenException;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.response.SifenObjectFactory;
-import org.w3c.dom.Node;
+import com.roshka.sifen.internal.xml.XmlElement;
 
-import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
 
 public class TgCamEsp extends SifenObjectBase {
@@ -14,8 +14,8 @@ public class TgCamEsp extends SifenObjectBase {
     private TgGrupSup gGrupSup;
     private TgGrupAdi gGrupAdi;
 
-    public void setupSOAPElements(SOAPElement gDtipDE) throws SOAPException {
-        SOAPElement gCamEsp = gDtipDE.addChildElement("gCamEsp");
+    public void setupSOAPElements(XmlElement gDtipDE) throws SOAPException {
+        XmlElement gCamEsp = gDtipDE.addChildElement("gCamEsp");
         if (this.gGrupEner != null)
             this.gGrupEner.setupSOAPElements(gCamEsp);
 
@@ -30,7 +30,7 @@ public class TgCamEsp extends SifenObjectBase {
     }
 
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         switch (value.getLocalName()) {
             case "gGrupEner":
                 this.gGrupEner = SifenObjectFactory.getFromNode(value, TgGrupEner.class);
@@ -2,12 +2,12 @@ package com.roshka.sifen.core.fields.request.de;
 
 import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.core.types.TTiDE;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.response.SifenObjectFactory;
 import com.roshka.sifen.internal.util.ResponseUtil;
-import org.w3c.dom.Node;
+import com.roshka.sifen.internal.xml.XmlElement;
 
-import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
 
 public class TgCamGen extends SifenObjectBase {
@@ -16,8 +16,8 @@ public class TgCamGen extends SifenObjectBase {
     private String dAsiento;
     private TgCamCarg gCamCarg;
 
-    public void setupSOAPElements(SOAPElement DE, TTiDE iTiDE) throws SOAPException {
-        SOAPElement gCamGen = DE.addChildElement("gCamGen");
+    public void setupSOAPElements(XmlElement DE, TTiDE iTiDE) throws SOAPException {
+        XmlElement gCamGen = DE.addChildElement("gCamGen");
         if (this.dOrdCompra != null)
             gCamGen.addChildElement("dOrdCompra").setTextContent(this.dOrdCompra);
 
@@ -32,7 +32,7 @@ public class TgCamGen extends SifenObjectBase {
     }
 
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         switch (value.getLocalName()) {
             case "dOrdCompra":
                 this.dOrdCompra = ResponseUtil.getTextValue(value);
@@ -4,16 +4,25 @@ import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.core.types.CMondT;
 import com.roshka.sifen.core.types.TiAfecIVA;
 import com.roshka.sifen.internal.ctx.GenerationCtx;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.util.ResponseUtil;
-import org.w3c.dom.Node;
+import com.roshka.sifen.internal.util.ScaledDecimal;
+import com.roshka.sifen.internal.xml.XmlElement;
 
-import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 
 public class TgCamIVA extends SifenObjectBase {
+    private final static BigDecimal FIVE = BigDecimal.valueOf(5);
+    private final static ScaledDecimal HUNDRED = ScaledDecimal.valueOf(100, 0);
+    private final static ScaledDecimal TEN_THOUSAND = ScaledDecimal.valueOf(10000, 0);
+    // Divisores de la base gravada (1,1 y 1,05) y del IVA incluido en el monto (11 y 21), para las tasas del 10% y del 5%
+    private final static ScaledDecimal DIVISOR_BASE_10 = ScaledDecimal.valueOf(11, 1);
+    private final static ScaledDecimal DIVISOR_IVA_10 = ScaledDecimal.valueOf(11, 0);
+    private final static ScaledDecimal DIVISOR_BASE_5 = ScaledDecimal.valueOf(105, 2);
+    private final static ScaledDecimal DIVISOR_IVA_5 = ScaledDecimal.valueOf(21, 0);
+
     private TiAfecIVA iAfecIVA;
     private BigDecimal dPropIVA;
     private BigDecimal dTasaIVA;
@@ -21,49 +30,58 @@ public class TgCamIVA extends SifenObjectBase {
     private BigDecimal dLiqIVAItem;
     private BigDecimal dBasExe;
 
-    public void setupSOAPElements(GenerationCtx generationCtx, SOAPElement gCamItem, CMondT cMoneOpe, BigDecimal dTotOpeItem) throws SOAPException {
-        SOAPElement gCamIVA = gCamItem.addChildElement("gCamIVA");
-        gCamIVA.addChildElement("iAfecIVA").setTextContent(String.valueOf(this.iAfecIVA.getVal()));
-        gCamIVA.addChildElement("dDesAfecIVA").setTextContent(this.iAfecIVA.getDescripcion());
-        gCamIVA.addChildElement("dPropIVA").setTextContent(String.valueOf(this.dPropIVA));
-        gCamIVA.addChildElement("dTasaIVA").setTextContent(String.valueOf(this.dTasaIVA));
-        int scale = cMoneOpe.name().equals("PYG") ? 0 : 2;
-        dTotOpeItem = dTotOpeItem.setScale(scale, RoundingMode.HALF_UP);
-
-        BigDecimal hundred = BigDecimal.valueOf(100);
-        BigDecimal propIVA = this.dPropIVA.divide(hundred, scale, RoundingMode.HALF_UP);
+    /**
+     * Calcula la base gravada, la liquidación del IVA y la base exenta del ítem, sin generar ningún elemento XML.
+     *
+     * @param cMoneOpe    Moneda de la operación.
+     * @param dTotOpeItem Valor total de la operación del ítem.
+     */
+    public void calcularMontos(CMondT cMoneOpe, BigDecimal dTotOpeItem) {
+        int scale = cMoneOpe == CMondT.PYG ? 0 : 2;
+        ScaledDecimal totOpeItem = ScaledDecimal.valueOf(dTotOpeItem).setScale(scale);
+
+        ScaledDecimal propIVA = ScaledDecimal.valueOf(this.dPropIVA).divide(HUNDRED, scale);
         if (this.iAfecIVA.getVal() == 1 || this.iAfecIVA.getVal() == 4) {
-            if (this.dTasaIVA.equals(BigDecimal.valueOf(10))) {
-                this.dBasGravIVA = dTotOpeItem.multiply(propIVA).divide(BigDecimal.valueOf(1.1), scale, RoundingMode.HALF_UP);
-                this.dLiqIVAItem = dTotOpeItem.multiply(propIVA).divide(BigDecimal.valueOf(11), scale, RoundingMode.HALF_UP);
-            } else if (this.dTasaIVA.equals(BigDecimal.valueOf(5))) {
-                this.dBasGravIVA = dTotOpeItem.multiply(propIVA).divide(BigDecimal.valueOf(1.05), scale, RoundingMode.HALF_UP);
-                this.dLiqIVAItem = dTotOpeItem.multiply(propIVA).divide(BigDecimal.valueOf(21), scale, RoundingMode.HALF_UP);
+            if (this.dTasaIVA.equals(BigDecimal.TEN)) {
+                ScaledDecimal montoGravado = totOpeItem.multiply(propIVA);
+                this.dBasGravIVA = montoGravado.divide(DIVISOR_BASE_10, scale).toBigDecimal();
+                this.dLiqIVAItem = montoGravado.divide(DIVISOR_IVA_10, scale).toBigDecimal();
+            } else if (this.dTasaIVA.equals(FIVE)) {
+                ScaledDecimal montoGravado = totOpeItem.multiply(propIVA);
+                this.dBasGravIVA = montoGravado.divide(DIVISOR_BASE_5, scale).toBigDecimal();
+                this.dLiqIVAItem = montoGravado.divide(DIVISOR_IVA_5, scale).toBigDecimal();
             }
         } else {
             this.dBasGravIVA = BigDecimal.ZERO;
             this.dLiqIVAItem = BigDecimal.ZERO;
         }
 
+        if (this.iAfecIVA.getVal() == 4) {
+            // Actualización: https://ekuatia.set.gov.py/portal/ekuatia/detail?content-id=/repository/collaboration/sites/ekuatia/documents/documentacion/documentacion-tecnica/NT_E_KUATIA_013_MT_V150.pdf
+            // E737 = [100 * EA008 * (100 – E733)] / [10000 + (E734 * E733)]
+            this.dBasExe = totOpeItem.multiply(HUNDRED.subtract(propIVA)).multiply(HUNDRED)
+                    .divide(ScaledDecimal.valueOf(this.dTasaIVA).multiply(ScaledDecimal.valueOf(dPropIVA)).add(TEN_THOUSAND), scale)
+                    .toBigDecimal();
+        } else {
+            this.dBasExe = BigDecimal.valueOf(0);
+        }
+    }
 
+    public void setupSOAPElements(GenerationCtx generationCtx, XmlElement gCamItem) throws SOAPException {
+        XmlElement gCamIVA = gCamItem.addChildElement("gCamIVA");
+        gCamIVA.addChildElement("iAfecIVA").setTextContent(String.valueOf(this.iAfecIVA.getVal()));
+        gCamIVA.addChildElement("dDesAfecIVA").setTextContent(this.iAfecIVA.getDescripcion());
+        gCamIVA.addChildElement("dPropIVA").setTextContent(String.valueOf(this.dPropIVA));
+        gCamIVA.addChildElement("dTasaIVA").setTextContent(String.valueOf(this.dTasaIVA));
         gCamIVA.addChildElement("dBasGravIVA").setTextContent(String.valueOf(this.dBasGravIVA));
         gCamIVA.addChildElement("dLiqIVAItem").setTextContent(String.valueOf(this.dLiqIVAItem));
 
-        if (generationCtx.isHabilitarNotaTecnica13()) {
-            if (this.iAfecIVA.getVal() == 4) {
-                // Actualización: https://ekuatia.set.gov.py/portal/ekuatia/detail?content-id=/repository/collaboration/sites/ekuatia/documents/documentacion/documentacion-tecnica/NT_E_KUATIA_013_MT_V150.pdf
-                // E737 = [100 * EA008 * (100 – E733)] / [10000 + (E734 * E733)]
-                this.dBasExe = (dTotOpeItem.multiply(hundred.subtract(propIVA)).multiply(hundred)).divide((this.dTasaIVA.multiply(dPropIVA)).add(BigDecimal.valueOf(10000)), scale, RoundingMode.HALF_UP);
-            } else {
-                this.dBasExe = BigDecimal.valueOf(0);
-            }
+        if (generationCtx.isHabilitarNotaTecnica13())
             gCamIVA.addChildElement("dBasExe").setTextContent(String.valueOf(this.dBasExe));
-        }
-
     }
 
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         switch (value.getLocalName()) {
             case "iAfecIVA":
                 this.iAfecIVA = TiAfecIVA.getByVal(Short.parseShort(ResponseUtil.getTextValue(value)));
@@ -3,13 +3,13 @@ package com.roshka.sifen.core.fields.request.de;
 import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.core.types.*;
 import com.roshka.sifen.internal.ctx.GenerationCtx;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.response.SifenObjectFactory;
 import com.roshka.sifen.internal.util.ResponseUtil;
 import com.roshka.sifen.internal.util.SifenUtil;
-import org.w3c.dom.Node;
+import com.roshka.sifen.internal.xml.XmlElement;
 
-import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
 import java.math.BigDecimal;
 
@@ -35,7 +35,29 @@ public class TgCamItem extends SifenObjectBase {
     private TgRasMerc gRasMerc;
     private TgVehNuevo gVehNuevo;
 
-    public void setupSOAPElements(GenerationCtx generationCtx, SOAPElement gDtipDE, TTiDE iTiDE, TdDatGralOpe gDatGralOpe) throws SOAPException {
+    /**
+     * Calcula los montos del ítem y de su IVA, sin generar ningún elemento XML.
+     *
+     * @param iTiDE       Tipo de Documento Electrónico.
+     * @param gDatGralOpe Datos generales de la operación del DE al que pertenece el ítem.
+     */
+    public void calcularMontos(TTiDE iTiDE, TdDatGralOpe gDatGralOpe) {
+        this.calcularMontos(iTiDE, gDatGralOpe.getgOpeCom());
+    }
+
+    void calcularMontos(TTiDE iTiDE, TgOpeCom gOpeCom) {
+        TTImp iTImp = gOpeCom != null ? gOpeCom.getiTImp() : null;
+        CMondT cMoneOpe = gOpeCom != null ? gOpeCom.getcMoneOpe() : null;
+
+        if (iTiDE.getVal() != 7) {
+            this.gValorItem.calcularMontos(iTiDE, gOpeCom != null ? gOpeCom.getdCondTiCam() : null, iTImp, this.dCantProSer, cMoneOpe);
+        }
+
+        if (this.hasIVA(iTiDE, iTImp))
+            this.gCamIVA.calcularMontos(cMoneOpe, this.gValorItem.getgValorRestaItem().getdTotOpeItem());
+    }
+
+    public void setupSOAPElements(GenerationCtx generationCtx, XmlElement gDtipDE, TTiDE iTiDE, TdDatGralOpe gDatGralOpe) throws SOAPException {
         TiTiOpe iTiOpe = gDatGralOpe.getgDatRec().getiTiOpe();
         TTipTra iTipTra = null;
         TdCondTiCam dCondTiCam = null;
@@ -48,7 +70,7 @@ public class TgCamItem extends SifenObjectBase {
             cMoneOpe = gDatGralOpe.getgOpeCom().getcMoneOpe();
         }
 
-        SOAPElement gCamItem = gDtipDE.addChildElement("gCamItem");
+        XmlElement gCamItem = gDtipDE.addChildElement("gCamItem");
         gCamItem.addChildElement("dCodInt").setTextContent(this.dCodInt);
 
         if (this.dParAranc != 0)
@@ -96,11 +118,11 @@ public class TgCamItem extends SifenObjectBase {
             gCamItem.addChildElement("dCDCAnticipo").setTextContent(this.dCDCAnticipo);
 
         if (iTiDE.getVal() != 7) {
-            this.gValorItem.setupSOAPElements(gCamItem, iTiDE, dCondTiCam, iTImp, this.dCantProSer, cMoneOpe);
+            this.gValorItem.setupSOAPElements(gCamItem, dCondTiCam, cMoneOpe);
         }
 
-        if (iTImp != null && (iTImp.getVal() == 1 || iTImp.getVal() == 3 || iTImp.getVal() == 4 || iTImp.getVal() == 5) && iTiDE.getVal() != 4 && iTiDE.getVal() != 7)
-            this.gCamIVA.setupSOAPElements(generationCtx, gCamItem, cMoneOpe, this.gValorItem.getgValorRestaItem().getdTotOpeItem());
+        if (this.hasIVA(iTiDE, iTImp))
+            this.gCamIVA.setupSOAPElements(generationCtx, gCamItem);
 
         if (this.gRasMerc != null)
             this.gRasMerc.setupSOAPElements(gCamItem);
@@ -109,8 +131,13 @@ public class TgCamItem extends SifenObjectBase {
             this.gVehNuevo.setupSOAPElements(gCamItem);
     }
 
+    private boolean hasIVA(TTiDE iTiDE, TTImp iTImp) {
+        return iTImp != null && (iTImp.getVal() == 1 || iTImp.getVal() == 3 || iTImp.getVal() == 4 || iTImp.getVal() == 5)
+                && iTiDE.getVal() != 4 && iTiDE.getVal() != 7;
+    }
+
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         switch (value.getLocalName()) {
             case "dCodInt":
                 this.dCodInt = ResponseUtil.getTextValue(value);
@@ -2,11 +2,11 @@ package com.roshka.sifen.core.fields.request.de;
 
 import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.core.types.TDepartamento;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.util.ResponseUtil;
-import org.w3c.dom.Node;
+import com.roshka.sifen.internal.xml.XmlElement;
 
-import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
 
 public class TgCamSal extends SifenObjectBase {
@@ -21,8 +21,8 @@ public class TgCamSal extends SifenObjectBase {
     private String dDesCiuSal;
     private String dTelSal;
 
-    public void setupSOAPElements(SOAPElement gTransp) throws SOAPException {
-        SOAPElement gCamSal = gTransp.addChildElement("gCamSal");
+    public void setupSOAPElements(XmlElement gTransp) throws SOAPException {
+        XmlElement gCamSal = gTransp.addChildElement("gCamSal");
         gCamSal.addChildElement("dDirLocSal").setTextContent(this.dDirLocSal);
         gCamSal.addChildElement("dNumCasSal").setTextContent(String.valueOf(this.dNumCasSal));
 
@@ -48,7 +48,7 @@ public class TgCamSal extends SifenObjectBase {
     }
 
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         switch (value.getLocalName()) {
             case "dDirLocSal":
                 this.dDirLocSal = ResponseUtil.getTextValue(value);
@@ -4,11 +4,11 @@ import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.core.types.PaisType;
 import com.roshka.sifen.core.types.TiNatRec;
 import com.roshka.sifen.core.types.TiTipDoc;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.util.ResponseUtil;
-import org.w3c.dom.Node;
+import com.roshka.sifen.internal.xml.XmlElement;
 
-import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
 
 public class TgCamTrans extends SifenObjectBase {
@@ -28,8 +28,8 @@ public class TgCamTrans extends SifenObjectBase {
     private short dDVAg;
     private String dDirAge;
 
-    public void setupSOAPElements(SOAPElement gTransp) throws SOAPException {
-        SOAPElement gCamTrans = gTransp.addChildElement("gCamTrans");
+    public void setupSOAPElements(XmlElement gTransp) throws SOAPException {
+        XmlElement gCamTrans = gTransp.addChildElement("gCamTrans");
         gCamTrans.addChildElement("iNatTrans").setTextContent(String.valueOf(this.iNatTrans.getVal()));
         gCamTrans.addChildElement("dNomTrans").setTextContent(this.dNomTrans);
 
@@ -69,7 +69,7 @@ public class TgCamTrans extends SifenObjectBase {
     }
 
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         switch (value.getLocalName()) {
             case "iNatTrans":
                 this.iNatTrans = TiNatRec.getByVal(Short.parseShort(ResponseUtil.getTextValue(value)));
@@ -1,11 +1,11 @@
 package com.roshka.sifen.core.fields.request.de;
 
 import com.roshka.sifen.core.exceptions.SifenException;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.util.ResponseUtil;
-import org.w3c.dom.Node;
+import com.roshka.sifen.internal.xml.XmlElement;
 
-import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
 import java.time.LocalDate;
 
@@ -16,8 +16,8 @@ public class TgCompPub extends SifenObjectBase {
     private int dSecCont;
     private LocalDate dFeCodCont;
 
-    public void setupSOAPElements(SOAPElement gCamFE) throws SOAPException {
-        SOAPElement gCompPub = gCamFE.addChildElement("gCompPub");
+    public void setupSOAPElements(XmlElement gCamFE) throws SOAPException {
+        XmlElement gCompPub = gCamFE.addChildElement("gCompPub");
         gCompPub.addChildElement("dModCont").setTextContent(this.dModCont);
         gCompPub.addChildElement("dEntCont").setTextContent(String.valueOf(this.dEntCont));
         gCompPub.addChildElement("dAnoCont").setTextContent(String.valueOf(this.dAnoCont));
@@ -26,7 +26,7 @@ public class TgCompPub extends SifenObjectBase {
     }
 
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         switch (value.getLocalName()) {
             case "dModCont":
                 this.dModCont = ResponseUtil.getTextValue(value);
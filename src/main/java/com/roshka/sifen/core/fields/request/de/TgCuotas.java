@@ -2,11 +2,11 @@ package com.roshka.sifen.core.fields.request.de;
 
 import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.core.types.CMondT;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.util.ResponseUtil;
-import org.w3c.dom.Node;
+import com.roshka.sifen.internal.xml.XmlElement;
 
-import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -16,8 +16,8 @@ public class TgCuotas extends SifenObjectBase {
     private BigDecimal dMonCuota;
     private LocalDate dVencCuo;
 
-    public void setupSOAPElements(SOAPElement gPagCred) throws SOAPException {
-        SOAPElement gCuotas = gPagCred.addChildElement("gCuotas");
+    public void setupSOAPElements(XmlElement gPagCred) throws SOAPException {
+        XmlElement gCuotas = gPagCred.addChildElement("gCuotas");
         gCuotas.addChildElement("cMoneCuo").setTextContent(this.cMoneCuo.name());
         gCuotas.addChildElement("dDMoneCuo").setTextContent(this.cMoneCuo.getDescripcion());
         gCuotas.addChildElement("dMonCuota").setTextContent(String.valueOf(this.dMonCuota));
@@ -27,7 +27,7 @@ public class TgCuotas extends SifenObjectBase {
     }
 
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         switch (value.getLocalName()) {
             case "cMoneCuo":
                 this.cMoneCuo = CMondT.getByName(ResponseUtil.getTextValue(value));
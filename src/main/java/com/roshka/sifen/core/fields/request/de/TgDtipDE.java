@@ -4,11 +4,11 @@ import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.core.types.TTiDE;
 import com.roshka.sifen.core.types.TiTiOpe;
 import com.roshka.sifen.internal.ctx.GenerationCtx;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.response.SifenObjectFactory;
-import org.w3c.dom.Node;
+import com.roshka.sifen.internal.xml.XmlElement;
 
-import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
 import java.util.ArrayList;
 import java.util.List;
@@ -23,10 +23,23 @@ public class TgDtipDE extends SifenObjectBase {
     private TgCamEsp gCamEsp;
     private TgTransp gTransp;
 
-    public void setupSOAPElements(GenerationCtx generationCtx, SOAPElement DE, TTiDE iTiDE, TdDatGralOpe gDatGralOpe) throws SOAPException {
+    /**
+     * Calcula los montos de todos los ítems del documento, sin generar ningún elemento XML. Los valores calculados
+     * quedan establecidos en cada ítem, y son los que se emiten luego al generar el XML.
+     *
+     * @param iTiDE       Tipo de Documento Electrónico.
+     * @param gDatGralOpe Datos generales de la operación del DE.
+     */
+    public void calcularMontos(TTiDE iTiDE, TdDatGralOpe gDatGralOpe) {
+        for (TgCamItem gCamItem : this.gCamItemList) {
+            gCamItem.calcularMontos(iTiDE, gDatGralOpe);
+        }
+    }
+
+    public void setupSOAPElements(GenerationCtx generationCtx, XmlElement DE, TTiDE iTiDE, TdDatGralOpe gDatGralOpe) throws SOAPException {
         TiTiOpe iTiOpe = gDatGralOpe.getgDatRec().getiTiOpe();
 
-        SOAPElement gDtipDE = DE.addChildElement("gDtipDE");
+        XmlElement gDtipDE = DE.addChildElement("gDtipDE");
         if (iTiDE.getVal() == 1)
             this.gCamFE.setupSOAPElements(gDtipDE, iTiOpe);
         else if (iTiDE.getVal() == 4)
@@ -51,7 +64,7 @@ public class TgDtipDE extends SifenObjectBase {
     }
 
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         switch (value.getLocalName()) {
             case "gCamFE":
                 this.gCamFE = SifenObjectFactory.getFromNode(value, TgCamFE.class);
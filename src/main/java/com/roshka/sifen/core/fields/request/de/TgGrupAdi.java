@@ -1,11 +1,11 @@
 package com.roshka.sifen.core.fields.request.de;
 
 import com.roshka.sifen.core.exceptions.SifenException;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.util.ResponseUtil;
-import org.w3c.dom.Node;
+import com.roshka.sifen.internal.xml.XmlElement;
 
-import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -20,8 +20,8 @@ public class TgGrupAdi extends SifenObjectBase {
     private String dContrato;
     private BigDecimal dSalAnt;
 
-    public void setupSOAPElements(SOAPElement gCamEsp) throws SOAPException {
-        SOAPElement gGrupAdi = gCamEsp.addChildElement("gGrupAdi");
+    public void setupSOAPElements(XmlElement gCamEsp) throws SOAPException {
+        XmlElement gGrupAdi = gCamEsp.addChildElement("gGrupAdi");
         if (this.dCiclo != null) {
             gGrupAdi.addChildElement("dCiclo").setTextContent(this.dCiclo);
             gGrupAdi.addChildElement("dFecIniC").setTextContent(this.dFecIniC.toString());
@@ -42,7 +42,7 @@ public class TgGrupAdi extends SifenObjectBase {
     }
 
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         switch (value.getLocalName()) {
             case "dCiclo":
                 this.dCiclo = ResponseUtil.getTextValue(value);
@@ -1,11 +1,11 @@
 package com.roshka.sifen.core.fields.request.de;
 
 import com.roshka.sifen.core.exceptions.SifenException;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.util.ResponseUtil;
-import org.w3c.dom.Node;
+import com.roshka.sifen.internal.xml.XmlElement;
 
-import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
 import java.math.BigDecimal;
 
@@ -17,8 +17,8 @@ public class TgGrupEner extends SifenObjectBase {
     private BigDecimal dLecAct;
     private BigDecimal dConKwh;
 
-    public void setupSOAPElements(SOAPElement gCamEsp) throws SOAPException {
-        SOAPElement gGrupEner = gCamEsp.addChildElement("gGrupEner");
+    public void setupSOAPElements(XmlElement gCamEsp) throws SOAPException {
+        XmlElement gGrupEner = gCamEsp.addChildElement("gGrupEner");
         if (this.dNroMed != null)
             gGrupEner.addChildElement("dNroMed").setTextContent(this.dNroMed);
 
@@ -39,7 +39,7 @@ public class TgGrupEner extends SifenObjectBase {
     }
 
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         switch (value.getLocalName()) {
             case "dNroMed":
                 this.dNroMed = ResponseUtil.getTextValue(value);
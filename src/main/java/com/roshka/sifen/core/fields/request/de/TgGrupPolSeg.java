@@ -1,11 +1,11 @@
 package com.roshka.sifen.core.fields.request.de;
 
 import com.roshka.sifen.core.exceptions.SifenException;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.util.ResponseUtil;
-import org.w3c.dom.Node;
+import com.roshka.sifen.internal.xml.XmlElement;
 
-import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -20,10 +20,10 @@ public class TgGrupPolSeg extends SifenObjectBase {
     private LocalDateTime dFecFinVig;
     private String dCodInt;
 
-    public void setupSOAPElements(SOAPElement gGrupSeg) throws SOAPException {
+    public void setupSOAPElements(XmlElement gGrupSeg) throws SOAPException {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
 
-        SOAPElement gGrupPolSeg = gGrupSeg.addChildElement("gGrupPolSeg");
+        XmlElement gGrupPolSeg = gGrupSeg.addChildElement("gGrupPolSeg");
         gGrupPolSeg.addChildElement("dPoliza").setTextContent(this.dPoliza);
         gGrupPolSeg.addChildElement("dUnidVig").setTextContent(this.dUnidVig);
         gGrupPolSeg.addChildElement("dVigencia").setTextContent(String.valueOf(this.dVigencia));
@@ -40,7 +40,7 @@ public class TgGrupPolSeg extends SifenObjectBase {
     }
 
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         switch (value.getLocalName()) {
             case "dPoliza":
                 this.dPoliza = ResponseUtil.getTextValue(value);
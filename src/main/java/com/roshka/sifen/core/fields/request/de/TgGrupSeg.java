@@ -1,12 +1,12 @@
 package com.roshka.sifen.core.fields.request.de;
 
 import com.roshka.sifen.core.exceptions.SifenException;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.response.SifenObjectFactory;
 import com.roshka.sifen.internal.util.ResponseUtil;
-import org.w3c.dom.Node;
+import com.roshka.sifen.internal.xml.XmlElement;
 
-import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
 import java.util.ArrayList;
 import java.util.List;
@@ -15,8 +15,8 @@ public class TgGrupSeg extends SifenObjectBase {
     private String dCodEmpSeg;
     private List<TgGrupPolSeg> gGrupPolSegList;
 
-    public void setupSOAPElements(SOAPElement gCamEsp) throws SOAPException {
-        SOAPElement gGrupSeg = gCamEsp.addChildElement("gGrupSeg");
+    public void setupSOAPElements(XmlElement gCamEsp) throws SOAPException {
+        XmlElement gGrupSeg = gCamEsp.addChildElement("gGrupSeg");
         if (this.dCodEmpSeg != null)
             gGrupSeg.addChildElement("dCodEmpSeg").setTextContent(this.dCodEmpSeg);
 
@@ -26,7 +26,7 @@ public class TgGrupSeg extends SifenObjectBase {
     }
 
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         if (value.getLocalName().equals("dCodEmpSeg")) {
             this.dCodEmpSeg = ResponseUtil.getTextValue(value);
         } else if (value.getLocalName().equals("gGrupPolSeg")) {
@@ -1,11 +1,11 @@
 package com.roshka.sifen.core.fields.request.de;
 
 import com.roshka.sifen.core.exceptions.SifenException;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.util.ResponseUtil;
-import org.w3c.dom.Node;
+import com.roshka.sifen.internal.xml.XmlElement;
 
-import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
 import java.math.BigDecimal;
 
@@ -16,8 +16,8 @@ public class TgGrupSup extends SifenObjectBase {
     private BigDecimal dDonac;
     private String dDesDonac;
 
-    public void setupSOAPElements(SOAPElement gCamEsp) throws SOAPException {
-        SOAPElement gGrupSup = gCamEsp.addChildElement("gGrupSup");
+    public void setupSOAPElements(XmlElement gCamEsp) throws SOAPException {
+        XmlElement gGrupSup = gCamEsp.addChildElement("gGrupSup");
         if (this.dNomCaj != null)
             gGrupSup.addChildElement("dNomCaj").setTextContent(this.dNomCaj);
 
@@ -35,7 +35,7 @@ public class TgGrupSup extends SifenObjectBase {
     }
 
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         switch (value.getLocalName()) {
             case "dNomCaj":
                 this.dNomCaj = ResponseUtil.getTextValue(value);
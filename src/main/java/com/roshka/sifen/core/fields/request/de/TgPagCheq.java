@@ -1,26 +1,26 @@
 package com.roshka.sifen.core.fields.request.de;
 
 import com.roshka.sifen.core.exceptions.SifenException;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.util.ResponseUtil;
 import com.roshka.sifen.internal.util.SifenUtil;
-import org.w3c.dom.Node;
+import com.roshka.sifen.internal.xml.XmlElement;
 
-import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
 
 public class TgPagCheq extends SifenObjectBase {
     private String dNumCheq;
     private String dBcoEmi;
 
-    public void setupSOAPElements(SOAPElement gPaConEIni) throws SOAPException {
-        SOAPElement gPagCheq = gPaConEIni.addChildElement("gPagCheq");
+    public void setupSOAPElements(XmlElement gPaConEIni) throws SOAPException {
+        XmlElement gPagCheq = gPaConEIni.addChildElement("gPagCheq");
         gPagCheq.addChildElement("dNumCheq").setTextContent(this.dNumCheq);
         gPagCheq.addChildElement("dBcoEmi").setTextContent(this.dBcoEmi);
     }
 
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         if (value.getLocalName().equals("dNumCheq")) {
             this.dNumCheq = ResponseUtil.getTextValue(value);
         } else if (value.getLocalName().equals("dBcoEmi")) {
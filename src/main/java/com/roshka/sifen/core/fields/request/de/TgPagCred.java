@@ -2,12 +2,12 @@ package com.roshka.sifen.core.fields.request.de;
 
 import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.core.types.TiCondCred;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.response.SifenObjectFactory;
 import com.roshka.sifen.internal.util.ResponseUtil;
-import org.w3c.dom.Node;
+import com.roshka.sifen.internal.xml.XmlElement;
 
-import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -20,8 +20,8 @@ public class TgPagCred extends SifenObjectBase {
     private BigDecimal dMonEnt;
     private List<TgCuotas> gCuotasList;
 
-    public void setupSOAPElements(SOAPElement gCamCond) throws SOAPException {
-        SOAPElement gPagCred = gCamCond.addChildElement("gPagCred");
+    public void setupSOAPElements(XmlElement gCamCond) throws SOAPException {
+        XmlElement gPagCred = gCamCond.addChildElement("gPagCred");
         gPagCred.addChildElement("iCondCred").setTextContent(String.valueOf(this.iCondCred.getVal()));
         gPagCred.addChildElement("dDCondCred").setTextContent(this.iCondCred.getDescripcion());
 
@@ -42,7 +42,7 @@ public class TgPagCred extends SifenObjectBase {
     }
 
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         switch (value.getLocalName()) {
             case "iCondCred":
                 this.iCondCred = TiCondCred.getByVal(Short.parseShort(ResponseUtil.getTextValue(value)));
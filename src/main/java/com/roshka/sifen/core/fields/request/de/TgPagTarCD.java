@@ -3,11 +3,11 @@ package com.roshka.sifen.core.fields.request.de;
 import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.core.types.TiDenTarj;
 import com.roshka.sifen.core.types.TiForProPa;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.util.ResponseUtil;
-import org.w3c.dom.Node;
+import com.roshka.sifen.internal.xml.XmlElement;
 
-import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
 
 public class TgPagTarCD extends SifenObjectBase {
@@ -21,8 +21,8 @@ public class TgPagTarCD extends SifenObjectBase {
     private String dNomTit;
     private short dNumTarj;
 
-    public void setupSOAPElements(SOAPElement gPaConEIni) throws SOAPException {
-        SOAPElement gPagTarCD = gPaConEIni.addChildElement("gPagTarCD");
+    public void setupSOAPElements(XmlElement gPaConEIni) throws SOAPException {
+        XmlElement gPagTarCD = gPaConEIni.addChildElement("gPagTarCD");
         gPagTarCD.addChildElement("iDenTarj").setTextContent(String.valueOf(this.iDenTarj.getVal()));
         gPagTarCD.addChildElement("dDesDenTarj").setTextContent(this.iDenTarj.getDescripcion());
 
@@ -48,7 +48,7 @@ public class TgPagTarCD extends SifenObjectBase {
     }
 
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         switch (value.getLocalName()) {
             case "iDenTarj":
                 this.iDenTarj = TiDenTarj.getByVal(Short.parseShort(ResponseUtil.getTextValue(value)));
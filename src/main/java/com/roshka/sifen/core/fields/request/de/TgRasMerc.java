@@ -1,11 +1,11 @@
 package com.roshka.sifen.core.fields.request.de;
 
 import com.roshka.sifen.core.exceptions.SifenException;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.util.ResponseUtil;
-import org.w3c.dom.Node;
+import com.roshka.sifen.internal.xml.XmlElement;
 
-import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
 import java.time.LocalDate;
 
@@ -21,8 +21,8 @@ public class TgRasMerc extends SifenObjectBase {
     private String dNumReg;
     private String dNumRegEntCom;
 
-    public void setupSOAPElements(SOAPElement gCamItem) throws SOAPException {
-        SOAPElement gRasMerc = gCamItem.addChildElement("gRasMerc");
+    public void setupSOAPElements(XmlElement gCamItem) throws SOAPException {
+        XmlElement gRasMerc = gCamItem.addChildElement("gRasMerc");
         if (this.dNumLote != null)
             gRasMerc.addChildElement("dNumLote").setTextContent(this.dNumLote);
 
@@ -55,7 +55,7 @@ public class TgRasMerc extends SifenObjectBase {
     }
 
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         switch (value.getLocalName()) {
             case "dNumLote":
                 this.dNumLote = ResponseUtil.getTextValue(value);
@@ -2,12 +2,12 @@ package com.roshka.sifen.core.fields.request.de;
 
 import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.core.types.TiTipIDRespDE;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.util.ResponseUtil;
 import com.roshka.sifen.internal.util.SifenUtil;
-import org.w3c.dom.Node;
+import com.roshka.sifen.internal.xml.XmlElement;
 
-import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
 
 public class TgRespDE extends SifenObjectBase {
@@ -17,8 +17,8 @@ public class TgRespDE extends SifenObjectBase {
     private String dNomRespDE;
     private String dCarRespDE;
 
-    public void setupSOAPElements(SOAPElement gEmis) throws SOAPException {
-        SOAPElement gRespDE = gEmis.addChildElement("gRespDE");
+    public void setupSOAPElements(XmlElement gEmis) throws SOAPException {
+        XmlElement gRespDE = gEmis.addChildElement("gRespDE");
         gRespDE.addChildElement("iTipIDRespDE").setTextContent(String.valueOf(this.iTipIDRespDE.getVal()));
         gRespDE.addChildElement("dDTipIDRespDE").setTextContent(SifenUtil.coalesce(this.iTipIDRespDE.getDescripcion(), this.dDTipIDRespDE));
         gRespDE.addChildElement("dNumIDRespDE").setTextContent(this.dNumIDRespDE);
@@ -27,7 +27,7 @@ public class TgRespDE extends SifenObjectBase {
     }
 
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         switch (value.getLocalName()) {
             case "iTipIDRespDE":
                 this.iTipIDRespDE = TiTipIDRespDE.getByVal(Short.parseShort(ResponseUtil.getTextValue(value)));
@@ -2,12 +2,12 @@ package com.roshka.sifen.core.fields.request.de;
 
 import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.core.types.TTiDE;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.util.ResponseUtil;
 import com.roshka.sifen.internal.util.SifenUtil;
-import org.w3c.dom.Node;
+import com.roshka.sifen.internal.xml.XmlElement;
 
-import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
 import java.time.LocalDate;
 
@@ -20,8 +20,8 @@ public class TgTimb extends SifenObjectBase {
     private String dSerieNum;   // número de serie del timbrado (opcional)
     private LocalDate dFeIniT;  // fecha de inicio de vigencia del timbrado
 
-    public void setupSOAPElements(SOAPElement DE) throws SOAPException {
-        SOAPElement gTimb = DE.addChildElement("gTimb");
+    public void setupSOAPElements(XmlElement DE) throws SOAPException {
+        XmlElement gTimb = DE.addChildElement("gTimb");
         gTimb.addChildElement("iTiDE").setTextContent(String.valueOf(this.iTiDE.getVal()));
         gTimb.addChildElement("dDesTiDE").setTextContent(this.iTiDE.getDescripcion());
         gTimb.addChildElement("dNumTim").setTextContent(String.valueOf(this.dNumTim));
@@ -34,7 +34,7 @@ public class TgTimb extends SifenObjectBase {
     }
 
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         switch (value.getLocalName()) {
             case "iTiDE":
                 this.iTiDE = TTiDE.getByVal(Short.parseShort(ResponseUtil.getTextValue(value)));
@@ -6,19 +6,22 @@ import com.roshka.sifen.core.types.CMondT;
 import com.roshka.sifen.core.types.TTImp;
 import com.roshka.sifen.core.types.TTiDE;
 import com.roshka.sifen.core.types.TdCondTiCam;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.util.ResponseUtil;
+import com.roshka.sifen.internal.util.ScaledDecimal;
 import com.roshka.sifen.internal.util.SifenUtil;
-import org.w3c.dom.Node;
+import com.roshka.sifen.internal.xml.XmlElement;
 
-import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 
 import static com.roshka.sifen.core.fields.util.FieldFormatUtil.formattdCRed;
 
 public class TgTotSub extends SifenObjectBase {
+    private final static ScaledDecimal HUNDRED = ScaledDecimal.valueOf(100, 0);
+    private final static ScaledDecimal DIVISOR_BASE_10 = ScaledDecimal.valueOf(11, 1);
+
     private BigDecimal dSubExe = BigDecimal.ZERO;
     private BigDecimal dSubExo = BigDecimal.ZERO;
     private BigDecimal dSub5 = BigDecimal.ZERO;
@@ -45,9 +48,34 @@ public class TgTotSub extends SifenObjectBase {
     private BigDecimal dTBasGraIVA = BigDecimal.ZERO;
     private BigDecimal dTotalGs = BigDecimal.ZERO;
 
-    public void setupSOAPElements(SOAPElement DE, TTiDE iTiDE, TgDtipDE gDtipDE, TgOpeCom gOpeCom) throws SOAPException {
+    /**
+     * Calcula los subtotales y totales del documento a partir de los montos ya calculados de sus ítems, sin generar
+     * ningún elemento XML.
+     *
+     * @param iTiDE   Tipo de Documento Electrónico.
+     * @param gDtipDE Campos específicos del tipo de documento, con los montos de los ítems ya calculados.
+     * @param gOpeCom Campos de la operación comercial.
+     * @see TgDtipDE#calcularMontos(TTiDE, TdDatGralOpe)
+     */
+    public void calcularMontos(TTiDE iTiDE, TgDtipDE gDtipDE, TgOpeCom gOpeCom) {
+        AcumuladorTotales acumulador = new AcumuladorTotales(iTiDE, gOpeCom);
+        for (TgCamItem gCamItem : gDtipDE.getgCamItemList()) {
+            acumulador.sumar(gCamItem);
+        }
+        this.calcularMontos(acumulador);
+    }
+
+    /**
+     * Calcula los subtotales y totales del documento a partir de las sumas de un acumulador, sin recorrer los ítems ni
+     * generar ningún elemento XML.
+     *
+     * @param acumulador Acumulador con los montos de los ítems del documento.
+     */
+    public void calcularMontos(AcumuladorTotales acumulador) {
         resetValues();
 
+        TTiDE iTiDE = acumulador.getiTiDE();
+        TgOpeCom gOpeCom = acumulador.getgOpeCom();
         TTImp iTImp = gOpeCom.getiTImp();
         CMondT cMoneOpe = gOpeCom.getcMoneOpe();
         TdCondTiCam dCondTiCam = gOpeCom.getdCondTiCam();
@@ -55,70 +83,73 @@ public class TgTotSub extends SifenObjectBase {
 
         int scale = cMoneOpe == CMondT.PYG ? 0 : 2;
 
-        SOAPElement gTotSub = DE.addChildElement("gTotSub");
-
         // CALCULOS
-        for (TgCamItem gCamItem : gDtipDE.getgCamItemList()) {
-            TgCamIVA gCamIVA = gCamItem.getgCamIVA();
-            BigDecimal dTotOpeItem = gCamItem.getgValorItem().getgValorRestaItem().getdTotOpeItem();
-
-            dTotOpeItem = dTotOpeItem.setScale(scale, RoundingMode.HALF_UP);
-            if (gCamIVA != null) {
-                BigDecimal dLiqIVAItem = gCamIVA.getdLiqIVAItem();
-                BigDecimal dBasGravIVA = gCamIVA.getdBasGravIVA();
-
-                if (gCamIVA.getiAfecIVA().getVal() == 1 || gCamIVA.getiAfecIVA().getVal() == 4) {
-                    if (gCamIVA.getdTasaIVA().equals(BigDecimal.valueOf(10))) {
-                        this.dSub10 = this.dSub10.add(dTotOpeItem);
-                        this.dIVA10 = this.dIVA10.add(dLiqIVAItem);
-                        this.dBaseGrav10 = this.dBaseGrav10.add(dBasGravIVA);
-                        this.dLiqTotIVA10 = BigDecimal.ZERO;
-                    } else if (gCamIVA.getdTasaIVA().equals(BigDecimal.valueOf(5))) {
-                        this.dSub5 = this.dSub5.add(dTotOpeItem);
-                        this.dIVA5 = this.dIVA5.add(dLiqIVAItem);
-                        this.dBaseGrav5 = this.dBaseGrav5.add(dBasGravIVA);
-                        this.dLiqTotIVA5 = BigDecimal.ZERO;
-                    }
-                } else if (gCamIVA.getiAfecIVA().getVal() == 2) {
-                    this.dSubExo = this.dSubExo.add(dTotOpeItem);
-                } else if (gCamIVA.getiAfecIVA().getVal() == 3) {
-                    this.dSubExe = this.dSubExe.add(dTotOpeItem);
-                }
-            }
-
-            if (iTiDE.getVal() == 4)
-                this.dTotOpe = this.dTotOpe.add(dTotOpeItem);
-
-            this.dTotDesc = this.dTotDesc.add(SifenUtil.coalesce(gCamItem.getgValorItem().getgValorRestaItem().getdDescItem().multiply(gCamItem.getdCantProSer()), BigDecimal.ZERO));
-            this.dTotDescGlotem = this.dTotDescGlotem.add(SifenUtil.coalesce(gCamItem.getgValorItem().getgValorRestaItem().getdDescGloItem(), BigDecimal.ZERO));
-            this.dTotAntItem = this.dTotAntItem.add(SifenUtil.coalesce(gCamItem.getgValorItem().getgValorRestaItem().getdAntPreUniIt(), BigDecimal.ZERO));
-            this.dTotAnt = this.dTotAnt.add(SifenUtil.coalesce(gCamItem.getgValorItem().getgValorRestaItem().getdAntGloPreUniIt(), BigDecimal.ZERO));
-
-            if (!cMoneOpe.name().equals("PYG") && dCondTiCam.getVal() == 2)
-                this.dTotalGs = this.dTotalGs.add(gCamItem.getgValorItem().getgValorRestaItem().getdTotOpeGs());
+        ScaledDecimal subExe = acumulador.total(AcumuladorTotales.SUB_EXE);
+        ScaledDecimal subExo = acumulador.total(AcumuladorTotales.SUB_EXO);
+        ScaledDecimal sub5 = acumulador.total(AcumuladorTotales.SUB_5);
+        ScaledDecimal sub10 = acumulador.total(AcumuladorTotales.SUB_10);
+        ScaledDecimal totOpe = ScaledDecimal.ZERO;
+        ScaledDecimal totDesc = acumulador.total(AcumuladorTotales.TOT_DESC);
+        ScaledDecimal totDescGlotem = acumulador.total(AcumuladorTotales.TOT_DESC_GLOTEM);
+        ScaledDecimal totAntItem = acumulador.total(AcumuladorTotales.TOT_ANT_ITEM);
+        ScaledDecimal totAnt = acumulador.total(AcumuladorTotales.TOT_ANT);
+        ScaledDecimal iva5 = acumulador.total(AcumuladorTotales.IVA_5);
+        ScaledDecimal iva10 = acumulador.total(AcumuladorTotales.IVA_10);
+        ScaledDecimal baseGrav5 = acumulador.total(AcumuladorTotales.BASE_GRAV_5);
+        ScaledDecimal baseGrav10 = acumulador.total(AcumuladorTotales.BASE_GRAV_10);
+        ScaledDecimal totalGs = acumulador.total(AcumuladorTotales.TOTAL_GS);
+
+        if (iTiDE.getVal() == 4) {
+            totOpe = acumulador.total(AcumuladorTotales.TOT_OPE_ITEM);
+        } else if (iTImp.getVal() == 1 || iTImp.getVal() == 3 || iTImp.getVal() == 4 || iTImp.getVal() == 5) {
+            totOpe = sub10.add(sub5).add(subExo).add(subExe);
         }
-
-        if (iTiDE.getVal() != 4 && (iTImp.getVal() == 1 || iTImp.getVal() == 3 || iTImp.getVal() == 4 || iTImp.getVal() == 5)) {
-            this.dTotOpe = this.dSub10.add(this.dSub5).add(this.dSubExo).add(this.dSubExe);
-        }
-        this.dDescTotal = this.dTotDesc.add(this.dTotDescGlotem);
-        this.dPorcDescTotal = this.dDescTotal.multiply(BigDecimal.valueOf(100)).divide(this.dTotOpe.add(this.dDescTotal), 2, RoundingMode.HALF_UP);
-        this.dAnticipo = this.dTotAntItem.add(this.dTotAnt);
+        ScaledDecimal descTotal = totDesc.add(totDescGlotem);
+        ScaledDecimal porcDescTotal = descTotal.multiply(HUNDRED).divide(totOpe.add(descTotal), 2);
+
+        this.dSubExe = subExe.toBigDecimal();
+        this.dSubExo = subExo.toBigDecimal();
+        this.dSub5 = sub5.toBigDecimal();
+        this.dSub10 = sub10.toBigDecimal();
+        this.dTotOpe = totOpe.toBigDecimal();
+        this.dTotDesc = totDesc.toBigDecimal();
+        this.dTotDescGlotem = totDescGlotem.toBigDecimal();
+        this.dTotAntItem = totAntItem.toBigDecimal();
+        this.dTotAnt = totAnt.toBigDecimal();
+        this.dDescTotal = descTotal.toBigDecimal();
+        this.dPorcDescTotal = porcDescTotal.toBigDecimal();
+        this.dAnticipo = totAntItem.add(totAnt).toBigDecimal();
+        this.dIVA5 = iva5.toBigDecimal();
+        this.dIVA10 = iva10.toBigDecimal();
+        this.dBaseGrav5 = baseGrav5.toBigDecimal();
+        this.dBaseGrav10 = baseGrav10.toBigDecimal();
 
         this.dRedon = RedondeoUtil.redondeoOficialSET(cMoneOpe, this.dTotOpe);
-        this.dTotGralOpe = this.dTotOpe.subtract(this.dRedon).add(SifenUtil.coalesce(this.dComi, BigDecimal.ZERO));
+        ScaledDecimal comi = SifenUtil.coalesce(ScaledDecimal.valueOf(this.dComi), ScaledDecimal.ZERO);
+        ScaledDecimal totGralOpe = totOpe.subtract(ScaledDecimal.valueOf(this.dRedon)).add(comi);
+        this.dTotGralOpe = totGralOpe.toBigDecimal();
 
+        ScaledDecimal ivaComi = ScaledDecimal.valueOf(this.dIVAComi);
         if (this.dComi != null) {
-            this.dIVAComi = this.dComi.divide(BigDecimal.valueOf(1.1), scale, RoundingMode.HALF_UP);
+            ivaComi = comi.divide(DIVISOR_BASE_10, scale);
+            this.dIVAComi = ivaComi.toBigDecimal();
         }
 
-        this.dTotIVA = this.dIVA5.add(this.dIVA10).subtract(this.dLiqTotIVA5).subtract(this.dLiqTotIVA10).add(this.dIVAComi);
-        this.dTBasGraIVA = this.dBaseGrav5.add(this.dBaseGrav10);
+        this.dTotIVA = iva5.add(iva10).subtract(ScaledDecimal.valueOf(this.dLiqTotIVA5)).subtract(ScaledDecimal.valueOf(this.dLiqTotIVA10))
+                .add(ivaComi).toBigDecimal();
+        this.dTBasGraIVA = baseGrav5.add(baseGrav10).toBigDecimal();
+
+        if (cMoneOpe != CMondT.PYG && dCondTiCam.getVal() == 1)
+            totalGs = totGralOpe.multiply(ScaledDecimal.valueOf(dTiCam));
+        this.dTotalGs = totalGs.toBigDecimal();
+    }
+
+    public void setupSOAPElements(XmlElement DE, TTiDE iTiDE, TgOpeCom gOpeCom) throws SOAPException {
+        TTImp iTImp = gOpeCom.getiTImp();
+        CMondT cMoneOpe = gOpeCom.getcMoneOpe();
 
-        if (!cMoneOpe.name().equals("PYG") && dCondTiCam.getVal() == 1)
-            this.dTotalGs = this.dTotGralOpe.multiply(dTiCam);
+        XmlElement gTotSub = DE.addChildElement("gTotSub");
 
-        // INSERCIONES
         if (iTiDE.getVal() != 4) {
             gTotSub.addChildElement("dSubExe").setTextContent(String.valueOf(this.dSubExe));
             gTotSub.addChildElement("dSubExo").setTextContent(String.valueOf(this.dSubExo));
@@ -176,7 +207,7 @@ public class TgTotSub extends SifenObjectBase {
     }
 
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         switch (value.getLocalName()) {
             case "dSubExe":
                 this.dSubExe = new BigDecimal(ResponseUtil.getTextValue(value));
@@ -2,12 +2,12 @@ package com.roshka.sifen.core.fields.request.de;
 
 import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.core.types.*;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.response.SifenObjectFactory;
 import com.roshka.sifen.internal.util.ResponseUtil;
-import org.w3c.dom.Node;
+import com.roshka.sifen.internal.xml.XmlElement;
 
-import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -28,8 +28,8 @@ public class TgTransp extends SifenObjectBase {
     private List<TgVehTras> gVehTrasList;
     private TgCamTrans gCamTrans;
 
-    public void setupSOAPElements(SOAPElement gDtipDE, TTiDE iTiDE, TiMotivTras iMotEmiNR) throws SOAPException {
-        SOAPElement gTransp = gDtipDE.addChildElement("gTransp");
+    public void setupSOAPElements(XmlElement gDtipDE, TTiDE iTiDE, TiMotivTras iMotEmiNR) throws SOAPException {
+        XmlElement gTransp = gDtipDE.addChildElement("gTransp");
 
         if (iTiDE.getVal() == 7 || this.iTipTrans != null) {
             gTransp.addChildElement("iTipTrans").setTextContent(String.valueOf(this.iTipTrans.getVal()));
@@ -80,7 +80,7 @@ public class TgTransp extends SifenObjectBase {
     }
 
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         switch (value.getLocalName()) {
             case "iTipTrans":
                 this.iTipTrans = TiTTrans.getByVal(Short.parseShort(ResponseUtil.getTextValue(value)));
@@ -5,15 +5,15 @@ import com.roshka.sifen.core.types.TTImp;
 import com.roshka.sifen.core.types.TTiDE;
 import com.roshka.sifen.core.types.TdCondTiCam;
 import com.roshka.sifen.core.types.CMondT;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.response.SifenObjectFactory;
 import com.roshka.sifen.internal.util.ResponseUtil;
-import org.w3c.dom.Node;
+import com.roshka.sifen.internal.util.ScaledDecimal;
+import com.roshka.sifen.internal.xml.XmlElement;
 
-import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 
 public class TgValorItem extends SifenObjectBase {
     private BigDecimal dPUniProSer;
@@ -21,24 +21,39 @@ public class TgValorItem extends SifenObjectBase {
     private BigDecimal dTotBruOpeItem;
     private TgValorRestaItem gValorRestaItem;
 
-    public void setupSOAPElements(SOAPElement gCamItem, TTiDE iTiDE, TdCondTiCam dCondTiCam, TTImp iTImp, BigDecimal dCantProSer, CMondT cMoneOpe) throws SOAPException {
-        SOAPElement gValorItem = gCamItem.addChildElement("gValorItem");
+    /**
+     * Calcula el valor total bruto del ítem y los valores del grupo de descuentos y anticipos, sin generar ningún
+     * elemento XML.
+     *
+     * @param iTiDE       Tipo de Documento Electrónico.
+     * @param dCondTiCam  Condición del tipo de cambio.
+     * @param iTImp       Tipo de impuesto afectado.
+     * @param dCantProSer Cantidad del ítem.
+     * @param cMoneOpe    Moneda de la operación.
+     */
+    public void calcularMontos(TTiDE iTiDE, TdCondTiCam dCondTiCam, TTImp iTImp, BigDecimal dCantProSer, CMondT cMoneOpe) {
+        // am2811
+        int scale = cMoneOpe == CMondT.PYG ? 0 : 2;
+        this.dTotBruOpeItem = ScaledDecimal.valueOf(this.dPUniProSer).multiply(ScaledDecimal.valueOf(dCantProSer))
+                .setScale(scale).toBigDecimal();
+
+        this.gValorRestaItem.calcularMontos(iTiDE, iTImp, dCondTiCam, this.dTiCamIt, this.dPUniProSer, dCantProSer);
+    }
+
+    public void setupSOAPElements(XmlElement gCamItem, TdCondTiCam dCondTiCam, CMondT cMoneOpe) throws SOAPException {
+        XmlElement gValorItem = gCamItem.addChildElement("gValorItem");
         gValorItem.addChildElement("dPUniProSer").setTextContent(String.valueOf(this.dPUniProSer));
 
         if (dCondTiCam != null && dCondTiCam.getVal() == 2)
             gValorItem.addChildElement("dTiCamIt").setTextContent(String.valueOf(this.dTiCamIt));
 
-        this.dTotBruOpeItem = this.dPUniProSer.multiply(dCantProSer);
-        // am2811
-        int scale = cMoneOpe.name().equals("PYG") ? 0 : 2;
-        this.dTotBruOpeItem = this.dTotBruOpeItem.setScale(scale, RoundingMode.HALF_UP);
         gValorItem.addChildElement("dTotBruOpeItem").setTextContent(String.valueOf(this.dTotBruOpeItem));
 
-        this.gValorRestaItem.setupSOAPElements(gValorItem, iTiDE, iTImp, dCondTiCam, this.dTiCamIt, this.dPUniProSer, dCantProSer, cMoneOpe);
+        this.gValorRestaItem.setupSOAPElements(gValorItem, dCondTiCam, cMoneOpe);
     }
 
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         switch (value.getLocalName()) {
             case "dPUniProSer":
                 this.dPUniProSer = new BigDecimal(ResponseUtil.getTextValue(value));
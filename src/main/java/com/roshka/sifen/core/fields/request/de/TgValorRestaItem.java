@@ -5,17 +5,20 @@ import com.roshka.sifen.core.types.TTImp;
 import com.roshka.sifen.core.types.TTiDE;
 import com.roshka.sifen.core.types.TdCondTiCam;
 import com.roshka.sifen.core.types.CMondT;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.util.ResponseUtil;
+import com.roshka.sifen.internal.util.ScaledDecimal;
 import com.roshka.sifen.internal.util.SifenUtil;
-import org.w3c.dom.Node;
+import com.roshka.sifen.internal.xml.XmlElement;
 
-import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 
 public class TgValorRestaItem extends SifenObjectBase {
+    private final static ScaledDecimal HUNDRED = ScaledDecimal.valueOf(100, 0);
+
     private BigDecimal dDescItem;
     private BigDecimal dPorcDesIt;
     private BigDecimal dDescGloItem;
@@ -28,14 +31,47 @@ public class TgValorRestaItem extends SifenObjectBase {
         this.dDescItem = BigDecimal.ZERO;
     }
 
-    public void setupSOAPElements(SOAPElement gValorItem, TTiDE iTiDE, TTImp iTImp, TdCondTiCam dCondTiCam, BigDecimal dTiCamIt,
-                                  BigDecimal dPUniProSer, BigDecimal dCantProSer, CMondT cMoneOpe) throws SOAPException {
-        SOAPElement gValorRestaItem = gValorItem.addChildElement("gValorRestaItem");
+    /**
+     * Calcula el porcentaje de descuento, el valor total de la operación y su equivalente en guaraníes del ítem, sin
+     * generar ningún elemento XML.
+     *
+     * @param iTiDE       Tipo de Documento Electrónico.
+     * @param iTImp       Tipo de impuesto afectado.
+     * @param dCondTiCam  Condición del tipo de cambio.
+     * @param dTiCamIt    Tipo de cambio del ítem.
+     * @param dPUniProSer Precio unitario del ítem.
+     * @param dCantProSer Cantidad del ítem.
+     */
+    public void calcularMontos(TTiDE iTiDE, TTImp iTImp, TdCondTiCam dCondTiCam, BigDecimal dTiCamIt,
+                               BigDecimal dPUniProSer, BigDecimal dCantProSer) {
+        ScaledDecimal precioUnitario = ScaledDecimal.valueOf(dPUniProSer);
+        ScaledDecimal cantidad = ScaledDecimal.valueOf(dCantProSer);
+        ScaledDecimal descItem = ScaledDecimal.valueOf(this.dDescItem);
+
+        if (this.dDescItem != null)
+            this.dPorcDesIt = descItem.multiply(HUNDRED).divide(precioUnitario, 2).toBigDecimal();
+
+        ScaledDecimal totOpeItem = ScaledDecimal.valueOf(this.dTotOpeItem);
+        if (iTiDE.getVal() == 4) {
+            totOpeItem = precioUnitario.multiply(cantidad);
+        } else if (iTImp != null && (iTImp.getVal() == 1 || iTImp.getVal() == 3 || iTImp.getVal() == 4 || iTImp.getVal() == 5)) {
+            totOpeItem = precioUnitario.subtract(SifenUtil.coalesce(descItem, ScaledDecimal.ZERO))
+                    .subtract(SifenUtil.coalesce(ScaledDecimal.valueOf(this.dDescGloItem), ScaledDecimal.ZERO))
+                    .subtract(SifenUtil.coalesce(ScaledDecimal.valueOf(this.dAntPreUniIt), ScaledDecimal.ZERO))
+                    .subtract(SifenUtil.coalesce(ScaledDecimal.valueOf(this.dAntGloPreUniIt), ScaledDecimal.ZERO))
+                    .multiply(cantidad);
+        }
+        this.dTotOpeItem = totOpeItem == null ? null : totOpeItem.toBigDecimal();
+
+        if (dCondTiCam != null && dCondTiCam.getVal() == 2)
+            this.dTotOpeGs = totOpeItem.multiply(ScaledDecimal.valueOf(dTiCamIt)).toBigDecimal();
+    }
+
+    public void setupSOAPElements(XmlElement gValorItem, TdCondTiCam dCondTiCam, CMondT cMoneOpe) throws SOAPException {
+        XmlElement gValorRestaItem = gValorItem.addChildElement("gValorRestaItem");
 
         if (this.dDescItem != null) {
             gValorRestaItem.addChildElement("dDescItem").setTextContent(String.valueOf(this.dDescItem));
-
-            this.dPorcDesIt = this.dDescItem.multiply(BigDecimal.valueOf(100)).divide(dPUniProSer, 2, RoundingMode.HALF_UP);
             gValorRestaItem.addChildElement("dPorcDesIt").setTextContent(String.valueOf(this.dPorcDesIt));
         }
 
@@ -45,28 +81,17 @@ public class TgValorRestaItem extends SifenObjectBase {
         gValorRestaItem.addChildElement("dAntPreUniIt").setTextContent(String.valueOf(SifenUtil.coalesce(this.dAntPreUniIt, BigDecimal.ZERO)));
         gValorRestaItem.addChildElement("dAntGloPreUniIt").setTextContent(String.valueOf(SifenUtil.coalesce(this.dAntGloPreUniIt, BigDecimal.ZERO)));
 
-        if (iTiDE.getVal() == 4) {
-            this.dTotOpeItem = dPUniProSer.multiply(dCantProSer);
-        } else if (iTImp != null && (iTImp.getVal() == 1 || iTImp.getVal() == 3 || iTImp.getVal() == 4 || iTImp.getVal() == 5)) {
-            this.dTotOpeItem = (dPUniProSer.subtract(SifenUtil.coalesce(this.dDescItem, BigDecimal.ZERO))
-                    .subtract(SifenUtil.coalesce(this.dDescGloItem, BigDecimal.ZERO))
-                    .subtract(SifenUtil.coalesce(this.dAntPreUniIt, BigDecimal.ZERO))
-                    .subtract(SifenUtil.coalesce(this.dAntGloPreUniIt, BigDecimal.ZERO)))
-                    .multiply(dCantProSer);
-        }
 //        gValorRestaItem.addChildElement("dTotOpeItem").setTextContent(String.valueOf(this.dTotOpeItem));
         //am 22_11
-        int scale = cMoneOpe.name().equals("PYG") ? 0 : 2;
+        int scale = cMoneOpe == CMondT.PYG ? 0 : 2;
         gValorRestaItem.addChildElement("dTotOpeItem").setTextContent(String.valueOf(this.dTotOpeItem.setScale(scale, RoundingMode.HALF_UP)));
 
-        if (dCondTiCam != null && dCondTiCam.getVal() == 2) {
-            this.dTotOpeGs = this.dTotOpeItem.multiply(dTiCamIt);
+        if (dCondTiCam != null && dCondTiCam.getVal() == 2)
             gValorRestaItem.addChildElement("dTotOpeGs").setTextContent(String.valueOf(this.dTotOpeGs));
-        }
     }
 
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         switch (value.getLocalName()) {
             case "dDescItem":
                 this.dDescItem = new BigDecimal(ResponseUtil.getTextValue(value));
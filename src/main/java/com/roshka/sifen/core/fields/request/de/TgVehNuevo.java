@@ -3,12 +3,12 @@ package com.roshka.sifen.core.fields.request.de;
 import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.core.types.TiTipCom;
 import com.roshka.sifen.core.types.TiTipOpVN;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.util.ResponseUtil;
 import com.roshka.sifen.internal.util.SifenUtil;
-import org.w3c.dom.Node;
+import com.roshka.sifen.internal.xml.XmlElement;
 
-import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
 import java.math.BigDecimal;
 
@@ -29,8 +29,8 @@ public class TgVehNuevo extends SifenObjectBase {
     private short dCapac;
     private String dCilin;
 
-    public void setupSOAPElements(SOAPElement gCamItem) throws SOAPException {
-        SOAPElement gVehNuevo = gCamItem.addChildElement("gVehNuevo");
+    public void setupSOAPElements(XmlElement gCamItem) throws SOAPException {
+        XmlElement gVehNuevo = gCamItem.addChildElement("gVehNuevo");
         if (this.iTipOpVN != null) {
             gVehNuevo.addChildElement("iTipOpVN").setTextContent(String.valueOf(this.iTipOpVN.getVal()));
             gVehNuevo.addChildElement("dDesTipOpVN").setTextContent(this.iTipOpVN.getDescripcion());
@@ -79,7 +79,7 @@ public class TgVehNuevo extends SifenObjectBase {
     }
 
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         switch (value.getLocalName()) {
             case "iTipOpVN":
                 this.iTipOpVN = TiTipOpVN.getByVal(Short.parseShort(ResponseUtil.getTextValue(value)));
@@ -2,11 +2,11 @@ package com.roshka.sifen.core.fields.request.de;
 
 import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.core.types.TiModTrans;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.util.ResponseUtil;
-import org.w3c.dom.Node;
+import com.roshka.sifen.internal.xml.XmlElement;
 
-import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
 
 public class TgVehTras extends SifenObjectBase {
@@ -18,8 +18,8 @@ public class TgVehTras extends SifenObjectBase {
     private String dNroMatVeh;
     private String dNroVuelo;
 
-    public void setupSOAPElements(SOAPElement gTransp, TiModTrans iModTrans) throws SOAPException {
-        SOAPElement gVehTras = gTransp.addChildElement("gVehTras");
+    public void setupSOAPElements(XmlElement gTransp, TiModTrans iModTrans) throws SOAPException {
+        XmlElement gVehTras = gTransp.addChildElement("gVehTras");
         gVehTras.addChildElement("dTiVehTras").setTextContent(this.dTiVehTras);
         gVehTras.addChildElement("dMarVeh").setTextContent(this.dMarVeh);
         gVehTras.addChildElement("dTipIdenVeh").setTextContent(String.valueOf(this.dTipIdenVeh));
@@ -38,7 +38,7 @@ public class TgVehTras extends SifenObjectBase {
     }
 
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         switch (value.getLocalName()) {
             case "dTiVehTras":
                 this.dTiVehTras = ResponseUtil.getTextValue(value);
@@ -1,9 +1,9 @@
 package com.roshka.sifen.core.fields.request.event;
 
 import com.roshka.sifen.core.exceptions.SifenException;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.util.ResponseUtil;
-import org.w3c.dom.Node;
 
 import java.time.LocalDateTime;
 
@@ -17,7 +17,7 @@ public class TrGeDevCCFFDev extends SifenObjectBase {
     private LocalDateTime dFeEmiRes;
 
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         switch (value.getLocalName()) {
             case "Id":
                 this.Id = ResponseUtil.getTextValue(value);
@@ -3,13 +3,11 @@ package com.roshka.sifen.core.fields.request.event;
 import com.roshka.sifen.core.SifenConfig;
 import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.internal.helpers.SignatureHelper;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.response.SifenObjectFactory;
 import com.roshka.sifen.internal.util.ResponseUtil;
 import org.w3c.dom.Attr;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 
 import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
@@ -42,14 +40,11 @@ public class TrGesEve extends SifenObjectBase {
     }
 
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         if (value.getLocalName().equals("rEve")) {
-            Element rEve = (Element) value;
-            this.Id = rEve.getAttribute("Id");
+            this.Id = ResponseUtil.getAttribute(value, "Id");
 
-            NodeList childNodes = value.getChildNodes();
-            for (int i = 0; i < childNodes.getLength(); i++) {
-                Node node = childNodes.item(i);
+            for (ChildNode node : SifenObjectFactory.getChildElements(value)) {
                 if (node.getLocalName().equals("dFecFirma")) {
                     this.dFecFirma = ResponseUtil.getDateTimeValue(node);
                 } else if (node.getLocalName().equals("gGroupTiEvt")) {
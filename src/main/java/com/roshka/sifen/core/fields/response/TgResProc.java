@@ -1,15 +1,15 @@
 package com.roshka.sifen.core.fields.response;
 
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.util.ResponseUtil;
-import org.w3c.dom.Node;
 
 public class TgResProc extends SifenObjectBase {
     private String dCodRes;
     private String dMsgRes;
 
     @Override
-    public void setValueFromChildNode(Node value) {
+    public void setValueFromChildNode(ChildNode value) {
         if (value.getLocalName().equals("dCodRes")) {
             dCodRes = ResponseUtil.getTextValue(value);
         } else if (value.getLocalName().equals("dMsgRes")) {
@@ -2,11 +2,10 @@ package com.roshka.sifen.core.fields.response.de;
 
 import com.roshka.sifen.core.beans.DocumentoElectronico;
 import com.roshka.sifen.core.exceptions.SifenException;
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.response.SifenObjectFactory;
 import com.roshka.sifen.internal.util.ResponseUtil;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 
 public class TxContenDE extends SifenObjectBase {
     private DocumentoElectronico DE;
@@ -14,12 +13,10 @@ public class TxContenDE extends SifenObjectBase {
     private TxContenEv xContEv;
 
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         switch (value.getLocalName()) {
             case "rDE":
-                NodeList childNodes = value.getChildNodes();
-                for (int i = 0; i < childNodes.getLength(); i++) {
-                    Node node = childNodes.item(i);
+                for (ChildNode node : SifenObjectFactory.getChildElements(value)) {
                     if (node.getLocalName().equals("DE")) {
                         DE = SifenObjectFactory.getFromNode(node, DocumentoElectronico.class);
                         DE.obtenerCDC();
@@ -49,10 +46,8 @@ public class TxContenDE extends SifenObjectBase {
         return xContEv;
     }
 
-    private void getQrLink(Node gCamFuFD) {
-        NodeList childNodes = gCamFuFD.getChildNodes();
-        for (int i = 0; i < childNodes.getLength(); i++) {
-            Node node = childNodes.item(i);
+    private void getQrLink(ChildNode gCamFuFD) {
+        for (ChildNode node : SifenObjectFactory.getChildElements(gCamFuFD)) {
             if (node.getLocalName().equals("dCarQR")) {
                 DE.setEnlaceQR(ResponseUtil.getTextValue(node));
             }
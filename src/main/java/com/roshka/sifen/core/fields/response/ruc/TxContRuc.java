@@ -1,8 +1,8 @@
 package com.roshka.sifen.core.fields.response.ruc;
 
+import com.roshka.sifen.internal.response.ChildNode;
 import com.roshka.sifen.internal.response.SifenObjectBase;
 import com.roshka.sifen.internal.util.ResponseUtil;
-import org.w3c.dom.Node;
 
 public class TxContRuc extends SifenObjectBase {
     private String dRUCCons;
@@ -12,7 +12,7 @@ public class TxContRuc extends SifenObjectBase {
     private String dRUCFactElec;
 
     @Override
-    public void setValueFromChildNode(Node value) {
+    public void setValueFromChildNode(ChildNode value) {
         switch (value.getLocalName()) {
             case "dRUCCons":
                 dRUCCons = ResponseUtil.getTextValue(value);
@@ -51,4 +51,24 @@ public class TxContRuc extends SifenObjectBase {
     public String getdRUCFactElec() {
         return dRUCFactElec;
     }
+
+    public void setdRUCCons(String dRUCCons) {
+        this.dRUCCons = dRUCCons;
+    }
+
+    public void setdRazCons(String dRazCons) {
+        this.dRazCons = dRazCons;
+    }
+
+    public void setdCodEstCons(String dCodEstCons) {
+        this.dCodEstCons = dCodEstCons;
+    }
+
+    public void setdDesEstCons(String dDesEstCons) {
+        this.dDesEstCons = dDesEstCons;
+    }
+
+    public void setdRUCFactElec(String dRUCFactElec) {
+        this.dRUCFactElec = dRUCFactElec;
+    }
 }
@@ -5,16 +5,17 @@ import java.text.NumberFormat;
 
 public class FieldFormatUtil {
 
-    private static NumberFormat _tdCRedFormat = NumberFormat.getInstance();
-
-    static {
-        _tdCRedFormat.setGroupingUsed(false);
-        _tdCRedFormat.setMaximumFractionDigits(4);
-        _tdCRedFormat.setMaximumIntegerDigits(4);
-    }
+    // NumberFormat no es thread-safe, por lo que se mantiene una instancia por hilo
+    private final static ThreadLocal<NumberFormat> _tdCRedFormat = ThreadLocal.withInitial(() -> {
+        NumberFormat format = NumberFormat.getInstance();
+        format.setGroupingUsed(false);
+        format.setMaximumFractionDigits(4);
+        format.setMaximumIntegerDigits(4);
+        return format;
+    });
 
     public static String formattdCRed(BigDecimal val) {
-        return _tdCRedFormat.format(val);
+        return _tdCRedFormat.get().format(val);
     }
 
 }
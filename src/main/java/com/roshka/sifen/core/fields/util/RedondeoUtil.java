@@ -1,12 +1,13 @@
 package com.roshka.sifen.core.fields.util;
 
 import com.roshka.sifen.core.types.CMondT;
+import com.roshka.sifen.internal.util.ScaledDecimal;
 
 import java.math.BigDecimal;
-import java.math.MathContext;
-import java.math.RoundingMode;
 
 public class RedondeoUtil {
+    private final static ScaledDecimal FIFTY = ScaledDecimal.valueOf(50, 0);
+    private final static ScaledDecimal FIFTY_CENTS = ScaledDecimal.valueOf(5, 1);
 
 
 
@@ -36,13 +37,19 @@ public class RedondeoUtil {
     }
 
     public static BigDecimal redondeoOficialGuaranies(BigDecimal valor) {
-        return valor.subtract(valor.remainder(BigDecimal.valueOf(50)));
+        return redondeoOficialGuaranies(ScaledDecimal.valueOf(valor)).toBigDecimal();
     }
 
     public static BigDecimal redondeoOficialOtrasMonedas(BigDecimal value) {
-        BigDecimal fiftyCents = new BigDecimal("0.5");
-        BigDecimal dividedValue = value.divide(fiftyCents, 0, RoundingMode.HALF_UP);
-        BigDecimal roundedValue = dividedValue.multiply(fiftyCents);
-        return roundedValue;
+        return redondeoOficialOtrasMonedas(ScaledDecimal.valueOf(value)).toBigDecimal();
+    }
+
+    private static ScaledDecimal redondeoOficialGuaranies(ScaledDecimal valor) {
+        return valor.subtract(valor.remainder(FIFTY));
+    }
+
+    private static ScaledDecimal redondeoOficialOtrasMonedas(ScaledDecimal value) {
+        ScaledDecimal dividedValue = value.divide(FIFTY_CENTS, 0);
+        return dividedValue.multiply(FIFTY_CENTS);
     }
 }
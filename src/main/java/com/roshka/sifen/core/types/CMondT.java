@@ -1,6 +1,6 @@
 package com.roshka.sifen.core.types;
 
-import java.util.Arrays;
+import com.roshka.sifen.internal.util.NameTable;
 
 public enum CMondT {
 
@@ -811,8 +811,10 @@ public enum CMondT {
         this.descripcion = descripcion;
     }
 
+    private final static NameTable<CMondT> byName = new NameTable<>(values());
+
     public static CMondT getByName(String name) {
-        return Arrays.stream(CMondT.values()).filter(e -> e.name().equalsIgnoreCase(name)).findFirst().orElse(null);
+        return byName.get(name);
     }
 
     public String getDescripcion() {
@@ -1,6 +1,6 @@
 package com.roshka.sifen.core.types;
 
-import java.util.Arrays;
+import com.roshka.sifen.internal.util.NameTable;
 
 /**
  * Este enumerado contiene los países oficiales según la SET,
@@ -1007,8 +1007,10 @@ public enum PaisType {
         this.nombre = nombre;
     }
 
+    private final static NameTable<PaisType> byName = new NameTable<>(values());
+
     public static PaisType getByName(String name) {
-        return Arrays.stream(PaisType.values()).filter(e -> e.name().equalsIgnoreCase(name)).findFirst().orElse(null);
+        return byName.get(name);
     }
 
     public String getNombre() {
@@ -1,6 +1,6 @@
 package com.roshka.sifen.core.types;
 
-import java.util.Arrays;
+import com.roshka.sifen.internal.util.CodeTable;
 
 /**
  * Este enumerado contiene los códigos de departamento y sus descripciones oficiales para la SET
@@ -35,8 +35,10 @@ public enum TDepartamento {
         this.descripcion = descripcion;
     }
 
+    private final static CodeTable<TDepartamento> byVal = new CodeTable<>(values(), e -> e.val);
+
     public static TDepartamento getByVal(short val) {
-        return Arrays.stream(TDepartamento.values()).filter(e -> e.val == val).findFirst().orElse(null);
+        return byVal.get(val);
     }
 
     public short getVal() {
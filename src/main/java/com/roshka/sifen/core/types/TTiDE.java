@@ -1,6 +1,6 @@
 package com.roshka.sifen.core.types;
 
-import java.util.Arrays;
+import com.roshka.sifen.internal.util.CodeTable;
 
 /**
  * Esta clase engloba los datos/tipos tiTiDE y tdDesTiDE
@@ -23,8 +23,10 @@ public enum TTiDE {
         this.descripcion = descripcion;
     }
 
+    private final static CodeTable<TTiDE> byVal = new CodeTable<>(values(), e -> e.val);
+
     public static TTiDE getByVal(short val) {
-        return Arrays.stream(TTiDE.values()).filter(e -> e.val == val).findFirst().orElse(null);
+        return byVal.get(val);
     }
 
     public short getVal() {
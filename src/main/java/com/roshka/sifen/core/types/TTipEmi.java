@@ -1,6 +1,6 @@
 package com.roshka.sifen.core.types;
 
-import java.util.Arrays;
+import com.roshka.sifen.internal.util.CodeTable;
 
 /**
  * Esta clase engloba los datos/tipos tiTipEmi y tdDesTipEmi
@@ -17,8 +17,10 @@ public enum TTipEmi {
         this.descripcion = descripcion;
     }
 
+    private final static CodeTable<TTipEmi> byVal = new CodeTable<>(values(), e -> e.val);
+
     public static TTipEmi getByVal(short val) {
-        return Arrays.stream(TTipEmi.values()).filter(e -> e.val == val).findFirst().orElse(null);
+        return byVal.get(val);
     }
 
     public short getVal() {
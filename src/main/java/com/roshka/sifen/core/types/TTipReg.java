@@ -1,6 +1,6 @@
 package com.roshka.sifen.core.types;
 
-import java.util.Arrays;
+import com.roshka.sifen.internal.util.CodeTable;
 
 public enum TTipReg {
     REGIMEN_TURISMO((short) 1, "Régimen de Turismo"),
@@ -20,8 +20,10 @@ public enum TTipReg {
         this.descripcion = descripcion;
     }
 
+    private final static CodeTable<TTipReg> byVal = new CodeTable<>(values(), e -> e.val);
+
     public static TTipReg getByVal(short val) {
-        return Arrays.stream(TTipReg.values()).filter(e -> e.val == val).findFirst().orElse(null);
+        return byVal.get(val);
     }
 
     public short getVal() {
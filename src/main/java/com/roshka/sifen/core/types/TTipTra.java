@@ -1,6 +1,6 @@
 package com.roshka.sifen.core.types;
 
-import java.util.Arrays;
+import com.roshka.sifen.internal.util.CodeTable;
 
 /**
  * Esta clase engloba los datos/tipos tiTipTra y tdDesTiTran
@@ -28,8 +28,10 @@ public enum TTipTra {
         this.descripcion = descripcion;
     }
 
+    private final static CodeTable<TTipTra> byVal = new CodeTable<>(values(), e -> e.val);
+
     public static TTipTra getByVal(short val) {
-        return Arrays.stream(TTipTra.values()).filter(e -> e.val == val).findFirst().orElse(null);
+        return byVal.get(val);
     }
 
     public short getVal() {
@@ -1,6 +1,6 @@
 package com.roshka.sifen.core.types;
 
-import java.util.Arrays;
+import com.roshka.sifen.internal.util.NameTable;
 
 public enum TcCondNeg {
     CFR("Costo y flete"),
@@ -21,8 +21,10 @@ public enum TcCondNeg {
         this.descripcion = descripcion;
     }
 
+    private final static NameTable<TcCondNeg> byName = new NameTable<>(values());
+
     public static TcCondNeg getByDescription(String description) {
-        return Arrays.stream(TcCondNeg.values()).filter(e -> e.name().equalsIgnoreCase(description)).findFirst().orElse(null);
+        return byName.get(description);
     }
 
     public String getDescripcion() {
@@ -1,6 +1,6 @@
 package com.roshka.sifen.core.types;
 
-import java.util.Arrays;
+import com.roshka.sifen.internal.util.CodeTable;
 
 public enum TcRelMerc {
     TOLERANCIA_DE_QUIEBRA((short) 1, "Tolerancia de quiebra"),
@@ -14,8 +14,10 @@ public enum TcRelMerc {
         this.descripcion = descripcion;
     }
 
+    private final static CodeTable<TcRelMerc> byVal = new CodeTable<>(values(), e -> e.val);
+
     public static TcRelMerc getByVal(short val) {
-        return Arrays.stream(TcRelMerc.values()).filter(e -> e.val == val).findFirst().orElse(null);
+        return byVal.get(val);
     }
 
     public short getVal() {
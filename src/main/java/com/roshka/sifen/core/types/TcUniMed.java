@@ -1,6 +1,6 @@
 package com.roshka.sifen.core.types;
 
-import java.util.Arrays;
+import com.roshka.sifen.internal.util.CodeTable;
 
 public enum TcUniMed {
     m("m", (short) 87, "Metros - m", "Metros"),
@@ -50,8 +50,10 @@ public enum TcUniMed {
         this.descripcion = descripcion;
     }
 
+    private final static CodeTable<TcUniMed> byVal = new CodeTable<>(values(), e -> e.val);
+
     public static TcUniMed getByVal(short val) {
-        return Arrays.stream(TcUniMed.values()).filter(e -> e.val == val).findFirst().orElse(null);
+        return byVal.get(val);
     }
 
     public String getAbreviatura() {
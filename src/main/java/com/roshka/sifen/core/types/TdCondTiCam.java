@@ -1,6 +1,6 @@
 package com.roshka.sifen.core.types;
 
-import java.util.Arrays;
+import com.roshka.sifen.internal.util.CodeTable;
 
 public enum TdCondTiCam {
     GLOBAL((short) 1, "Global"),
@@ -14,8 +14,10 @@ public enum TdCondTiCam {
         this.descripcion = descripcion;
     }
 
+    private final static CodeTable<TdCondTiCam> byVal = new CodeTable<>(values(), e -> e.val);
+
     public static TdCondTiCam getByVal(short val) {
-        return Arrays.stream(TdCondTiCam.values()).filter(e -> e.val == val).findFirst().orElse(null);
+        return byVal.get(val);
     }
 
     public short getVal() {
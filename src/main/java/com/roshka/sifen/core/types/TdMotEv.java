@@ -1,6 +1,6 @@
 package com.roshka.sifen.core.types;
 
-import java.util.Arrays;
+import com.roshka.sifen.internal.util.CodeTable;
 
 public enum TdMotEv {
     CAMBIO_LOCAL_ENTREGA((short) 1, "Cambio del local de la entrega"),
@@ -16,8 +16,10 @@ public enum TdMotEv {
         this.descripcion = descripcion;
     }
 
+    private final static CodeTable<TdMotEv> byVal = new CodeTable<>(values(), e -> e.val);
+
     public static TdMotEv getByVal(short val) {
-        return Arrays.stream(TdMotEv.values()).filter(e -> e.val == val).findFirst().orElse(null);
+        return byVal.get(val);
     }
 
     public short getVal() {
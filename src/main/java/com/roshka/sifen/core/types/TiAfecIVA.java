@@ -1,6 +1,6 @@
 package com.roshka.sifen.core.types;
 
-import java.util.Arrays;
+import com.roshka.sifen.internal.util.CodeTable;
 
 public enum TiAfecIVA {
     GRAVADO((short) 1, "Gravado IVA"),
@@ -16,8 +16,10 @@ public enum TiAfecIVA {
         this.descripcion = descripcion;
     }
 
+    private final static CodeTable<TiAfecIVA> byVal = new CodeTable<>(values(), e -> e.val);
+
     public static TiAfecIVA getByVal(short val) {
-        return Arrays.stream(TiAfecIVA.values()).filter(e -> e.val == val).findFirst().orElse(null);
+        return byVal.get(val);
     }
 
     public short getVal() {
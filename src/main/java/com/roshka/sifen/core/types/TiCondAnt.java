@@ -1,6 +1,6 @@
 package com.roshka.sifen.core.types;
 
-import java.util.Arrays;
+import com.roshka.sifen.internal.util.CodeTable;
 
 /**
  * Esta clase engloba los datos/tipos tiCondAnt y tdDesCondAnt
@@ -17,8 +17,10 @@ public enum TiCondAnt {
         this.descripcion = descripcion;
     }
 
+    private final static CodeTable<TiCondAnt> byVal = new CodeTable<>(values(), e -> e.val);
+
     public static TiCondAnt getByVal(short val) {
-        return Arrays.stream(TiCondAnt.values()).filter(e -> e.val == val).findFirst().orElse(null);
+        return byVal.get(val);
     }
 
     public short getVal() {
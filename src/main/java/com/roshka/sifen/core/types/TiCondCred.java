@@ -1,6 +1,6 @@
 package com.roshka.sifen.core.types;
 
-import java.util.Arrays;
+import com.roshka.sifen.internal.util.CodeTable;
 
 public enum TiCondCred {
     PLAZO((short) 1, "Plazo"),
@@ -14,8 +14,10 @@ public enum TiCondCred {
         this.descripcion = descripcion;
     }
 
+    private final static CodeTable<TiCondCred> byVal = new CodeTable<>(values(), e -> e.val);
+
     public static TiCondCred getByVal(short val) {
-        return Arrays.stream(TiCondCred.values()).filter(e -> e.val == val).findFirst().orElse(null);
+        return byVal.get(val);
     }
 
     public short getVal() {
@@ -1,6 +1,6 @@
 package com.roshka.sifen.core.types;
 
-import java.util.Arrays;
+import com.roshka.sifen.internal.util.CodeTable;
 
 public enum TiCondOpe {
     CONTADO((short) 1, "Contado"),
@@ -14,8 +14,10 @@ public enum TiCondOpe {
         this.descripcion = descripcion;
     }
 
+    private final static CodeTable<TiCondOpe> byVal = new CodeTable<>(values(), e -> e.val);
+
     public static TiCondOpe getByVal(short val) {
-        return Arrays.stream(TiCondOpe.values()).filter(e -> e.val == val).findFirst().orElse(null);
+        return byVal.get(val);
     }
 
     public short getVal() {
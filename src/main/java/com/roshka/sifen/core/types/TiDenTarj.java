@@ -1,6 +1,6 @@
 package com.roshka.sifen.core.types;
 
-import java.util.Arrays;
+import com.roshka.sifen.internal.util.CodeTable;
 
 public enum TiDenTarj {
     VISA((short) 1, "Visa"),
@@ -19,8 +19,10 @@ public enum TiDenTarj {
         this.descripcion = descripcion;
     }
 
+    private final static CodeTable<TiDenTarj> byVal = new CodeTable<>(values(), e -> e.val);
+
     public static TiDenTarj getByVal(short val) {
-        return Arrays.stream(TiDenTarj.values()).filter(e -> e.val == val).findFirst().orElse(null);
+        return byVal.get(val);
     }
 
     public short getVal() {
@@ -1,6 +1,6 @@
 package com.roshka.sifen.core.types;
 
-import java.util.Arrays;
+import com.roshka.sifen.internal.util.CodeTable;
 
 public enum TiForProPa {
     POS((short) 1, "POS"),
@@ -15,8 +15,10 @@ public enum TiForProPa {
         this.descripcion = descripcion;
     }
 
+    private final static CodeTable<TiForProPa> byVal = new CodeTable<>(values(), e -> e.val);
+
     public static TiForProPa getByVal(short val) {
-        return Arrays.stream(TiForProPa.values()).filter(e -> e.val == val).findFirst().orElse(null);
+        return byVal.get(val);
     }
 
     public short getVal() {
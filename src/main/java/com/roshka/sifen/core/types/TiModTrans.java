@@ -1,6 +1,6 @@
 package com.roshka.sifen.core.types;
 
-import java.util.Arrays;
+import com.roshka.sifen.internal.util.CodeTable;
 
 public enum TiModTrans {
     TERRESTRE((short) 1, "Terrestre"),
@@ -16,8 +16,10 @@ public enum TiModTrans {
         this.descripcion = descripcion;
     }
 
+    private final static CodeTable<TiModTrans> byVal = new CodeTable<>(values(), e -> e.val);
+
     public static TiModTrans getByVal(short val) {
-        return Arrays.stream(TiModTrans.values()).filter(e -> e.val == val).findFirst().orElse(null);
+        return byVal.get(val);
     }
 
     public short getVal() {
@@ -1,6 +1,6 @@
 package com.roshka.sifen.core.types;
 
-import java.util.Arrays;
+import com.roshka.sifen.internal.util.CodeTable;
 
 public enum TiNatRec {
     CONTRIBUYENTE((short) 1, "Contribuyente"),
@@ -14,8 +14,10 @@ public enum TiNatRec {
         this.descripcion = descripcion;
     }
 
+    private final static CodeTable<TiNatRec> byVal = new CodeTable<>(values(), e -> e.val);
+
     public static TiNatRec getByVal(short val) {
-        return Arrays.stream(TiNatRec.values()).filter(e -> e.val == val).findFirst().orElse(null);
+        return byVal.get(val);
     }
 
     public short getVal() {
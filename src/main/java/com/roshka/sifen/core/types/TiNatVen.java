@@ -1,6 +1,6 @@
 package com.roshka.sifen.core.types;
 
-import java.util.Arrays;
+import com.roshka.sifen.internal.util.CodeTable;
 
 public enum TiNatVen {
     NO_CONTRIBUYENTE((short) 1, "No contribuyente"),
@@ -14,8 +14,10 @@ public enum TiNatVen {
         this.descripcion = descripcion;
     }
 
+    private final static CodeTable<TiNatVen> byVal = new CodeTable<>(values(), e -> e.val);
+
     public static TiNatVen getByVal(short val) {
-        return Arrays.stream(TiNatVen.values()).filter(e -> e.val == val).findFirst().orElse(null);
+        return byVal.get(val);
     }
 
     public short getVal() {
@@ -1,6 +1,6 @@
 package com.roshka.sifen.core.types;
 
-import java.util.Arrays;
+import com.roshka.sifen.internal.util.CodeTable;
 
 public enum TiRespFlete {
     EMISOR_FACTURA_ELECTRONICA((short) 1),
@@ -15,8 +15,10 @@ public enum TiRespFlete {
         this.val = val;
     }
 
+    private final static CodeTable<TiRespFlete> byVal = new CodeTable<>(values(), e -> e.val);
+
     public static TiRespFlete getByVal(short val) {
-        return Arrays.stream(TiRespFlete.values()).filter(e -> e.val == val).findFirst().orElse(null);
+        return byVal.get(val);
     }
 
     public short getVal() {
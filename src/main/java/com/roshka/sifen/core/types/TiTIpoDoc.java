@@ -1,6 +1,6 @@
 package com.roshka.sifen.core.types;
 
-import java.util.Arrays;
+import com.roshka.sifen.internal.util.CodeTable;
 
 public enum TiTIpoDoc {
     FACTURA((short) 1, "Factura"),
@@ -17,8 +17,10 @@ public enum TiTIpoDoc {
         this.descripcion = descripcion;
     }
 
+    private final static CodeTable<TiTIpoDoc> byVal = new CodeTable<>(values(), e -> e.val);
+
     public static TiTIpoDoc getByVal(short val) {
-        return Arrays.stream(TiTIpoDoc.values()).filter(e -> e.val == val).findFirst().orElse(null);
+        return byVal.get(val);
     }
 
     public short getVal() {
@@ -1,6 +1,6 @@
 package com.roshka.sifen.core.types;
 
-import java.util.Arrays;
+import com.roshka.sifen.internal.util.CodeTable;
 
 public enum TiTTrans {
     PROPIO((short) 1, "Propio"),
@@ -14,8 +14,10 @@ public enum TiTTrans {
         this.descripcion = descripcion;
     }
 
+    private final static CodeTable<TiTTrans> byVal = new CodeTable<>(values(), e -> e.val);
+
     public static TiTTrans getByVal(short val) {
-        return Arrays.stream(TiTTrans.values()).filter(e -> e.val == val).findFirst().orElse(null);
+        return byVal.get(val);
     }
 
     public short getVal() {
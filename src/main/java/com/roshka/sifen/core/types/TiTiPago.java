@@ -1,6 +1,6 @@
 package com.roshka.sifen.core.types;
 
-import java.util.Arrays;
+import com.roshka.sifen.internal.util.CodeTable;
 
 public enum TiTiPago {
     EFECTIVO((short) 1, "Efectivo"),
@@ -34,8 +34,10 @@ public enum TiTiPago {
         this.descripcion = descripcion;
     }
 
+    private final static CodeTable<TiTiPago> byVal = new CodeTable<>(values(), e -> e.val);
+
     public static TiTiPago getByVal(short val) {
-        return Arrays.stream(TiTiPago.values()).filter(e -> e.val == val).findFirst().orElse(null);
+        return byVal.get(val);
     }
 
     public short getVal() {
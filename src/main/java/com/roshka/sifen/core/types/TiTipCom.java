@@ -1,6 +1,6 @@
 package com.roshka.sifen.core.types;
 
-import java.util.Arrays;
+import com.roshka.sifen.internal.util.CodeTable;
 
 public enum TiTipCom {
     GASOLINA((short) 1, "Gasolina"),
@@ -18,8 +18,10 @@ public enum TiTipCom {
         this.descripcion = descripcion;
     }
 
+    private final static CodeTable<TiTipCom> byVal = new CodeTable<>(values(), e -> e.val);
+
     public static TiTipCom getByVal(short val) {
-        return Arrays.stream(TiTipCom.values()).filter(e -> e.val == val).findFirst().orElse(null);
+        return byVal.get(val);
     }
 
     public short getVal() {
@@ -1,6 +1,6 @@
 package com.roshka.sifen.core.types;
 
-import java.util.Arrays;
+import com.roshka.sifen.internal.util.CodeTable;
 
 public enum TiTipConf {
     CONFORMIDAD_TOTAL((short) 1, "Conformidad Total del DTE"),
@@ -14,8 +14,10 @@ public enum TiTipConf {
         this.descripcion = descripcion;
     }
 
+    private final static CodeTable<TiTipConf> byVal = new CodeTable<>(values(), e -> e.val);
+
     public static TiTipConf getByVal(short val) {
-        return Arrays.stream(TiTipConf.values()).filter(e -> e.val == val).findFirst().orElse(null);
+        return byVal.get(val);
     }
 
     public short getVal() {
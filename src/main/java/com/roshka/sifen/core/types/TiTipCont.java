@@ -1,6 +1,6 @@
 package com.roshka.sifen.core.types;
 
-import java.util.Arrays;
+import com.roshka.sifen.internal.util.CodeTable;
 
 public enum TiTipCont {
     PERSONA_FISICA((short) 1, "Persona Física"),
@@ -14,8 +14,10 @@ public enum TiTipCont {
         this.descripcion = descripcion;
     }
 
+    private final static CodeTable<TiTipCont> byVal = new CodeTable<>(values(), e -> e.val);
+
     public static TiTipCont getByVal(short val) {
-        return Arrays.stream(TiTipCont.values()).filter(e -> e.val == val).findFirst().orElse(null);
+        return byVal.get(val);
     }
 
     public short getVal() {
@@ -1,6 +1,6 @@
 package com.roshka.sifen.core.types;
 
-import java.util.Arrays;
+import com.roshka.sifen.internal.util.CodeTable;
 
 public enum TiTipDoc {
     CEDULA_PARAGUAYA((short) 1, "Cédula paraguaya"),
@@ -16,8 +16,10 @@ public enum TiTipDoc {
         this.descripcion = descripcion;
     }
 
+    private final static CodeTable<TiTipDoc> byVal = new CodeTable<>(values(), e -> e.val);
+
     public static TiTipDoc getByVal(short val) {
-        return Arrays.stream(TiTipDoc.values()).filter(e -> e.val == val).findFirst().orElse(null);
+        return byVal.get(val);
     }
 
     public short getVal() {
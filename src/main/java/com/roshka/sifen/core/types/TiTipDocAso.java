@@ -1,6 +1,6 @@
 package com.roshka.sifen.core.types;
 
-import java.util.Arrays;
+import com.roshka.sifen.internal.util.CodeTable;
 
 public enum TiTipDocAso {
     ELECTRONICO((short) 1, "Electrónico"),
@@ -15,8 +15,10 @@ public enum TiTipDocAso {
         this.descripcion = descripcion;
     }
 
+    private final static CodeTable<TiTipDocAso> byVal = new CodeTable<>(values(), e -> e.val);
+
     public static TiTipDocAso getByVal(short val) {
-        return Arrays.stream(TiTipDocAso.values()).filter(e -> e.val == val).findFirst().orElse(null);
+        return byVal.get(val);
     }
 
     public short getVal() {
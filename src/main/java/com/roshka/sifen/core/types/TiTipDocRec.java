@@ -1,6 +1,6 @@
 package com.roshka.sifen.core.types;
 
-import java.util.Arrays;
+import com.roshka.sifen.internal.util.CodeTable;
 
 public enum TiTipDocRec {
     CEDULA_PARAGUAYA((short) 1, "Cédula paraguaya"),
@@ -19,8 +19,10 @@ public enum TiTipDocRec {
         this.descripcion = descripcion;
     }
 
+    private final static CodeTable<TiTipDocRec> byVal = new CodeTable<>(values(), e -> e.val);
+
     public static TiTipDocRec getByVal(short val) {
-        return Arrays.stream(TiTipDocRec.values()).filter(e -> e.val == val).findFirst().orElse(null);
+        return byVal.get(val);
     }
 
     public short getVal() {
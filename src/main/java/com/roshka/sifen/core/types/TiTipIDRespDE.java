@@ -1,6 +1,6 @@
 package com.roshka.sifen.core.types;
 
-import java.util.Arrays;
+import com.roshka.sifen.internal.util.CodeTable;
 
 public enum TiTipIDRespDE {
     CEDULA_PARAGUAYA((short) 1, "Cédula paraguaya"),
@@ -17,8 +17,10 @@ public enum TiTipIDRespDE {
         this.descripcion = descripcion;
     }
 
+    private final static CodeTable<TiTipIDRespDE> byVal = new CodeTable<>(values(), e -> e.val);
+
     public static TiTipIDRespDE getByVal(short val) {
-        return Arrays.stream(TiTipIDRespDE.values()).filter(e -> e.val == val).findFirst().orElse(null);
+        return byVal.get(val);
     }
 
     public short getVal() {
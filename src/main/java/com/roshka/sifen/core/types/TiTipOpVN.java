@@ -1,6 +1,6 @@
 package com.roshka.sifen.core.types;
 
-import java.util.Arrays;
+import com.roshka.sifen.internal.util.CodeTable;
 
 public enum TiTipOpVN {
     VENTA_A_REPRESENTANTE((short) 1, "Venta a representante"),
@@ -16,8 +16,10 @@ public enum TiTipOpVN {
         this.descripcion = descripcion;
     }
 
+    private final static CodeTable<TiTipOpVN> byVal = new CodeTable<>(values(), e -> e.val);
+
     public static TiTipOpVN getByVal(short val) {
-        return Arrays.stream(TiTipOpVN.values()).filter(e -> e.val == val).findFirst().orElse(null);
+        return byVal.get(val);
     }
 
     public short getVal() {
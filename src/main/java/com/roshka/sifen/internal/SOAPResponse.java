@@ -2,6 +2,7 @@ package com.roshka.sifen.internal;
 
 import javax.xml.soap.SOAPMessage;
 import java.net.HttpURLConnection;
+import java.nio.ByteBuffer;
 
 /**
  * Clase interna que almacena la respuesta SOAP proveída por Sifen.
@@ -9,7 +10,9 @@ import java.net.HttpURLConnection;
 public class SOAPResponse {
     private int status;
     private SOAPMessage soapResponse;
-    private byte[] rawData;
+    private ByteBuffer rawData;
+    private int intentos = 1;
+    private boolean previouslyReceived;
 
     public int getStatus() {
         return status;
@@ -27,14 +30,40 @@ public class SOAPResponse {
         this.soapResponse = soapResponse;
     }
 
-    public byte[] getRawData() {
+    /**
+     * @return Cuerpo de la respuesta, tal como fue recibido, o <strong>null</strong> si no fue conservado.
+     */
+    public ByteBuffer getRawData() {
         return rawData;
     }
 
-    public void setRawData(byte[] rawData) {
+    public void setRawData(ByteBuffer rawData) {
         this.rawData = rawData;
     }
 
+    /**
+     * @return Cantidad de intentos realizados hasta obtener la respuesta.
+     */
+    public int getIntentos() {
+        return intentos;
+    }
+
+    public void setIntentos(int intentos) {
+        this.intentos = intentos;
+    }
+
+    /**
+     * @return <strong>true</strong> si la respuesta de un envío anterior se perdió, y se verificó que Sifen ya lo
+     * había recibido, por lo que la petición no se reenvió. En ese caso, la respuesta no tiene contenido.
+     */
+    public boolean isPreviouslyReceived() {
+        return previouslyReceived;
+    }
+
+    public void setPreviouslyReceived(boolean previouslyReceived) {
+        this.previouslyReceived = previouslyReceived;
+    }
+
     public boolean isRequestSuccessful() {
         return status == HttpURLConnection.HTTP_ACCEPTED || status == HttpURLConnection.HTTP_OK;
     }
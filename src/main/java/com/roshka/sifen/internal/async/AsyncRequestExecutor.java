@@ -0,0 +1,188 @@
+package com.roshka.sifen.internal.async;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Ejecuta peticiones de forma asíncrona, limitando la cantidad de peticiones en curso. Las peticiones que superan el
+ * límite quedan en espera, y son despachadas (en orden de llegada) a medida que terminan las que se encuentran en curso,
+ * sin bloquear al hilo que las solicita.
+ * <p>
+ * El límite es único para todas las peticiones, sin importar el executor en el que se ejecuta cada una: las peticiones
+ * enviadas a distintos executors comparten los mismos lugares.
+ */
+public class AsyncRequestExecutor {
+    private final static Logger logger = Logger.getLogger(AsyncRequestExecutor.class.toString());
+    private final static AtomicInteger threadCount = new AtomicInteger();
+
+    private final int maxInFlight;
+    private final Executor defaultExecutor;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ConcurrentLinkedQueue<Task<?>> pending = new ConcurrentLinkedQueue<>();
+    // Si el hilo actual ya se encuentra despachando, más arriba en la pila
+    private final ThreadLocal<Boolean> dispatching = new ThreadLocal<>();
+
+    /**
+     * @param maxInFlight     Cantidad máxima de peticiones en curso simultáneamente.
+     * @param defaultExecutor Executor a utilizar cuando no se especifica uno en la petición.
+     */
+    public AsyncRequestExecutor(int maxInFlight, Executor defaultExecutor) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("La cantidad máxima de peticiones en curso debe ser mayor a cero.");
+        }
+        this.maxInFlight = maxInFlight;
+        this.defaultExecutor = defaultExecutor;
+    }
+
+    /**
+     * Crea el executor por defecto: hilos virtuales si la JVM los soporta (Java 21 o superior), o un pool de hilos
+     * daemon en caso contrario. La cantidad de hilos utilizados queda acotada por el límite de peticiones en curso.
+     *
+     * @return El executor creado.
+     */
+    public static Executor newDefaultExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            logger.fine("Se utilizarán hilos virtuales para las peticiones asíncronas");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            ThreadFactory threadFactory = runnable -> {
+                Thread thread = new Thread(runnable, "sifen-async-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            return Executors.newCachedThreadPool(threadFactory);
+        }
+    }
+
+    /**
+     * Agenda la ejecución de una petición.
+     *
+     * @param callable Petición a ejecutar.
+     * @param executor Executor en el que se ejecutará la petición, o <strong>null</strong> para utilizar el executor
+     *                 por defecto. La petición ocupa uno de los lugares compartidos por todos los executors.
+     * @param <T>      Tipo del resultado de la petición.
+     * @return Future que se completa con el resultado de la petición o, en caso de error, con la excepción lanzada.
+     */
+    public <T> CompletableFuture<T> submit(SifenCallable<T> callable, Executor executor) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        pending.add(new Task<>(callable, executor != null ? executor : defaultExecutor, future));
+        dispatch();
+        return future;
+    }
+
+    /**
+     * @return Cantidad de peticiones en curso.
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return Cantidad de peticiones en espera de un lugar libre.
+     */
+    public int getPending() {
+        return pending.size();
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Finaliza los hilos del executor por defecto una vez terminadas las peticiones en curso. Las peticiones agendadas
+     * después en el executor por defecto se completan con una <i>RejectedExecutionException</i>.
+     */
+    public void shutdown() {
+        if (defaultExecutor instanceof ExecutorService) {
+            ((ExecutorService) defaultExecutor).shutdown();
+        }
+    }
+
+    private void dispatch() {
+        // Con un executor que ejecuta en el mismo hilo (directo o caller-runs), cada petición terminada vuelve a
+        // despachar desde dentro del despacho anterior. En lugar de anidar una llamada por petición en espera (y
+        // desbordar la pila con una cola larga), el despacho más externo continúa con el resto de la cola.
+        if (dispatching.get() != null) {
+            return;
+        }
+
+        dispatching.set(Boolean.TRUE);
+        try {
+            dispatchPending();
+        } finally {
+            dispatching.remove();
+        }
+    }
+
+    private void dispatchPending() {
+        while (!pending.isEmpty()) {
+            int current = inFlight.get();
+            if (current >= maxInFlight) {
+                // La petición en curso que termine primero volverá a despachar
+                return;
+            }
+            if (!inFlight.compareAndSet(current, current + 1)) {
+                continue;
+            }
+
+            Task<?> task = pending.poll();
+            if (task == null) {
+                inFlight.decrementAndGet();
+                continue;
+            }
+            start(task);
+        }
+    }
+
+    private <T> void start(Task<T> task) {
+        try {
+            task.executor.execute(() -> run(task));
+        } catch (RejectedExecutionException e) {
+            task.future.completeExceptionally(e);
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private <T> void run(Task<T> task) {
+        T result = null;
+        Throwable error = null;
+        try {
+            if (!task.future.isDone()) {
+                result = task.callable.call();
+            }
+        } catch (Throwable e) {
+            error = e;
+        }
+
+        // Se libera el lugar antes de completar el future, para que quien espera el resultado ya no lo vea ocupado
+        inFlight.decrementAndGet();
+        dispatch();
+
+        if (error != null) {
+            task.future.completeExceptionally(error);
+        } else {
+            task.future.complete(result);
+        }
+    }
+
+    private static class Task<T> {
+        private final SifenCallable<T> callable;
+        private final Executor executor;
+        private final CompletableFuture<T> future;
+
+        private Task(SifenCallable<T> callable, Executor executor, CompletableFuture<T> future) {
+            this.callable = callable;
+            this.executor = executor;
+            this.future = future;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.roshka.sifen.internal.async;
+
+import com.roshka.sifen.core.exceptions.SifenException;
+
+/**
+ * Operación a ser ejecutada de forma asíncrona, que puede lanzar una {@link SifenException}.
+ *
+ * @param <T> Tipo del resultado de la operación.
+ */
+@FunctionalInterface
+public interface SifenCallable<T> {
+    T call() throws SifenException;
+}
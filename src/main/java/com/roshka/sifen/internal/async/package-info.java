@@ -0,0 +1,4 @@
+/**
+ * Clases encargadas de la ejecución asíncrona de las peticiones a Sifen.
+ */
+package com.roshka.sifen.internal.async;
\ No newline at end of file
@@ -0,0 +1,215 @@
+package com.roshka.sifen.internal.ctx;
+
+import com.roshka.sifen.core.SifenConfig;
+import com.roshka.sifen.core.exceptions.SifenException;
+import com.roshka.sifen.internal.async.AsyncRequestExecutor;
+import com.roshka.sifen.internal.helpers.SSLContextHelper;
+import com.roshka.sifen.internal.http.CircuitBreaker;
+import com.roshka.sifen.internal.http.HttpConnectionPool;
+import com.roshka.sifen.internal.http.HttpTransport;
+import com.roshka.sifen.internal.ruc.RucCache;
+import com.roshka.sifen.internal.ruc.RucRegistry;
+import com.roshka.sifen.internal.util.SifenExceptionUtil;
+import com.roshka.sifen.internal.util.MessageBuffer;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recursos propios de un cliente de Sifen, compartidos por todas sus peticiones: la configuración, el generador de
+ * identificadores de petición (dId), el contexto SSL, el pool de conexiones, el pool de hilos de generación de lotes,
+ * los buffers en los que se serializan los mensajes, el circuito que rechaza las peticiones mientras Sifen no
+ * responde, la caché de consultas de RUC y el registro local de RUCs.
+ * Es seguro utilizarlo desde varios hilos.
+ */
+public class ClientCtx {
+    private final static AtomicInteger generationThreadCount = new AtomicInteger();
+    private final static int MAX_POOLED_BUFFERS = 4;
+    private final static int INITIAL_BUFFER_SIZE = 16 * 1024;
+    // Los buffers más grandes (lotes excepcionales) no se conservan
+    private final static int MAX_POOLED_BUFFER_SIZE = 8 * 1024 * 1024;
+
+    private final SifenConfig sifenConfig;
+    private final AtomicLong dId = new AtomicLong(1);
+    private final SSLSocketFactory sslSocketFactory;
+    private final HttpTransport httpTransport;
+    private final CircuitBreaker circuitBreaker;
+    private final AsyncRequestExecutor asyncRequestExecutor;
+    private final RucCache rucCache;
+    private final RucRegistry rucRegistry;
+    private final BlockingQueue<MessageBuffer> messageBuffers = new ArrayBlockingQueue<>(MAX_POOLED_BUFFERS);
+    private volatile ExecutorService generationExecutor;
+    private boolean closed = false;
+
+    /**
+     * @param sifenConfig Configuración del cliente. No debe ser modificada luego de crear el contexto.
+     * @throws SifenException Si no se pudo crear el contexto SSL a partir de la configuración o, si no se pudo abrir
+     *                        el registro local de RUCs configurado.
+     */
+    public ClientCtx(SifenConfig sifenConfig) throws SifenException {
+        this.sifenConfig = sifenConfig;
+
+        // Se utiliza siempre la misma fábrica de sockets, lo que permite reanudar las sesiones TLS
+        SSLContext sslContext = SSLContextHelper.getContextFromConfig(sifenConfig);
+        this.sslSocketFactory = sslContext.getSocketFactory();
+
+        // El registro se abre antes de crear el pool y los hilos, que no se liberarían si falla
+        if (sifenConfig.getConsultaRucRegistro() != null && !sifenConfig.getConsultaRucRegistro().isEmpty()) {
+            try {
+                this.rucRegistry = new RucRegistry(new File(sifenConfig.getConsultaRucRegistro()));
+            } catch (IOException e) {
+                throw SifenExceptionUtil.invalidConfiguration("Error en la configuración de Sifen: No se pudo abrir el " +
+                        "registro de RUCs " + sifenConfig.getConsultaRucRegistro() + ".", e);
+            }
+        } else {
+            this.rucRegistry = null;
+        }
+
+        HttpConnectionPool pool = new HttpConnectionPool(sifenConfig.getHttpMaxConexionesPorRuta(),
+                sifenConfig.getHttpTiempoMaximoInactividad());
+        this.httpTransport = new HttpTransport(pool);
+        this.circuitBreaker = new CircuitBreaker(sifenConfig.getCircuitoUmbralFallas(), sifenConfig.getCircuitoTiempoApertura());
+        this.asyncRequestExecutor = new AsyncRequestExecutor(sifenConfig.getAsyncMaxPeticionesEnCurso(),
+                AsyncRequestExecutor.newDefaultExecutor());
+        this.rucCache = sifenConfig.getConsultaRucCacheTamano() > 0
+                ? new RucCache(sifenConfig.getConsultaRucCacheTamano(), sifenConfig.getConsultaRucCacheTtl(),
+                sifenConfig.getConsultaRucCacheTtlNegativo())
+                : null;
+    }
+
+    /**
+     * @return Un identificador de petición nuevo, único dentro del cliente.
+     */
+    public long nextDId() {
+        return dId.getAndIncrement();
+    }
+
+    /**
+     * Obtiene un buffer vacío para serializar un mensaje, reutilizando uno liberado anteriormente si lo hay.
+     *
+     * @return Un buffer de uso exclusivo, a devolver con {@link #releaseMessageBuffer(MessageBuffer)}.
+     */
+    public MessageBuffer acquireMessageBuffer() {
+        MessageBuffer buffer = messageBuffers.poll();
+        return buffer != null ? buffer : new MessageBuffer(INITIAL_BUFFER_SIZE);
+    }
+
+    /**
+     * Devuelve un buffer al pool, para ser reutilizado por otra petición. El buffer no debe utilizarse luego.
+     */
+    public void releaseMessageBuffer(MessageBuffer buffer) {
+        if (buffer.capacity() <= MAX_POOLED_BUFFER_SIZE) {
+            buffer.reset();
+            messageBuffers.offer(buffer);
+        }
+    }
+
+    /**
+     * Decide si se capturan los mensajes de una petición, según la proporción de muestreo configurada.
+     *
+     * @return Si la petición forma parte de la muestra.
+     */
+    public boolean sampleCapture() {
+        double muestreo = sifenConfig.getCapturaMuestreo();
+        return muestreo >= 1 || (muestreo > 0 && ThreadLocalRandom.current().nextDouble() < muestreo);
+    }
+
+    public SifenConfig getSifenConfig() {
+        return sifenConfig;
+    }
+
+    public SSLSocketFactory getSslSocketFactory() {
+        return sslSocketFactory;
+    }
+
+    public HttpTransport getHttpTransport() {
+        return httpTransport;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public AsyncRequestExecutor getAsyncRequestExecutor() {
+        return asyncRequestExecutor;
+    }
+
+    /**
+     * @return La caché de consultas de RUC, o <strong>null</strong> si no está habilitada.
+     */
+    public RucCache getRucCache() {
+        return rucCache;
+    }
+
+    /**
+     * @return El registro local de RUCs, o <strong>null</strong> si no está configurado.
+     */
+    public RucRegistry getRucRegistry() {
+        return rucRegistry;
+    }
+
+    /**
+     * Retorna el pool de hilos utilizado para generar y firmar en paralelo los DE de un lote, creándolo en el primer uso
+     * con la cantidad de hilos configurada.
+     *
+     * @return El pool de hilos de generación, o <strong>null</strong> si la generación es secuencial (un solo hilo).
+     */
+    public ExecutorService getGenerationExecutor() {
+        if (sifenConfig.getLoteHilosGeneracion() <= 1) {
+            return null;
+        }
+
+        ExecutorService executor = generationExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                if (closed) {
+                    throw new IllegalStateException("El cliente de Sifen ya fue cerrado.");
+                }
+                executor = generationExecutor;
+                if (executor == null) {
+                    int threads = sifenConfig.getLoteHilosGeneracion();
+                    ThreadPoolExecutor threadPool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, "sifen-generacion-" + generationThreadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    // Los hilos inactivos terminan, aun si el cliente nunca es cerrado
+                    threadPool.allowCoreThreadTimeOut(true);
+                    executor = threadPool;
+                    generationExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Libera los recursos del contexto, cerrando las conexiones del pool, los hilos de las peticiones asíncronas y los
+     * hilos de generación.
+     */
+    public void close() {
+        httpTransport.getPool().shutdown();
+        asyncRequestExecutor.shutdown();
+        if (rucRegistry != null) {
+            rucRegistry.close();
+        }
+        synchronized (this) {
+            closed = true;
+            if (generationExecutor != null) {
+                generationExecutor.shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.roshka.sifen.internal.helpers;
+
+import com.roshka.sifen.core.beans.ValidezFirmaDigital;
+import com.roshka.sifen.core.exceptions.SifenException;
+import com.roshka.sifen.internal.util.SifenExceptionUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Helper encargado de verificar en paralelo las firmas digitales de grandes cantidades de Documentos Electrónicos,
+ * leídos desde un directorio, un archivo ZIP o una lista de textos XML. Cada documento se valida en memoria con
+ * {@link SignatureHelper}, y los resultados se retornan en el orden en que fueron leídos.
+ */
+public class BulkSignatureValidator {
+    private final static Logger logger = Logger.getLogger(BulkSignatureValidator.class.toString());
+
+    // Cantidad máxima de entradas de un ZIP leídas en memoria y pendientes de validación
+    private final static int MAX_PENDING_ENTRIES = 256;
+    private final static String XML_EXTENSION = ".xml";
+
+    private final static AtomicInteger threadCount = new AtomicInteger();
+    private static volatile ExecutorService defaultExecutor;
+
+    /**
+     * Verifica las firmas de los archivos XML de un directorio, o de las entradas XML de un archivo ZIP.
+     *
+     * @param source   Directorio o archivo ZIP.
+     * @param executor Pool de hilos en el que se realizan las validaciones, o <strong>null</strong> para utilizar el
+     *                 pool interno.
+     * @return El resultado de cada documento, por nombre de archivo.
+     * @throws SifenException Si el directorio o el archivo ZIP no pudieron ser leídos.
+     */
+    public static Map<String, ValidezFirmaDigital> validate(File source, ExecutorService executor) throws SifenException {
+        if (source.isFile()) {
+            try (InputStream zip = new FileInputStream(source)) {
+                return validateZip(zip, executor);
+            } catch (IOException e) {
+                throw SifenExceptionUtil.xmlParsingError("No se pudo leer el archivo ZIP " + source, e);
+            }
+        }
+
+        File[] files = source.listFiles(file -> file.isFile() && file.getName().toLowerCase().endsWith(XML_EXTENSION));
+        if (files == null) {
+            throw SifenExceptionUtil.xmlParsingError("No se pudo leer el directorio " + source);
+        }
+        Arrays.sort(files);
+
+        ExecutorService pool = executor != null ? executor : getDefaultExecutor();
+        Map<String, Future<ValidezFirmaDigital>> results = new LinkedHashMap<>();
+        for (File file : files) {
+            results.put(file.getName(), pool.submit(() -> SignatureHelper.validateSignature(file)));
+        }
+        return collect(results);
+    }
+
+    /**
+     * Verifica las firmas de las entradas XML de un archivo ZIP. Las entradas se leen en orden, y cada una se valida
+     * mientras se leen las siguientes.
+     *
+     * @param zip      Stream del archivo ZIP, que no es cerrado.
+     * @param executor Pool de hilos en el que se realizan las validaciones, o <strong>null</strong> para utilizar el
+     *                 pool interno.
+     * @return El resultado de cada documento, por nombre de entrada.
+     * @throws SifenException Si el archivo ZIP no pudo ser leído.
+     */
+    public static Map<String, ValidezFirmaDigital> validateZip(InputStream zip, ExecutorService executor) throws SifenException {
+        ExecutorService pool = executor != null ? executor : getDefaultExecutor();
+        Semaphore pending = new Semaphore(MAX_PENDING_ENTRIES);
+        Map<String, Future<ValidezFirmaDigital>> results = new LinkedHashMap<>();
+        try {
+            ZipInputStream zipInput = new ZipInputStream(zip);
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            byte[] chunk = new byte[8192];
+            ZipEntry entry;
+            while ((entry = zipInput.getNextEntry()) != null) {
+                if (entry.isDirectory() || !entry.getName().toLowerCase().endsWith(XML_EXTENSION)) continue;
+
+                buffer.reset();
+                int read;
+                while ((read = zipInput.read(chunk)) != -1) {
+                    buffer.write(chunk, 0, read);
+                }
+                byte[] xml = buffer.toByteArray();
+
+                // Se limita la cantidad de documentos en memoria si la lectura es más rápida que la validación
+                pending.acquire();
+                try {
+                    results.put(entry.getName(), pool.submit(() -> {
+                        try {
+                            return SignatureHelper.validateSignature(new ByteArrayInputStream(xml));
+                        } finally {
+                            pending.release();
+                        }
+                    }));
+                } catch (RuntimeException e) {
+                    pending.release();
+                    throw e;
+                }
+            }
+        } catch (IOException e) {
+            cancel(results);
+            throw SifenExceptionUtil.xmlParsingError("No se pudo leer el archivo ZIP", e);
+        } catch (InterruptedException e) {
+            cancel(results);
+            Thread.currentThread().interrupt();
+            throw SifenExceptionUtil.unexpectedError("La validación de las firmas fue interrumpida", e);
+        }
+        return collect(results);
+    }
+
+    /**
+     * Verifica las firmas de un conjunto de Documentos Electrónicos en formato XML.
+     *
+     * @param xmls     Textos XML de los documentos.
+     * @param executor Pool de hilos en el que se realizan las validaciones, o <strong>null</strong> para utilizar el
+     *                 pool interno.
+     * @return El resultado de cada documento, en el mismo orden.
+     * @throws SifenException Si la validación fue interrumpida.
+     */
+    public static List<ValidezFirmaDigital> validateXmls(List<String> xmls, ExecutorService executor) throws SifenException {
+        ExecutorService pool = executor != null ? executor : getDefaultExecutor();
+        Map<String, Future<ValidezFirmaDigital>> results = new LinkedHashMap<>();
+        for (String xml : xmls) {
+            results.put(String.valueOf(results.size()), pool.submit(() -> SignatureHelper.validateSignature(xml, "XML")));
+        }
+        return new ArrayList<>(collect(results).values());
+    }
+
+    private static Map<String, ValidezFirmaDigital> collect(Map<String, Future<ValidezFirmaDigital>> results) throws SifenException {
+        Map<String, ValidezFirmaDigital> validations = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, Future<ValidezFirmaDigital>> result : results.entrySet()) {
+                validations.put(result.getKey(), get(result.getValue()));
+            }
+        } catch (InterruptedException e) {
+            cancel(results);
+            Thread.currentThread().interrupt();
+            throw SifenExceptionUtil.unexpectedError("La validación de las firmas fue interrumpida", e);
+        }
+        return validations;
+    }
+
+    private static ValidezFirmaDigital get(Future<ValidezFirmaDigital> result) throws InterruptedException {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            // Un error inesperado en un documento no detiene la validación de los demás
+            logger.log(Level.WARNING, "Ocurrió un error al validar la firma digital", e.getCause());
+            return ValidezFirmaDigital.create(false, "Ocurrió un error al validar la firma " +
+                    "digital del Documento Electrónico.");
+        }
+    }
+
+    private static void cancel(Map<String, Future<ValidezFirmaDigital>> results) {
+        for (Future<ValidezFirmaDigital> result : results.values()) {
+            result.cancel(false);
+        }
+    }
+
+    /*
+     * Pool compartido por todas las validaciones que no indican uno propio, con un hilo por procesador. Los hilos
+     * inactivos terminan, por lo que no es necesario cerrarlo.
+     */
+    private static ExecutorService getDefaultExecutor() {
+        ExecutorService executor = defaultExecutor;
+        if (executor == null) {
+            synchronized (BulkSignatureValidator.class) {
+                executor = defaultExecutor;
+                if (executor == null) {
+                    int threads = Runtime.getRuntime().availableProcessors();
+                    ThreadPoolExecutor threadPool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, "sifen-validacion-firma-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    threadPool.allowCoreThreadTimeOut(true);
+                    executor = threadPool;
+                    defaultExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+}
@@ -0,0 +1,93 @@
+package com.roshka.sifen.internal.helpers;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Caché de los sujetos encontrados en los certificados de las firmas verificadas, por huella digital (SHA-256) del
+ * certificado. Los Documentos Electrónicos de un mismo emisor se firman con el mismo certificado, por lo que sus
+ * sujetos se obtienen una sola vez.
+ */
+public class CertificateSubjectCache {
+    private final static int MAX_CERTIFICATES = 1024;
+    private final static String FINGERPRINT_ALGORITHM = "SHA-256";
+
+    private final static Map<ByteBuffer, List<String[]>> cache = new ConcurrentHashMap<>();
+    private final static AtomicLong loads = new AtomicLong();
+    private final static AtomicLong hits = new AtomicLong();
+
+    /**
+     * Obtiene los sujetos del certificado, leyéndolos con la función indicada si no se encuentran en la caché.
+     *
+     * @param certificate Certificado de la firma.
+     * @param reader      Función que obtiene los sujetos del certificado.
+     * @return Los sujetos del certificado, que no deben ser modificados.
+     */
+    public static List<String[]> get(X509Certificate certificate, Function<X509Certificate, List<String[]>> reader) {
+        ByteBuffer fingerprint = fingerprint(certificate);
+        if (fingerprint == null) {
+            return reader.apply(certificate);
+        }
+
+        List<String[]> subjects = cache.get(fingerprint);
+        if (subjects != null) {
+            hits.incrementAndGet();
+            return subjects;
+        }
+
+        // Los certificados son pocos; si se alcanza el límite, se vuelve a empezar
+        if (cache.size() >= MAX_CERTIFICATES) {
+            cache.clear();
+        }
+
+        subjects = Collections.unmodifiableList(reader.apply(certificate));
+        cache.put(fingerprint, subjects);
+        loads.incrementAndGet();
+        return subjects;
+    }
+
+    /**
+     * @return Cantidad de certificados en la caché.
+     */
+    public static int size() {
+        return cache.size();
+    }
+
+    /**
+     * @return Cantidad de veces que se leyeron los sujetos de un certificado.
+     */
+    public static long getLoads() {
+        return loads.get();
+    }
+
+    /**
+     * @return Cantidad de veces que los sujetos se obtuvieron de la caché.
+     */
+    public static long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Elimina todos los certificados de la caché.
+     */
+    public static void clear() {
+        cache.clear();
+    }
+
+    private static ByteBuffer fingerprint(X509Certificate certificate) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance(FINGERPRINT_ALGORITHM).digest(certificate.getEncoded()));
+        } catch (NoSuchAlgorithmException | CertificateEncodingException e) {
+            return null;
+        }
+    }
+}
@@ -19,13 +19,17 @@ import static java.util.logging.Logger.getLogger;
  */
 public class SSLContextHelper {
     private final static Logger logger = getLogger(SSLContextHelper.class.toString());
-    private static SSLContext _sslContext;
 
+    /**
+     * Crea un contexto SSL a partir del certificado de la configuración. No se guarda en caché: cada cliente de Sifen
+     * crea el suyo una única vez, lo que permite utilizar distintas configuraciones en una misma JVM.
+     *
+     * @param sifenConfig Configuración de Sifen.
+     * @return El contexto SSL creado, o el contexto SSL por defecto si no se configuró un certificado de cliente.
+     * @throws SifenException Si el certificado no pudo ser cargado o el contexto no pudo ser inicializado.
+     */
     public static SSLContext getContextFromConfig(SifenConfig sifenConfig) throws SifenException {
-        if (_sslContext != null)
-            return _sslContext;
-
-        logger.info("Contexto SSL no cargado aún. Empezando carga...");
+        logger.info("Cargando contexto SSL...");
         if (!isCertificateConfigurationValid(sifenConfig)) {
             try {
                 logger.info("Se utilizará un contexto SSL por defecto.");
@@ -56,7 +60,7 @@ public class SSLContextHelper {
                     null,
                     new SecureRandom()
             );
-            return _sslContext = sslContext;
+            return sslContext;
         } catch (KeyManagementException e) {
             throw SifenExceptionUtil.invalidSSLContext("No se inicializar el contexto SSL: " + e.getLocalizedMessage(), e);
         } catch (NoSuchAlgorithmException e) {
@@ -80,16 +84,20 @@ public class SSLContextHelper {
             throw SifenExceptionUtil.invalidSSLContext("No se obtener una instancia de almacén de claves PKCS12: " + e.getLocalizedMessage(), e);
         }
 
+        InputStream certInputStream;
         try {
-            InputStream certInputStream;
+            certInputStream = new FileInputStream(certificate);
+        } catch (FileNotFoundException e) {
+            logger.info("El certificado no es un archivo. Intentando decodificar...");
             try {
-                certInputStream = new FileInputStream(certificate);
-            } catch (FileNotFoundException e) {
-                logger.info("El certificado no es un archivo. Intentando decodificar...");
                 certInputStream = new ByteArrayInputStream(Base64.getDecoder().decode(certificate));
+            } catch (IllegalArgumentException ex) {
+                throw SifenExceptionUtil.invalidSSLContext("No se puede cargar el certificado de cliente: " + ex.getLocalizedMessage(), ex);
             }
+        }
 
-            keyStore.load(certInputStream, password.toCharArray());
+        try (InputStream is = certInputStream) {
+            keyStore.load(is, password.toCharArray());
         } catch (IOException | NoSuchAlgorithmException | CertificateException | IllegalArgumentException e) {
             throw SifenExceptionUtil.invalidSSLContext("No se puede cargar el certificado de cliente: " + e.getLocalizedMessage(), e);
         }
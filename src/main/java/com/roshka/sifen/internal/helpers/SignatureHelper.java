@@ -8,8 +8,11 @@ import com.roshka.sifen.internal.util.SifenExceptionUtil;
 import com.roshka.sifen.internal.util.SifenUtil;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
+import org.w3c.dom.Node;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
 import sun.security.x509.GeneralName;
 import sun.security.x509.X500Name;
 import sun.security.x509.X509CertImpl;
@@ -19,25 +22,24 @@ import javax.xml.crypto.dsig.*;
 import javax.xml.crypto.dsig.dom.DOMSignContext;
 import javax.xml.crypto.dsig.dom.DOMValidateContext;
 import javax.xml.crypto.dsig.keyinfo.KeyInfo;
-import javax.xml.crypto.dsig.keyinfo.KeyInfoFactory;
 import javax.xml.crypto.dsig.keyinfo.X509Data;
 import javax.xml.crypto.dsig.spec.C14NMethodParameterSpec;
 import javax.xml.crypto.dsig.spec.TransformParameterSpec;
+import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.soap.SOAPElement;
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
+import java.io.InputStream;
+import java.io.StringReader;
 import java.security.*;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -45,9 +47,49 @@ import java.util.regex.Pattern;
  * Helper encargado de la firma digital de los documentos XML.
  */
 public class SignatureHelper {
+    private final static Logger logger = Logger.getLogger(SignatureHelper.class.toString());
     private static final XMLSignatureFactory _xmlSignatureFactory = XMLSignatureFactory.getInstance();
     private static final List<Transform> transforms;
 
+    // Elementos buscados en el documento a validar, por su posición en el arreglo retornado por findElements
+    private final static String[] SEARCHED_ELEMENTS = {"Signature", "DE", "dRucEm", "dDVEmi"};
+    private final static int SIGNATURE = 0;
+    private final static int DE = 1;
+    private final static int RUC = 2;
+    private final static int DV = 3;
+
+    private final static Pattern SERIALNUMBER_PATTERN = subjectAttributePattern("SERIALNUMBER");
+    private final static Pattern CN_PATTERN = subjectAttributePattern("CN");
+    private final static Pattern O_PATTERN = subjectAttributePattern("O");
+
+    // La especificación no garantiza que una misma fábrica pueda ser utilizada por varios hilos a la vez
+    private final static ThreadLocal<XMLSignatureFactory> validationSignatureFactory = ThreadLocal.withInitial(XMLSignatureFactory::getInstance);
+    private final static ThreadLocal<DocumentBuilder> documentBuilder = ThreadLocal.withInitial(() -> {
+        try {
+            DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
+            documentBuilderFactory.setNamespaceAware(true);
+            return documentBuilderFactory.newDocumentBuilder();
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("No se pudo crear el constructor de documentos DOM", e);
+        }
+    });
+
+    // Los errores de parseo se informan en el resultado de la validación, sin escribirlos en la salida de errores
+    private final static ErrorHandler SILENT_ERROR_HANDLER = new ErrorHandler() {
+        @Override
+        public void warning(SAXParseException exception) {
+        }
+
+        @Override
+        public void error(SAXParseException exception) {
+        }
+
+        @Override
+        public void fatalError(SAXParseException exception) throws SAXParseException {
+            throw exception;
+        }
+    };
+
     static {
         transforms = new ArrayList<>();
         try {
@@ -60,10 +102,32 @@ public class SignatureHelper {
     }
 
     public static SignedInfo signDocument(SifenConfig sifenConfig, SOAPElement signatureParentNode, String signedNodeId) throws SifenException {
+        return sign(sifenConfig, signatureParentNode, signedNodeId, null);
+    }
+
+    /**
+     * Firma un nodo cuyo digest (SHA-256 de su forma canónica) ya fue calculado, por ejemplo durante la escritura en
+     * streaming del documento. El nodo <i>Signature</i> generado es idéntico al que se obtiene con
+     * {@link #signDocument(SifenConfig, SOAPElement, String)}, y se agrega como hijo de signatureParentNode.
+     *
+     * @param sifenConfig         Configuración de Sifen, de la que se obtiene el certificado.
+     * @param signatureParentNode Nodo al que se agrega la firma.
+     * @param signedNodeId        Identificador del nodo firmado.
+     * @param digestValue         Digest del nodo firmado.
+     * @return La información firmada.
+     * @throws SifenException Si la firma falla.
+     */
+    public static SignedInfo signDigest(SifenConfig sifenConfig, Node signatureParentNode, String signedNodeId, byte[] digestValue) throws SifenException {
+        return sign(sifenConfig, signatureParentNode, signedNodeId, digestValue);
+    }
+
+    private static SignedInfo sign(SifenConfig sifenConfig, Node signatureParentNode, String signedNodeId, byte[] digestValue) throws SifenException {
         try {
-            Reference ref = _xmlSignatureFactory.newReference("#" + signedNodeId,
-                    _xmlSignatureFactory.newDigestMethod(DigestMethod.SHA256, null),
-                    transforms, null, null);
+            // Si el digest ya fue calculado, la referencia no vuelve a recorrer el nodo firmado
+            DigestMethod digestMethod = _xmlSignatureFactory.newDigestMethod(DigestMethod.SHA256, null);
+            Reference ref = digestValue == null
+                    ? _xmlSignatureFactory.newReference("#" + signedNodeId, digestMethod, transforms, null, null)
+                    : _xmlSignatureFactory.newReference("#" + signedNodeId, digestMethod, transforms, null, null, digestValue);
 
             SignedInfo signedInfo = _xmlSignatureFactory.newSignedInfo(
                     _xmlSignatureFactory.newCanonicalizationMethod(CanonicalizationMethod.EXCLUSIVE, (C14NMethodParameterSpec) null),
@@ -71,82 +135,74 @@ public class SignatureHelper {
                     Collections.singletonList(ref)
             );
 
-            KeyStore keyStore = SSLContextHelper.getCertificateKeyStore(sifenConfig);
-            String alias = keyStore.aliases().nextElement();
-            X509Certificate certificate = (X509Certificate) keyStore.getCertificate(alias);
-
-            KeyInfoFactory keyInfoFactory = _xmlSignatureFactory.getKeyInfoFactory();
-            X509Data x509Data = keyInfoFactory.newX509Data(Collections.singletonList(certificate));
-            KeyInfo keyInfo = keyInfoFactory.newKeyInfo(Collections.singletonList(x509Data));
+            // Las claves se obtienen de la caché, evitando descifrar el certificado en cada firma
+            SigningKeyCache.SigningKeyMaterial keyMaterial = SigningKeyCache.get(sifenConfig, _xmlSignatureFactory);
 
-            XMLSignature signature = _xmlSignatureFactory.newXMLSignature(signedInfo, keyInfo);
-            PrivateKey privateKey = (PrivateKey) keyStore.getKey(alias, sifenConfig.getContrasenaCertificadoCliente().toCharArray());
-
-            DOMSignContext signatureContext = new DOMSignContext(privateKey, signatureParentNode);
+            XMLSignature signature = _xmlSignatureFactory.newXMLSignature(signedInfo, keyMaterial.getKeyInfo());
+            DOMSignContext signatureContext = new DOMSignContext(keyMaterial.getPrivateKey(), signatureParentNode);
             signature.sign(signatureContext);
 
             return signedInfo;
         } catch (NoSuchAlgorithmException | InvalidAlgorithmParameterException | XMLSignatureException |
-                 MarshalException | KeyStoreException | UnrecoverableKeyException e) {
+                 MarshalException e) {
             throw SifenExceptionUtil.requestSigningError("Ocurrió un error al firmar la petición SOAP utilizando el certificado activo", e);
         }
     }
 
     public static ValidezFirmaDigital validateSignature(String xml, String type) {
-        File xmlFile;
+        // El XML recibido como texto se valida en memoria, sin escribirlo en un archivo temporal
         if (type.equals("XML")) {
-            try {
-                // Create file from xml string
-                xmlFile = File.createTempFile(String.valueOf(UUID.randomUUID()), ".xml");
-
-                BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
-                        Files.newOutputStream(xmlFile.toPath()), StandardCharsets.UTF_8
-                ));
-                writer.write(xml);
-                writer.close();
-            } catch (IOException e) {
-                e.printStackTrace();
-                return ValidezFirmaDigital.create(false, "Ocurrió un error al crear el archivo XML.");
-            }
-        } else {
-            xmlFile = new File(xml);
+            return validateSignature(new InputSource(new StringReader(xml)));
         }
-
-        // Validate signature
-        return validateSignature(xmlFile);
+        return validateSignature(new File(xml));
     }
 
     public static ValidezFirmaDigital validateSignature(File xml) {
+        return validateSignature(new InputSource(xml.toURI().toASCIIString()));
+    }
+
+    /**
+     * Verifica la firma digital de un Documento Electrónico leído desde un stream. El parser cierra el stream al terminar
+     * la lectura.
+     *
+     * @param xml Stream con el Documento Electrónico, en formato XML; se cierra al terminar la validación.
+     * @return El resultado de la validación.
+     */
+    public static ValidezFirmaDigital validateSignature(InputStream xml) {
+        return validateSignature(new InputSource(xml));
+    }
+
+    private static ValidezFirmaDigital validateSignature(InputSource xml) {
         try {
             // Parse the document to be validated
-            DocumentBuilderFactory builderFactory = DocumentBuilderFactory.newInstance();
-            builderFactory.setNamespaceAware(true);
             Document document;
             try {
-                document = builderFactory.newDocumentBuilder().parse(xml);
+                DocumentBuilder builder = documentBuilder.get();
+                builder.reset();
+                builder.setErrorHandler(SILENT_ERROR_HANDLER);
+                document = builder.parse(xml);
             } catch (SAXException e) {
-                e.printStackTrace();
+                logger.log(Level.FINE, "El XML del Documento Electrónico no es válido", e);
                 return ValidezFirmaDigital.create(false, "Ocurrió un error al parsear el " +
                         "archivo XML. Revise que el archivo sea un XML válido, y que tenga un solo nodo raíz.");
             }
 
-            // Find Signature
-            NodeList signatureNodes = document.getElementsByTagName("Signature");
-            if (signatureNodes.getLength() == 0) {
+            // Find Signature, DE, dRucEm and dDVEmi in a single pass
+            Element[] elements = findElements(document);
+            if (elements[SIGNATURE] == null) {
                 return ValidezFirmaDigital.create(false, "No se encontró la firma digital en " +
                         "el Documento Electrónico.");
             }
 
             // Get signed element from document
-            DOMValidateContext valContext = new DOMValidateContext(new X509KeySelector(), signatureNodes.item(0));
-            NodeList DENodes = document.getElementsByTagName("DE");
-            if (DENodes.getLength() > 0) {
-                valContext.setIdAttributeNS((Element) DENodes.item(0), null, "Id");
+            DOMValidateContext valContext = new DOMValidateContext(new X509KeySelector(), elements[SIGNATURE]);
+            if (elements[DE] != null) {
+                valContext.setIdAttributeNS(elements[DE], null, "Id");
             } else {
                 return ValidezFirmaDigital.create(false, "No se encontró el nodo 'DE' en el " +
                         "Documento Electrónico.");
             }
-            XMLSignature signature = _xmlSignatureFactory.unmarshalXMLSignature(valContext);
+            XMLSignature signature = validationSignatureFactory.get().unmarshalXMLSignature(valContext);
 
             // Get subjects from certificate for further validation
             List<ValidezFirmaDigital.SujetoCertificado> certificateSubjects = getCertificateSubjects(signature.getKeyInfo());
@@ -158,33 +214,68 @@ public class SignatureHelper {
                         certificateSubjects);
             }
 
-            return checkDocumentIssuer(document, certificateSubjects);
-        } catch (MarshalException | XMLSignatureException | ParserConfigurationException | IOException e) {
-            e.printStackTrace();
+            return checkDocumentIssuer(elements, certificateSubjects);
+        } catch (MarshalException | XMLSignatureException | IOException | RuntimeException e) {
+            logger.log(Level.WARNING, "Ocurrió un error al validar la firma digital", e);
             return ValidezFirmaDigital.create(false, "Ocurrió un error al validar la firma " +
                     "digital del Documento Electrónico.");
         }
     }
 
-    private static ValidezFirmaDigital checkDocumentIssuer(Document document, List<ValidezFirmaDigital.SujetoCertificado> certificateSubjects) {
+    /*
+     * Recorre el documento una sola vez, en orden, y retorna el primer elemento encontrado con cada uno de los nombres
+     * buscados (Signature, DE, dRucEm y dDVEmi).
+     */
+    private static Element[] findElements(Document document) {
+        Element[] elements = new Element[SEARCHED_ELEMENTS.length];
+        int missing = elements.length;
+
+        Node node = document.getDocumentElement();
+        while (node != null && missing > 0) {
+            if (node.getNodeType() == Node.ELEMENT_NODE) {
+                String name = node.getLocalName() != null ? node.getLocalName() : node.getNodeName();
+                for (int i = 0; i < SEARCHED_ELEMENTS.length; i++) {
+                    if (elements[i] == null && SEARCHED_ELEMENTS[i].equals(name)) {
+                        elements[i] = (Element) node;
+                        missing--;
+                        break;
+                    }
+                }
+            }
+
+            // Next node in document order
+            Node next = node.getFirstChild();
+            while (next == null && node != null) {
+                next = node.getNextSibling();
+                if (next == null) {
+                    node = node.getParentNode();
+                    if (node == document) {
+                        node = null;
+                    }
+                }
+            }
+            node = next;
+        }
+        return elements;
+    }
+
+    private static ValidezFirmaDigital checkDocumentIssuer(Element[] elements, List<ValidezFirmaDigital.SujetoCertificado> certificateSubjects) {
         // Get Issuer RUC from Electronic Document
-        NodeList dRucEmNodes = document.getElementsByTagName("dRucEm");
-        if (dRucEmNodes.getLength() == 0) {
+        if (elements[RUC] == null) {
             return ValidezFirmaDigital.create(false, "No se encontró el nodo 'dRucEm' en " +
                     "el Documento Electrónico.", certificateSubjects);
         }
 
-        NodeList dDVEmiNodes = document.getElementsByTagName("dDVEmi");
-        if (dRucEmNodes.getLength() == 0) {
+        if (elements[DV] == null) {
             return ValidezFirmaDigital.create(false, "No se encontró el nodo 'dDVEmi' en " +
                     "el Documento Electrónico.", certificateSubjects);
         }
 
-        String issuerRuc = dRucEmNodes.item(0).getTextContent();
-        String issuerDv = dDVEmiNodes.item(0).getTextContent();
+        String issuerRuc = elements[RUC].getTextContent();
+        String issuerDv = elements[DV].getTextContent();
 
         for (ValidezFirmaDigital.SujetoCertificado subject : certificateSubjects) {
-            if (subject.getNumeroDocumento().equals(issuerRuc + "-" + issuerDv)) {
+            if ((issuerRuc + "-" + issuerDv).equals(subject.getNumeroDocumento())) {
                 return ValidezFirmaDigital.create(true, certificateSubjects);
             }
         }
@@ -194,20 +285,37 @@ public class SignatureHelper {
     }
 
     private static List<ValidezFirmaDigital.SujetoCertificado> getCertificateSubjects(KeyInfo keyInfo) {
-        List<ValidezFirmaDigital.SujetoCertificado> certificateSubjects = new ArrayList<>();
-
         // Get certificate from Electronic Document
-        X509CertImpl certificate = (X509CertImpl) X509KeySelector.getCertificate(keyInfo);
-        if (certificate == null) return certificateSubjects;
+        X509Certificate certificate = X509KeySelector.getCertificate(keyInfo);
+        if (certificate == null) return new ArrayList<>();
+
+        // Los sujetos de un mismo certificado se obtienen una sola vez
+        List<String[]> subjects = CertificateSubjectCache.get(certificate, SignatureHelper::readCertificateSubjects);
+
+        // Cada resultado recibe sus propias instancias, ya que los sujetos pueden ser modificados
+        List<ValidezFirmaDigital.SujetoCertificado> certificateSubjects = new ArrayList<>(subjects.size());
+        for (String[] subject : subjects) {
+            certificateSubjects.add(ValidezFirmaDigital.SujetoCertificado.create(subject[0], subject[1]));
+        }
+        return certificateSubjects;
+    }
+
+    /*
+     * Obtiene el número de documento y el nombre de cada sujeto del certificado, sin procesar.
+     */
+    private static List<String[]> readCertificateSubjects(X509Certificate x509Certificate) {
+        List<String[]> subjects = new ArrayList<>();
+        if (!(x509Certificate instanceof X509CertImpl)) return subjects;
+        X509CertImpl certificate = (X509CertImpl) x509Certificate;
 
         // Get main subject information from certificate
         try {
             String subject = certificate.getSubjectDN().getName();
 
-            certificateSubjects.add(ValidezFirmaDigital.SujetoCertificado.create(
-                    getAttributeFromSubject(subject, "SERIALNUMBER"),
-                    SifenUtil.coalesce(getAttributeFromSubject(subject, "CN"), getAttributeFromSubject(subject, "O"))
-            ));
+            subjects.add(new String[]{
+                    getAttributeFromSubject(subject, SERIALNUMBER_PATTERN),
+                    SifenUtil.coalesce(getAttributeFromSubject(subject, CN_PATTERN), getAttributeFromSubject(subject, O_PATTERN))
+            });
         } catch (Exception ignored) {
         }
 
@@ -219,19 +327,18 @@ public class SignatureHelper {
 
                 String subject = name.getName().toString();
 
-                certificateSubjects.add(ValidezFirmaDigital.SujetoCertificado.create(
-                        getAttributeFromSubject(subject, "SERIALNUMBER"),
-                        SifenUtil.coalesce(getAttributeFromSubject(subject, "CN"), getAttributeFromSubject(subject, "O"))
-                ));
+                subjects.add(new String[]{
+                        getAttributeFromSubject(subject, SERIALNUMBER_PATTERN),
+                        SifenUtil.coalesce(getAttributeFromSubject(subject, CN_PATTERN), getAttributeFromSubject(subject, O_PATTERN))
+                });
             }
         } catch (Exception ignored) {
         }
 
-        return certificateSubjects;
+        return subjects;
     }
 
-    private static String getAttributeFromSubject(String subject, String attributeName) {
-        Pattern pattern = Pattern.compile("(?<=" + attributeName + "=)[\\w\\s-]+");
+    private static String getAttributeFromSubject(String subject, Pattern pattern) {
         Matcher matcher = pattern.matcher(subject);
         if (matcher.find()) {
             return matcher.group();
@@ -239,6 +346,10 @@ public class SignatureHelper {
         return null;
     }
 
+    private static Pattern subjectAttributePattern(String attributeName) {
+        return Pattern.compile("(?<=" + attributeName + "=)[\\w\\s-]+");
+    }
+
     private static class X509KeySelector extends KeySelector {
         public KeySelectorResult select(KeyInfo keyInfo, Purpose purpose, AlgorithmMethod method,
                                         XMLCryptoContext context) throws KeySelectorException {
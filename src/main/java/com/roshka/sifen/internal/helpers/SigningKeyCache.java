@@ -0,0 +1,248 @@
+package com.roshka.sifen.internal.helpers;
+
+import com.roshka.sifen.core.SifenConfig;
+import com.roshka.sifen.core.beans.EstadisticasClavesFirma;
+import com.roshka.sifen.core.exceptions.SifenException;
+import com.roshka.sifen.internal.util.SifenExceptionUtil;
+
+import javax.xml.crypto.dsig.XMLSignatureFactory;
+import javax.xml.crypto.dsig.keyinfo.KeyInfo;
+import javax.xml.crypto.dsig.keyinfo.KeyInfoFactory;
+import javax.xml.crypto.dsig.keyinfo.X509Data;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.SecureRandom;
+import java.security.UnrecoverableKeyException;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Caché del material criptográfico utilizado para la firma digital (clave privada, certificado y KeyInfo), por
+ * certificado. Evita abrir y descifrar el archivo PKCS12 en cada firma. Si el certificado es un archivo, se vuelve a
+ * cargar cuando cambia su fecha de modificación o su tamaño, lo que se verifica como máximo una vez por intervalo.
+ * <p>
+ * Los certificados se identifican por el hash SHA-256 de la ruta del archivo (o del contenido en Base64) y de la
+ * contraseña, con un salt aleatorio, por lo que la caché no retiene la contraseña. Se mantienen como máximo
+ * {@value #MAX_ENTRIES} certificados, descartando el utilizado hace más tiempo.
+ */
+public class SigningKeyCache {
+    private final static Logger logger = Logger.getLogger(SigningKeyCache.class.toString());
+    private final static int MAX_ENTRIES = 16;
+    private final static byte[] SALT = new byte[16];
+
+    private final static Map<CacheKey, SigningKeyMaterial> cache = new ConcurrentHashMap<>();
+    private final static AtomicLong loads = new AtomicLong();
+    private final static AtomicLong hits = new AtomicLong();
+    private static volatile long freshnessCheckNanos = TimeUnit.SECONDS.toNanos(5);
+
+    static {
+        new SecureRandom().nextBytes(SALT);
+    }
+
+    /**
+     * Obtiene el material criptográfico correspondiente al certificado de la configuración, cargándolo si no se
+     * encuentra en la caché o si el archivo del certificado fue modificado.
+     *
+     * @param sifenConfig    Configuración de Sifen, con los datos del certificado.
+     * @param signatureFactory Fábrica utilizada para construir el KeyInfo.
+     * @return El material criptográfico del certificado.
+     * @throws SifenException Si la configuración del certificado no es válida o, si el certificado no pudo ser cargado.
+     */
+    public static SigningKeyMaterial get(SifenConfig sifenConfig, XMLSignatureFactory signatureFactory) throws SifenException {
+        CacheKey key = new CacheKey(sifenConfig.getCertificadoCliente(), sifenConfig.getContrasenaCertificadoCliente());
+
+        SigningKeyMaterial keyMaterial = cache.get(key);
+        if (keyMaterial != null && keyMaterial.isFresh()) {
+            hits.incrementAndGet();
+            return keyMaterial;
+        }
+
+        synchronized (cache) {
+            keyMaterial = cache.get(key);
+            if (keyMaterial != null && keyMaterial.isFresh()) {
+                hits.incrementAndGet();
+                return keyMaterial;
+            }
+
+            keyMaterial = load(sifenConfig, signatureFactory);
+            cache.put(key, keyMaterial);
+            evictLeastRecentlyUsed();
+            return keyMaterial;
+        }
+    }
+
+    /**
+     * @return Cantidad de cargas y aciertos de la caché desde el inicio de la aplicación.
+     */
+    public static EstadisticasClavesFirma getStats() {
+        return new EstadisticasClavesFirma(cache.size(), loads.get(), hits.get());
+    }
+
+    /**
+     * Elimina todo el material criptográfico de la caché.
+     */
+    public static void clear() {
+        cache.clear();
+    }
+
+    /**
+     * Establece cada cuánto tiempo, como máximo, se verifica si el archivo de un certificado fue modificado.
+     *
+     * @param millis Intervalo en milisegundos; 0 para verificarlo en cada firma.
+     */
+    public static void setFreshnessCheckInterval(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("El intervalo de verificación no debe ser negativo.");
+        }
+        freshnessCheckNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    private static void evictLeastRecentlyUsed() {
+        while (cache.size() > MAX_ENTRIES) {
+            Map.Entry<CacheKey, SigningKeyMaterial> eldest = null;
+            for (Map.Entry<CacheKey, SigningKeyMaterial> entry : cache.entrySet()) {
+                if (eldest == null || entry.getValue().lastUsed < eldest.getValue().lastUsed) {
+                    eldest = entry;
+                }
+            }
+            cache.remove(eldest.getKey());
+        }
+    }
+
+    private static SigningKeyMaterial load(SifenConfig sifenConfig, XMLSignatureFactory signatureFactory) throws SifenException {
+        logger.info("Cargando clave privada y certificado para la firma digital");
+
+        // Si el certificado es un archivo, se obtiene su versión actual antes de leerlo
+        File file = null;
+        if (sifenConfig.getCertificadoCliente() != null) {
+            file = new File(sifenConfig.getCertificadoCliente());
+            if (!file.isFile()) {
+                file = null;
+            }
+        }
+        long lastModified = file != null ? file.lastModified() : 0;
+        long length = file != null ? file.length() : 0;
+
+        KeyStore keyStore = SSLContextHelper.getCertificateKeyStore(sifenConfig);
+        try {
+            String alias = keyStore.aliases().nextElement();
+            X509Certificate certificate = (X509Certificate) keyStore.getCertificate(alias);
+            PrivateKey privateKey = (PrivateKey) keyStore.getKey(alias, sifenConfig.getContrasenaCertificadoCliente().toCharArray());
+
+            KeyInfoFactory keyInfoFactory = signatureFactory.getKeyInfoFactory();
+            X509Data x509Data = keyInfoFactory.newX509Data(Collections.singletonList(certificate));
+            KeyInfo keyInfo = keyInfoFactory.newKeyInfo(Collections.singletonList(x509Data));
+
+            loads.incrementAndGet();
+            return new SigningKeyMaterial(privateKey, certificate, keyInfo, file, lastModified, length);
+        } catch (KeyStoreException | NoSuchAlgorithmException | UnrecoverableKeyException e) {
+            throw SifenExceptionUtil.requestSigningError("No se pudo obtener la clave privada del certificado activo", e);
+        }
+    }
+
+    /**
+     * Material criptográfico de un certificado. Es inmutable y puede ser compartido entre hilos.
+     */
+    public static class SigningKeyMaterial {
+        private final PrivateKey privateKey;
+        private final X509Certificate certificate;
+        private final KeyInfo keyInfo;
+        private final File file;
+        private final long lastModified;
+        private final long length;
+        private volatile long checkedAt;
+        private volatile long lastUsed;
+
+        private SigningKeyMaterial(PrivateKey privateKey, X509Certificate certificate, KeyInfo keyInfo, File file,
+                                   long lastModified, long length) {
+            this.privateKey = privateKey;
+            this.certificate = certificate;
+            this.keyInfo = keyInfo;
+            this.file = file;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.checkedAt = System.nanoTime();
+            this.lastUsed = this.checkedAt;
+        }
+
+        /**
+         * @return Si el material corresponde a la versión actual del archivo del certificado. El archivo solo se
+         * consulta si pasó el intervalo de verificación desde la última vez.
+         */
+        private boolean isFresh() {
+            long now = System.nanoTime();
+            lastUsed = now;
+            if (file == null || now - checkedAt < freshnessCheckNanos) {
+                return true;
+            }
+            if (file.lastModified() != lastModified || file.length() != length) {
+                return false;
+            }
+            checkedAt = now;
+            return true;
+        }
+
+        public PrivateKey getPrivateKey() {
+            return privateKey;
+        }
+
+        public X509Certificate getCertificate() {
+            return certificate;
+        }
+
+        public KeyInfo getKeyInfo() {
+            return keyInfo;
+        }
+    }
+
+    private static class CacheKey {
+        private final byte[] digest;
+        private final int hash;
+
+        private CacheKey(String certificate, String password) throws SifenException {
+            MessageDigest messageDigest;
+            try {
+                messageDigest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw SifenExceptionUtil.requestSigningError("No se puede obtener una instancia de SHA-256", e);
+            }
+            messageDigest.update(SALT);
+            update(messageDigest, certificate);
+            update(messageDigest, password);
+            this.digest = messageDigest.digest();
+            this.hash = Arrays.hashCode(digest);
+        }
+
+        private static void update(MessageDigest messageDigest, String value) {
+            // Se antepone la longitud para que distintos pares de valores no produzcan la misma secuencia de bytes
+            byte[] bytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            int length = value != null ? bytes.length : -1;
+            messageDigest.update(new byte[]{(byte) (length >>> 24), (byte) (length >>> 16), (byte) (length >>> 8), (byte) length});
+            messageDigest.update(bytes);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CacheKey)) return false;
+
+            return Arrays.equals(digest, ((CacheKey) o).digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -1,22 +1,35 @@
 package com.roshka.sifen.internal.helpers;
 
 import com.roshka.sifen.core.SifenConfig;
+import com.roshka.sifen.core.beans.PoliticaReintentos;
 import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.internal.SOAPResponse;
+import com.roshka.sifen.internal.ctx.ClientCtx;
+import com.roshka.sifen.internal.http.CircuitBreaker;
+import com.roshka.sifen.internal.http.HttpResponse;
+import com.roshka.sifen.internal.http.HttpTransport;
+import com.roshka.sifen.internal.http.RequestMaybeSentException;
+import com.roshka.sifen.internal.http.RequestNotSentException;
+import com.roshka.sifen.internal.util.MessageBuffer;
 import com.roshka.sifen.internal.util.SifenExceptionUtil;
-import com.roshka.sifen.internal.util.SifenUtil;
+import com.roshka.sifen.internal.xml.StreamingXmlWriter;
+import com.roshka.sifen.internal.xml.XmlElement;
 
-import javax.net.ssl.HttpsURLConnection;
-import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
+import javax.xml.namespace.QName;
 import javax.xml.soap.MessageFactory;
 import javax.xml.soap.SOAPConstants;
 import javax.xml.soap.SOAPException;
 import javax.xml.soap.SOAPMessage;
-import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.logging.Logger;
 
 /**
@@ -24,78 +37,349 @@ import java.util.logging.Logger;
  */
 public class SoapHelper {
     private final static Logger logger = Logger.getLogger(SoapHelper.class.toString());
+    private final static String SOAP_ENVELOPE_PREFIX = "env";
+    private final static ThreadLocal<MessageFactory> messageFactory = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageFactory.newInstance(SOAPConstants.SOAP_1_2_PROTOCOL);
+        } catch (SOAPException e) {
+            throw new IllegalStateException("No se pudo crear la fábrica de mensajes SOAP 1.2", e);
+        }
+    });
 
-    private static void setupHttpURLConnectionProperties(HttpsURLConnection httpsConnection, SifenConfig sifenConfig) {
-        httpsConnection.setConnectTimeout(sifenConfig.getHttpConnectTimeout());
-        httpsConnection.setReadTimeout(sifenConfig.getHttpReadTimeout());
-    }
-
-    private static void setupHttpURLConnectionHeaders(HttpsURLConnection httpsConnection, SifenConfig sifenConfig) {
-        httpsConnection.setRequestProperty("User-Agent", sifenConfig.getUserAgent());
-        httpsConnection.setRequestProperty("Content-Type", "application/xml; charset=utf-8");
+    private static Map<String, String> getRequestHeaders(SifenConfig sifenConfig) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("User-Agent", sifenConfig.getUserAgent());
+        headers.put("Content-Type", "application/xml; charset=utf-8");
+        headers.put("Accept", "*/*");
+        return headers;
     }
 
+    /*
+     * La fábrica de mensajes no es thread-safe, y su búsqueda (MessageFactory.newInstance) es costosa, por lo que se
+     * mantiene una por hilo.
+     */
     public static SOAPMessage createSoapMessage() throws SOAPException {
-        MessageFactory mf12 = MessageFactory.newInstance(SOAPConstants.SOAP_1_2_PROTOCOL);
-        return mf12.createMessage();
+        return messageFactory.get().createMessage();
     }
 
     public static SOAPMessage parseSoapMessage(InputStream is)
             throws SOAPException, IOException {
-        MessageFactory mf12 = MessageFactory.newInstance(SOAPConstants.SOAP_1_2_PROTOCOL);
-        return mf12.createMessage(null, is);
+        return messageFactory.get().createMessage(null, is);
+    }
+
+    /**
+     * Escribe la declaración XML y el inicio de un mensaje SOAP 1.2 vacío, idéntico al creado con
+     * {@link #createSoapMessage()}.
+     *
+     * @param writer Escritor en el que se escribe el mensaje.
+     * @return El cuerpo (<i>Body</i>) del mensaje, en el que se agrega el contenido.
+     */
+    public static XmlElement startSoapMessage(StreamingXmlWriter writer) throws SOAPException, IOException {
+        writer.writeXmlDeclaration(true);
+        XmlElement envelope = writer.createRootElement(new QName(SOAPConstants.URI_NS_SOAP_1_2_ENVELOPE, "Envelope", SOAP_ENVELOPE_PREFIX));
+        envelope.addChildElement(new QName(SOAPConstants.URI_NS_SOAP_1_2_ENVELOPE, "Header", SOAP_ENVELOPE_PREFIX));
+        return envelope.addChildElement(new QName(SOAPConstants.URI_NS_SOAP_1_2_ENVELOPE, "Body", SOAP_ENVELOPE_PREFIX));
+    }
+
+    /**
+     * Realiza la petición con un mensaje SOAP ya serializado, en un único intento.
+     *
+     * @param clientCtx   Contexto del cliente, del que se obtiene la configuración y el transporte.
+     * @param urlString   URL de destino.
+     * @param requestBody Mensaje SOAP serializado en UTF-8.
+     * @return La respuesta de Sifen.
+     * @throws SifenException Si la petición falla.
+     */
+    public static SOAPResponse makeSoapRequest(ClientCtx clientCtx, String urlString, byte[] requestBody) throws SifenException {
+        return makeSoapRequest(clientCtx, urlString, requestBody, 0, requestBody.length, true,
+                PoliticaReintentos.SIN_REINTENTOS, null);
     }
 
-    public static SOAPResponse makeSoapRequest(SifenConfig sifenConfig, String urlString, SOAPMessage soapMessage) throws SifenException {
-        SOAPResponse soapResponse = new SOAPResponse();
-        HttpsURLConnection httpsConnection = null;
+    /**
+     * Realiza la petición con un mensaje SOAP ya serializado en una porción de un arreglo, por ejemplo, un buffer
+     * reutilizable. Cada reintento envía los mismos bytes, y cada intento pasa antes por el circuito del cliente.
+     *
+     * @param clientCtx   Contexto del cliente, del que se obtiene la configuración, el transporte y el circuito.
+     * @param urlString   URL de destino.
+     * @param requestBody Arreglo que contiene el mensaje SOAP serializado en UTF-8.
+     * @param offset      Posición del mensaje en el arreglo.
+     * @param length      Longitud del mensaje, en bytes.
+     * @param captureResponse Si se conserva el cuerpo de la respuesta (ver {@link SOAPResponse#getRawData()}), hasta el
+     *                        tamaño máximo de captura configurado.
+     * @param politicaReintentos Política de reintentos de la operación.
+     * @param sentRequestCheck   Verificación a realizar antes de reenviar una petición que Sifen pudo haber recibido, o
+     *                           <strong>null</strong> si la operación no la soporta. Si se indica, la petición se
+     *                           reenvía solo si Sifen no la recibió, aunque la política no reintente tras el envío.
+     * @return La respuesta de Sifen, o, si la verificación determinó que Sifen ya había recibido la petición, una
+     * respuesta sin contenido (ver {@link SOAPResponse#isPreviouslyReceived()}).
+     * @throws SifenException Si la petición falla, o si el circuito está abierto.
+     */
+    public static SOAPResponse makeSoapRequest(ClientCtx clientCtx, String urlString, byte[] requestBody, int offset,
+                                               int length, boolean captureResponse,
+                                               PoliticaReintentos politicaReintentos,
+                                               SentRequestCheck sentRequestCheck) throws SifenException {
+        SifenConfig sifenConfig = clientCtx.getSifenConfig();
+        URL url;
+        SSLSocketFactory sslSocketFactory = null;
         try {
-            URL url = new URL(urlString);
-            httpsConnection = (HttpsURLConnection) url.openConnection();
-            if (url.getProtocol().equalsIgnoreCase("https")) {
-                SSLContext sslContext = SSLContextHelper.getContextFromConfig(sifenConfig);
-                httpsConnection.setSSLSocketFactory(sslContext.getSocketFactory());
-            } else if (!url.getProtocol().equalsIgnoreCase("http")) {
-                throw SifenExceptionUtil.invalidSOAPRequest("El protocolo " + url.getProtocol() + " es inválido");
+            url = new URL(urlString);
+        } catch (MalformedURLException e) {
+            throw SifenExceptionUtil.invalidSOAPRequest("El URL " + urlString + " es inválido: " + e.getLocalizedMessage(), e);
+        }
+        if (url.getProtocol().equalsIgnoreCase("https")) {
+            sslSocketFactory = clientCtx.getSslSocketFactory();
+        } else if (!url.getProtocol().equalsIgnoreCase("http")) {
+            throw SifenExceptionUtil.invalidSOAPRequest("El protocolo " + url.getProtocol() + " es inválido");
+        }
+
+        CircuitBreaker circuitBreaker = clientCtx.getCircuitBreaker();
+        HttpTransport httpTransport = clientCtx.getHttpTransport();
+        for (int attempt = 1; ; attempt++) {
+            if (!circuitBreaker.tryAcquire()) {
+                throw SifenExceptionUtil.serviceUnavailable("Sifen no se encuentra disponible: se rechaza la petición a "
+                        + url + " sin enviarla, durante " + circuitBreaker.getRemainingOpenMillis() + " ms más.", null);
             }
 
-            httpsConnection.setRequestMethod("POST");
-            httpsConnection.setDoOutput(true);
-            setupHttpURLConnectionProperties(httpsConnection, sifenConfig);
-            setupHttpURLConnectionHeaders(httpsConnection, sifenConfig);
+            Outcome outcome = Outcome.IGNORED;
+            IOException maybeProcessed = null;
+            try {
+                // Petición, sobre una conexión persistente del pool
+                logger.info("Enviando mensaje SOAP a: " + url);
+                try (HttpResponse httpResponse = httpTransport.post(url, sslSocketFactory, getRequestHeaders(sifenConfig),
+                        requestBody, offset, length, sifenConfig.getHttpConnectTimeout(),
+                        sifenConfig.getHttpReadTimeout())) {
+                    int status = httpResponse.getStatus();
+                    if (isUnavailableStatus(status)) {
+                        outcome = Outcome.FAILURE;
+                        // Si no quedan intentos, se procesa la respuesta como cualquier otra
+                        UnavailableStatusException unavailable = new UnavailableStatusException(status);
+                        if (canRetry(politicaReintentos, attempt, unavailable, sentRequestCheck != null)) {
+                            throw unavailable;
+                        }
+                    } else {
+                        outcome = Outcome.SUCCESS;
+                    }
 
-            // Conexión
-            logger.info("Conectando a: " + url);
-            httpsConnection.connect();
+                    // Respuesta, leída directamente de la conexión, sin copiarla antes en un arreglo
+                    SOAPResponse soapResponse = new SOAPResponse();
+                    soapResponse.setStatus(status);
+                    soapResponse.setIntentos(attempt);
+                    ResponseBodyStream body = new ResponseBodyStream(httpResponse.getBody(),
+                            captureResponse ? sifenConfig.getCapturaTamanoMaximo() : -1);
+                    soapResponse.setSoapResponse(SoapHelper.parseSoapMessage(body));
+                    // Se lee lo que reste del cuerpo, para que la conexión vuelva al pool
+                    body.drain();
+                    soapResponse.setRawData(body.getCaptured());
+                    return soapResponse;
+                }
+            } catch (IOException e) {
+                // Los errores del pool local (cerrado o agotado) no dicen nada de Sifen, y no se reintentan
+                boolean localFailure = e instanceof RequestNotSentException && !((RequestNotSentException) e).isConnectFailure();
+                if (!localFailure && outcome == Outcome.IGNORED) {
+                    outcome = Outcome.FAILURE;
+                }
+                if (localFailure || !canRetry(politicaReintentos, attempt, e, sentRequestCheck != null)) {
+                    throw SifenExceptionUtil.invalidSOAPRequest(failureMessage(e, attempt), e);
+                }
+                if (sentRequestCheck != null && !isNotProcessed(e)) {
+                    maybeProcessed = e;
+                }
+                logger.warning("Falló el intento " + attempt + " de la petición a " + url
+                        + (maybeProcessed != null ? ", se verifica si Sifen la recibió antes de reintentar: " : ", se reintenta: ")
+                        + e.getLocalizedMessage());
+            } catch (SOAPException e) {
+                throw SifenExceptionUtil.invalidSOAPRequest("Excepción de mensajería SOAP: " + e.getLocalizedMessage(), e);
+            } finally {
+                outcome.record(circuitBreaker);
+            }
 
-            // Petición
-            logger.info("Enviando mensaje SOAP");
-            soapMessage.writeTo(httpsConnection.getOutputStream());
+            circuitBreaker.onRetry();
+            backoff(politicaReintentos, attempt);
 
-            // Respuesta
-            soapResponse.setStatus(httpsConnection.getResponseCode());
-            InputStream inputStream;
-            if (soapResponse.isRequestSuccessful()) {
-                inputStream = httpsConnection.getInputStream();
+            // Antes de reenviar una petición que Sifen pudo haber procesado, se verifica si la recibió
+            if (maybeProcessed != null && isReceived(sentRequestCheck, maybeProcessed, attempt)) {
+                logger.info("Sifen ya había recibido la petición a " + url + ", no se reenvía");
+                SOAPResponse soapResponse = new SOAPResponse();
+                soapResponse.setIntentos(attempt);
+                soapResponse.setPreviouslyReceived(true);
+                return soapResponse;
+            }
+        }
+    }
+
+    private static boolean isReceived(SentRequestCheck sentRequestCheck, IOException failure, int attempt) throws SifenException {
+        try {
+            return sentRequestCheck.isReceived();
+        } catch (SifenException e) {
+            throw SifenExceptionUtil.invalidSOAPRequest(failureMessage(failure, attempt)
+                    + ". No se pudo verificar si Sifen recibió la petición: " + e.getMessage(), failure);
+        }
+    }
+
+    private static String failureMessage(IOException failure, int attempt) {
+        return "Excepción de entrada/salida al realizar llamada SOAP: " + failure.getLocalizedMessage()
+                + (attempt > 1 ? " (intento " + attempt + ")" : "");
+    }
+
+    /**
+     * Estados con los que un proxy o balanceador de Sifen indica que el servicio no se encuentra disponible.
+     */
+    private static boolean isUnavailableStatus(int status) {
+        return status == 502 || status == 503 || status == 504;
+    }
+
+    /**
+     * Decide si se reintenta una petición fallida. Las peticiones que Sifen no pudo haber procesado (sin conexión, o
+     * con un 503) se reintentan siempre que queden intentos; las demás, solo si la política lo permite, o si se puede
+     * verificar antes si Sifen las recibió.
+     */
+    private static boolean canRetry(PoliticaReintentos politicaReintentos, int attempt, IOException failure,
+                                    boolean verifiable) {
+        if (attempt >= politicaReintentos.getIntentosMaximos()) {
+            return false;
+        }
+
+        return isNotProcessed(failure) || politicaReintentos.isReintentarTrasEnvio() || verifiable;
+    }
+
+    private static boolean isNotProcessed(IOException failure) {
+        return failure instanceof RequestNotSentException
+                || (failure instanceof UnavailableStatusException && ((UnavailableStatusException) failure).status == 503);
+    }
+
+    /**
+     * Espera antes del siguiente intento un tiempo aleatorio entre 0 y una cota exponencial (<i>full jitter</i>), para
+     * que los clientes que fallaron a la vez no reintenten a la vez.
+     */
+    private static void backoff(PoliticaReintentos politicaReintentos, int attempt) throws SifenException {
+        long bound = politicaReintentos.getEsperaInicial() << Math.min(attempt - 1, 30);
+        if (bound < 0 || bound > politicaReintentos.getEsperaMaxima()) {
+            bound = politicaReintentos.getEsperaMaxima();
+        }
+        if (bound == 0) {
+            return;
+        }
+
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw SifenExceptionUtil.invalidSOAPRequest("Interrupción mientras se esperaba para reintentar la llamada SOAP", e);
+        }
+    }
+
+    /**
+     * Verificación de si Sifen ya recibió una petición cuya respuesta no llegó (ver
+     * {@link RequestMaybeSentException}), para no reenviarla en ese caso.
+     */
+    public interface SentRequestCheck {
+        /**
+         * @return <strong>true</strong> si Sifen ya recibió la petición, o <strong>false</strong> si no tiene registro
+         * de ella y puede reenviarse.
+         * @throws SifenException Si no se pudo verificar.
+         */
+        boolean isReceived() throws SifenException;
+    }
+
+    /**
+     * Resultado de un intento, a informar al circuito.
+     */
+    private enum Outcome {
+        SUCCESS, FAILURE, IGNORED;
+
+        private void record(CircuitBreaker circuitBreaker) {
+            if (this == SUCCESS) {
+                circuitBreaker.onSuccess();
+            } else if (this == FAILURE) {
+                circuitBreaker.onFailure();
             } else {
-                inputStream = httpsConnection.getErrorStream();
+                circuitBreaker.onIgnored();
             }
+        }
+    }
 
-            byte[] readData = SifenUtil.getByteArrayFromInputStream(inputStream);
-            SOAPMessage successSoapMessage = SoapHelper.parseSoapMessage(new ByteArrayInputStream(readData));
-            soapResponse.setSoapResponse(successSoapMessage);
-            soapResponse.setRawData(readData);
+    /**
+     * Respuesta de Sifen no disponible, a reintentar.
+     */
+    private static class UnavailableStatusException extends IOException {
+        private static final long serialVersionUID = 1L;
 
-            return soapResponse;
-        } catch (MalformedURLException e) {
-            throw SifenExceptionUtil.invalidSOAPRequest("El URL " + urlString + " es inválido: " + e.getLocalizedMessage(), e);
-        } catch (IOException e) {
-            throw SifenExceptionUtil.invalidSOAPRequest("Excepción de entrada/salida al realizar llamada SOAP: " + e.getLocalizedMessage(), e);
-        } catch (SOAPException e) {
-            throw SifenExceptionUtil.invalidSOAPRequest("Excepción de mensajería SOAP: " + e.getLocalizedMessage(), e);
-        } finally {
-            if (httpsConnection != null)
-                httpsConnection.disconnect();
+        private final int status;
+
+        private UnavailableStatusException(int status) {
+            super("Sifen respondió con el estado HTTP " + status);
+            this.status = status;
+        }
+    }
+
+    /**
+     * Cuerpo de la respuesta que conserva, opcionalmente, los bytes leídos hasta un límite. No cierra la conexión
+     * subyacente al ser cerrado por el parser.
+     */
+    private static class ResponseBodyStream extends FilterInputStream {
+        private final MessageBuffer captured;
+        private final int maxCaptured;
+        // Se lee un byte más del máximo, para saber si el corte cae dentro de un carácter
+        private final int captureLimit;
+
+        /**
+         * @param maxCaptured Cantidad máxima de bytes a conservar; 0 para conservar todo el cuerpo, -1 para no
+         *                    conservarlo.
+         */
+        private ResponseBodyStream(InputStream in, int maxCaptured) {
+            super(in);
+            this.captured = maxCaptured >= 0 ? new MessageBuffer(8 * 1024) : null;
+            this.maxCaptured = maxCaptured;
+            this.captureLimit = maxCaptured == 0 ? Integer.MAX_VALUE : (int) Math.min(Integer.MAX_VALUE, maxCaptured + 1L);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1 && captured != null && captured.size() < captureLimit) {
+                captured.write(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0 && captured != null && captured.size() < captureLimit) {
+                captured.write(b, off, Math.min(read, captureLimit - captured.size()));
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Se lee en lugar de saltar, para no perder los bytes capturados
+            byte[] buffer = new byte[(int) Math.min(n, 1024)];
+            int read = read(buffer, 0, buffer.length);
+            return Math.max(read, 0);
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private void drain() throws IOException {
+            byte[] buffer = new byte[1024];
+            while (read(buffer, 0, buffer.length) != -1) {
+                // Se descarta el resto del cuerpo
+            }
+        }
+
+        /**
+         * @return Vista de los bytes conservados, sin caracteres UTF-8 cortados, o <strong>null</strong> si el cuerpo
+         * no se conserva.
+         */
+        private ByteBuffer getCaptured() {
+            if (captured == null) {
+                return null;
+            }
+            int end = MessageBuffer.utf8Boundary(captured.array(), captured.size(), maxCaptured);
+            return ByteBuffer.wrap(captured.array(), 0, end);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,131 @@
+package com.roshka.sifen.internal.http;
+
+import com.roshka.sifen.core.beans.EstadisticasResiliencia;
+import com.roshka.sifen.core.beans.EstadisticasResiliencia.EstadoCircuito;
+
+import java.util.logging.Logger;
+
+/**
+ * Circuito que deja de enviar peticiones a Sifen tras una cantidad de fallas consecutivas, durante un tiempo, para que
+ * las peticiones fallen de inmediato en lugar de acumularse esperando el tiempo máximo de conexión o de lectura.
+ * <p>
+ * Cada intento autorizado con {@link #tryAcquire()} debe informar su resultado con exactamente uno de
+ * {@link #onSuccess()}, {@link #onFailure()} o {@link #onIgnored()}, ya que, con el circuito semiabierto, solo se
+ * autoriza un intento de prueba a la vez. Es seguro utilizarlo desde varios hilos.
+ */
+public class CircuitBreaker {
+    private final static Logger logger = Logger.getLogger(CircuitBreaker.class.toString());
+
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private EstadoCircuito state = EstadoCircuito.CERRADO;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    private long retries;
+    private long failures;
+    private long rejected;
+    private long opened;
+    private long halfOpened;
+    private long closed;
+
+    /**
+     * @param failureThreshold Cantidad de fallas consecutivas que abren el circuito; 0 para no abrirlo nunca.
+     * @param openMillis       Tiempo, en milisegundos, durante el cual el circuito permanece abierto.
+     */
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openMillis * 1_000_000;
+    }
+
+    /**
+     * @return Si se puede realizar un intento. Si es <strong>false</strong>, el circuito está abierto (o semiabierto
+     * con la prueba en curso) y el intento se registra como rechazado.
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case ABIERTO:
+                if (System.nanoTime() - openedAt < openNanos) {
+                    rejected++;
+                    return false;
+                }
+                state = EstadoCircuito.SEMIABIERTO;
+                halfOpened++;
+                logger.info("Circuito semiabierto: se envía una petición de prueba a Sifen");
+                probeInFlight = true;
+                return true;
+            case SEMIABIERTO:
+                if (probeInFlight) {
+                    rejected++;
+                    return false;
+                }
+                probeInFlight = true;
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Registra un intento en el que Sifen respondió.
+     */
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        probeInFlight = false;
+        if (state != EstadoCircuito.CERRADO) {
+            state = EstadoCircuito.CERRADO;
+            closed++;
+            logger.info("Circuito cerrado: Sifen vuelve a responder");
+        }
+    }
+
+    /**
+     * Registra un intento fallido por causa de Sifen (conexión, respuesta no recibida o servicio no disponible).
+     */
+    public synchronized void onFailure() {
+        failures++;
+        probeInFlight = false;
+        if (failureThreshold == 0) {
+            return;
+        }
+
+        if (state == EstadoCircuito.SEMIABIERTO
+                || (state == EstadoCircuito.CERRADO && ++consecutiveFailures >= failureThreshold)) {
+            state = EstadoCircuito.ABIERTO;
+            openedAt = System.nanoTime();
+            consecutiveFailures = 0;
+            opened++;
+            logger.warning("Circuito abierto: Sifen no responde, se rechazan las peticiones durante "
+                    + (openNanos / 1_000_000) + " ms");
+        }
+    }
+
+    /**
+     * Registra un intento cuyo resultado no dice nada del estado de Sifen (ej.: el pool local está agotado).
+     */
+    public synchronized void onIgnored() {
+        probeInFlight = false;
+    }
+
+    /**
+     * Registra que se va a reintentar una petición.
+     */
+    public synchronized void onRetry() {
+        retries++;
+    }
+
+    /**
+     * @return Tiempo, en milisegundos, que resta para que el circuito abierto deje pasar una petición de prueba.
+     */
+    public synchronized long getRemainingOpenMillis() {
+        return state == EstadoCircuito.ABIERTO
+                ? Math.max(0, (openNanos - (System.nanoTime() - openedAt)) / 1_000_000)
+                : 0;
+    }
+
+    public synchronized EstadisticasResiliencia getStats() {
+        return new EstadisticasResiliencia(state, retries, failures, rejected, opened, halfOpened, closed);
+    }
+}
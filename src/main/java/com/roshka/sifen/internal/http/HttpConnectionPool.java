@@ -0,0 +1,308 @@
+package com.roshka.sifen.internal.http;
+
+import com.roshka.sifen.core.beans.EstadisticasConexiones;
+
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Pool de conexiones persistentes, agrupadas por ruta. Limita la cantidad de conexiones simultáneas por ruta, cierra
+ * las conexiones que superan el tiempo máximo de inactividad y reutiliza el contexto SSL de cada ruta, lo que permite
+ * reanudar las sesiones TLS al abrir conexiones nuevas. Las conexiones se establecen a través del proxy configurado
+ * en la JVM, si corresponde.
+ */
+public class HttpConnectionPool {
+    private final static Logger logger = Logger.getLogger(HttpConnectionPool.class.toString());
+    private final static long EVICTION_INTERVAL = 5 * 1000;
+
+    private final int maxConnectionsPerRoute;
+    private final long idleTimeout;
+    private final Map<HttpRoute, RoutePool> routes = new ConcurrentHashMap<>();
+
+    private final AtomicLong createdConnections = new AtomicLong();
+    private final AtomicLong reusedConnections = new AtomicLong();
+    private final AtomicLong discardedConnections = new AtomicLong();
+    private final AtomicLong resumedTlsSessions = new AtomicLong();
+    private volatile long lastEviction = System.currentTimeMillis();
+    private volatile boolean shutdown = false;
+
+    /**
+     * @param maxConnectionsPerRoute Cantidad máxima de conexiones simultáneas hacia una misma ruta.
+     * @param idleTimeout            Tiempo máximo, en milisegundos, que una conexión puede permanecer inactiva en el
+     *                               pool antes de ser cerrada.
+     */
+    public HttpConnectionPool(int maxConnectionsPerRoute, long idleTimeout) {
+        if (maxConnectionsPerRoute < 1) {
+            throw new IllegalArgumentException("La cantidad máxima de conexiones por ruta debe ser mayor a cero.");
+        }
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Obtiene una conexión hacia la ruta especificada, reutilizando una conexión inactiva si existe.
+     *
+     * @param route          Ruta de destino.
+     * @param connectTimeout Tiempo máximo de espera para establecer una conexión nueva y, también, para obtener un
+     *                       lugar libre en el pool, en milisegundos.
+     * @param readTimeout    Tiempo máximo de espera de lectura, en milisegundos.
+     * @param fresh          Si se establece siempre una conexión nueva, sin reutilizar las inactivas.
+     * @return Conexión lista para ser utilizada. Debe ser devuelta con {@link #release(PooledConnection, boolean, long)}.
+     * @throws RequestNotSentException Si el pool está cerrado o agotado, o si no se pudo establecer la conexión.
+     */
+    PooledConnection lease(HttpRoute route, int connectTimeout, int readTimeout, boolean fresh) throws IOException {
+        if (shutdown) {
+            throw new RequestNotSentException("El pool de conexiones se encuentra cerrado.", null, false);
+        }
+        evictExpiredConnectionsIfNeeded();
+
+        RoutePool routePool = routes.computeIfAbsent(route, r -> new RoutePool(maxConnectionsPerRoute));
+        try {
+            if (!routePool.permits.tryAcquire(connectTimeout > 0 ? connectTimeout : Long.MAX_VALUE, TimeUnit.MILLISECONDS)) {
+                throw new RequestNotSentException("No se pudo obtener una conexión hacia " + route + ": se alcanzó el "
+                        + "máximo de " + maxConnectionsPerRoute + " conexiones simultáneas.", null, false);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RequestNotSentException("Interrupción mientras se esperaba una conexión hacia " + route, e, false);
+        }
+
+        try {
+            long now = System.currentTimeMillis();
+            PooledConnection connection;
+            while (!fresh && (connection = routePool.idle.pollFirst()) != null) {
+                if (connection.isExpired(now) || connection.isStale()) {
+                    discard(connection);
+                    continue;
+                }
+
+                connection.setReadTimeout(readTimeout);
+                reusedConnections.incrementAndGet();
+                return connection;
+            }
+
+            try {
+                connection = connect(route, connectTimeout, readTimeout);
+            } catch (IOException e) {
+                throw new RequestNotSentException("No se pudo establecer la conexión hacia " + route + ": "
+                        + e.getLocalizedMessage(), e, true);
+            }
+            createdConnections.incrementAndGet();
+            return connection;
+        } catch (IOException | RuntimeException e) {
+            routePool.permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Devuelve una conexión al pool.
+     *
+     * @param connection Conexión obtenida con {@link #lease(HttpRoute, int, int)}.
+     * @param reusable   Si la conexión puede ser reutilizada (la respuesta fue leída por completo y el servidor no
+     *                   solicitó cerrarla).
+     * @param keepAlive  Tiempo máximo de inactividad indicado por el servidor, en milisegundos, o un valor menor o
+     *                   igual a cero si no fue indicado.
+     */
+    void release(PooledConnection connection, boolean reusable, long keepAlive) {
+        RoutePool routePool = routes.get(connection.getRoute());
+        if (routePool == null) {
+            discard(connection);
+            return;
+        }
+
+        try {
+            if (reusable && !shutdown && connection.isOpen() && routePool.idle.size() < maxConnectionsPerRoute) {
+                long timeout = idleTimeout;
+                if (keepAlive > 0 && (timeout <= 0 || keepAlive < timeout)) {
+                    timeout = keepAlive;
+                }
+                connection.markIdle(timeout);
+                routePool.idle.offerFirst(connection);
+            } else {
+                discard(connection);
+            }
+        } finally {
+            routePool.permits.release();
+        }
+    }
+
+    /**
+     * Cierra todas las conexiones inactivas que superaron su tiempo máximo de inactividad.
+     */
+    public void evictExpiredConnections() {
+        long now = System.currentTimeMillis();
+        lastEviction = now;
+        for (RoutePool routePool : routes.values()) {
+            Iterator<PooledConnection> iterator = routePool.idle.descendingIterator();
+            while (iterator.hasNext()) {
+                PooledConnection connection = iterator.next();
+                if (connection.isExpired(now) && routePool.idle.removeFirstOccurrence(connection)) {
+                    discard(connection);
+                }
+            }
+        }
+    }
+
+    /**
+     * Cierra todas las conexiones inactivas, sin importar su tiempo de inactividad.
+     */
+    public void closeIdleConnections() {
+        for (RoutePool routePool : routes.values()) {
+            PooledConnection connection;
+            while ((connection = routePool.idle.pollFirst()) != null) {
+                discard(connection);
+            }
+        }
+    }
+
+    /**
+     * Cierra el pool. Las conexiones inactivas se cierran inmediatamente, y las que se encuentran en uso se cierran
+     * al ser devueltas.
+     */
+    public void shutdown() {
+        shutdown = true;
+        closeIdleConnections();
+    }
+
+    /**
+     * @return Fotografía del estado actual del pool.
+     */
+    public EstadisticasConexiones getStats() {
+        int leased = 0, idle = 0;
+        for (RoutePool routePool : routes.values()) {
+            leased += maxConnectionsPerRoute - routePool.permits.availablePermits();
+            idle += routePool.idle.size();
+        }
+
+        return new EstadisticasConexiones(routes.size(), leased, idle, createdConnections.get(), reusedConnections.get(),
+                discardedConnections.get(), resumedTlsSessions.get());
+    }
+
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    private void evictExpiredConnectionsIfNeeded() {
+        if (System.currentTimeMillis() - lastEviction >= EVICTION_INTERVAL) {
+            evictExpiredConnections();
+        }
+    }
+
+    private void discard(PooledConnection connection) {
+        connection.close();
+        discardedConnections.incrementAndGet();
+    }
+
+    private PooledConnection connect(HttpRoute route, int connectTimeout, int readTimeout) throws IOException {
+        Proxy proxy = selectProxy(route);
+        Socket socket = proxy.type() == Proxy.Type.SOCKS ? new Socket(proxy) : new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.setKeepAlive(true);
+            if (proxy.type() == Proxy.Type.HTTP) {
+                socket.connect(resolve((InetSocketAddress) proxy.address()), connectTimeout);
+                socket.setSoTimeout(readTimeout);
+                openTunnel(socket, route, proxy);
+            } else {
+                socket.connect(new InetSocketAddress(route.getHost(), route.getPort()), connectTimeout);
+                socket.setSoTimeout(readTimeout);
+            }
+            if (!route.isSecure()) {
+                return new PooledConnection(route, socket);
+            }
+
+            SSLSocket sslSocket = (SSLSocket) route.getSslSocketFactory().createSocket(socket, route.getHost(), route.getPort(), true);
+            SSLParameters sslParameters = sslSocket.getSSLParameters();
+            sslParameters.setEndpointIdentificationAlgorithm("HTTPS");
+            sslSocket.setSSLParameters(sslParameters);
+
+            long handshakeStart = System.currentTimeMillis();
+            sslSocket.startHandshake();
+            if (sslSocket.getSession().getCreationTime() < handshakeStart) {
+                resumedTlsSessions.incrementAndGet();
+            }
+
+            logger.fine("Nueva conexión establecida hacia " + route);
+            return new PooledConnection(route, sslSocket);
+        } catch (IOException | RuntimeException e) {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Obtiene el proxy a utilizar hacia la ruta a partir del {@link ProxySelector} por defecto, que considera las
+     * propiedades <i>https.proxyHost</i>, <i>http.proxyHost</i>, <i>socksProxyHost</i>, etc.
+     */
+    private static Proxy selectProxy(HttpRoute route) {
+        ProxySelector proxySelector = ProxySelector.getDefault();
+        if (proxySelector == null) {
+            return Proxy.NO_PROXY;
+        }
+
+        List<Proxy> proxies = proxySelector.select(URI.create(route.toString()));
+        return proxies == null || proxies.isEmpty() ? Proxy.NO_PROXY : proxies.get(0);
+    }
+
+    private static InetSocketAddress resolve(InetSocketAddress address) {
+        return address.isUnresolved() ? new InetSocketAddress(address.getHostString(), address.getPort()) : address;
+    }
+
+    /**
+     * Establece un túnel hacia la ruta a través de un proxy HTTP (método CONNECT). Sobre el túnel se realiza luego el
+     * handshake TLS directamente con Sifen.
+     */
+    private static void openTunnel(Socket socket, HttpRoute route, Proxy proxy) throws IOException {
+        String authority = route.getHost() + ":" + route.getPort();
+        OutputStream out = socket.getOutputStream();
+        out.write(("CONNECT " + authority + " HTTP/1.1\r\nHost: " + authority + "\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        out.flush();
+
+        // Se lee byte a byte, sin buffer, para no consumir datos del túnel
+        InputStream in = socket.getInputStream();
+        String statusLine = HttpTransport.readLine(in);
+        String header;
+        do {
+            header = HttpTransport.readLine(in);
+        } while (!header.isEmpty());
+        if (!statusLine.matches("HTTP/1\\.[01] 2\\d\\d.*")) {
+            throw new IOException("El proxy " + proxy.address() + " rechazó el túnel hacia " + authority + ": " + statusLine);
+        }
+        logger.fine("Túnel establecido hacia " + route + " a través del proxy " + proxy.address());
+    }
+
+    private static class RoutePool {
+        private final Semaphore permits;
+        private final ConcurrentLinkedDeque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+
+        private RoutePool(int maxConnections) {
+            this.permits = new Semaphore(maxConnections, true);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.roshka.sifen.internal.http;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Respuesta HTTP obtenida a través del pool de conexiones. El cuerpo debe ser cerrado (o la respuesta misma) para que
+ * la conexión vuelva al pool; si el cuerpo fue leído por completo la conexión se reutiliza, de lo contrario se cierra.
+ */
+public class HttpResponse implements Closeable {
+    private final int status;
+    private final Map<String, String> headers;
+    private final InputStream body;
+
+    HttpResponse(int status, Map<String, String> headers, InputStream body) {
+        this.status = status;
+        this.headers = headers;
+        this.body = body;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * @param name Nombre de la cabecera, sin importar mayúsculas o minúsculas.
+     * @return Valor de la cabecera, o <strong>null</strong> si no existe.
+     */
+    public String getHeader(String name) {
+        return headers.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    public InputStream getBody() {
+        return body;
+    }
+
+    @Override
+    public void close() throws IOException {
+        body.close();
+    }
+}
@@ -0,0 +1,81 @@
+package com.roshka.sifen.internal.http;
+
+import javax.net.ssl.SSLSocketFactory;
+import java.net.URL;
+import java.util.Locale;
+
+/**
+ * Destino de una conexión (esquema, host y puerto). Las conexiones del pool se agrupan por ruta, y se distingue
+ * además la fábrica de sockets SSL utilizada, para no mezclar conexiones autenticadas con certificados distintos.
+ */
+public final class HttpRoute {
+    private final String scheme;
+    private final String host;
+    private final int port;
+    private final SSLSocketFactory sslSocketFactory;
+
+    HttpRoute(String scheme, String host, int port, SSLSocketFactory sslSocketFactory) {
+        this.scheme = scheme;
+        this.host = host;
+        this.port = port;
+        this.sslSocketFactory = sslSocketFactory;
+    }
+
+    static HttpRoute fromUrl(URL url, SSLSocketFactory sslSocketFactory) {
+        String scheme = url.getProtocol().toLowerCase(Locale.ROOT);
+        int port = url.getPort() != -1 ? url.getPort() : url.getDefaultPort();
+        return new HttpRoute(scheme, url.getHost().toLowerCase(Locale.ROOT), port, scheme.equals("https") ? sslSocketFactory : null);
+    }
+
+    public boolean isSecure() {
+        return scheme.equals("https");
+    }
+
+    public String getScheme() {
+        return scheme;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    SSLSocketFactory getSslSocketFactory() {
+        return sslSocketFactory;
+    }
+
+    /**
+     * @return Valor de la cabecera <i>Host</i> correspondiente a esta ruta.
+     */
+    String getHostHeader() {
+        boolean defaultPort = (isSecure() && port == 443) || (!isSecure() && port == 80);
+        return defaultPort ? host : host + ":" + port;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof HttpRoute)) return false;
+
+        HttpRoute other = (HttpRoute) o;
+        return port == other.port && scheme.equals(other.scheme) && host.equals(other.host)
+                && sslSocketFactory == other.sslSocketFactory;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = scheme.hashCode();
+        result = 31 * result + host.hashCode();
+        result = 31 * result + port;
+        result = 31 * result + System.identityHashCode(sslSocketFactory);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return scheme + "://" + host + ":" + port;
+    }
+}
@@ -0,0 +1,228 @@
+package com.roshka.sifen.internal.http;
+
+import javax.net.ssl.SSLSocketFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Cliente HTTP/1.1 mínimo que realiza las peticiones sobre las conexiones persistentes del pool, evitando el costo de
+ * un handshake TCP + TLS en cada petición.
+ */
+public class HttpTransport {
+    private final static int MAX_LINE_LENGTH = 64 * 1024;
+
+    private final HttpConnectionPool pool;
+
+    public HttpTransport(HttpConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    public HttpConnectionPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Realiza una petición POST y retorna la respuesta, cuyo cuerpo debe ser cerrado por quien invoca.
+     *
+     * @param url              URL de destino (http o https).
+     * @param sslSocketFactory Fábrica de sockets SSL a utilizar si la URL es https.
+     * @param headers          Cabeceras adicionales de la petición.
+     * @param body             Buffer que contiene el cuerpo de la petición.
+     * @param offset           Posición inicial del cuerpo dentro del buffer.
+     * @param length           Longitud del cuerpo.
+     * @param connectTimeout   Tiempo máximo de conexión, en milisegundos.
+     * @param readTimeout      Tiempo máximo de lectura, en milisegundos.
+     * @return La respuesta recibida.
+     * @throws RequestNotSentException   Si no se pudo obtener una conexión, por lo que la petición no fue enviada.
+     * @throws RequestMaybeSentException Si la petición fue enviada, pero falló la lectura de la respuesta.
+     * @throws IOException               Si ocurre algún otro error de entrada/salida durante la petición.
+     */
+    public HttpResponse post(URL url, SSLSocketFactory sslSocketFactory, Map<String, String> headers, byte[] body,
+                             int offset, int length, int connectTimeout, int readTimeout) throws IOException {
+        HttpRoute route = HttpRoute.fromUrl(url, sslSocketFactory);
+        byte[] head = buildRequestHead(url, route, headers, length);
+
+        for (int attempt = 0; ; attempt++) {
+            // En el reintento se establece siempre una conexión nueva, ya que las demás inactivas del pool pudieron
+            // haber sido cerradas por el servidor de la misma forma
+            PooledConnection connection = pool.lease(route, connectTimeout, readTimeout, attempt > 0);
+            try {
+                OutputStream out = connection.getOutputStream();
+                out.write(head);
+                out.write(body, offset, length);
+                out.flush();
+            } catch (IOException e) {
+                pool.release(connection, false, 0);
+
+                // Una conexión reutilizada pudo haber sido cerrada por el servidor. Como la petición no llegó a
+                // enviarse por completo, se reintenta una única vez.
+                if (connection.isReused() && attempt == 0) {
+                    continue;
+                }
+                throw e;
+            }
+
+            try {
+                return readResponse(connection);
+            } catch (IOException e) {
+                pool.release(connection, false, 0);
+
+                // La petición ya fue enviada por completo: aunque la conexión se cierre sin ningún byte de respuesta,
+                // el servidor pudo haberla procesado antes, por lo que no se reintenta aquí, sino según la política de
+                // la operación
+                throw new RequestMaybeSentException(e);
+            } catch (RuntimeException e) {
+                pool.release(connection, false, 0);
+                throw e;
+            }
+        }
+    }
+
+    private byte[] buildRequestHead(URL url, HttpRoute route, Map<String, String> headers, int length) {
+        String path = url.getFile();
+        if (path == null || path.isEmpty()) {
+            path = "/";
+        }
+
+        StringBuilder head = new StringBuilder(256);
+        head.append("POST ").append(path).append(" HTTP/1.1\r\n");
+        head.append("Host: ").append(route.getHostHeader()).append("\r\n");
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            head.append(header.getKey()).append(": ").append(header.getValue()).append("\r\n");
+        }
+        head.append("Content-Length: ").append(length).append("\r\n");
+        head.append("Connection: keep-alive\r\n");
+        head.append("\r\n");
+        return head.toString().getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private HttpResponse readResponse(PooledConnection connection) throws IOException {
+        InputStream in = connection.getInputStream();
+
+        String statusLine;
+        int status;
+        Map<String, String> headers;
+        do {
+            statusLine = readLine(in);
+            status = parseStatus(statusLine);
+            headers = readHeaders(in);
+        } while (status >= 100 && status < 200); // Se descartan las respuestas informativas (ej.: 100 Continue)
+
+        String connectionHeader = lower(headers.get("connection"));
+        boolean keepAlive;
+        if (statusLine.startsWith("HTTP/1.0")) {
+            keepAlive = connectionHeader != null && connectionHeader.contains("keep-alive");
+        } else {
+            keepAlive = connectionHeader == null || !connectionHeader.contains("close");
+        }
+
+        ResponseBodyInputStream.Mode mode;
+        long contentLength = -1;
+        String transferEncoding = lower(headers.get("transfer-encoding"));
+        if (status == 204 || status == 304) {
+            mode = ResponseBodyInputStream.Mode.FIXED_LENGTH;
+            contentLength = 0;
+        } else if (transferEncoding != null && transferEncoding.contains("chunked")) {
+            mode = ResponseBodyInputStream.Mode.CHUNKED;
+        } else if (headers.containsKey("content-length")) {
+            mode = ResponseBodyInputStream.Mode.FIXED_LENGTH;
+            try {
+                contentLength = Long.parseLong(headers.get("content-length").trim());
+            } catch (NumberFormatException e) {
+                throw new IOException("Cabecera Content-Length inválida: " + headers.get("content-length"), e);
+            }
+        } else {
+            mode = ResponseBodyInputStream.Mode.UNTIL_CLOSE;
+        }
+
+        long keepAliveTimeout = parseKeepAliveTimeout(headers.get("keep-alive"));
+        ResponseBodyInputStream body = new ResponseBodyInputStream(pool, connection, mode, contentLength, keepAlive, keepAliveTimeout);
+        return new HttpResponse(status, headers, body);
+    }
+
+    private static int parseStatus(String statusLine) throws IOException {
+        // Formato: HTTP/1.1 200 OK
+        if (!statusLine.startsWith("HTTP/")) {
+            throw new IOException("Línea de estado HTTP inválida: " + statusLine);
+        }
+
+        int start = statusLine.indexOf(' ');
+        if (start == -1 || statusLine.length() < start + 4) {
+            throw new IOException("Línea de estado HTTP inválida: " + statusLine);
+        }
+
+        try {
+            return Integer.parseInt(statusLine.substring(start + 1, start + 4));
+        } catch (NumberFormatException e) {
+            throw new IOException("Línea de estado HTTP inválida: " + statusLine, e);
+        }
+    }
+
+    private static Map<String, String> readHeaders(InputStream in) throws IOException {
+        Map<String, String> headers = new HashMap<>();
+        String line;
+        while (!(line = readLine(in)).isEmpty()) {
+            int separator = line.indexOf(':');
+            if (separator <= 0) {
+                continue;
+            }
+
+            String name = line.substring(0, separator).trim().toLowerCase(Locale.ROOT);
+            String value = line.substring(separator + 1).trim();
+            headers.merge(name, value, (previous, current) -> previous + ", " + current);
+        }
+        return headers;
+    }
+
+    private static long parseKeepAliveTimeout(String keepAlive) {
+        // Formato: timeout=5, max=100
+        if (keepAlive == null) {
+            return 0;
+        }
+
+        for (String param : keepAlive.split(",")) {
+            String[] keyValue = param.trim().split("=");
+            if (keyValue.length == 2 && keyValue[0].trim().equalsIgnoreCase("timeout")) {
+                try {
+                    return Long.parseLong(keyValue[1].trim()) * 1000;
+                } catch (NumberFormatException ignored) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Lee una línea terminada en CRLF (o LF), sin incluir el terminador.
+     */
+    static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                byte[] bytes = line.toByteArray();
+                int length = bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? bytes.length - 1 : bytes.length;
+                return new String(bytes, 0, length, StandardCharsets.ISO_8859_1);
+            }
+
+            line.write(b);
+            if (line.size() > MAX_LINE_LENGTH) {
+                throw new IOException("Línea demasiado larga en la respuesta HTTP.");
+            }
+        }
+        throw new EOFException("La conexión fue cerrada por el servidor antes de completar la respuesta.");
+    }
+
+    private static String lower(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,124 @@
+package com.roshka.sifen.internal.http;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+
+/**
+ * Conexión persistente (HTTP/1.1 keep-alive) administrada por el pool.
+ */
+class PooledConnection {
+    private final HttpRoute route;
+    private final Socket socket;
+    private final BufferedInputStream inputStream;
+    private final BufferedOutputStream outputStream;
+    private final long createdAt;
+    private long lastUsedAt;
+    private long expiresAt;
+    private boolean reused = false;
+
+    PooledConnection(HttpRoute route, Socket socket) throws IOException {
+        this.route = route;
+        this.socket = socket;
+        this.inputStream = new BufferedInputStream(socket.getInputStream(), 8192);
+        this.outputStream = new BufferedOutputStream(socket.getOutputStream(), 8192);
+        this.createdAt = System.currentTimeMillis();
+        this.lastUsedAt = this.createdAt;
+        this.expiresAt = Long.MAX_VALUE;
+    }
+
+    HttpRoute getRoute() {
+        return route;
+    }
+
+    InputStream getInputStream() {
+        return inputStream;
+    }
+
+    OutputStream getOutputStream() {
+        return outputStream;
+    }
+
+    void setReadTimeout(int readTimeout) throws IOException {
+        socket.setSoTimeout(readTimeout);
+    }
+
+    long getCreatedAt() {
+        return createdAt;
+    }
+
+    long getLastUsedAt() {
+        return lastUsedAt;
+    }
+
+    /**
+     * Marca la conexión como recién utilizada, y define hasta cuándo puede permanecer inactiva en el pool.
+     *
+     * @param idleTimeout Tiempo máximo de inactividad, en milisegundos.
+     */
+    void markIdle(long idleTimeout) {
+        this.lastUsedAt = System.currentTimeMillis();
+        this.reused = true;
+        this.expiresAt = idleTimeout > 0 ? this.lastUsedAt + idleTimeout : Long.MAX_VALUE;
+    }
+
+    /**
+     * @return <strong>true</strong> si la conexión ya fue utilizada en alguna petición anterior.
+     */
+    boolean isReused() {
+        return reused;
+    }
+
+    boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+
+    boolean isOpen() {
+        return !socket.isClosed() && !socket.isInputShutdown() && !socket.isOutputShutdown();
+    }
+
+    /**
+     * Verifica si la conexión dejó de ser utilizable mientras se encontraba inactiva en el pool: si fue cerrada, o si
+     * el servidor envió datos fuera de una respuesta. Para detectar un cierre del servidor se intenta leer con un tiempo
+     * de espera mínimo, ya que, una vez enviada la petición, ese cierre ya no podría distinguirse de una respuesta
+     * perdida (ver {@link RequestMaybeSentException}).
+     *
+     * @return <strong>true</strong> si la conexión ya no puede utilizarse.
+     */
+    boolean isStale() {
+        if (!isOpen()) {
+            return true;
+        }
+
+        try {
+            if (inputStream.available() > 0) {
+                return true;
+            }
+
+            int readTimeout = socket.getSoTimeout();
+            socket.setSoTimeout(1);
+            try {
+                // Cualquier byte (o el fin del flujo) antes de enviar la petición indica que la conexión no es utilizable
+                inputStream.read();
+                return true;
+            } catch (SocketTimeoutException e) {
+                return false;
+            } finally {
+                socket.setSoTimeout(readTimeout);
+            }
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    void close() {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.roshka.sifen.internal.http;
+
+import java.io.IOException;
+
+/**
+ * Error ocurrido luego de enviar la petición por completo, antes de recibir la respuesta (tiempo de lectura agotado,
+ * conexión cerrada o reiniciada, etc.): Sifen pudo haberla recibido y procesado, por lo que solo es seguro reintentarla
+ * si la operación lo permite.
+ */
+public class RequestMaybeSentException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    RequestMaybeSentException(IOException cause) {
+        super(cause.getMessage(), cause);
+    }
+}
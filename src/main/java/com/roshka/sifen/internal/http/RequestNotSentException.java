@@ -0,0 +1,30 @@
+package com.roshka.sifen.internal.http;
+
+import java.io.IOException;
+
+/**
+ * Error ocurrido antes de enviar la petición: no se obtuvo una conexión, por lo que Sifen no pudo haberla recibido y
+ * es seguro reintentarla.
+ */
+public class RequestNotSentException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final boolean connectFailure;
+
+    /**
+     * @param connectFailure Si el error se produjo al conectarse a Sifen, o, de lo contrario, en el propio pool (cerrado
+     *                       o agotado).
+     */
+    RequestNotSentException(String message, Throwable cause, boolean connectFailure) {
+        super(message, cause);
+        this.connectFailure = connectFailure;
+    }
+
+    /**
+     * @return Si el error se produjo al establecer la conexión con Sifen (conexión rechazada, tiempo de conexión
+     * agotado, handshake TLS fallido, etc.), y no por el estado del pool local.
+     */
+    public boolean isConnectFailure() {
+        return connectFailure;
+    }
+}
@@ -0,0 +1,157 @@
+package com.roshka.sifen.internal.http;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Flujo de lectura del cuerpo de una respuesta HTTP/1.1, delimitado por <i>Content-Length</i>, por
+ * <i>Transfer-Encoding: chunked</i> o por el cierre de la conexión. Al cerrarse, devuelve la conexión al pool.
+ */
+class ResponseBodyInputStream extends InputStream {
+    enum Mode {FIXED_LENGTH, CHUNKED, UNTIL_CLOSE}
+
+    private final HttpConnectionPool pool;
+    private final PooledConnection connection;
+    private final InputStream in;
+    private final Mode mode;
+    private final boolean keepAlive;
+    private final long keepAliveTimeout;
+
+    private long remaining;         // bytes restantes de la longitud fija o del chunk actual
+    private boolean eof = false;
+    private boolean closed = false;
+    private boolean failed = false;
+
+    ResponseBodyInputStream(HttpConnectionPool pool, PooledConnection connection, Mode mode, long contentLength,
+                            boolean keepAlive, long keepAliveTimeout) throws IOException {
+        this.pool = pool;
+        this.connection = connection;
+        this.in = connection.getInputStream();
+        this.mode = mode;
+        this.keepAlive = keepAlive && mode != Mode.UNTIL_CLOSE;
+        this.keepAliveTimeout = keepAliveTimeout;
+
+        if (mode == Mode.FIXED_LENGTH) {
+            this.remaining = contentLength;
+            if (contentLength == 0) {
+                finish();
+            }
+        } else {
+            this.remaining = 0;
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int read = read(single, 0, 1);
+        return read == -1 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("El flujo de la respuesta ya fue cerrado.");
+        }
+        if (eof) {
+            return -1;
+        }
+        if (len == 0) {
+            return 0;
+        }
+
+        try {
+            switch (mode) {
+                case FIXED_LENGTH:
+                    return readFixed(b, off, len);
+                case CHUNKED:
+                    return readChunked(b, off, len);
+                default:
+                    int read = in.read(b, off, len);
+                    if (read == -1) {
+                        eof = true;
+                    }
+                    return read;
+            }
+        } catch (IOException e) {
+            failed = true;
+            throw e;
+        }
+    }
+
+    @Override
+    public int available() throws IOException {
+        if (closed || eof) {
+            return 0;
+        }
+        int available = in.available();
+        return mode == Mode.UNTIL_CLOSE ? available : (int) Math.min(available, remaining);
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        pool.release(connection, eof && keepAlive && !failed, keepAliveTimeout);
+    }
+
+    private int readFixed(byte[] b, int off, int len) throws IOException {
+        int read = in.read(b, off, (int) Math.min(len, remaining));
+        if (read == -1) {
+            throw new EOFException("La conexión se cerró antes de recibir el cuerpo completo de la respuesta.");
+        }
+
+        remaining -= read;
+        if (remaining == 0) {
+            finish();
+        }
+        return read;
+    }
+
+    private int readChunked(byte[] b, int off, int len) throws IOException {
+        if (remaining == 0) {
+            remaining = readChunkSize();
+            if (remaining == 0) {
+                // Último chunk: se descartan los trailers, hasta la línea vacía
+                while (!HttpTransport.readLine(in).isEmpty()) {
+                    // Se ignoran
+                }
+                finish();
+                return -1;
+            }
+        }
+
+        int read = in.read(b, off, (int) Math.min(len, remaining));
+        if (read == -1) {
+            throw new EOFException("La conexión se cerró antes de recibir el cuerpo completo de la respuesta.");
+        }
+
+        remaining -= read;
+        if (remaining == 0) {
+            // Cada chunk termina con CRLF
+            HttpTransport.readLine(in);
+        }
+        return read;
+    }
+
+    private long readChunkSize() throws IOException {
+        String line = HttpTransport.readLine(in);
+        int extension = line.indexOf(';');
+        if (extension != -1) {
+            line = line.substring(0, extension);
+        }
+
+        try {
+            return Long.parseLong(line.trim(), 16);
+        } catch (NumberFormatException e) {
+            throw new IOException("Tamaño de chunk inválido en la respuesta HTTP: " + line, e);
+        }
+    }
+
+    private void finish() {
+        eof = true;
+    }
+}
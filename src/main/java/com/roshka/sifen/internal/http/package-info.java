@@ -0,0 +1,4 @@
+/**
+ * Clases encargadas del transporte HTTP hacia Sifen, incluyendo el pool de conexiones persistentes.
+ */
+package com.roshka.sifen.internal.http;
\ No newline at end of file
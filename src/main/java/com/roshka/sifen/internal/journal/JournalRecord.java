@@ -0,0 +1,46 @@
+package com.roshka.sifen.internal.journal;
+
+/**
+ * Registro del journal: un cambio de estado de un Documento Electrónico, identificado por su CDC, con el XML firmado
+ * opcional. El XML no se mantiene en memoria; se conserva su ubicación en el journal para leerlo cuando se necesite.
+ */
+public class JournalRecord {
+    private final byte state;
+    private final long timestamp;
+    private final String cdc;
+    private final String detail;
+
+    long segment = -1;
+    int xmlOffset = -1;
+    int xmlLength = -1;
+
+    public JournalRecord(byte state, long timestamp, String cdc, String detail) {
+        this.state = state;
+        this.timestamp = timestamp;
+        this.cdc = cdc;
+        this.detail = detail;
+    }
+
+    public byte getState() {
+        return state;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getCdc() {
+        return cdc;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    /**
+     * @return Si el registro incluye un XML firmado.
+     */
+    public boolean hasXml() {
+        return xmlLength >= 0;
+    }
+}
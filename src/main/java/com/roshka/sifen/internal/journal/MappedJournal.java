@@ -0,0 +1,533 @@
+package com.roshka.sifen.internal.journal;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Journal de solo agregado sobre segmentos de tamaño fijo mapeados en memoria. Cada registro se escribe directamente
+ * en el segmento actual; la sincronización con el disco (fsync) se realiza en segundo plano, agrupando todos los
+ * registros escritos desde la sincronización anterior.
+ * <p>
+ * Formato de cada segmento: número mágico y versión (8 bytes), seguidos de los registros, cada uno con su longitud,
+ * su CRC32 y su contenido. El resto del segmento está en cero, por lo que una longitud 0 indica el final. Un registro
+ * escrito parcialmente (ej.: por una caída del sistema) se detecta por su CRC y se descarta junto con el resto del
+ * segmento.
+ * <p>
+ * Los segmentos se desmapean explícitamente antes de eliminarlos y al cerrar el journal, ya que algunos sistemas
+ * operativos (ej.: Windows) no permiten eliminar un archivo mapeado, y el mapeo solo se libera cuando el recolector de
+ * basura descarta el buffer.
+ */
+public class MappedJournal implements Closeable {
+    private final static Logger logger = Logger.getLogger(MappedJournal.class.toString());
+    private final static AtomicInteger threadCount = new AtomicInteger();
+
+    private final static int MAGIC = 0x53464A31;
+    private final static int VERSION = 1;
+    private final static int HEADER_SIZE = 8;
+    private final static int RECORD_HEADER_SIZE = 8;
+    private final static String FILE_PREFIX = "outbox-";
+    private final static String FILE_SUFFIX = ".journal";
+
+    private final File directory;
+    private final int segmentSize;
+    private final long syncIntervalMillis;
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private final Set<Segment> dirty = new LinkedHashSet<>();
+    private final CRC32 crc = new CRC32();
+    private final Thread syncer;
+    // Protege la sincronización con el disco de los segmentos que se desmapean
+    private final Object forceLock = new Object();
+
+    private Segment current;
+    private long appendedSeq = 0;
+    private long syncedSeq = 0;
+    private int syncWaiters = 0;
+    private boolean closed = false;
+
+    /**
+     * Abre el journal del directorio indicado, creándolo si no existe.
+     *
+     * @param directory          Directorio de los segmentos.
+     * @param segmentSize        Tamaño de cada segmento, en bytes.
+     * @param syncIntervalMillis Tiempo máximo, en milisegundos, entre la escritura de un registro y su sincronización
+     *                           con el disco. Con 0, cada registro se sincroniza al escribirse.
+     * @throws IOException Si no se puede crear el directorio o leer sus segmentos.
+     */
+    public MappedJournal(File directory, int segmentSize, long syncIntervalMillis) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("No se pudo crear el directorio del journal: " + directory);
+        }
+
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.syncIntervalMillis = syncIntervalMillis;
+
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                long seq;
+                try {
+                    seq = Long.parseLong(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                segments.put(seq, openSegment(seq, file));
+            }
+        }
+
+        if (segments.isEmpty()) {
+            current = createSegment(1, segmentSize);
+        } else {
+            current = segments.lastEntry().getValue();
+            Scan scan = scan(current, null);
+            if (scan.corrupted) {
+                // Se limpia el registro incompleto para que no se confunda con los siguientes
+                ByteBuffer buffer = current.buffer;
+                for (int i = scan.end; i < buffer.capacity(); i++) {
+                    buffer.put(i, (byte) 0);
+                }
+                current.buffer.force();
+            }
+            current.writePosition = scan.end;
+        }
+
+        if (syncIntervalMillis > 0) {
+            syncer = new Thread(this::syncLoop, "sifen-outbox-sync-" + threadCount.incrementAndGet());
+            syncer.setDaemon(true);
+            syncer.start();
+        } else {
+            syncer = null;
+        }
+    }
+
+    /**
+     * Recorre todos los registros válidos del journal, en el orden en que fueron escritos.
+     *
+     * @param consumer Receptor de cada registro.
+     */
+    public synchronized void replay(Consumer<JournalRecord> consumer) {
+        if (closed) {
+            return;
+        }
+        for (Segment segment : segments.values()) {
+            Scan scan = scan(segment, consumer);
+            if (scan.corrupted) {
+                logger.warning("Registro inválido en el segmento " + segment.file + ", posición " + scan.end + ". Se ignora el resto del segmento");
+            }
+        }
+    }
+
+    /**
+     * Agrega un registro al final del journal, creando un nuevo segmento si no cabe en el actual.
+     *
+     * @param record Registro a agregar. Se actualiza con la ubicación del XML, si se incluye.
+     * @param xml    XML firmado, en UTF-8, o <strong>null</strong>.
+     * @return Número de secuencia del registro, a utilizar en {@link #awaitSync(long)}.
+     * @throws IOException Si no se puede crear un nuevo segmento.
+     */
+    public synchronized long append(JournalRecord record, byte[] xml) throws IOException {
+        if (closed) {
+            throw new IOException("El journal ya fue cerrado.");
+        }
+
+        byte[] cdc = record.getCdc().getBytes(StandardCharsets.UTF_8);
+        byte[] detail = record.getDetail() == null ? null : record.getDetail().getBytes(StandardCharsets.UTF_8);
+        int length = 1 + 8 + 2 + cdc.length + 4 + (detail == null ? 0 : detail.length) + 4 + (xml == null ? 0 : xml.length);
+
+        if ((long) current.writePosition + RECORD_HEADER_SIZE + length > current.buffer.capacity()) {
+            current = createSegment(current.seq + 1, Math.max(segmentSize, HEADER_SIZE + RECORD_HEADER_SIZE + length));
+        }
+
+        // Se escribe el contenido, luego el CRC y por último la longitud, que hace visible al registro
+        int start = current.writePosition;
+        ByteBuffer buffer = current.buffer;
+        buffer.position(start + RECORD_HEADER_SIZE);
+        buffer.put(record.getState());
+        buffer.putLong(record.getTimestamp());
+        buffer.putShort((short) cdc.length);
+        buffer.put(cdc);
+        putBytes(buffer, detail);
+        int xmlOffset = buffer.position() + 4;
+        putBytes(buffer, xml);
+
+        ByteBuffer payload = buffer.duplicate();
+        payload.position(start + RECORD_HEADER_SIZE);
+        payload.limit(start + RECORD_HEADER_SIZE + length);
+        crc.reset();
+        crc.update(payload);
+        buffer.putInt(start + 4, (int) crc.getValue());
+        buffer.putInt(start, length);
+
+        current.writePosition = start + RECORD_HEADER_SIZE + length;
+        if (xml != null) {
+            record.segment = current.seq;
+            record.xmlOffset = xmlOffset;
+            record.xmlLength = xml.length;
+        }
+
+        dirty.add(current);
+        appendedSeq++;
+        if (syncer == null) {
+            sync();
+        }
+        return appendedSeq;
+    }
+
+    /**
+     * Lee el XML firmado de un registro.
+     *
+     * @param record Registro leído o agregado por este journal.
+     * @return El XML, o <strong>null</strong> si el registro no lo incluye o su segmento ya fue eliminado.
+     */
+    public synchronized String readXml(JournalRecord record) {
+        Segment segment = record.hasXml() && !closed ? segments.get(record.segment) : null;
+        if (segment == null) {
+            return null;
+        }
+
+        byte[] xml = new byte[record.xmlLength];
+        ByteBuffer buffer = segment.buffer.duplicate();
+        buffer.position(record.xmlOffset);
+        buffer.get(xml);
+        return new String(xml, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Espera a que el registro indicado sea sincronizado con el disco, junto con todos los anteriores.
+     *
+     * @param seq Número de secuencia del registro.
+     * @throws InterruptedException Si el hilo es interrumpido durante la espera.
+     */
+    public synchronized void awaitSync(long seq) throws InterruptedException {
+        syncWaiters++;
+        try {
+            notifyAll();
+            while (syncedSeq < seq && !closed) {
+                wait();
+            }
+        } finally {
+            syncWaiters--;
+        }
+    }
+
+    /**
+     * Sincroniza inmediatamente con el disco todos los registros escritos.
+     */
+    public void sync() {
+        List<Segment> toForce;
+        long target;
+        synchronized (this) {
+            toForce = new ArrayList<>(dirty);
+            dirty.clear();
+            target = appendedSeq;
+        }
+
+        synchronized (forceLock) {
+            for (Segment segment : toForce) {
+                if (!segment.unmapped) {
+                    segment.buffer.force();
+                }
+            }
+        }
+
+        synchronized (this) {
+            syncedSeq = Math.max(syncedSeq, target);
+            notifyAll();
+        }
+    }
+
+    /**
+     * Reescribe los registros indicados en nuevos segmentos y elimina todos los segmentos anteriores, descartando los
+     * registros que ya no son necesarios.
+     *
+     * @param live Registros a conservar, en orden. Se actualizan con la nueva ubicación de su XML.
+     * @throws IOException Si no se pueden crear los nuevos segmentos.
+     */
+    public synchronized void compact(Collection<JournalRecord> live) throws IOException {
+        if (closed) {
+            throw new IOException("El journal ya fue cerrado.");
+        }
+
+        List<Segment> old = new ArrayList<>(segments.values());
+        current = createSegment(current.seq + 1, segmentSize);
+        long firstNew = current.seq;
+
+        for (JournalRecord record : live) {
+            String xml = readXml(record);
+            append(record, xml == null ? null : xml.getBytes(StandardCharsets.UTF_8));
+        }
+
+        // Los nuevos segmentos deben estar en disco antes de eliminar los anteriores
+        for (Segment segment : segments.tailMap(firstNew).values()) {
+            segment.buffer.force();
+        }
+        for (Segment segment : old) {
+            segments.remove(segment.seq);
+            dirty.remove(segment);
+            unmap(segment);
+            if (!segment.file.delete()) {
+                logger.warning("No se pudo eliminar el segmento compactado " + segment.file);
+            }
+        }
+    }
+
+    /**
+     * @return Cantidad de segmentos del journal.
+     */
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Sincroniza los registros pendientes, detiene la sincronización en segundo plano y desmapea los segmentos.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notifyAll();
+        }
+        if (syncer != null) {
+            try {
+                syncer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        sync();
+
+        synchronized (this) {
+            for (Segment segment : segments.values()) {
+                unmap(segment);
+            }
+        }
+    }
+
+    private void syncLoop() {
+        while (true) {
+            synchronized (this) {
+                try {
+                    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(syncIntervalMillis);
+                    while (!closed) {
+                        long remaining = deadline - System.nanoTime();
+                        if (dirty.isEmpty()) {
+                            wait();
+                            deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(syncIntervalMillis);
+                        } else if (syncWaiters > 0 || remaining <= 0) {
+                            break;
+                        } else {
+                            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (closed) {
+                    return;
+                }
+            }
+
+            try {
+                sync();
+            } catch (RuntimeException e) {
+                logger.log(Level.SEVERE, "Error al sincronizar el journal con el disco", e);
+            }
+        }
+    }
+
+    private Segment createSegment(long seq, int size) throws IOException {
+        File file = new File(directory, String.format("%s%016d%s", FILE_PREFIX, seq, FILE_SUFFIX));
+        MappedByteBuffer buffer;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(size);
+            buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.force();
+
+        Segment segment = new Segment(seq, file, buffer);
+        segment.writePosition = HEADER_SIZE;
+        segments.put(seq, segment);
+        logger.fine("Nuevo segmento del journal: " + file);
+        return segment;
+    }
+
+    /*
+     * Libera el mapeo del segmento, que ya no debe ser accedido. Debe invocarse con el lock del journal tomado.
+     */
+    private void unmap(Segment segment) {
+        synchronized (forceLock) {
+            if (segment.unmapped) {
+                return;
+            }
+            segment.unmapped = true;
+            try {
+                BufferCleaner.clean(segment.buffer);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // El mapeo se liberará cuando el recolector de basura descarte el buffer
+                logger.log(Level.FINE, "No se pudo desmapear el segmento " + segment.file, e);
+            }
+        }
+    }
+
+    private static Segment openSegment(long seq, File file) throws IOException {
+        MappedByteBuffer buffer;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            if (raf.length() < HEADER_SIZE || raf.length() > Integer.MAX_VALUE) {
+                throw new IOException("Segmento del journal inválido: " + file);
+            }
+            buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, raf.length());
+        }
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Segmento del journal inválido: " + file);
+        }
+        return new Segment(seq, file, buffer);
+    }
+
+    /*
+     * Lee los registros del segmento hasta el primero vacío o inválido.
+     */
+    private Scan scan(Segment segment, Consumer<JournalRecord> consumer) {
+        ByteBuffer buffer = segment.buffer.duplicate();
+        int capacity = buffer.capacity();
+        int position = HEADER_SIZE;
+        while (position + RECORD_HEADER_SIZE <= capacity) {
+            int length = buffer.getInt(position);
+            if (length == 0) {
+                return new Scan(position, false);
+            }
+            if (length < 0 || length > capacity - position - RECORD_HEADER_SIZE) {
+                return new Scan(position, true);
+            }
+
+            buffer.limit(position + RECORD_HEADER_SIZE + length);
+            buffer.position(position + RECORD_HEADER_SIZE);
+            crc.reset();
+            crc.update(buffer);
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                return new Scan(position, true);
+            }
+
+            if (consumer != null) {
+                buffer.position(position + RECORD_HEADER_SIZE);
+                consumer.accept(readRecord(segment.seq, buffer));
+            }
+            buffer.limit(capacity);
+            position += RECORD_HEADER_SIZE + length;
+        }
+        return new Scan(position, false);
+    }
+
+    private static JournalRecord readRecord(long seq, ByteBuffer buffer) {
+        byte state = buffer.get();
+        long timestamp = buffer.getLong();
+        byte[] cdc = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(cdc);
+        int detailLength = buffer.getInt();
+        String detail = null;
+        if (detailLength >= 0) {
+            byte[] bytes = new byte[detailLength];
+            buffer.get(bytes);
+            detail = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        JournalRecord record = new JournalRecord(state, timestamp, new String(cdc, StandardCharsets.UTF_8), detail);
+        int xmlLength = buffer.getInt();
+        if (xmlLength >= 0) {
+            record.segment = seq;
+            record.xmlOffset = buffer.position();
+            record.xmlLength = xmlLength;
+        }
+        return record;
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    /**
+     * Archivo de segmento, mapeado en memoria.
+     */
+    private static class Segment {
+        private final long seq;
+        private final File file;
+        private final MappedByteBuffer buffer;
+        private int writePosition;
+        private boolean unmapped;
+
+        private Segment(long seq, File file, MappedByteBuffer buffer) {
+            this.seq = seq;
+            this.file = file;
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * Libera el mapeo de un buffer sin esperar al recolector de basura: con <i>Unsafe.invokeCleaner</i> en Java 9 o
+     * superior, o con el <i>Cleaner</i> del buffer en Java 8.
+     */
+    private static class BufferCleaner {
+        private static void clean(MappedByteBuffer buffer) throws ReflectiveOperationException {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner;
+            try {
+                invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            } catch (NoSuchMethodException e) {
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+                return;
+            }
+
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+        }
+    }
+
+    /**
+     * Resultado de la lectura de un segmento.
+     */
+    private static class Scan {
+        private final int end;
+        private final boolean corrupted;
+
+        private Scan(int end, boolean corrupted) {
+            this.end = end;
+            this.corrupted = corrupted;
+        }
+    }
+}
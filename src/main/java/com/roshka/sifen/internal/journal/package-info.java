@@ -0,0 +1,5 @@
+/**
+ * Clases encargadas del registro persistente (journal) de los envíos de Documentos Electrónicos, sobre archivos
+ * mapeados en memoria.
+ */
+package com.roshka.sifen.internal.journal;
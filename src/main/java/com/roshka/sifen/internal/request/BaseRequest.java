@@ -3,69 +3,129 @@ package com.roshka.sifen.internal.request;
 import com.roshka.sifen.core.SifenConfig;
 import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.internal.SOAPResponse;
+import com.roshka.sifen.internal.ctx.ClientCtx;
 import com.roshka.sifen.internal.ctx.GenerationCtx;
 import com.roshka.sifen.internal.helpers.SoapHelper;
 import com.roshka.sifen.internal.response.BaseResponse;
+import com.roshka.sifen.internal.util.MessageBuffer;
 import com.roshka.sifen.internal.util.SifenExceptionUtil;
 import com.roshka.sifen.internal.util.SifenUtil;
 
 import javax.xml.soap.SOAPException;
 import javax.xml.soap.SOAPMessage;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-import java.io.StringWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 abstract class BaseRequest {
+    private final ClientCtx clientCtx;
     private final long dId;
     private final SifenConfig sifenConfig;
     private final static Logger logger = Logger.getLogger(BaseRequest.class.toString());
 
-    BaseRequest(long dId, SifenConfig sifenConfig) {
-        this.dId = dId;
-        this.sifenConfig = sifenConfig;
+    BaseRequest(ClientCtx clientCtx) {
+        this.clientCtx = clientCtx;
+        this.dId = clientCtx.nextDId();
+        this.sifenConfig = clientCtx.getSifenConfig();
     }
 
     abstract SOAPMessage setupSoapMessage(GenerationCtx generationCtx) throws SifenException;
 
     abstract BaseResponse processResponse(SOAPResponse soapResponse) throws SifenException;
-    
-    public BaseResponse makeRequest(GenerationCtx generationCtx,String url) throws SifenException {
-        try {
-            // Preparamos el mensaje
-            SOAPMessage message = this.setupSoapMessage(generationCtx);
-            message.setProperty(SOAPMessage.WRITE_XML_DECLARATION, "true");
-            message.setProperty(SOAPMessage.CHARACTER_SET_ENCODING, "UTF-8");
-            logger.info("XML generado, se realiza la petición");
 
-//             Para obtener el xml
-            final StringWriter sw = new StringWriter();
+    /**
+     * @return El tipo de operación de la petición, del que depende su política de reintentos (ver
+     * {@link SifenConfig#getPoliticaReintentos(SifenConfig.TipoOperacion)}).
+     */
+    abstract SifenConfig.TipoOperacion getOperation();
+
+    /**
+     * Escribe el mensaje SOAP directamente, sin construir el árbol DOM, si la petición lo soporta y la configuración
+     * lo habilita (ver {@link SifenConfig#isXmlGeneracionStreaming()}).
+     *
+     * @param out Destino del mensaje, serializado en UTF-8.
+     * @return <strong>true</strong> si el mensaje fue escrito, o <strong>false</strong> si se debe utilizar
+     * {@link #setupSoapMessage(GenerationCtx)}.
+     */
+    boolean writeSoapMessage(GenerationCtx generationCtx, OutputStream out) throws SifenException {
+        return false;
+    }
 
-            try {
-                TransformerFactory.newInstance().newTransformer().transform(
-                        new DOMSource(message.getSOAPPart()),
-                        new StreamResult(sw));
-            } catch (TransformerException e) {
-                throw new RuntimeException(e);
+    /**
+     * Valida contra los esquemas de Sifen el contenido del mensaje SOAP ya serializado, si la petición lo soporta.
+     * Solo se invoca si la configuración lo habilita (ver {@link SifenConfig#isXmlValidacionEsquema()}).
+     *
+     * @param message Mensaje SOAP, serializado en UTF-8.
+     * @throws SifenException Si el contenido no cumple con los esquemas.
+     */
+    void validateSoapMessage(MessageBuffer message) throws SifenException {
+    }
+
+    /**
+     * Verificación de si Sifen ya recibió la petición, a realizar antes de reenviarla cuando se perdió la respuesta,
+     * si la petición lo soporta. Si Sifen la recibió, {@link #processResponse(SOAPResponse)} recibe una respuesta sin
+     * contenido (ver {@link SOAPResponse#isPreviouslyReceived()}).
+     *
+     * @return La verificación, o <strong>null</strong> si la petición no la soporta.
+     */
+    SoapHelper.SentRequestCheck getSentRequestCheck(GenerationCtx generationCtx) {
+        return null;
+    }
+
+    public BaseResponse makeRequest(GenerationCtx generationCtx,String url) throws SifenException {
+        // El mensaje se serializa una sola vez, en un buffer reutilizable, del que se envía y se captura
+        MessageBuffer message = clientCtx.acquireMessageBuffer();
+        try {
+            if (!this.writeSoapMessage(generationCtx, message)) {
+                this.setupSoapMessage(generationCtx, message);
+            }
+            if (sifenConfig.isXmlValidacionEsquema()) {
+                this.validateSoapMessage(message);
+            }
+            if (logger.isLoggable(Level.FINE)) {
+                logger.fine("Este es el xml a enviarse a la SIFEN \n" + message.decode(0));
             }
 
-            String xml = sw.toString();
-            logger.info("Este es el xml a enviarse a la SIFEN \n" + xml);
-//            System.out.println(xml);
+            boolean sampled = clientCtx.sampleCapture();
+
             // Realizamos la consulta
             String requestUrl = SifenUtil.coalesce(sifenConfig.getUrlBase(), sifenConfig.getUrlBaseLocal()) + url;
-            BaseResponse response = this.processResponse(SoapHelper.makeSoapRequest(sifenConfig, requestUrl, message));
-            response.setRequestSent(xml);
+            SOAPResponse soapResponse = SoapHelper.makeSoapRequest(clientCtx, requestUrl, message.array(), 0,
+                    message.size(), sampled && sifenConfig.isCapturaRespuesta(),
+                    sifenConfig.getPoliticaReintentos(this.getOperation()), this.getSentRequestCheck(generationCtx));
+            BaseResponse response = this.processResponse(soapResponse);
+            response.setTamanoPeticion(message.size());
+            response.setIntentos(soapResponse.getIntentos());
+            // La respuesta capturada se decodifica recién al ser consultada
+            response.setRespuestaBrutaBytes(soapResponse.getRawData());
+            if (sampled && sifenConfig.isCapturaPeticion()) {
+                response.setRequestSent(message.decode(sifenConfig.getCapturaTamanoMaximo()));
+            }
             logger.info("Petición realizada, se formatea la respuesta");
             return response;
+        } finally {
+            clientCtx.releaseMessageBuffer(message);
+        }
+    }
+
+    private void setupSoapMessage(GenerationCtx generationCtx, OutputStream out) throws SifenException {
+        try {
+            SOAPMessage message = this.setupSoapMessage(generationCtx);
+            message.setProperty(SOAPMessage.WRITE_XML_DECLARATION, "true");
+            message.setProperty(SOAPMessage.CHARACTER_SET_ENCODING, "UTF-8");
+            message.writeTo(out);
+        } catch (IOException e) {
+            throw SifenExceptionUtil.invalidSOAPRequest("Excepción de entrada/salida al realizar llamada SOAP: " + e.getLocalizedMessage(), e);
         } catch (SOAPException e) {
-            String msg = "Ocurrió un error al realizan la petición a: " + url + ". Mensaje: " + e.getLocalizedMessage();
-            throw SifenExceptionUtil.invalidSOAPRequest(msg, e);
+            throw SifenExceptionUtil.invalidSOAPRequest("Excepción de mensajería SOAP: " + e.getLocalizedMessage(), e);
         }
     }
 
+    ClientCtx getClientCtx() {
+        return clientCtx;
+    }
+
     long getdId() {
         return dId;
     }
@@ -73,4 +133,4 @@ abstract class BaseRequest {
     SifenConfig getSifenConfig() {
         return sifenConfig;
     }
-}
\ No newline at end of file
+}
@@ -5,31 +5,34 @@ import com.roshka.sifen.core.beans.response.RespuestaConsultaDE;
 import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.internal.Constants;
 import com.roshka.sifen.internal.SOAPResponse;
+import com.roshka.sifen.internal.ctx.ClientCtx;
 import com.roshka.sifen.internal.ctx.GenerationCtx;
 import com.roshka.sifen.internal.helpers.SoapHelper;
 import com.roshka.sifen.internal.response.BaseResponse;
 import com.roshka.sifen.internal.response.SifenObjectFactory;
 import com.roshka.sifen.internal.util.ResponseUtil;
 import com.roshka.sifen.internal.util.SifenExceptionUtil;
-import org.w3c.dom.Node;
 
 import javax.xml.namespace.QName;
 import javax.xml.soap.SOAPBody;
 import javax.xml.soap.SOAPBodyElement;
 import javax.xml.soap.SOAPException;
 import javax.xml.soap.SOAPMessage;
-import java.nio.charset.StandardCharsets;
+import javax.xml.stream.XMLStreamReader;
 import java.util.logging.Logger;
 
 /**
  * Clase encargada de la Consulta de Documentos Electrónicos.
  */
 public class ReqConsDe extends BaseRequest {
+    // Código de respuesta de la consulta si Sifen tiene registrado el DE
+    private final static String CDC_ENCONTRADO = "0422";
+
     private String dCDC;
     private final static Logger logger = Logger.getLogger(ReqConsDe.class.toString());
 
-    public ReqConsDe(long dId, SifenConfig sifenConfig) {
-        super(dId, sifenConfig);
+    public ReqConsDe(ClientCtx clientCtx) {
+        super(clientCtx);
     }
 
     @Override
@@ -50,28 +53,49 @@ public class ReqConsDe extends BaseRequest {
         }
     }
 
+    @Override
+    SifenConfig.TipoOperacion getOperation() {
+        return SifenConfig.TipoOperacion.CONSULTA_DE;
+    }
+
     @Override
     BaseResponse processResponse(SOAPResponse soapResponse) throws SifenException {
-        Node rEnviConsDe = null;
-        String rawResponse = null;
+        XMLStreamReader rEnviConsDe = null;
         try {
-            SOAPMessage soapMessage = ResponseUtil.parseSoapMessage(soapResponse.getSoapResponse());
-            rEnviConsDe = ResponseUtil.getMainNode(soapMessage, "rEnviConsDeResponse");
-            rawResponse = ResponseUtil.getXmlFromMessage(soapMessage, false);
+            rEnviConsDe = ResponseUtil.getMainElement(soapResponse.getSoapResponse(), "rEnviConsDeResponse");
         } catch (SifenException e) {
             logger.warning(e.getMessage());
         }
 
         RespuestaConsultaDE respuestaConsultaDE = new RespuestaConsultaDE();
         if (rEnviConsDe != null) {
-            respuestaConsultaDE = SifenObjectFactory.getFromNode(rEnviConsDe, RespuestaConsultaDE.class);
+            respuestaConsultaDE = SifenObjectFactory.getFromStream(rEnviConsDe, RespuestaConsultaDE.class);
         }
 
         respuestaConsultaDE.setCodigoEstado(soapResponse.getStatus());
-        respuestaConsultaDE.setRespuestaBruta(rawResponse != null ? rawResponse : new String(soapResponse.getRawData(), StandardCharsets.UTF_8));
         return respuestaConsultaDE;
     }
 
+    /**
+     * Consulta un DE por su CDC, para verificar si Sifen lo recibió antes de reenviarlo.
+     *
+     * @return La respuesta a la consulta si Sifen tiene registrado el DE, o <strong>null</strong> si no.
+     * @throws SifenException Si la consulta falla, o si no devuelve un resultado.
+     */
+    static RespuestaConsultaDE findReceived(ClientCtx clientCtx, GenerationCtx generationCtx, String cdc) throws SifenException {
+        ReqConsDe reqConsDe = new ReqConsDe(clientCtx);
+        reqConsDe.setdCDC(cdc);
+        RespuestaConsultaDE respuesta = (RespuestaConsultaDE) reqConsDe.makeRequest(generationCtx,
+                clientCtx.getSifenConfig().getPathConsulta());
+        if (respuesta.getdCodRes() == null) {
+            throw SifenExceptionUtil.invalidSOAPRequest("La consulta del DE " + cdc + " no devolvió un resultado (estado HTTP "
+                    + respuesta.getCodigoEstado() + ")");
+        }
+
+        logger.info("Consulta del DE " + cdc + " previa al reenvío: " + respuesta.getdCodRes() + " - " + respuesta.getdMsgRes());
+        return CDC_ENCONTRADO.equals(respuesta.getdCodRes()) ? respuesta : null;
+    }
+
     public void setdCDC(String dCDC) {
         this.dCDC = dCDC;
     }
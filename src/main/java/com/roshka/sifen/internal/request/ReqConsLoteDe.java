@@ -5,20 +5,20 @@ import com.roshka.sifen.core.beans.response.RespuestaConsultaLoteDE;
 import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.internal.Constants;
 import com.roshka.sifen.internal.SOAPResponse;
+import com.roshka.sifen.internal.ctx.ClientCtx;
 import com.roshka.sifen.internal.ctx.GenerationCtx;
 import com.roshka.sifen.internal.helpers.SoapHelper;
 import com.roshka.sifen.internal.response.BaseResponse;
 import com.roshka.sifen.internal.response.SifenObjectFactory;
 import com.roshka.sifen.internal.util.ResponseUtil;
 import com.roshka.sifen.internal.util.SifenExceptionUtil;
-import org.w3c.dom.Node;
 
 import javax.xml.namespace.QName;
 import javax.xml.soap.SOAPBody;
 import javax.xml.soap.SOAPBodyElement;
 import javax.xml.soap.SOAPException;
 import javax.xml.soap.SOAPMessage;
-import java.nio.charset.StandardCharsets;
+import javax.xml.stream.XMLStreamReader;
 import java.util.logging.Logger;
 
 /**
@@ -28,8 +28,8 @@ public class ReqConsLoteDe extends BaseRequest {
     private String dProtConsLote;
     private final static Logger logger = Logger.getLogger(ReqConsLoteDe.class.toString());
 
-    public ReqConsLoteDe(long dId, SifenConfig sifenConfig) {
-        super(dId, sifenConfig);
+    public ReqConsLoteDe(ClientCtx clientCtx) {
+        super(clientCtx);
     }
 
     @Override
@@ -50,23 +50,26 @@ public class ReqConsLoteDe extends BaseRequest {
         }
     }
 
+    @Override
+    SifenConfig.TipoOperacion getOperation() {
+        return SifenConfig.TipoOperacion.CONSULTA_LOTE;
+    }
+
     @Override
     BaseResponse processResponse(SOAPResponse soapResponse) throws SifenException {
-        Node rResEnviConsLoteDe = null;
+        XMLStreamReader rResEnviConsLoteDe = null;
         try {
-            SOAPMessage soapMessage = ResponseUtil.parseSoapMessage(soapResponse.getSoapResponse());
-            rResEnviConsLoteDe = ResponseUtil.getMainNode(soapMessage, "rResEnviConsLoteDe");
+            rResEnviConsLoteDe = ResponseUtil.getMainElement(soapResponse.getSoapResponse(), "rResEnviConsLoteDe");
         } catch (SifenException e) {
             logger.warning(e.getMessage());
         }
 
         RespuestaConsultaLoteDE respuestaConsultaLoteDE = new RespuestaConsultaLoteDE();
         if (rResEnviConsLoteDe != null) {
-            respuestaConsultaLoteDE = SifenObjectFactory.getFromNode(rResEnviConsLoteDe, RespuestaConsultaLoteDE.class);
+            respuestaConsultaLoteDE = SifenObjectFactory.getFromStream(rResEnviConsLoteDe, RespuestaConsultaLoteDE.class);
         }
 
         respuestaConsultaLoteDE.setCodigoEstado(soapResponse.getStatus());
-        respuestaConsultaLoteDE.setRespuestaBruta(new String(soapResponse.getRawData(), StandardCharsets.UTF_8));
         return respuestaConsultaLoteDE;
     }
 
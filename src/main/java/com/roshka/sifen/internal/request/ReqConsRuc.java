@@ -5,20 +5,20 @@ import com.roshka.sifen.core.beans.response.RespuestaConsultaRUC;
 import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.internal.Constants;
 import com.roshka.sifen.internal.SOAPResponse;
+import com.roshka.sifen.internal.ctx.ClientCtx;
 import com.roshka.sifen.internal.ctx.GenerationCtx;
 import com.roshka.sifen.internal.helpers.SoapHelper;
 import com.roshka.sifen.internal.response.BaseResponse;
 import com.roshka.sifen.internal.response.SifenObjectFactory;
 import com.roshka.sifen.internal.util.ResponseUtil;
 import com.roshka.sifen.internal.util.SifenExceptionUtil;
-import org.w3c.dom.Node;
 
 import javax.xml.namespace.QName;
 import javax.xml.soap.SOAPBody;
 import javax.xml.soap.SOAPBodyElement;
 import javax.xml.soap.SOAPException;
 import javax.xml.soap.SOAPMessage;
-import java.nio.charset.StandardCharsets;
+import javax.xml.stream.XMLStreamReader;
 import java.util.logging.Logger;
 
 /**
@@ -28,8 +28,8 @@ public class ReqConsRuc extends BaseRequest {
     private String dRUCCons;
     private final static Logger logger = Logger.getLogger(ReqConsRuc.class.toString());
 
-    public ReqConsRuc(long dId, SifenConfig sifenConfig) {
-        super(dId, sifenConfig);
+    public ReqConsRuc(ClientCtx clientCtx) {
+        super(clientCtx);
     }
 
     @Override
@@ -50,22 +50,26 @@ public class ReqConsRuc extends BaseRequest {
         }
     }
 
+    @Override
+    SifenConfig.TipoOperacion getOperation() {
+        return SifenConfig.TipoOperacion.CONSULTA_RUC;
+    }
+
     @Override
     BaseResponse processResponse(SOAPResponse soapResponse) throws SifenException {
-        Node rResEnviConsRuc = null;
+        XMLStreamReader rResEnviConsRuc = null;
         try {
-            rResEnviConsRuc = ResponseUtil.getMainNode(soapResponse.getSoapResponse(), "rResEnviConsRuc");
+            rResEnviConsRuc = ResponseUtil.getMainElement(soapResponse.getSoapResponse(), "rResEnviConsRuc");
         } catch (SifenException e) {
             logger.warning(e.getMessage());
         }
 
         RespuestaConsultaRUC respuestaConsultaRUC = new RespuestaConsultaRUC();
         if (rResEnviConsRuc != null) {
-            respuestaConsultaRUC = SifenObjectFactory.getFromNode(rResEnviConsRuc, RespuestaConsultaRUC.class);
+            respuestaConsultaRUC = SifenObjectFactory.getFromStream(rResEnviConsRuc, RespuestaConsultaRUC.class);
         }
 
         respuestaConsultaRUC.setCodigoEstado(soapResponse.getStatus());
-        respuestaConsultaRUC.setRespuestaBruta(new String(soapResponse.getRawData(), StandardCharsets.UTF_8));
         return respuestaConsultaRUC;
     }
 
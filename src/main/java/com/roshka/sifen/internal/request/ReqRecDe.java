@@ -2,30 +2,47 @@ package com.roshka.sifen.internal.request;
 
 import com.roshka.sifen.core.SifenConfig;
 import com.roshka.sifen.core.beans.DocumentoElectronico;
+import com.roshka.sifen.core.beans.response.RespuestaConsultaDE;
 import com.roshka.sifen.core.beans.response.RespuestaRecepcionDE;
 import com.roshka.sifen.core.exceptions.SifenException;
+import com.roshka.sifen.internal.Constants;
 import com.roshka.sifen.internal.SOAPResponse;
+import com.roshka.sifen.internal.ctx.ClientCtx;
 import com.roshka.sifen.internal.ctx.GenerationCtx;
+import com.roshka.sifen.internal.helpers.SoapHelper;
 import com.roshka.sifen.internal.response.BaseResponse;
 import com.roshka.sifen.internal.response.SifenObjectFactory;
+import com.roshka.sifen.internal.util.MessageBuffer;
 import com.roshka.sifen.internal.util.ResponseUtil;
 import com.roshka.sifen.internal.util.SifenExceptionUtil;
-import org.w3c.dom.Node;
+import com.roshka.sifen.internal.xml.SchemaValidator;
+import com.roshka.sifen.internal.xml.StreamingXmlWriter;
+import com.roshka.sifen.internal.xml.XmlElement;
 
+import javax.xml.namespace.QName;
 import javax.xml.soap.SOAPException;
 import javax.xml.soap.SOAPMessage;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Clase encargada de la petición de Recepción de Documentos Electrónicos.
  */
 public class ReqRecDe extends BaseRequest {
+    private final static Pattern CDC_PATTERN = Pattern.compile("<(?:\\w+:)?DE\\s[^>]*\\bId=\"([^\"]+)\"");
+
     private DocumentoElectronico DE;
+    private String xmlFirmado;
+    private RespuestaConsultaDE consultaDE;
     private final static Logger logger = Logger.getLogger(ReqRecDe.class.toString());
 
-    public ReqRecDe(long dId, SifenConfig sifenConfig) {
-        super(dId, sifenConfig);
+    public ReqRecDe(ClientCtx clientCtx) {
+        super(clientCtx);
     }
 
     @Override
@@ -37,26 +54,111 @@ public class ReqRecDe extends BaseRequest {
         }
     }
 
+    @Override
+    boolean writeSoapMessage(GenerationCtx generationCtx, OutputStream out) throws SifenException {
+        if (this.xmlFirmado != null) {
+            this.writeSignedSoapMessage(out);
+            return true;
+        }
+        if (!this.getSifenConfig().isXmlGeneracionStreaming()) {
+            return false;
+        }
+
+        try {
+            this.DE.writeSOAPMessage(generationCtx, this.getdId(), this.getSifenConfig(), out);
+        } catch (SOAPException | IOException e) {
+            throw SifenExceptionUtil.requestPreparationError("Ocurrió un error al preparar el cuerpo de la petición SOAP", e);
+        }
+        return true;
+    }
+
+    /*
+     * Envuelve el DE firmado previamente, sin volver a generarlo ni firmarlo.
+     */
+    private void writeSignedSoapMessage(OutputStream out) throws SifenException {
+        byte[] rDE = this.xmlFirmado.getBytes(StandardCharsets.UTF_8);
+        try {
+            StreamingXmlWriter writer = new StreamingXmlWriter(out);
+            XmlElement rEnviDe = SoapHelper.startSoapMessage(writer).addChildElement(new QName(Constants.SIFEN_NS_URI, "rEnviDe"));
+            rEnviDe.addChildElement("dId").setTextContent(String.valueOf(this.getdId()));
+            writer.writeMarkup(rEnviDe.addChildElement("xDE"), rDE);
+            writer.finish();
+        } catch (SOAPException | IOException e) {
+            throw SifenExceptionUtil.requestPreparationError("Ocurrió un error al preparar el cuerpo de la petición SOAP", e);
+        }
+    }
+
+    @Override
+    void validateSoapMessage(MessageBuffer message) throws SifenException {
+        SchemaValidator.check(message.array(), 0, message.size());
+    }
+
+    @Override
+    SifenConfig.TipoOperacion getOperation() {
+        return SifenConfig.TipoOperacion.RECEPCION_DE;
+    }
+
+    /*
+     * El CDC del DE es el mismo en cada envío, por lo que permite consultar si Sifen ya lo recibió.
+     */
+    @Override
+    SoapHelper.SentRequestCheck getSentRequestCheck(GenerationCtx generationCtx) {
+        return () -> {
+            this.consultaDE = ReqConsDe.findReceived(this.getClientCtx(), generationCtx, this.getCDC());
+            return this.consultaDE != null;
+        };
+    }
+
+    private String getCDC() throws SifenException {
+        String cdc = null;
+        if (this.xmlFirmado != null) {
+            Matcher matcher = CDC_PATTERN.matcher(this.xmlFirmado);
+            if (matcher.find()) {
+                cdc = matcher.group(1);
+            }
+        } else {
+            cdc = this.DE.getId();
+        }
+
+        if (cdc == null || cdc.isEmpty()) {
+            throw SifenExceptionUtil.fieldNotFound("No se pudo obtener el CDC del DE enviado");
+        }
+        return cdc;
+    }
+
     @Override
     BaseResponse processResponse(SOAPResponse soapResponse) throws SifenException {
-        Node rRetEnviDe = null;
+        if (soapResponse.isPreviouslyReceived()) {
+            RespuestaRecepcionDE respuestaRecepcionDE = new RespuestaRecepcionDE();
+            respuestaRecepcionDE.setConsultaDE(this.consultaDE);
+            respuestaRecepcionDE.setCodigoEstado(this.consultaDE.getCodigoEstado());
+            return respuestaRecepcionDE;
+        }
+
+        XMLStreamReader rRetEnviDe = null;
         try {
-            rRetEnviDe = ResponseUtil.getMainNode(soapResponse.getSoapResponse(), "rRetEnviDe");
+            rRetEnviDe = ResponseUtil.getMainElement(soapResponse.getSoapResponse(), "rRetEnviDe");
         } catch (SifenException e) {
             logger.warning(e.getMessage());
         }
 
         RespuestaRecepcionDE respuestaRecepcionDE = new RespuestaRecepcionDE();
         if (rRetEnviDe != null) {
-            respuestaRecepcionDE = SifenObjectFactory.getFromNode(rRetEnviDe, RespuestaRecepcionDE.class);
+            respuestaRecepcionDE = SifenObjectFactory.getFromStream(rRetEnviDe, RespuestaRecepcionDE.class);
         }
 
         respuestaRecepcionDE.setCodigoEstado(soapResponse.getStatus());
-        respuestaRecepcionDE.setRespuestaBruta(new String(soapResponse.getRawData(), StandardCharsets.UTF_8));
         return respuestaRecepcionDE;
     }
 
     public void setDE(DocumentoElectronico DE) {
         this.DE = DE;
     }
+
+    /**
+     * @param xmlFirmado XML del DE (elemento rDE) ya firmado, a enviar en lugar de generar el DE.
+     */
+    public void setXmlFirmado(String xmlFirmado) {
+        this.xmlFirmado = xmlFirmado;
+    }
 }
\ No newline at end of file
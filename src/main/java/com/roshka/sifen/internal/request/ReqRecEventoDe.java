@@ -6,17 +6,19 @@ import com.roshka.sifen.core.beans.response.RespuestaRecepcionEvento;
 import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.internal.Constants;
 import com.roshka.sifen.internal.SOAPResponse;
+import com.roshka.sifen.internal.ctx.ClientCtx;
 import com.roshka.sifen.internal.ctx.GenerationCtx;
 import com.roshka.sifen.internal.helpers.SoapHelper;
 import com.roshka.sifen.internal.response.BaseResponse;
 import com.roshka.sifen.internal.response.SifenObjectFactory;
+import com.roshka.sifen.internal.util.MessageBuffer;
 import com.roshka.sifen.internal.util.ResponseUtil;
 import com.roshka.sifen.internal.util.SifenExceptionUtil;
-import org.w3c.dom.Node;
+import com.roshka.sifen.internal.xml.SchemaValidator;
 
 import javax.xml.namespace.QName;
 import javax.xml.soap.*;
-import java.nio.charset.StandardCharsets;
+import javax.xml.stream.XMLStreamReader;
 import java.util.logging.Logger;
 
 /**
@@ -26,8 +28,8 @@ public class ReqRecEventoDe extends BaseRequest {
     private EventosDE eventosDE;
     private final static Logger logger = Logger.getLogger(ReqRecEventoDe.class.toString());
 
-    public ReqRecEventoDe(long dId, SifenConfig sifenConfig) {
-        super(dId, sifenConfig);
+    public ReqRecEventoDe(ClientCtx clientCtx) {
+        super(clientCtx);
     }
 
     @Override
@@ -54,22 +56,31 @@ public class ReqRecEventoDe extends BaseRequest {
         }
     }
 
+    @Override
+    void validateSoapMessage(MessageBuffer message) throws SifenException {
+        SchemaValidator.check(message.array(), 0, message.size());
+    }
+
+    @Override
+    SifenConfig.TipoOperacion getOperation() {
+        return SifenConfig.TipoOperacion.RECEPCION_EVENTO;
+    }
+
     @Override
     BaseResponse processResponse(SOAPResponse soapResponse) throws SifenException {
-        Node rRetEnviEventoDe = null;
+        XMLStreamReader rRetEnviEventoDe = null;
         try {
-            rRetEnviEventoDe = ResponseUtil.getMainNode(soapResponse.getSoapResponse(), "rRetEnviEventoDe");
+            rRetEnviEventoDe = ResponseUtil.getMainElement(soapResponse.getSoapResponse(), "rRetEnviEventoDe");
         } catch (SifenException e) {
             logger.warning(e.getMessage());
         }
 
         RespuestaRecepcionEvento respuestaRecepcionEvento = new RespuestaRecepcionEvento();
         if (rRetEnviEventoDe != null) {
-            respuestaRecepcionEvento = SifenObjectFactory.getFromNode(rRetEnviEventoDe, RespuestaRecepcionEvento.class);
+            respuestaRecepcionEvento = SifenObjectFactory.getFromStream(rRetEnviEventoDe, RespuestaRecepcionEvento.class);
         }
 
         respuestaRecepcionEvento.setCodigoEstado(soapResponse.getStatus());
-        respuestaRecepcionEvento.setRespuestaBruta(new String(soapResponse.getRawData(), StandardCharsets.UTF_8));
         return respuestaRecepcionEvento;
     }
 
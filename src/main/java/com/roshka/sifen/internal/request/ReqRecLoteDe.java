@@ -2,10 +2,12 @@ package com.roshka.sifen.internal.request;
 
 import com.roshka.sifen.core.SifenConfig;
 import com.roshka.sifen.core.beans.DocumentoElectronico;
+import com.roshka.sifen.core.beans.response.RespuestaConsultaDE;
 import com.roshka.sifen.core.beans.response.RespuestaRecepcionLoteDE;
 import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.internal.Constants;
 import com.roshka.sifen.internal.SOAPResponse;
+import com.roshka.sifen.internal.ctx.ClientCtx;
 import com.roshka.sifen.internal.ctx.GenerationCtx;
 import com.roshka.sifen.internal.helpers.SoapHelper;
 import com.roshka.sifen.internal.response.BaseResponse;
@@ -13,36 +15,49 @@ import com.roshka.sifen.internal.response.SifenObjectFactory;
 import com.roshka.sifen.internal.util.ResponseUtil;
 import com.roshka.sifen.internal.util.SifenExceptionUtil;
 import com.roshka.sifen.internal.util.SifenUtil;
-import org.w3c.dom.Node;
+import com.roshka.sifen.internal.xml.SchemaValidator;
+import com.roshka.sifen.internal.xml.StreamingXmlWriter;
+import com.roshka.sifen.internal.xml.XmlElement;
 
 import javax.xml.namespace.QName;
 import javax.xml.soap.*;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
+import java.io.ByteArrayOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
-import java.io.StringWriter;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 
 /**
  * Clase encargada de la petición de Recepción de Lote de Documentos Electrónicos.
  */
 public class ReqRecLoteDe extends BaseRequest {
+    private final static byte[] LOTE_XML_START = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><rLoteDE>".getBytes(StandardCharsets.UTF_8);
+    private final static byte[] LOTE_XML_END = "</rLoteDE>".getBytes(StandardCharsets.UTF_8);
+
     private List<DocumentoElectronico> DEList;
+    private RespuestaConsultaDE consultaDE;
     private final static Logger logger = Logger.getLogger(ReqRecLoteDe.class.toString());
 //    @Value("#{new Boolean('${useReceivedCDC}')}")
 //    public Boolean useReceivedCDC;
 //    private Boolean useReceivedCDC = true;
 
-    public ReqRecLoteDe(long dId, SifenConfig sifenConfig) {
-        super(dId, sifenConfig);
+    public ReqRecLoteDe(ClientCtx clientCtx) {
+        super(clientCtx);
     }
 
     @Override
@@ -56,49 +71,212 @@ public class ReqRecLoteDe extends BaseRequest {
             rEnvioLote.addChildElement("dId").setTextContent(String.valueOf(this.getdId()));
             SOAPElement xDE = rEnvioLote.addChildElement("xDE");
 
-            SOAPElement rLoteDE = SoapHelper.createSoapMessage().getSOAPBody().addChildElement("rLoteDE");
-            for (DocumentoElectronico DE : DEList) {
-                DE.setupDE(generationCtx, rLoteDE, this.getSifenConfig());
-            }
-//            FIN CAMBIO
-
-            // Obtenemos el XML
-            final StringWriter sw = new StringWriter();
-            try {
-                TransformerFactory.newInstance().newTransformer().transform(new DOMSource(rLoteDE), new StreamResult(sw));
-            } catch (TransformerException e) {
-                throw new RuntimeException(e);
+            // El XML del lote se comprime a un zip en memoria, codificado en Base64 a medida que se escribe
+            ByteArrayOutputStream rLoteDEBase64 = new ByteArrayOutputStream(DEList.size() * 8 * 1024);
+            try (OutputStream zip = this.openZip(rLoteDEBase64)) {
+                this.writeLote(generationCtx, zip);
             }
+            xDE.setTextContent(rLoteDEBase64.toString(StandardCharsets.US_ASCII.name()));
 
-            // Comprimimos a un archivo zip
-            byte[] zipFile = SifenUtil.compressXmlToZip(sw.toString());
+            return message;
+        } catch (SOAPException | IOException e) {
+            throw SifenExceptionUtil.requestPreparationError("Ocurrió un error al preparar el cuerpo de la petición SOAP", e);
+        }
+    }
 
-            // Convertimos el zip a Base64
-            String rLoteDEBase64 = new String(Base64.getEncoder().encode(zipFile), StandardCharsets.UTF_8);
-            xDE.setTextContent(rLoteDEBase64);
+    @Override
+    boolean writeSoapMessage(GenerationCtx generationCtx, OutputStream out) throws SifenException {
+        if (!this.getSifenConfig().isXmlGeneracionStreaming()) {
+            return false;
+        }
 
-            return message;
+        // Se escribe el mensaje completo en un único buffer: XML del lote -> zip -> Base64 -> contenido de xDE
+        try {
+            StreamingXmlWriter writer = new StreamingXmlWriter(out);
+            XmlElement soapBody = SoapHelper.startSoapMessage(writer);
+
+            XmlElement rEnvioLote = soapBody.addChildElement(new QName(Constants.SIFEN_NS_URI, "rEnvioLote"));
+            rEnvioLote.addChildElement("dId").setTextContent(String.valueOf(this.getdId()));
+            XmlElement xDE = rEnvioLote.addChildElement("xDE");
+            try (OutputStream zip = this.openZip(writer.openTextContent(xDE))) {
+                this.writeLote(generationCtx, zip);
+            }
+            writer.finish();
         } catch (SOAPException | IOException e) {
             throw SifenExceptionUtil.requestPreparationError("Ocurrió un error al preparar el cuerpo de la petición SOAP", e);
         }
+        return true;
+    }
+
+    private OutputStream openZip(OutputStream base64Output) throws IOException {
+        return SifenUtil.openXmlZip(Base64.getEncoder().wrap(base64Output), this.getSifenConfig().getLoteNivelCompresion());
+    }
+
+    /*
+     * Escribe el XML del lote. Con más de un DE y varios hilos de generación configurados, cada DE se genera y firma
+     * por separado en el pool de hilos del cliente, y los fragmentos se escriben en el orden original de la lista, por
+     * lo que el resultado es idéntico al de la generación secuencial.
+     *
+     * Si la validación de esquemas está habilitada, cada DE se valida por separado al terminar de generarse, en el
+     * mismo hilo de generación, antes de ser escrito en el lote.
+     */
+    private void writeLote(GenerationCtx generationCtx, OutputStream out) throws SOAPException, SifenException, IOException {
+        ExecutorService executor = DEList.size() > 1 ? this.getClientCtx().getGenerationExecutor() : null;
+        if (executor == null && this.getSifenConfig().isXmlValidacionEsquema()) {
+            out.write(LOTE_XML_START);
+            for (DocumentoElectronico DE : DEList) {
+                try {
+                    out.write(this.generateFragment(generationCtx, DE));
+                } catch (TransformerException e) {
+                    throw SifenExceptionUtil.requestPreparationError("Ocurrió un error al generar un DE del lote", e);
+                }
+            }
+            out.write(LOTE_XML_END);
+            return;
+        }
+        if (executor == null) {
+            if (this.getSifenConfig().isXmlGeneracionStreaming()) {
+                this.writeLoteXml(generationCtx, out);
+            } else {
+                this.setupLoteXml(generationCtx, out);
+            }
+            return;
+        }
+
+        List<Future<byte[]>> fragments = new ArrayList<>(DEList.size());
+        try {
+            for (DocumentoElectronico DE : DEList) {
+                fragments.add(executor.submit(() -> this.generateFragment(generationCtx, DE)));
+            }
+
+            out.write(LOTE_XML_START);
+            for (Future<byte[]> fragment : fragments) {
+                out.write(getFragment(fragment));
+            }
+            out.write(LOTE_XML_END);
+        } finally {
+            // Si algún DE falló, los restantes ya no son necesarios
+            for (Future<byte[]> fragment : fragments) {
+                fragment.cancel(false);
+            }
+        }
+    }
+
+    private void setupLoteXml(GenerationCtx generationCtx, OutputStream out) throws SOAPException, SifenException {
+        SOAPElement rLoteDE = SoapHelper.createSoapMessage().getSOAPBody().addChildElement("rLoteDE");
+        for (DocumentoElectronico DE : DEList) {
+            DE.setupDE(generationCtx, rLoteDE, this.getSifenConfig());
+        }
+
+        try {
+            SifenUtil.newTransformer().transform(new DOMSource(rLoteDE), new StreamResult(out));
+        } catch (TransformerException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /*
+     * Genera el mismo XML que setupLoteXml, escribiendo cada DE a medida que se genera.
+     */
+    private void writeLoteXml(GenerationCtx generationCtx, OutputStream out) throws SOAPException, SifenException, IOException {
+        StreamingXmlWriter writer = new StreamingXmlWriter(out);
+        writer.writeXmlDeclaration(false);
+        XmlElement rLoteDE = writer.createRootElement("rLoteDE");
+        for (DocumentoElectronico DE : DEList) {
+            DE.setupDE(generationCtx, rLoteDE, this.getSifenConfig());
+        }
+        writer.finish();
+    }
+
+    /*
+     * Genera y firma un DE, retornando su elemento rDE tal como se escribe dentro de rLoteDE. Si la configuración lo
+     * habilita, el elemento se valida contra el esquema de Sifen.
+     */
+    private byte[] generateFragment(GenerationCtx generationCtx, DocumentoElectronico DE) throws SOAPException, SifenException,
+            IOException, TransformerException {
+        ByteArrayOutputStream fragment = new ByteArrayOutputStream(16 * 1024);
+        if (this.getSifenConfig().isXmlGeneracionStreaming()) {
+            StreamingXmlWriter writer = new StreamingXmlWriter(fragment);
+            DE.setupDE(generationCtx, writer.createFragmentRoot("rLoteDE"), this.getSifenConfig());
+            writer.finish();
+        } else {
+            SOAPElement rLoteDE = SoapHelper.createSoapMessage().getSOAPBody().addChildElement("rLoteDE");
+            DE.setupDE(generationCtx, rLoteDE, this.getSifenConfig());
+
+            Transformer transformer = SifenUtil.newTransformer();
+            transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+            transformer.transform(new DOMSource(rLoteDE.getFirstChild()), new StreamResult(fragment));
+        }
+
+        byte[] rDE = fragment.toByteArray();
+        if (this.getSifenConfig().isXmlValidacionEsquema()) {
+            SchemaValidator.check(rDE, 0, rDE.length);
+        }
+        return rDE;
+    }
+
+    private static byte[] getFragment(Future<byte[]> fragment) throws SifenException {
+        try {
+            return fragment.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw SifenExceptionUtil.requestPreparationError("Se interrumpió la generación del lote", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SifenException) {
+                throw (SifenException) e.getCause();
+            }
+            throw SifenExceptionUtil.requestPreparationError("Ocurrió un error al generar un DE del lote", e.getCause());
+        }
+    }
+
+    @Override
+    SifenConfig.TipoOperacion getOperation() {
+        return SifenConfig.TipoOperacion.RECEPCION_LOTE;
+    }
+
+    /*
+     * El número de lote (dProtConsLote) solo llega en la respuesta perdida, por lo que no se puede consultar el lote:
+     * se consultan sus DEs por CDC, y basta con que Sifen tenga registrado uno para que el lote haya sido recibido.
+     */
+    @Override
+    SoapHelper.SentRequestCheck getSentRequestCheck(GenerationCtx generationCtx) {
+        return () -> {
+            for (DocumentoElectronico DE : DEList) {
+                if (DE.getId() == null || DE.getId().isEmpty()) {
+                    throw SifenExceptionUtil.fieldNotFound("No se pudo obtener el CDC de un DE del lote enviado");
+                }
+
+                this.consultaDE = ReqConsDe.findReceived(this.getClientCtx(), generationCtx, DE.getId());
+                if (this.consultaDE != null) {
+                    return true;
+                }
+            }
+            return false;
+        };
     }
 
     @Override
     BaseResponse processResponse(SOAPResponse soapResponse) throws SifenException {
-        Node rResEnviLoteDe = null;
+        if (soapResponse.isPreviouslyReceived()) {
+            RespuestaRecepcionLoteDE respuestaRecepcionLoteDE = new RespuestaRecepcionLoteDE();
+            respuestaRecepcionLoteDE.setConsultaDE(this.consultaDE);
+            respuestaRecepcionLoteDE.setCodigoEstado(this.consultaDE.getCodigoEstado());
+            return respuestaRecepcionLoteDE;
+        }
+
+        XMLStreamReader rResEnviLoteDe = null;
         try {
-            rResEnviLoteDe = ResponseUtil.getMainNode(soapResponse.getSoapResponse(), "rResEnviLoteDe");
+            rResEnviLoteDe = ResponseUtil.getMainElement(soapResponse.getSoapResponse(), "rResEnviLoteDe");
         } catch (SifenException e) {
             logger.warning(e.getMessage());
         }
 
         RespuestaRecepcionLoteDE respuestaRecepcionLoteDE = new RespuestaRecepcionLoteDE();
         if (rResEnviLoteDe != null) {
-            respuestaRecepcionLoteDE = SifenObjectFactory.getFromNode(rResEnviLoteDe, RespuestaRecepcionLoteDE.class);
+            respuestaRecepcionLoteDE = SifenObjectFactory.getFromStream(rResEnviLoteDe, RespuestaRecepcionLoteDE.class);
         }
 
         respuestaRecepcionLoteDE.setCodigoEstado(soapResponse.getStatus());
-        respuestaRecepcionLoteDE.setRespuestaBruta(new String(soapResponse.getRawData(), StandardCharsets.UTF_8));
         return respuestaRecepcionLoteDE;
     }
 
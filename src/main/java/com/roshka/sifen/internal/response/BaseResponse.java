@@ -2,7 +2,9 @@ package com.roshka.sifen.internal.response;
 
 import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.internal.util.ResponseUtil;
-import org.w3c.dom.Node;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Clase abstracta heredada por las clases de respuestas a las peticiones.
@@ -10,13 +12,16 @@ import org.w3c.dom.Node;
 public abstract class BaseResponse extends SifenObjectBase {
     private int codigoEstado;
     private String respuestaBruta;
+    private ByteBuffer respuestaBrutaBytes;
 
     private String dCodRes;
     private String dMsgRes;
     private String requestSent;
+    private int tamanoPeticion;
+    private int intentos = 1;
 
     @Override
-    public void setValueFromChildNode(Node value) throws SifenException {
+    public void setValueFromChildNode(ChildNode value) throws SifenException {
         if (value.getLocalName().equals("dCodRes")) {
             dCodRes = ResponseUtil.getTextValue(value);
         } else if (value.getLocalName().equals("dMsgRes")) {
@@ -40,12 +45,36 @@ public abstract class BaseResponse extends SifenObjectBase {
         this.codigoEstado = codigoEstado;
     }
 
+    /**
+     * @return XML recibido de Sifen, decodificado en el primer llamado, o <strong>null</strong> si no fue capturado
+     * (ver {@link com.roshka.sifen.core.SifenConfig#isCapturaRespuesta()}).
+     */
     public String getRespuestaBruta() {
-        return respuestaBruta;
+        String respuesta = respuestaBruta;
+        ByteBuffer bytes = respuestaBrutaBytes;
+        if (respuesta == null && bytes != null) {
+            respuesta = StandardCharsets.UTF_8.decode(bytes.duplicate()).toString();
+            respuestaBruta = respuesta;
+        }
+        return respuesta;
     }
 
     public void setRespuestaBruta(String respuestaBruta) {
         this.respuestaBruta = respuestaBruta;
+        this.respuestaBrutaBytes = null;
+    }
+
+    /**
+     * @return XML recibido de Sifen, en UTF-8 y sin decodificar, como vista de solo lectura, o <strong>null</strong> si
+     * no fue capturado o si la respuesta fue asignada con {@link #setRespuestaBruta(String)}.
+     */
+    public ByteBuffer getRespuestaBrutaBytes() {
+        return respuestaBrutaBytes != null ? respuestaBrutaBytes.asReadOnlyBuffer() : null;
+    }
+
+    public void setRespuestaBrutaBytes(ByteBuffer respuestaBrutaBytes) {
+        this.respuestaBruta = null;
+        this.respuestaBrutaBytes = respuestaBrutaBytes;
     }
 
     public void setdCodRes(String dCodRes) {
@@ -63,4 +92,30 @@ public abstract class BaseResponse extends SifenObjectBase {
     public void setRequestSent(String requestSent) {
         this.requestSent = requestSent;
     }
-}
\ No newline at end of file
+
+    /**
+     * @return Tamaño, en bytes, del mensaje SOAP enviado a Sifen. Se registra siempre, aun si la captura de la petición
+     * está deshabilitada.
+     */
+    public int getTamanoPeticion() {
+        return tamanoPeticion;
+    }
+
+    public void setTamanoPeticion(int tamanoPeticion) {
+        this.tamanoPeticion = tamanoPeticion;
+    }
+
+    /**
+     * @return Cantidad de veces que se envió la petición hasta obtener la respuesta (ver
+     * {@link com.roshka.sifen.core.beans.PoliticaReintentos}). En la recepción de un DE o de un lote, si se perdió la
+     * respuesta de un intento, antes de reenviarlo se consulta por CDC si Sifen ya lo tenía registrado (ver
+     * {@link com.roshka.sifen.core.beans.response.RespuestaRecepcionDE#getConsultaDE()}).
+     */
+    public int getIntentos() {
+        return intentos;
+    }
+
+    public void setIntentos(int intentos) {
+        this.intentos = intentos;
+    }
+}
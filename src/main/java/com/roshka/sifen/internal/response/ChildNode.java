@@ -0,0 +1,39 @@
+package com.roshka.sifen.internal.response;
+
+import com.roshka.sifen.core.exceptions.SifenException;
+
+/**
+ * Elemento XML entregado a {@link SifenObjectBase#setValueFromChildNode(ChildNode)}. Puede provenir de un árbol DOM
+ * ({@link DomChildNode}) o leerse directamente de un stream ({@link StreamingNode}); en el segundo caso, su contenido
+ * solo puede leerse durante ese llamado, una única vez y hacia adelante.
+ */
+public interface ChildNode {
+    /**
+     * @return Nombre local del elemento.
+     */
+    String getLocalName();
+
+    /**
+     * @param name Nombre local del atributo.
+     * @return Valor del atributo, o una cadena vacía si no existe.
+     */
+    String getAttribute(String name);
+
+    /**
+     * @return El texto del elemento, anterior a su primer hijo, o <strong>null</strong> si no tiene.
+     */
+    String getText();
+
+    /**
+     * @return Los elementos hijos, omitiendo los nodos de texto y comentarios. Solo pueden recorrerse una vez.
+     */
+    Iterable<ChildNode> getChildElements();
+
+    /**
+     * Entrega cada elemento hijo al objeto recibido como argumento.
+     *
+     * @param object Objeto a completar.
+     * @throws SifenException Si algún valor no pudo ser leído.
+     */
+    void readChildren(SifenObjectBase object) throws SifenException;
+}
@@ -0,0 +1,62 @@
+package com.roshka.sifen.internal.response;
+
+import com.roshka.sifen.core.exceptions.SifenException;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Elemento de un árbol DOM.
+ */
+public class DomChildNode implements ChildNode {
+    private final Node node;
+
+    /**
+     * @param node Elemento DOM.
+     */
+    public DomChildNode(Node node) {
+        this.node = node;
+    }
+
+    @Override
+    public String getLocalName() {
+        return node.getLocalName();
+    }
+
+    @Override
+    public String getAttribute(String name) {
+        return node instanceof Element ? ((Element) node).getAttribute(name) : "";
+    }
+
+    @Override
+    public String getText() {
+        Node firstChild = node.getFirstChild();
+        if (firstChild == null || firstChild.getNodeType() != Node.TEXT_NODE) {
+            return null;
+        }
+        return firstChild.getTextContent();
+    }
+
+    @Override
+    public Iterable<ChildNode> getChildElements() {
+        NodeList childNodes = node.getChildNodes();
+        List<ChildNode> elements = new ArrayList<>(childNodes.getLength());
+        for (int i = 0; i < childNodes.getLength(); i++) {
+            Node child = childNodes.item(i);
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                elements.add(new DomChildNode(child));
+            }
+        }
+        return elements;
+    }
+
+    @Override
+    public void readChildren(SifenObjectBase object) throws SifenException {
+        for (ChildNode child : getChildElements()) {
+            object.setValueFromChildNode(child);
+        }
+    }
+}
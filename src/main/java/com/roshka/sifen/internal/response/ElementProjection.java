@@ -0,0 +1,73 @@
+package com.roshka.sifen.internal.response;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Árbol de los elementos a leer de un XML, construido a partir de rutas de nombres locales separados por "/". Un
+ * elemento incluido en una ruta se lee por completo; los ancestros de una ruta solo se recorren hasta encontrarla, y el
+ * resto de los elementos se descarta sin ser procesado.
+ */
+public class ElementProjection {
+    /**
+     * Proyección de un elemento que se lee por completo.
+     */
+    public final static ElementProjection ALL = new ElementProjection();
+
+    private final Map<String, ElementProjection> children = new LinkedHashMap<>();
+
+    private ElementProjection() {
+    }
+
+    /**
+     * @param paths Rutas de los elementos a leer, relativas al elemento raíz; por ejemplo, "gDatGralOpe/gEmis".
+     * @return La proyección que incluye las rutas indicadas.
+     * @throws IllegalArgumentException Si no se indica ninguna ruta, o si alguna ruta es vacía o tiene nombres vacíos.
+     */
+    public static ElementProjection of(String... paths) {
+        if (paths == null || paths.length == 0) {
+            throw new IllegalArgumentException("Se debe indicar al menos una ruta a leer.");
+        }
+
+        ElementProjection root = new ElementProjection();
+        for (String path : paths) {
+            if (path == null || path.isEmpty()) {
+                throw new IllegalArgumentException("Las rutas a leer no deben ser vacías.");
+            }
+
+            ElementProjection current = root;
+            String[] names = path.split("/", -1);
+            for (int i = 0; i < names.length && current != ALL; i++) {
+                if (names[i].isEmpty()) {
+                    throw new IllegalArgumentException("La ruta " + path + " no es válida.");
+                }
+
+                ElementProjection child = current.children.get(names[i]);
+                if (i == names.length - 1) {
+                    // El elemento se lee por completo, aun si otras rutas incluían solo una parte
+                    current.children.put(names[i], ALL);
+                } else if (child == null) {
+                    child = new ElementProjection();
+                    current.children.put(names[i], child);
+                }
+                current = child;
+            }
+        }
+        return root;
+    }
+
+    /**
+     * @param localName Nombre local del elemento hijo.
+     * @return La proyección del hijo, {@link #ALL} si se lee por completo, o <strong>null</strong> si se descarta.
+     */
+    public ElementProjection getChild(String localName) {
+        return this == ALL ? ALL : children.get(localName);
+    }
+
+    /**
+     * @return Cantidad de hijos distintos incluidos en la proyección.
+     */
+    int getChildCount() {
+        return children.size();
+    }
+}
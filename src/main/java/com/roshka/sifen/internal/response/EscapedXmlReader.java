@@ -0,0 +1,169 @@
+package com.roshka.sifen.internal.response;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reader del XML escapado dentro del texto de un elemento, como el contenido de algunas respuestas de Sifen
+ * ({@code &lt;rDE&gt;...}). Entrega el texto ya decodificado por el {@link XMLStreamReader} a medida que se lo lee,
+ * sin copiarlo a una cadena, para procesarlo con un segundo reader en la misma pasada.
+ * <p>
+ * El contenido se entrega dentro de un elemento raíz sintético, ya que puede contener varios elementos, que declara el
+ * espacio de nombres del elemento contenedor, ya que el contenido suele utilizar su prefijo; se omite además su
+ * declaración XML. La lectura finaliza en el primer evento que no es texto, que queda disponible en
+ * {@link #getStopEvent()}.
+ */
+class EscapedXmlReader extends Reader {
+    private final static char[] SUFFIX = "</escaped>".toCharArray();
+    private final static char[] XML_DECLARATION = "<?xml".toCharArray();
+
+    private final XMLStreamReader reader;
+    private final char[] prefix;
+    // Posición en el texto del evento actual, y su largo
+    private int offset;
+    private int length;
+    // Posición en PREFIX, en el texto, o en SUFFIX
+    private int prefixPos = 0;
+    private boolean textEnded = false;
+    private int suffixPos = 0;
+    private int stopEvent = -1;
+
+    /**
+     * @param reader       Reader posicionado en un evento de texto que comienza con un elemento escapado (ver
+     *                     {@link #startsWithMarkup(XMLStreamReader)}).
+     * @param prefix       Prefijo del elemento contenedor, o <strong>null</strong>.
+     * @param namespaceURI Espacio de nombres del elemento contenedor, o <strong>null</strong>.
+     */
+    EscapedXmlReader(XMLStreamReader reader, String prefix, String namespaceURI) {
+        this.reader = reader;
+        if (namespaceURI == null || namespaceURI.isEmpty()) {
+            this.prefix = "<escaped>".toCharArray();
+        } else {
+            String attribute = prefix == null || prefix.isEmpty() ? "xmlns" : "xmlns:" + prefix;
+            this.prefix = ("<escaped " + attribute + "=\"" + namespaceURI.replace("&", "&amp;").replace("\"", "&quot;")
+                    + "\">").toCharArray();
+        }
+        this.length = reader.getTextLength();
+        this.offset = skipXmlDeclaration(reader.getTextCharacters(), reader.getTextStart(), length);
+    }
+
+    /**
+     * @param reader Reader posicionado en un evento de texto.
+     * @return Si el texto, sin los espacios iniciales, comienza con un elemento o una declaración XML escapados.
+     */
+    static boolean startsWithMarkup(XMLStreamReader reader) {
+        char[] chars = reader.getTextCharacters();
+        int start = reader.getTextStart();
+        int end = start + reader.getTextLength();
+        for (int i = start; i < end; i++) {
+            if (!Character.isWhitespace(chars[i])) {
+                return chars[i] == '<' && i + 1 < end && (Character.isLetter(chars[i + 1]) || chars[i + 1] == '?'
+                        || chars[i + 1] == '_');
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Posición, relativa al inicio del texto, posterior a la declaración XML inicial, si existe.
+     */
+    private static int skipXmlDeclaration(char[] chars, int start, int length) {
+        int i = 0;
+        while (i < length && Character.isWhitespace(chars[start + i])) {
+            i++;
+        }
+        if (length - i < XML_DECLARATION.length) {
+            return i;
+        }
+        for (int j = 0; j < XML_DECLARATION.length; j++) {
+            if (chars[start + i + j] != XML_DECLARATION[j]) {
+                return i;
+            }
+        }
+        for (int j = i + XML_DECLARATION.length; j < length - 1; j++) {
+            if (chars[start + j] == '?' && chars[start + j + 1] == '>') {
+                return j + 2;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * @return El evento del reader en el que finalizó el texto, o -1 si aún no se lo leyó por completo.
+     */
+    int getStopEvent() {
+        return stopEvent;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        if (prefixPos < prefix.length) {
+            int n = Math.min(len, prefix.length - prefixPos);
+            System.arraycopy(prefix, prefixPos, cbuf, off, n);
+            prefixPos += n;
+            return n;
+        }
+
+        while (!textEnded) {
+            if (offset < length) {
+                try {
+                    int n = reader.getTextCharacters(offset, cbuf, off, Math.min(len, length - offset));
+                    offset += n;
+                    return n;
+                } catch (XMLStreamException e) {
+                    throw new IOException(e.getMessage(), e);
+                }
+            }
+            nextTextEvent();
+        }
+
+        if (suffixPos < SUFFIX.length) {
+            int n = Math.min(len, SUFFIX.length - suffixPos);
+            System.arraycopy(SUFFIX, suffixPos, cbuf, off, n);
+            suffixPos += n;
+            return n;
+        }
+        return -1;
+    }
+
+    private void nextTextEvent() throws IOException {
+        int event;
+        try {
+            event = reader.next();
+        } catch (XMLStreamException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+
+        offset = 0;
+        if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                || event == XMLStreamConstants.SPACE) {
+            length = reader.getTextLength();
+        } else if (event == XMLStreamConstants.COMMENT || event == XMLStreamConstants.PROCESSING_INSTRUCTION) {
+            length = 0;
+        } else {
+            length = 0;
+            textEnded = true;
+            stopEvent = event;
+        }
+    }
+
+    /**
+     * Descarta lo que no se haya leído del texto, dejando el reader en el evento en el que finaliza.
+     */
+    void skip() throws IOException {
+        while (!textEnded) {
+            nextTextEvent();
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -3,21 +3,103 @@ package com.roshka.sifen.internal.response;
 import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.internal.util.SifenExceptionUtil;
 import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
 import java.util.logging.Logger;
 
 /**
- * Clase encargada de leer los Nodos XML y sus hijos y generar las respuestas formateadas.
+ * Clase encargada de leer los Nodos XML y sus hijos y generar las respuestas formateadas. Los nodos pueden provenir
+ * de un árbol DOM o de un {@link XMLStreamReader} (ver {@link #getFromStream(XMLStreamReader, Class)}), y se entregan
+ * a los objetos como {@link ChildNode}.
  */
 public class SifenObjectFactory {
     private final static Logger logger = Logger.getLogger(SifenObjectFactory.class.toString());
 
     public static <T extends SifenObjectBase> T getFromNode(Node mainNode, Class<T> sifenObjectBase) throws SifenException {
+        return getFromNode(new DomChildNode(mainNode), sifenObjectBase);
+    }
+
+    public static <T extends SifenObjectBase> void getFromNode(Node mainNode, T object) throws SifenException {
+        getFromNode(new DomChildNode(mainNode), object);
+    }
+
+    public static <T extends SifenObjectBase> T getFromNode(ChildNode mainNode, Class<T> sifenObjectBase) throws SifenException {
+        T object = newInstance(sifenObjectBase);
+        getFromNode(mainNode, object);
+        return object;
+    }
+
+    public static <T extends SifenObjectBase> void getFromNode(ChildNode mainNode, T object) throws SifenException {
+        mainNode.readChildren(object);
+    }
+
+    /**
+     * Genera el objeto leyendo el elemento directamente del stream, sin construir el árbol DOM. Cada hijo se entrega
+     * a {@link SifenObjectBase#setValueFromChildNode(ChildNode)} como un {@link StreamingNode}, y los hijos que el
+     * objeto no lee (por ejemplo, la firma) se descartan sin materializarse.
+     *
+     * @param reader          Reader posicionado en el inicio del elemento. Al finalizar, queda en el fin del elemento.
+     * @param sifenObjectBase Clase del objeto a generar.
+     * @return El objeto generado.
+     * @throws SifenException Si el XML tiene un formato inválido, o si algún valor no pudo ser leído.
+     */
+    public static <T extends SifenObjectBase> T getFromStream(XMLStreamReader reader, Class<T> sifenObjectBase) throws SifenException {
+        T object = newInstance(sifenObjectBase);
+        getFromStream(reader, object);
+        return object;
+    }
+
+    /**
+     * Completa el objeto leyendo el elemento directamente del stream, sin construir el árbol DOM.
+     *
+     * @param reader Reader posicionado en el inicio del elemento. Al finalizar, queda en el fin del elemento.
+     * @param object Objeto a completar.
+     * @throws SifenException Si el XML tiene un formato inválido, o si algún valor no pudo ser leído.
+     * @see #getFromStream(XMLStreamReader, Class)
+     */
+    public static <T extends SifenObjectBase> void getFromStream(XMLStreamReader reader, T object) throws SifenException {
+        getFromStream(reader, object, ElementProjection.ALL);
+    }
+
+    /**
+     * Completa el objeto leyendo del stream solo los elementos incluidos en la proyección. El resto de los elementos se
+     * descarta sin ser procesado, y la lectura finaliza en cuanto se encuentran todos los elementos proyectados.
+     *
+     * @param reader     Reader posicionado en el inicio del elemento. Al finalizar, puede quedar antes del fin del
+     *                   elemento.
+     * @param object     Objeto a completar.
+     * @param projection Elementos a leer, relativos al elemento inicial.
+     * @throws SifenException Si el XML tiene un formato inválido, o si algún valor no pudo ser leído.
+     */
+    public static <T extends SifenObjectBase> void getFromStream(XMLStreamReader reader, T object, ElementProjection projection) throws SifenException {
+        if (reader.getEventType() != XMLStreamConstants.START_ELEMENT) {
+            throw SifenExceptionUtil.xmlParsingError("El stream no se encuentra en el inicio de un elemento XML.");
+        }
+
+        try {
+            StreamingNode node = new StreamingNode(reader);
+            node.setProjection(projection, true);
+            getFromNode(node, object);
+        } catch (StreamingNode.ReadException e) {
+            throw SifenExceptionUtil.xmlParsingError("Se produjo un error al leer el XML: " + e.getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Retorna los elementos hijos del nodo, ya sea DOM o leído en streaming. En el segundo caso, los hijos se leen a
+     * medida que se recorren, y solo pueden recorrerse una vez.
+     *
+     * @param node Nodo padre.
+     * @return Los elementos hijos, omitiendo los nodos de texto y comentarios.
+     */
+    public static Iterable<ChildNode> getChildElements(ChildNode node) {
+        return node.getChildElements();
+    }
+
+    private static <T extends SifenObjectBase> T newInstance(Class<T> sifenObjectBase) throws SifenException {
         try {
-            T object = sifenObjectBase.newInstance();
-            getFromNode(mainNode, object);
-            return object;
+            return sifenObjectBase.newInstance();
         } catch (InstantiationException | IllegalAccessException e) {
             logger.throwing(SifenObjectFactory.class.getCanonicalName(), "getFromNode", e);
             throw SifenExceptionUtil.unexpectedError(
@@ -25,12 +107,4 @@ public class SifenObjectFactory {
             );
         }
     }
-
-    public static <T extends SifenObjectBase> void getFromNode(Node mainNode, T object) throws SifenException {
-        NodeList childNodes = mainNode.getChildNodes();
-        for (int i = 0; i < childNodes.getLength(); i++) {
-            Node node = childNodes.item(i);
-            object.setValueFromChildNode(node);
-        }
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,341 @@
+package com.roshka.sifen.internal.response;
+
+import com.roshka.sifen.core.exceptions.SifenException;
+import com.roshka.sifen.internal.util.ResponseUtil;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Elemento XML leído de un {@link XMLStreamReader}, sin construir el árbol DOM.
+ * <p>
+ * Solo es válido durante el llamado a {@link SifenObjectBase#setValueFromChildNode(ChildNode)} que lo recibe: su
+ * contenido se lee del stream a medida que se lo consulta, una única vez y hacia adelante.
+ * <p>
+ * Si el texto de un elemento contiene XML escapado, como en algunas respuestas de Sifen, sus elementos se recorren
+ * como hijos del elemento, decodificándolos en la misma pasada (ver {@link EscapedXmlReader}).
+ */
+public class StreamingNode implements ChildNode {
+    private final XMLStreamReader reader;
+    private final String namespaceURI;
+    private final String localName;
+    private final String prefix;
+    // Pares nombre local / valor, o null si el elemento no tiene atributos
+    private final String[] attributes;
+
+    // Hijos a leer, o null para leerlos todos
+    private ElementProjection projection;
+    // Si es el elemento raíz de la lectura, que puede finalizar sin llegar a su fin
+    private boolean root = false;
+
+    // XML escapado en el texto del elemento que se está recorriendo como sus hijos, o null
+    private EscapedXmlReader escaped;
+    private XMLStreamReader escapedReader;
+    // Evento del reader en el que finalizó el XML escapado, aún no procesado
+    private int pendingEvent = -1;
+
+    // Si el reader ya se encuentra en el fin del elemento
+    private boolean consumed = false;
+    private boolean textRead = false;
+    private String text;
+
+    /**
+     * @param reader Reader posicionado en el inicio (START_ELEMENT) del elemento.
+     */
+    StreamingNode(XMLStreamReader reader) {
+        this.reader = reader;
+        this.namespaceURI = reader.getNamespaceURI();
+        this.localName = reader.getLocalName();
+        this.prefix = reader.getPrefix();
+
+        int count = reader.getAttributeCount();
+        if (count > 0) {
+            this.attributes = new String[count * 2];
+            for (int i = 0; i < count; i++) {
+                this.attributes[i * 2] = reader.getAttributeLocalName(i);
+                this.attributes[i * 2 + 1] = reader.getAttributeValue(i);
+            }
+        } else {
+            this.attributes = null;
+        }
+    }
+
+    @Override
+    public String getLocalName() {
+        return localName;
+    }
+
+    @Override
+    public String getAttribute(String name) {
+        if (attributes != null) {
+            for (int i = 0; i < attributes.length; i += 2) {
+                if (attributes[i].equals(name)) {
+                    return attributes[i + 1];
+                }
+            }
+        }
+        return "";
+    }
+
+    /**
+     * Lee el texto del elemento, equivalente al primer nodo de texto de su versión DOM. Un texto compuesto solo por
+     * espacios se considera vacío, como en el XML sin espacios entre etiquetas que se utiliza con DOM.
+     *
+     * @return El texto del elemento, o <strong>null</strong> si no tiene o si el elemento ya fue recorrido.
+     */
+    @Override
+    public String getText() {
+        if (!textRead) {
+            textRead = true;
+            if (!consumed) {
+                text = readText();
+            }
+        }
+        return text;
+    }
+
+    private String readText() {
+        String first = null;
+        StringBuilder builder = null;
+        while (true) {
+            int event = next();
+            if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                    || event == XMLStreamConstants.SPACE) {
+                if (first == null) {
+                    first = reader.getText();
+                } else {
+                    if (builder == null) {
+                        builder = new StringBuilder(first);
+                    }
+                    builder.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                }
+            } else if (event == XMLStreamConstants.START_ELEMENT) {
+                // Solo se considera el texto anterior al primer hijo; el resto del elemento se descarta
+                skipElement(1);
+                break;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                consumed = true;
+                break;
+            }
+        }
+
+        String value = builder != null ? builder.toString() : first;
+        return value == null || isBlank(value) ? null : value;
+    }
+
+    /**
+     * Limita la lectura a los hijos incluidos en la proyección.
+     *
+     * @param projection Proyección del elemento, o <strong>null</strong> para leerlo por completo.
+     * @param root       Si es el elemento raíz de la lectura. En ese caso, la lectura finaliza al encontrar todos los
+     *                   hijos proyectados, sin llegar al fin del elemento.
+     */
+    void setProjection(ElementProjection projection, boolean root) {
+        this.projection = projection == ElementProjection.ALL ? null : projection;
+        this.root = root;
+    }
+
+    /**
+     * Recorre los hijos del elemento, entregando cada uno al objeto. Con una proyección, los hijos no incluidos se
+     * descartan; una vez encontrados todos los incluidos, el primer hijo no incluido finaliza la lectura, ya que en
+     * los esquemas de Sifen los elementos repetidos son siempre contiguos.
+     */
+    @Override
+    public void readChildren(SifenObjectBase object) throws SifenException {
+        int pending = projection != null ? projection.getChildCount() : -1;
+        String last = null;
+        StreamingNode child;
+        while ((child = nextChild()) != null) {
+            if (projection != null) {
+                ElementProjection childProjection = projection.getChild(child.localName);
+                if (childProjection == null) {
+                    if (pending == 0) {
+                        if (!root) {
+                            child.skip();
+                            this.skip();
+                        }
+                        return;
+                    }
+                    child.skip();
+                    continue;
+                }
+                if (!child.localName.equals(last)) {
+                    pending--;
+                    last = child.localName;
+                }
+                child.setProjection(childProjection, false);
+            }
+
+            object.setValueFromChildNode(child);
+            child.skip();
+        }
+    }
+
+    /**
+     * @return Los hijos del elemento, leídos a medida que se recorren. Al avanzar, se descarta lo que no se haya leído
+     * del hijo anterior.
+     */
+    @Override
+    public Iterable<ChildNode> getChildElements() {
+        return this::childIterator;
+    }
+
+    private Iterator<ChildNode> childIterator() {
+        return new Iterator<ChildNode>() {
+            private StreamingNode current;
+            private StreamingNode next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null && !consumed) {
+                    if (current != null) {
+                        current.skip();
+                    }
+                    next = nextChild();
+                }
+                return next != null;
+            }
+
+            @Override
+            public ChildNode next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                current = next;
+                next = null;
+                return current;
+            }
+        };
+    }
+
+    /*
+     * Avanza hasta el siguiente hijo, o hasta el fin del elemento.
+     */
+    private StreamingNode nextChild() {
+        while (!consumed) {
+            if (escaped != null) {
+                StreamingNode child = nextEscapedChild();
+                if (child != null) {
+                    return child;
+                }
+                continue;
+            }
+
+            int event = next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                return new StreamingNode(reader);
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                consumed = true;
+            } else if (event == XMLStreamConstants.CHARACTERS && EscapedXmlReader.startsWithMarkup(reader)) {
+                escaped = new EscapedXmlReader(reader, prefix, namespaceURI);
+                try {
+                    escapedReader = ResponseUtil.createXMLStreamReader(escaped);
+                    escapedReader.nextTag();
+                } catch (SifenException | XMLStreamException e) {
+                    throw new ReadException(e);
+                }
+            }
+        }
+        return null;
+    }
+
+    /*
+     * Avanza hasta el siguiente elemento del XML escapado, o hasta su fin. Los elementos anteriores ya fueron
+     * recorridos por completo, por lo que el reader se encuentra en el primer nivel.
+     */
+    private StreamingNode nextEscapedChild() {
+        try {
+            while (true) {
+                int event = escapedReader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    return new StreamingNode(escapedReader);
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    break;
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new ReadException(e);
+        }
+        closeEscaped();
+        return null;
+    }
+
+    /*
+     * Finaliza la lectura del XML escapado; el evento en el que terminó su texto se procesa a continuación.
+     */
+    private void closeEscaped() {
+        try {
+            escapedReader.close();
+            escaped.skip();
+        } catch (XMLStreamException | IOException e) {
+            throw new ReadException(e);
+        }
+        pendingEvent = escaped.getStopEvent();
+        escaped = null;
+        escapedReader = null;
+    }
+
+    /**
+     * Descarta lo que no se haya leído del elemento, dejando el reader en su fin.
+     */
+    void skip() {
+        if (!consumed) {
+            if (escaped != null) {
+                closeEscaped();
+            }
+            skipElement(0);
+        }
+    }
+
+    private void skipElement(int depth) {
+        while (true) {
+            int event = next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                if (depth == 0) {
+                    break;
+                }
+                depth--;
+            }
+        }
+        consumed = true;
+    }
+
+    private int next() {
+        if (pendingEvent != -1) {
+            int event = pendingEvent;
+            pendingEvent = -1;
+            return event;
+        }
+        try {
+            return reader.next();
+        } catch (XMLStreamException e) {
+            throw new ReadException(e);
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isWhitespace(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Error de lectura del stream, propagado sin verificación a través del texto y del recorrido de los hijos.
+     */
+    static class ReadException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ReadException(Exception cause) {
+            super(cause.getMessage(), cause);
+        }
+    }
+}
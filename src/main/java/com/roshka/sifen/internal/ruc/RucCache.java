@@ -0,0 +1,230 @@
+package com.roshka.sifen.internal.ruc;
+
+import com.roshka.sifen.core.beans.EstadisticasCacheRUC;
+import com.roshka.sifen.core.beans.response.RespuestaConsultaRUC;
+import com.roshka.sifen.core.exceptions.SifenException;
+import com.roshka.sifen.internal.async.SifenCallable;
+import com.roshka.sifen.internal.util.SifenExceptionUtil;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché de las consultas de RUC de un cliente de Sifen, con un tamaño máximo y un tiempo de vida por consulta.
+ * <p>
+ * Se conservan las consultas de RUCs encontrados (código 0502) y, por un tiempo menor, las de RUCs inexistentes (código
+ * 0500); los demás resultados y los errores no se conservan. Al alcanzar el tamaño máximo, se descartan las consultas
+ * menos utilizadas recientemente. Si varios hilos consultan simultáneamente un mismo RUC que no se encuentra en la
+ * caché, solo uno realiza la petición a Sifen y los demás esperan su resultado.
+ * <p>
+ * Las respuestas retornadas desde la caché son compartidas, y no deben ser modificadas.
+ */
+public class RucCache {
+    private final static String RUC_ENCONTRADO = "0502";
+    private final static String RUC_INEXISTENTE = "0500";
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+
+    // Ordenado por acceso: la primera entrada es la menos utilizada recientemente
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<RespuestaConsultaRUC>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong negativeHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong sharedLoads = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param maxEntries  Cantidad máxima de RUCs conservados.
+     * @param ttl         Tiempo de vida, en milisegundos, de la consulta de un RUC encontrado.
+     * @param negativeTtl Tiempo de vida, en milisegundos, de la consulta de un RUC inexistente.
+     */
+    public RucCache(int maxEntries, long ttl, long negativeTtl) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("El tamaño de la caché de consultas de RUC debe ser mayor a cero.");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttl);
+        this.negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(negativeTtl);
+    }
+
+    /**
+     * Obtiene la consulta de un RUC desde la caché o, si no se encuentra o expiró, la realiza y la conserva.
+     *
+     * @param ruc    RUC consultado, sin el DV.
+     * @param loader Petición a Sifen a realizar si el RUC no se encuentra en la caché.
+     * @return La respuesta a la consulta.
+     * @throws SifenException Si la consulta no se encontraba en la caché y la petición falló. Los hilos que esperaban
+     *                        la misma consulta reciben la misma excepción.
+     */
+    public RespuestaConsultaRUC get(String ruc, SifenCallable<RespuestaConsultaRUC> loader) throws SifenException {
+        String key = normalize(ruc);
+        RespuestaConsultaRUC cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+        misses.incrementAndGet();
+
+        CompletableFuture<RespuestaConsultaRUC> load = new CompletableFuture<>();
+        CompletableFuture<RespuestaConsultaRUC> running = inFlight.putIfAbsent(key, load);
+        if (running != null) {
+            sharedLoads.incrementAndGet();
+            return await(running);
+        }
+
+        try {
+            // Otro hilo pudo haber terminado la misma consulta entre la búsqueda y el registro de esta
+            RespuestaConsultaRUC response = peek(key);
+            if (response == null) {
+                response = loader.call();
+                store(key, response);
+            }
+            load.complete(response);
+            return response;
+        } catch (SifenException | RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, load);
+        }
+    }
+
+    /**
+     * @param ruc RUC a verificar, sin el DV.
+     * @return Si la consulta del RUC se encuentra en la caché y no expiró. No modifica las estadísticas.
+     */
+    public boolean contains(String ruc) {
+        return peek(normalize(ruc)) != null;
+    }
+
+    /**
+     * Descarta la consulta de un RUC, para que la próxima sea realizada a Sifen.
+     *
+     * @param ruc RUC a descartar, sin el DV.
+     */
+    public synchronized void invalidate(String ruc) {
+        entries.remove(normalize(ruc));
+    }
+
+    /**
+     * Descarta todas las consultas de la caché.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @return El estado actual de la caché.
+     */
+    public EstadisticasCacheRUC getStats() {
+        int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        return new EstadisticasCacheRUC(size, hits.get(), negativeHits.get(), misses.get(), sharedLoads.get(),
+                expirations.get(), evictions.get());
+    }
+
+    private RespuestaConsultaRUC lookup(String key) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null && entry.isExpired(System.nanoTime())) {
+                entries.remove(key);
+                expirations.incrementAndGet();
+                entry = null;
+            }
+        }
+
+        if (entry == null) {
+            return null;
+        }
+        hits.incrementAndGet();
+        if (entry.negative) {
+            negativeHits.incrementAndGet();
+        }
+        return entry.response;
+    }
+
+    private synchronized RespuestaConsultaRUC peek(String key) {
+        Entry entry = entries.get(key);
+        return entry != null && !entry.isExpired(System.nanoTime()) ? entry.response : null;
+    }
+
+    private void store(String key, RespuestaConsultaRUC response) {
+        if (response.getCodigoEstado() != 200 || response.getdCodRes() == null) {
+            return;
+        }
+
+        long ttl;
+        boolean negative;
+        if (response.getdCodRes().equals(RUC_ENCONTRADO)) {
+            ttl = ttlNanos;
+            negative = false;
+        } else if (response.getdCodRes().equals(RUC_INEXISTENTE)) {
+            ttl = negativeTtlNanos;
+            negative = true;
+        } else {
+            return;
+        }
+        if (ttl <= 0) {
+            return;
+        }
+
+        synchronized (this) {
+            entries.put(key, new Entry(response, System.nanoTime() + ttl, negative));
+            for (Iterator<Entry> it = entries.values().iterator(); entries.size() > maxEntries && it.hasNext(); ) {
+                it.next();
+                it.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private static RespuestaConsultaRUC await(CompletableFuture<RespuestaConsultaRUC> running) throws SifenException {
+        try {
+            return running.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SifenException) {
+                throw (SifenException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw SifenExceptionUtil.unexpectedError("Ocurrió un error al consultar el RUC", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw SifenExceptionUtil.unexpectedError("La consulta de RUC fue interrumpida", e);
+        }
+    }
+
+    private static String normalize(String ruc) {
+        return ruc != null ? ruc.trim() : "";
+    }
+
+    private static class Entry {
+        private final RespuestaConsultaRUC response;
+        private final long expiresAt;
+        private final boolean negative;
+
+        private Entry(RespuestaConsultaRUC response, long expiresAt, boolean negative) {
+            this.response = response;
+            this.expiresAt = expiresAt;
+            this.negative = negative;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,474 @@
+package com.roshka.sifen.internal.ruc;
+
+import com.roshka.sifen.core.beans.ContribuyenteRUC;
+import com.roshka.sifen.internal.util.SifenUtil;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Índice local de contribuyentes, construido a partir del listado de RUCs publicado por la SET, sobre un archivo
+ * mapeado en memoria. Al abrirse, solo se mapea el archivo: los contribuyentes se leen del índice en cada búsqueda, por
+ * lo que abrir un índice de millones de contribuyentes no los carga en el heap.
+ * <p>
+ * Formato del archivo: un encabezado de 32 bytes (número mágico, versión, cantidad de registros, posiciones de las
+ * tablas y fecha de creación), seguido de un registro de 16 bytes por contribuyente, ordenado por RUC (el RUC completado con ceros a la
+ * izquierda hasta 8 caracteres ASCII, el DV, el estado, y la longitud y posición de la razón social), la tabla de
+ * estados y las razones sociales en UTF-8. Las búsquedas son binarias sobre los registros.
+ */
+public class RucRegistry implements Closeable {
+    private final static Logger logger = Logger.getLogger(RucRegistry.class.toString());
+
+    private final static int MAGIC = 0x53465231;
+    private final static int VERSION = 1;
+    private final static int HEADER_SIZE = 32;
+    private final static int RECORD_SIZE = 16;
+    private final static int KEY_SIZE = 8;
+    private final static int MAX_NAME_LENGTH = 0xFFFF;
+    private final static int MAX_STATUSES = 255;
+    private final static char SEPARATOR = '|';
+
+    private final File file;
+    private final MappedByteBuffer buffer;
+    private final int count;
+    private final String[] statuses;
+    private final int namesOffset;
+    private final long createdAt;
+    private final AtomicBoolean staleLogged = new AtomicBoolean();
+
+    /**
+     * Abre un índice construido con {@link #build(List, File)}.
+     *
+     * @param file Archivo del índice.
+     * @throws IOException Si el archivo no puede leerse o, si no es un índice válido.
+     */
+    public RucRegistry(File file) throws IOException {
+        this.file = file;
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+             FileChannel channel = randomAccessFile.getChannel()) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("El archivo no es un índice de RUCs válido: " + file);
+            }
+            // El mapeo sigue siendo válido luego de cerrar el archivo
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("El archivo no es un índice de RUCs válido: " + file);
+        }
+        this.count = buffer.getInt(8);
+        int statusesOffset = buffer.getInt(12);
+        this.namesOffset = buffer.getInt(16);
+        if (count < 0 || statusesOffset != HEADER_SIZE + (long) count * RECORD_SIZE || namesOffset < statusesOffset
+                || namesOffset > buffer.capacity()) {
+            throw new IOException("El índice de RUCs está dañado: " + file);
+        }
+        // Los índices que no registran la fecha de creación toman la de modificación del archivo
+        long created = buffer.getLong(20);
+        this.createdAt = created > 0 ? created : file.lastModified();
+
+        // La tabla de estados es pequeña (un texto por estado distinto), y se lee una sola vez
+        ByteBuffer statusTable = buffer.duplicate();
+        statusTable.position(statusesOffset);
+        this.statuses = new String[statusTable.get() & 0xFF];
+        for (int i = 0; i < statuses.length; i++) {
+            byte[] status = new byte[statusTable.get() & 0xFF];
+            statusTable.get(status);
+            statuses[i] = new String(status, StandardCharsets.UTF_8);
+        }
+        logger.info("Índice de RUCs abierto: " + count + " contribuyentes en " + file);
+    }
+
+    /**
+     * Busca un contribuyente por su RUC.
+     *
+     * @param ruc RUC del contribuyente, sin el DV.
+     * @return Los datos del contribuyente, o <strong>null</strong> si no se encuentra en el índice.
+     */
+    public ContribuyenteRUC find(String ruc) {
+        int record = search(ruc);
+        if (record < 0) {
+            return null;
+        }
+
+        int position = HEADER_SIZE + record * RECORD_SIZE;
+        int nameLength = buffer.getShort(position + 10) & 0xFFFF;
+        int nameOffset = buffer.getInt(position + 12);
+        byte[] name = new byte[nameLength];
+        ByteBuffer names = buffer.duplicate();
+        names.position(namesOffset + nameOffset);
+        names.get(name);
+
+        int status = buffer.get(position + 9) & 0xFF;
+        return new ContribuyenteRUC(ruc.trim().toUpperCase(), new String(name, StandardCharsets.UTF_8),
+                String.valueOf((char) buffer.get(position + 8)), status < statuses.length ? statuses[status] : null);
+    }
+
+    /**
+     * @param ruc RUC del contribuyente, sin el DV.
+     * @return Si el contribuyente se encuentra en el índice. No crea objetos.
+     */
+    public boolean contains(String ruc) {
+        return search(ruc) >= 0;
+    }
+
+    /**
+     * @return Cantidad de contribuyentes del índice.
+     */
+    public int size() {
+        return count;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @return Fecha de creación del índice, en milisegundos desde la época.
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * @param maxAgeMillis Antigüedad máxima del índice, en milisegundos; 0 para no limitarla.
+     * @return Si el índice es más antiguo que la antigüedad máxima. La primera vez, se advierte en el log.
+     */
+    public boolean isStale(long maxAgeMillis) {
+        if (maxAgeMillis == 0 || System.currentTimeMillis() - createdAt <= maxAgeMillis) {
+            return false;
+        }
+        if (staleLogged.compareAndSet(false, true)) {
+            logger.warning("El índice de RUCs " + file + " supera la antigüedad máxima de " + maxAgeMillis
+                    + " ms: los RUCs se consultan a Sifen");
+        }
+        return true;
+    }
+
+    /**
+     * El mapeo se libera cuando el índice deja de ser referenciado; Java 8 no permite liberarlo explícitamente.
+     */
+    @Override
+    public void close() {
+    }
+
+    private int search(String ruc) {
+        long key = key(ruc);
+        if (key == -1) {
+            return -1;
+        }
+
+        int low = 0, high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long current = buffer.getLong(HEADER_SIZE + middle * RECORD_SIZE);
+            if (current < key) {
+                low = middle + 1;
+            } else if (current > key) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /*
+     * Codifica el RUC como sus 8 caracteres ASCII (completado con ceros a la izquierda), en big-endian. Como los
+     * caracteres son menores a 0x80, el orden de los números coincide con el de los textos.
+     */
+    private static long key(CharSequence ruc) {
+        int start = 0, end = ruc == null ? 0 : ruc.length();
+        while (start < end && ruc.charAt(start) <= ' ') start++;
+        while (end > start && ruc.charAt(end - 1) <= ' ') end--;
+        if (start == end || end - start > KEY_SIZE) {
+            return -1;
+        }
+
+        long key = 0;
+        for (int i = 0; i < KEY_SIZE - (end - start); i++) {
+            key = key << 8 | '0';
+        }
+        for (int i = start; i < end; i++) {
+            char c = Character.toUpperCase(ruc.charAt(i));
+            if (!(c >= '0' && c <= '9' || c >= 'A' && c <= 'Z')) {
+                return -1;
+            }
+            key = key << 8 | c;
+        }
+        return key;
+    }
+
+    /**
+     * Construye un índice a partir de los listados de RUCs publicados por la SET: archivos de texto en UTF-8, o
+     * archivos ZIP que los contienen, con una línea por contribuyente en el formato
+     * <i>RUC|RAZÓN SOCIAL|DV|RUC ANTERIOR|ESTADO|</i>. Si un RUC aparece más de una vez, se conserva el último.
+     * <p>
+     * Las razones sociales se escriben a un archivo temporal a medida que se leen; en memoria se conservan solamente
+     * 20 bytes por contribuyente, para ordenarlos.
+     *
+     * @param sources Listados a importar.
+     * @param target  Archivo del índice a crear. Se reemplaza si existe.
+     * @return El resultado de la importación.
+     * @throws IOException Si algún listado no puede leerse o, si el índice no puede escribirse.
+     */
+    public static BuildResult build(List<File> sources, File target) throws IOException {
+        File names = File.createTempFile("ruc-nombres-", ".tmp", target.getAbsoluteFile().getParentFile());
+        try {
+            Builder builder = new Builder();
+            try (OutputStream namesOutput = new BufferedOutputStream(new FileOutputStream(names), 64 * 1024)) {
+                for (File source : sources) {
+                    if (source.getName().toLowerCase().endsWith(".zip")) {
+                        try (ZipInputStream zip = new ZipInputStream(new FileInputStream(source))) {
+                            ZipEntry entry;
+                            while ((entry = zip.getNextEntry()) != null) {
+                                if (!entry.isDirectory()) {
+                                    builder.read(zip, namesOutput);
+                                }
+                            }
+                        }
+                    } else {
+                        try (InputStream input = new FileInputStream(source)) {
+                            builder.read(input, namesOutput);
+                        }
+                    }
+                }
+            }
+
+            File temporary = new File(target.getAbsoluteFile().getParentFile(), target.getName() + ".tmp");
+            int written = builder.write(temporary, names);
+            Files.move(temporary.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            logger.info("Índice de RUCs creado: " + written + " contribuyentes en " + target);
+            return new BuildResult(written, builder.discarded, builder.inconsistentDv);
+        } finally {
+            if (!names.delete()) {
+                names.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Resultado de la construcción de un índice.
+     */
+    public static class BuildResult {
+        private final int written;
+        private final int discarded;
+        private final int inconsistentDv;
+
+        private BuildResult(int written, int discarded, int inconsistentDv) {
+            this.written = written;
+            this.discarded = discarded;
+            this.inconsistentDv = inconsistentDv;
+        }
+
+        /**
+         * @return Cantidad de contribuyentes del índice.
+         */
+        public int getWritten() {
+            return written;
+        }
+
+        /**
+         * @return Cantidad de líneas descartadas por no respetar el formato.
+         */
+        public int getDiscarded() {
+            return discarded;
+        }
+
+        /**
+         * @return Cantidad de contribuyentes cuyo DV publicado no coincide con el calculado (se conserva el publicado).
+         */
+        public int getInconsistentDv() {
+            return inconsistentDv;
+        }
+    }
+
+    /*
+     * Acumula los contribuyentes leídos en arreglos primitivos, y escribe el índice ordenado.
+     */
+    private static class Builder {
+        private long[] keys = new long[1024];
+        // DV (8 bits), estado (8 bits) y longitud de la razón social (16 bits)
+        private int[] attributes = new int[1024];
+        private int[] nameOffsets = new int[1024];
+        private int size;
+        private int namesSize;
+        private int discarded;
+        private int inconsistentDv;
+        private final Map<String, Integer> statuses = new LinkedHashMap<>();
+
+        private void read(InputStream input, OutputStream namesOutput) throws IOException {
+            // El lector no se cierra, para no cerrar el ZIP que contiene el listado
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 64 * 1024);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!add(line, namesOutput)) {
+                    discarded++;
+                }
+            }
+        }
+
+        private boolean add(String line, OutputStream namesOutput) throws IOException {
+            int first = line.indexOf(SEPARATOR);
+            int second = first < 0 ? -1 : line.indexOf(SEPARATOR, first + 1);
+            int third = second < 0 ? -1 : line.indexOf(SEPARATOR, second + 1);
+            if (third < 0) {
+                return false;
+            }
+
+            String ruc = line.substring(0, first).trim();
+            long key = key(ruc);
+            String dv = line.substring(second + 1, third).trim();
+            if (key == -1 || dv.length() != 1 || dv.charAt(0) < '0' || dv.charAt(0) > '9') {
+                return false;
+            }
+
+            try {
+                if (SifenUtil.computeDv(ruc, 0, ruc.length()) != dv.charAt(0) - '0') {
+                    inconsistentDv++;
+                }
+            } catch (NumberFormatException e) {
+                // RUC alfanumérico, sin DV calculable
+                inconsistentDv++;
+            }
+
+            // El estado es el quinto campo; el cuarto (RUC anterior) no se conserva
+            int fourth = line.indexOf(SEPARATOR, third + 1);
+            int fifth = fourth < 0 ? -1 : line.indexOf(SEPARATOR, fourth + 1);
+            String status = fourth < 0 ? "" : line.substring(fourth + 1, fifth < 0 ? line.length() : fifth).trim();
+            Integer statusIndex = statuses.get(status);
+            if (statusIndex == null) {
+                if (statuses.size() == MAX_STATUSES || status.getBytes(StandardCharsets.UTF_8).length > 255) {
+                    return false;
+                }
+                statusIndex = statuses.size();
+                statuses.put(status, statusIndex);
+            }
+
+            byte[] name = line.substring(first + 1, second).trim().getBytes(StandardCharsets.UTF_8);
+            int nameLength = Math.min(name.length, MAX_NAME_LENGTH);
+            if ((long) namesSize + nameLength > Integer.MAX_VALUE - HEADER_SIZE - (long) (size + 1) * RECORD_SIZE) {
+                throw new IOException("El listado de RUCs es demasiado grande para un índice");
+            }
+
+            if (size == keys.length) {
+                int capacity = size + (size >> 1);
+                keys = Arrays.copyOf(keys, capacity);
+                attributes = Arrays.copyOf(attributes, capacity);
+                nameOffsets = Arrays.copyOf(nameOffsets, capacity);
+            }
+            keys[size] = key;
+            attributes[size] = dv.charAt(0) << 24 | statusIndex << 16 | nameLength;
+            nameOffsets[size] = namesSize;
+            size++;
+
+            namesOutput.write(name, 0, nameLength);
+            namesSize += nameLength;
+            return true;
+        }
+
+        private int write(File target, File names) throws IOException {
+            int[] order = sort();
+
+            // Si un RUC se repite, se conserva su última aparición (el ordenamiento es estable)
+            int unique = 0;
+            for (int i = 0; i < size; i++) {
+                if (i == size - 1 || keys[order[i]] != keys[order[i + 1]]) {
+                    order[unique++] = order[i];
+                }
+            }
+
+            byte[][] statusBytes = new byte[statuses.size()][];
+            int statusTableSize = 1;
+            for (String status : statuses.keySet()) {
+                byte[] bytes = status.getBytes(StandardCharsets.UTF_8);
+                statusBytes[statuses.get(status)] = bytes;
+                statusTableSize += 1 + bytes.length;
+            }
+            int statusesOffset = HEADER_SIZE + unique * RECORD_SIZE;
+
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(target), 64 * 1024))) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeInt(unique);
+                output.writeInt(statusesOffset);
+                output.writeInt(statusesOffset + statusTableSize);
+                output.writeLong(System.currentTimeMillis());
+                output.write(new byte[HEADER_SIZE - 28]);
+
+                for (int i = 0; i < unique; i++) {
+                    int record = order[i];
+                    output.writeLong(keys[record]);
+                    output.writeByte(attributes[record] >>> 24);
+                    output.writeByte(attributes[record] >>> 16 & 0xFF);
+                    output.writeShort(attributes[record] & 0xFFFF);
+                    output.writeInt(nameOffsets[record]);
+                }
+
+                output.writeByte(statusBytes.length);
+                for (byte[] status : statusBytes) {
+                    output.writeByte(status.length);
+                    output.write(status);
+                }
+
+                // Las razones sociales se copian tal como fueron leídas; los registros descartados por repetidos
+                // conservan su texto, sin ser referenciados
+                Files.copy(names.toPath(), output);
+            }
+            return unique;
+        }
+
+        /*
+         * Ordenamiento estable (merge sort) de las posiciones de los registros por RUC, sin crear objetos por registro.
+         */
+        private int[] sort() {
+            int[] order = new int[size];
+            int[] buffer = new int[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+
+            for (int width = 1; width < size; width <<= 1) {
+                for (int low = 0; low < size - width; low += width << 1) {
+                    int middle = low + width, high = Math.min(low + (width << 1), size);
+                    if (keys[order[middle - 1]] <= keys[order[middle]]) {
+                        continue;
+                    }
+                    System.arraycopy(order, low, buffer, low, high - low);
+                    for (int i = low, left = low, right = middle; i < high; i++) {
+                        if (right >= high || left < middle && keys[buffer[left]] <= keys[buffer[right]]) {
+                            order[i] = buffer[left++];
+                        } else {
+                            order[i] = buffer[right++];
+                        }
+                    }
+                }
+            }
+            return order;
+        }
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * Clases encargadas de evitar consultas de RUC repetidas a Sifen: la caché de consultas anteriores y el registro local
+ * de contribuyentes, mapeado en memoria.
+ */
+package com.roshka.sifen.internal.ruc;
\ No newline at end of file
@@ -0,0 +1,86 @@
+package com.roshka.sifen.internal.util;
+
+import java.util.Arrays;
+import java.util.function.ToIntFunction;
+
+/**
+ * Tabla de búsqueda de las constantes de un enum por su código numérico, construida una única vez. Si los códigos
+ * ocupan un rango acotado, se indexan en un arreglo denso; de lo contrario, se buscan en un arreglo ordenado. En ambos
+ * casos la búsqueda no asigna memoria.
+ *
+ * @param <E> Tipo del enum.
+ */
+public class CodeTable<E extends Enum<E>> {
+    // Rango máximo de códigos indexado en un arreglo denso
+    private final static int MAX_DENSE_RANGE = 4096;
+
+    private final int min;
+    private final Object[] dense;
+    private final int[] sortedCodes;
+    private final Object[] sortedValues;
+
+    /**
+     * @param values Constantes del enum, en orden de declaración. Si varias tienen el mismo código, se retorna la
+     *               primera, como en una búsqueda lineal.
+     * @param code   Función que obtiene el código de cada constante.
+     */
+    public CodeTable(E[] values, ToIntFunction<E> code) {
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (E value : values) {
+            min = Math.min(min, code.applyAsInt(value));
+            max = Math.max(max, code.applyAsInt(value));
+        }
+
+        this.min = min;
+        if (values.length > 0 && (long) max - min < MAX_DENSE_RANGE) {
+            this.dense = new Object[max - min + 1];
+            for (E value : values) {
+                int index = code.applyAsInt(value) - min;
+                if (dense[index] == null) {
+                    dense[index] = value;
+                }
+            }
+            this.sortedCodes = null;
+            this.sortedValues = null;
+        } else {
+            // Orden estable por código, de modo que la primera constante de cada código queda primera
+            Object[] sorted = values.clone();
+            Arrays.sort(sorted, (a, b) -> Integer.compare(code.applyAsInt(cast(a)), code.applyAsInt(cast(b))));
+
+            int[] codes = new int[sorted.length];
+            Object[] unique = new Object[sorted.length];
+            int count = 0;
+            for (Object value : sorted) {
+                int valueCode = code.applyAsInt(cast(value));
+                if (count == 0 || codes[count - 1] != valueCode) {
+                    codes[count] = valueCode;
+                    unique[count++] = value;
+                }
+            }
+
+            this.dense = null;
+            this.sortedCodes = Arrays.copyOf(codes, count);
+            this.sortedValues = Arrays.copyOf(unique, count);
+        }
+    }
+
+    /**
+     * @param code Código a buscar.
+     * @return La constante con el código indicado, o <strong>null</strong> si no existe.
+     */
+    public E get(int code) {
+        if (dense != null) {
+            int index = code - min;
+            return index >= 0 && index < dense.length ? cast(dense[index]) : null;
+        }
+
+        int index = Arrays.binarySearch(sortedCodes, code);
+        return index >= 0 ? cast(sortedValues[index]) : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> E cast(Object value) {
+        return (E) value;
+    }
+}
@@ -0,0 +1,67 @@
+package com.roshka.sifen.internal.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffer de bytes reutilizable en el que se serializa el mensaje SOAP de una petición. Expone su arreglo interno, de
+ * modo que el mismo contenido se utiliza para el envío y para la captura, sin copias intermedias. No es thread-safe.
+ */
+public class MessageBuffer extends ByteArrayOutputStream {
+    public MessageBuffer(int size) {
+        super(size);
+    }
+
+    /**
+     * @return El arreglo interno del buffer. Solo los primeros {@link #size()} bytes son válidos.
+     */
+    public byte[] array() {
+        return buf;
+    }
+
+    /**
+     * @return La capacidad actual del arreglo interno, en bytes.
+     */
+    public int capacity() {
+        return buf.length;
+    }
+
+    /**
+     * Decodifica como UTF-8 el contenido del buffer, hasta la cantidad de bytes indicada.
+     *
+     * @param maxBytes Cantidad máxima de bytes a decodificar; 0 para decodificar todo el contenido.
+     * @return El contenido decodificado, sin caracteres cortados si se trunca.
+     */
+    public String decode(int maxBytes) {
+        return decode(buf, count, maxBytes);
+    }
+
+    /**
+     * Decodifica como UTF-8 los primeros <i>length</i> bytes de <i>data</i>, truncando el resultado a
+     * <i>maxBytes</i> bytes sin cortar un carácter multibyte.
+     *
+     * @param maxBytes Cantidad máxima de bytes a decodificar; 0 para decodificar todo el contenido.
+     */
+    public static String decode(byte[] data, int length, int maxBytes) {
+        return new String(data, 0, utf8Boundary(data, length, maxBytes), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Calcula hasta dónde truncar los primeros <i>length</i> bytes de <i>data</i>, codificados en UTF-8, para no
+     * superar <i>maxBytes</i> bytes sin cortar un carácter multibyte.
+     *
+     * @param maxBytes Cantidad máxima de bytes; 0 para no truncar.
+     * @return La cantidad de bytes a conservar.
+     */
+    public static int utf8Boundary(byte[] data, int length, int maxBytes) {
+        int end = length;
+        if (maxBytes > 0 && maxBytes < length) {
+            end = maxBytes;
+            // Se retrocede hasta el inicio del carácter, si el corte cae en un byte de continuación
+            while (end > 0 && (data[end] & 0xC0) == 0x80) {
+                end--;
+            }
+        }
+        return end;
+    }
+}
@@ -0,0 +1,145 @@
+package com.roshka.sifen.internal.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tabla de búsqueda de las constantes de un enum por su nombre, sin distinguir mayúsculas de minúsculas, construida
+ * una única vez. Utiliza un hash perfecto de dos niveles: los nombres se agrupan por un primer hash, y para cada grupo
+ * se elige una semilla con la que sus nombres ocupan posiciones libres de la tabla. La búsqueda calcula dos hashes y
+ * realiza una única comparación, sin asignar memoria.
+ *
+ * @param <E> Tipo del enum.
+ */
+public class NameTable<E extends Enum<E>> {
+    // Semillas a probar por grupo antes de duplicar el tamaño de la tabla
+    private final static int MAX_SEED_ATTEMPTS = 1 << 12;
+    // Cantidad de veces que se duplica el tamaño de la tabla antes de desistir
+    private final static int MAX_GROWTH = 4;
+
+    private final Object[] table;
+    private final int[] seeds;
+
+    /**
+     * @param values Constantes del enum, en orden de declaración. Si varios nombres solo difieren en mayúsculas y
+     *               minúsculas, se retorna la primera constante, como en una búsqueda lineal.
+     * @throws IllegalStateException Si no se encuentran semillas que ubiquen todos los nombres.
+     */
+    public NameTable(E[] values) {
+        int size = Integer.highestOneBit(Math.max(values.length, 1) * 2 - 1) << 1;
+        for (int growth = 0; growth <= MAX_GROWTH; growth++, size <<= 1) {
+            Object[] table = new Object[size];
+            int[] seeds = new int[Math.max(size >> 2, 1)];
+            if (build(values, table, seeds)) {
+                this.table = table;
+                this.seeds = seeds;
+                return;
+            }
+        }
+        throw new IllegalStateException("No se pudo construir la tabla de búsqueda por nombre de "
+                + values.getClass().getComponentType().getName());
+    }
+
+    /*
+     * Ubica los nombres en la tabla, eligiendo la semilla de cada grupo. Retorna false si algún grupo no pudo ubicarse
+     * tras el máximo de semillas.
+     */
+    private static <E extends Enum<E>> boolean build(E[] values, Object[] table, int[] seeds) {
+        List<List<E>> buckets = new ArrayList<>(seeds.length);
+        for (int i = 0; i < seeds.length; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        for (E value : values) {
+            List<E> bucket = buckets.get(hash(value.name(), 0) & (seeds.length - 1));
+            if (bucket.stream().noneMatch(e -> e.name().equalsIgnoreCase(value.name()))) {
+                bucket.add(value);
+            }
+        }
+
+        // Los grupos más grandes se ubican primero, mientras la tabla tiene más posiciones libres
+        Integer[] order = new Integer[seeds.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> buckets.get(b).size() - buckets.get(a).size());
+
+        int[] indexes = new int[values.length];
+        for (int bucketIndex : order) {
+            List<E> bucket = buckets.get(bucketIndex);
+            if (bucket.isEmpty()) {
+                break;
+            }
+
+            int seed = 1;
+            while (!place(table, bucket, seed, indexes)) {
+                if (++seed > MAX_SEED_ATTEMPTS) {
+                    return false;
+                }
+            }
+            seeds[bucketIndex] = seed;
+            for (int i = 0; i < bucket.size(); i++) {
+                table[indexes[i]] = bucket.get(i);
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Calcula en indexes las posiciones de los nombres del grupo con la semilla indicada, si todas están libres y son
+     * distintas entre sí.
+     */
+    private static <E extends Enum<E>> boolean place(Object[] table, List<E> bucket, int seed, int[] indexes) {
+        for (int i = 0; i < bucket.size(); i++) {
+            int index = hash(bucket.get(i).name(), seed) & (table.length - 1);
+            if (table[index] != null) {
+                return false;
+            }
+            for (int j = 0; j < i; j++) {
+                if (indexes[j] == index) {
+                    return false;
+                }
+            }
+            indexes[i] = index;
+        }
+        return true;
+    }
+
+    /*
+     * Hash consistente con String.equalsIgnoreCase: los caracteres que esta considera iguales tienen la misma forma
+     * normalizada. La semilla interviene en cada carácter (el multiplicador, siempre impar, depende de ella), por lo que
+     * dos nombres que colisionan con una semilla no colisionan, por lo general, con las demás.
+     */
+    private static int hash(String name, int seed) {
+        int multiplier = 0x01000193 ^ (seed << 1);
+        int h = seed * 0x9E3779B9;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c < 128) {
+                h = (h ^ (c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c)) * multiplier;
+            } else {
+                h = (h ^ Character.toLowerCase(Character.toUpperCase(c))) * multiplier;
+            }
+        }
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    /**
+     * @param name Nombre a buscar, sin distinguir mayúsculas de minúsculas.
+     * @return La constante con el nombre indicado, o <strong>null</strong> si no existe o si el nombre es
+     * <strong>null</strong>.
+     */
+    @SuppressWarnings("unchecked")
+    public E get(String name) {
+        if (name == null) {
+            return null;
+        }
+
+        int seed = seeds[hash(name, 0) & (seeds.length - 1)];
+        Enum<?> value = (Enum<?>) table[hash(name, seed) & (table.length - 1)];
+        return value != null && value.name().equalsIgnoreCase(name) ? (E) value : null;
+    }
+}
@@ -2,17 +2,26 @@ package com.roshka.sifen.internal.util;
 
 import com.roshka.sifen.core.exceptions.SifenException;
 import com.roshka.sifen.internal.helpers.SoapHelper;
+import com.roshka.sifen.internal.response.ChildNode;
 import org.w3c.dom.Node;
 
 import javax.xml.soap.SOAPBody;
 import javax.xml.soap.SOAPException;
 import javax.xml.soap.SOAPMessage;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.Source;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
 import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
@@ -26,6 +35,14 @@ import java.util.logging.Logger;
  */
 public class ResponseUtil {
     private final static Logger logger = Logger.getLogger(ResponseUtil.class.toString());
+    private final static ThreadLocal<XMLInputFactory> inputFactory = ThreadLocal.withInitial(() -> {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    });
 
     public static Node getMainNode(SOAPMessage soapMessage, String nodeName) throws SifenException {
         SOAPBody soapBody;
@@ -50,6 +67,129 @@ public class ResponseUtil {
         return node;
     }
 
+    /**
+     * Posiciona un reader en el nodo principal del cuerpo del mensaje SOAP, sin construir el árbol DOM del mensaje.
+     * Equivalente en streaming de {@link #getMainNode(SOAPMessage, String)}.
+     *
+     * @param soapMessage Mensaje SOAP recibido.
+     * @param nodeName    Nombre local esperado del nodo principal.
+     * @return Reader posicionado en el inicio del nodo principal.
+     * @throws SifenException Si el mensaje no tiene cuerpo, o si el nodo principal no coincide con el esperado.
+     */
+    public static XMLStreamReader getMainElement(SOAPMessage soapMessage, String nodeName) throws SifenException {
+        try {
+            XMLStreamReader reader = createXMLStreamReader(soapMessage);
+
+            // Envelope
+            if (reader.nextTag() != XMLStreamConstants.START_ELEMENT) {
+                throw SifenExceptionUtil.invalidSOAPResponse("El cuerpo del mensaje SOAP es nulo. No se puede obtener el nodo principal.");
+            }
+
+            // Header (opcional) y Body
+            while (reader.nextTag() == XMLStreamConstants.START_ELEMENT && !reader.getLocalName().equals("Body")) {
+                skipElement(reader);
+            }
+            if (!reader.isStartElement()) {
+                throw SifenExceptionUtil.invalidSOAPResponse("El cuerpo del mensaje SOAP es nulo. No se puede obtener el nodo principal.");
+            }
+
+            if (reader.nextTag() != XMLStreamConstants.START_ELEMENT) {
+                throw SifenExceptionUtil.invalidSOAPResponse("El cuerpo del mensaje SOAP tiene el primer nodo nulo.");
+            }
+            if (!reader.getLocalName().equalsIgnoreCase(nodeName)) {
+                throw SifenExceptionUtil.invalidSOAPResponse(
+                        "El nombre del nodo [" + reader.getLocalName() + "] no coincide con el nombre esperado [" + nodeName + "]"
+                );
+            }
+            return reader;
+        } catch (XMLStreamException e) {
+            throw SifenExceptionUtil.invalidSOAPResponse("El mensaje SOAP tiene un formato inválido: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Crea un reader del mensaje SOAP a partir de su contenido, sin construir el árbol DOM si aún no fue construido.
+     */
+    private static XMLStreamReader createXMLStreamReader(SOAPMessage soapMessage) throws SifenException, XMLStreamException {
+        Source content;
+        try {
+            content = soapMessage.getSOAPPart().getContent();
+        } catch (SOAPException e) {
+            throw SifenExceptionUtil.invalidSOAPResponse("No se pudo obtener el contenido del mensaje SOAP.", e);
+        }
+
+        if (content instanceof StreamSource) {
+            return inputFactory.get().createXMLStreamReader(content);
+        }
+
+        // El mensaje ya fue construido como DOM: se lo serializa para leerlo
+        ByteArrayOutputStream xml = new ByteArrayOutputStream();
+        try {
+            soapMessage.writeTo(xml);
+        } catch (SOAPException | IOException e) {
+            throw SifenExceptionUtil.invalidSOAPResponse("No se pudo obtener el contenido del mensaje SOAP.", e);
+        }
+        return inputFactory.get().createXMLStreamReader(new ByteArrayInputStream(xml.toByteArray()));
+    }
+
+    /**
+     * Crea un reader, con una fábrica propia del hilo actual, que no procesa DTDs ni entidades externas.
+     *
+     * @param xml XML a leer.
+     * @return Reader posicionado en el inicio del documento.
+     * @throws SifenException Si no se pudo crear el reader.
+     */
+    public static XMLStreamReader createXMLStreamReader(Reader xml) throws SifenException {
+        try {
+            return inputFactory.get().createXMLStreamReader(xml);
+        } catch (XMLStreamException e) {
+            throw SifenExceptionUtil.xmlParsingError("Se produjo un error al parsear el archivo XML. Formato incorrecto.", e);
+        }
+    }
+
+    /**
+     * @see #createXMLStreamReader(Reader)
+     */
+    public static XMLStreamReader createXMLStreamReader(InputStream xml) throws SifenException {
+        try {
+            return inputFactory.get().createXMLStreamReader(xml);
+        } catch (XMLStreamException e) {
+            throw SifenExceptionUtil.xmlParsingError("Se produjo un error al parsear el archivo XML. Formato incorrecto.", e);
+        }
+    }
+
+    /**
+     * Avanza el reader hasta el inicio del primer elemento con el nombre local indicado, a cualquier profundidad.
+     *
+     * @return <strong>true</strong> si se encontró el elemento, o <strong>false</strong> si se llegó al fin del
+     * documento.
+     * @throws SifenException Si el XML tiene un formato inválido.
+     */
+    public static boolean nextElement(XMLStreamReader reader, String localName) throws SifenException {
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && reader.getLocalName().equals(localName)) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (XMLStreamException e) {
+            throw SifenExceptionUtil.xmlParsingError("Se produjo un error al parsear el archivo XML. Formato incorrecto.", e);
+        }
+    }
+
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
     public static SOAPMessage parseSoapMessage(SOAPMessage soapMessage) {
         String xml = getXmlFromMessage(soapMessage, false);
         xml = SifenUtil.unescapeXML(xml)
@@ -68,18 +208,22 @@ public class ResponseUtil {
     public static String getXmlFromMessage(SOAPMessage soapMessage, boolean removeSpaces) {
         final StringWriter sw = new StringWriter();
         try {
-            TransformerFactory.newInstance().newTransformer().transform(new DOMSource(soapMessage.getSOAPPart()), new StreamResult(sw));
+            SifenUtil.newTransformer().transform(new DOMSource(soapMessage.getSOAPPart()), new StreamResult(sw));
         } catch (TransformerException e) {
             throw new RuntimeException(e);
         }
 
         String xml = sw.toString();
         if (removeSpaces) {
-            xml = xml.replaceAll(">[\\s\r\n]*<", "><");
+            xml = removeSpacesBetweenTags(xml);
         }
         return xml;
     }
 
+    public static String removeSpacesBetweenTags(String xml) {
+        return xml.replaceAll(">[\\s\r\n]*<", "><");
+    }
+
     public static String getTextValue(Node node) {
         if (node == null)
             return null;
@@ -98,8 +242,47 @@ public class ResponseUtil {
         return firstChild.getTextContent();
     }
 
+    /**
+     * @param node Elemento, DOM o leído en streaming.
+     * @return El texto del elemento, o <strong>null</strong> si no tiene.
+     */
+    public static String getTextValue(ChildNode node) {
+        if (node == null)
+            return null;
+
+        String text = node.getText();
+        if (text == null) {
+            logger.warning("El nodo " + node.getLocalName() + " no contiene nodos hijos. Retornando");
+        }
+        return text;
+    }
+
+    /**
+     * @param node Elemento, DOM o leído en streaming.
+     * @param name Nombre del atributo.
+     * @return Valor del atributo, o una cadena vacía si no existe.
+     */
+    public static String getAttribute(ChildNode node, String name) {
+        return node.getAttribute(name);
+    }
+
     public static LocalDate getDateValue(Node node) {
-        String date = getTextValue(node);
+        return parseDate(getTextValue(node));
+    }
+
+    public static LocalDate getDateValue(ChildNode node) {
+        return parseDate(getTextValue(node));
+    }
+
+    public static LocalDateTime getDateTimeValue(Node node) {
+        return parseDateTime(getTextValue(node));
+    }
+
+    public static LocalDateTime getDateTimeValue(ChildNode node) {
+        return parseDateTime(getTextValue(node));
+    }
+
+    private static LocalDate parseDate(String date) {
         if (date != null) {
             DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
             return LocalDate.parse(date, formatter);
@@ -107,8 +290,7 @@ public class ResponseUtil {
         return null;
     }
 
-    public static LocalDateTime getDateTimeValue(Node node) {
-        String date = getTextValue(node);
+    private static LocalDateTime parseDateTime(String date) {
         LocalDateTime parsedDate = null;
 
         if (date != null) {
@@ -0,0 +1,273 @@
+package com.roshka.sifen.internal.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Número decimal inmutable representado como un entero {@code long} escalado (valor = unscaled × 10<sup>-scale</sup>),
+ * para los cálculos de montos de los Documentos Electrónicos. Las operaciones siguen exactamente la semántica de
+ * {@link BigDecimal}, incluida la escala de cada resultado y el redondeo {@link RoundingMode#HALF_UP}, de modo que
+ * {@link #toBigDecimal()} y {@link #toString()} coinciden con los de un cálculo con {@link BigDecimal}.
+ * <p>
+ * Si un valor o un resultado no puede representarse con un {@code long} (desborde, escala negativa o mayor a 18), la
+ * operación se realiza con {@link BigDecimal}, y los resultados posteriores vuelven a la representación con
+ * {@code long} en cuanto entran en ella.
+ */
+public final class ScaledDecimal {
+    public final static ScaledDecimal ZERO = new ScaledDecimal(0, 0, null);
+
+    private final static int MAX_SCALE = 18;
+    private final static long[] POWERS_OF_TEN = new long[MAX_SCALE + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final long unscaled;
+    private final int scale;
+    // Valor, si no puede representarse con un long; en ese caso, unscaled y scale no se utilizan
+    private final BigDecimal big;
+
+    private ScaledDecimal(long unscaled, int scale, BigDecimal big) {
+        this.unscaled = unscaled;
+        this.scale = scale;
+        this.big = big;
+    }
+
+    /**
+     * @param unscaled Valor sin escala.
+     * @param scale    Escala, es decir, cantidad de decimales.
+     * @return El número unscaled × 10<sup>-scale</sup>, como {@link BigDecimal#valueOf(long, int)}.
+     */
+    public static ScaledDecimal valueOf(long unscaled, int scale) {
+        if (scale < 0 || scale > MAX_SCALE || unscaled == Long.MIN_VALUE) {
+            return new ScaledDecimal(0, 0, BigDecimal.valueOf(unscaled, scale));
+        }
+        return new ScaledDecimal(unscaled, scale, null);
+    }
+
+    /**
+     * @param value Valor a representar.
+     * @return El valor con su misma escala, o <strong>null</strong> si es <strong>null</strong>.
+     */
+    public static ScaledDecimal valueOf(BigDecimal value) {
+        if (value == null) {
+            return null;
+        }
+
+        int scale = value.scale();
+        if (scale == 0 && value.precision() <= MAX_SCALE) {
+            return new ScaledDecimal(value.longValue(), 0, null);
+        }
+        if (scale > 0 && scale <= MAX_SCALE && value.precision() <= MAX_SCALE) {
+            return new ScaledDecimal(value.unscaledValue().longValue(), scale, null);
+        }
+        return new ScaledDecimal(0, 0, value);
+    }
+
+    private static ScaledDecimal fallback(BigDecimal value) {
+        return valueOf(value);
+    }
+
+    /**
+     * @return El valor como {@link BigDecimal}, con la misma escala.
+     */
+    public BigDecimal toBigDecimal() {
+        return big != null ? big : BigDecimal.valueOf(unscaled, scale);
+    }
+
+    /**
+     * @return La escala del valor.
+     */
+    public int scale() {
+        return big != null ? big.scale() : scale;
+    }
+
+    /**
+     * @return -1, 0 o 1 según el signo del valor.
+     */
+    public int signum() {
+        return big != null ? big.signum() : Long.signum(unscaled);
+    }
+
+    public ScaledDecimal add(ScaledDecimal augend) {
+        if (big == null && augend.big == null) {
+            try {
+                int resultScale = Math.max(scale, augend.scale);
+                return valueOf(Math.addExact(rescale(unscaled, resultScale - scale),
+                        rescale(augend.unscaled, resultScale - augend.scale)), resultScale);
+            } catch (ArithmeticException ignored) {
+                // Desborde: se calcula con BigDecimal
+            }
+        }
+        return fallback(toBigDecimal().add(augend.toBigDecimal()));
+    }
+
+    public ScaledDecimal subtract(ScaledDecimal subtrahend) {
+        if (big == null && subtrahend.big == null) {
+            try {
+                int resultScale = Math.max(scale, subtrahend.scale);
+                return valueOf(Math.subtractExact(rescale(unscaled, resultScale - scale),
+                        rescale(subtrahend.unscaled, resultScale - subtrahend.scale)), resultScale);
+            } catch (ArithmeticException ignored) {
+                // Desborde: se calcula con BigDecimal
+            }
+        }
+        return fallback(toBigDecimal().subtract(subtrahend.toBigDecimal()));
+    }
+
+    public ScaledDecimal multiply(ScaledDecimal multiplicand) {
+        if (big == null && multiplicand.big == null && scale + multiplicand.scale <= MAX_SCALE) {
+            try {
+                return valueOf(Math.multiplyExact(unscaled, multiplicand.unscaled), scale + multiplicand.scale);
+            } catch (ArithmeticException ignored) {
+                // Desborde: se calcula con BigDecimal
+            }
+        }
+        return fallback(toBigDecimal().multiply(multiplicand.toBigDecimal()));
+    }
+
+    /**
+     * Equivalente a {@link BigDecimal#divide(BigDecimal, int, RoundingMode)} con {@link RoundingMode#HALF_UP}.
+     *
+     * @param divisor     Divisor.
+     * @param resultScale Escala del resultado.
+     * @return El cociente, redondeado a la escala indicada.
+     * @throws ArithmeticException Si el divisor es cero.
+     */
+    public ScaledDecimal divide(ScaledDecimal divisor, int resultScale) {
+        // Con un divisor cero, BigDecimal genera la excepción
+        if (big == null && divisor.big == null && divisor.unscaled != 0 && resultScale >= 0 && resultScale <= MAX_SCALE) {
+            // unscaled / divisor.unscaled × 10^(resultScale - scale + divisor.scale)
+            int shift = resultScale - scale + divisor.scale;
+            try {
+                if (shift >= 0 && shift <= MAX_SCALE) {
+                    return valueOf(divideHalfUp(Math.multiplyExact(unscaled, POWERS_OF_TEN[shift]), divisor.unscaled), resultScale);
+                } else if (shift < 0 && -shift <= MAX_SCALE) {
+                    return valueOf(divideHalfUp(unscaled, Math.multiplyExact(divisor.unscaled, POWERS_OF_TEN[-shift])), resultScale);
+                }
+            } catch (ArithmeticException ignored) {
+                // Desborde: se calcula con BigDecimal
+            }
+        }
+        return fallback(toBigDecimal().divide(divisor.toBigDecimal(), resultScale, RoundingMode.HALF_UP));
+    }
+
+    /**
+     * Equivalente a {@link BigDecimal#setScale(int, RoundingMode)} con {@link RoundingMode#HALF_UP}.
+     *
+     * @param newScale Nueva escala.
+     * @return El valor con la escala indicada, redondeado si es menor a la actual.
+     */
+    public ScaledDecimal setScale(int newScale) {
+        if (big == null && newScale >= 0 && newScale <= MAX_SCALE) {
+            if (newScale == scale) {
+                return this;
+            }
+            try {
+                return newScale > scale
+                        ? valueOf(Math.multiplyExact(unscaled, POWERS_OF_TEN[newScale - scale]), newScale)
+                        : valueOf(divideHalfUp(unscaled, POWERS_OF_TEN[scale - newScale]), newScale);
+            } catch (ArithmeticException ignored) {
+                // Desborde: se calcula con BigDecimal
+            }
+        }
+        return fallback(toBigDecimal().setScale(newScale, RoundingMode.HALF_UP));
+    }
+
+    /**
+     * Equivalente a {@link BigDecimal#remainder(BigDecimal)}.
+     *
+     * @param divisor Divisor.
+     * @return El resto de la división entera, con el signo del dividendo.
+     * @throws ArithmeticException Si el divisor es cero.
+     */
+    public ScaledDecimal remainder(ScaledDecimal divisor) {
+        // Con un divisor sin decimales, la escala del resultado es la del dividendo
+        if (big == null && divisor.big == null && divisor.scale == 0 && divisor.unscaled != 0) {
+            try {
+                return valueOf(unscaled % Math.multiplyExact(divisor.unscaled, POWERS_OF_TEN[scale]), scale);
+            } catch (ArithmeticException ignored) {
+                // Desborde: se calcula con BigDecimal
+            }
+        }
+        return fallback(toBigDecimal().remainder(divisor.toBigDecimal()));
+    }
+
+    private static long rescale(long value, int shift) {
+        return shift == 0 ? value : Math.multiplyExact(value, POWERS_OF_TEN[shift]);
+    }
+
+    /*
+     * Cociente entero redondeado al más cercano, alejándose de cero en caso de empate.
+     */
+    private static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder != 0) {
+            long absRemainder = Math.abs(remainder);
+            long absDivisor = Math.abs(divisor);
+            if (absRemainder >= absDivisor - absRemainder) {
+                quotient += (dividend < 0) == (divisor < 0) ? 1 : -1;
+            }
+        }
+        return quotient;
+    }
+
+    /**
+     * @return La representación del valor, igual a la de {@link BigDecimal#toString()}.
+     */
+    @Override
+    public String toString() {
+        if (big != null) {
+            return big.toString();
+        }
+        if (scale == 0) {
+            return Long.toString(unscaled);
+        }
+
+        String digits = Long.toString(Math.abs(unscaled));
+        // BigDecimal utiliza notación exponencial si el exponente ajustado es menor a -6
+        if (digits.length() - 1 - scale < -6) {
+            return toBigDecimal().toString();
+        }
+
+        StringBuilder builder = new StringBuilder(digits.length() + scale + 3);
+        if (unscaled < 0) {
+            builder.append('-');
+        }
+        int integerDigits = digits.length() - scale;
+        if (integerDigits > 0) {
+            builder.append(digits, 0, integerDigits).append('.').append(digits, integerDigits, digits.length());
+        } else {
+            builder.append("0.");
+            for (int i = integerDigits; i < 0; i++) {
+                builder.append('0');
+            }
+            builder.append(digits);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Igualdad de valor y escala, como {@link BigDecimal#equals(Object)}.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ScaledDecimal)) return false;
+        ScaledDecimal that = (ScaledDecimal) o;
+        if (big == null && that.big == null) {
+            return unscaled == that.unscaled && scale == that.scale;
+        }
+        return toBigDecimal().equals(that.toBigDecimal());
+    }
+
+    @Override
+    public int hashCode() {
+        return toBigDecimal().hashCode();
+    }
+}
@@ -51,6 +51,14 @@ public class SifenExceptionUtil {
         );
     }
 
+    public static SifenException serviceUnavailable(String message, Throwable t) {
+        return new SifenException(
+                SifenExceptionCodes.SERVICE_UNAVAILABLE_CODE,
+                message,
+                t
+        );
+    }
+
     public static SifenException unexpectedError(String message, Throwable t) {
         return new SifenException(
                 SifenExceptionCodes.UNEXPECTED_ERROR_CODE,
@@ -110,4 +118,11 @@ public class SifenExceptionUtil {
                 t
         );
     }
-}
\ No newline at end of file
+
+    public static SifenException invalidSchemaError(String message) {
+        return new SifenException(
+                SifenExceptionCodes.INVALID_SCHEMA_ERROR_CODE,
+                message
+        );
+    }
+}
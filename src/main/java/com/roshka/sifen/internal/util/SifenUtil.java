@@ -1,21 +1,24 @@
 package com.roshka.sifen.internal.util;
 
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
 import java.io.ByteArrayOutputStream;
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Random;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -23,6 +26,22 @@ import java.util.zip.ZipOutputStream;
  * Util con propósitos generales.
  */
 public class SifenUtil {
+    private final static ThreadLocal<TransformerFactory> transformerFactory = ThreadLocal.withInitial(TransformerFactory::newInstance);
+    private final static ThreadLocal<Deflater> cachedDeflater = new ThreadLocal<>();
+    private final static ThreadLocal<SecureRandom> secureRandom = ThreadLocal.withInitial(SifenUtil::newSecureRandom);
+    private final static String[] DIGITS = {"0", "1", "2", "3", "4", "5", "6", "7", "8", "9"};
+
+    /**
+     * Crea un Transformer a partir de una fábrica propia del hilo actual, evitando la búsqueda de la implementación
+     * (TransformerFactory.newInstance) en cada llamada. Las fábricas no son thread-safe.
+     *
+     * @return Transformer nuevo, sin configuración adicional.
+     * @throws TransformerConfigurationException Si no se pudo crear el Transformer.
+     */
+    public static Transformer newTransformer() throws TransformerConfigurationException {
+        return transformerFactory.get().newTransformer();
+    }
+
     public static String bytesToHex(byte[] bytes) {
         char[] HEX_ARRAY = "0123456789abcdef".toCharArray();
         char[] hexChars = new char[bytes.length * 2];
@@ -49,27 +68,107 @@ public class SifenUtil {
     }
 
     public static String leftPad(String string, char character, int length) {
-        return String.format("%" + length + "s", string).replace(' ', character);
+        String value = String.valueOf(string);
+        if (value.length() >= length) {
+            return value;
+        }
+
+        char[] chars = new char[length];
+        int padding = length - value.length();
+        Arrays.fill(chars, 0, padding, character);
+        value.getChars(0, value.length(), chars, padding);
+        return new String(chars);
     }
 
     public static String generateDv(String ruc) {
-        int baseMax = 11, k = 2, total = 0;
-
         if (ruc.equals("88888801")) {
             return "5";
         }
+        return DIGITS[computeDv(ruc, 0, ruc.length())];
+    }
 
-        for (int i = ruc.length() - 1; i >= 0; i--) {
-            k = k > baseMax ? 2 : k;
-            int n = Integer.parseInt(ruc.substring(i, i + 1));
+    /**
+     * Calcula el dígito verificador (módulo 11) de un rango de dígitos, sin crear objetos intermedios.
+     *
+     * @param digits Texto que contiene los dígitos.
+     * @param start  Posición del primer dígito, inclusive.
+     * @param end    Posición del último dígito, exclusive.
+     * @return El dígito verificador, de 0 a 9.
+     * @throws NumberFormatException Si algún carácter del rango no es un dígito.
+     */
+    public static int computeDv(CharSequence digits, int start, int end) {
+        int total = 0, k = 2;
+        for (int i = end - 1; i >= start; i--) {
+            int n = digits.charAt(i) - '0';
+            if (n < 0 || n > 9) {
+                throw new NumberFormatException("For input string: \"" + digits.charAt(i) + "\"");
+            }
             total += n * k;
-            k++;
+            k = k == 11 ? 2 : k + 1;
         }
-        return String.valueOf((total % 11) > 1 ? 11 - (total % 11) : 0);
+        int remainder = total % 11;
+        return remainder > 1 ? 11 - remainder : 0;
     }
 
+    /**
+     * Igual que {@link #computeDv(CharSequence, int, int)}, para dígitos en un arreglo de caracteres.
+     *
+     * @param digits Arreglo que contiene los dígitos.
+     * @param start  Posición del primer dígito, inclusive.
+     * @param end    Posición del último dígito, exclusive.
+     * @return El dígito verificador, de 0 a 9.
+     * @throws NumberFormatException Si algún carácter del rango no es un dígito.
+     */
+    public static int computeDv(char[] digits, int start, int end) {
+        int total = 0, k = 2;
+        for (int i = end - 1; i >= start; i--) {
+            int n = digits[i] - '0';
+            if (n < 0 || n > 9) {
+                throw new NumberFormatException("For input string: \"" + digits[i] + "\"");
+            }
+            total += n * k;
+            k = k == 11 ? 2 : k + 1;
+        }
+        int remainder = total % 11;
+        return remainder > 1 ? 11 - remainder : 0;
+    }
+
+    /**
+     * Escribe un número entero no negativo en decimal, completado con ceros a la izquierda hasta el ancho indicado. Si
+     * el número tiene más dígitos que el ancho, se conservan solo los de menor orden.
+     *
+     * @param value  Número a escribir.
+     * @param chars  Arreglo de destino.
+     * @param offset Posición del primer carácter en el destino.
+     * @param width  Cantidad de caracteres a escribir.
+     */
+    public static void writeDigits(long value, char[] chars, int offset, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    /**
+     * Genera un código de seguridad aleatorio de 9 dígitos, entre 000000001 y 999999998, con un generador seguro propio
+     * del hilo actual.
+     *
+     * @return El código de seguridad.
+     */
     public static String generateRandomNumber() {
-        return leftPad(String.valueOf(new Random().ints(1, 1, 999999999).distinct().toArray()[0]), '0', 9);
+        char[] chars = new char[9];
+        writeDigits(1 + secureRandom.get().nextInt(999999998), chars, 0, 9);
+        return new String(chars);
+    }
+
+    private static SecureRandom newSecureRandom() {
+        // Una instancia SHA1PRNG por hilo evita la sincronización global de NativePRNG, y se inicializa con una
+        // semilla del sistema en el primer uso
+        try {
+            return SecureRandom.getInstance("SHA1PRNG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
     }
 
     @SafeVarargs
@@ -136,18 +235,51 @@ public class SifenUtil {
         return paramsString.substring(0, paramsString.length() - 1);
     }
 
+    /**
+     * Comprime el XML recibido en un archivo zip, en memoria, con el nivel de compresión por defecto.
+     *
+     * @param str XML a comprimir.
+     * @return El contenido del archivo zip.
+     * @throws IOException Si ocurre un error durante la compresión.
+     */
     public static byte[] compressXmlToZip(String str) throws IOException {
-        String fileName = "DE_" + new SimpleDateFormat("ddMMyyyy").format(new Date());
-        File zip = File.createTempFile(fileName, ".zip");
-        ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip.toPath()));
-        ZipEntry entry = new ZipEntry(fileName + ".xml");
-        out.putNextEntry(entry);
+        ByteArrayOutputStream zip = new ByteArrayOutputStream(str.length() / 4 + 512);
+        try (OutputStream out = openXmlZip(zip, Deflater.DEFAULT_COMPRESSION)) {
+            out.write(str.getBytes(StandardCharsets.UTF_8));
+        }
+        return zip.toByteArray();
+    }
 
-        out.write(str.getBytes(StandardCharsets.UTF_8));
-        out.closeEntry();
-        out.close();
+    /**
+     * Abre un archivo zip con una única entrada XML, cuyo contenido se comprime a medida que se escribe en el flujo
+     * retornado, sin archivos temporales. Al cerrar el flujo se completa el zip y se cierra el flujo de destino.
+     * <p>
+     * El compresor (Deflater) se reutiliza entre los zips generados por un mismo hilo, evitando reservar y liberar su
+     * memoria nativa en cada lote.
+     *
+     * @param out              Flujo de destino del archivo zip.
+     * @param compressionLevel Nivel de compresión, de 0 a 9 (o -1 para el nivel por defecto).
+     * @return Flujo de escritura del contenido de la entrada XML.
+     * @throws IOException Si ocurre un error al escribir la cabecera del zip.
+     */
+    public static OutputStream openXmlZip(OutputStream out, int compressionLevel) throws IOException {
+        Deflater deflater = cachedDeflater.get();
+        if (deflater == null) {
+            deflater = new Deflater(compressionLevel, true);
+        } else {
+            cachedDeflater.remove(); // En uso, hasta que se cierre el zip
+            deflater.setLevel(compressionLevel);
+        }
 
-        return Files.readAllBytes(Paths.get(zip.getAbsolutePath()));
+        String fileName = "DE_" + new SimpleDateFormat("ddMMyyyy").format(new Date());
+        ZipOutputStream zip = new PooledDeflaterZipOutputStream(out, deflater);
+        try {
+            zip.putNextEntry(new ZipEntry(fileName + ".xml"));
+        } catch (IOException e) {
+            zip.close();
+            throw e;
+        }
+        return zip;
     }
 
     public static boolean isBlank(String str) {
@@ -157,4 +289,38 @@ public class SifenUtil {
     public static boolean isNotBlank(String str) {
         return str != null && !str.trim().isEmpty();
     }
-}
\ No newline at end of file
+
+    /**
+     * ZipOutputStream que utiliza un compresor reutilizable, devuelto al hilo actual al cerrarse en lugar de liberarlo.
+     */
+    private static class PooledDeflaterZipOutputStream extends ZipOutputStream {
+        private boolean released = false;
+
+        private PooledDeflaterZipOutputStream(OutputStream out, Deflater deflater) {
+            super(out);
+            this.def.end(); // Compresor creado por ZipOutputStream, reemplazado por el reutilizable
+            this.def = deflater;
+            this.buf = new byte[8192];
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (released) {
+                return;
+            }
+            released = true;
+
+            try {
+                finish();
+                out.close();
+            } finally {
+                def.reset();
+                if (cachedDeflater.get() == null) {
+                    cachedDeflater.set(def);
+                } else {
+                    def.end();
+                }
+            }
+        }
+    }
+}
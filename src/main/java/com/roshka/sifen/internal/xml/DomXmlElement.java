@@ -0,0 +1,74 @@
+package com.roshka.sifen.internal.xml;
+
+import com.roshka.sifen.core.SifenConfig;
+import com.roshka.sifen.core.exceptions.SifenException;
+import com.roshka.sifen.internal.helpers.SignatureHelper;
+import org.w3c.dom.Attr;
+
+import javax.xml.crypto.dsig.SignedInfo;
+import javax.xml.namespace.QName;
+import javax.xml.soap.SOAPElement;
+import javax.xml.soap.SOAPException;
+
+/**
+ * Implementación de {@link XmlElement} sobre un árbol DOM de SAAJ.
+ */
+public class DomXmlElement implements XmlElement {
+    private final SOAPElement element;
+
+    private DomXmlElement(SOAPElement element) {
+        this.element = element;
+    }
+
+    public static DomXmlElement of(SOAPElement element) {
+        return new DomXmlElement(element);
+    }
+
+    public SOAPElement getSOAPElement() {
+        return element;
+    }
+
+    @Override
+    public XmlElement addChildElement(String localName) throws SOAPException {
+        return new DomXmlElement(element.addChildElement(localName));
+    }
+
+    @Override
+    public XmlElement addChildElement(QName qname) throws SOAPException {
+        return new DomXmlElement(element.addChildElement(qname));
+    }
+
+    @Override
+    public void setTextContent(String textContent) {
+        element.setTextContent(textContent);
+    }
+
+    @Override
+    public void setAttribute(String name, String value) {
+        element.setAttribute(name, value);
+    }
+
+    @Override
+    public void setAttributeNS(String namespaceURI, String qualifiedName, String value) {
+        element.setAttributeNS(namespaceURI, qualifiedName, value);
+    }
+
+    @Override
+    public void addNamespaceDeclaration(String prefix, String uri) throws SOAPException {
+        element.addNamespaceDeclaration(prefix, uri);
+    }
+
+    @Override
+    public void setIdAttribute(String name) throws SOAPException {
+        Attr idAttribute = element.getAttributeNode(name);
+        if (idAttribute == null) {
+            throw new SOAPException("El elemento " + element.getLocalName() + " no contiene el atributo " + name);
+        }
+        element.setIdAttributeNode(idAttribute, true);
+    }
+
+    @Override
+    public SignedInfo signEnveloped(SifenConfig sifenConfig, String signedNodeId) throws SifenException {
+        return SignatureHelper.signDocument(sifenConfig, element, signedNodeId);
+    }
+}
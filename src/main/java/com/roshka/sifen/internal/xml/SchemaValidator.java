@@ -0,0 +1,326 @@
+package com.roshka.sifen.internal.xml;
+
+import com.roshka.sifen.core.beans.ErrorEsquema;
+import com.roshka.sifen.core.exceptions.SifenException;
+import com.roshka.sifen.internal.Constants;
+import com.roshka.sifen.internal.util.SifenExceptionUtil;
+import org.xml.sax.Attributes;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.DefaultHandler;
+import org.xml.sax.helpers.NamespaceSupport;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.ValidatorHandler;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Validador de los Documentos Electrónicos y eventos contra los esquemas oficiales v150 de Sifen, antes de enviarlos.
+ * <p>
+ * Los esquemas se compilan una sola vez, en el primer uso, y se comparten entre todos los hilos. El XML se recorre con
+ * un parser SAX, y cada elemento <i>rDE</i>, <i>gGroupGesEve</i> o <i>rGesEve</i> encontrado (por ejemplo, dentro de un
+ * mensaje SOAP) se valida contra el esquema correspondiente, sin construir un árbol DOM. Los errores indican el
+ * elemento, su ruta y su posición en el XML.
+ */
+public class SchemaValidator {
+    private final static Logger logger = Logger.getLogger(SchemaValidator.class.toString());
+
+    private final static String SCHEMA_PATH = "/com/roshka/sifen/xsd/v150/";
+    private final static String DE_SCHEMA = "ValidacionDE_v150.xsd";
+    private final static String EVENT_SCHEMA = "ValidacionEvento_v150.xsd";
+    private final static String DISALLOW_DOCTYPE_FEATURE = "http://apache.org/xml/features/disallow-doctype-decl";
+
+    // Cantidad máxima de errores informados por documento, y de errores incluidos en el mensaje de la excepción
+    private final static int MAX_ERRORS = 50;
+    private final static int MAX_ERRORS_IN_MESSAGE = 5;
+
+    private static volatile Schema deSchema;
+    private static volatile Schema eventSchema;
+
+    private final static ThreadLocal<SAXParser> saxParser = ThreadLocal.withInitial(() -> {
+        try {
+            SAXParserFactory saxParserFactory = SAXParserFactory.newInstance();
+            saxParserFactory.setNamespaceAware(true);
+            saxParserFactory.setFeature(DISALLOW_DOCTYPE_FEATURE, true);
+            return saxParserFactory.newSAXParser();
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IllegalStateException("No se pudo crear el parser SAX", e);
+        }
+    });
+
+    // Los validadores no son thread-safe, pero pueden ser reutilizados por el mismo hilo
+    private final static ThreadLocal<ValidatorHandler> deValidator = ThreadLocal.withInitial(() -> getDESchema().newValidatorHandler());
+    private final static ThreadLocal<ValidatorHandler> eventValidator = ThreadLocal.withInitial(() -> getEventSchema().newValidatorHandler());
+
+    /**
+     * Valida todos los Documentos Electrónicos y eventos del XML.
+     *
+     * @param xml Contenido del XML.
+     * @return Los errores encontrados, vacío si el XML es válido. Si el XML no contiene ningún Documento Electrónico
+     * ni evento, se retorna un error indicándolo.
+     */
+    public static List<ErrorEsquema> validate(InputSource xml) {
+        ValidationHandler handler = new ValidationHandler();
+        try {
+            SAXParser parser = saxParser.get();
+            parser.reset();
+            parser.parse(xml, handler);
+        } catch (TooManyErrorsException ignored) {
+        } catch (SAXParseException e) {
+            // XML mal formado
+            handler.addError(null, e.getLineNumber(), e.getColumnNumber(), e.getMessage());
+        } catch (SAXException | IOException e) {
+            handler.addError(null, -1, -1, e.getMessage());
+        } finally {
+            handler.release();
+        }
+
+        if (handler.validated == 0 && handler.errors.isEmpty()) {
+            handler.addError(null, -1, -1, "No se encontró ningún Documento Electrónico (rDE) ni evento (gGroupGesEve o rGesEve) para validar.");
+        }
+        return handler.errors;
+    }
+
+    /**
+     * Valida todos los Documentos Electrónicos y eventos del XML, lanzando una excepción si alguno no es válido.
+     *
+     * @param xml    Arreglo con el contenido del XML, en UTF-8.
+     * @param offset Posición inicial del contenido.
+     * @param length Cantidad de bytes del contenido.
+     * @throws SifenException Si el XML no cumple con los esquemas, con los primeros errores encontrados.
+     */
+    public static void check(byte[] xml, int offset, int length) throws SifenException {
+        List<ErrorEsquema> errors = validate(new InputSource(new ByteArrayInputStream(xml, offset, length)));
+        if (errors.isEmpty()) {
+            return;
+        }
+
+        StringBuilder message = new StringBuilder("El XML no cumple con el esquema v150 de Sifen: ");
+        for (int i = 0; i < Math.min(errors.size(), MAX_ERRORS_IN_MESSAGE); i++) {
+            message.append(i > 0 ? "; " : "").append(errors.get(i));
+        }
+        if (errors.size() > MAX_ERRORS_IN_MESSAGE) {
+            message.append("; y ").append(errors.size() - MAX_ERRORS_IN_MESSAGE).append(" errores más");
+        }
+        throw SifenExceptionUtil.invalidSchemaError(message.toString());
+    }
+
+    /**
+     * Compila los esquemas, si aún no fueron compilados, para no demorar la primera validación.
+     */
+    public static void preload() {
+        getDESchema();
+        getEventSchema();
+    }
+
+    private static Schema getDESchema() {
+        Schema schema = deSchema;
+        if (schema == null) {
+            synchronized (SchemaValidator.class) {
+                schema = deSchema;
+                if (schema == null) {
+                    schema = compile(DE_SCHEMA);
+                    deSchema = schema;
+                }
+            }
+        }
+        return schema;
+    }
+
+    private static Schema getEventSchema() {
+        Schema schema = eventSchema;
+        if (schema == null) {
+            synchronized (SchemaValidator.class) {
+                schema = eventSchema;
+                if (schema == null) {
+                    schema = compile(EVENT_SCHEMA);
+                    eventSchema = schema;
+                }
+            }
+        }
+        return schema;
+    }
+
+    private static Schema compile(String name) {
+        logger.info("Compilando el esquema " + name);
+        URL url = SchemaValidator.class.getResource(SCHEMA_PATH + name);
+        if (url == null) {
+            throw new IllegalStateException("No se encontró el esquema " + name + " en el classpath");
+        }
+
+        try {
+            // Los esquemas incluidos se resuelven en forma relativa, desde el mismo directorio del classpath
+            return SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI).newSchema(new StreamSource(url.toExternalForm()));
+        } catch (SAXException e) {
+            throw new IllegalStateException("No se pudo compilar el esquema " + name, e);
+        }
+    }
+
+    /*
+     * Recorre el XML y reenvía los eventos de cada elemento raíz de Sifen (y de sus descendientes) al validador del
+     * esquema correspondiente.
+     */
+    private static class ValidationHandler extends DefaultHandler {
+        private final List<ErrorEsquema> errors = new ArrayList<>();
+        private final List<String> path = new ArrayList<>();
+        private final NamespaceSupport namespaces = new NamespaceSupport();
+        private boolean pendingContext = false;
+        private Locator locator;
+
+        private ValidatorHandler validator;
+        private int validatorDepth;
+        private int validated;
+
+        @Override
+        public void setDocumentLocator(Locator locator) {
+            this.locator = locator;
+        }
+
+        @Override
+        public void startPrefixMapping(String prefix, String uri) throws SAXException {
+            if (!pendingContext) {
+                namespaces.pushContext();
+                pendingContext = true;
+            }
+            namespaces.declarePrefix(prefix, uri);
+            if (validator != null) {
+                validator.startPrefixMapping(prefix, uri);
+            }
+        }
+
+        @Override
+        public void endPrefixMapping(String prefix) throws SAXException {
+            if (validator != null) {
+                validator.endPrefixMapping(prefix);
+            }
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+            if (!pendingContext) {
+                namespaces.pushContext();
+            }
+            pendingContext = false;
+            path.add(localName);
+
+            if (validator == null && Constants.SIFEN_NS_URI.equals(uri)) {
+                if (localName.equals("rDE")) {
+                    this.startValidation(deValidator.get());
+                } else if (localName.equals("gGroupGesEve") || localName.equals("rGesEve")) {
+                    this.startValidation(eventValidator.get());
+                }
+            }
+
+            if (validator != null) {
+                validator.startElement(uri, localName, qName, attributes);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            if (validator != null) {
+                validator.endElement(uri, localName, qName);
+                if (path.size() == validatorDepth) {
+                    validator.endDocument();
+                    this.release();
+                }
+            }
+
+            path.remove(path.size() - 1);
+            namespaces.popContext();
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) throws SAXException {
+            if (validator != null) {
+                validator.characters(ch, start, length);
+            }
+        }
+
+        @Override
+        public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+            if (validator != null) {
+                validator.ignorableWhitespace(ch, start, length);
+            }
+        }
+
+        // Errores del validador; los errores del parser (XML mal formado) terminan el recorrido
+        private final ErrorHandler validationErrors = new ErrorHandler() {
+            @Override
+            public void warning(SAXParseException exception) {
+            }
+
+            @Override
+            public void error(SAXParseException exception) throws SAXException {
+                addError(path.get(path.size() - 1), exception.getLineNumber(), exception.getColumnNumber(), exception.getMessage());
+                if (errors.size() >= MAX_ERRORS) {
+                    throw new TooManyErrorsException();
+                }
+            }
+
+            @Override
+            public void fatalError(SAXParseException exception) throws SAXException {
+                this.error(exception);
+            }
+        };
+
+        private void startValidation(ValidatorHandler validatorHandler) throws SAXException {
+            validator = validatorHandler;
+            validatorDepth = path.size();
+            validated++;
+
+            validator.setErrorHandler(validationErrors);
+            validator.setContentHandler(null);
+            validator.setDocumentLocator(locator);
+            validator.startDocument();
+
+            // Los prefijos declarados en los ancestros (por ejemplo, en el sobre SOAP) siguen vigentes
+            for (Enumeration<?> prefixes = namespaces.getPrefixes(); prefixes.hasMoreElements(); ) {
+                String prefix = (String) prefixes.nextElement();
+                validator.startPrefixMapping(prefix, namespaces.getURI(prefix));
+            }
+            String defaultNamespace = namespaces.getURI("");
+            if (defaultNamespace != null) {
+                validator.startPrefixMapping("", defaultNamespace);
+            }
+        }
+
+        private void addError(String field, int line, int column, String message) {
+            String route = field != null ? String.join("/", path.subList(Math.max(validatorDepth - 1, 0), path.size())) : null;
+            errors.add(new ErrorEsquema(field, route, line, column, message));
+        }
+
+        private void release() {
+            if (validator != null) {
+                validator.setErrorHandler(null);
+                validator = null;
+            }
+        }
+    }
+
+    /*
+     * Detiene el recorrido del XML al alcanzar la cantidad máxima de errores.
+     */
+    private static class TooManyErrorsException extends SAXException {
+        private static final long serialVersionUID = 1L;
+
+        private TooManyErrorsException() {
+            super("Se alcanzó la cantidad máxima de errores", null);
+        }
+    }
+}
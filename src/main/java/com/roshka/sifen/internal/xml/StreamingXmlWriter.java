@@ -0,0 +1,875 @@
+package com.roshka.sifen.internal.xml;
+
+import com.roshka.sifen.core.SifenConfig;
+import com.roshka.sifen.core.exceptions.SifenException;
+import com.roshka.sifen.internal.helpers.SignatureHelper;
+import com.roshka.sifen.internal.util.SifenExceptionUtil;
+import com.roshka.sifen.internal.util.SifenUtil;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import javax.xml.XMLConstants;
+import javax.xml.crypto.dsig.SignedInfo;
+import javax.xml.namespace.QName;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.soap.SOAPException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Escritor de XML en streaming: cada elemento se escribe en el flujo de salida a medida que se agrega, sin construir
+ * un árbol DOM. La salida es idéntica, byte a byte, a la que se obtiene al construir el mismo documento con SAAJ y
+ * serializarlo con el Transformer del JDK (incluyendo el escape de caracteres y los elementos vacíos).
+ * <p>
+ * Los elementos se escriben en orden de documento: al agregar un hijo (o contenido) a un elemento se cierran todos
+ * los elementos abiertos por debajo de él, y un elemento cerrado ya no puede modificarse. Los atributos y
+ * declaraciones de espacios de nombres deben establecerse antes que el contenido.
+ * <p>
+ * Para la firma envolvente, se calcula el digest SHA-256 de la forma canónica (C14N exclusiva) del elemento marcado
+ * con {@link XmlElement#setIdAttribute(String)} mientras este se escribe, de forma que la firma no necesita volver a
+ * recorrer el documento.
+ */
+public class StreamingXmlWriter {
+    private final static String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>";
+    private final static String XML_DECLARATION_DOCUMENT = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>";
+    private final static String DIGEST_ALGORITHM = "SHA-256";
+
+    // El serializador del JDK escribe los saltos de línea del contenido de texto con el separador de la plataforma
+    private final static String LINE_SEPARATOR = System.getProperty("line.separator");
+
+    private final static ThreadLocal<DocumentBuilder> documentBuilder = ThreadLocal.withInitial(() -> {
+        try {
+            DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
+            documentBuilderFactory.setNamespaceAware(true);
+            return documentBuilderFactory.newDocumentBuilder();
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("No se pudo crear el constructor de documentos DOM", e);
+        }
+    });
+
+    private final static Comparator<Attribute> CANONICAL_ATTRIBUTE_ORDER =
+            Comparator.comparing((Attribute attribute) -> attribute.namespaceURI).thenComparing(attribute -> attribute.localName);
+
+    private final OutputStream outputStream;
+    private final Utf8Output out;
+    private final List<StreamingElement> openElements = new ArrayList<>();
+    private final Map<String, byte[]> digests = new HashMap<>();
+    private boolean rootCreated = false;
+
+    // Estado del digest del elemento identificado que se está escribiendo
+    private MessageDigest messageDigest;
+    private Utf8Output canonical;
+    private StreamingElement digestRoot;
+
+    /**
+     * @param outputStream Flujo en el que se escribe el XML, codificado en UTF-8. No es cerrado por el escritor.
+     */
+    public StreamingXmlWriter(OutputStream outputStream) {
+        this.outputStream = outputStream;
+        this.out = new Utf8Output(outputStream);
+    }
+
+    /**
+     * Escribe la declaración XML, tal como la escribe el Transformer del JDK.
+     *
+     * @param document Si se serializa un documento completo (el Transformer agrega standalone="no") o solamente un
+     *                 elemento.
+     * @throws IOException Si ocurre un error de escritura.
+     */
+    public void writeXmlDeclaration(boolean document) throws IOException {
+        out.writeRaw(document ? XML_DECLARATION_DOCUMENT : XML_DECLARATION);
+    }
+
+    /**
+     * Crea el elemento raíz del documento, sin espacio de nombres.
+     *
+     * @param localName Nombre del elemento.
+     * @return El elemento raíz.
+     */
+    public XmlElement createRootElement(String localName) {
+        return createRootElement(new QName(localName));
+    }
+
+    /**
+     * Crea el elemento raíz del documento, declarando su espacio de nombres si es necesario.
+     *
+     * @param qname Nombre calificado del elemento.
+     * @return El elemento raíz.
+     */
+    public XmlElement createRootElement(QName qname) {
+        return createRoot(qname, false);
+    }
+
+    /**
+     * Crea un elemento raíz cuyas etiquetas no se escriben, de forma que la salida contiene únicamente sus hijos. Permite
+     * generar por separado fragmentos de un documento (ej.: cada DE de un lote), idénticos a los que se obtendrían al
+     * escribirlos dentro del elemento indicado, sin espacio de nombres.
+     *
+     * @param localName Nombre del elemento padre de los fragmentos.
+     * @return El elemento raíz, al que se deben agregar los fragmentos.
+     */
+    public XmlElement createFragmentRoot(String localName) {
+        return createRoot(new QName(localName), true);
+    }
+
+    private XmlElement createRoot(QName qname, boolean fragment) {
+        if (rootCreated) {
+            throw new IllegalStateException("El elemento raíz del documento ya fue creado.");
+        }
+        rootCreated = true;
+
+        StreamingElement root = new StreamingElement(null, qname.getPrefix(), qname.getLocalPart());
+        root.ensureNamespaceDeclared(qname.getPrefix(), qname.getNamespaceURI());
+        root.fragment = fragment;
+        openElements.add(root);
+        return root;
+    }
+
+    /**
+     * Cierra todos los elementos abiertos y vacía el buffer de escritura. El flujo de salida no es cerrado.
+     *
+     * @throws IOException Si ocurre un error de escritura.
+     */
+    public void finish() throws IOException {
+        while (!openElements.isEmpty()) {
+            closeElement(openElements.get(openElements.size() - 1));
+        }
+        out.flush();
+    }
+
+    /**
+     * @param id Valor del atributo identificador del elemento.
+     * @return El digest SHA-256 de la forma canónica (C14N exclusiva) del elemento identificado, o <strong>null</strong>
+     * si el elemento no existe o aún no fue cerrado.
+     */
+    public byte[] getDigest(String id) {
+        byte[] digest = digests.get(id);
+        return digest == null ? null : digest.clone();
+    }
+
+    /**
+     * Abre un flujo para escribir directamente el contenido de texto del elemento, sin pasar por un String. Solo admite
+     * caracteres ASCII que no requieren escape (ej.: contenido codificado en Base64). El flujo debe cerrarse antes de
+     * continuar con el documento; su cierre no cierra el flujo de salida del escritor.
+     *
+     * @param element Elemento de este escritor, que aún no tiene hijos.
+     * @return Flujo de escritura del contenido de texto del elemento.
+     * @throws SOAPException Si el elemento no pertenece al escritor, ya fue cerrado o ya tiene hijos.
+     */
+    public OutputStream openTextContent(XmlElement element) throws SOAPException {
+        if (!(element instanceof StreamingElement) || ((StreamingElement) element).writer() != this) {
+            throw new SOAPException("El elemento no pertenece a este escritor.");
+        }
+
+        StreamingElement streamingElement = (StreamingElement) element;
+        streamingElement.ensureOpen();
+        if (streamingElement.hasChildren) {
+            throw new SOAPException("El contenido de texto del elemento " + streamingElement.qualifiedName + " debe establecerse antes que sus hijos.");
+        }
+        try {
+            streamingElement.startContent();
+        } catch (IOException e) {
+            throw writeError(e);
+        }
+        return new TextContentOutputStream(streamingElement);
+    }
+
+    /**
+     * Escribe como contenido del elemento un fragmento XML ya serializado en UTF-8 (ej.: un DE firmado previamente),
+     * sin verificarlo ni escaparlo. El fragmento debe ser válido en el contexto del elemento, incluyendo sus espacios de
+     * nombres, y no puede formar parte de un elemento identificado para la firma.
+     *
+     * @param element Elemento de este escritor, que aún no tiene hijos.
+     * @param markup  Fragmento XML a escribir.
+     * @throws SOAPException Si el elemento no pertenece al escritor, ya fue cerrado, ya tiene hijos o es parte de un
+     *                       elemento identificado, o si ocurre un error de escritura.
+     */
+    public void writeMarkup(XmlElement element, byte[] markup) throws SOAPException {
+        if (!(element instanceof StreamingElement) || ((StreamingElement) element).writer() != this) {
+            throw new SOAPException("El elemento no pertenece a este escritor.");
+        }
+
+        StreamingElement streamingElement = (StreamingElement) element;
+        streamingElement.ensureOpen();
+        if (streamingElement.hasChildren || digestRoot != null) {
+            throw new SOAPException("No se puede escribir un fragmento XML en el elemento " + streamingElement.qualifiedName + ".");
+        }
+        try {
+            streamingElement.startContent();
+            out.writeAscii(markup, 0, markup.length);
+        } catch (IOException e) {
+            throw writeError(e);
+        }
+        streamingElement.hasChildren = true;
+    }
+
+    private void closeElement(StreamingElement element) throws IOException {
+        if (element.fragment) {
+            element.started = true;
+        } else if (!element.started) {
+            writeStartTag(element, true);
+        } else {
+            out.writeRaw("</");
+            out.writeRaw(element.qualifiedName);
+            out.write('>');
+            if (digestRoot != null) {
+                writeCanonicalEndTag(element);
+            }
+        }
+
+        element.closed = true;
+        openElements.remove(openElements.size() - 1);
+        if (element == digestRoot) {
+            finishDigest();
+        }
+    }
+
+    private void writeStartTag(StreamingElement element, boolean empty) throws IOException {
+        if (element.fragment) {
+            element.started = true;
+            return;
+        }
+        if (digestRoot == null && element.idValue != null) {
+            beginDigest(element);
+        }
+
+        out.write('<');
+        out.writeRaw(element.qualifiedName);
+
+        // Al igual que en el árbol DOM, las declaraciones y los atributos se ordenan por nombre calificado
+        for (Map.Entry<String, String> namespace : element.sortedNamespaces().entrySet()) {
+            String inherited = element.parent == null ? defaultNamespace(namespace.getKey()) : element.parent.lookupNamespace(namespace.getKey());
+            if (namespace.getValue().equals(inherited)) {
+                continue; // Declaración redundante, el serializador no la escribe
+            }
+            out.writeRaw(namespace.getKey().isEmpty() ? " xmlns" : " xmlns:" + namespace.getKey());
+            out.writeRaw("=\"");
+            writeAttributeValue(out, namespace.getValue());
+            out.write('"');
+        }
+        if (element.attributes != null) {
+            List<Attribute> attributes = new ArrayList<>(element.attributes);
+            attributes.sort(Comparator.comparing(attribute -> attribute.qualifiedName));
+            for (Attribute attribute : attributes) {
+                out.write(' ');
+                out.writeRaw(attribute.qualifiedName);
+                out.writeRaw("=\"");
+                writeAttributeValue(out, attribute.value);
+                out.write('"');
+            }
+        }
+        out.writeRaw(empty ? "/>" : ">");
+        element.started = true;
+
+        if (digestRoot != null) {
+            writeCanonicalStartTag(element);
+            if (empty) {
+                writeCanonicalEndTag(element);
+            }
+        }
+    }
+
+    private void writeText(String text) throws IOException {
+        writeTextValue(out, text);
+        if (digestRoot != null) {
+            writeCanonicalText(canonical, text);
+        }
+    }
+
+    // --- Forma canónica (C14N exclusiva, sin comentarios) ---
+
+    private void beginDigest(StreamingElement element) throws IOException {
+        try {
+            if (messageDigest == null) {
+                messageDigest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+                canonical = new Utf8Output(new DigestOutputStream(messageDigest));
+            } else {
+                messageDigest.reset();
+            }
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("Algoritmo de digest no disponible: " + DIGEST_ALGORITHM, e);
+        }
+        digestRoot = element;
+    }
+
+    private void finishDigest() throws IOException {
+        canonical.flush();
+        digests.put(digestRoot.idValue, messageDigest.digest());
+        digestRoot = null;
+    }
+
+    private void writeCanonicalStartTag(StreamingElement element) throws IOException {
+        // Solo se escriben los espacios de nombres utilizados visiblemente por el elemento o sus atributos, que no
+        // hayan sido escritos ya por un ancestro con el mismo valor
+        Map<String, String> inherited = element == digestRoot || element.parent == null
+                ? Collections.emptyMap()
+                : element.parent.canonicalNamespaces;
+
+        TreeMap<String, String> rendered = new TreeMap<>();
+        addCanonicalNamespace(element, element.prefix, inherited, rendered);
+        if (element.attributes != null) {
+            for (Attribute attribute : element.attributes) {
+                addCanonicalNamespace(element, attribute.prefix, inherited, rendered);
+            }
+        }
+
+        if (rendered.isEmpty()) {
+            element.canonicalNamespaces = inherited;
+        } else {
+            element.canonicalNamespaces = new HashMap<>(inherited);
+            element.canonicalNamespaces.putAll(rendered);
+        }
+
+        canonical.write('<');
+        canonical.writeRaw(element.qualifiedName);
+        for (Map.Entry<String, String> namespace : rendered.entrySet()) {
+            canonical.writeRaw(namespace.getKey().isEmpty() ? " xmlns" : " xmlns:" + namespace.getKey());
+            canonical.writeRaw("=\"");
+            writeCanonicalAttributeValue(canonical, namespace.getValue());
+            canonical.write('"');
+        }
+        if (element.attributes != null) {
+            List<Attribute> attributes = new ArrayList<>(element.attributes);
+            attributes.sort(CANONICAL_ATTRIBUTE_ORDER);
+            for (Attribute attribute : attributes) {
+                canonical.write(' ');
+                canonical.writeRaw(attribute.qualifiedName);
+                canonical.writeRaw("=\"");
+                writeCanonicalAttributeValue(canonical, attribute.value);
+                canonical.write('"');
+            }
+        }
+        canonical.write('>');
+    }
+
+    private void addCanonicalNamespace(StreamingElement element, String prefix, Map<String, String> inherited,
+                                       Map<String, String> rendered) {
+        if (prefix == null || XMLConstants.XML_NS_PREFIX.equals(prefix)) {
+            return;
+        }
+
+        String uri = element.lookupNamespace(prefix);
+        if (uri == null) {
+            uri = "";
+        }
+        String renderedUri = inherited.get(prefix);
+        if (!uri.equals(renderedUri == null ? "" : renderedUri)) {
+            rendered.put(prefix, uri);
+        }
+    }
+
+    private void writeCanonicalEndTag(StreamingElement element) throws IOException {
+        canonical.writeRaw("</");
+        canonical.writeRaw(element.qualifiedName);
+        canonical.write('>');
+    }
+
+    // --- Escape de caracteres ---
+
+    /*
+     * Reglas del serializador del JDK (8 a 17) para el contenido de texto: los caracteres de control, los del rango
+     * C1 y los que están fuera del plano multilingüe básico se escriben como referencias numéricas.
+     */
+    private static void writeTextValue(Utf8Output out, String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&':
+                    out.writeRaw("&amp;");
+                    break;
+                case '<':
+                    out.writeRaw("&lt;");
+                    break;
+                case '>':
+                    out.writeRaw("&gt;");
+                    break;
+                case '\n':
+                    out.writeRaw(LINE_SEPARATOR);
+                    break;
+                case '\t':
+                    out.write(c);
+                    break;
+                default:
+                    if (c < 0x20 || (c >= 0x7F && c <= 0x9F)) {
+                        writeCharacterReference(out, c);
+                    } else if (Character.isSurrogate(c)) {
+                        writeCharacterReference(out, codePointAt(text, i++));
+                    } else {
+                        out.write(c);
+                    }
+            }
+        }
+    }
+
+    private static void writeAttributeValue(Utf8Output out, String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&':
+                    out.writeRaw("&amp;");
+                    break;
+                case '<':
+                    out.writeRaw("&lt;");
+                    break;
+                case '>':
+                    out.writeRaw("&gt;");
+                    break;
+                case '"':
+                    out.writeRaw("&quot;");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        writeCharacterReference(out, c);
+                    } else if (Character.isSurrogate(c)) {
+                        writeCharacterReference(out, codePointAt(value, i++));
+                    } else {
+                        out.write(c);
+                    }
+            }
+        }
+    }
+
+    private static void writeCanonicalText(Utf8Output out, String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&':
+                    out.writeRaw("&amp;");
+                    break;
+                case '<':
+                    out.writeRaw("&lt;");
+                    break;
+                case '>':
+                    out.writeRaw("&gt;");
+                    break;
+                case '\r':
+                    out.writeRaw("&#xD;");
+                    break;
+                default:
+                    if (Character.isSurrogate(c)) {
+                        out.writeCodePoint(codePointAt(text, i++));
+                    } else {
+                        out.write(c);
+                    }
+            }
+        }
+    }
+
+    private static void writeCanonicalAttributeValue(Utf8Output out, String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&':
+                    out.writeRaw("&amp;");
+                    break;
+                case '<':
+                    out.writeRaw("&lt;");
+                    break;
+                case '"':
+                    out.writeRaw("&quot;");
+                    break;
+                case '\t':
+                    out.writeRaw("&#x9;");
+                    break;
+                case '\n':
+                    out.writeRaw("&#xA;");
+                    break;
+                case '\r':
+                    out.writeRaw("&#xD;");
+                    break;
+                default:
+                    if (Character.isSurrogate(c)) {
+                        out.writeCodePoint(codePointAt(value, i++));
+                    } else {
+                        out.write(c);
+                    }
+            }
+        }
+    }
+
+    private static void writeCharacterReference(Utf8Output out, int codePoint) throws IOException {
+        out.writeRaw("&#");
+        out.writeRaw(Integer.toString(codePoint));
+        out.write(';');
+    }
+
+    private static int codePointAt(String text, int index) throws IOException {
+        char high = text.charAt(index);
+        if (Character.isHighSurrogate(high) && index + 1 < text.length() && Character.isLowSurrogate(text.charAt(index + 1))) {
+            return Character.toCodePoint(high, text.charAt(index + 1));
+        }
+        throw new IOException("Se encontró un carácter UTF-16 inválido (0x" + Integer.toHexString(high) + ") en el contenido del XML.");
+    }
+
+    private static String defaultNamespace(String prefix) {
+        if (prefix.isEmpty()) {
+            return "";
+        }
+        return XMLConstants.XML_NS_PREFIX.equals(prefix) ? XMLConstants.XML_NS_URI : null;
+    }
+
+    private static SOAPException writeError(IOException e) {
+        return new SOAPException("Ocurrió un error al escribir el XML: " + e.getMessage(), e);
+    }
+
+    private static class Attribute {
+        private final String qualifiedName;
+        private final String prefix;
+        private final String localName;
+        private final String namespaceURI;
+        private final String value;
+
+        private Attribute(String namespaceURI, String qualifiedName, String value) {
+            int colon = qualifiedName.indexOf(':');
+            this.qualifiedName = qualifiedName;
+            this.prefix = colon > 0 ? qualifiedName.substring(0, colon) : null;
+            this.localName = colon > 0 ? qualifiedName.substring(colon + 1) : qualifiedName;
+            this.namespaceURI = namespaceURI == null ? "" : namespaceURI;
+            this.value = value == null ? "" : value;
+        }
+    }
+
+    private final class StreamingElement implements XmlElement {
+        private final StreamingElement parent;
+        private final String prefix;
+        private final String qualifiedName;
+        private Map<String, String> namespaces;
+        private List<Attribute> attributes;
+        private Map<String, String> canonicalNamespaces;
+        private String idValue;
+
+        private boolean started = false;
+        private boolean hasChildren = false;
+        private boolean closed = false;
+        private boolean fragment = false;
+
+        private StreamingElement(StreamingElement parent, String prefix, String localName) {
+            this.parent = parent;
+            this.prefix = prefix == null ? "" : prefix;
+            this.qualifiedName = this.prefix.isEmpty() ? localName : this.prefix + ":" + localName;
+        }
+
+        @Override
+        public XmlElement addChildElement(String localName) throws SOAPException {
+            String namespaceURI = lookupNamespace("");
+            return addChild("", localName, namespaceURI == null ? "" : namespaceURI);
+        }
+
+        @Override
+        public XmlElement addChildElement(QName qname) throws SOAPException {
+            return addChild(qname.getPrefix(), qname.getLocalPart(), qname.getNamespaceURI());
+        }
+
+        private XmlElement addChild(String prefix, String localName, String namespaceURI) throws SOAPException {
+            try {
+                startContent();
+            } catch (IOException e) {
+                throw writeError(e);
+            }
+
+            StreamingElement child = new StreamingElement(this, prefix, localName);
+            child.ensureNamespaceDeclared(child.prefix, namespaceURI);
+            hasChildren = true;
+            openElements.add(child);
+            return child;
+        }
+
+        @Override
+        public void setTextContent(String textContent) throws SOAPException {
+            ensureOpen();
+            if (hasChildren) {
+                // En el árbol DOM el texto reemplazaría a los hijos, que ya fueron escritos
+                throw new SOAPException("El contenido de texto del elemento " + qualifiedName + " debe establecerse antes que sus hijos.");
+            }
+            if (textContent == null || textContent.isEmpty()) {
+                return;
+            }
+
+            try {
+                startContent();
+                writeText(textContent);
+            } catch (IOException e) {
+                throw writeError(e);
+            }
+        }
+
+        @Override
+        public void setAttribute(String name, String value) throws SOAPException {
+            putAttribute(new Attribute(null, name, value));
+        }
+
+        @Override
+        public void setAttributeNS(String namespaceURI, String qualifiedName, String value) throws SOAPException {
+            Attribute attribute = new Attribute(namespaceURI, qualifiedName, value);
+            putAttribute(attribute);
+            if (attribute.prefix != null) {
+                ensureNamespaceDeclared(attribute.prefix, attribute.namespaceURI);
+            }
+        }
+
+        @Override
+        public void addNamespaceDeclaration(String prefix, String uri) throws SOAPException {
+            ensureNotStarted();
+            declareNamespace(prefix, uri);
+        }
+
+        @Override
+        public void setIdAttribute(String name) throws SOAPException {
+            ensureNotStarted();
+            if (attributes != null) {
+                for (Attribute attribute : attributes) {
+                    if (attribute.qualifiedName.equals(name)) {
+                        idValue = attribute.value;
+                        return;
+                    }
+                }
+            }
+            throw new SOAPException("El elemento " + qualifiedName + " no contiene el atributo " + name);
+        }
+
+        @Override
+        public SignedInfo signEnveloped(SifenConfig sifenConfig, String signedNodeId) throws SifenException {
+            try {
+                // Se cierra el elemento firmado (y cualquier otro hijo abierto), completando su digest
+                startContent();
+            } catch (SOAPException | IOException e) {
+                throw SifenExceptionUtil.requestPreparationError("Ocurrió un error al escribir el XML", e);
+            }
+
+            byte[] digest = digests.get(signedNodeId);
+            if (digest == null) {
+                throw SifenExceptionUtil.requestSigningError("No se encontró el elemento con Id " + signedNodeId
+                        + ", que debe ser escrito antes de la firma.", null);
+            }
+
+            // La firma se genera sobre un árbol DOM mínimo, con el digest ya calculado, y se serializa en el flujo
+            Document document = documentBuilder.get().newDocument();
+            Element signatureParent = document.createElementNS(null, qualifiedName);
+            document.appendChild(signatureParent);
+            SignedInfo signedInfo = SignatureHelper.signDigest(sifenConfig, signatureParent, signedNodeId, digest);
+
+            try {
+                out.flush();
+                Transformer transformer = SifenUtil.newTransformer();
+                transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+                transformer.transform(new DOMSource(signatureParent.getLastChild()), new StreamResult(outputStream));
+            } catch (IOException | TransformerException e) {
+                throw SifenExceptionUtil.requestSigningError("Ocurrió un error al escribir la firma digital del XML", e);
+            }
+            return signedInfo;
+        }
+
+        /*
+         * Cierra los hijos abiertos y escribe la etiqueta de inicio, si aún no fue escrita.
+         */
+        private void startContent() throws SOAPException, IOException {
+            ensureOpen();
+            while (openElements.get(openElements.size() - 1) != this) {
+                closeElement(openElements.get(openElements.size() - 1));
+            }
+            if (!started) {
+                writeStartTag(this, false);
+            }
+        }
+
+        private StreamingXmlWriter writer() {
+            return StreamingXmlWriter.this;
+        }
+
+        private void ensureOpen() throws SOAPException {
+            if (closed) {
+                throw new SOAPException("El elemento " + qualifiedName + " ya fue escrito por completo y no puede modificarse.");
+            }
+        }
+
+        private void ensureNotStarted() throws SOAPException {
+            ensureOpen();
+            if (started) {
+                throw new SOAPException("Los atributos del elemento " + qualifiedName + " deben establecerse antes que su contenido.");
+            }
+        }
+
+        private void putAttribute(Attribute attribute) throws SOAPException {
+            ensureNotStarted();
+            if (attributes == null) {
+                attributes = new ArrayList<>(2);
+            }
+            attributes.removeIf(existing -> existing.qualifiedName.equals(attribute.qualifiedName));
+            attributes.add(attribute);
+        }
+
+        private void ensureNamespaceDeclared(String prefix, String uri) {
+            String namespaceURI = uri == null ? "" : uri;
+            if (!namespaceURI.equals(lookupNamespace(prefix))) {
+                declareNamespace(prefix, namespaceURI);
+            }
+        }
+
+        private void declareNamespace(String prefix, String uri) {
+            if (namespaces == null) {
+                namespaces = new HashMap<>(2);
+            }
+            namespaces.put(prefix == null ? "" : prefix, uri == null ? "" : uri);
+        }
+
+        private String lookupNamespace(String prefix) {
+            for (StreamingElement element = this; element != null; element = element.parent) {
+                if (element.namespaces != null && element.namespaces.containsKey(prefix)) {
+                    return element.namespaces.get(prefix);
+                }
+            }
+            return defaultNamespace(prefix);
+        }
+
+        private Map<String, String> sortedNamespaces() {
+            return namespaces == null ? Collections.emptyMap() : new TreeMap<>(namespaces);
+        }
+    }
+
+    /**
+     * Flujo del contenido de texto de un elemento, escrito sin escape en la salida (y en la forma canónica, si el
+     * elemento forma parte de uno identificado).
+     */
+    private final class TextContentOutputStream extends OutputStream {
+        private final StreamingElement element;
+        private boolean closed = false;
+
+        private TextContentOutputStream(StreamingElement element) {
+            this.element = element;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (closed || element.closed || openElements.get(openElements.size() - 1) != element) {
+                throw new IOException("El contenido del elemento " + element.qualifiedName + " ya no puede escribirse.");
+            }
+            for (int i = off; i < off + len; i++) {
+                byte c = b[i];
+                if (c < 0x20 || c == 0x7F || c == '&' || c == '<' || c == '>') {
+                    // Incluye los bytes negativos, que no son ASCII
+                    throw new IOException("El contenido de texto directo solo admite caracteres ASCII que no requieren escape.");
+                }
+            }
+
+            out.writeAscii(b, off, len);
+            if (digestRoot != null) {
+                canonical.writeAscii(b, off, len);
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    /**
+     * Buffer de escritura que codifica los caracteres en UTF-8.
+     */
+    private static class Utf8Output {
+        private final OutputStream outputStream;
+        private final byte[] buffer = new byte[8192];
+        private int count = 0;
+
+        private Utf8Output(OutputStream outputStream) {
+            this.outputStream = outputStream;
+        }
+
+        private void write(char c) throws IOException {
+            if (count + 3 > buffer.length) {
+                flush();
+            }
+            if (c < 0x80) {
+                buffer[count++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[count++] = (byte) (0xC0 | (c >> 6));
+                buffer[count++] = (byte) (0x80 | (c & 0x3F));
+            } else {
+                buffer[count++] = (byte) (0xE0 | (c >> 12));
+                buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[count++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+
+        private void writeCodePoint(int codePoint) throws IOException {
+            if (count + 4 > buffer.length) {
+                flush();
+            }
+            buffer[count++] = (byte) (0xF0 | (codePoint >> 18));
+            buffer[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            buffer[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            buffer[count++] = (byte) (0x80 | (codePoint & 0x3F));
+        }
+
+        /*
+         * Escribe texto que no requiere escape (nombres, marcado y referencias), que no contiene pares sustitutos.
+         */
+        private void writeRaw(String text) throws IOException {
+            for (int i = 0; i < text.length(); i++) {
+                write(text.charAt(i));
+            }
+        }
+
+        private void writeAscii(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (count == buffer.length) {
+                    flush();
+                }
+                int chunk = Math.min(len, buffer.length - count);
+                System.arraycopy(b, off, buffer, count, chunk);
+                count += chunk;
+                off += chunk;
+                len -= chunk;
+            }
+        }
+
+        private void flush() throws IOException {
+            if (count > 0) {
+                outputStream.write(buffer, 0, count);
+                count = 0;
+            }
+        }
+    }
+
+    /**
+     * Flujo que actualiza un digest con todos los bytes recibidos.
+     */
+    private static class DigestOutputStream extends OutputStream {
+        private final MessageDigest messageDigest;
+
+        private DigestOutputStream(MessageDigest messageDigest) {
+            this.messageDigest = messageDigest;
+        }
+
+        @Override
+        public void write(int b) {
+            messageDigest.update((byte) b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            messageDigest.update(b, off, len);
+        }
+    }
+}
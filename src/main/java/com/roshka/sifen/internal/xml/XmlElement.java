@@ -0,0 +1,67 @@
+package com.roshka.sifen.internal.xml;
+
+import com.roshka.sifen.core.SifenConfig;
+import com.roshka.sifen.core.exceptions.SifenException;
+
+import javax.xml.crypto.dsig.SignedInfo;
+import javax.xml.namespace.QName;
+import javax.xml.soap.SOAPException;
+
+/**
+ * Elemento XML en construcción. Expone el subconjunto de operaciones de {@link javax.xml.soap.SOAPElement} utilizado
+ * para generar los documentos electrónicos, de forma que la misma lógica de generación pueda construir un árbol DOM
+ * ({@link DomXmlElement}) o escribir el XML directamente en un flujo de salida ({@link StreamingXmlWriter}).
+ */
+public interface XmlElement {
+    /**
+     * Agrega un elemento hijo, en el espacio de nombres por defecto del elemento actual.
+     *
+     * @param localName Nombre del elemento hijo.
+     * @return El elemento hijo agregado.
+     * @throws SOAPException Si el elemento no pudo ser agregado.
+     */
+    XmlElement addChildElement(String localName) throws SOAPException;
+
+    /**
+     * Agrega un elemento hijo con el nombre calificado especificado, declarando su espacio de nombres si es necesario.
+     *
+     * @param qname Nombre calificado del elemento hijo.
+     * @return El elemento hijo agregado.
+     * @throws SOAPException Si el elemento no pudo ser agregado.
+     */
+    XmlElement addChildElement(QName qname) throws SOAPException;
+
+    /**
+     * Establece el contenido de texto del elemento. Un valor nulo o vacío genera un elemento vacío.
+     *
+     * @param textContent Contenido de texto.
+     * @throws SOAPException Si el contenido no pudo ser establecido.
+     */
+    void setTextContent(String textContent) throws SOAPException;
+
+    void setAttribute(String name, String value) throws SOAPException;
+
+    void setAttributeNS(String namespaceURI, String qualifiedName, String value) throws SOAPException;
+
+    void addNamespaceDeclaration(String prefix, String uri) throws SOAPException;
+
+    /**
+     * Marca el atributo especificado como identificador del elemento, para que pueda ser referenciado por la firma
+     * digital.
+     *
+     * @param name Nombre del atributo, que ya debe haber sido establecido.
+     * @throws SOAPException Si el atributo no existe.
+     */
+    void setIdAttribute(String name) throws SOAPException;
+
+    /**
+     * Firma digitalmente (firma envolvente, con C14N exclusiva y SHA-256) el elemento hijo identificado por
+     * signedNodeId, agregando el nodo <i>Signature</i> como último hijo del elemento actual.
+     *
+     * @param sifenConfig  Configuración de Sifen, de la que se obtiene el certificado.
+     * @param signedNodeId Identificador del elemento a firmar.
+     * @return La información firmada, de la que se obtiene el DigestValue para el QR.
+     * @throws SifenException Si la firma falla.
+     */
+    SignedInfo signEnveloped(SifenConfig sifenConfig, String signedNodeId) throws SifenException;
+}
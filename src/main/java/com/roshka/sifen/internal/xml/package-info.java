@@ -0,0 +1,5 @@
+/**
+ * Clases encargadas de la generación de los documentos XML, ya sea sobre un árbol DOM (SAAJ) o escribiéndolos
+ * directamente en un flujo de salida.
+ */
+package com.roshka.sifen.internal.xml;
@@ -0,0 +1,98 @@
+package com.roshka.sifen.test.async;
+
+import com.roshka.sifen.core.exceptions.SifenException;
+import com.roshka.sifen.internal.async.AsyncRequestExecutor;
+import com.roshka.sifen.internal.util.SifenExceptionUtil;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class AsyncRequestExecutorTest {
+    @Test
+    public void testMaxInFlight() throws Exception {
+        ExecutorService threadPool = Executors.newFixedThreadPool(16);
+        AsyncRequestExecutor asyncExecutor = new AsyncRequestExecutor(3, threadPool);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            final int n = i;
+            futures.add(asyncExecutor.submit(() -> {
+                int current = running.incrementAndGet();
+                maxRunning.accumulateAndGet(current, Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                return n;
+            }, null));
+        }
+
+        for (int i = 0; i < futures.size(); i++) {
+            assertEquals(Integer.valueOf(i), futures.get(i).get(10, TimeUnit.SECONDS));
+        }
+        assertTrue(maxRunning.get() <= 3);
+        assertEquals(0, asyncExecutor.getInFlight());
+        assertEquals(0, asyncExecutor.getPending());
+        threadPool.shutdown();
+    }
+
+    @Test
+    public void testExceptionPropagation() throws Exception {
+        AsyncRequestExecutor asyncExecutor = new AsyncRequestExecutor(1, AsyncRequestExecutor.newDefaultExecutor());
+        CompletableFuture<Object> future = asyncExecutor.submit(() -> {
+            throw SifenExceptionUtil.invalidSOAPRequest("Error de prueba");
+        }, null);
+
+        try {
+            future.get(10, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof SifenException);
+        }
+
+        // El lugar ocupado por la petición fallida debe haberse liberado
+        assertEquals("ok", asyncExecutor.submit(() -> "ok", null).get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testDirectExecutorLongBacklog() throws Exception {
+        // Executor directo, que retiene la primera petición hasta ser liberado, para acumular una cola larga
+        List<Runnable> held = new ArrayList<>();
+        AtomicInteger executed = new AtomicInteger();
+        boolean[] released = {false};
+        AsyncRequestExecutor asyncExecutor = new AsyncRequestExecutor(1, runnable -> {
+            if (released[0]) {
+                runnable.run();
+            } else {
+                held.add(runnable);
+            }
+        });
+
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            futures.add(asyncExecutor.submit(executed::incrementAndGet, null));
+        }
+        assertEquals(1, held.size());
+        assertEquals(50_000 - 1, asyncExecutor.getPending());
+
+        released[0] = true;
+        held.get(0).run();
+        assertEquals(50_000, executed.get());
+        assertTrue(futures.get(futures.size() - 1).isDone());
+        assertEquals(0, asyncExecutor.getInFlight());
+        assertEquals(0, asyncExecutor.getPending());
+    }
+}
@@ -0,0 +1,184 @@
+package com.roshka.sifen.test.client;
+
+import com.roshka.sifen.SifenClient;
+import com.roshka.sifen.core.SifenConfig;
+import com.roshka.sifen.core.beans.EstadisticasCacheRUC;
+import com.roshka.sifen.core.beans.response.RespuestaConsultaRUC;
+import com.roshka.sifen.core.exceptions.SifenException;
+import com.roshka.sifen.test.http.LocalSifenServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de la caché de consultas de RUC de un cliente.
+ */
+public class CacheConsultaRUCTest {
+    private LocalSifenServer server;
+    private volatile long demora = 0;
+
+    @Before
+    public void startServer() throws Exception {
+        server = new LocalSifenServer(request -> {
+            try {
+                Thread.sleep(demora);
+            } catch (InterruptedException ignored) {
+            }
+
+            String ruc = LocalSifenServer.extract(request, "dRUCCons");
+            String resultado;
+            if (ruc.startsWith("0")) {
+                resultado = "<ns2:dCodRes>0500</ns2:dCodRes><ns2:dMsgRes>RUC inexistente</ns2:dMsgRes>";
+            } else if (ruc.startsWith("9")) {
+                resultado = "<ns2:dCodRes>0501</ns2:dCodRes><ns2:dMsgRes>Sin permiso para consultar</ns2:dMsgRes>";
+            } else {
+                resultado = "<ns2:dCodRes>0502</ns2:dCodRes><ns2:dMsgRes>RUC encontrado</ns2:dMsgRes>" +
+                        "<ns2:xContRUC><ns2:dRUCCons>" + ruc + "</ns2:dRUCCons><ns2:dRazCons>CONTRIBUYENTE " + ruc +
+                        "</ns2:dRazCons><ns2:dCodEstCons>ACT</ns2:dCodEstCons><ns2:dRUCFactElec>S</ns2:dRUCFactElec>" +
+                        "</ns2:xContRUC>";
+            }
+            return LocalSifenServer.SOAP_ENVELOPE_START + "<ns2:rResEnviConsRuc xmlns:ns2=\"http://ekuatia.set.gov.py/sifen/xsd\">" +
+                    resultado + "</ns2:rResEnviConsRuc>" + LocalSifenServer.SOAP_ENVELOPE_END;
+        });
+    }
+
+    @After
+    public void stopServer() throws Exception {
+        server.close();
+    }
+
+    @Test
+    public void testSinCache() throws Exception {
+        try (SifenClient client = new SifenClient(config(0, 0, 0))) {
+            client.consultaRUC("80000001");
+            client.consultaRUC("80000001");
+            assertEquals(2, server.getRequests());
+            assertEquals(0, client.getEstadisticasCacheRUC().getAciertos());
+
+            try {
+                client.precargarRUC(Arrays.asList("80000001", "80000002"));
+                fail("Se esperaba un error de configuración");
+            } catch (SifenException ignored) {
+            }
+        }
+    }
+
+    @Test
+    public void testAciertosYExpiracion() throws Exception {
+        try (SifenClient client = new SifenClient(config(10, 500, 500))) {
+            RespuestaConsultaRUC primera = client.consultaRUC("80000001");
+            RespuestaConsultaRUC segunda = client.consultaRUC(" 80000001 ");
+            assertSame(primera, segunda);
+            assertEquals("CONTRIBUYENTE 80000001", segunda.getxContRUC().getdRazCons());
+            assertEquals(1, server.getRequests());
+
+            Thread.sleep(700);
+            assertNotSame(primera, client.consultaRUC("80000001"));
+            assertEquals(2, server.getRequests());
+
+            client.invalidarConsultaRUC("80000001");
+            client.consultaRUC("80000001");
+            assertEquals(3, server.getRequests());
+
+            EstadisticasCacheRUC estadisticas = client.getEstadisticasCacheRUC();
+            assertEquals(1, estadisticas.getEntradas());
+            assertEquals(1, estadisticas.getAciertos());
+            assertEquals(3, estadisticas.getFallos());
+            assertEquals(1, estadisticas.getExpiraciones());
+            assertEquals(0.25, estadisticas.getTasaAciertos(), 0.001);
+        }
+    }
+
+    @Test
+    public void testCacheNegativa() throws Exception {
+        try (SifenClient client = new SifenClient(config(10, 60_000, 500))) {
+            assertEquals("0500", client.consultaRUC("00000001").getdCodRes());
+            assertEquals("0500", client.consultaRUC("00000001").getdCodRes());
+            assertEquals(1, server.getRequests());
+            assertEquals(1, client.getEstadisticasCacheRUC().getAciertosNegativos());
+
+            // Los RUCs inexistentes expiran antes que los encontrados
+            client.consultaRUC("80000001");
+            Thread.sleep(700);
+            client.consultaRUC("00000001");
+            client.consultaRUC("80000001");
+            assertEquals(3, server.getRequests());
+
+            // Los demás resultados no se conservan
+            client.consultaRUC("90000001");
+            client.consultaRUC("90000001");
+            assertEquals(5, server.getRequests());
+        }
+    }
+
+    @Test
+    public void testConsultasSimultaneasCompartidas() throws Exception {
+        int hilos = 8;
+        demora = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        try (SifenClient client = new SifenClient(config(10, 60_000, 60_000))) {
+            CountDownLatch inicio = new CountDownLatch(1);
+            List<Future<RespuestaConsultaRUC>> consultas = new ArrayList<>();
+            for (int i = 0; i < hilos; i++) {
+                consultas.add(executor.submit(() -> {
+                    inicio.await();
+                    return client.consultaRUC("80000001");
+                }));
+            }
+            inicio.countDown();
+
+            RespuestaConsultaRUC primera = consultas.get(0).get();
+            for (Future<RespuestaConsultaRUC> consulta : consultas) {
+                assertSame(primera, consulta.get());
+            }
+            assertEquals(1, server.getRequests());
+            assertEquals(hilos - 1, client.getEstadisticasCacheRUC().getConsultasCompartidas());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testPrecargaYTamanoMaximo() throws Exception {
+        try (SifenClient client = new SifenClient(config(3, 60_000, 60_000))) {
+            assertEquals(2, client.precargarRUC(Arrays.asList("80000001", "80000002", "80000001", "90000001")));
+            assertEquals(3, server.getRequests());
+
+            client.consultaRUC("80000001");
+            client.consultaRUC("80000002");
+            assertEquals(3, server.getRequests());
+
+            // Se descarta el RUC menos utilizado recientemente
+            client.consultaRUC("80000003");
+            client.consultaRUC("80000002");
+            client.consultaRUC("80000004");
+            assertEquals(5, server.getRequests());
+            assertEquals(1, client.getEstadisticasCacheRUC().getDesalojos());
+
+            client.consultaRUC("80000002");
+            client.consultaRUC("80000001");
+            assertEquals(6, server.getRequests());
+            assertEquals(3, client.getEstadisticasCacheRUC().getEntradas());
+        }
+    }
+
+    private SifenConfig config(int tamano, long ttl, long ttlNegativo) {
+        SifenConfig sifenConfig = new SifenConfig();
+        sifenConfig.setUsarCertificadoCliente(false);
+        sifenConfig.setUrlBase(server.getUrlBase());
+        sifenConfig.setConsultaRucCacheTamano(tamano);
+        sifenConfig.setConsultaRucCacheTtl(ttl);
+        sifenConfig.setConsultaRucCacheTtlNegativo(ttlNegativo);
+        return sifenConfig;
+    }
+}
@@ -0,0 +1,145 @@
+package com.roshka.sifen.test.client;
+
+import com.roshka.sifen.SifenClient;
+import com.roshka.sifen.core.SifenConfig;
+import com.roshka.sifen.core.beans.response.RespuestaConsultaRUC;
+import com.roshka.sifen.test.http.LocalSifenServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de la captura de los mensajes enviados y recibidos, configurada por cliente.
+ */
+public class CapturaMensajesTest {
+    private final static String RAZON_SOCIAL = "ÑANDUTÍ COMERCIAL S.A.";
+
+    private final List<String> receivedRequests = new CopyOnWriteArrayList<>();
+    private LocalSifenServer server;
+
+    @Before
+    public void startServer() throws Exception {
+        server = new LocalSifenServer(request -> {
+            receivedRequests.add(request);
+            return LocalSifenServer.SOAP_ENVELOPE_START +
+                    "<ns2:rResEnviConsRuc xmlns:ns2=\"http://ekuatia.set.gov.py/sifen/xsd\">" +
+                    "<ns2:dCodRes>0502</ns2:dCodRes><ns2:dMsgRes>RUC encontrado</ns2:dMsgRes>" +
+                    "<ns2:xContRUC><ns2:dRUCCons>" + LocalSifenServer.extract(request, "dRUCCons") + "</ns2:dRUCCons>" +
+                    "<ns2:dRazCons>" + RAZON_SOCIAL + "</ns2:dRazCons></ns2:xContRUC>" +
+                    "</ns2:rResEnviConsRuc>" + LocalSifenServer.SOAP_ENVELOPE_END;
+        });
+    }
+
+    @After
+    public void stopServer() throws Exception {
+        server.close();
+    }
+
+    @Test
+    public void testCapturaPorDefecto() throws Exception {
+        try (SifenClient client = new SifenClient(config())) {
+            RespuestaConsultaRUC respuesta = client.consultaRUC("80000001");
+
+            // Por defecto solo se conserva la respuesta, como en versiones anteriores
+            assertNull(respuesta.getRequestSent());
+            assertTrue(respuesta.getRespuestaBruta().contains(RAZON_SOCIAL));
+            assertEquals(receivedRequests.get(0).getBytes(StandardCharsets.UTF_8).length, respuesta.getTamanoPeticion());
+        }
+    }
+
+    @Test
+    public void testCapturaPeticion() throws Exception {
+        SifenConfig sifenConfig = config();
+        sifenConfig.setCapturaPeticion(true);
+        try (SifenClient client = new SifenClient(sifenConfig)) {
+            // Los buffers se reutilizan entre peticiones de distinto tamaño
+            String[] rucs = {"80000001", "8", "1234567890", "80000001"};
+            for (int i = 0; i < rucs.length; i++) {
+                RespuestaConsultaRUC respuesta = client.consultaRUC(rucs[i]);
+                assertEquals(receivedRequests.get(i), respuesta.getRequestSent());
+                assertEquals(rucs[i], respuesta.getxContRUC().getdRUCCons());
+            }
+        }
+    }
+
+    @Test
+    public void testSinCaptura() throws Exception {
+        SifenConfig sifenConfig = config();
+        sifenConfig.setCapturaPeticion(true);
+        sifenConfig.setCapturaMuestreo(0);
+        try (SifenClient client = new SifenClient(sifenConfig)) {
+            RespuestaConsultaRUC respuesta = client.consultaRUC("80000001");
+            assertNull(respuesta.getRequestSent());
+            assertNull(respuesta.getRespuestaBruta());
+            assertEquals(RAZON_SOCIAL, respuesta.getxContRUC().getdRazCons());
+            assertTrue(respuesta.getTamanoPeticion() > 0);
+        }
+
+        sifenConfig.setCapturaMuestreo(1);
+        sifenConfig.setCapturaRespuesta(false);
+        try (SifenClient client = new SifenClient(sifenConfig)) {
+            RespuestaConsultaRUC respuesta = client.consultaRUC("80000001");
+            assertNotNull(respuesta.getRequestSent());
+            assertNull(respuesta.getRespuestaBruta());
+        }
+    }
+
+    @Test
+    public void testRespuestaBrutaDiferida() throws Exception {
+        try (SifenClient client = new SifenClient(config())) {
+            for (int i = 0; i < 5; i++) {
+                RespuestaConsultaRUC respuesta = client.consultaRUC("80000001");
+
+                // La respuesta se conserva sin decodificar hasta que se la consulta
+                ByteBuffer bytes = respuesta.getRespuestaBrutaBytes();
+                String respuestaBruta = StandardCharsets.UTF_8.decode(bytes).toString();
+                assertTrue(respuestaBruta.endsWith(LocalSifenServer.SOAP_ENVELOPE_END));
+                assertEquals(respuestaBruta, respuesta.getRespuestaBruta());
+                assertSame(respuesta.getRespuestaBruta(), respuesta.getRespuestaBruta());
+            }
+
+            // Las respuestas se leen directamente de la conexión, que vuelve al pool
+            assertEquals(1, server.getConnections());
+        }
+    }
+
+    @Test
+    public void testTamanoMaximo() throws Exception {
+        SifenConfig sifenConfig = config();
+        sifenConfig.setCapturaPeticion(true);
+        try (SifenClient client = new SifenClient(sifenConfig)) {
+            String respuestaCompleta = client.consultaRUC("80000001").getRespuestaBruta();
+            int corte = respuestaCompleta.indexOf(RAZON_SOCIAL);
+            sifenConfig.setCapturaTamanoMaximo(respuestaCompleta.substring(0, corte).getBytes(StandardCharsets.UTF_8).length + 1);
+        }
+
+        try (SifenClient client = new SifenClient(sifenConfig)) {
+            RespuestaConsultaRUC respuesta = client.consultaRUC("80000001");
+            int tamanoMaximo = sifenConfig.getCapturaTamanoMaximo();
+
+            // El corte cae en medio de la Ñ (2 bytes), que no se incluye
+            String respuestaBruta = respuesta.getRespuestaBruta();
+            assertTrue(respuestaBruta.endsWith("<ns2:dRazCons>"));
+            assertEquals(tamanoMaximo - 1, respuestaBruta.getBytes(StandardCharsets.UTF_8).length);
+
+            // La petición, más corta que el máximo, se conserva completa
+            assertTrue(receivedRequests.get(1).getBytes(StandardCharsets.UTF_8).length < tamanoMaximo);
+            assertEquals(receivedRequests.get(1), respuesta.getRequestSent());
+            assertEquals(RAZON_SOCIAL, respuesta.getxContRUC().getdRazCons());
+        }
+    }
+
+    private SifenConfig config() {
+        SifenConfig sifenConfig = new SifenConfig();
+        sifenConfig.setUsarCertificadoCliente(false);
+        sifenConfig.setUrlBase(server.getUrlBase());
+        return sifenConfig;
+    }
+}
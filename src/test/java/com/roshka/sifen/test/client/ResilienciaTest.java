@@ -0,0 +1,285 @@
+package com.roshka.sifen.test.client;
+
+import com.roshka.sifen.SifenClient;
+import com.roshka.sifen.core.SifenConfig;
+import com.roshka.sifen.core.beans.DocumentoElectronico;
+import com.roshka.sifen.core.beans.EstadisticasResiliencia;
+import com.roshka.sifen.core.beans.PoliticaReintentos;
+import com.roshka.sifen.core.beans.response.RespuestaConsultaRUC;
+import com.roshka.sifen.core.beans.response.RespuestaRecepcionDE;
+import com.roshka.sifen.core.beans.response.RespuestaRecepcionLoteDE;
+import com.roshka.sifen.core.exceptions.SifenException;
+import com.roshka.sifen.core.exceptions.SifenExceptionCodes;
+import com.roshka.sifen.test.de.DocumentosDePrueba;
+import com.roshka.sifen.test.http.LocalSifenServer;
+import com.roshka.sifen.test.signature.TestCertificates;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de los reintentos y del circuito de un cliente, ante fallas de Sifen.
+ */
+public class ResilienciaTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private LocalSifenServer server;
+    // Cantidad de peticiones siguientes que se reciben sin responder
+    private final AtomicInteger sinRespuesta = new AtomicInteger();
+
+    @Before
+    public void startServer() throws Exception {
+        server = new LocalSifenServer(request -> {
+            if (sinRespuesta.getAndDecrement() > 0) {
+                return null;
+            }
+            return LocalSifenServer.SOAP_ENVELOPE_START + "<ns2:rResEnviConsRuc xmlns:ns2=\"http://ekuatia.set.gov.py/sifen/xsd\">" +
+                    "<ns2:dCodRes>0502</ns2:dCodRes><ns2:dMsgRes>RUC encontrado</ns2:dMsgRes></ns2:rResEnviConsRuc>" +
+                    LocalSifenServer.SOAP_ENVELOPE_END;
+        });
+    }
+
+    @After
+    public void stopServer() throws Exception {
+        server.close();
+    }
+
+    @Test
+    public void testReintentoTrasEnvio() throws Exception {
+        SifenConfig sifenConfig = config(0);
+        sifenConfig.setPoliticaReintentos(SifenConfig.TipoOperacion.CONSULTA_RUC, new PoliticaReintentos(3, 10, 50, true));
+        try (SifenClient client = new SifenClient(sifenConfig)) {
+            sinRespuesta.set(2);
+            RespuestaConsultaRUC respuesta = client.consultaRUC("80000001");
+            assertEquals("0502", respuesta.getdCodRes());
+            assertEquals(3, respuesta.getIntentos());
+            assertEquals(3, server.getRequests());
+
+            EstadisticasResiliencia estadisticas = client.getEstadisticasResiliencia();
+            assertEquals(2, estadisticas.getReintentos());
+            assertEquals(2, estadisticas.getFallas());
+            assertEquals(EstadisticasResiliencia.EstadoCircuito.CERRADO, estadisticas.getEstadoCircuito());
+
+            // Sin intentos restantes, se informa la falla
+            sinRespuesta.set(3);
+            try {
+                client.consultaRUC("80000001");
+                fail("Se esperaba un error de entrada/salida");
+            } catch (SifenException e) {
+                assertEquals(SifenExceptionCodes.INVALID_SOAP_REQUEST_CODE, e.getCode());
+            }
+            assertEquals(6, server.getRequests());
+        }
+    }
+
+    @Test
+    public void testSinReintentoTrasEnvio() throws Exception {
+        SifenConfig sifenConfig = config(0);
+        sifenConfig.setPoliticaReintentos(SifenConfig.TipoOperacion.CONSULTA_RUC, new PoliticaReintentos(3, 0, 0, false));
+        try (SifenClient client = new SifenClient(sifenConfig)) {
+            // La petición pudo haber sido procesada, por lo que no se reenvía
+            sinRespuesta.set(1);
+            try {
+                client.consultaRUC("80000001");
+                fail("Se esperaba un error de entrada/salida");
+            } catch (SifenException ignored) {
+            }
+            assertEquals(1, server.getRequests());
+
+            // Un 503 indica que Sifen no procesó la petición
+            server.setStatus(503);
+            RespuestaConsultaRUC respuesta = client.consultaRUC("80000001");
+            assertEquals(503, respuesta.getCodigoEstado());
+            assertEquals(3, respuesta.getIntentos());
+            assertEquals(4, server.getRequests());
+        }
+
+        // Sin conexión, la petición no llegó a Sifen
+        server.close();
+        try (SifenClient client = new SifenClient(sifenConfig)) {
+            try {
+                client.consultaRUC("80000001");
+                fail("Se esperaba un error de conexión");
+            } catch (SifenException ignored) {
+            }
+            assertEquals(2, client.getEstadisticasResiliencia().getReintentos());
+            assertEquals(3, client.getEstadisticasResiliencia().getFallas());
+        }
+    }
+
+    @Test
+    public void testRecepcionDERespuestaPerdida() throws Exception {
+        AtomicInteger recepciones = new AtomicInteger();
+        AtomicInteger consultas = new AtomicInteger();
+        // Código de la consulta del DE: con 0422, Sifen ya lo tiene registrado
+        AtomicReference<String> codigoConsulta = new AtomicReference<>("0422");
+        try (LocalSifenServer sifen = new LocalSifenServer(request -> {
+            if (request.contains("rEnviConsDeRequest")) {
+                consultas.incrementAndGet();
+                return LocalSifenServer.SOAP_ENVELOPE_START + "<ns2:rEnviConsDeResponse xmlns:ns2=\"http://ekuatia.set.gov.py/sifen/xsd\">" +
+                        "<ns2:dCodRes>" + codigoConsulta.get() + "</ns2:dCodRes><ns2:dMsgRes>Consulta</ns2:dMsgRes></ns2:rEnviConsDeResponse>" +
+                        LocalSifenServer.SOAP_ENVELOPE_END;
+            }
+
+            // Se pierde la respuesta del primer envío, luego de recibirlo
+            if (recepciones.incrementAndGet() == 1) {
+                return null;
+            }
+            return LocalSifenServer.SOAP_ENVELOPE_START + "<ns2:rRetEnviDe xmlns:ns2=\"http://ekuatia.set.gov.py/sifen/xsd\"><ns2:rProtDe>" +
+                    "<ns2:dEstRes>Aprobado</ns2:dEstRes></ns2:rProtDe></ns2:rRetEnviDe>" + LocalSifenServer.SOAP_ENVELOPE_END;
+        })) {
+            SifenConfig sifenConfig = configCertificado(sifen);
+            try (SifenClient client = new SifenClient(sifenConfig)) {
+                // Sifen ya recibió el DE: no se reenvía, y se retorna la consulta
+                DocumentoElectronico de = DocumentosDePrueba.crearFactura("0000001", 2);
+                RespuestaRecepcionDE respuesta = client.recepcionDE(de);
+                assertNull(respuesta.getxProtDE());
+                assertEquals("0422", respuesta.getConsultaDE().getdCodRes());
+                assertEquals(1, respuesta.getIntentos());
+                assertEquals(1, recepciones.get());
+                assertEquals(1, consultas.get());
+
+                // Sifen no tiene registrado el DE: se reenvía
+                recepciones.set(0);
+                codigoConsulta.set("0420");
+                respuesta = client.recepcionDE(DocumentosDePrueba.crearFactura("0000002", 2));
+                assertEquals("Aprobado", respuesta.getxProtDE().getdEstRes());
+                assertNull(respuesta.getConsultaDE());
+                assertEquals(2, respuesta.getIntentos());
+                assertEquals(2, recepciones.get());
+                assertEquals(2, consultas.get());
+            }
+        }
+    }
+
+    @Test
+    public void testRecepcionLoteRespuestaPerdida() throws Exception {
+        AtomicInteger recepciones = new AtomicInteger();
+        List<String> consultados = new CopyOnWriteArrayList<>();
+        DocumentoElectronico primero = DocumentosDePrueba.crearFactura("0000001", 2);
+        DocumentoElectronico segundo = DocumentosDePrueba.crearFactura("0000002", 2);
+        try (LocalSifenServer sifen = new LocalSifenServer(request -> {
+            if (request.contains("rEnviConsDeRequest")) {
+                // Solo el segundo DE del lote fue procesado por Sifen
+                String cdc = LocalSifenServer.extract(request, "dCDC");
+                consultados.add(cdc);
+                return LocalSifenServer.SOAP_ENVELOPE_START + "<ns2:rEnviConsDeResponse xmlns:ns2=\"http://ekuatia.set.gov.py/sifen/xsd\">" +
+                        "<ns2:dCodRes>" + (cdc.equals(segundo.getId()) ? "0422" : "0420") + "</ns2:dCodRes>" +
+                        "<ns2:dMsgRes>Consulta</ns2:dMsgRes></ns2:rEnviConsDeResponse>" + LocalSifenServer.SOAP_ENVELOPE_END;
+            }
+
+            recepciones.incrementAndGet();
+            return null;
+        })) {
+            SifenConfig sifenConfig = configCertificado(sifen);
+            try (SifenClient client = new SifenClient(sifenConfig)) {
+                RespuestaRecepcionLoteDE respuesta = client.recepcionLoteDE(Arrays.asList(primero, segundo));
+                assertNull(respuesta.getdProtConsLote());
+                assertEquals("0422", respuesta.getConsultaDE().getdCodRes());
+                assertEquals(1, recepciones.get());
+                assertEquals(Arrays.asList(primero.getId(), segundo.getId()), consultados);
+            }
+        }
+    }
+
+    @Test
+    public void testCircuito() throws Exception {
+        SifenConfig sifenConfig = config(2);
+        sifenConfig.setCircuitoTiempoApertura(300);
+        sifenConfig.setPoliticaReintentos(SifenConfig.TipoOperacion.CONSULTA_RUC, PoliticaReintentos.SIN_REINTENTOS);
+        try (SifenClient client = new SifenClient(sifenConfig)) {
+            server.setStatus(503);
+            client.consultaRUC("80000001");
+            client.consultaRUC("80000001");
+            assertEquals(EstadisticasResiliencia.EstadoCircuito.ABIERTO, client.getEstadisticasResiliencia().getEstadoCircuito());
+
+            // Con el circuito abierto, se rechaza la petición sin enviarla
+            try {
+                client.consultaRUC("80000001");
+                fail("Se esperaba el rechazo del circuito");
+            } catch (SifenException e) {
+                assertEquals(SifenExceptionCodes.SERVICE_UNAVAILABLE_CODE, e.getCode());
+            }
+            assertEquals(2, server.getRequests());
+
+            // La petición de prueba falla, y el circuito vuelve a abrirse
+            Thread.sleep(400);
+            client.consultaRUC("80000001");
+            assertEquals(EstadisticasResiliencia.EstadoCircuito.ABIERTO, client.getEstadisticasResiliencia().getEstadoCircuito());
+
+            // La petición de prueba tiene éxito, y el circuito se cierra
+            server.setStatus(200);
+            Thread.sleep(400);
+            assertEquals("0502", client.consultaRUC("80000001").getdCodRes());
+
+            EstadisticasResiliencia estadisticas = client.getEstadisticasResiliencia();
+            assertEquals(EstadisticasResiliencia.EstadoCircuito.CERRADO, estadisticas.getEstadoCircuito());
+            assertEquals(2, estadisticas.getAperturas());
+            assertEquals(2, estadisticas.getSemiaperturas());
+            assertEquals(1, estadisticas.getCierres());
+            assertEquals(1, estadisticas.getPeticionesRechazadas());
+            assertEquals(3, estadisticas.getFallas());
+            assertEquals(4, server.getRequests());
+        }
+    }
+
+    @Test
+    public void testConfiguracionDesdePropiedades() throws Exception {
+        Properties propiedades = new Properties();
+        propiedades.setProperty("sifen.ambiente", "DEV");
+        propiedades.setProperty("sifen.certificado_cliente.tipo", "PFX");
+        propiedades.setProperty("sifen.reintentos.intentos_maximos", "5");
+        propiedades.setProperty("sifen.reintentos.espera_maxima", "1000");
+        propiedades.setProperty("sifen.circuito.umbral_fallas", "0");
+
+        SifenConfig sifenConfig = SifenConfig.cargarConfiguracion(propiedades);
+        PoliticaReintentos consulta = sifenConfig.getPoliticaReintentos(SifenConfig.TipoOperacion.CONSULTA_DE);
+        assertEquals(5, consulta.getIntentosMaximos());
+        assertEquals(200, consulta.getEsperaInicial());
+        assertEquals(1000, consulta.getEsperaMaxima());
+        assertTrue(consulta.isReintentarTrasEnvio());
+        assertFalse(sifenConfig.getPoliticaReintentos(SifenConfig.TipoOperacion.RECEPCION_DE).isReintentarTrasEnvio());
+        assertFalse(sifenConfig.getPoliticaReintentos(SifenConfig.TipoOperacion.RECEPCION_LOTE).isReintentarTrasEnvio());
+        assertEquals(0, sifenConfig.getCircuitoUmbralFallas());
+
+        propiedades.setProperty("sifen.reintentos.intentos_maximos", "0");
+        try {
+            SifenConfig.cargarConfiguracion(propiedades);
+            fail("Se esperaba un error de configuración");
+        } catch (SifenException e) {
+            assertEquals(SifenExceptionCodes.INVALID_CONFIGURATION_CODE, e.getCode());
+        }
+    }
+
+    private SifenConfig configCertificado(LocalSifenServer sifen) throws Exception {
+        File certificate = TestCertificates.createPkcs12(folder.newFile(), "PRUEBA");
+        SifenConfig sifenConfig = new SifenConfig(SifenConfig.TipoAmbiente.DEV, SifenConfig.TipoCertificadoCliente.PFX,
+                certificate.getAbsolutePath(), TestCertificates.PASSWORD);
+        sifenConfig.setUrlBase(sifen.getUrlBase());
+        PoliticaReintentos politica = new PoliticaReintentos(3, 10, 50, false);
+        sifenConfig.setPoliticaReintentos(SifenConfig.TipoOperacion.RECEPCION_DE, politica);
+        sifenConfig.setPoliticaReintentos(SifenConfig.TipoOperacion.RECEPCION_LOTE, politica);
+        return sifenConfig;
+    }
+
+    private SifenConfig config(int umbralFallas) {
+        SifenConfig sifenConfig = new SifenConfig();
+        sifenConfig.setUsarCertificadoCliente(false);
+        sifenConfig.setUrlBase(server.getUrlBase());
+        sifenConfig.setCircuitoUmbralFallas(umbralFallas);
+        return sifenConfig;
+    }
+}
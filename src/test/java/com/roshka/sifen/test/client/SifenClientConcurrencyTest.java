@@ -0,0 +1,221 @@
+package com.roshka.sifen.test.client;
+
+import com.roshka.sifen.Sifen;
+import com.roshka.sifen.SifenClient;
+import com.roshka.sifen.core.SifenConfig;
+import com.roshka.sifen.core.beans.response.RespuestaConsultaRUC;
+import com.roshka.sifen.core.fields.util.FieldFormatUtil;
+import com.roshka.sifen.test.http.LocalSifenServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de estrés del cliente de Sifen, utilizado simultáneamente desde cientos de hilos contra un servidor local.
+ */
+public class SifenClientConcurrencyTest {
+    private final static int THREADS = 200;
+    private final static int REQUESTS_PER_THREAD = 10;
+
+    private final Set<String> receivedIds = ConcurrentHashMap.newKeySet();
+    private final Set<String> otherReceivedIds = ConcurrentHashMap.newKeySet();
+    private LocalSifenServer server;
+    private LocalSifenServer otherServer;
+    // Si no es nulo, el servidor principal no responde hasta que se libere
+    private volatile CountDownLatch serverGate;
+
+    @Before
+    public void startServers() throws Exception {
+        server = new LocalSifenServer(request -> {
+            CountDownLatch gate = serverGate;
+            if (gate != null) {
+                try {
+                    gate.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return rucResponse(request, receivedIds, "CONTRIBUYENTE A");
+        });
+        otherServer = new LocalSifenServer(request -> rucResponse(request, otherReceivedIds, "CONTRIBUYENTE B"));
+    }
+
+    @After
+    public void stopServers() throws Exception {
+        server.close();
+        otherServer.close();
+    }
+
+    @Test
+    public void testConcurrentRequests() throws Exception {
+        try (SifenClient client = new SifenClient(config(server))) {
+            List<Future<RespuestaConsultaRUC>> futures = runConcurrently(THREADS, REQUESTS_PER_THREAD,
+                    () -> client.consultaRUC("80000001"));
+
+            for (Future<RespuestaConsultaRUC> future : futures) {
+                RespuestaConsultaRUC respuesta = future.get();
+                assertEquals(200, respuesta.getCodigoEstado());
+                assertEquals("0502", respuesta.getdCodRes());
+                assertEquals("CONTRIBUYENTE A", respuesta.getxContRUC().getdRazCons());
+            }
+
+            // Cada petición debe haber recibido un dId distinto
+            assertEquals(THREADS * REQUESTS_PER_THREAD, receivedIds.size());
+            assertTrue(client.getEstadisticasConexiones().getConexionesCreadas() <= 32);
+        }
+    }
+
+    @Test
+    public void testTwoConfigurationsInOneJvm() throws Exception {
+        try (SifenClient client = new SifenClient(config(server));
+             SifenClient otherClient = new SifenClient(config(otherServer))) {
+            List<Future<RespuestaConsultaRUC>> futures = runConcurrently(THREADS, REQUESTS_PER_THREAD, () -> {
+                boolean first = ThreadLocalRandom.current().nextBoolean();
+                RespuestaConsultaRUC respuesta = (first ? client : otherClient).consultaRUC("80000001");
+                assertEquals(first ? "CONTRIBUYENTE A" : "CONTRIBUYENTE B", respuesta.getxContRUC().getdRazCons());
+                return respuesta;
+            });
+
+            for (Future<RespuestaConsultaRUC> future : futures) {
+                future.get();
+            }
+            assertEquals(THREADS * REQUESTS_PER_THREAD, server.getRequests() + otherServer.getRequests());
+            assertEquals(server.getRequests(), receivedIds.size());
+            assertEquals(otherServer.getRequests(), otherReceivedIds.size());
+        }
+    }
+
+    @Test
+    public void testClientIsImmutable() throws Exception {
+        SifenConfig sifenConfig = config(server);
+        try (SifenClient client = new SifenClient(sifenConfig)) {
+            // Los cambios en la configuración original no afectan al cliente
+            sifenConfig.setUrlBase(otherServer.getUrlBase());
+            client.consultaRUC("80000001");
+
+            assertEquals(1, server.getRequests());
+            assertEquals(0, otherServer.getRequests());
+            assertEquals(server.getUrlBase(), client.getSifenConfig().getUrlBase());
+        }
+    }
+
+    @Test
+    public void testAsyncRequests() throws Exception {
+        SifenConfig sifenConfig = config(server);
+        sifenConfig.setAsyncMaxPeticionesEnCurso(16);
+        try (SifenClient client = new SifenClient(sifenConfig)) {
+            List<CompletableFuture<RespuestaConsultaRUC>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS * REQUESTS_PER_THREAD; i++) {
+                futures.add(client.consultaRUCAsync("80000001"));
+            }
+
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(60, TimeUnit.SECONDS);
+            assertEquals(THREADS * REQUESTS_PER_THREAD, receivedIds.size());
+            assertTrue(client.getEstadisticasConexiones().getConexionesCreadas() <= 16);
+        }
+    }
+
+    @Test
+    public void testStaticFacade() throws Exception {
+        SifenConfig sifenConfig = config(server);
+        Sifen.setSifenConfig(sifenConfig);
+
+        List<Future<RespuestaConsultaRUC>> futures = runConcurrently(THREADS, 2, () -> Sifen.consultaRUC("80000001"));
+        for (Future<RespuestaConsultaRUC> future : futures) {
+            assertEquals("0502", future.get().getdCodRes());
+        }
+        assertEquals(THREADS * 2, receivedIds.size());
+
+        // La configuración pasada como argumento se respeta, aun si fue modificada
+        sifenConfig.setUrlBase(otherServer.getUrlBase());
+        assertEquals("CONTRIBUYENTE B", Sifen.consultaRUC("80000001", sifenConfig).getxContRUC().getdRazCons());
+    }
+
+    @Test
+    public void testStaticFacadeConfigChangeWithRequestsInFlight() throws Exception {
+        SifenConfig sifenConfig = config(server);
+        serverGate = new CountDownLatch(1);
+        CompletableFuture<RespuestaConsultaRUC> future = Sifen.consultaRUCAsync("80000001", sifenConfig, null);
+        while (server.getRequests() == 0) {
+            Thread.sleep(10);
+        }
+
+        // El cliente reemplazado no se cierra mientras tenga una petición en curso
+        sifenConfig.setUrlBase(otherServer.getUrlBase());
+        assertEquals("CONTRIBUYENTE B", Sifen.consultaRUC("80000001", sifenConfig).getxContRUC().getdRazCons());
+        serverGate.countDown();
+        assertEquals("CONTRIBUYENTE A", future.get(30, TimeUnit.SECONDS).getxContRUC().getdRazCons());
+    }
+
+    @Test
+    public void testFieldFormatConcurrent() throws Exception {
+        Random random = new Random(42);
+        List<BigDecimal> values = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            BigDecimal value = BigDecimal.valueOf(random.nextInt(99999999), 4);
+            values.add(value);
+            expected.add(FieldFormatUtil.formattdCRed(value));
+        }
+
+        List<Future<Boolean>> futures = runConcurrently(THREADS, 5, () -> {
+            for (int i = 0; i < values.size(); i++) {
+                if (!expected.get(i).equals(FieldFormatUtil.formattdCRed(values.get(i)))) {
+                    return false;
+                }
+            }
+            return true;
+        });
+        for (Future<Boolean> future : futures) {
+            assertTrue(future.get());
+        }
+    }
+
+    private static SifenConfig config(LocalSifenServer server) {
+        SifenConfig sifenConfig = new SifenConfig();
+        sifenConfig.setUsarCertificadoCliente(false);
+        sifenConfig.setUrlBase(server.getUrlBase());
+        sifenConfig.setHttpMaxConexionesPorRuta(32);
+        return sifenConfig;
+    }
+
+    /**
+     * Ejecuta la tarea desde la cantidad de hilos indicada, que arrancan al mismo tiempo.
+     */
+    private static <T> List<Future<T>> runConcurrently(int threads, int repetitions, Callable<T> task) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        for (int i = 0; i < threads * repetitions; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return task.call();
+            }));
+        }
+
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(120, TimeUnit.SECONDS));
+        return futures;
+    }
+
+    private static String rucResponse(String request, Set<String> receivedIds, String razonSocial) {
+        receivedIds.add(LocalSifenServer.extract(request, "dId"));
+        return LocalSifenServer.SOAP_ENVELOPE_START +
+                "<ns2:rResEnviConsRuc xmlns:ns2=\"http://ekuatia.set.gov.py/sifen/xsd\">" +
+                "<ns2:dCodRes>0502</ns2:dCodRes><ns2:dMsgRes>RUC encontrado</ns2:dMsgRes>" +
+                "<ns2:xContRUC><ns2:dRUCCons>" + LocalSifenServer.extract(request, "dRUCCons") + "</ns2:dRUCCons>" +
+                "<ns2:dRazCons>" + razonSocial + "</ns2:dRazCons><ns2:dCodEstCons>ACT</ns2:dCodEstCons>" +
+                "<ns2:dDesEstCons>ACTIVO</ns2:dDesEstCons><ns2:dRUCFactElec>S</ns2:dRUCFactElec></ns2:xContRUC>" +
+                "</ns2:rResEnviConsRuc>" + LocalSifenServer.SOAP_ENVELOPE_END;
+    }
+}
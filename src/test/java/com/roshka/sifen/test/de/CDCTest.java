@@ -0,0 +1,200 @@
+package com.roshka.sifen.test.de;
+
+import com.roshka.sifen.core.beans.CDC;
+import com.roshka.sifen.core.beans.DocumentoElectronico;
+import com.roshka.sifen.core.types.TTiDE;
+import com.roshka.sifen.core.types.TTipEmi;
+import com.roshka.sifen.core.types.TiTipCont;
+import com.roshka.sifen.internal.util.SifenUtil;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de la generación, validación y lectura de CDCs, comparadas con la generación original por concatenación.
+ */
+public class CDCTest {
+    private final static DateTimeFormatter FECHA_CDC = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    @Test
+    public void testGeneracionIgualALaConcatenacion() {
+        Random random = new Random(44);
+        for (int i = 0; i < 10_000; i++) {
+            TTiDE iTiDE = TTiDE.values()[random.nextInt(TTiDE.values().length)];
+            String dRucEm = digitos(random, 8), dDVEmi = digitos(random, 1), dEst = digitos(random, 3),
+                    dPunExp = digitos(random, 3), dNumDoc = digitos(random, 7), dCodSeg = digitos(random, 9);
+            TiTipCont iTipCont = random.nextBoolean() ? TiTipCont.PERSONA_FISICA : TiTipCont.PERSONA_JURIDICA;
+            TTipEmi iTipEmi = random.nextBoolean() ? TTipEmi.NORMAL : TTipEmi.CONTINGENCIA;
+            LocalDate fecha = LocalDate.of(2000 + random.nextInt(50), 1, 1).plusDays(random.nextInt(365));
+
+            String esperado = String.format("%2s", iTiDE.getVal()).replace(' ', '0') + dRucEm + dDVEmi + dEst + dPunExp
+                    + dNumDoc + iTipCont.getVal() + fecha.format(FECHA_CDC) + iTipEmi.getVal() + dCodSeg;
+            esperado += dvReferencia(esperado);
+
+            String cdc = CDC.generar(iTiDE, dRucEm, dDVEmi, dEst, dPunExp, dNumDoc, iTipCont, fecha, iTipEmi, dCodSeg);
+            assertEquals(esperado, cdc);
+            assertTrue(CDC.esValido(cdc));
+
+            CDC leido = CDC.leer(cdc);
+            assertEquals(iTiDE, leido.getTipoDocumento());
+            assertEquals(dRucEm, leido.getRucEmisor());
+            assertEquals(dDVEmi, leido.getDvEmisor());
+            assertEquals(dEst, leido.getEstablecimiento());
+            assertEquals(dPunExp, leido.getPuntoExpedicion());
+            assertEquals(dNumDoc, leido.getNumeroDocumento());
+            assertEquals(iTipCont, leido.getTipoContribuyente());
+            assertEquals(fecha, leido.getFechaEmision());
+            assertEquals(iTipEmi, leido.getTipoEmision());
+            assertEquals(dCodSeg, leido.getCodigoSeguridad());
+            assertEquals(esperado.substring(43), leido.getDv());
+            assertEquals(cdc, leido.toString());
+        }
+    }
+
+    @Test
+    public void testCDCDelDocumento() throws Exception {
+        DocumentoElectronico DE = DocumentosDePrueba.crearFactura("0000001", 1);
+        String cdc = DE.obtenerCDC();
+
+        assertEquals("01800805534001002000000122022031511234567894", cdc);
+        assertEquals("4", DE.getdDVId());
+        assertTrue(CDC.esValido(cdc));
+    }
+
+    @Test
+    public void testValidacion() {
+        String cdc = "01800805534001002000000122022031511234567894";
+        assertTrue(CDC.esValido(cdc));
+        assertFalse(CDC.esValido(null));
+        assertFalse(CDC.esValido(cdc.substring(1)));
+        assertFalse(CDC.esValido(cdc.substring(0, 43) + "7"));
+        assertFalse(CDC.esValido(cdc.substring(0, 10) + "X" + cdc.substring(11)));
+
+        // 30 de febrero, con el dígito verificador correcto
+        String fechaInvalida = cdc.substring(0, 25) + "20220230" + cdc.substring(33, 43);
+        assertFalse(CDC.esValido(fechaInvalida + dvReferencia(fechaInvalida)));
+
+        boolean[] validos = CDC.validar(Arrays.asList(cdc, "123", cdc.substring(0, 43) + "0"));
+        assertArrayEquals(new boolean[]{true, false, false}, validos);
+
+        try {
+            CDC.leer(Arrays.asList(cdc, cdc, "123"));
+            fail("Se esperaba una excepción por el CDC inválido");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("posición 2"));
+        }
+    }
+
+    @Test
+    public void testDigitoVerificadorYRelleno() {
+        Random random = new Random(11);
+        for (int i = 0; i < 10_000; i++) {
+            String ruc = String.valueOf(1 + random.nextInt(99_999_999));
+            assertEquals(ruc, dvReferencia(ruc), SifenUtil.generateDv(ruc));
+            assertEquals(String.format("%10s", ruc).replace(' ', '0'), SifenUtil.leftPad(ruc, '0', 10));
+        }
+        assertEquals("5", SifenUtil.generateDv("88888801"));
+        assertEquals("12345", SifenUtil.leftPad("12345", '0', 3));
+
+        try {
+            SifenUtil.generateDv("8008055A");
+            fail("Se esperaba una excepción por el carácter no numérico");
+        } catch (NumberFormatException ignored) {
+        }
+    }
+
+    @Test
+    public void testCodigoDeSeguridad() {
+        Set<String> codigos = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            String codigo = SifenUtil.generateRandomNumber();
+            assertEquals(9, codigo.length());
+            int valor = Integer.parseInt(codigo);
+            assertTrue(valor >= 1 && valor <= 999999998);
+            codigos.add(codigo);
+        }
+        assertTrue(codigos.size() > 9_900);
+    }
+
+    @Test
+    @Ignore("Benchmark, ejecutar manualmente")
+    public void benchmarkCDC() {
+        int repeticiones = 5_000_000;
+        LocalDate fecha = LocalDate.of(2022, 3, 15);
+        List<String> cdcs = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            cdcs.add(CDC.generar(TTiDE.FACTURA_ELECTRONICA, "80080553", "4", "001", "002",
+                    String.format("%07d", i), TiTipCont.PERSONA_JURIDICA, fecha, TTipEmi.NORMAL, "123456789"));
+        }
+
+        for (int ronda = 0; ronda < 3; ronda++) {
+            long start = System.nanoTime();
+            int total = 0;
+            for (int i = 0; i < repeticiones / 50; i++) {
+                String cdc = String.format("%2s", 1).replace(' ', '0') + "80080553" + "4" + "001" + "002" + "0000001"
+                        + 2 + fecha.format(DateTimeFormatter.ofPattern("yyyyMMdd")) + 1 + "123456789";
+                total += dvReferencia(cdc).length();
+            }
+            imprimir("Generación original", start, repeticiones / 50, total);
+
+            start = System.nanoTime();
+            total = 0;
+            for (int i = 0; i < repeticiones; i++) {
+                total += CDC.generar(TTiDE.FACTURA_ELECTRONICA, "80080553", "4", "001", "002", "0000001",
+                        TiTipCont.PERSONA_JURIDICA, fecha, TTipEmi.NORMAL, "123456789").length();
+            }
+            imprimir("Generación", start, repeticiones, total);
+
+            start = System.nanoTime();
+            total = 0;
+            for (int i = 0; i < repeticiones; i++) {
+                total += CDC.esValido(cdcs.get(i % cdcs.size())) ? 1 : 0;
+            }
+            imprimir("Validación", start, repeticiones, total);
+
+            start = System.nanoTime();
+            total = 0;
+            for (int i = 0; i < repeticiones / 10; i++) {
+                total += SifenUtil.generateRandomNumber().length();
+            }
+            imprimir("Código seg.", start, repeticiones / 10, total);
+        }
+    }
+
+    private static void imprimir(String nombre, long start, int repeticiones, int total) {
+        double segundos = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-20s %12.0f por segundo (%d)%n", nombre, repeticiones / segundos, total);
+    }
+
+    private static String digitos(Random random, int cantidad) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < cantidad; i++) {
+            sb.append((char) ('0' + random.nextInt(10)));
+        }
+        return sb.toString();
+    }
+
+    /*
+     * Cálculo original del dígito verificador, dígito por dígito.
+     */
+    private static String dvReferencia(String ruc) {
+        int baseMax = 11, k = 2, total = 0;
+        for (int i = ruc.length() - 1; i >= 0; i--) {
+            k = k > baseMax ? 2 : k;
+            int n = Integer.parseInt(ruc.substring(i, i + 1));
+            total += n * k;
+            k++;
+        }
+        return String.valueOf((total % 11) > 1 ? 11 - (total % 11) : 0);
+    }
+}
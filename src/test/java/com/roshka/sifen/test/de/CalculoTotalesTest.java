@@ -0,0 +1,141 @@
+package com.roshka.sifen.test.de;
+
+import com.roshka.sifen.core.SifenConfig;
+import com.roshka.sifen.core.beans.DocumentoElectronico;
+import com.roshka.sifen.core.exceptions.SifenException;
+import com.roshka.sifen.core.fields.request.de.TgCamItem;
+import com.roshka.sifen.core.fields.request.de.TgTotSub;
+import com.roshka.sifen.internal.ctx.GenerationCtx;
+import com.roshka.sifen.test.signature.TestCertificates;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CalculoTotalesTest {
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private static SifenConfig sifenConfig;
+
+    @BeforeClass
+    public static void setupConfig() throws Exception {
+        File certificate = TestCertificates.createPkcs12(folder.newFile("cert.p12"), "PRUEBA");
+        sifenConfig = new SifenConfig(SifenConfig.TipoAmbiente.DEV, SifenConfig.TipoCertificadoCliente.PFX,
+                certificate.getAbsolutePath(), TestCertificates.PASSWORD);
+    }
+
+    @Test
+    public void testTotalesIgualesAlXmlGenerado() throws Exception {
+        DocumentoElectronico DE = DocumentosDePrueba.crearFactura("0000001", 7);
+        TgTotSub calculados = DE.calcularTotales();
+
+        String xml = DocumentosDePrueba.crearFactura("0000001", 7)
+                .generarXml(GenerationCtx.getDefaultFromConfig(sifenConfig), sifenConfig);
+        DocumentoElectronico generado = new DocumentoElectronico(xml);
+        TgTotSub emitidos = generado.getgTotSub();
+
+        assertEquals(emitidos.getdSubExe(), calculados.getdSubExe());
+        assertEquals(emitidos.getdSub5(), calculados.getdSub5());
+        assertEquals(emitidos.getdSub10(), calculados.getdSub10());
+        assertEquals(emitidos.getdTotOpe(), calculados.getdTotOpe());
+        assertEquals(emitidos.getdTotDesc(), calculados.getdTotDesc());
+        assertEquals(emitidos.getdTotGralOpe(), calculados.getdTotGralOpe());
+        assertEquals(emitidos.getdIVA5(), calculados.getdIVA5());
+        assertEquals(emitidos.getdIVA10(), calculados.getdIVA10());
+        assertEquals(emitidos.getdTotIVA(), calculados.getdTotIVA());
+        assertEquals(emitidos.getdTBasGraIVA(), calculados.getdTBasGraIVA());
+
+        List<TgCamItem> items = DE.getgDtipDE().getgCamItemList();
+        List<TgCamItem> itemsEmitidos = generado.getgDtipDE().getgCamItemList();
+        for (int i = 0; i < items.size(); i++) {
+            assertEquals(itemsEmitidos.get(i).getgValorItem().getdTotBruOpeItem(), items.get(i).getgValorItem().getdTotBruOpeItem());
+            assertEquals(itemsEmitidos.get(i).getgCamIVA().getdLiqIVAItem(), items.get(i).getgCamIVA().getdLiqIVAItem());
+            assertEquals(itemsEmitidos.get(i).getgCamIVA().getdBasGravIVA(), items.get(i).getgCamIVA().getdBasGravIVA());
+        }
+
+        // El cálculo no firma el documento ni genera el enlace del QR
+        assertNull(DE.getEnlaceQR());
+    }
+
+    @Test
+    public void testRecalculoAlModificarItems() throws Exception {
+        DocumentoElectronico DE = DocumentosDePrueba.crearFactura("0000002", 3);
+        DE.setgTotSub(null);
+        BigDecimal total = DE.calcularTotales().getdTotOpe();
+        assertNotNull(DE.getgTotSub());
+
+        TgCamItem gCamItem = DE.getgDtipDE().getgCamItemList().get(0);
+        BigDecimal precio = gCamItem.getgValorItem().getdPUniProSer();
+        BigDecimal cantidad = gCamItem.getdCantProSer().add(BigDecimal.ONE);
+        gCamItem.setdCantProSer(cantidad);
+        total = total.add(precio);
+        assertEquals(total, DE.calcularTotales().getdTotOpe());
+
+        DE.getgDtipDE().getgCamItemList().remove(0);
+        assertEquals(total.subtract(precio.multiply(cantidad)), DE.calcularTotales().getdTotOpe());
+    }
+
+    @Test
+    public void testItemsIncrementales() throws Exception {
+        DocumentoElectronico completo = DocumentosDePrueba.crearFactura("0000005", 6);
+        DocumentoElectronico incremental = DocumentosDePrueba.crearFactura("0000005", 6);
+        List<TgCamItem> items = new ArrayList<>(incremental.getgDtipDE().getgCamItemList());
+        incremental.getgDtipDE().setgCamItemList(null);
+        incremental.setgTotSub(null);
+        for (TgCamItem gCamItem : items) {
+            incremental.agregarItem(gCamItem);
+        }
+        try {
+            incremental.agregarItem(items.get(0));
+            fail("Se esperaba un error por el ítem repetido");
+        } catch (IllegalArgumentException ignored) {
+        }
+
+        BigDecimal cantidad = BigDecimal.valueOf(4);
+        completo.getgDtipDE().getgCamItemList().get(2).setdCantProSer(cantidad);
+        items.get(2).setdCantProSer(cantidad);
+        incremental.actualizarItem(items.get(2));
+
+        completo.getgDtipDE().getgCamItemList().remove(0);
+        assertTrue(incremental.quitarItem(items.get(0)));
+        assertFalse(incremental.quitarItem(items.get(0)));
+
+        TgTotSub esperados = completo.calcularTotales();
+        TgTotSub emitidos = new DocumentoElectronico(incremental.generarXml(GenerationCtx.getDefaultFromConfig(sifenConfig), sifenConfig))
+                .getgTotSub();
+        assertEquals(esperados.getdSub10(), emitidos.getdSub10());
+        assertEquals(esperados.getdTotOpe(), emitidos.getdTotOpe());
+        assertEquals(esperados.getdTotDesc(), emitidos.getdTotDesc());
+        assertEquals(esperados.getdTotGralOpe(), emitidos.getdTotGralOpe());
+        assertEquals(esperados.getdIVA10(), emitidos.getdIVA10());
+        assertEquals(esperados.getdTotIVA(), emitidos.getdTotIVA());
+        assertEquals(esperados.getdTBasGraIVA(), emitidos.getdTBasGraIVA());
+    }
+
+    @Test(expected = SifenException.class)
+    public void testCamposFaltantes() throws Exception {
+        DocumentoElectronico DE = DocumentosDePrueba.crearFactura("0000003", 1);
+        DE.setgTimb(null);
+        DE.calcularTotales();
+    }
+
+    @Test
+    public void testCampoFaltanteEnItem() throws Exception {
+        DocumentoElectronico DE = DocumentosDePrueba.crearFactura("0000004", 3);
+        DE.getgDtipDE().getgCamItemList().get(1).setdCantProSer(null);
+        try {
+            DE.calcularTotales();
+            fail("Se esperaba un error por la cantidad faltante");
+        } catch (SifenException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("(dCantProSer)") && e.getMessage().endsWith(" 2."));
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.roshka.sifen.test.de;
+
+import com.roshka.sifen.SifenClient;
+import com.roshka.sifen.core.SifenConfig;
+import com.roshka.sifen.core.beans.DocumentoElectronico;
+import com.roshka.sifen.core.beans.response.RespuestaRecepcionLoteDE;
+import com.roshka.sifen.internal.util.SifenUtil;
+import com.roshka.sifen.test.http.LocalSifenServer;
+import com.roshka.sifen.test.signature.TestCertificates;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.Assert.*;
+
+public class CompresionLoteTest {
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private static SifenConfig baseConfig;
+
+    private final List<String> receivedLotes = new ArrayList<>();
+    private LocalSifenServer server;
+
+    @BeforeClass
+    public static void setupConfig() throws Exception {
+        File certificate = TestCertificates.createPkcs12(folder.newFile("cert.p12"), "PRUEBA");
+        baseConfig = new SifenConfig(SifenConfig.TipoAmbiente.DEV, SifenConfig.TipoCertificadoCliente.PFX,
+                certificate.getAbsolutePath(), TestCertificates.PASSWORD);
+    }
+
+    @Before
+    public void startServer() throws IOException {
+        server = new LocalSifenServer(request -> {
+            synchronized (receivedLotes) {
+                receivedLotes.add(LocalSifenServer.extract(request, "xDE"));
+            }
+            return LocalSifenServer.SOAP_ENVELOPE_START +
+                    "<ns2:rResEnviLoteDe xmlns:ns2=\"http://ekuatia.set.gov.py/sifen/xsd\">" +
+                    "<ns2:dFecProc>2022-03-15T10:30:00-03:00</ns2:dFecProc><ns2:dCodRes>0300</ns2:dCodRes>" +
+                    "<ns2:dMsgRes>Lote recibido con éxito</ns2:dMsgRes><ns2:dProtConsLote>123456</ns2:dProtConsLote>" +
+                    "<ns2:dTpoProces>1</ns2:dTpoProces></ns2:rResEnviLoteDe>" + LocalSifenServer.SOAP_ENVELOPE_END;
+        });
+    }
+
+    @After
+    public void stopServer() throws IOException {
+        server.close();
+    }
+
+    @Test
+    public void testCompresionEnMemoria() throws Exception {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?><rLoteDE>");
+        for (int i = 0; i < 500; i++) {
+            xml.append("<rDE><dDesProSer>Artículo de prueba ").append(i).append("</dDesProSer></rDE>");
+        }
+        String content = xml.append("</rLoteDE>").toString();
+
+        // El compresor se reutiliza entre llamadas, con distintos niveles de compresión
+        byte[] sinCompresion = compress(content, 0);
+        byte[] maximaCompresion = compress(content, 9);
+        byte[] porDefecto = SifenUtil.compressXmlToZip(content);
+
+        assertEquals(content, unzip(sinCompresion));
+        assertEquals(content, unzip(maximaCompresion));
+        assertEquals(content, unzip(porDefecto));
+        assertTrue(sinCompresion.length > content.length());
+        assertTrue(maximaCompresion.length < content.length() / 10);
+    }
+
+    @Test
+    public void testRecepcionLote() throws Exception {
+        SifenConfig domConfig = config(false, -1);
+        SifenConfig streamingConfig = config(true, 1);
+
+        RespuestaRecepcionLoteDE respuestaDom;
+        try (SifenClient client = new SifenClient(domConfig)) {
+            respuestaDom = client.recepcionLoteDE(lote());
+        }
+        RespuestaRecepcionLoteDE respuestaStreaming;
+        try (SifenClient client = new SifenClient(streamingConfig)) {
+            respuestaStreaming = client.recepcionLoteDE(lote());
+        }
+
+        assertEquals("123456", respuestaDom.getdProtConsLote());
+        assertEquals("123456", respuestaStreaming.getdProtConsLote());
+        assertEquals(2, receivedLotes.size());
+
+        // Ambos lotes contienen el mismo XML, independientemente del método de generación y del nivel de compresión
+        String xmlDom = unzip(Base64.getDecoder().decode(receivedLotes.get(0)));
+        String xmlStreaming = unzip(Base64.getDecoder().decode(receivedLotes.get(1)));
+        assertTrue(xmlDom.startsWith("<?xml version=\"1.0\" encoding=\"UTF-8\"?><rLoteDE><rDE "));
+        assertEquals(2, xmlDom.split("<rDE ").length - 1);
+        assertEquals(xmlDom, xmlStreaming);
+    }
+
+    private SifenConfig config(boolean streaming, int nivelCompresion) {
+        SifenConfig sifenConfig = new SifenConfig(baseConfig);
+        sifenConfig.setUrlBase(server.getUrlBase());
+        sifenConfig.setXmlGeneracionStreaming(streaming);
+        sifenConfig.setLoteNivelCompresion(nivelCompresion);
+        return sifenConfig;
+    }
+
+    private static List<DocumentoElectronico> lote() {
+        return Arrays.asList(DocumentosDePrueba.crearFactura("0000011", 3), DocumentosDePrueba.crearFactura("0000012", 4));
+    }
+
+    private static byte[] compress(String content, int nivelCompresion) throws IOException {
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        try (OutputStream out = SifenUtil.openXmlZip(zip, nivelCompresion)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return zip.toByteArray();
+    }
+
+    static String unzip(byte[] zip) throws IOException {
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry entry = in.getNextEntry();
+            assertNotNull(entry);
+            assertTrue(entry.getName().startsWith("DE_") && entry.getName().endsWith(".xml"));
+            String content = new String(SifenUtil.getByteArrayFromInputStream(in), StandardCharsets.UTF_8);
+            assertNull(in.getNextEntry());
+            return content;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.roshka.sifen.test.de;
+
+import com.roshka.sifen.core.beans.DocumentoElectronico;
+import com.roshka.sifen.core.fields.request.de.*;
+import com.roshka.sifen.core.types.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Documentos electrónicos de ejemplo, con datos fijos, para las pruebas que no requieren conexión con el SIFEN.
+ */
+public class DocumentosDePrueba {
+    public final static LocalDateTime FECHA = LocalDateTime.of(2022, 3, 15, 10, 30, 0);
+
+    /**
+     * Crea una factura electrónica a crédito con la cantidad de ítems indicada.
+     *
+     * @param numeroDocumento Número del documento (dNumDoc), de 7 dígitos.
+     * @param cantidadItems   Cantidad de ítems de la factura.
+     * @return El Documento Electrónico, con el código de seguridad ya establecido.
+     */
+    public static DocumentoElectronico crearFactura(String numeroDocumento, int cantidadItems) {
+        // Grupo A
+        DocumentoElectronico DE = new DocumentoElectronico();
+        DE.setdFecFirma(FECHA);
+        DE.setdSisFact((short) 1);
+
+        // Grupo B
+        TgOpeDE gOpeDE = new TgOpeDE();
+        gOpeDE.setiTipEmi(TTipEmi.NORMAL);
+        gOpeDE.setdCodSeg("123456789");
+        DE.setgOpeDE(gOpeDE);
+
+        // Grupo C
+        TgTimb gTimb = new TgTimb();
+        gTimb.setiTiDE(TTiDE.FACTURA_ELECTRONICA);
+        gTimb.setdNumTim(12557662);
+        gTimb.setdEst("001");
+        gTimb.setdPunExp("002");
+        gTimb.setdNumDoc(numeroDocumento);
+        gTimb.setdFeIniT(LocalDate.parse("2019-07-31"));
+        DE.setgTimb(gTimb);
+
+        // Grupo D
+        TdDatGralOpe dDatGralOpe = new TdDatGralOpe();
+        dDatGralOpe.setdFeEmiDE(FECHA);
+
+        TgOpeCom gOpeCom = new TgOpeCom();
+        gOpeCom.setiTipTra(TTipTra.PRESTACION_SERVICIOS);
+        gOpeCom.setiTImp(TTImp.IVA);
+        gOpeCom.setcMoneOpe(CMondT.PYG);
+        dDatGralOpe.setgOpeCom(gOpeCom);
+
+        TgEmis gEmis = new TgEmis();
+        gEmis.setdRucEm("80080553");
+        gEmis.setdDVEmi("4");
+        gEmis.setiTipCont(TiTipCont.PERSONA_JURIDICA);
+        gEmis.setdNomEmi("DE generado en ambiente de prueba - sin valor comercial ni fiscal");
+        gEmis.setdDirEmi("Mayor Bullo & Avda. <Artigas>");
+        gEmis.setdNumCas("670");
+        gEmis.setcDepEmi(TDepartamento.CAPITAL);
+        gEmis.setcCiuEmi(1);
+        gEmis.setdDesCiuEmi("ASUNCION (DISTRITO)");
+        gEmis.setdTelEmi("212376717");
+        gEmis.setdEmailE("administracion@roshka.com.py");
+
+        List<TgActEco> gActEcoList = new ArrayList<>();
+        TgActEco gActEco = new TgActEco();
+        gActEco.setcActEco("62090");
+        gActEco.setdDesActEco("OTRAS ACTIVIDADES DE TECNOLOGÍA DE LA INFORMACIÓN Y SERVICIOS INFORMÁTICOS");
+        gActEcoList.add(gActEco);
+        gEmis.setgActEcoList(gActEcoList);
+        dDatGralOpe.setgEmis(gEmis);
+
+        TgDatRec gDatRec = new TgDatRec();
+        gDatRec.setiNatRec(TiNatRec.NO_CONTRIBUYENTE);
+        gDatRec.setiTiOpe(TiTiOpe.B2C);
+        gDatRec.setcPaisRec(PaisType.PRY);
+        gDatRec.setiTipIDRec(TiTipDocRec.CEDULA_PARAGUAYA);
+        gDatRec.setdNumIDRec("4579993");
+        gDatRec.setdNomRec("Martín Zarza \"Cliente\"");
+        dDatGralOpe.setgDatRec(gDatRec);
+        DE.setgDatGralOpe(dDatGralOpe);
+
+        // Grupo E
+        TgDtipDE gDtipDE = new TgDtipDE();
+
+        TgCamFE gCamFE = new TgCamFE();
+        gCamFE.setiIndPres(TiIndPres.OPERACION_ELECTRONICA);
+        gDtipDE.setgCamFE(gCamFE);
+
+        TgCamCond gCamCond = new TgCamCond();
+        gCamCond.setiCondOpe(TiCondOpe.CREDITO);
+
+        TgPagCred gPagCred = new TgPagCred();
+        gPagCred.setiCondCred(TiCondCred.PLAZO);
+        gPagCred.setdPlazoCre("60 días");
+
+        gCamCond.setgPagCred(gPagCred);
+        gDtipDE.setgCamCond(gCamCond);
+
+        List<TgCamItem> gCamItemList = new ArrayList<>();
+        for (int i = 0; i < cantidadItems; i++) {
+            TgCamItem gCamItem = new TgCamItem();
+            gCamItem.setdCodInt(String.format("%03d", i + 1));
+            gCamItem.setdDesProSer("Servicio de Liquidación Nro. " + (i + 1));
+            gCamItem.setcUniMed(TcUniMed.UNI);
+            gCamItem.setdCantProSer(BigDecimal.valueOf(i % 3 + 1));
+
+            TgValorItem gValorItem = new TgValorItem();
+            gValorItem.setdPUniProSer(BigDecimal.valueOf(120000 + i * 1000L));
+
+            TgValorRestaItem gValorRestaItem = new TgValorRestaItem();
+            gValorItem.setgValorRestaItem(gValorRestaItem);
+            gCamItem.setgValorItem(gValorItem);
+
+            TgCamIVA gCamIVA = new TgCamIVA();
+            gCamIVA.setiAfecIVA(TiAfecIVA.GRAVADO);
+            gCamIVA.setdPropIVA(BigDecimal.valueOf(100));
+            gCamIVA.setdTasaIVA(BigDecimal.valueOf(i % 2 == 0 ? 10 : 5));
+            gCamItem.setgCamIVA(gCamIVA);
+
+            gCamItemList.add(gCamItem);
+        }
+
+        gDtipDE.setgCamItemList(gCamItemList);
+        DE.setgDtipDE(gDtipDE);
+
+        // Grupo E
+        DE.setgTotSub(new TgTotSub());
+
+        return DE;
+    }
+}
@@ -0,0 +1,142 @@
+package com.roshka.sifen.test.de;
+
+import com.roshka.sifen.SifenClient;
+import com.roshka.sifen.core.SifenConfig;
+import com.roshka.sifen.core.beans.DocumentoElectronico;
+import com.roshka.sifen.core.exceptions.SifenException;
+import com.roshka.sifen.test.http.LocalSifenServer;
+import com.roshka.sifen.test.signature.TestCertificates;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GeneracionLoteParalelaTest {
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private static SifenConfig baseConfig;
+
+    private final List<String> receivedLotes = new ArrayList<>();
+    private LocalSifenServer server;
+
+    @BeforeClass
+    public static void setupConfig() throws Exception {
+        File certificate = TestCertificates.createPkcs12(folder.newFile("cert.p12"), "PRUEBA");
+        baseConfig = new SifenConfig(SifenConfig.TipoAmbiente.DEV, SifenConfig.TipoCertificadoCliente.PFX,
+                certificate.getAbsolutePath(), TestCertificates.PASSWORD);
+    }
+
+    @Before
+    public void startServer() throws IOException {
+        server = new LocalSifenServer(request -> {
+            synchronized (receivedLotes) {
+                receivedLotes.add(LocalSifenServer.extract(request, "xDE"));
+            }
+            return LocalSifenServer.SOAP_ENVELOPE_START +
+                    "<ns2:rResEnviLoteDe xmlns:ns2=\"http://ekuatia.set.gov.py/sifen/xsd\">" +
+                    "<ns2:dCodRes>0300</ns2:dCodRes><ns2:dMsgRes>Lote recibido con éxito</ns2:dMsgRes>" +
+                    "<ns2:dProtConsLote>123456</ns2:dProtConsLote></ns2:rResEnviLoteDe>" + LocalSifenServer.SOAP_ENVELOPE_END;
+        });
+    }
+
+    @After
+    public void stopServer() throws IOException {
+        server.close();
+    }
+
+    @Test
+    public void testLoteParaleloIdentico() throws Exception {
+        enviarLote(config(false, 1), lote(12));
+        enviarLote(config(false, 4), lote(12));
+        enviarLote(config(true, 4), lote(12));
+
+        // El lote generado en paralelo es idéntico al generado secuencialmente, con los DE en el orden original
+        String secuencial = CompresionLoteTest.unzip(Base64.getDecoder().decode(receivedLotes.get(0)));
+        assertEquals(secuencial, CompresionLoteTest.unzip(Base64.getDecoder().decode(receivedLotes.get(1))));
+        assertEquals(secuencial, CompresionLoteTest.unzip(Base64.getDecoder().decode(receivedLotes.get(2))));
+
+        int previous = -1;
+        for (int i = 0; i < 12; i++) {
+            int index = secuencial.indexOf("<dNumDoc>" + String.format("%07d", i + 1) + "</dNumDoc>");
+            assertTrue(index > previous);
+            previous = index;
+        }
+    }
+
+    @Test
+    public void testErrorEnUnDE() throws Exception {
+        List<DocumentoElectronico> lote = lote(8);
+        lote.get(5).setgTimb(null);
+
+        try (SifenClient client = new SifenClient(config(true, 4))) {
+            client.recepcionLoteDE(lote);
+            fail("Se esperaba un error al generar el lote");
+        } catch (SifenException ignored) {
+        }
+        assertTrue(receivedLotes.isEmpty());
+    }
+
+    /**
+     * Compara el tiempo de envío de lotes de 50 DE, generados secuencialmente y en paralelo.
+     */
+    @Test
+    @Ignore
+    public void benchmarkGeneracionLote() throws Exception {
+        int hilos = Runtime.getRuntime().availableProcessors();
+        for (boolean streaming : new boolean[]{false, true}) {
+            long secuencial = medirLotes(config(streaming, 1));
+            long paralelo = medirLotes(config(streaming, hilos));
+            System.out.printf("Streaming: %s. Secuencial: %d ms por lote. Paralelo (%d hilos): %d ms por lote (%.1fx)%n",
+                    streaming, secuencial, hilos, paralelo, (double) secuencial / paralelo);
+        }
+    }
+
+    private static void enviarLote(SifenConfig sifenConfig, List<DocumentoElectronico> lote) throws SifenException {
+        try (SifenClient client = new SifenClient(sifenConfig)) {
+            assertEquals("123456", client.recepcionLoteDE(lote).getdProtConsLote());
+        }
+    }
+
+    private long medirLotes(SifenConfig sifenConfig) throws Exception {
+        try (SifenClient client = new SifenClient(sifenConfig)) {
+            for (int i = 0; i < 3; i++) {
+                client.recepcionLoteDE(lote(50)); // Calentamiento
+            }
+
+            int lotes = 10;
+            long start = System.nanoTime();
+            for (int i = 0; i < lotes; i++) {
+                client.recepcionLoteDE(lote(50));
+            }
+            return (System.nanoTime() - start) / lotes / 1000000;
+        }
+    }
+
+    private SifenConfig config(boolean streaming, int hilos) {
+        SifenConfig sifenConfig = new SifenConfig(baseConfig);
+        sifenConfig.setUrlBase(server.getUrlBase());
+        sifenConfig.setXmlGeneracionStreaming(streaming);
+        sifenConfig.setLoteHilosGeneracion(hilos);
+        return sifenConfig;
+    }
+
+    private static List<DocumentoElectronico> lote(int cantidad) {
+        List<DocumentoElectronico> lote = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            lote.add(DocumentosDePrueba.crearFactura(String.format("%07d", i + 1), 5 + i % 7));
+        }
+        return lote;
+    }
+}
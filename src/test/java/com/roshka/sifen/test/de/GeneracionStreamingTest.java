@@ -0,0 +1,122 @@
+package com.roshka.sifen.test.de;
+
+import com.roshka.sifen.core.SifenConfig;
+import com.roshka.sifen.core.beans.DocumentoElectronico;
+import com.roshka.sifen.internal.ctx.GenerationCtx;
+import com.roshka.sifen.internal.helpers.SoapHelper;
+import com.roshka.sifen.internal.util.SifenUtil;
+import com.roshka.sifen.internal.xml.StreamingXmlWriter;
+import com.roshka.sifen.internal.xml.XmlElement;
+import com.roshka.sifen.test.signature.TestCertificates;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.xml.soap.SOAPElement;
+import javax.xml.soap.SOAPException;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GeneracionStreamingTest {
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private static SifenConfig domConfig;
+    private static SifenConfig streamingConfig;
+
+    @BeforeClass
+    public static void setupConfig() throws Exception {
+        File certificate = TestCertificates.createPkcs12(folder.newFile("cert.p12"), "PRUEBA");
+        domConfig = new SifenConfig(SifenConfig.TipoAmbiente.DEV, SifenConfig.TipoCertificadoCliente.PFX,
+                certificate.getAbsolutePath(), TestCertificates.PASSWORD);
+        streamingConfig = new SifenConfig(domConfig);
+        streamingConfig.setXmlGeneracionStreaming(true);
+    }
+
+    @Test
+    public void testXmlIdentico() throws Exception {
+        for (int items : new int[]{1, 2, 50}) {
+            String dom = DocumentosDePrueba.crearFactura("0000001", items)
+                    .generarXml(GenerationCtx.getDefaultFromConfig(domConfig), domConfig);
+            String streaming = DocumentosDePrueba.crearFactura("0000001", items)
+                    .generarXml(GenerationCtx.getDefaultFromConfig(streamingConfig), streamingConfig);
+
+            assertNotNull(dom);
+            assertTrue(dom.contains("<Signature xmlns=\"http://www.w3.org/2000/09/xmldsig#\">"));
+            assertTrue(dom.contains("<gCamFuFD><dCarQR>"));
+            assertEquals(dom, streaming);
+        }
+    }
+
+    @Test
+    public void testXmlIdenticoConCaracteresEspeciales() throws Exception {
+        // Saltos de línea, tabulaciones, caracteres de control y fuera del plano básico
+        String informacion = "Línea 1\r\nLínea 2\t<&> \"comillas\" \u0001\u0085  😀";
+
+        DocumentoElectronico domDE = DocumentosDePrueba.crearFactura("0000002", 3);
+        domDE.getgDtipDE().getgCamItemList().get(1).setdInfItem(informacion);
+        DocumentoElectronico streamingDE = DocumentosDePrueba.crearFactura("0000002", 3);
+        streamingDE.getgDtipDE().getgCamItemList().get(1).setdInfItem(informacion);
+
+        String dom = domDE.generarXml(GenerationCtx.getDefaultFromConfig(domConfig), domConfig);
+        String streaming = streamingDE.generarXml(GenerationCtx.getDefaultFromConfig(streamingConfig), streamingConfig);
+        assertEquals(dom, streaming);
+    }
+
+    @Test
+    public void testLoteIdentico() throws Exception {
+        List<DocumentoElectronico> domLote = Arrays.asList(DocumentosDePrueba.crearFactura("0000003", 2),
+                DocumentosDePrueba.crearFactura("0000004", 5));
+        List<DocumentoElectronico> streamingLote = Arrays.asList(DocumentosDePrueba.crearFactura("0000003", 2),
+                DocumentosDePrueba.crearFactura("0000004", 5));
+
+        // Misma construcción que en la petición de recepción de lote
+        SOAPElement rLoteDE = SoapHelper.createSoapMessage().getSOAPBody().addChildElement("rLoteDE");
+        for (DocumentoElectronico DE : domLote) {
+            DE.setupDE(GenerationCtx.getDefaultFromConfig(domConfig), rLoteDE, domConfig);
+        }
+        StringWriter dom = new StringWriter();
+        SifenUtil.newTransformer().transform(new DOMSource(rLoteDE), new StreamResult(dom));
+
+        ByteArrayOutputStream streaming = new ByteArrayOutputStream();
+        StreamingXmlWriter writer = new StreamingXmlWriter(streaming);
+        writer.writeXmlDeclaration(false);
+        XmlElement streamingRLoteDE = writer.createRootElement("rLoteDE");
+        for (DocumentoElectronico DE : streamingLote) {
+            DE.setupDE(GenerationCtx.getDefaultFromConfig(streamingConfig), streamingRLoteDE, streamingConfig);
+        }
+        writer.finish();
+
+        assertEquals(dom.toString(), new String(streaming.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testOrdenDeEscritura() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StreamingXmlWriter writer = new StreamingXmlWriter(out);
+        XmlElement root = writer.createRootElement("raiz");
+        XmlElement first = root.addChildElement("primero");
+        first.addChildElement("vacio");
+        root.addChildElement("segundo").setTextContent("texto");
+
+        // El primer hijo ya fue cerrado al agregar el segundo
+        try {
+            first.addChildElement("tarde");
+            fail("Se esperaba una excepción al modificar un elemento cerrado");
+        } catch (SOAPException ignored) {
+        }
+
+        writer.finish();
+        assertEquals("<raiz><primero><vacio/></primero><segundo>texto</segundo></raiz>",
+                new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+}
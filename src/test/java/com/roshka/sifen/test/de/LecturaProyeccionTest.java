@@ -0,0 +1,143 @@
+package com.roshka.sifen.test.de;
+
+import com.roshka.sifen.core.SifenConfig;
+import com.roshka.sifen.core.beans.DocumentoElectronico;
+import com.roshka.sifen.core.beans.ProyeccionDE;
+import com.roshka.sifen.core.exceptions.SifenException;
+import com.roshka.sifen.core.fields.request.de.TgEmis;
+import com.roshka.sifen.internal.ctx.GenerationCtx;
+import com.roshka.sifen.test.signature.TestCertificates;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de la lectura parcial de Documentos Electrónicos con una {@link ProyeccionDE}.
+ */
+public class LecturaProyeccionTest {
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private static SifenConfig sifenConfig;
+
+    @BeforeClass
+    public static void setupConfig() throws Exception {
+        File certificate = TestCertificates.createPkcs12(folder.newFile("cert.p12"), "PRUEBA");
+        sifenConfig = new SifenConfig(SifenConfig.TipoAmbiente.DEV, SifenConfig.TipoCertificadoCliente.PFX,
+                certificate.getAbsolutePath(), TestCertificates.PASSWORD);
+        sifenConfig.setXmlGeneracionStreaming(true);
+    }
+
+    @Test
+    public void testProyeccionConciliacion() throws Exception {
+        String xml = generarXml(DocumentosDePrueba.crearFactura("0000001", 20));
+        DocumentoElectronico completo = new DocumentoElectronico(xml);
+
+        DocumentoElectronico DE = new DocumentoElectronico(xml, ProyeccionDE.CONCILIACION);
+        assertEquals(completo.getId(), DE.getId());
+        assertEquals(completo.getgDatGralOpe().getdFeEmiDE(), DE.getgDatGralOpe().getdFeEmiDE());
+        assertEquals(completo.getgDatGralOpe().getgEmis().getdRucEm(), DE.getgDatGralOpe().getgEmis().getdRucEm());
+        assertEquals(completo.getgDatGralOpe().getgEmis().getdNomEmi(), DE.getgDatGralOpe().getgEmis().getdNomEmi());
+        assertEquals(completo.getgDatGralOpe().getgDatRec().getdRucRec(), DE.getgDatGralOpe().getgDatRec().getdRucRec());
+        assertEquals(completo.getgTotSub().getdTotGralOpe(), DE.getgTotSub().getdTotGralOpe());
+        assertEquals(completo.getgTotSub().getdTotIVA(), DE.getgTotSub().getdTotIVA());
+
+        // Los grupos no proyectados no se leen
+        assertNull(DE.getgDatGralOpe().getgOpeCom());
+        assertNull(DE.getgTimb());
+        assertNull(DE.getgDtipDE());
+    }
+
+    @Test
+    public void testProyeccionAnidada() throws Exception {
+        String xml = generarXml(DocumentosDePrueba.crearFactura("0000002", 5));
+        DocumentoElectronico DE = new DocumentoElectronico(
+                new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)),
+                new ProyeccionDE("gDatGralOpe/gEmis/dRucEm", "gDatGralOpe/gEmis/dDVEmi"));
+
+        TgEmis gEmis = DE.getgDatGralOpe().getgEmis();
+        assertEquals(new DocumentoElectronico(xml).getgDatGralOpe().getgEmis().getdRucEm(), gEmis.getdRucEm());
+        assertNotNull(gEmis.getdDVEmi());
+        assertNull(gEmis.getdNomEmi());
+        assertNull(DE.getgTotSub());
+    }
+
+    @Test
+    public void testFinAnticipado() throws Exception {
+        String xml = generarXml(DocumentosDePrueba.crearFactura("0000003", 200));
+
+        // La lectura de la cabecera finaliza al comenzar los ítems, por lo que un XML truncado en ellos es suficiente
+        String truncado = xml.substring(0, xml.indexOf("<gCamItem") + xml.length() / 4);
+        DocumentoElectronico DE = new DocumentoElectronico(truncado, ProyeccionDE.CABECERA);
+        assertNull(DE.getgDtipDE());
+        assertEquals(new DocumentoElectronico(xml).getId(), DE.obtenerCDC());
+
+        try {
+            new DocumentoElectronico(truncado, ProyeccionDE.CONCILIACION);
+            fail("Se esperaba un error de lectura, ya que gTotSub se encuentra luego de los ítems");
+        } catch (SifenException e) {
+            assertNotNull(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testRutasInvalidas() {
+        for (String[] rutas : new String[][]{{}, {""}, {"gDatGralOpe//gEmis"}, {"gTotSub/"}}) {
+            try {
+                new ProyeccionDE(rutas);
+                fail("Se esperaba un error para las rutas " + String.join(", ", rutas));
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Compara el tiempo y la memoria asignada de la lectura completa y con proyecciones de un DE con muchos ítems.
+     */
+    @Test
+    @Ignore
+    public void benchmarkProyeccion() throws Exception {
+        String xml = generarXml(DocumentosDePrueba.crearFactura("0000004", 2000));
+        System.out.println("Tamaño del XML: " + xml.length() / 1024 + " KB");
+
+        for (int round = 0; round < 3; round++) {
+            medir("Completa", () -> new DocumentoElectronico(xml));
+            medir("Conciliación", () -> new DocumentoElectronico(xml, ProyeccionDE.CONCILIACION));
+            medir("Cabecera", () -> new DocumentoElectronico(xml, ProyeccionDE.CABECERA));
+        }
+    }
+
+    private interface Lectura {
+        DocumentoElectronico leer() throws Exception;
+    }
+
+    private static void medir(String nombre, Lectura lectura) throws Exception {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        int repeticiones = 20;
+
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < repeticiones; i++) {
+            assertNotNull(lectura.leer().getId());
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        System.out.printf("%-12s %8.2f ms/DE %10d KB asignados/DE%n", nombre, elapsed / 1e6 / repeticiones,
+                allocated / 1024 / repeticiones);
+    }
+
+    private static String generarXml(DocumentoElectronico DE) throws SifenException {
+        return DE.generarXml(GenerationCtx.getDefaultFromConfig(sifenConfig), sifenConfig);
+    }
+}
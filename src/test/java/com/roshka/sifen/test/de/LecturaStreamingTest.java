@@ -0,0 +1,142 @@
+package com.roshka.sifen.test.de;
+
+import com.roshka.sifen.core.SifenConfig;
+import com.roshka.sifen.core.beans.DocumentoElectronico;
+import com.roshka.sifen.core.exceptions.SifenException;
+import com.roshka.sifen.internal.ctx.GenerationCtx;
+import com.roshka.sifen.internal.response.SifenObjectFactory;
+import com.roshka.sifen.test.signature.TestCertificates;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de la lectura de Documentos Electrónicos en streaming (StAX), comparada con la lectura a partir del árbol
+ * DOM.
+ */
+public class LecturaStreamingTest {
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private static SifenConfig sifenConfig;
+
+    @BeforeClass
+    public static void setupConfig() throws Exception {
+        File certificate = TestCertificates.createPkcs12(folder.newFile("cert.p12"), "PRUEBA");
+        sifenConfig = new SifenConfig(SifenConfig.TipoAmbiente.DEV, SifenConfig.TipoCertificadoCliente.PFX,
+                certificate.getAbsolutePath(), TestCertificates.PASSWORD);
+        sifenConfig.setXmlGeneracionStreaming(true);
+    }
+
+    @Test
+    public void testLecturaIdenticaADom() throws Exception {
+        for (int items : new int[]{1, 50}) {
+            DocumentoElectronico original = DocumentosDePrueba.crearFactura("0000001", items);
+            original.getgDtipDE().getgCamItemList().get(0).setdInfItem("Línea 1\nLínea 2\t<&> \"comillas\" 😀");
+            String xml = generarXml(original);
+
+            DocumentoElectronico streaming = new DocumentoElectronico(xml);
+            DocumentoElectronico dom = leerConDom(xml);
+
+            assertEquals(original.getId(), streaming.getId());
+            assertEquals(items, streaming.getgDtipDE().getgCamItemList().size());
+            assertEquals(original.getgDtipDE().getgCamItemList().get(0).getdInfItem(),
+                    streaming.getgDtipDE().getgCamItemList().get(0).getdInfItem());
+            assertEquals(generarXml(dom), generarXml(streaming));
+        }
+    }
+
+    @Test
+    public void testLecturaDesdeStream() throws Exception {
+        String xml = generarXml(DocumentosDePrueba.crearFactura("0000002", 3000));
+
+        DocumentoElectronico DE = new DocumentoElectronico(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(3000, DE.getgDtipDE().getgCamItemList().size());
+        assertEquals(generarXml(new DocumentoElectronico(xml)), generarXml(DE));
+    }
+
+    @Test
+    public void testXmlInvalido() {
+        try {
+            new DocumentoElectronico("<rDE><DE><gOpeDE></DE></rDE>");
+            fail("Se esperaba un error de lectura del XML");
+        } catch (SifenException e) {
+            assertNotNull(e.getMessage());
+        }
+
+        try {
+            new DocumentoElectronico("<rDE><otro/></rDE>");
+            fail("Se esperaba un error por la ausencia del elemento DE");
+        } catch (SifenException e) {
+            assertTrue(e.getMessage().contains("DE"));
+        }
+    }
+
+    /**
+     * Compara el tiempo y la memoria asignada de la lectura con DOM y en streaming de un DE con muchos ítems.
+     */
+    @Test
+    @Ignore
+    public void benchmarkLectura() throws Exception {
+        String xml = generarXml(DocumentosDePrueba.crearFactura("0000003", 2000));
+        System.out.println("Tamaño del XML: " + xml.length() / 1024 + " KB");
+
+        for (int round = 0; round < 3; round++) {
+            medir("DOM", xml, () -> leerConDom(xml));
+            medir("StAX", xml, () -> new DocumentoElectronico(xml));
+        }
+    }
+
+    private interface Lectura {
+        DocumentoElectronico leer() throws Exception;
+    }
+
+    private static void medir(String nombre, String xml, Lectura lectura) throws Exception {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        int repeticiones = 20;
+
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < repeticiones; i++) {
+            assertNotNull(lectura.leer().getId());
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        System.out.printf("%-5s %8.2f ms/DE %10d KB asignados/DE%n", nombre, elapsed / 1e6 / repeticiones,
+                allocated / 1024 / repeticiones);
+    }
+
+    /*
+     * Lectura anterior: XML sin espacios entre etiquetas, árbol DOM completo y recorrido de sus nodos.
+     */
+    private static DocumentoElectronico leerConDom(String xml) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        Document document = factory.newDocumentBuilder()
+                .parse(new InputSource(new StringReader(xml.replaceAll(">[\\s\r\n]*<", "><"))));
+
+        DocumentoElectronico DE = new DocumentoElectronico();
+        SifenObjectFactory.getFromNode(document.getElementsByTagName("DE").item(0), DE);
+        DE.obtenerCDC();
+        return DE;
+    }
+
+    private static String generarXml(DocumentoElectronico DE) throws SifenException {
+        return DE.generarXml(GenerationCtx.getDefaultFromConfig(sifenConfig), sifenConfig);
+    }
+}
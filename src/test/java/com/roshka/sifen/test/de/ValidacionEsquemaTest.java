@@ -0,0 +1,167 @@
+package com.roshka.sifen.test.de;
+
+import com.roshka.sifen.Sifen;
+import com.roshka.sifen.SifenClient;
+import com.roshka.sifen.core.SifenConfig;
+import com.roshka.sifen.core.beans.DocumentoElectronico;
+import com.roshka.sifen.core.beans.ErrorEsquema;
+import com.roshka.sifen.core.exceptions.SifenException;
+import com.roshka.sifen.core.exceptions.SifenExceptionCodes;
+import com.roshka.sifen.internal.ctx.GenerationCtx;
+import com.roshka.sifen.test.http.LocalSifenServer;
+import com.roshka.sifen.test.signature.TestCertificates;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de la validación de los Documentos Electrónicos contra los esquemas v150 de Sifen, antes del envío.
+ */
+public class ValidacionEsquemaTest {
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private static SifenConfig baseConfig;
+
+    private LocalSifenServer server;
+
+    @BeforeClass
+    public static void setupConfig() throws Exception {
+        File certificate = TestCertificates.createPkcs12(folder.newFile("cert.p12"), "PRUEBA");
+        baseConfig = new SifenConfig(SifenConfig.TipoAmbiente.DEV, SifenConfig.TipoCertificadoCliente.PFX,
+                certificate.getAbsolutePath(), TestCertificates.PASSWORD);
+    }
+
+    @Before
+    public void startServer() throws IOException {
+        server = new LocalSifenServer(request -> LocalSifenServer.SOAP_ENVELOPE_START +
+                "<ns2:rResEnviLoteDe xmlns:ns2=\"http://ekuatia.set.gov.py/sifen/xsd\">" +
+                "<ns2:dCodRes>0300</ns2:dCodRes><ns2:dMsgRes>Lote recibido con éxito</ns2:dMsgRes>" +
+                "<ns2:dProtConsLote>123456</ns2:dProtConsLote></ns2:rResEnviLoteDe>" + LocalSifenServer.SOAP_ENVELOPE_END);
+    }
+
+    @After
+    public void stopServer() throws IOException {
+        server.close();
+    }
+
+    @Test
+    public void testDocumentosGeneradosValidos() throws Exception {
+        for (boolean streaming : new boolean[]{false, true}) {
+            SifenConfig sifenConfig = config(streaming, 1);
+            String xml = DocumentosDePrueba.crearFactura("0000001", 5).generarXml(GenerationCtx.getDefaultFromConfig(sifenConfig), sifenConfig);
+
+            assertEquals(0, Sifen.validarEsquema(xml).size());
+            assertEquals(0, Sifen.validarEsquema(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8))).size());
+        }
+    }
+
+    @Test
+    public void testErroresPorCampo() throws Exception {
+        SifenConfig sifenConfig = config(true, 1);
+        String xml = DocumentosDePrueba.crearFactura("0000001", 5).generarXml(GenerationCtx.getDefaultFromConfig(sifenConfig), sifenConfig)
+                .replace("<dNumCas>670</dNumCas>", "<dNumCas>67O</dNumCas>")
+                .replace("<dDesCiuEmi>ASUNCION (DISTRITO)</dDesCiuEmi>", "");
+
+        List<ErrorEsquema> errores = Sifen.validarEsquema(xml);
+        assertFalse(errores.isEmpty());
+        assertEquals("dNumCas", errores.get(0).getCampo());
+        assertEquals("rDE/DE/gDatGralOpe/gEmis/dNumCas", errores.get(0).getRuta());
+        assertTrue(errores.get(0).getLinea() > 0 && errores.get(0).getColumna() > 0);
+
+        ErrorEsquema ultimo = errores.get(errores.size() - 1);
+        assertEquals("dTelEmi", ultimo.getCampo());
+        assertTrue(ultimo.getMensaje(), ultimo.getMensaje().contains("dDesCiuEmi"));
+    }
+
+    @Test
+    public void testXmlSinDocumentos() {
+        List<ErrorEsquema> errores = Sifen.validarEsquema("<rLoteDE/>");
+        assertEquals(1, errores.size());
+        assertNull(errores.get(0).getCampo());
+
+        // Los errores encontrados antes del fin inesperado del XML también se informan
+        errores = Sifen.validarEsquema("<rDE xmlns=\"http://ekuatia.set.gov.py/sifen/xsd\">\n<DE>");
+        ErrorEsquema malFormado = errores.get(errores.size() - 1);
+        assertNull(malFormado.getCampo());
+        assertEquals(2, malFormado.getLinea());
+    }
+
+    @Test
+    public void testValidacionAntesDelEnvio() throws Exception {
+        DocumentoElectronico invalido = DocumentosDePrueba.crearFactura("0000002", 3);
+        invalido.getgDatGralOpe().getgEmis().setdNumCas("S/N");
+
+        for (int hilos : new int[]{1, 4}) {
+            try (SifenClient client = new SifenClient(config(hilos > 1, hilos))) {
+                client.recepcionDE(invalido);
+                fail("Se esperaba un error de validación del esquema");
+            } catch (SifenException e) {
+                assertEquals(SifenExceptionCodes.INVALID_SCHEMA_ERROR_CODE, e.getCode());
+                assertTrue(e.getMessage(), e.getMessage().contains("rDE/DE/gDatGralOpe/gEmis/dNumCas"));
+            }
+
+            try (SifenClient client = new SifenClient(config(hilos > 1, hilos))) {
+                client.recepcionLoteDE(Arrays.asList(DocumentosDePrueba.crearFactura("0000001", 3), invalido));
+                fail("Se esperaba un error de validación del esquema");
+            } catch (SifenException e) {
+                assertEquals(SifenExceptionCodes.INVALID_SCHEMA_ERROR_CODE, e.getCode());
+            }
+        }
+        assertEquals(0, server.getRequests());
+
+        // Los documentos válidos se envían normalmente
+        try (SifenClient client = new SifenClient(config(true, 4))) {
+            assertEquals("123456", client.recepcionLoteDE(Arrays.asList(DocumentosDePrueba.crearFactura("0000001", 3),
+                    DocumentosDePrueba.crearFactura("0000003", 3))).getdProtConsLote());
+        }
+        assertEquals(1, server.getRequests());
+    }
+
+    @Test
+    @Ignore("Benchmark, ejecutar manualmente")
+    public void benchmarkValidacion() throws Exception {
+        SifenConfig sifenConfig = config(true, 1);
+        String xml = DocumentosDePrueba.crearFactura("0000001", 20).generarXml(GenerationCtx.getDefaultFromConfig(sifenConfig), sifenConfig);
+        int repeticiones = 2000;
+
+        for (int ronda = 0; ronda < 3; ronda++) {
+            long inicio = System.nanoTime();
+            for (int i = 0; i < repeticiones; i++) {
+                DocumentosDePrueba.crearFactura("0000001", 20).generarXml(GenerationCtx.getDefaultFromConfig(sifenConfig), sifenConfig);
+            }
+            long generacion = System.nanoTime() - inicio;
+
+            inicio = System.nanoTime();
+            for (int i = 0; i < repeticiones; i++) {
+                assertTrue(Sifen.validarEsquema(xml).isEmpty());
+            }
+            long validacion = System.nanoTime() - inicio;
+
+            System.out.printf("DE de 20 ítems (%,d bytes): generación y firma %,d µs, validación %,d µs%n",
+                    xml.length(), generacion / repeticiones / 1000, validacion / repeticiones / 1000);
+        }
+    }
+
+    private SifenConfig config(boolean streaming, int hilos) {
+        SifenConfig sifenConfig = new SifenConfig(baseConfig);
+        sifenConfig.setUrlBase(server.getUrlBase());
+        sifenConfig.setXmlGeneracionStreaming(streaming);
+        sifenConfig.setLoteHilosGeneracion(hilos);
+        sifenConfig.setXmlValidacionEsquema(true);
+        return sifenConfig;
+    }
+}
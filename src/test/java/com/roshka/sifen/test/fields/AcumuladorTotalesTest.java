@@ -0,0 +1,197 @@
+package com.roshka.sifen.test.fields;
+
+import com.roshka.sifen.core.fields.request.de.*;
+import com.roshka.sifen.core.types.CMondT;
+import com.roshka.sifen.core.types.TTImp;
+import com.roshka.sifen.core.types.TTiDE;
+import com.roshka.sifen.core.types.TdCondTiCam;
+import com.roshka.sifen.core.types.TiAfecIVA;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas, con operaciones aleatorias, de que los totales de {@link AcumuladorTotales} coinciden con los que se obtienen
+ * recorriendo todos los ítems.
+ */
+public class AcumuladorTotalesTest {
+
+    @Test
+    public void testTotalesIgualesAlRecalculoCompleto() throws Exception {
+        Random random = new Random(20221201);
+        for (int documento = 0; documento < 100; documento++) {
+            TTiDE iTiDE = random.nextInt(5) == 0 ? TTiDE.AUTOFACTURA_ELECTRONICA : TTiDE.FACTURA_ELECTRONICA;
+            TgOpeCom gOpeCom = operacionAleatoria(random);
+
+            AcumuladorTotales acumulador = new AcumuladorTotales(iTiDE, gOpeCom);
+            List<TgCamItem> items = new ArrayList<>();
+            TgDtipDE gDtipDE = new TgDtipDE();
+            gDtipDE.setgCamItemList(items);
+
+            for (int operacion = 0; operacion < 200; operacion++) {
+                // Sin ítems, el porcentaje de descuento total no se puede calcular
+                int tipo = items.isEmpty() ? 0 : items.size() == 1 ? 2 * random.nextInt(2) : random.nextInt(3);
+                if (tipo == 0) {
+                    TgCamItem gCamItem = itemAleatorio(random, iTiDE, gOpeCom);
+                    items.add(gCamItem);
+                    acumulador.agregarItem(gCamItem);
+                } else if (tipo == 1) {
+                    TgCamItem gCamItem = items.remove(random.nextInt(items.size()));
+                    assertTrue(acumulador.quitarItem(gCamItem));
+                    assertFalse(acumulador.quitarItem(gCamItem));
+                } else {
+                    TgCamItem gCamItem = items.get(random.nextInt(items.size()));
+                    gCamItem.setdCantProSer(BigDecimal.valueOf(1 + random.nextInt(5000), random.nextInt(5)));
+                    if (gCamItem.getgCamIVA() != null && random.nextBoolean())
+                        gCamItem.setgCamIVA(ivaAleatorio(random));
+                    acumulador.actualizarItem(gCamItem);
+                }
+                assertEquals(items.size(), acumulador.getCantidadItems());
+
+                TgTotSub incremental = new TgTotSub();
+                incremental.calcularMontos(acumulador);
+                TgTotSub completo = new TgTotSub();
+                completo.calcularMontos(iTiDE, gDtipDE, gOpeCom);
+                comparar(completo, incremental);
+            }
+        }
+    }
+
+    @Test
+    public void testItemsNoAgregados() {
+        AcumuladorTotales acumulador = new AcumuladorTotales(TTiDE.FACTURA_ELECTRONICA, operacionAleatoria(new Random(1)));
+        TgCamItem gCamItem = itemAleatorio(new Random(2), TTiDE.FACTURA_ELECTRONICA, acumulador.getgOpeCom());
+        assertFalse(acumulador.quitarItem(gCamItem));
+
+        try {
+            acumulador.actualizarItem(gCamItem);
+            fail("Se esperaba una excepción al actualizar un ítem no agregado");
+        } catch (IllegalArgumentException ignored) {
+        }
+
+        acumulador.agregarItem(gCamItem);
+        try {
+            acumulador.agregarItem(gCamItem);
+            fail("Se esperaba una excepción al agregar dos veces el mismo ítem");
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
+
+    @Test
+    @Ignore("Benchmark, ejecutar manualmente")
+    public void benchmarkActualizacionDeItem() {
+        Random random = new Random(7);
+        TgOpeCom gOpeCom = operacionAleatoria(random);
+        AcumuladorTotales acumulador = new AcumuladorTotales(TTiDE.FACTURA_ELECTRONICA, gOpeCom);
+        List<TgCamItem> items = new ArrayList<>();
+        TgDtipDE gDtipDE = new TgDtipDE();
+        gDtipDE.setgCamItemList(items);
+        for (int i = 0; i < 5000; i++) {
+            TgCamItem gCamItem = itemAleatorio(random, TTiDE.FACTURA_ELECTRONICA, gOpeCom);
+            items.add(gCamItem);
+            acumulador.agregarItem(gCamItem);
+        }
+
+        TgTotSub gTotSub = new TgTotSub();
+        int iteraciones = 2000;
+        for (int ronda = 0; ronda < 3; ronda++) {
+            long inicio = System.nanoTime();
+            for (int i = 0; i < iteraciones; i++) {
+                TgCamItem gCamItem = items.get(i % items.size());
+                gCamItem.setdCantProSer(BigDecimal.valueOf(1 + i % 7));
+                gDtipDE.calcularMontos(TTiDE.FACTURA_ELECTRONICA, datosGenerales(gOpeCom));
+                gTotSub.calcularMontos(TTiDE.FACTURA_ELECTRONICA, gDtipDE, gOpeCom);
+            }
+            long completo = System.nanoTime() - inicio;
+
+            inicio = System.nanoTime();
+            for (int i = 0; i < iteraciones; i++) {
+                TgCamItem gCamItem = items.get(i % items.size());
+                gCamItem.setdCantProSer(BigDecimal.valueOf(1 + i % 7));
+                acumulador.actualizarItem(gCamItem);
+                gTotSub.calcularMontos(acumulador);
+            }
+            long incremental = System.nanoTime() - inicio;
+
+            System.out.printf("5000 ítems, por actualización: recálculo completo %,d µs, acumulador %,d µs%n",
+                    completo / iteraciones / 1000, incremental / iteraciones / 1000);
+        }
+    }
+
+    private static void comparar(TgTotSub esperado, TgTotSub obtenido) throws Exception {
+        for (Method method : TgTotSub.class.getMethods()) {
+            if (method.getName().startsWith("getd") && method.getReturnType() == BigDecimal.class) {
+                assertEquals(method.getName(), method.invoke(esperado), method.invoke(obtenido));
+            }
+        }
+    }
+
+    private static TdDatGralOpe datosGenerales(TgOpeCom gOpeCom) {
+        TdDatGralOpe gDatGralOpe = new TdDatGralOpe();
+        gDatGralOpe.setgOpeCom(gOpeCom);
+        return gDatGralOpe;
+    }
+
+    private static TgOpeCom operacionAleatoria(Random random) {
+        CMondT cMoneOpe = random.nextBoolean() ? CMondT.PYG : CMondT.USD;
+        TgOpeCom gOpeCom = new TgOpeCom();
+        gOpeCom.setiTImp(TTImp.IVA);
+        gOpeCom.setcMoneOpe(cMoneOpe);
+        if (cMoneOpe != CMondT.PYG) {
+            gOpeCom.setdCondTiCam(random.nextBoolean() ? TdCondTiCam.GLOBAL : TdCondTiCam.POR_ITEM);
+            gOpeCom.setdTiCam(BigDecimal.valueOf(6800 + random.nextInt(600), random.nextInt(3)));
+        }
+        return gOpeCom;
+    }
+
+    private static TgCamItem itemAleatorio(Random random, TTiDE iTiDE, TgOpeCom gOpeCom) {
+        TgCamItem gCamItem = new TgCamItem();
+        gCamItem.setdCantProSer(BigDecimal.valueOf(1 + random.nextInt(5000), random.nextInt(5)));
+
+        TgValorItem gValorItem = new TgValorItem();
+        BigDecimal precio = gOpeCom.getcMoneOpe() == CMondT.PYG
+                ? BigDecimal.valueOf(1000 + random.nextInt(5_000_000), random.nextInt(3))
+                : BigDecimal.valueOf(100 + random.nextInt(10_000_000), random.nextInt(5));
+        gValorItem.setdPUniProSer(precio);
+        if (gOpeCom.getdCondTiCam() == TdCondTiCam.POR_ITEM) {
+            gValorItem.setdTiCamIt(BigDecimal.valueOf(6800 + random.nextInt(600), random.nextInt(3)));
+        }
+
+        TgValorRestaItem gValorRestaItem = new TgValorRestaItem();
+        gValorRestaItem.setdDescItem(random.nextInt(3) == 0 ? BigDecimal.ZERO : precio.divide(BigDecimal.valueOf(2 + random.nextInt(20)), 2, RoundingMode.DOWN));
+        if (random.nextInt(4) == 0) {
+            gValorRestaItem.setdDescGloItem(BigDecimal.valueOf(random.nextInt(1000), random.nextInt(3)));
+        }
+        if (random.nextInt(4) == 0) {
+            gValorRestaItem.setdAntPreUniIt(BigDecimal.valueOf(random.nextInt(1000), random.nextInt(3)));
+        }
+        if (random.nextInt(4) == 0) {
+            gValorRestaItem.setdAntGloPreUniIt(BigDecimal.valueOf(random.nextInt(1000), random.nextInt(4)));
+        }
+        gValorItem.setgValorRestaItem(gValorRestaItem);
+        gCamItem.setgValorItem(gValorItem);
+
+        // Las autofacturas no llevan IVA por ítem
+        if (iTiDE != TTiDE.AUTOFACTURA_ELECTRONICA)
+            gCamItem.setgCamIVA(ivaAleatorio(random));
+        return gCamItem;
+    }
+
+    private static TgCamIVA ivaAleatorio(Random random) {
+        TgCamIVA gCamIVA = new TgCamIVA();
+        gCamIVA.setiAfecIVA(TiAfecIVA.getByVal((short) (1 + random.nextInt(4))));
+        gCamIVA.setdTasaIVA(gCamIVA.getiAfecIVA() == TiAfecIVA.EXENTO || gCamIVA.getiAfecIVA() == TiAfecIVA.EXONERADO
+                ? BigDecimal.ZERO : BigDecimal.valueOf(random.nextBoolean() ? 10 : 5));
+        gCamIVA.setdPropIVA(gCamIVA.getiAfecIVA() == TiAfecIVA.GRAVADO_PARCIAL
+                ? BigDecimal.valueOf(10 + random.nextInt(90)) : BigDecimal.valueOf(100));
+        return gCamIVA;
+    }
+}
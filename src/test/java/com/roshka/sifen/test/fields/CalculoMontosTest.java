@@ -0,0 +1,358 @@
+package com.roshka.sifen.test.fields;
+
+import com.roshka.sifen.core.fields.request.de.*;
+import com.roshka.sifen.core.fields.util.RedondeoUtil;
+import com.roshka.sifen.core.types.CMondT;
+import com.roshka.sifen.core.types.TTImp;
+import com.roshka.sifen.core.types.TTiDE;
+import com.roshka.sifen.core.types.TdCondTiCam;
+import com.roshka.sifen.core.types.TiAfecIVA;
+import com.roshka.sifen.internal.ctx.GenerationCtx;
+import com.roshka.sifen.internal.util.ScaledDecimal;
+import com.roshka.sifen.internal.xml.XmlElement;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de equivalencia, con valores aleatorios, entre los cálculos de montos con {@link ScaledDecimal} y los mismos
+ * cálculos con {@link BigDecimal}.
+ */
+public class CalculoMontosTest {
+    private final static BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    @Test
+    public void testOperacionesEquivalentes() throws Exception {
+        Random random = new Random(20221115);
+        for (int i = 0; i < 100_000; i++) {
+            BigDecimal a = aleatorio(random);
+            BigDecimal b = aleatorio(random);
+            ScaledDecimal sa = ScaledDecimal.valueOf(a);
+            ScaledDecimal sb = ScaledDecimal.valueOf(b);
+            int scale = random.nextInt(5);
+
+            assertEquals(a.toString(), sa.toString());
+            comparar(a + " + " + b, () -> a.add(b), () -> sa.add(sb));
+            comparar(a + " - " + b, () -> a.subtract(b), () -> sa.subtract(sb));
+            comparar(a + " * " + b, () -> a.multiply(b), () -> sa.multiply(sb));
+            comparar(a + " / " + b + ", " + scale, () -> a.divide(b, scale, RoundingMode.HALF_UP), () -> sa.divide(sb, scale));
+            comparar(a + " escala " + scale, () -> a.setScale(scale, RoundingMode.HALF_UP), () -> sa.setScale(scale));
+            comparar(a + " % " + b, () -> a.remainder(b), () -> sa.remainder(sb));
+        }
+    }
+
+    @Test
+    public void testRedondeoEquivalente() {
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            BigDecimal valor = aleatorio(random);
+            assertEquals(valor.subtract(valor.remainder(BigDecimal.valueOf(50))),
+                    RedondeoUtil.redondeoOficialSET(CMondT.PYG, valor));
+
+            BigDecimal fiftyCents = new BigDecimal("0.5");
+            assertEquals(valor.divide(fiftyCents, 0, RoundingMode.HALF_UP).multiply(fiftyCents),
+                    RedondeoUtil.redondeoOficialSET(CMondT.USD, valor));
+        }
+    }
+
+    @Test
+    public void testCalculoDeItemsYTotalesEquivalente() throws Exception {
+        Random random = new Random(42);
+        GenerationCtx generationCtx = new GenerationCtx();
+        generationCtx.setHabilitarNotaTecnica13(true);
+
+        for (int documento = 0; documento < 500; documento++) {
+            CMondT cMoneOpe = random.nextBoolean() ? CMondT.PYG : CMondT.USD;
+            TdCondTiCam dCondTiCam = cMoneOpe == CMondT.PYG ? null : random.nextBoolean() ? TdCondTiCam.GLOBAL : TdCondTiCam.POR_ITEM;
+            BigDecimal dTiCam = BigDecimal.valueOf(6800 + random.nextInt(600), random.nextInt(3));
+            int scale = cMoneOpe == CMondT.PYG ? 0 : 2;
+
+            TgOpeCom gOpeCom = new TgOpeCom();
+            gOpeCom.setiTImp(TTImp.IVA);
+            gOpeCom.setcMoneOpe(cMoneOpe);
+            gOpeCom.setdCondTiCam(dCondTiCam);
+            gOpeCom.setdTiCam(dTiCam);
+
+            List<TgCamItem> items = new ArrayList<>();
+            List<BigDecimal[]> esperados = new ArrayList<>();
+            for (int i = 1 + random.nextInt(30); i > 0; i--) {
+                TgCamItem gCamItem = itemAleatorio(random, cMoneOpe, dCondTiCam);
+                esperados.add(calcularItem(gCamItem, dCondTiCam, scale));
+
+                Map<String, String> textos = new HashMap<>();
+                gCamItem.getgValorItem().calcularMontos(TTiDE.FACTURA_ELECTRONICA, dCondTiCam, TTImp.IVA,
+                        gCamItem.getdCantProSer(), cMoneOpe);
+                gCamItem.getgCamIVA().calcularMontos(cMoneOpe, gCamItem.getgValorItem().getgValorRestaItem().getdTotOpeItem());
+                gCamItem.getgValorItem().setupSOAPElements(elemento(textos), dCondTiCam, cMoneOpe);
+                gCamItem.getgCamIVA().setupSOAPElements(generationCtx, elemento(textos));
+
+                BigDecimal[] esperado = esperados.get(esperados.size() - 1);
+                TgValorRestaItem gValorRestaItem = gCamItem.getgValorItem().getgValorRestaItem();
+                TgCamIVA gCamIVA = gCamItem.getgCamIVA();
+                assertEquals(esperado[0], gCamItem.getgValorItem().getdTotBruOpeItem());
+                assertEquals(esperado[1], gValorRestaItem.getdPorcDesIt());
+                assertEquals(esperado[2], gValorRestaItem.getdTotOpeItem());
+                assertEquals(esperado[2].setScale(scale, RoundingMode.HALF_UP).toString(), textos.get("dTotOpeItem"));
+                assertEquals(esperado[3], gValorRestaItem.getdTotOpeGs());
+                assertEquals(esperado[4], gCamIVA.getdBasGravIVA());
+                assertEquals(esperado[5], gCamIVA.getdLiqIVAItem());
+                assertEquals(esperado[6], gCamIVA.getdBasExe());
+                items.add(gCamItem);
+            }
+
+            TgDtipDE gDtipDE = new TgDtipDE();
+            gDtipDE.setgCamItemList(items);
+            TgTotSub gTotSub = new TgTotSub();
+            gTotSub.calcularMontos(TTiDE.FACTURA_ELECTRONICA, gDtipDE, gOpeCom);
+
+            Map<String, BigDecimal> totales = calcularTotales(items, cMoneOpe, dCondTiCam, dTiCam, scale);
+            assertEquals(totales.get("dSubExe"), gTotSub.getdSubExe());
+            assertEquals(totales.get("dSubExo"), gTotSub.getdSubExo());
+            assertEquals(totales.get("dSub5"), gTotSub.getdSub5());
+            assertEquals(totales.get("dSub10"), gTotSub.getdSub10());
+            assertEquals(totales.get("dTotOpe"), gTotSub.getdTotOpe());
+            assertEquals(totales.get("dTotDesc"), gTotSub.getdTotDesc());
+            assertEquals(totales.get("dTotDescGlotem"), gTotSub.getdTotDescGlotem());
+            assertEquals(totales.get("dTotAntItem"), gTotSub.getdTotAntItem());
+            assertEquals(totales.get("dTotAnt"), gTotSub.getdTotAnt());
+            assertEquals(totales.get("dDescTotal"), gTotSub.getdDescTotal());
+            assertEquals(totales.get("dPorcDescTotal"), gTotSub.getdPorcDescTotal());
+            assertEquals(totales.get("dAnticipo"), gTotSub.getdAnticipo());
+            assertEquals(totales.get("dRedon"), gTotSub.getdRedon());
+            assertEquals(totales.get("dTotGralOpe"), gTotSub.getdTotGralOpe());
+            assertEquals(totales.get("dIVA5"), gTotSub.getdIVA5());
+            assertEquals(totales.get("dIVA10"), gTotSub.getdIVA10());
+            assertEquals(totales.get("dIVAComi"), gTotSub.getdIVAComi());
+            assertEquals(totales.get("dTotIVA"), gTotSub.getdTotIVA());
+            assertEquals(totales.get("dBaseGrav5"), gTotSub.getdBaseGrav5());
+            assertEquals(totales.get("dBaseGrav10"), gTotSub.getdBaseGrav10());
+            assertEquals(totales.get("dTBasGraIVA"), gTotSub.getdTBasGraIVA());
+            assertEquals(totales.get("dTotalGs"), gTotSub.getdTotalGs());
+        }
+    }
+
+    private static void comparar(String operacion, Callable<BigDecimal> esperado, Callable<ScaledDecimal> obtenido) throws Exception {
+        BigDecimal expected;
+        try {
+            expected = esperado.call();
+        } catch (ArithmeticException e) {
+            try {
+                obtenido.call();
+                fail(operacion + ": se esperaba " + e);
+            } catch (ArithmeticException e2) {
+                // La JVM puede omitir el mensaje de las excepciones que se lanzan con frecuencia
+                if (e.getMessage() != null && e2.getMessage() != null)
+                    assertEquals(operacion, e.getMessage(), e2.getMessage());
+            }
+            return;
+        }
+
+        ScaledDecimal actual = obtenido.call();
+        assertEquals(operacion, expected, actual.toBigDecimal());
+        assertEquals(operacion, expected.toString(), actual.toString());
+    }
+
+    /*
+     * Valores con escalas y magnitudes variadas, incluidos ceros, valores cercanos al límite de un long y valores que
+     * no entran en él.
+     */
+    private static BigDecimal aleatorio(Random random) {
+        int scale = random.nextInt(10) == 0 ? random.nextInt(12) - 1 : random.nextInt(5);
+        switch (random.nextInt(6)) {
+            case 0:
+                return BigDecimal.valueOf(random.nextInt(3) - 1, scale);
+            case 1:
+                return BigDecimal.valueOf(random.nextInt(2_000_001) - 1_000_000, scale);
+            case 2:
+                return BigDecimal.valueOf(random.nextLong() % 1_000_000_000_000L, scale);
+            case 3:
+                return BigDecimal.valueOf(random.nextLong() >> random.nextInt(4), scale);
+            case 4:
+                return new BigDecimal(new BigInteger(80, random).subtract(BigInteger.ONE.shiftLeft(79)), scale);
+            default:
+                return BigDecimal.valueOf(random.nextInt(100) * 50L + random.nextInt(3) * 25L, scale);
+        }
+    }
+
+    private static TgCamItem itemAleatorio(Random random, CMondT cMoneOpe, TdCondTiCam dCondTiCam) {
+        TgCamItem gCamItem = new TgCamItem();
+        gCamItem.setdCantProSer(BigDecimal.valueOf(1 + random.nextInt(5000), random.nextInt(5)));
+
+        TgValorItem gValorItem = new TgValorItem();
+        BigDecimal precio = cMoneOpe == CMondT.PYG
+                ? BigDecimal.valueOf(1000 + random.nextInt(5_000_000), random.nextInt(3))
+                : BigDecimal.valueOf(1 + random.nextInt(10_000_000), random.nextInt(9));
+        gValorItem.setdPUniProSer(precio);
+        if (dCondTiCam == TdCondTiCam.POR_ITEM) {
+            gValorItem.setdTiCamIt(BigDecimal.valueOf(6800 + random.nextInt(600), random.nextInt(3)));
+        }
+
+        TgValorRestaItem gValorRestaItem = new TgValorRestaItem();
+        gValorRestaItem.setdDescItem(random.nextInt(3) == 0 ? BigDecimal.ZERO : precio.divide(BigDecimal.valueOf(2 + random.nextInt(20)), 2, RoundingMode.DOWN));
+        if (random.nextInt(4) == 0) {
+            gValorRestaItem.setdDescGloItem(BigDecimal.valueOf(random.nextInt(1000), random.nextInt(3)));
+        }
+        if (random.nextInt(4) == 0) {
+            gValorRestaItem.setdAntPreUniIt(BigDecimal.valueOf(random.nextInt(1000), random.nextInt(3)));
+        }
+        gValorItem.setgValorRestaItem(gValorRestaItem);
+        gCamItem.setgValorItem(gValorItem);
+
+        TgCamIVA gCamIVA = new TgCamIVA();
+        gCamIVA.setiAfecIVA(TiAfecIVA.getByVal((short) (1 + random.nextInt(4))));
+        gCamIVA.setdTasaIVA(gCamIVA.getiAfecIVA() == TiAfecIVA.EXENTO || gCamIVA.getiAfecIVA() == TiAfecIVA.EXONERADO
+                ? BigDecimal.ZERO : BigDecimal.valueOf(random.nextBoolean() ? 10 : 5));
+        gCamIVA.setdPropIVA(gCamIVA.getiAfecIVA() == TiAfecIVA.GRAVADO_PARCIAL
+                ? BigDecimal.valueOf(10 + random.nextInt(90)) : BigDecimal.valueOf(100));
+        gCamItem.setgCamIVA(gCamIVA);
+        return gCamItem;
+    }
+
+    /*
+     * Cálculo de referencia de los montos de un ítem, con BigDecimal: dTotBruOpeItem, dPorcDesIt, dTotOpeItem,
+     * dTotOpeGs, dBasGravIVA, dLiqIVAItem y dBasExe.
+     */
+    private static BigDecimal[] calcularItem(TgCamItem gCamItem, TdCondTiCam dCondTiCam, int scale) {
+        TgValorItem gValorItem = gCamItem.getgValorItem();
+        TgValorRestaItem resta = gValorItem.getgValorRestaItem();
+        TgCamIVA gCamIVA = gCamItem.getgCamIVA();
+        BigDecimal precio = gValorItem.getdPUniProSer();
+        BigDecimal cantidad = gCamItem.getdCantProSer();
+
+        BigDecimal totBru = precio.multiply(cantidad).setScale(scale, RoundingMode.HALF_UP);
+        BigDecimal porcDes = resta.getdDescItem().multiply(HUNDRED).divide(precio, 2, RoundingMode.HALF_UP);
+        BigDecimal totOpe = precio.subtract(resta.getdDescItem())
+                .subtract(coalesce(resta.getdDescGloItem()))
+                .subtract(coalesce(resta.getdAntPreUniIt()))
+                .subtract(coalesce(resta.getdAntGloPreUniIt()))
+                .multiply(cantidad);
+        BigDecimal totOpeGs = dCondTiCam == TdCondTiCam.POR_ITEM ? totOpe.multiply(gValorItem.getdTiCamIt()) : null;
+
+        BigDecimal totOpeRedondeado = totOpe.setScale(scale, RoundingMode.HALF_UP);
+        BigDecimal propIVA = gCamIVA.getdPropIVA().divide(HUNDRED, scale, RoundingMode.HALF_UP);
+        BigDecimal basGrav = BigDecimal.ZERO;
+        BigDecimal liqIVA = BigDecimal.ZERO;
+        short afectacion = gCamIVA.getiAfecIVA().getVal();
+        if (afectacion == 1 || afectacion == 4) {
+            if (gCamIVA.getdTasaIVA().equals(BigDecimal.valueOf(10))) {
+                basGrav = totOpeRedondeado.multiply(propIVA).divide(BigDecimal.valueOf(1.1), scale, RoundingMode.HALF_UP);
+                liqIVA = totOpeRedondeado.multiply(propIVA).divide(BigDecimal.valueOf(11), scale, RoundingMode.HALF_UP);
+            } else {
+                basGrav = totOpeRedondeado.multiply(propIVA).divide(BigDecimal.valueOf(1.05), scale, RoundingMode.HALF_UP);
+                liqIVA = totOpeRedondeado.multiply(propIVA).divide(BigDecimal.valueOf(21), scale, RoundingMode.HALF_UP);
+            }
+        }
+        BigDecimal basExe = afectacion == 4
+                ? totOpeRedondeado.multiply(HUNDRED.subtract(propIVA)).multiply(HUNDRED)
+                .divide(gCamIVA.getdTasaIVA().multiply(gCamIVA.getdPropIVA()).add(BigDecimal.valueOf(10000)), scale, RoundingMode.HALF_UP)
+                : BigDecimal.valueOf(0);
+
+        return new BigDecimal[]{totBru, porcDes, totOpe, totOpeGs, basGrav, liqIVA, basExe};
+    }
+
+    /*
+     * Cálculo de referencia de los totales de una factura con IVA, con BigDecimal.
+     */
+    private static Map<String, BigDecimal> calcularTotales(List<TgCamItem> items, CMondT cMoneOpe, TdCondTiCam dCondTiCam,
+                                                           BigDecimal dTiCam, int scale) {
+        BigDecimal subExe = BigDecimal.ZERO, subExo = BigDecimal.ZERO, sub5 = BigDecimal.ZERO, sub10 = BigDecimal.ZERO;
+        BigDecimal iva5 = BigDecimal.ZERO, iva10 = BigDecimal.ZERO, base5 = BigDecimal.ZERO, base10 = BigDecimal.ZERO;
+        BigDecimal totDesc = BigDecimal.ZERO, totDescGlo = BigDecimal.ZERO, totAntItem = BigDecimal.ZERO, totAnt = BigDecimal.ZERO;
+        BigDecimal totalGs = BigDecimal.ZERO;
+
+        for (TgCamItem gCamItem : items) {
+            TgValorRestaItem resta = gCamItem.getgValorItem().getgValorRestaItem();
+            TgCamIVA gCamIVA = gCamItem.getgCamIVA();
+            BigDecimal totOpeItem = resta.getdTotOpeItem().setScale(scale, RoundingMode.HALF_UP);
+            short afectacion = gCamIVA.getiAfecIVA().getVal();
+            if (afectacion == 1 || afectacion == 4) {
+                if (gCamIVA.getdTasaIVA().equals(BigDecimal.valueOf(10))) {
+                    sub10 = sub10.add(totOpeItem);
+                    iva10 = iva10.add(gCamIVA.getdLiqIVAItem());
+                    base10 = base10.add(gCamIVA.getdBasGravIVA());
+                } else {
+                    sub5 = sub5.add(totOpeItem);
+                    iva5 = iva5.add(gCamIVA.getdLiqIVAItem());
+                    base5 = base5.add(gCamIVA.getdBasGravIVA());
+                }
+            } else if (afectacion == 2) {
+                subExo = subExo.add(totOpeItem);
+            } else {
+                subExe = subExe.add(totOpeItem);
+            }
+
+            totDesc = totDesc.add(resta.getdDescItem().multiply(gCamItem.getdCantProSer()));
+            totDescGlo = totDescGlo.add(coalesce(resta.getdDescGloItem()));
+            totAntItem = totAntItem.add(coalesce(resta.getdAntPreUniIt()));
+            totAnt = totAnt.add(coalesce(resta.getdAntGloPreUniIt()));
+            if (dCondTiCam == TdCondTiCam.POR_ITEM) {
+                totalGs = totalGs.add(resta.getdTotOpeGs());
+            }
+        }
+
+        Map<String, BigDecimal> totales = new HashMap<>();
+        BigDecimal totOpe = sub10.add(sub5).add(subExo).add(subExe);
+        BigDecimal descTotal = totDesc.add(totDescGlo);
+        BigDecimal redon = RedondeoUtil.redondeoOficialSET(cMoneOpe, totOpe);
+        BigDecimal totGralOpe = totOpe.subtract(redon).add(BigDecimal.ZERO);
+        BigDecimal ivaComi = BigDecimal.ZERO.divide(BigDecimal.valueOf(1.1), scale, RoundingMode.HALF_UP);
+
+        totales.put("dSubExe", subExe);
+        totales.put("dSubExo", subExo);
+        totales.put("dSub5", sub5);
+        totales.put("dSub10", sub10);
+        totales.put("dTotOpe", totOpe);
+        totales.put("dTotDesc", totDesc);
+        totales.put("dTotDescGlotem", totDescGlo);
+        totales.put("dTotAntItem", totAntItem);
+        totales.put("dTotAnt", totAnt);
+        totales.put("dDescTotal", descTotal);
+        totales.put("dPorcDescTotal", descTotal.multiply(HUNDRED).divide(totOpe.add(descTotal), 2, RoundingMode.HALF_UP));
+        totales.put("dAnticipo", totAntItem.add(totAnt));
+        totales.put("dRedon", redon);
+        totales.put("dTotGralOpe", totGralOpe);
+        totales.put("dIVA5", iva5);
+        totales.put("dIVA10", iva10);
+        totales.put("dIVAComi", ivaComi);
+        totales.put("dTotIVA", iva5.add(iva10).subtract(BigDecimal.ZERO).subtract(BigDecimal.ZERO).add(ivaComi));
+        totales.put("dBaseGrav5", base5);
+        totales.put("dBaseGrav10", base10);
+        totales.put("dTBasGraIVA", base5.add(base10));
+        totales.put("dTotalGs", dCondTiCam == TdCondTiCam.GLOBAL ? totGralOpe.multiply(dTiCam) : totalGs);
+        return totales;
+    }
+
+    private static BigDecimal coalesce(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    /*
+     * Elemento XML que no genera nada, y registra el último texto de cada elemento.
+     */
+    private static XmlElement elemento(Map<String, String> textos) {
+        return elemento(textos, null);
+    }
+
+    private static XmlElement elemento(Map<String, String> textos, String nombre) {
+        return (XmlElement) Proxy.newProxyInstance(XmlElement.class.getClassLoader(), new Class<?>[]{XmlElement.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("addChildElement")) {
+                        return elemento(textos, String.valueOf(args[0]));
+                    } else if (method.getName().equals("setTextContent")) {
+                        textos.put(nombre, (String) args[0]);
+                    }
+                    return null;
+                });
+    }
+}
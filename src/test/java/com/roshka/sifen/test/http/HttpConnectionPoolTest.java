@@ -0,0 +1,278 @@
+package com.roshka.sifen.test.http;
+
+import com.roshka.sifen.core.beans.EstadisticasConexiones;
+import com.roshka.sifen.internal.http.HttpConnectionPool;
+import com.roshka.sifen.internal.http.HttpResponse;
+import com.roshka.sifen.internal.http.HttpTransport;
+import com.roshka.sifen.internal.http.RequestMaybeSentException;
+import com.roshka.sifen.internal.util.SifenUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class HttpConnectionPoolTest {
+    private ServerSocket serverSocket;
+    private final AtomicInteger acceptedConnections = new AtomicInteger();
+    // Cantidad de peticiones tras la cual el servidor cierra la conexión, sin avisar al cliente
+    private volatile int requestsPerConnection = Integer.MAX_VALUE;
+    // Si el servidor cierra la conexión tras recibir la petición, sin responderla
+    private volatile boolean dropResponses = false;
+    private final AtomicInteger receivedRequests = new AtomicInteger();
+
+    @Before
+    public void startServer() throws IOException {
+        serverSocket = new ServerSocket(0);
+        Thread acceptor = new Thread(() -> {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    acceptedConnections.incrementAndGet();
+                    new Thread(() -> serve(socket)).start();
+                } catch (IOException ignored) {
+                }
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    @After
+    public void stopServer() throws IOException {
+        serverSocket.close();
+    }
+
+    @Test
+    public void testConnectionReuse() throws IOException {
+        HttpConnectionPool pool = new HttpConnectionPool(2, 60 * 1000);
+        HttpTransport transport = new HttpTransport(pool);
+        URL url = new URL("http://localhost:" + serverSocket.getLocalPort() + "/de/ws/sync/recibe.wsdl");
+
+        for (int i = 0; i < 5; i++) {
+            byte[] body = ("<peticion>" + i + "</peticion>").getBytes(StandardCharsets.UTF_8);
+            try (HttpResponse response = transport.post(url, null, Collections.emptyMap(), body, 0, body.length, 5000, 5000)) {
+                assertEquals(200, response.getStatus());
+                String content = new String(SifenUtil.getByteArrayFromInputStream(response.getBody()), StandardCharsets.UTF_8);
+                assertEquals("<respuesta><peticion>" + i + "</peticion></respuesta>", content);
+            }
+        }
+
+        EstadisticasConexiones stats = pool.getStats();
+        assertEquals(1, acceptedConnections.get());
+        assertEquals(1, stats.getConexionesCreadas());
+        assertEquals(4, stats.getConexionesReutilizadas());
+        assertEquals(0, stats.getConexionesEnUso());
+        assertEquals(1, stats.getConexionesInactivas());
+
+        pool.shutdown();
+        assertEquals(0, pool.getStats().getConexionesInactivas());
+    }
+
+    @Test
+    public void testConnectionClosedByServer() throws IOException {
+        requestsPerConnection = 1;
+        HttpConnectionPool pool = new HttpConnectionPool(2, 60 * 1000);
+        HttpTransport transport = new HttpTransport(pool);
+        URL url = new URL("http://localhost:" + serverSocket.getLocalPort() + "/de/ws/sync/recibe.wsdl");
+
+        // La conexión inactiva cerrada por el servidor se descarta al obtenerla del pool, antes de enviar la petición
+        for (int i = 0; i < 3; i++) {
+            byte[] body = ("<peticion>" + i + "</peticion>").getBytes(StandardCharsets.UTF_8);
+            try (HttpResponse response = transport.post(url, null, Collections.emptyMap(), body, 0, body.length, 5000, 5000)) {
+                String content = new String(SifenUtil.getByteArrayFromInputStream(response.getBody()), StandardCharsets.UTF_8);
+                assertEquals("<respuesta><peticion>" + i + "</peticion></respuesta>", content);
+            }
+        }
+
+        assertEquals(3, acceptedConnections.get());
+        assertEquals(3, pool.getStats().getConexionesCreadas());
+        pool.shutdown();
+    }
+
+    @Test
+    public void testResponseLostOnReusedConnection() throws IOException {
+        HttpConnectionPool pool = new HttpConnectionPool(2, 60 * 1000);
+        HttpTransport transport = new HttpTransport(pool);
+        URL url = new URL("http://localhost:" + serverSocket.getLocalPort() + "/de/ws/sync/recibe.wsdl");
+
+        byte[] body = "<peticion>0</peticion>".getBytes(StandardCharsets.UTF_8);
+        try (HttpResponse response = transport.post(url, null, Collections.emptyMap(), body, 0, body.length, 5000, 5000)) {
+            SifenUtil.getByteArrayFromInputStream(response.getBody());
+        }
+
+        // La petición ya enviada sobre la conexión reutilizada no se reenvía, aunque no llegue ningún byte de respuesta
+        dropResponses = true;
+        try {
+            transport.post(url, null, Collections.emptyMap(), body, 0, body.length, 5000, 5000);
+            fail("Se esperaba un error al leer la respuesta");
+        } catch (RequestMaybeSentException ignored) {
+        }
+
+        assertEquals(2, receivedRequests.get());
+        assertEquals(1, acceptedConnections.get());
+        pool.shutdown();
+    }
+
+    @Test
+    public void testConnectionThroughProxy() throws IOException {
+        List<String> tunnels = new CopyOnWriteArrayList<>();
+        ProxySelector defaultProxySelector = ProxySelector.getDefault();
+        try (ServerSocket proxySocket = startTunnelProxy(tunnels)) {
+            Proxy proxy = new Proxy(Proxy.Type.HTTP, new InetSocketAddress("localhost", proxySocket.getLocalPort()));
+            ProxySelector.setDefault(new ProxySelector() {
+                @Override
+                public List<Proxy> select(URI uri) {
+                    return Collections.singletonList(proxy);
+                }
+
+                @Override
+                public void connectFailed(URI uri, SocketAddress sa, IOException ioe) {
+                }
+            });
+
+            HttpConnectionPool pool = new HttpConnectionPool(2, 60 * 1000);
+            HttpTransport transport = new HttpTransport(pool);
+            URL url = new URL("http://localhost:" + serverSocket.getLocalPort() + "/de/ws/sync/recibe.wsdl");
+            for (int i = 0; i < 2; i++) {
+                byte[] body = ("<peticion>" + i + "</peticion>").getBytes(StandardCharsets.UTF_8);
+                try (HttpResponse response = transport.post(url, null, Collections.emptyMap(), body, 0, body.length, 5000, 5000)) {
+                    String content = new String(SifenUtil.getByteArrayFromInputStream(response.getBody()), StandardCharsets.UTF_8);
+                    assertEquals("<respuesta><peticion>" + i + "</peticion></respuesta>", content);
+                }
+            }
+
+            // Una única conexión, a través del túnel, reutilizada en la segunda petición
+            assertEquals(Collections.singletonList("CONNECT localhost:" + serverSocket.getLocalPort() + " HTTP/1.1"), tunnels);
+            assertEquals(1, acceptedConnections.get());
+            pool.shutdown();
+        } finally {
+            ProxySelector.setDefault(defaultProxySelector);
+        }
+    }
+
+    /**
+     * Proxy HTTP mínimo que solo admite túneles (método CONNECT), y registra las líneas de petición recibidas.
+     */
+    private static ServerSocket startTunnelProxy(List<String> tunnels) throws IOException {
+        ServerSocket proxySocket = new ServerSocket(0);
+        Thread acceptor = new Thread(() -> {
+            while (!proxySocket.isClosed()) {
+                try {
+                    Socket client = proxySocket.accept();
+                    BufferedReader reader = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.ISO_8859_1));
+                    String requestLine = reader.readLine();
+                    String line;
+                    while ((line = reader.readLine()) != null && !line.isEmpty()) {
+                        // Se descartan las cabeceras
+                    }
+                    tunnels.add(requestLine);
+
+                    String[] authority = requestLine.split(" ")[1].split(":");
+                    Socket target = new Socket(authority[0], Integer.parseInt(authority[1]));
+                    client.getOutputStream().write("HTTP/1.1 200 Connection established\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+                    client.getOutputStream().flush();
+                    pipe(client.getInputStream(), target);
+                    pipe(target.getInputStream(), client);
+                } catch (IOException ignored) {
+                }
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return proxySocket;
+    }
+
+    private static void pipe(InputStream in, Socket out) {
+        Thread thread = new Thread(() -> {
+            try (Socket s = out) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    s.getOutputStream().write(buffer, 0, read);
+                    s.getOutputStream().flush();
+                }
+            } catch (IOException ignored) {
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Servidor HTTP/1.1 mínimo que responde con el mismo cuerpo recibido, alternando entre respuestas con
+     * Content-Length y con Transfer-Encoding: chunked.
+     */
+    private void serve(Socket socket) {
+        try (Socket s = socket) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.ISO_8859_1));
+            OutputStream out = s.getOutputStream();
+            for (int request = 0; ; request++) {
+                String line = reader.readLine();
+                if (line == null) {
+                    return;
+                }
+
+                int contentLength = 0;
+                while (!(line = reader.readLine()).isEmpty()) {
+                    if (line.toLowerCase().startsWith("content-length:")) {
+                        contentLength = Integer.parseInt(line.substring(15).trim());
+                    }
+                }
+
+                char[] body = new char[contentLength];
+                int read = 0;
+                while (read < contentLength) {
+                    read += reader.read(body, read, contentLength - read);
+                }
+
+                receivedRequests.incrementAndGet();
+                if (dropResponses) {
+                    return;
+                }
+
+                byte[] response = ("<respuesta>" + new String(body) + "</respuesta>").getBytes(StandardCharsets.UTF_8);
+                StringBuilder head = new StringBuilder("HTTP/1.1 200 OK\r\nContent-Type: application/xml\r\n");
+                if (request % 2 == 0) {
+                    head.append("Content-Length: ").append(response.length).append("\r\n\r\n");
+                    out.write(head.toString().getBytes(StandardCharsets.ISO_8859_1));
+                    out.write(response);
+                } else {
+                    head.append("Transfer-Encoding: chunked\r\n\r\n");
+                    out.write(head.toString().getBytes(StandardCharsets.ISO_8859_1));
+                    int half = response.length / 2;
+                    out.write((Integer.toHexString(half) + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+                    out.write(response, 0, half);
+                    out.write(("\r\n" + Integer.toHexString(response.length - half) + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+                    out.write(response, half, response.length - half);
+                    out.write("\r\n0\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+                }
+                out.flush();
+                if (request + 1 >= requestsPerConnection) {
+                    return;
+                }
+            }
+        } catch (IOException ignored) {
+        }
+    }
+}
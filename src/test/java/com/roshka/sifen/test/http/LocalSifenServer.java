@@ -0,0 +1,149 @@
+package com.roshka.sifen.test.http;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Servidor HTTP/1.1 mínimo (con keep-alive) para simular los servicios de Sifen en las pruebas. Cada petición es
+ * respondida con el XML devuelto por el handler, a partir del XML recibido; si el handler devuelve <strong>null</strong>,
+ * se cierra la conexión sin completar la respuesta.
+ */
+public class LocalSifenServer implements Closeable {
+    public final static String SOAP_ENVELOPE_START = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+            "<env:Envelope xmlns:env=\"http://www.w3.org/2003/05/soap-envelope\"><env:Header/><env:Body>";
+    public final static String SOAP_ENVELOPE_END = "</env:Body></env:Envelope>";
+
+    private final ServerSocket serverSocket;
+    private final Function<String, String> handler;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger connections = new AtomicInteger();
+    private volatile int status = 200;
+
+    public LocalSifenServer(Function<String, String> handler) throws IOException {
+        this.handler = handler;
+        this.serverSocket = new ServerSocket(0, 256, InetAddress.getLoopbackAddress());
+
+        Thread acceptor = new Thread(() -> {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    connections.incrementAndGet();
+                    Thread worker = new Thread(() -> serve(socket));
+                    worker.setDaemon(true);
+                    worker.start();
+                } catch (IOException ignored) {
+                }
+            }
+        }, "local-sifen-server");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * @return URL base a utilizar en la configuración de Sifen.
+     */
+    public String getUrlBase() {
+        return "http://127.0.0.1:" + serverSocket.getLocalPort();
+    }
+
+    /**
+     * @param status Estado HTTP de las respuestas siguientes. Por defecto, 200.
+     */
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public int getRequests() {
+        return requests.get();
+    }
+
+    public int getConnections() {
+        return connections.get();
+    }
+
+    /**
+     * Extrae el valor de un elemento simple del XML, sin considerar el prefijo del espacio de nombres.
+     */
+    public static String extract(String xml, String localName) {
+        int start = xml.indexOf(localName + ">");
+        if (start == -1) {
+            return null;
+        }
+        start += localName.length() + 1;
+        int end = xml.indexOf("<", start);
+        return xml.substring(start, end);
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    private void serve(Socket socket) {
+        try (Socket s = socket) {
+            InputStream in = new BufferedInputStream(s.getInputStream());
+            OutputStream out = s.getOutputStream();
+            while (true) {
+                String line = readLine(in);
+                if (line == null) {
+                    return;
+                }
+
+                int contentLength = 0;
+                while ((line = readLine(in)) != null && !line.isEmpty()) {
+                    if (line.toLowerCase().startsWith("content-length:")) {
+                        contentLength = Integer.parseInt(line.substring(15).trim());
+                    }
+                }
+
+                byte[] body = new byte[contentLength];
+                int read = 0;
+                while (read < contentLength) {
+                    int r = in.read(body, read, contentLength - read);
+                    if (r == -1) {
+                        return;
+                    }
+                    read += r;
+                }
+
+                requests.incrementAndGet();
+                String xml = handler.apply(new String(body, StandardCharsets.UTF_8));
+                if (xml == null) {
+                    out.write("HTTP/1.1 ".getBytes(StandardCharsets.ISO_8859_1));
+                    out.flush();
+                    return;
+                }
+                byte[] response = xml.getBytes(StandardCharsets.UTF_8);
+                String head = "HTTP/1.1 " + status + " " + (status == 200 ? "OK" : "Error") + "\r\nContent-Type: application/soap+xml; charset=utf-8\r\n" +
+                        "Content-Length: " + response.length + "\r\n\r\n";
+                out.write(head.getBytes(StandardCharsets.ISO_8859_1));
+                out.write(response);
+                out.flush();
+            }
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                String value = line.toString("ISO-8859-1");
+                return value.endsWith("\r") ? value.substring(0, value.length() - 1) : value;
+            }
+            line.write(b);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,244 @@
+package com.roshka.sifen.test.journal;
+
+import com.roshka.sifen.OutboxJournal;
+import com.roshka.sifen.core.SifenConfig;
+import com.roshka.sifen.core.beans.DocumentoElectronico;
+import com.roshka.sifen.core.beans.EnvioRegistrado;
+import com.roshka.sifen.core.beans.EnvioRegistrado.Estado;
+import com.roshka.sifen.test.de.DocumentosDePrueba;
+import com.roshka.sifen.test.http.LocalSifenServer;
+import com.roshka.sifen.test.signature.TestCertificates;
+import org.junit.Ignore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class OutboxJournalTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testEstadoPersistente() throws Exception {
+        File directorio = folder.newFolder("journal");
+        try (OutboxJournal journal = new OutboxJournal(directorio)) {
+            journal.registrarFirmado(cdc(1), xml(1, 10));
+            journal.registrarFirmado(cdc(2), xml(2, 10));
+            journal.registrarFirmado(cdc(3), xml(3, 10));
+            journal.registrarEstado(cdc(1), Estado.ENVIADO, null);
+            journal.registrarEstado(cdc(2), Estado.APROBADO, "0260 - Autorización del DE satisfactoria");
+            journal.registrarLote(Collections.singletonList(cdc(3)), "12345");
+        }
+
+        try (OutboxJournal journal = new OutboxJournal(directorio)) {
+            List<EnvioRegistrado> pendientes = journal.getPendientes();
+            assertEquals(2, pendientes.size());
+            assertEquals(cdc(1), pendientes.get(0).getCDC());
+            assertEquals(Estado.ENVIADO, pendientes.get(0).getEstado());
+            assertEquals(xml(1, 10), pendientes.get(0).getXmlFirmado());
+            assertEquals(Estado.LOTE_PENDIENTE, pendientes.get(1).getEstado());
+            assertEquals("12345", pendientes.get(1).getDetalle());
+
+            EnvioRegistrado aprobado = journal.obtener(cdc(2));
+            assertEquals(Estado.APROBADO, aprobado.getEstado());
+            assertEquals("0260 - Autorización del DE satisfactoria", aprobado.getDetalle());
+            assertEquals(xml(2, 10), aprobado.getXmlFirmado());
+        }
+    }
+
+    @Test
+    public void testRegistroIncompleto() throws Exception {
+        File directorio = folder.newFolder("journal");
+        try (OutboxJournal journal = new OutboxJournal(directorio, 64 * 1024, 0, false)) {
+            journal.registrarFirmado(cdc(1), xml(1, 10));
+            journal.registrarEstado(cdc(1), Estado.ENVIADO, null);
+        }
+
+        // Se simula una escritura interrumpida del último registro, alterando su contenido
+        File[] segmentos = directorio.listFiles();
+        assertEquals(1, segmentos.length);
+        try (RandomAccessFile raf = new RandomAccessFile(segmentos[0], "rw")) {
+            long position = 8;
+            long last = position;
+            while (true) {
+                raf.seek(position);
+                int length = raf.readInt();
+                if (length == 0) {
+                    break;
+                }
+                last = position;
+                position += 8 + length;
+            }
+            raf.seek(last + 12);
+            raf.write(0x7F);
+        }
+
+        try (OutboxJournal journal = new OutboxJournal(directorio, 64 * 1024, 0, false)) {
+            assertEquals(Estado.FIRMADO, journal.obtener(cdc(1)).getEstado());
+            journal.registrarEstado(cdc(1), Estado.RECHAZADO, null);
+        }
+        try (OutboxJournal journal = new OutboxJournal(directorio, 64 * 1024, 0, false)) {
+            assertEquals(Estado.RECHAZADO, journal.obtener(cdc(1)).getEstado());
+            assertTrue(journal.getPendientes().isEmpty());
+        }
+    }
+
+    @Test
+    public void testRotacionYCompactacion() throws Exception {
+        File directorio = folder.newFolder("journal");
+        try (OutboxJournal journal = new OutboxJournal(directorio, 64 * 1024, 10, false)) {
+            for (int i = 0; i < 200; i++) {
+                journal.registrarFirmado(cdc(i), xml(i, 100));
+                if (i % 10 != 0) {
+                    journal.registrarEstado(cdc(i), Estado.APROBADO, null);
+                }
+            }
+            assertTrue(directorio.listFiles().length > 2);
+
+            journal.compactar();
+            assertEquals(1, directorio.listFiles().length);
+            assertNull(journal.obtener(cdc(1)));
+            journal.registrarEstado(cdc(10), Estado.ENVIADO, null);
+        }
+
+        try (OutboxJournal journal = new OutboxJournal(directorio, 64 * 1024, 10, false)) {
+            List<EnvioRegistrado> pendientes = journal.getPendientes();
+            assertEquals(20, pendientes.size());
+            for (int i = 0; i < pendientes.size(); i++) {
+                assertEquals(cdc(i * 10), pendientes.get(i).getCDC());
+                assertEquals(xml(i * 10, 100), pendientes.get(i).getXmlFirmado());
+            }
+            assertEquals(Estado.ENVIADO, journal.obtener(cdc(10)).getEstado());
+        }
+    }
+
+    @Test
+    public void testRecuperacion() throws Exception {
+        List<String> reenviados = Collections.synchronizedList(new ArrayList<>());
+        try (LocalSifenServer server = new LocalSifenServer(request -> {
+            String body;
+            if (request.contains("rEnviConsDeRequest")) {
+                // Solo el segundo DE fue recibido por Sifen antes de la interrupción
+                body = LocalSifenServer.extract(request, "dCDC").equals(cdc(2))
+                        ? "<ns2:rEnviConsDeResponse xmlns:ns2=\"http://ekuatia.set.gov.py/sifen/xsd\"><ns2:dCodRes>0422</ns2:dCodRes><ns2:dMsgRes>CDC encontrado</ns2:dMsgRes>" +
+                        "<ns2:xContenDE>&lt;dProtAut&gt;12345&lt;/dProtAut&gt;</ns2:xContenDE></ns2:rEnviConsDeResponse>"
+                        : "<ns2:rEnviConsDeResponse xmlns:ns2=\"http://ekuatia.set.gov.py/sifen/xsd\"><ns2:dCodRes>0420</ns2:dCodRes><ns2:dMsgRes>Documento No Existe en SIFEN o ha sido Rechazado</ns2:dMsgRes></ns2:rEnviConsDeResponse>";
+            } else if (request.contains("rEnviConsLoteDe")) {
+                body = "<ns2:rResEnviConsLoteDe xmlns:ns2=\"http://ekuatia.set.gov.py/sifen/xsd\">" +
+                        "<ns2:dCodResLot>0362</ns2:dCodResLot><ns2:dMsgResLot>Procesamiento de lote concluido</ns2:dMsgResLot>" +
+                        "<ns2:gResProcLote><ns2:id>" + cdc(3) + "</ns2:id><ns2:dEstRes>Rechazado</ns2:dEstRes>" +
+                        "<ns2:gResProc><ns2:dCodRes>1001</ns2:dCodRes><ns2:dMsgRes>CDC duplicado</ns2:dMsgRes></ns2:gResProc>" +
+                        "</ns2:gResProcLote></ns2:rResEnviConsLoteDe>";
+            } else {
+                reenviados.add(request.substring(request.indexOf("<xDE>") + 5, request.indexOf("</xDE>")));
+                body = "<ns2:rRetEnviDe xmlns:ns2=\"http://ekuatia.set.gov.py/sifen/xsd\"><ns2:rProtDe>" +
+                        "<ns2:dEstRes>Aprobado</ns2:dEstRes><ns2:gResProc><ns2:dCodRes>0260</ns2:dCodRes>" +
+                        "<ns2:dMsgRes>Autorización del DE satisfactoria</ns2:dMsgRes></ns2:gResProc></ns2:rProtDe></ns2:rRetEnviDe>";
+            }
+            return LocalSifenServer.SOAP_ENVELOPE_START + body + LocalSifenServer.SOAP_ENVELOPE_END;
+        })) {
+            File certificate = TestCertificates.createPkcs12(folder.newFile("cert.p12"), "PRUEBA");
+            SifenConfig sifenConfig = new SifenConfig(SifenConfig.TipoAmbiente.DEV, SifenConfig.TipoCertificadoCliente.PFX,
+                    certificate.getAbsolutePath(), TestCertificates.PASSWORD);
+            sifenConfig.setUrlBase(server.getUrlBase());
+
+            File directorio = folder.newFolder("journal");
+            try (OutboxJournal journal = new OutboxJournal(directorio)) {
+                journal.registrarFirmado(cdc(1), xml(1, 3));
+                journal.registrarFirmado(cdc(2), xml(2, 3));
+                journal.registrarEstado(cdc(2), Estado.ENVIADO, null);
+                journal.registrarFirmado(cdc(3), xml(3, 3));
+                journal.registrarLote(Collections.singletonList(cdc(3)), "777");
+            }
+
+            try (OutboxJournal journal = new OutboxJournal(directorio)) {
+                assertEquals(3, journal.recuperar(sifenConfig));
+                assertTrue(journal.getPendientes().isEmpty());
+                assertEquals(Estado.APROBADO, journal.obtener(cdc(1)).getEstado());
+                assertEquals("0260 - Autorización del DE satisfactoria", journal.obtener(cdc(1)).getDetalle());
+                assertEquals(Estado.APROBADO, journal.obtener(cdc(2)).getEstado());
+                assertEquals(Estado.RECHAZADO, journal.obtener(cdc(3)).getEstado());
+                assertEquals("1001 - CDC duplicado", journal.obtener(cdc(3)).getDetalle());
+            }
+
+            // Se reenvía el XML firmado registrado, sin modificaciones
+            assertEquals(Collections.singletonList(xml(1, 3)), reenviados);
+
+            // El DE enviado a través del journal es el mismo XML firmado que queda registrado
+            try (OutboxJournal journal = new OutboxJournal(directorio)) {
+                DocumentoElectronico de = DocumentosDePrueba.crearFactura("0000001", 2);
+                assertEquals("Aprobado", journal.recepcionDE(de, sifenConfig).getxProtDE().getdEstRes());
+
+                EnvioRegistrado envio = journal.obtener(de.getId());
+                assertEquals(Estado.APROBADO, envio.getEstado());
+                assertTrue(envio.getXmlFirmado().startsWith("<rDE "));
+                assertTrue(envio.getXmlFirmado().contains("<Signature "));
+                assertEquals(envio.getXmlFirmado(), reenviados.get(1));
+            }
+        }
+    }
+
+    @Ignore("Benchmark, ejecutar manualmente")
+    @Test
+    public void benchmarkRegistros() throws Exception {
+        int threads = 4;
+        int registros = 200_000;
+        String xml = xml(0, 50);
+
+        for (boolean durable : Arrays.asList(false, true)) {
+            File directorio = folder.newFolder("benchmark-" + durable);
+            try (OutboxJournal journal = new OutboxJournal(directorio, 64 * 1024 * 1024, 5, durable)) {
+                ExecutorService executor = Executors.newFixedThreadPool(threads);
+                long start = System.nanoTime();
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    int offset = t;
+                    futures.add(executor.submit(() -> {
+                        for (int i = offset; i < registros; i += threads) {
+                            if (i % 2 == 0) {
+                                journal.registrarFirmado(cdc(i / 2), xml);
+                            } else {
+                                journal.registrarEstado(cdc(i / 2), Estado.APROBADO, null);
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                journal.sincronizar();
+                long elapsed = System.nanoTime() - start;
+                executor.shutdown();
+
+                System.out.println("Espera de sincronización: " + durable + ", " + registros + " registros en "
+                        + TimeUnit.NANOSECONDS.toMillis(elapsed) + " ms: "
+                        + (registros * 1_000_000_000L / elapsed) + " registros/s");
+            }
+        }
+    }
+
+    private static String cdc(int numero) {
+        return String.format("0180080553400100100%07d2202203151000000%02d", numero, numero % 100);
+    }
+
+    private static String xml(int numero, int items) {
+        StringBuilder xml = new StringBuilder("<rDE Id=\"").append(cdc(numero)).append("\"><dDesProSer>");
+        for (int i = 0; i < items; i++) {
+            xml.append("Artículo de prueba ").append(i).append(' ');
+        }
+        return xml.append("</dDesProSer></rDE>").toString();
+    }
+}
@@ -0,0 +1,156 @@
+package com.roshka.sifen.test.lote;
+
+import com.roshka.sifen.LoteBatcher;
+import com.roshka.sifen.SifenClient;
+import com.roshka.sifen.core.SifenConfig;
+import com.roshka.sifen.core.beans.DocumentoElectronico;
+import com.roshka.sifen.core.beans.DocumentoEnLote;
+import com.roshka.sifen.test.de.DocumentosDePrueba;
+import com.roshka.sifen.test.http.LocalSifenServer;
+import com.roshka.sifen.test.signature.TestCertificates;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class LoteBatcherTest {
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private static SifenConfig baseConfig;
+
+    private final AtomicInteger protocolo = new AtomicInteger(1000);
+    private LocalSifenServer server;
+    private SifenClient client;
+
+    @BeforeClass
+    public static void setupConfig() throws Exception {
+        File certificate = TestCertificates.createPkcs12(folder.newFile("cert.p12"), "PRUEBA");
+        baseConfig = new SifenConfig(SifenConfig.TipoAmbiente.DEV, SifenConfig.TipoCertificadoCliente.PFX,
+                certificate.getAbsolutePath(), TestCertificates.PASSWORD);
+    }
+
+    @Before
+    public void start() throws Exception {
+        server = new LocalSifenServer(request -> LocalSifenServer.SOAP_ENVELOPE_START +
+                "<ns2:rResEnviLoteDe xmlns:ns2=\"http://ekuatia.set.gov.py/sifen/xsd\">" +
+                "<ns2:dCodRes>0300</ns2:dCodRes><ns2:dMsgRes>Lote recibido con éxito</ns2:dMsgRes>" +
+                "<ns2:dProtConsLote>" + protocolo.incrementAndGet() + "</ns2:dProtConsLote></ns2:rResEnviLoteDe>" +
+                LocalSifenServer.SOAP_ENVELOPE_END);
+
+        SifenConfig sifenConfig = new SifenConfig(baseConfig);
+        sifenConfig.setUrlBase(server.getUrlBase());
+        client = new SifenClient(sifenConfig);
+    }
+
+    @After
+    public void stop() throws Exception {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    public void testEnvioPorCantidad() throws Exception {
+        List<CompletableFuture<DocumentoEnLote>> futures = new ArrayList<>();
+        try (LoteBatcher batcher = new LoteBatcher(ruc -> client, 5, Long.MAX_VALUE, 60 * 1000)) {
+            for (int i = 0; i < 12; i++) {
+                futures.add(batcher.agregar(documento(i, "80080553", "4")));
+            }
+
+            // Los dos primeros lotes se envían al completarse, el tercero queda pendiente hasta el cierre
+            CompletableFuture.allOf(futures.subList(0, 10).toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+            assertEquals(2, batcher.getDocumentosPendientes());
+            assertFalse(futures.get(10).isDone());
+        }
+
+        assertEquals(3, server.getRequests());
+        Set<String> protocolos = new HashSet<>();
+        for (int i = 0; i < futures.size(); i++) {
+            DocumentoEnLote resultado = futures.get(i).get();
+            assertEquals(i % 5, resultado.getPosicion());
+            assertEquals(i < 10 ? 5 : 2, resultado.getCantidadDocumentos());
+            assertEquals(44, resultado.getCDC().length());
+            protocolos.add(resultado.getdProtConsLote());
+        }
+        assertEquals(3, protocolos.size());
+    }
+
+    @Test
+    public void testEnvioPorTiempoDeEspera() throws Exception {
+        try (LoteBatcher batcher = new LoteBatcher(ruc -> client, 50, Long.MAX_VALUE, 200)) {
+            CompletableFuture<DocumentoEnLote> primero = batcher.agregar(documento(0, "80080553", "4"));
+            CompletableFuture<DocumentoEnLote> segundo = batcher.agregar(documento(1, "80080553", "4"));
+
+            DocumentoEnLote resultado = primero.get(30, TimeUnit.SECONDS);
+            assertEquals(resultado.getdProtConsLote(), segundo.get().getdProtConsLote());
+            assertEquals(2, resultado.getCantidadDocumentos());
+            assertEquals(1, batcher.getLotesEnviados());
+        }
+        assertEquals(1, server.getRequests());
+    }
+
+    @Test
+    public void testEnvioPorTamano() throws Exception {
+        List<CompletableFuture<DocumentoEnLote>> futures = new ArrayList<>();
+        try (LoteBatcher batcher = new LoteBatcher(ruc -> client, 50, 8000, 60 * 1000)) {
+            for (int i = 0; i < 6; i++) {
+                futures.add(batcher.agregar(documento(i, "80080553", "4")));
+            }
+        }
+
+        // Cada lote se envía antes de superar el tamaño estimado
+        assertTrue(server.getRequests() > 1);
+        for (CompletableFuture<DocumentoEnLote> future : futures) {
+            assertTrue(future.get().getCantidadDocumentos() < 6);
+        }
+    }
+
+    @Test
+    public void testLotesPorEmisor() throws Exception {
+        List<String> rucs = new ArrayList<>();
+        List<CompletableFuture<DocumentoEnLote>> futures = new ArrayList<>();
+        try (LoteBatcher batcher = new LoteBatcher(ruc -> {
+            synchronized (rucs) {
+                rucs.add(ruc);
+            }
+            return client;
+        }, 50, Long.MAX_VALUE, 60 * 1000)) {
+            for (int i = 0; i < 6; i++) {
+                futures.add(i % 2 == 0
+                        ? batcher.agregar(documento(i, "80080553", "4"))
+                        : batcher.agregar(documento(i, "80000001", "1")));
+            }
+            assertEquals(6, batcher.getDocumentosPendientes());
+        }
+
+        assertEquals(2, server.getRequests());
+        assertEquals(2, new HashSet<>(rucs).size());
+        for (int i = 0; i < futures.size(); i++) {
+            DocumentoEnLote resultado = futures.get(i).get();
+            assertEquals(3, resultado.getCantidadDocumentos());
+            assertEquals(futures.get(i % 2).get().getdProtConsLote(), resultado.getdProtConsLote());
+            assertEquals(i % 2 == 0 ? "80080553" : "80000001", resultado.getCDC().substring(2, 10));
+        }
+        assertNotEquals(futures.get(0).get().getdProtConsLote(), futures.get(1).get().getdProtConsLote());
+    }
+
+    private static DocumentoElectronico documento(int numero, String ruc, String dv) {
+        DocumentoElectronico de = DocumentosDePrueba.crearFactura(String.format("%07d", numero + 1), 3);
+        de.getgDatGralOpe().getgEmis().setdRucEm(ruc);
+        de.getgDatGralOpe().getgEmis().setdDVEmi(dv);
+        return de;
+    }
+}
@@ -0,0 +1,150 @@
+package com.roshka.sifen.test.lote;
+
+import com.roshka.sifen.LotePoller;
+import com.roshka.sifen.SifenClient;
+import com.roshka.sifen.core.SifenConfig;
+import com.roshka.sifen.core.beans.response.RespuestaConsultaLoteDE;
+import com.roshka.sifen.core.exceptions.SifenException;
+import com.roshka.sifen.core.fields.response.batch.TgResProcLote;
+import com.roshka.sifen.test.http.LocalSifenServer;
+import com.roshka.sifen.test.signature.TestCertificates;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class LotePollerTest {
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private final static String CDC_1 = "01800805534001001000000122022031510000000019";
+    private final static String CDC_2 = "01800805534001001000000222022031510000000028";
+
+    private static SifenConfig baseConfig;
+
+    // Cantidad de consultas que cada lote responde como "en procesamiento" antes de concluir
+    private final Map<String, AtomicInteger> pendingPolls = new ConcurrentHashMap<>();
+    private LocalSifenServer server;
+    private SifenClient client;
+
+    @BeforeClass
+    public static void setupConfig() throws Exception {
+        File certificate = TestCertificates.createPkcs12(folder.newFile("cert.p12"), "PRUEBA");
+        baseConfig = new SifenConfig(SifenConfig.TipoAmbiente.DEV, SifenConfig.TipoCertificadoCliente.PFX,
+                certificate.getAbsolutePath(), TestCertificates.PASSWORD);
+    }
+
+    @Before
+    public void start() throws Exception {
+        server = new LocalSifenServer(request -> {
+            String lote = LocalSifenServer.extract(request, "dProtConsLote");
+            AtomicInteger pending = pendingPolls.get(lote);
+            String body;
+            if (pending == null) {
+                body = "<ns2:dCodResLot>0360</ns2:dCodResLot><ns2:dMsgResLot>Número de Lote inexistente</ns2:dMsgResLot>";
+            } else if (pending.getAndDecrement() > 0) {
+                body = "<ns2:dCodResLot>0361</ns2:dCodResLot><ns2:dMsgResLot>Lote en procesamiento</ns2:dMsgResLot>";
+            } else {
+                body = "<ns2:dCodResLot>0362</ns2:dCodResLot><ns2:dMsgResLot>Procesamiento de lote concluido</ns2:dMsgResLot>" +
+                        resultado(CDC_1, "Aprobado") + resultado(CDC_2, "Rechazado");
+            }
+            return LocalSifenServer.SOAP_ENVELOPE_START +
+                    "<ns2:rResEnviConsLoteDe xmlns:ns2=\"http://ekuatia.set.gov.py/sifen/xsd\">" +
+                    "<ns2:dFecProc>2022-03-15T10:30:00-03:00</ns2:dFecProc>" + body + "</ns2:rResEnviConsLoteDe>" +
+                    LocalSifenServer.SOAP_ENVELOPE_END;
+        });
+
+        SifenConfig sifenConfig = new SifenConfig(baseConfig);
+        sifenConfig.setUrlBase(server.getUrlBase());
+        client = new SifenClient(sifenConfig);
+    }
+
+    @After
+    public void stop() throws Exception {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    public void testSeguimientoHastaConcluir() throws Exception {
+        pendingPolls.put("1001", new AtomicInteger(2));
+
+        List<TgResProcLote> procesados = new ArrayList<>();
+        try (LotePoller poller = new LotePoller(client, 10, 100, 100)) {
+            CompletableFuture<TgResProcLote> primero = poller.seguirDE("1001", CDC_1);
+            CompletableFuture<TgResProcLote> segundo = poller.seguirDE("1001", CDC_2);
+            CompletableFuture<RespuestaConsultaLoteDE> lote = poller.seguirLote("1001", resultado -> {
+                synchronized (procesados) {
+                    procesados.add(resultado);
+                }
+            });
+            assertEquals(1, poller.getLotesPendientes());
+
+            assertEquals("0362", lote.get(30, TimeUnit.SECONDS).getdCodResLot());
+            assertEquals("Aprobado", primero.get().getdEstRes());
+            assertEquals("Rechazado", segundo.get().getdEstRes());
+            assertSame(primero.get(), poller.obtenerResultado(CDC_1));
+            assertEquals(2, procesados.size());
+            assertEquals(3, poller.getConsultasRealizadas());
+            assertEquals(0, poller.getLotesPendientes());
+
+            // El lote ya concluyó: se responde con el resultado conocido, sin volver a consultarlo
+            assertSame(primero.get(), poller.seguirDE("1001", CDC_1).get());
+            assertEquals(0, poller.getLotesPendientes());
+        }
+        assertEquals(3, server.getRequests());
+    }
+
+    @Test
+    public void testLoteSinResultado() throws Exception {
+        try (LotePoller poller = new LotePoller(client, 0, 100, 100)) {
+            CompletableFuture<TgResProcLote> documento = poller.seguirDE("9999", CDC_1);
+            assertEquals("0360", poller.seguirLote("9999").get(30, TimeUnit.SECONDS).getdCodResLot());
+
+            try {
+                documento.get();
+                fail("Se esperaba que el DE finalice sin resultado");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof SifenException);
+            }
+            assertNull(poller.obtenerResultado(CDC_1));
+        }
+    }
+
+    @Test
+    public void testLimiteDeConsultas() throws Exception {
+        List<CompletableFuture<RespuestaConsultaLoteDE>> lotes = new ArrayList<>();
+        long start = System.nanoTime();
+        try (LotePoller poller = new LotePoller(client, 0, 10, 20)) {
+            for (int i = 0; i < 10; i++) {
+                pendingPolls.put(String.valueOf(2000 + i), new AtomicInteger(1));
+                lotes.add(poller.seguirLote(String.valueOf(2000 + i)));
+            }
+            CompletableFuture.allOf(lotes.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+        }
+
+        // 20 consultas a 20 por segundo requieren, al menos, 19 intervalos de 50 ms
+        assertEquals(20, server.getRequests());
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(19 * 50));
+    }
+
+    private static String resultado(String CDC, String estado) {
+        return "<ns2:gResProcLote><ns2:id>" + CDC + "</ns2:id><ns2:dEstRes>" + estado + "</ns2:dEstRes>" +
+                "<ns2:gResProc><ns2:dCodRes>0260</ns2:dCodRes><ns2:dMsgRes>" + estado + "</ns2:dMsgRes></ns2:gResProc>" +
+                "</ns2:gResProcLote>";
+    }
+}
@@ -0,0 +1,210 @@
+package com.roshka.sifen.test.ruc;
+
+import com.roshka.sifen.RegistroRUC;
+import com.roshka.sifen.SifenClient;
+import com.roshka.sifen.core.SifenConfig;
+import com.roshka.sifen.core.beans.ContribuyenteRUC;
+import com.roshka.sifen.core.beans.response.RespuestaConsultaRUC;
+import com.roshka.sifen.core.exceptions.SifenException;
+import com.roshka.sifen.internal.util.SifenUtil;
+import com.roshka.sifen.test.http.LocalSifenServer;
+import org.junit.ClassRule;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas del registro local de RUCs, construido a partir del listado publicado por la SET.
+ */
+public class RegistroRUCTest {
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testImportacionYBusqueda() throws Exception {
+        File listado = escribir("ruc0.txt",
+                "80000001|ÑANDUTÍ COMERCIAL S.A.|" + SifenUtil.generateDv("80000001") + "|NACO000001A|ACTIVO|",
+                "1234567|GONZÁLEZ, JUAN|" + SifenUtil.generateDv("1234567") + "|GOJU800101A|SUSPENSION TEMPORAL|",
+                "línea inválida",
+                "5000000|CONTRIBUYENTE CON DV ERRÓNEO|" + ((Integer.parseInt(SifenUtil.generateDv("5000000")) + 1) % 10) + "||CANCELADO|",
+                "80000001|ÑANDUTÍ COMERCIAL S.A.E.C.A.|" + SifenUtil.generateDv("80000001") + "|NACO000001A|ACTIVO|");
+        File listadoZip = zip("ruc1.zip", escribir("ruc1.txt", "100|RUC CORTO|" + SifenUtil.generateDv("100") + "||ACTIVO|"));
+
+        File indice = new File(folder.getRoot(), "ruc.idx");
+        assertEquals(4, RegistroRUC.importar(Arrays.asList(listado, listadoZip), indice));
+
+        try (RegistroRUC registro = new RegistroRUC(indice)) {
+            assertEquals(4, registro.getCantidad());
+
+            // Se conserva la última aparición de cada RUC
+            ContribuyenteRUC contribuyente = registro.buscar(" 80000001 ");
+            assertEquals("80000001", contribuyente.getRuc());
+            assertEquals("ÑANDUTÍ COMERCIAL S.A.E.C.A.", contribuyente.getRazonSocial());
+            assertEquals(SifenUtil.generateDv("80000001"), contribuyente.getDv());
+            assertEquals("ACTIVO", contribuyente.getEstado());
+
+            assertEquals("SUSPENSION TEMPORAL", registro.buscar("1234567").getEstado());
+            assertEquals("RUC CORTO", registro.buscar("100").getRazonSocial());
+            assertTrue(registro.existe("5000000"));
+            assertFalse(registro.existe("80000002"));
+            assertFalse(registro.existe("10"));
+            assertNull(registro.buscar("123456789"));
+            assertNull(registro.buscar("ABC-1"));
+
+            assertTrue(registro.validarDV("1234567", SifenUtil.generateDv("1234567")));
+            assertFalse(registro.validarDV("1234567", String.valueOf((Integer.parseInt(SifenUtil.generateDv("1234567")) + 1) % 10)));
+            assertFalse(registro.validarDV("80000002", SifenUtil.generateDv("80000002")));
+            // El DV publicado no coincide con el calculado
+            assertFalse(registro.validarDV("5000000", registro.buscar("5000000").getDv()));
+        }
+    }
+
+    @Test
+    public void testIndiceInvalido() throws Exception {
+        File archivo = escribir("no-es-indice.idx", "80000001|CONTRIBUYENTE|1||ACTIVO|");
+        try {
+            new RegistroRUC(archivo);
+            fail("Se esperaba un error al abrir el registro");
+        } catch (SifenException ignored) {
+        }
+    }
+
+    @Test
+    public void testResolverRUCLocalPrimero() throws Exception {
+        File indice = new File(folder.getRoot(), "consulta.idx");
+        RegistroRUC.importar(Collections.singletonList(escribir("consulta.txt",
+                "80000001|CONTRIBUYENTE LOCAL|" + SifenUtil.generateDv("80000001") + "||ACTIVO|")), indice);
+
+        try (LocalSifenServer server = new LocalSifenServer(request -> LocalSifenServer.SOAP_ENVELOPE_START +
+                "<ns2:rResEnviConsRuc xmlns:ns2=\"http://ekuatia.set.gov.py/sifen/xsd\">" +
+                "<ns2:dCodRes>0502</ns2:dCodRes><ns2:dMsgRes>RUC encontrado</ns2:dMsgRes><ns2:xContRUC>" +
+                "<ns2:dRUCCons>" + LocalSifenServer.extract(request, "dRUCCons") + "</ns2:dRUCCons>" +
+                "<ns2:dRazCons>CONTRIBUYENTE REMOTO</ns2:dRazCons><ns2:dRUCFactElec>S</ns2:dRUCFactElec></ns2:xContRUC>" +
+                "</ns2:rResEnviConsRuc>" + LocalSifenServer.SOAP_ENVELOPE_END)) {
+            SifenConfig sifenConfig = new SifenConfig();
+            sifenConfig.setUsarCertificadoCliente(false);
+            sifenConfig.setUrlBase(server.getUrlBase());
+            sifenConfig.setConsultaRucRegistro(indice.getAbsolutePath());
+            sifenConfig.setConsultaRucCacheTamano(10);
+
+            try (SifenClient client = new SifenClient(sifenConfig)) {
+                RespuestaConsultaRUC local = client.resolverRUC("80000001");
+                assertEquals(RespuestaConsultaRUC.Origen.REGISTRO_LOCAL, local.getOrigen());
+                assertEquals("0502", local.getdCodRes());
+                assertEquals("CONTRIBUYENTE LOCAL", local.getxContRUC().getdRazCons());
+                assertEquals("ACT", local.getxContRUC().getdCodEstCons());
+                assertNull(local.getxContRUC().getdRUCFactElec());
+                assertEquals(0, server.getRequests());
+
+                RespuestaConsultaRUC remota = client.resolverRUC("80000002");
+                assertEquals(RespuestaConsultaRUC.Origen.SIFEN, remota.getOrigen());
+                assertEquals("CONTRIBUYENTE REMOTO", remota.getxContRUC().getdRazCons());
+                assertEquals(1, server.getRequests());
+
+                // La consulta de RUC no utiliza el registro, y su respuesta en la caché tiene prioridad sobre él
+                assertEquals("S", client.consultaRUC("80000001").getxContRUC().getdRUCFactElec());
+                assertEquals(2, server.getRequests());
+                assertEquals(RespuestaConsultaRUC.Origen.SIFEN, client.resolverRUC("80000001").getOrigen());
+                assertEquals(2, server.getRequests());
+
+                assertEquals(2, client.precargarRUC(Arrays.asList("80000001", "80000003")));
+                assertEquals(3, server.getRequests());
+            }
+
+            // Un índice que supera la antigüedad máxima no se utiliza
+            sifenConfig.setConsultaRucRegistroVigencia(1);
+            Thread.sleep(10);
+            try (SifenClient client = new SifenClient(sifenConfig)) {
+                assertEquals(RespuestaConsultaRUC.Origen.SIFEN, client.resolverRUC("80000001").getOrigen());
+                assertEquals(4, server.getRequests());
+            }
+
+            sifenConfig.setConsultaRucRegistro(new File(folder.getRoot(), "inexistente.idx").getAbsolutePath());
+            try {
+                new SifenClient(sifenConfig).close();
+                fail("Se esperaba un error de configuración");
+            } catch (SifenException ignored) {
+            }
+        }
+    }
+
+    @Test
+    @Ignore("Benchmark, ejecutar manualmente")
+    public void benchmarkRegistro() throws Exception {
+        int cantidad = 2_000_000;
+        File listado = new File(folder.getRoot(), "ruc-benchmark.txt");
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(listado), StandardCharsets.UTF_8))) {
+            for (int i = 0; i < cantidad; i++) {
+                String ruc = String.valueOf(1_000_000 + i * 3);
+                writer.write(ruc + "|CONTRIBUYENTE DE PRUEBA NÚMERO " + i + "|" + SifenUtil.generateDv(ruc) + "||ACTIVO|\n");
+            }
+        }
+
+        File indice = new File(folder.getRoot(), "ruc-benchmark.idx");
+        long inicio = System.nanoTime();
+        RegistroRUC.importar(Collections.singletonList(listado), indice);
+        System.out.printf("Importación de %,d contribuyentes: %,d ms (índice de %,d bytes)%n", cantidad,
+                (System.nanoTime() - inicio) / 1_000_000, indice.length());
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heapAntes = runtime.totalMemory() - runtime.freeMemory();
+        inicio = System.nanoTime();
+        try (RegistroRUC registro = new RegistroRUC(indice)) {
+            System.out.printf("Apertura: %,d µs%n", (System.nanoTime() - inicio) / 1000);
+
+            for (int ronda = 0; ronda < 3; ronda++) {
+                int busquedas = 2_000_000, encontrados = 0;
+                inicio = System.nanoTime();
+                for (int i = 0; i < busquedas; i++) {
+                    if (registro.existe(String.valueOf(1_000_000 + (i * 7919L % (cantidad * 3L))))) {
+                        encontrados++;
+                    }
+                }
+                long existe = System.nanoTime() - inicio;
+
+                inicio = System.nanoTime();
+                for (int i = 0; i < busquedas; i++) {
+                    registro.buscar(String.valueOf(1_000_000 + (i * 7919L % cantidad) * 3));
+                }
+                long buscar = System.nanoTime() - inicio;
+                System.out.printf("existe: %,d ns por búsqueda (%,d encontrados), buscar: %,d ns por búsqueda%n",
+                        existe / busquedas, encontrados, buscar / busquedas);
+            }
+            System.gc();
+            System.out.printf("Heap adicional con el registro abierto: %,d KB%n",
+                    (runtime.totalMemory() - runtime.freeMemory() - heapAntes) / 1024);
+        }
+    }
+
+    private static File escribir(String nombre, String... lineas) throws IOException {
+        File archivo = new File(folder.getRoot(), nombre);
+        Files.write(archivo.toPath(), String.join("\n", lineas).getBytes(StandardCharsets.UTF_8));
+        return archivo;
+    }
+
+    private static File zip(String nombre, File contenido) throws IOException {
+        File archivo = new File(folder.getRoot(), nombre);
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(archivo))) {
+            zip.putNextEntry(new ZipEntry(contenido.getName()));
+            zip.write(Files.readAllBytes(contenido.toPath()));
+            zip.closeEntry();
+        }
+        return archivo;
+    }
+}
@@ -0,0 +1,104 @@
+package com.roshka.sifen.test.signature;
+
+import com.roshka.sifen.core.SifenConfig;
+import com.roshka.sifen.core.beans.EstadisticasClavesFirma;
+import com.roshka.sifen.internal.helpers.SigningKeyCache;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.xml.crypto.dsig.XMLSignatureFactory;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Base64;
+
+import static org.junit.Assert.*;
+
+public class SigningKeyCacheTest {
+    private final static XMLSignatureFactory signatureFactory = XMLSignatureFactory.getInstance();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void clearCache() {
+        SigningKeyCache.clear();
+    }
+
+    @After
+    public void restoreFreshnessCheck() {
+        SigningKeyCache.setFreshnessCheckInterval(5_000);
+    }
+
+    @Test
+    public void testCacheHit() throws Exception {
+        File certificate = TestCertificates.createPkcs12(folder.newFile("cert.p12"), "PRUEBA");
+        SifenConfig sifenConfig = config(certificate.getAbsolutePath());
+
+        EstadisticasClavesFirma before = SigningKeyCache.getStats();
+        SigningKeyCache.SigningKeyMaterial first = SigningKeyCache.get(sifenConfig, signatureFactory);
+        SigningKeyCache.SigningKeyMaterial second = SigningKeyCache.get(new SifenConfig(sifenConfig), signatureFactory);
+
+        assertSame(first, second);
+        assertNotNull(first.getPrivateKey());
+        assertTrue(first.getCertificate().getSubjectX500Principal().getName().contains("CN=PRUEBA"));
+        assertEquals(before.getCargas() + 1, SigningKeyCache.getStats().getCargas());
+        assertEquals(before.getAciertos() + 1, SigningKeyCache.getStats().getAciertos());
+    }
+
+    @Test
+    public void testReloadOnModification() throws Exception {
+        File certificate = TestCertificates.createPkcs12(folder.newFile("cert.p12"), "ORIGINAL");
+        SifenConfig sifenConfig = config(certificate.getAbsolutePath());
+        SigningKeyCache.setFreshnessCheckInterval(60_000);
+        SigningKeyCache.SigningKeyMaterial original = SigningKeyCache.get(sifenConfig, signatureFactory);
+
+        // Se reemplaza el certificado por uno nuevo, con otra fecha de modificación
+        TestCertificates.createPkcs12(certificate, "RENOVADO");
+        assertTrue(certificate.setLastModified(certificate.lastModified() + 10_000));
+
+        // Dentro del intervalo de verificación no se consulta el archivo
+        assertSame(original, SigningKeyCache.get(sifenConfig, signatureFactory));
+
+        SigningKeyCache.setFreshnessCheckInterval(0);
+        SigningKeyCache.SigningKeyMaterial renewed = SigningKeyCache.get(sifenConfig, signatureFactory);
+        assertNotSame(original, renewed);
+        assertTrue(renewed.getCertificate().getSubjectX500Principal().getName().contains("CN=RENOVADO"));
+        assertSame(renewed, SigningKeyCache.get(sifenConfig, signatureFactory));
+    }
+
+    @Test
+    public void testBase64Certificate() throws Exception {
+        File certificate = TestCertificates.createPkcs12(folder.newFile("cert.p12"), "BASE64");
+        String base64 = Base64.getEncoder().encodeToString(Files.readAllBytes(certificate.toPath()));
+        SifenConfig sifenConfig = config(base64);
+
+        SigningKeyCache.SigningKeyMaterial first = SigningKeyCache.get(sifenConfig, signatureFactory);
+        assertSame(first, SigningKeyCache.get(sifenConfig, signatureFactory));
+        assertEquals(1, SigningKeyCache.getStats().getCertificados());
+    }
+
+    @Test
+    public void testBoundedSize() throws Exception {
+        File certificate = TestCertificates.createPkcs12(folder.newFile("cert.p12"), "PRUEBA");
+        SifenConfig first = config(certificate.getAbsolutePath());
+        SigningKeyCache.SigningKeyMaterial firstMaterial = SigningKeyCache.get(first, signatureFactory);
+
+        // La misma contraseña con otra ruta es otro certificado
+        for (int i = 0; i < 20; i++) {
+            File copy = folder.newFile("cert" + i + ".p12");
+            Files.copy(certificate.toPath(), copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            SigningKeyCache.get(config(copy.getAbsolutePath()), signatureFactory);
+        }
+        assertEquals(16, SigningKeyCache.getStats().getCertificados());
+        assertNotSame(firstMaterial, SigningKeyCache.get(first, signatureFactory));
+    }
+
+    private static SifenConfig config(String certificate) {
+        return new SifenConfig(SifenConfig.TipoAmbiente.DEV, SifenConfig.TipoCertificadoCliente.PFX, certificate,
+                TestCertificates.PASSWORD);
+    }
+}
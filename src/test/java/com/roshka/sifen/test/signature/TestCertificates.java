@@ -0,0 +1,40 @@
+package com.roshka.sifen.test.signature;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Genera certificados autofirmados (PKCS12) para las pruebas de firma digital, sin depender de archivos externos.
+ * Se utiliza la herramienta <i>keytool</i> de la JVM en ejecución.
+ */
+public class TestCertificates {
+    public final static String PASSWORD = "123456";
+
+    /**
+     * Crea (o reemplaza) un archivo PKCS12 con una clave RSA de 2048 bits y un certificado autofirmado.
+     *
+     * @param file       Archivo a crear.
+     * @param commonName CN del certificado.
+     * @return El archivo creado.
+     */
+    public static File createPkcs12(File file, String commonName) throws IOException, InterruptedException {
+        if (file.exists() && !file.delete()) {
+            throw new IOException("No se pudo eliminar el archivo " + file);
+        }
+
+        String keytool = System.getProperty("java.home") + File.separator + "bin" + File.separator + "keytool";
+        List<String> command = Arrays.asList(keytool, "-genkeypair", "-noprompt",
+                "-alias", "prueba", "-keyalg", "RSA", "-keysize", "2048", "-sigalg", "SHA256withRSA",
+                "-dname", "CN=" + commonName + ", SERIALNUMBER=RUC80000001-1, O=Pruebas, C=PY", "-validity", "365",
+                "-storetype", "PKCS12", "-keystore", file.getAbsolutePath(),
+                "-storepass", PASSWORD, "-keypass", PASSWORD);
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        if (process.waitFor() != 0) {
+            throw new IOException("No se pudo generar el certificado de prueba con keytool (código " + process.exitValue() + ")");
+        }
+        return file;
+    }
+}
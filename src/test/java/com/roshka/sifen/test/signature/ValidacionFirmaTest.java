@@ -0,0 +1,203 @@
+package com.roshka.sifen.test.signature;
+
+import com.roshka.sifen.Sifen;
+import com.roshka.sifen.core.SifenConfig;
+import com.roshka.sifen.core.beans.DocumentoElectronico;
+import com.roshka.sifen.core.beans.ValidezFirmaDigital;
+import com.roshka.sifen.internal.ctx.GenerationCtx;
+import com.roshka.sifen.internal.helpers.CertificateSubjectCache;
+import com.roshka.sifen.test.de.DocumentosDePrueba;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de la validación en memoria y en paralelo de las firmas digitales de los Documentos Electrónicos.
+ */
+public class ValidacionFirmaTest {
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private static String valido;
+    private static String otroEmisor;
+    private static String alterado;
+
+    @BeforeClass
+    public static void setupDocumentos() throws Exception {
+        // El certificado de prueba corresponde al RUC 80000001-1
+        File certificate = TestCertificates.createPkcs12(folder.newFile("cert.p12"), "PRUEBA");
+        SifenConfig sifenConfig = new SifenConfig(SifenConfig.TipoAmbiente.DEV, SifenConfig.TipoCertificadoCliente.PFX,
+                certificate.getAbsolutePath(), TestCertificates.PASSWORD);
+
+        valido = generarXml(sifenConfig, "0000001", "80000001", "1");
+        otroEmisor = generarXml(sifenConfig, "0000002", "80080553", "4");
+        alterado = valido.replace("<dDesProSer>Servicio de Liquidación Nro. 1<", "<dDesProSer>Servicio alterado<");
+        assertNotEquals(valido, alterado);
+    }
+
+    @Test
+    public void testValidacionEnMemoria() {
+        ValidezFirmaDigital validez = Sifen.validarFirmaDEDesdeXml(valido);
+        assertTrue(validez.getMotivoInvalidez(), validez.isValido());
+        assertEquals("80000001-1", validez.getSujetosCertificado().get(0).getNumeroDocumento());
+        assertEquals("PRUEBA", validez.getSujetosCertificado().get(0).getRazonSocial());
+
+        validez = Sifen.validarFirmaDEDesdeXml(alterado);
+        assertFalse(validez.isValido());
+        assertEquals("La firma digital es inválida.", validez.getMotivoInvalidez());
+
+        validez = Sifen.validarFirmaDEDesdeXml(otroEmisor);
+        assertFalse(validez.isValido());
+        assertTrue(validez.getMotivoInvalidez().startsWith("El RUC emisor"));
+
+        validez = Sifen.validarFirmaDEDesdeXml("<rDE><DE>");
+        assertFalse(validez.isValido());
+        assertTrue(validez.getMotivoInvalidez().startsWith("Ocurrió un error al parsear"));
+
+        validez = Sifen.validarFirmaDEDesdeXml(valido.replaceAll("(?s)<Signature .*</Signature>", ""));
+        assertFalse(validez.isValido());
+        assertTrue(validez.getMotivoInvalidez().startsWith("No se encontró la firma digital"));
+    }
+
+    @Test
+    public void testSinArchivosTemporales() {
+        File tmp = new File(System.getProperty("java.io.tmpdir"));
+        List<String> antes = Arrays.asList(tmp.list());
+        for (int i = 0; i < 20; i++) {
+            assertTrue(Sifen.validarFirmaDEDesdeXml(valido).isValido());
+        }
+
+        for (String archivo : tmp.list()) {
+            assertFalse(archivo, archivo.endsWith(".xml") && !antes.contains(archivo));
+        }
+    }
+
+    @Test
+    public void testCacheDeCertificados() {
+        Sifen.validarFirmaDEDesdeXml(valido);
+        long cargas = CertificateSubjectCache.getLoads();
+        long aciertos = CertificateSubjectCache.getHits();
+
+        ValidezFirmaDigital primera = Sifen.validarFirmaDEDesdeXml(valido);
+        ValidezFirmaDigital segunda = Sifen.validarFirmaDEDesdeXml(otroEmisor);
+        assertEquals(cargas, CertificateSubjectCache.getLoads());
+        assertEquals(aciertos + 2, CertificateSubjectCache.getHits());
+
+        // Cada resultado tiene sus propios sujetos, aunque provengan de la caché
+        primera.getSujetosCertificado().get(0).setNumeroDocumento("modificado");
+        assertEquals("80000001-1", segunda.getSujetosCertificado().get(0).getNumeroDocumento());
+    }
+
+    @Test
+    public void testValidacionDeDirectorioYZip() throws Exception {
+        File directorio = folder.newFolder("recibidos");
+        escribir(new File(directorio, "b-alterado.xml"), alterado);
+        escribir(new File(directorio, "a-valido.xml"), valido);
+        escribir(new File(directorio, "c-otro-emisor.XML"), otroEmisor);
+        escribir(new File(directorio, "d-invalido.xml"), "no es XML");
+        escribir(new File(directorio, "leame.txt"), valido);
+
+        Map<String, ValidezFirmaDigital> resultados = Sifen.validarFirmasDE(directorio);
+        assertEquals(Arrays.asList("a-valido.xml", "b-alterado.xml", "c-otro-emisor.XML", "d-invalido.xml"),
+                new ArrayList<>(resultados.keySet()));
+        verificar(resultados);
+
+        byte[] zip = zip(directorio);
+        File archivoZip = folder.newFile("recibidos.zip");
+        Files.write(archivoZip.toPath(), zip);
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            verificar(Sifen.validarFirmasDE(archivoZip, executor));
+            verificar(Sifen.validarFirmasDEDesdeZip(new ByteArrayInputStream(zip), executor));
+
+            List<ValidezFirmaDigital> lista = Sifen.validarFirmasDEDesdeXml(Arrays.asList(valido, alterado, valido), executor);
+            assertEquals(3, lista.size());
+            assertTrue(lista.get(0).isValido());
+            assertFalse(lista.get(1).isValido());
+            assertTrue(lista.get(2).isValido());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @Ignore("Benchmark, ejecutar manualmente")
+    public void benchmarkValidacion() throws Exception {
+        int cantidad = 2000;
+        List<String> xmls = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            xmls.add(valido);
+        }
+
+        for (int ronda = 0; ronda < 3; ronda++) {
+            long inicio = System.nanoTime();
+            for (String xml : xmls) {
+                assertTrue(Sifen.validarFirmaDEDesdeXml(xml).isValido());
+            }
+            imprimir("Secuencial", inicio, cantidad);
+
+            inicio = System.nanoTime();
+            for (ValidezFirmaDigital validez : Sifen.validarFirmasDEDesdeXml(xmls, null)) {
+                assertTrue(validez.isValido());
+            }
+            imprimir("En paralelo", inicio, cantidad);
+        }
+    }
+
+    private static void verificar(Map<String, ValidezFirmaDigital> resultados) {
+        assertEquals(4, resultados.size());
+        assertTrue(resultados.get("a-valido.xml").isValido());
+        assertEquals("La firma digital es inválida.", resultados.get("b-alterado.xml").getMotivoInvalidez());
+        assertTrue(resultados.get("c-otro-emisor.XML").getMotivoInvalidez().startsWith("El RUC emisor"));
+        assertTrue(resultados.get("d-invalido.xml").getMotivoInvalidez().startsWith("Ocurrió un error al parsear"));
+    }
+
+    private static void imprimir(String nombre, long inicio, int cantidad) {
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf("%-12s %8.0f documentos por segundo%n", nombre, cantidad / segundos);
+    }
+
+    private static String generarXml(SifenConfig sifenConfig, String numeroDocumento, String ruc, String dv) throws Exception {
+        DocumentoElectronico DE = DocumentosDePrueba.crearFactura(numeroDocumento, 3);
+        DE.getgDatGralOpe().getgEmis().setdRucEm(ruc);
+        DE.getgDatGralOpe().getgEmis().setdDVEmi(dv);
+        return DE.generarXml(GenerationCtx.getDefaultFromConfig(sifenConfig), sifenConfig);
+    }
+
+    private static void escribir(File archivo, String contenido) throws Exception {
+        Files.write(archivo.toPath(), contenido.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] zip(File directorio) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            File[] archivos = directorio.listFiles();
+            Arrays.sort(archivos);
+            for (File archivo : archivos) {
+                zip.putNextEntry(new ZipEntry(archivo.getName()));
+                zip.write(Files.readAllBytes(archivo.toPath()));
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,175 @@
+package com.roshka.sifen.test.soap;
+
+import com.roshka.sifen.SifenClient;
+import com.roshka.sifen.core.SifenConfig;
+import com.roshka.sifen.core.beans.DocumentoElectronico;
+import com.roshka.sifen.core.beans.response.RespuestaConsultaDE;
+import com.roshka.sifen.core.beans.response.RespuestaConsultaLoteDE;
+import com.roshka.sifen.core.fields.response.batch.TgResProcLote;
+import com.roshka.sifen.internal.ctx.GenerationCtx;
+import com.roshka.sifen.internal.helpers.SoapHelper;
+import com.roshka.sifen.internal.response.SifenObjectFactory;
+import com.roshka.sifen.internal.util.ResponseUtil;
+import com.roshka.sifen.test.de.DocumentosDePrueba;
+import com.roshka.sifen.test.http.LocalSifenServer;
+import com.roshka.sifen.test.signature.TestCertificates;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.xml.soap.SOAPMessage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de la lectura de respuestas de Sifen con XML escapado dentro del texto de sus elementos.
+ */
+public class ContenidoEscapadoTest {
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private final static String NS = "http://ekuatia.set.gov.py/sifen/xsd";
+
+    private static SifenConfig baseConfig;
+
+    @BeforeClass
+    public static void setupConfig() throws Exception {
+        File certificate = TestCertificates.createPkcs12(folder.newFile("cert.p12"), "PRUEBA");
+        baseConfig = new SifenConfig(SifenConfig.TipoAmbiente.DEV, SifenConfig.TipoCertificadoCliente.PFX,
+                certificate.getAbsolutePath(), TestCertificates.PASSWORD);
+    }
+
+    @Test
+    public void testConsultaLoteEscapada() throws Exception {
+        String respuesta = respuestaLote(50);
+        try (LocalSifenServer server = new LocalSifenServer(request -> respuesta)) {
+            SifenConfig sifenConfig = new SifenConfig(baseConfig);
+            sifenConfig.setUrlBase(server.getUrlBase());
+            try (SifenClient client = new SifenClient(sifenConfig)) {
+                RespuestaConsultaLoteDE lote = client.consultaLoteDE("1001");
+
+                assertEquals("0362", lote.getdCodResLot());
+                assertEquals(50, lote.getgResProcLoteList().size());
+                for (int i = 0; i < 50; i++) {
+                    TgResProcLote resultado = lote.getgResProcLote(cdc(i));
+                    assertNotNull(resultado);
+                    assertEquals(i % 2 == 0 ? "Aprobado" : "Rechazado", resultado.getdEstRes());
+                    assertEquals("Mensaje <" + i + "> & \"comillas\"", resultado.getgResProc().get(0).getdMsgRes());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testConsultaDEEscapada() throws Exception {
+        SifenConfig generacion = new SifenConfig(baseConfig);
+        DocumentoElectronico original = DocumentosDePrueba.crearFactura("0000001", 3);
+        String xml = original.generarXml(GenerationCtx.getDefaultFromConfig(generacion), generacion);
+        String rDE = xml.substring(xml.indexOf("<rDE"), xml.indexOf("</rDE>") + "</rDE>".length());
+
+        String respuesta = LocalSifenServer.SOAP_ENVELOPE_START +
+                "<ns2:rEnviConsDeResponse xmlns:ns2=\"" + NS + "\">" +
+                "<ns2:dCodRes>0422</ns2:dCodRes><ns2:dMsgRes>CDC encontrado</ns2:dMsgRes>" +
+                "<ns2:xContenDE>" + escapar("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" + rDE +
+                "\n<dProtAut>12345</dProtAut>") + "</ns2:xContenDE>" +
+                "<ns2:dFecProc>2022-03-15T10:30:00-03:00</ns2:dFecProc>" +
+                "</ns2:rEnviConsDeResponse>" + LocalSifenServer.SOAP_ENVELOPE_END;
+
+        try (LocalSifenServer server = new LocalSifenServer(request -> respuesta)) {
+            SifenConfig sifenConfig = new SifenConfig(baseConfig);
+            sifenConfig.setUrlBase(server.getUrlBase());
+            try (SifenClient client = new SifenClient(sifenConfig)) {
+                RespuestaConsultaDE consulta = client.consultaDE(original.getId());
+
+                assertEquals("0422", consulta.getdCodRes());
+                assertEquals(original.getId(), consulta.getxContenDE().getDE().getId());
+                assertEquals(3, consulta.getxContenDE().getDE().getgDtipDE().getgCamItemList().size());
+                assertEquals("12345", consulta.getxContenDE().getdProtAut());
+                // Los elementos posteriores al contenido escapado se leen normalmente
+                assertNotNull(consulta.getdFecProc());
+            }
+        }
+    }
+
+    /**
+     * Compara el tiempo y la memoria asignada de la lectura de una consulta de lote de 50 DEs con el contenido
+     * escapado, decodificándolo en la misma pasada o con el procesamiento anterior (des-escapado y nuevo parseo del
+     * mensaje).
+     */
+    @Test
+    @Ignore
+    public void benchmarkConsultaLote() throws Exception {
+        byte[] respuesta = respuestaLote(50).getBytes(StandardCharsets.UTF_8);
+        System.out.println("Tamaño de la respuesta: " + respuesta.length / 1024 + " KB");
+
+        for (int round = 0; round < 3; round++) {
+            medir("Anterior", () -> {
+                SOAPMessage message = ResponseUtil.parseSoapMessage(SoapHelper.parseSoapMessage(new ByteArrayInputStream(respuesta)));
+                return SifenObjectFactory.getFromNode(ResponseUtil.getMainNode(message, "rResEnviConsLoteDe"),
+                        RespuestaConsultaLoteDE.class);
+            });
+            medir("Una pasada", () -> {
+                SOAPMessage message = SoapHelper.parseSoapMessage(new ByteArrayInputStream(respuesta));
+                return SifenObjectFactory.getFromStream(ResponseUtil.getMainElement(message, "rResEnviConsLoteDe"),
+                        RespuestaConsultaLoteDE.class);
+            });
+        }
+    }
+
+    private interface Lectura {
+        RespuestaConsultaLoteDE leer() throws Exception;
+    }
+
+    private static void medir(String nombre, Lectura lectura) throws Exception {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        int repeticiones = 200;
+
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < repeticiones; i++) {
+            assertEquals(50, lectura.leer().getgResProcLoteList().size());
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        System.out.printf("%-10s %8.3f ms/respuesta %8d KB asignados/respuesta%n", nombre,
+                elapsed / 1e6 / repeticiones, allocated / 1024 / repeticiones);
+    }
+
+    /*
+     * Respuesta de consulta de lote cuyos resultados se encuentran escapados, a continuación de dMsgResLot.
+     */
+    private static String respuestaLote(int documentos) {
+        StringBuilder resultados = new StringBuilder();
+        for (int i = 0; i < documentos; i++) {
+            resultados.append("<ns2:gResProcLote><ns2:id>").append(cdc(i)).append("</ns2:id>")
+                    .append("<ns2:dEstRes>").append(i % 2 == 0 ? "Aprobado" : "Rechazado").append("</ns2:dEstRes>")
+                    .append("<ns2:gResProc><ns2:dCodRes>0260</ns2:dCodRes><ns2:dMsgRes>")
+                    .append(escapar("Mensaje <" + i + "> & \"comillas\"")).append("</ns2:dMsgRes></ns2:gResProc>")
+                    .append("</ns2:gResProcLote>\n");
+        }
+
+        return LocalSifenServer.SOAP_ENVELOPE_START +
+                "<ns2:rResEnviConsLoteDe xmlns:ns2=\"" + NS + "\">" +
+                "<ns2:dFecProc>2022-03-15T10:30:00-03:00</ns2:dFecProc>" +
+                "<ns2:dCodResLot>0362</ns2:dCodResLot>" +
+                "<ns2:dMsgResLot>Procesamiento de lote concluido</ns2:dMsgResLot>" +
+                escapar(resultados.toString()) +
+                "</ns2:rResEnviConsLoteDe>" + LocalSifenServer.SOAP_ENVELOPE_END;
+    }
+
+    private static String cdc(int i) {
+        return String.format("018008055340010010%07d22022031510000000%02d", i, i % 100).substring(0, 44);
+    }
+
+    private static String escapar(String xml) {
+        return xml.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
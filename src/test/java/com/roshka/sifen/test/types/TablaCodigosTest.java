@@ -0,0 +1,198 @@
+package com.roshka.sifen.test.types;
+
+import com.roshka.sifen.core.types.CMondT;
+import com.roshka.sifen.core.types.PaisType;
+import com.roshka.sifen.core.types.TTiDE;
+import com.roshka.sifen.core.types.TcCondNeg;
+import com.roshka.sifen.core.types.TcUniMed;
+import com.roshka.sifen.core.types.TiAfecIVA;
+import com.roshka.sifen.internal.util.NameTable;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de la búsqueda por código y por nombre de los enumerados de {@code com.roshka.sifen.core.types}, comparada
+ * con la búsqueda lineal.
+ */
+public class TablaCodigosTest {
+    @Test
+    public void testBusquedaPorCodigo() throws Exception {
+        List<Class<?>> enums = enumerados();
+        assertTrue(enums.size() > 40);
+
+        int verificados = 0;
+        for (Class<?> type : enums) {
+            Method getByVal;
+            try {
+                getByVal = type.getMethod("getByVal", short.class);
+            } catch (NoSuchMethodException e) {
+                continue;
+            }
+            Method getVal = type.getMethod("getVal");
+
+            Object[] values = type.getEnumConstants();
+            short max = 0;
+            for (Object value : values) {
+                short val = (short) getVal.invoke(value);
+                max = (short) Math.max(max, val);
+                assertSame(type.getSimpleName() + " " + val, primeroConCodigo(values, getVal, val), getByVal.invoke(null, val));
+            }
+            for (short val : new short[]{Short.MIN_VALUE, -1, 0, (short) (max + 1), Short.MAX_VALUE}) {
+                assertEquals(type.getSimpleName() + " " + val, primeroConCodigo(values, getVal, val), getByVal.invoke(null, val));
+            }
+            verificados++;
+        }
+        assertTrue(verificados > 35);
+    }
+
+    @Test
+    public void testBusquedaPorNombre() {
+        for (PaisType pais : PaisType.values()) {
+            assertSame(pais, PaisType.getByName(pais.name()));
+            assertSame(pais, PaisType.getByName(pais.name().toLowerCase(Locale.ROOT)));
+        }
+        for (CMondT moneda : CMondT.values()) {
+            assertSame(moneda, CMondT.getByName(moneda.name()));
+            assertSame(moneda, CMondT.getByName(moneda.name().toLowerCase(Locale.ROOT)));
+        }
+        for (TcCondNeg condicion : TcCondNeg.values()) {
+            assertSame(condicion, TcCondNeg.getByDescription(condicion.name().toLowerCase(Locale.ROOT)));
+        }
+
+        assertSame(CMondT.PYG, CMondT.getByName("pYg"));
+        assertNull(CMondT.getByName("PY"));
+        assertNull(CMondT.getByName("PYGG"));
+        assertNull(CMondT.getByName(""));
+        assertNull(CMondT.getByName(null));
+        assertNull(PaisType.getByName("XXX"));
+    }
+
+    @Test(timeout = 5000)
+    public void testNombresConHashPolinomialIgual() {
+        // "ap" y "c2" tienen el mismo hash polinomial (base 31): sus posiciones deben diferir con alguna semilla
+        NameTable<Colision> nombres = new NameTable<>(Colision.values());
+        for (Colision colision : Colision.values()) {
+            assertSame(colision, nombres.get(colision.name()));
+            assertSame(colision, nombres.get(colision.name().toLowerCase(Locale.ROOT)));
+        }
+        assertNull(nombres.get("AQ"));
+    }
+
+    private enum Colision {
+        AP, C2, BB
+    }
+
+    @Test
+    public void testBusquedaSinAsignaciones() {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        String[] monedas = {"PYG", "usd", "Eur", "BRL"};
+
+        // Se calienta la búsqueda antes de medir, para no contar la carga de clases
+        int encontrados = buscar(monedas, 1000);
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        encontrados += buscar(monedas, 100_000);
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        assertEquals(101_000 * 8, encontrados);
+        assertTrue("Memoria asignada: " + allocated, allocated < 16 * 1024);
+    }
+
+    private static int buscar(String[] monedas, int repeticiones) {
+        int encontrados = 0;
+        for (int i = 0; i < repeticiones; i++) {
+            encontrados += TiAfecIVA.getByVal((short) (1 + i % 4)) != null ? 1 : 0;
+            encontrados += TTiDE.getByVal((short) (1 + i % 7)) != null ? 1 : 0;
+            encontrados += TcUniMed.getByVal((short) 77) != null ? 1 : 0;
+            encontrados += CMondT.getByName(monedas[i % monedas.length]) != null ? 1 : 0;
+            encontrados += PaisType.getByName("PRY") != null ? 1 : 0;
+            encontrados += PaisType.getByName("bra") != null ? 1 : 0;
+            encontrados += TcCondNeg.getByDescription("FOB") != null ? 1 : 0;
+            encontrados += TiAfecIVA.getByVal((short) 9) == null ? 1 : 0;
+        }
+        return encontrados;
+    }
+
+    /**
+     * Compara el tiempo de la búsqueda lineal con el de las tablas, para códigos numéricos y nombres.
+     */
+    @Test
+    @Ignore
+    public void benchmarkBusqueda() {
+        int repeticiones = 2_000_000;
+        String[] paises = {"PRY", "bra", "Arg", "usa", "ZWE"};
+
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            int encontrados = 0;
+            for (int i = 0; i < repeticiones; i++) {
+                short val = (short) (77 + i % 2);
+                encontrados += Arrays.stream(TcUniMed.values()).filter(e -> e.getVal() == val).findFirst().orElse(null) != null ? 1 : 0;
+            }
+            imprimir("Código lineal", start, repeticiones, encontrados);
+
+            start = System.nanoTime();
+            encontrados = 0;
+            for (int i = 0; i < repeticiones; i++) {
+                encontrados += TcUniMed.getByVal((short) (77 + i % 2)) != null ? 1 : 0;
+            }
+            imprimir("Código tabla", start, repeticiones, encontrados);
+
+            start = System.nanoTime();
+            encontrados = 0;
+            for (int i = 0; i < repeticiones; i++) {
+                String name = paises[i % paises.length];
+                encontrados += Arrays.stream(PaisType.values()).filter(e -> e.name().equalsIgnoreCase(name)).findFirst().orElse(null) != null ? 1 : 0;
+            }
+            imprimir("Nombre lineal", start, repeticiones, encontrados);
+
+            start = System.nanoTime();
+            encontrados = 0;
+            for (int i = 0; i < repeticiones; i++) {
+                encontrados += PaisType.getByName(paises[i % paises.length]) != null ? 1 : 0;
+            }
+            imprimir("Nombre tabla", start, repeticiones, encontrados);
+        }
+    }
+
+    private static void imprimir(String nombre, long start, int repeticiones, int encontrados) {
+        System.out.printf("%-14s %8.1f ns/búsqueda (%d encontrados)%n", nombre,
+                (System.nanoTime() - start) / (double) repeticiones, encontrados);
+    }
+
+    private static Object primeroConCodigo(Object[] values, Method getVal, short val) throws Exception {
+        for (Object value : values) {
+            if ((short) getVal.invoke(value) == val) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /*
+     * Enumerados del paquete, a partir del directorio de sus clases.
+     */
+    private static List<Class<?>> enumerados() throws Exception {
+        File directory = new File(TiAfecIVA.class.getResource("TiAfecIVA.class").toURI()).getParentFile();
+        List<Class<?>> enums = new ArrayList<>();
+        for (String file : directory.list()) {
+            if (file.endsWith(".class") && !file.contains("$")) {
+                Class<?> type = Class.forName(TiAfecIVA.class.getPackage().getName() + "." + file.replace(".class", ""));
+                if (type.isEnum()) {
+                    enums.add(type);
+                }
+            }
+        }
+        return enums;
+    }
+}